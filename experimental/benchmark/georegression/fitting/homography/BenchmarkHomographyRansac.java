@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.homography;
+
+import georegression.PerformerBase;
+import georegression.ProfileOperation;
+import georegression.struct.homography.Homography2D_F64;
+import georegression.struct.point.AssociatedPair2D_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.transform.homography.HomographyPointOps_F64;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Speed of the operations inside of RANSAC when fitting a homography. Each hypothesis is generated from a random
+ * minimal sample then scored against every observation.
+ *
+ * @author Peter Abeles
+ */
+public class BenchmarkHomographyRansac {
+
+	long TIME = 1000;
+
+	Random rand = new Random(234);
+
+	List<AssociatedPair2D_F64> pairs = new ArrayList<>();
+	List<AssociatedPair2D_F64> sample = new ArrayList<>();
+	double[] errors;
+
+	Homography2D_F64 found = new Homography2D_F64();
+
+	public class GenerateMinimal extends PerformerBase {
+		GenerateHomography2D_F64 alg = new GenerateHomography2D_F64();
+
+		@Override
+		public void process() {
+			for (int trial = 0; trial < 1000; trial++) {
+				sample.clear();
+				for (int i = 0; i < 4; i++) {
+					sample.add(pairs.get(rand.nextInt(pairs.size())));
+				}
+				alg.generate(sample, found);
+			}
+		}
+
+		@Override
+		public String getName() {
+			return "Generate x1000";
+		}
+	}
+
+	public class Linear extends PerformerBase {
+		MotionHomographyPoint2D_F64 alg = new MotionHomographyPoint2D_F64();
+
+		@Override
+		public void process() {
+			alg.process(pairs);
+		}
+
+		@Override
+		public String getName() {
+			return "Linear N=" + pairs.size();
+		}
+	}
+
+	public class Distances extends PerformerBase {
+		PairDistanceFromHomography2D_F64 alg = new PairDistanceFromHomography2D_F64();
+
+		@Override
+		public void process() {
+			alg.setModel(found);
+			alg.distances(pairs, errors);
+		}
+
+		@Override
+		public String getName() {
+			return "Distances N=" + pairs.size();
+		}
+	}
+
+	public void process( int count ) {
+		var H = new Homography2D_F64(1.1, 0.05, 20, -0.02, 0.95, -10, 1e-4, -5e-5, 1);
+		pairs.clear();
+		for (int i = 0; i < count; i++) {
+			var src = new Point2D_F64(rand.nextDouble()*640, rand.nextDouble()*480);
+			Point2D_F64 dst = HomographyPointOps_F64.transform(H, src, null);
+			dst.x += rand.nextGaussian();
+			dst.y += rand.nextGaussian();
+			pairs.add(new AssociatedPair2D_F64(src, dst));
+		}
+		errors = new double[count];
+		found.setTo(H);
+
+		ProfileOperation.printOpsPerSec(new GenerateMinimal(), TIME);
+		ProfileOperation.printOpsPerSec(new Linear(), TIME);
+		ProfileOperation.printOpsPerSec(new Distances(), TIME);
+	}
+
+	public static void main( String[] args ) {
+		new BenchmarkHomographyRansac().process(1000);
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.polygon;
+
+import georegression.PerformerBase;
+import georegression.ProfileOperation;
+import georegression.struct.shapes.HalfEdgeMesh3D_F64;
+
+import java.util.Random;
+
+/**
+ * Compares the speed of 3D convex hull with different configurations. Points inside a cube are typical of
+ * point clouds, where most points are discarded by pre-filtering, and points on a sphere are the worst case.
+ *
+ * @author Peter Abeles
+ */
+public class BenchmarkConvexHull3D {
+
+	long TIME = 1000;
+
+	Random rand = new Random(234);
+
+	double[] xyz = new double[0];
+	int count;
+
+	public class Hull extends PerformerBase {
+		ConvexHullQuick3D_F64 alg;
+		String name;
+		HalfEdgeMesh3D_F64 mesh = new HalfEdgeMesh3D_F64();
+
+		public Hull( ConvexHullQuick3D_F64 alg, String name ) {
+			this.alg = alg;
+			this.name = name;
+		}
+
+		@Override
+		public void process() {
+			alg.process(xyz, count, mesh);
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+	}
+
+	public void process( int numPoints, boolean sphere ) {
+		count = numPoints;
+		xyz = new double[numPoints*3];
+		for (int i = 0; i < numPoints; i++) {
+			double x = rand.nextGaussian(), y = rand.nextGaussian(), z = rand.nextGaussian();
+			if (sphere) {
+				double n = Math.sqrt(x*x + y*y + z*z);
+				x /= n;
+				y /= n;
+				z /= n;
+			} else {
+				x = rand.nextDouble();
+				y = rand.nextDouble();
+				z = rand.nextDouble();
+			}
+			xyz[i*3] = x;
+			xyz[i*3 + 1] = y;
+			xyz[i*3 + 2] = z;
+		}
+
+		var noFilter = new ConvexHullQuick3D_F64();
+		noFilter.prefilter = false;
+		var concurrent = new ConvexHullQuick3D_MT_F64();
+		concurrent.minimumPointsConcurrent = 0;
+
+		System.out.println("Points = " + numPoints + " sphere = " + sphere);
+		ProfileOperation.printOpsPerSec(new Hull(noFilter, "No Filter"), TIME);
+		ProfileOperation.printOpsPerSec(new Hull(new ConvexHullQuick3D_F64(), "Filter"), TIME);
+		ProfileOperation.printOpsPerSec(new Hull(concurrent, "Concurrent"), TIME);
+	}
+
+	public static void main( String[] args ) {
+		var benchmark = new BenchmarkConvexHull3D();
+		benchmark.process(10_000, false);
+		benchmark.process(200_000, false);
+		benchmark.process(10_000, true);
+	}
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.polygon;
+
+import georegression.PerformerBase;
+import georegression.ProfileOperation;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import org.ddogleg.struct.DogArray;
+
+import java.util.Random;
+
+/**
+ * Points arrive in batches and the hull is needed after each batch. Compares recomputing the hull from scratch
+ * against updating it incrementally.
+ *
+ * @author Peter Abeles
+ */
+public class BenchmarkConvexHullIncremental {
+
+	long TIME = 1000;
+	int BATCH = 100;
+
+	Random rand = new Random(234);
+
+	DogArray<Point2D_F64> points = new DogArray<>(Point2D_F64::new);
+	Polygon2D_F64 hull = new Polygon2D_F64();
+
+	public class Batch extends PerformerBase {
+		ConvexHullAndrewMonotone_F64 alg = new ConvexHullAndrewMonotone_F64();
+		DogArray<Point2D_F64> work = new DogArray<>(Point2D_F64::new);
+
+		@Override
+		public void process() {
+			work.reset();
+			for (int i = 0; i < points.size; i += BATCH) {
+				for (int j = i; j < Math.min(points.size, i + BATCH); j++) {
+					work.grow().setTo(points.get(j));
+				}
+				alg.process(work, hull);
+			}
+		}
+	}
+
+	public class Incremental extends PerformerBase {
+		ConvexHullIncremental_F64 alg = new ConvexHullIncremental_F64();
+
+		@Override
+		public void process() {
+			alg.reset();
+			for (int i = 0; i < points.size; i += BATCH) {
+				for (int j = i; j < Math.min(points.size, i + BATCH); j++) {
+					alg.add(points.get(j));
+				}
+				alg.getHull(hull);
+			}
+		}
+	}
+
+	public void process( int numPoints ) {
+		points.reset();
+		for (int i = 0; i < numPoints; i++) {
+			points.grow().setTo(rand.nextGaussian(), rand.nextGaussian());
+		}
+
+		System.out.println("Points = " + numPoints + " batch = " + BATCH);
+		ProfileOperation.printOpsPerSec(new Batch(), TIME);
+		ProfileOperation.printOpsPerSec(new Incremental(), TIME);
+	}
+
+	public static void main( String[] args ) {
+		var benchmark = new BenchmarkConvexHullIncremental();
+		benchmark.process(1_000);
+		benchmark.process(20_000);
+	}
+}
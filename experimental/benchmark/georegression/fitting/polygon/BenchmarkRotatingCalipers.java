@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.polygon;
+
+import georegression.PerformerBase;
+import georegression.ProfileOperation;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import georegression.struct.shapes.Quadrilateral_F64;
+import org.ddogleg.struct.DogArray;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Minimum area bounding rectangle for many small blobs. Compares rotating calipers against sweeping the angle
+ * in one degree steps.
+ *
+ * @author Peter Abeles
+ */
+public class BenchmarkRotatingCalipers {
+
+	long TIME = 1000;
+	int BLOBS = 1000;
+
+	Random rand = new Random(234);
+
+	List<DogArray<Point2D_F64>> blobs = new ArrayList<>();
+
+	public class Calipers extends PerformerBase {
+		ConvexHullAndrewMonotone_F64 hull = new ConvexHullAndrewMonotone_F64();
+		RotatingCalipers_F64 calipers = new RotatingCalipers_F64();
+		Polygon2D_F64 polygon = new Polygon2D_F64();
+		Quadrilateral_F64 rectangle = new Quadrilateral_F64();
+
+		@Override
+		public void process() {
+			for (int i = 0; i < blobs.size(); i++) {
+				hull.process(blobs.get(i), polygon);
+				calipers.minimumAreaRectangle(polygon, rectangle);
+			}
+		}
+	}
+
+	public class AngleSweep extends PerformerBase {
+		@Override
+		public void process() {
+			for (int i = 0; i < blobs.size(); i++) {
+				DogArray<Point2D_F64> points = blobs.get(i);
+				double best = Double.MAX_VALUE;
+				for (int degree = 0; degree < 90; degree++) {
+					double c = Math.cos(Math.toRadians(degree)), s = Math.sin(Math.toRadians(degree));
+					double u0 = Double.MAX_VALUE, u1 = -Double.MAX_VALUE, v0 = Double.MAX_VALUE, v1 = -Double.MAX_VALUE;
+					for (int j = 0; j < points.size; j++) {
+						Point2D_F64 p = points.data[j];
+						double u = c*p.x + s*p.y, v = -s*p.x + c*p.y;
+						u0 = Math.min(u0, u);
+						u1 = Math.max(u1, u);
+						v0 = Math.min(v0, v);
+						v1 = Math.max(v1, v);
+					}
+					best = Math.min(best, (u1 - u0)*(v1 - v0));
+				}
+			}
+		}
+	}
+
+	public void process( int pointsPerBlob ) {
+		blobs.clear();
+		for (int i = 0; i < BLOBS; i++) {
+			var points = new DogArray<>(Point2D_F64::new);
+			for (int j = 0; j < pointsPerBlob; j++) {
+				points.grow().setTo(rand.nextGaussian()*5, rand.nextGaussian()*2);
+			}
+			blobs.add(points);
+		}
+
+		System.out.println("Blobs = " + BLOBS + " points = " + pointsPerBlob);
+		ProfileOperation.printOpsPerSec(new Calipers(), TIME);
+		ProfileOperation.printOpsPerSec(new AngleSweep(), TIME);
+	}
+
+	public static void main( String[] args ) {
+		var benchmark = new BenchmarkRotatingCalipers();
+		benchmark.process(20);
+		benchmark.process(200);
+	}
+}
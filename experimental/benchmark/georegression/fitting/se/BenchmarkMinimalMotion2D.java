@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.se;
+
+import georegression.PerformerBase;
+import georegression.ProfileOperation;
+import georegression.fitting.affine.GenerateAffine2D_F64;
+import georegression.fitting.affine.MotionAffinePoint2D_F64;
+import georegression.fitting.affine.PairDistanceFromAffine2D_F64;
+import georegression.struct.affine.Affine2D_F64;
+import georegression.struct.point.AssociatedPair2D_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.se.Se2_F64;
+import georegression.transform.se.SePointOps_F64;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Speed of generating hypotheses from minimal samples for 2D registration with RANSAC. Compares the closed form
+ * minimal solvers against the general least squares solvers, and the speed of scoring a hypothesis.
+ *
+ * @author Peter Abeles
+ */
+public class BenchmarkMinimalMotion2D {
+
+	long TIME = 1000;
+
+	// number of hypotheses generated per operation
+	static final int TRIALS = 10_000;
+
+	Random rand = new Random(234);
+
+	List<AssociatedPair2D_F64> pairs = new ArrayList<>();
+	double[] packedSrc, packedDst;
+	double[] errors;
+
+	int[] samples = new int[TRIALS*3];
+
+	public class AffineLeastSquares extends PerformerBase {
+		MotionAffinePoint2D_F64 alg = new MotionAffinePoint2D_F64();
+		List<Point2D_F64> src = new ArrayList<>();
+		List<Point2D_F64> dst = new ArrayList<>();
+
+		@Override
+		public void process() {
+			for (int trial = 0; trial < TRIALS; trial++) {
+				src.clear();
+				dst.clear();
+				for (int i = 0; i < 3; i++) {
+					AssociatedPair2D_F64 p = pairs.get(samples[trial*3 + i]);
+					src.add(p.src);
+					dst.add(p.dst);
+				}
+				alg.process(src, dst);
+			}
+		}
+	}
+
+	public class AffineMinimal extends PerformerBase {
+		GenerateAffine2D_F64 alg = new GenerateAffine2D_F64();
+		Affine2D_F64 found = new Affine2D_F64();
+
+		@Override
+		public void process() {
+			for (int trial = 0; trial < TRIALS; trial++) {
+				alg.generate(packedSrc, packedDst, samples[trial*3], samples[trial*3 + 1], samples[trial*3 + 2], found);
+			}
+		}
+	}
+
+	public class Se2Svd extends PerformerBase {
+		MotionSe2PointSVD_F64 alg = new MotionSe2PointSVD_F64();
+		List<Point2D_F64> src = new ArrayList<>();
+		List<Point2D_F64> dst = new ArrayList<>();
+
+		@Override
+		public void process() {
+			for (int trial = 0; trial < TRIALS; trial++) {
+				src.clear();
+				dst.clear();
+				// SVD requires three points
+				for (int i = 0; i < 3; i++) {
+					AssociatedPair2D_F64 p = pairs.get(samples[trial*3 + i]);
+					src.add(p.src);
+					dst.add(p.dst);
+				}
+				alg.process(src, dst);
+			}
+		}
+	}
+
+	public class Se2Minimal extends PerformerBase {
+		GenerateSe2FromPairs_F64 alg = new GenerateSe2FromPairs_F64();
+		Se2_F64 found = new Se2_F64();
+
+		@Override
+		public void process() {
+			for (int trial = 0; trial < TRIALS; trial++) {
+				alg.generate(packedSrc, packedDst, samples[trial*3], samples[trial*3 + 1], found);
+			}
+		}
+	}
+
+	public class AffineDistances extends PerformerBase {
+		PairDistanceFromAffine2D_F64 alg = new PairDistanceFromAffine2D_F64();
+
+		@Override
+		public void process() {
+			alg.setModel(new Affine2D_F64(1, 0.01, -0.01, 1, 5, -3));
+			alg.distances(packedSrc, packedDst, pairs.size(), errors);
+		}
+	}
+
+	public class Se2Distances extends PerformerBase {
+		PairDistanceFromSe2_F64 alg = new PairDistanceFromSe2_F64();
+
+		@Override
+		public void process() {
+			alg.setModel(new Se2_F64(5, -3, 0.1));
+			alg.distances(packedSrc, packedDst, pairs.size(), errors);
+		}
+	}
+
+	public void process( int count ) {
+		var truth = new Se2_F64(5, -3, 0.1);
+		pairs.clear();
+		packedSrc = new double[count*2];
+		packedDst = new double[count*2];
+		errors = new double[count];
+		for (int i = 0; i < count; i++) {
+			var src = new Point2D_F64(rand.nextDouble()*640, rand.nextDouble()*480);
+			Point2D_F64 dst = SePointOps_F64.transform(truth, src, null);
+			dst.x += rand.nextGaussian();
+			dst.y += rand.nextGaussian();
+			pairs.add(new AssociatedPair2D_F64(src, dst));
+			packedSrc[i*2] = src.x;
+			packedSrc[i*2 + 1] = src.y;
+			packedDst[i*2] = dst.x;
+			packedDst[i*2 + 1] = dst.y;
+		}
+		for (int i = 0; i < samples.length; i++) {
+			samples[i] = rand.nextInt(count);
+		}
+
+		System.out.println("Hypotheses per op = " + TRIALS + "  pairs = " + count);
+		ProfileOperation.printOpsPerSec(new AffineLeastSquares(), TIME);
+		ProfileOperation.printOpsPerSec(new AffineMinimal(), TIME);
+		ProfileOperation.printOpsPerSec(new Se2Svd(), TIME);
+		ProfileOperation.printOpsPerSec(new Se2Minimal(), TIME);
+		ProfileOperation.printOpsPerSec(new AffineDistances(), TIME);
+		ProfileOperation.printOpsPerSec(new Se2Distances(), TIME);
+	}
+
+	public static void main( String[] args ) {
+		new BenchmarkMinimalMotion2D().process(1000);
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.se;
+
+import georegression.PerformerBase;
+import georegression.ProfileOperation;
+import georegression.fitting.MotionTransformPoint;
+import georegression.fitting.so.MotionSo3PointQuaternion_F64;
+import georegression.fitting.so.MotionSo3PointSVD_F64;
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.struct.EulerType;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.transform.se.SePointOps_F64;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the speed of SVD and quaternion based 3D point alignment. Small point sets are typical of
+ * RANSAC where the fixed cost of each call dominates.
+ *
+ * @author Peter Abeles
+ */
+public class BenchmarkMotionPoint3D {
+
+	long TIME = 1000;
+	int TRIALS = 1000;
+
+	Random rand = new Random(234);
+
+	List<Point3D_F64> src = new ArrayList<>();
+	List<Point3D_F64> dst = new ArrayList<>();
+
+	public class Fit extends PerformerBase {
+		MotionTransformPoint<?, Point3D_F64> alg;
+		String name;
+
+		public Fit( MotionTransformPoint<?, Point3D_F64> alg, String name ) {
+			this.alg = alg;
+			this.name = name;
+		}
+
+		@Override
+		public void process() {
+			for (int i = 0; i < TRIALS; i++) {
+				alg.process(src, dst);
+			}
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+	}
+
+	public void process( int numPoints ) {
+		Se3_F64 motion = new Se3_F64();
+		ConvertRotation3D_F64.eulerToMatrix(EulerType.XYZ, 0.2, -0.5, 1.2, motion.R);
+		motion.T.setTo(0.5, -2, 0.1);
+
+		src.clear();
+		dst.clear();
+		for (int i = 0; i < numPoints; i++) {
+			Point3D_F64 a = new Point3D_F64(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian());
+			Point3D_F64 b = SePointOps_F64.transform(motion, a, null);
+			b.x += rand.nextGaussian()*0.01;
+			src.add(a);
+			dst.add(b);
+		}
+
+		System.out.println("Points = " + numPoints);
+		ProfileOperation.printOpsPerSec(new Fit(new MotionSe3PointSVD_F64(), "Se3 SVD"), TIME);
+		ProfileOperation.printOpsPerSec(new Fit(new MotionSe3PointQuaternion_F64(), "Se3 Quaternion"), TIME);
+		ProfileOperation.printOpsPerSec(new Fit(new MotionSo3PointSVD_F64(), "So3 SVD"), TIME);
+		ProfileOperation.printOpsPerSec(new Fit(new MotionSo3PointQuaternion_F64(), "So3 Quaternion"), TIME);
+	}
+
+	public static void main( String[] args ) {
+		var benchmark = new BenchmarkMotionPoint3D();
+		benchmark.process(4);
+		benchmark.process(100);
+		benchmark.process(1000);
+	}
+}
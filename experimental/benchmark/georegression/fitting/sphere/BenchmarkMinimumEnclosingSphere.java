@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.sphere;
+
+import georegression.PerformerBase;
+import georegression.ProfileOperation;
+import georegression.struct.shapes.Sphere3D_F64;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_F64;
+import org.ddogleg.struct.DogArray_I32;
+
+import java.util.Random;
+
+/**
+ * Bounding spheres for many small groups of points, e.g. the nodes in a bounding volume hierarchy.
+ * Compares the exact solution to Ritter's approximation.
+ *
+ * @author Peter Abeles
+ */
+public class BenchmarkMinimumEnclosingSphere {
+
+	long TIME = 1000;
+
+	Random rand = new Random(234);
+
+	DogArray_F64 xyz = new DogArray_F64();
+	DogArray_I32 groupFirst = new DogArray_I32();
+	DogArray<Sphere3D_F64> spheres = new DogArray<>(Sphere3D_F64::new);
+
+	public class Welzl extends PerformerBase {
+		MinimumEnclosingSphere_F64 alg = new MinimumEnclosingSphere_F64();
+
+		@Override
+		public void process() {
+			alg.processBatch(xyz.data, groupFirst, spheres);
+		}
+	}
+
+	public class Ritter extends PerformerBase {
+		MinimumEnclosingSphere_F64 alg = new MinimumEnclosingSphere_F64();
+
+		{
+			alg.exact = false;
+		}
+
+		@Override
+		public void process() {
+			alg.processBatch(xyz.data, groupFirst, spheres);
+		}
+	}
+
+	public void process( int numGroups, int pointsPerGroup ) {
+		xyz.reset();
+		groupFirst.reset();
+		for (int group = 0; group < numGroups; group++) {
+			groupFirst.add(xyz.size/3);
+			for (int i = 0; i < pointsPerGroup*3; i++) {
+				xyz.add(rand.nextGaussian());
+			}
+		}
+		groupFirst.add(xyz.size/3);
+
+		System.out.println("Groups = " + numGroups + " points = " + pointsPerGroup);
+		ProfileOperation.printOpsPerSec(new Welzl(), TIME);
+		ProfileOperation.printOpsPerSec(new Ritter(), TIME);
+	}
+
+	public static void main( String[] args ) {
+		var benchmark = new BenchmarkMinimumEnclosingSphere();
+		benchmark.process(10_000, 16);
+		benchmark.process(10, 20_000);
+	}
+}
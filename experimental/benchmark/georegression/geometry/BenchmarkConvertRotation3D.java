@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry;
+
+import georegression.PerformerBase;
+import georegression.ProfileOperation;
+import georegression.struct.EulerType;
+import georegression.struct.so.Quaternion_F64;
+import org.ejml.data.DMatrixRMaj;
+
+import java.util.Random;
+
+/**
+ * Compares converting rotations one at a time against the bulk array conversions
+ *
+ * @author Peter Abeles
+ */
+public class BenchmarkConvertRotation3D {
+
+	long TIME = 1000;
+	int N = 200_000;
+
+	Random rand = new Random(234);
+
+	double[] euler = new double[N*3];
+	double[] quats = new double[N*4];
+	double[] matrices = new double[N*9];
+	double[] work = new double[N*4];
+	Quaternion_F64[] quatObjects = new Quaternion_F64[N];
+
+	public class QuatToMatrixSingleNew extends PerformerBase {
+		@Override
+		public void process() {
+			for (int i = 0; i < N; i++) {
+				DMatrixRMaj R = ConvertRotation3D_F64.quaternionToMatrix(quatObjects[i], null);
+				System.arraycopy(R.data, 0, matrices, i*9, 9);
+			}
+		}
+	}
+
+	public class QuatToMatrixBulk extends PerformerBase {
+		@Override
+		public void process() {
+			ConvertRotation3D_F64.quaternionToMatrix(quats, 0, matrices, 0, N);
+		}
+	}
+
+	public class QuatToMatrixBulkMT extends PerformerBase {
+		@Override
+		public void process() {
+			ConvertRotation3D_MT_F64.quaternionToMatrix(quats, 0, matrices, 0, N);
+		}
+	}
+
+	public class MatrixToQuatBulk extends PerformerBase {
+		@Override
+		public void process() {
+			ConvertRotation3D_F64.matrixToQuaternion(matrices, 0, work, 0, N);
+		}
+	}
+
+	public class EulerToQuatSingleNew extends PerformerBase {
+		@Override
+		public void process() {
+			for (int i = 0; i < N; i++) {
+				Quaternion_F64 q = ConvertRotation3D_F64.eulerToQuaternion(EulerType.XYZ,
+						euler[i*3], euler[i*3 + 1], euler[i*3 + 2], null);
+				work[i*4] = q.w;
+				work[i*4 + 1] = q.x;
+				work[i*4 + 2] = q.y;
+				work[i*4 + 3] = q.z;
+			}
+		}
+	}
+
+	public class EulerToQuatBulk extends PerformerBase {
+		@Override
+		public void process() {
+			ConvertRotation3D_F64.eulerToQuaternion(EulerType.XYZ, euler, 0, work, 0, N);
+		}
+	}
+
+	public class EulerToQuatBulkMT extends PerformerBase {
+		@Override
+		public void process() {
+			ConvertRotation3D_MT_F64.eulerToQuaternion(EulerType.XYZ, euler, 0, work, 0, N);
+		}
+	}
+
+	public class QuatToEulerSingle extends PerformerBase {
+		double[] angles = new double[3];
+
+		@Override
+		public void process() {
+			for (int i = 0; i < N; i++) {
+				ConvertRotation3D_F64.quaternionToEuler(quatObjects[i], EulerType.XYZ, angles);
+				System.arraycopy(angles, 0, euler, i*3, 3);
+			}
+		}
+	}
+
+	public class QuatToEulerBulk extends PerformerBase {
+		@Override
+		public void process() {
+			ConvertRotation3D_F64.quaternionToEuler(quats, 0, EulerType.XYZ, euler, 0, N);
+		}
+	}
+
+	public class NormalizeExact extends PerformerBase {
+		@Override
+		public void process() {
+			System.arraycopy(quats, 0, work, 0, work.length);
+			UtilQuaternion_F64.normalize(work, 0, N);
+		}
+	}
+
+	public class NormalizeApprox extends PerformerBase {
+		@Override
+		public void process() {
+			System.arraycopy(quats, 0, work, 0, work.length);
+			UtilQuaternion_F64.normalizeApprox(work, 0, N);
+		}
+	}
+
+	public void process() {
+		for (int i = 0; i < N; i++) {
+			var q = new Quaternion_F64(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian());
+			q.normalize();
+			quatObjects[i] = q;
+			// simulate a small amount of drift
+			double scale = 1.0 + 1e-6*rand.nextGaussian();
+			quats[i*4] = q.w*scale;
+			quats[i*4 + 1] = q.x*scale;
+			quats[i*4 + 2] = q.y*scale;
+			quats[i*4 + 3] = q.z*scale;
+		}
+		for (int i = 0; i < euler.length; i++) {
+			euler[i] = 2.0*Math.PI*(rand.nextDouble() - 0.5);
+		}
+
+		ProfileOperation.printOpsPerSec(new QuatToMatrixSingleNew(), TIME);
+		ProfileOperation.printOpsPerSec(new QuatToMatrixBulk(), TIME);
+		ProfileOperation.printOpsPerSec(new QuatToMatrixBulkMT(), TIME);
+		ProfileOperation.printOpsPerSec(new MatrixToQuatBulk(), TIME);
+		ProfileOperation.printOpsPerSec(new EulerToQuatSingleNew(), TIME);
+		ProfileOperation.printOpsPerSec(new EulerToQuatBulk(), TIME);
+		ProfileOperation.printOpsPerSec(new EulerToQuatBulkMT(), TIME);
+		ProfileOperation.printOpsPerSec(new QuatToEulerSingle(), TIME);
+		ProfileOperation.printOpsPerSec(new QuatToEulerBulk(), TIME);
+		ProfileOperation.printOpsPerSec(new NormalizeExact(), TIME);
+		ProfileOperation.printOpsPerSec(new NormalizeApprox(), TIME);
+	}
+
+	public static void main( String[] args ) {
+		new BenchmarkConvertRotation3D().process();
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.polygon;
+
+import georegression.PerformerBase;
+import georegression.ProfileOperation;
+import georegression.metric.Distance2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import org.ddogleg.struct.DogArray_F64;
+import org.ddogleg.struct.DogArray_I32;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Non-maximum suppression of rotated boxes from an object detector. Compares computing the IoU of every pair
+ * one at a time to the batch implementation.
+ *
+ * @author Peter Abeles
+ */
+public class BenchmarkOverlapConvexPolygons {
+
+	long TIME = 1000;
+
+	Random rand = new Random(234);
+
+	List<Polygon2D_F64> polygons = new ArrayList<>();
+	DogArray_F64 scores = new DogArray_F64();
+	DogArray_I32 selected = new DogArray_I32();
+
+	public class PairScoreIoU extends PerformerBase {
+		AreaIntersectionPolygon2D_F64 area = new AreaIntersectionPolygon2D_F64();
+
+		@Override
+		public void process() {
+			double total = 0;
+			for (int i = 0; i < polygons.size(); i++) {
+				for (int j = i + 1; j < polygons.size(); j++) {
+					total += Distance2D_F64.scoreIoU(polygons.get(i), polygons.get(j), area);
+				}
+			}
+			if (total < 0)
+				throw new RuntimeException("Impossible");
+		}
+	}
+
+	public class BatchNMS extends PerformerBase {
+		OverlapConvexPolygons2D_F64 alg;
+
+		public BatchNMS( OverlapConvexPolygons2D_F64 alg ) {
+			this.alg = alg;
+		}
+
+		@Override
+		public void process() {
+			alg.setPolygons(polygons);
+			alg.nonMaximumSuppression(scores, 0.5, selected);
+		}
+
+		@Override
+		public String getName() {
+			return alg.getClass().getSimpleName();
+		}
+	}
+
+	public void process( int count ) {
+		polygons.clear();
+		scores.reset();
+		for (int i = 0; i < count; i++) {
+			// boxes cluster around objects
+			double cx = (i%50)*20 + rand.nextGaussian()*2, cy = (i%50)*7 + rand.nextGaussian()*2;
+			double w = 8 + rand.nextDouble()*4, h = 8 + rand.nextDouble()*4;
+			double theta = rand.nextDouble()*Math.PI;
+			double c = Math.cos(theta), s = Math.sin(theta);
+			var polygon = new Polygon2D_F64(4);
+			for (int k = 0; k < 4; k++) {
+				double x = (k == 0 || k == 3 ? -w : w)/2;
+				double y = (k < 2 ? -h : h)/2;
+				polygon.get(k).setTo(cx + c*x - s*y, cy + s*x + c*y);
+			}
+			polygons.add(polygon);
+			scores.add(rand.nextDouble());
+		}
+
+		System.out.println("Polygons = " + count);
+		ProfileOperation.printOpsPerSec(new PairScoreIoU(), TIME);
+		ProfileOperation.printOpsPerSec(new BatchNMS(new OverlapConvexPolygons2D_F64()), TIME);
+		ProfileOperation.printOpsPerSec(new BatchNMS(new OverlapConvexPolygons2D_MT_F64()), TIME);
+	}
+
+	public static void main( String[] args ) {
+		var benchmark = new BenchmarkOverlapConvexPolygons();
+		benchmark.process(200);
+		benchmark.process(2000);
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.polygon;
+
+import georegression.PerformerBase;
+import georegression.ProfileOperation;
+import georegression.geometry.UtilPolygons2D_F64;
+import georegression.metric.Intersection2D_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import georegression.struct.shapes.Rectangle2D_F64;
+
+import java.util.Random;
+
+/**
+ * Compares creating a mask from a polygon by testing every pixel inside its bounding box against scanline
+ * rasterization.
+ *
+ * @author Peter Abeles
+ */
+public class BenchmarkRasterizePolygon {
+
+	long TIME = 1000;
+	int width = 640, height = 480;
+
+	Random rand = new Random(234);
+
+	Polygon2D_F64 polygon = new Polygon2D_F64();
+	boolean[] mask = new boolean[width*height];
+
+	public class ContainsConcave extends PerformerBase {
+		Rectangle2D_F64 bounds = new Rectangle2D_F64();
+		Point2D_F64 pt = new Point2D_F64();
+
+		@Override
+		public void process() {
+			UtilPolygons2D_F64.bounding(polygon, bounds);
+			int x0 = (int)Math.max(0, bounds.p0.x), x1 = (int)Math.min(width - 1, bounds.p1.x);
+			int y0 = (int)Math.max(0, bounds.p0.y), y1 = (int)Math.min(height - 1, bounds.p1.y);
+			for (int y = y0; y <= y1; y++) {
+				for (int x = x0; x <= x1; x++) {
+					pt.setTo(x, y);
+					mask[y*width + x] = Intersection2D_F64.containsConcave(polygon, pt);
+				}
+			}
+		}
+	}
+
+	public class Scanline extends PerformerBase {
+		RasterizePolygon2D_F64 alg = new RasterizePolygon2D_F64();
+
+		@Override
+		public void process() {
+			alg.process(polygon, width, height, ( y, x0, x1 ) -> {
+				for (int x = x0; x < x1; x++) {
+					mask[y*width + x] = true;
+				}
+			});
+		}
+	}
+
+	public class Coverage extends PerformerBase {
+		RasterizePolygon2D_F64 alg = new RasterizePolygon2D_F64();
+
+		@Override
+		public void process() {
+			alg.processCoverage(polygon, width, height, ( y, x0, x1, coverage ) -> {
+				for (int x = x0; x < x1; x++) {
+					mask[y*width + x] = coverage[x] >= 0.5;
+				}
+			});
+		}
+	}
+
+	public void process( int numVertexes ) {
+		polygon.vertexes.resize(numVertexes);
+		for (int i = 0; i < numVertexes; i++) {
+			double theta = 2.0*Math.PI*i/numVertexes;
+			double r = 150 + 50*rand.nextDouble();
+			polygon.get(i).setTo(width/2 + r*Math.cos(theta), height/2 + r*Math.sin(theta));
+		}
+
+		System.out.println("Vertexes = " + numVertexes);
+		ProfileOperation.printOpsPerSec(new ContainsConcave(), TIME);
+		ProfileOperation.printOpsPerSec(new Scanline(), TIME);
+		ProfileOperation.printOpsPerSec(new Coverage(), TIME);
+	}
+
+	public static void main( String[] args ) {
+		var benchmark = new BenchmarkRasterizePolygon();
+		benchmark.process(10);
+		benchmark.process(200);
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.polygon;
+
+import georegression.PerformerBase;
+import georegression.ProfileOperation;
+import georegression.struct.shapes.Polygon2D_F64;
+
+import java.util.Random;
+
+/**
+ * Simplifies a noisy contour with a large number of vertexes, like one produced by contour tracing.
+ *
+ * @author Peter Abeles
+ */
+public class BenchmarkSimplifyPolyline {
+
+	long TIME = 1000;
+
+	Random rand = new Random(234);
+
+	Polygon2D_F64 contour = new Polygon2D_F64();
+	Polygon2D_F64 output = new Polygon2D_F64();
+
+	public class Simplify extends PerformerBase {
+		SimplifyPolyline_F64 alg = new SimplifyPolyline_F64();
+		String name;
+
+		public Simplify( SimplifyPolyline_F64.Method method, boolean topology, double tolerance ) {
+			alg.method = method;
+			alg.preserveTopology = topology;
+			alg.tolerance = tolerance;
+			name = method + (topology ? " topology" : "");
+		}
+
+		@Override
+		public void process() {
+			alg.process(contour, output);
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+	}
+
+	public void process( int numVertexes ) {
+		// wobbly circle with pixel noise
+		contour.vertexes.resize(numVertexes);
+		for (int i = 0; i < numVertexes; i++) {
+			double theta = 2.0*Math.PI*i/numVertexes;
+			double r = numVertexes/10.0*(1.0 + 0.2*Math.sin(theta*7)) + rand.nextDouble();
+			contour.get(i).setTo(r*Math.cos(theta), r*Math.sin(theta));
+		}
+
+		System.out.println("Vertexes = " + numVertexes);
+		ProfileOperation.printOpsPerSec(new Simplify(SimplifyPolyline_F64.Method.DOUGLAS_PEUCKER, false, 2.0), TIME);
+		ProfileOperation.printOpsPerSec(new Simplify(SimplifyPolyline_F64.Method.DOUGLAS_PEUCKER, true, 2.0), TIME);
+		ProfileOperation.printOpsPerSec(new Simplify(SimplifyPolyline_F64.Method.VISVALINGAM, false, 4.0), TIME);
+		ProfileOperation.printOpsPerSec(new Simplify(SimplifyPolyline_F64.Method.VISVALINGAM, true, 4.0), TIME);
+	}
+
+	public static void main( String[] args ) {
+		var benchmark = new BenchmarkSimplifyPolyline();
+		benchmark.process(1_000);
+		benchmark.process(50_000);
+	}
+}
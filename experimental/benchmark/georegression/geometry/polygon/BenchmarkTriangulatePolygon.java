@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.polygon;
+
+import georegression.PerformerBase;
+import georegression.ProfileOperation;
+import georegression.struct.shapes.Polygon2D_F64;
+import org.ddogleg.struct.DogArray;
+
+import java.util.Random;
+
+/**
+ * Compares the speed of ear clipping against monotone partitioning as the number of vertexes increases
+ *
+ * @author Peter Abeles
+ */
+public class BenchmarkTriangulatePolygon {
+
+	long TIME = 1000;
+
+	Random rand = new Random(234);
+
+	Polygon2D_F64 polygon = new Polygon2D_F64();
+	DogArray<ThreeIndexes> triangles = new DogArray<>(ThreeIndexes::new);
+
+	public class Ears extends PerformerBase {
+		TriangulateSimpleRemoveEars_F64 alg = new TriangulateSimpleRemoveEars_F64();
+
+		@Override
+		public void process() {
+			alg.process(polygon, triangles);
+		}
+	}
+
+	public class Monotone extends PerformerBase {
+		TriangulateMonotone_F64 alg = new TriangulateMonotone_F64();
+
+		@Override
+		public void process() {
+			alg.process(polygon, triangles);
+		}
+	}
+
+	/** Star shaped polygon with a random radius at each vertex, so it has lots of concave vertexes */
+	public void createPolygon( int N ) {
+		polygon.vertexes.resize(N);
+		for (int i = 0; i < N; i++) {
+			double theta = 2.0*Math.PI*i/N;
+			double r = 1.0 + 10.0*rand.nextDouble();
+			polygon.set(i, r*Math.cos(theta), r*Math.sin(theta));
+		}
+	}
+
+	public void process() {
+		for (int N : new int[]{100, 1000, 5000}) {
+			createPolygon(N);
+			System.out.println("Vertexes " + N);
+			ProfileOperation.printOpsPerSec(new Ears(), TIME);
+			ProfileOperation.printOpsPerSec(new Monotone(), TIME);
+		}
+	}
+
+	public static void main( String[] args ) {
+		new BenchmarkTriangulatePolygon().process();
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.metric.alg;
+
+import georegression.PerformerBase;
+import georegression.ProfileOperation;
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.metric.Distance3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.shapes.BoxOriented3D_F64;
+import org.ddogleg.struct.DogArray_F64;
+import org.ddogleg.struct.DogArray_I32;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Non-maximum suppression of 3D boxes from an object detector. Compares computing the IoU of every pair
+ * one at a time to the batch implementation.
+ *
+ * @author Peter Abeles
+ */
+public class BenchmarkOverlapBoxesOriented3D {
+
+	long TIME = 1000;
+
+	Random rand = new Random(234);
+
+	List<BoxOriented3D_F64> boxes = new ArrayList<>();
+	DogArray_F64 scores = new DogArray_F64();
+	DogArray_I32 selected = new DogArray_I32();
+
+	public class PairScoreIoU extends PerformerBase {
+		@Override
+		public void process() {
+			double total = 0;
+			for (int i = 0; i < boxes.size(); i++) {
+				for (int j = i + 1; j < boxes.size(); j++) {
+					total += Distance3D_F64.scoreIoU(boxes.get(i), boxes.get(j));
+				}
+			}
+			if (total < 0)
+				throw new RuntimeException("Impossible");
+		}
+	}
+
+	public class BatchNMS extends PerformerBase {
+		OverlapBoxesOriented3D_F64 alg;
+
+		public BatchNMS( OverlapBoxesOriented3D_F64 alg ) {
+			this.alg = alg;
+		}
+
+		@Override
+		public void process() {
+			alg.setBoxes(boxes);
+			alg.nonMaximumSuppression(scores, 0.5, selected);
+		}
+
+		@Override
+		public String getName() {
+			return alg.getClass().getSimpleName();
+		}
+	}
+
+	public void process( int count ) {
+		boxes.clear();
+		scores.reset();
+		for (int i = 0; i < count; i++) {
+			// boxes cluster around objects
+			var box = new BoxOriented3D_F64(new Se3_F64(),
+					3.5 + rand.nextDouble(), 1.5 + rand.nextDouble()*0.5, 1.5 + rand.nextDouble()*0.3);
+			box.pose.T.setTo((i%50)*6 + rand.nextGaussian()*0.5, (i%50)*2 + rand.nextGaussian()*0.5,
+					rand.nextGaussian()*0.2);
+			ConvertRotation3D_F64.rotZ(rand.nextDouble()*Math.PI, box.pose.R);
+			boxes.add(box);
+			scores.add(rand.nextDouble());
+		}
+
+		System.out.println("Boxes = " + count);
+		ProfileOperation.printOpsPerSec(new PairScoreIoU(), TIME);
+		ProfileOperation.printOpsPerSec(new BatchNMS(new OverlapBoxesOriented3D_F64()), TIME);
+		ProfileOperation.printOpsPerSec(new BatchNMS(new OverlapBoxesOriented3D_MT_F64()), TIME);
+	}
+
+	public static void main( String[] args ) {
+		var benchmark = new BenchmarkOverlapBoxesOriented3D();
+		benchmark.process(200);
+		benchmark.process(2000);
+	}
+}
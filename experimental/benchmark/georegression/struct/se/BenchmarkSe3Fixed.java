@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.struct.se;
+
+import georegression.PerformerBase;
+import georegression.ProfileOperation;
+import georegression.struct.point.Point3D_F64;
+
+import java.util.Random;
+
+/**
+ * Compares the speed of {@link Se3_F64} against {@link Se3Fixed_F64} when composing and applying transforms
+ *
+ * @author Peter Abeles
+ */
+public class BenchmarkSe3Fixed {
+
+	long TIME = 1000;
+	int N = 10_000;
+
+	Random rand = new Random(234);
+
+	Se3_F64[] motions = new Se3_F64[N];
+	Se3Fixed_F64[] motionsFixed = new Se3Fixed_F64[N];
+
+	public class Concat extends PerformerBase {
+		Se3_F64 a = new Se3_F64(), b = new Se3_F64();
+
+		@Override
+		public void process() {
+			a.reset();
+			for (int i = 0; i < N; i++) {
+				a.concat(motions[i], b);
+				a.setTo(b);
+			}
+		}
+	}
+
+	public class ConcatFixed extends PerformerBase {
+		Se3Fixed_F64 a = new Se3Fixed_F64();
+
+		@Override
+		public void process() {
+			a.reset();
+			for (int i = 0; i < N; i++) {
+				a.concat(motionsFixed[i], a);
+			}
+		}
+	}
+
+	public class Invert extends PerformerBase {
+		Se3_F64 a = new Se3_F64();
+
+		@Override
+		public void process() {
+			for (int i = 0; i < N; i++) {
+				motions[i].invert(a);
+			}
+		}
+	}
+
+	public class InvertFixed extends PerformerBase {
+		Se3Fixed_F64 a = new Se3Fixed_F64();
+
+		@Override
+		public void process() {
+			for (int i = 0; i < N; i++) {
+				motionsFixed[i].invert(a);
+			}
+		}
+	}
+
+	public class InvertConcat extends PerformerBase {
+		Se3_F64 a = new Se3_F64();
+
+		@Override
+		public void process() {
+			for (int i = 1; i < N; i++) {
+				motions[i - 1].invertConcat(motions[i], a);
+			}
+		}
+	}
+
+	public class InvertConcatFixed extends PerformerBase {
+		Se3Fixed_F64 a = new Se3Fixed_F64();
+
+		@Override
+		public void process() {
+			for (int i = 1; i < N; i++) {
+				motionsFixed[i - 1].invertConcat(motionsFixed[i], a);
+			}
+		}
+	}
+
+	public class Transform extends PerformerBase {
+		Point3D_F64 p = new Point3D_F64();
+
+		@Override
+		public void process() {
+			p.setTo(1, 2, 3);
+			for (int i = 0; i < N; i++) {
+				motions[i].transform(p, p);
+			}
+		}
+	}
+
+	public class TransformFixed extends PerformerBase {
+		Point3D_F64 p = new Point3D_F64();
+
+		@Override
+		public void process() {
+			p.setTo(1, 2, 3);
+			for (int i = 0; i < N; i++) {
+				motionsFixed[i].transform(p, p);
+			}
+		}
+	}
+
+	public void process() {
+		for (int i = 0; i < N; i++) {
+			motions[i] = SpecialEuclideanOps_F64.eulerXyz(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(),
+					rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(), null);
+			motionsFixed[i] = new Se3Fixed_F64(motions[i]);
+		}
+
+		ProfileOperation.printOpsPerSec(new Concat(), TIME);
+		ProfileOperation.printOpsPerSec(new ConcatFixed(), TIME);
+		ProfileOperation.printOpsPerSec(new Invert(), TIME);
+		ProfileOperation.printOpsPerSec(new InvertFixed(), TIME);
+		ProfileOperation.printOpsPerSec(new InvertConcat(), TIME);
+		ProfileOperation.printOpsPerSec(new InvertConcatFixed(), TIME);
+		ProfileOperation.printOpsPerSec(new Transform(), TIME);
+		ProfileOperation.printOpsPerSec(new TransformFixed(), TIME);
+	}
+
+	public static void main( String[] args ) {
+		new BenchmarkSe3Fixed().process();
+	}
+}
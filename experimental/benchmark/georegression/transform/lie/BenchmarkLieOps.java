@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.transform.lie;
+
+import georegression.PerformerBase;
+import georegression.ProfileOperation;
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.struct.point.Vector3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.so.Rodrigues_F64;
+import georegression.transform.twist.TwistCoordinate_F64;
+import georegression.transform.twist.TwistOps_F64;
+import org.ejml.data.DMatrixRMaj;
+
+import java.util.Random;
+
+/**
+ * Compares the speed of Lie group operations against the older implementations which they can replace
+ *
+ * @author Peter Abeles
+ */
+public class BenchmarkLieOps {
+
+	long TIME = 1000;
+	int N = 10_000;
+
+	Random rand = new Random(234);
+
+	TwistCoordinate_F64[] twists = new TwistCoordinate_F64[N];
+	Se3_F64[] motions = new Se3_F64[N];
+
+	public class So3Exp extends PerformerBase {
+		DMatrixRMaj R = new DMatrixRMaj(3, 3);
+
+		@Override
+		public void process() {
+			for (int i = 0; i < N; i++) {
+				LieSo3Ops_F64.exp(twists[i].w, R);
+			}
+		}
+	}
+
+	public class So3ExpRodrigues extends PerformerBase {
+		DMatrixRMaj R = new DMatrixRMaj(3, 3);
+
+		@Override
+		public void process() {
+			for (int i = 0; i < N; i++) {
+				Vector3D_F64 w = twists[i].w;
+				ConvertRotation3D_F64.rodriguesToMatrix(w.x, w.y, w.z, R);
+			}
+		}
+	}
+
+	public class So3Log extends PerformerBase {
+		Vector3D_F64 w = new Vector3D_F64();
+
+		@Override
+		public void process() {
+			for (int i = 0; i < N; i++) {
+				LieSo3Ops_F64.log(motions[i].R, w);
+			}
+		}
+	}
+
+	public class So3LogRodrigues extends PerformerBase {
+		Rodrigues_F64 rod = new Rodrigues_F64();
+
+		@Override
+		public void process() {
+			for (int i = 0; i < N; i++) {
+				ConvertRotation3D_F64.matrixToRodrigues(motions[i].R, rod);
+			}
+		}
+	}
+
+	public class Se3Exp extends PerformerBase {
+		Se3_F64 found = new Se3_F64();
+
+		@Override
+		public void process() {
+			for (int i = 0; i < N; i++) {
+				LieSe3Ops_F64.exp(twists[i], found);
+			}
+		}
+	}
+
+	public class Se3ExpTwist extends PerformerBase {
+		Se3_F64 found = new Se3_F64();
+
+		@Override
+		public void process() {
+			for (int i = 0; i < N; i++) {
+				TwistOps_F64.exponential(twists[i], 1.0, found);
+			}
+		}
+	}
+
+	public class Se3Log extends PerformerBase {
+		TwistCoordinate_F64 found = new TwistCoordinate_F64();
+
+		@Override
+		public void process() {
+			for (int i = 0; i < N; i++) {
+				LieSe3Ops_F64.log(motions[i], found);
+			}
+		}
+	}
+
+	public class Se3LogTwist extends PerformerBase {
+		TwistCoordinate_F64 found = new TwistCoordinate_F64();
+
+		@Override
+		public void process() {
+			for (int i = 0; i < N; i++) {
+				TwistOps_F64.twist(motions[i], found);
+			}
+		}
+	}
+
+	public class Se3JacobianLeft extends PerformerBase {
+		DMatrixRMaj J = new DMatrixRMaj(6, 6);
+
+		@Override
+		public void process() {
+			for (int i = 0; i < N; i++) {
+				LieSe3Ops_F64.jacobianLeft(twists[i], J);
+			}
+		}
+	}
+
+	public class Se3JacobianLeftInv extends PerformerBase {
+		DMatrixRMaj J = new DMatrixRMaj(6, 6);
+
+		@Override
+		public void process() {
+			for (int i = 0; i < N; i++) {
+				LieSe3Ops_F64.jacobianLeftInv(twists[i], J);
+			}
+		}
+	}
+
+	public void process() {
+		for (int i = 0; i < N; i++) {
+			var xi = new TwistCoordinate_F64();
+			xi.w.setTo(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian());
+			xi.v.setTo(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian());
+			twists[i] = xi;
+			motions[i] = LieSe3Ops_F64.exp(xi, new Se3_F64());
+		}
+
+		ProfileOperation.printOpsPerSec(new So3Exp(), TIME);
+		ProfileOperation.printOpsPerSec(new So3ExpRodrigues(), TIME);
+		ProfileOperation.printOpsPerSec(new So3Log(), TIME);
+		ProfileOperation.printOpsPerSec(new So3LogRodrigues(), TIME);
+		ProfileOperation.printOpsPerSec(new Se3Exp(), TIME);
+		ProfileOperation.printOpsPerSec(new Se3ExpTwist(), TIME);
+		ProfileOperation.printOpsPerSec(new Se3Log(), TIME);
+		ProfileOperation.printOpsPerSec(new Se3LogTwist(), TIME);
+		ProfileOperation.printOpsPerSec(new Se3JacobianLeft(), TIME);
+		ProfileOperation.printOpsPerSec(new Se3JacobianLeftInv(), TIME);
+	}
+
+	public static void main( String[] args ) {
+		new BenchmarkLieOps().process();
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.transform.se;
+
+import georegression.PerformerBase;
+import georegression.ProfileOperation;
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.struct.EulerType;
+import georegression.struct.so.Quaternion_F64;
+import org.ejml.data.DMatrixRMaj;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the speed of rotation averaging algorithms. The average is computed over a sliding window
+ * of samples, which is a common use case when smoothing sensor data.
+ *
+ * @author Peter Abeles
+ */
+public class BenchmarkAverageRotation {
+
+	long TIME = 1000;
+	int N = 2_000;
+	int window = 20;
+
+	Random rand = new Random(234);
+
+	List<Quaternion_F64> quats = new ArrayList<>();
+	List<DMatrixRMaj> matrices = new ArrayList<>();
+
+	public class BatchQuaternion extends PerformerBase {
+		AverageQuaternion_F64 alg = new AverageQuaternion_F64();
+		Quaternion_F64 average = new Quaternion_F64();
+
+		@Override
+		public void process() {
+			for (int i = window; i <= N; i++) {
+				alg.process(quats.subList(i - window, i), average);
+			}
+		}
+	}
+
+	public class IncrementalQuaternion extends PerformerBase {
+		AverageQuaternionIncremental_F64 alg = new AverageQuaternionIncremental_F64();
+		Quaternion_F64 average = new Quaternion_F64();
+
+		@Override
+		public void process() {
+			alg.reset();
+			for (int i = 0; i < N; i++) {
+				alg.add(quats.get(i));
+				if (i >= window)
+					alg.remove(quats.get(i - window));
+				if (i >= window - 1)
+					alg.compute(average);
+			}
+		}
+	}
+
+	public class BatchMatrix extends PerformerBase {
+		AverageRotationMatrix_F64 alg = new AverageRotationMatrix_F64();
+		DMatrixRMaj average = new DMatrixRMaj(3, 3);
+
+		@Override
+		public void process() {
+			for (int i = window; i <= N; i++) {
+				alg.process(matrices.subList(i - window, i), average);
+			}
+		}
+	}
+
+	public class Robust extends PerformerBase {
+		AverageRotationRobust_F64 alg = new AverageRotationRobust_F64();
+		DMatrixRMaj average = new DMatrixRMaj(3, 3);
+
+		public Robust( AverageRotationRobust_F64.Distance distance ) {
+			alg.distance = distance;
+		}
+
+		@Override
+		public void process() {
+			for (int i = window; i <= N; i++) {
+				alg.process(matrices.subList(i - window, i), average);
+			}
+		}
+
+		@Override
+		public String getName() {
+			return "Robust" + alg.distance;
+		}
+	}
+
+	public void process() {
+		for (int i = 0; i < N; i++) {
+			double noise = 0.05;
+			DMatrixRMaj R = ConvertRotation3D_F64.eulerToMatrix(EulerType.XYZ,
+					0.1 + rand.nextGaussian()*noise, -0.5 + rand.nextGaussian()*noise, 1.5 + rand.nextGaussian()*noise, null);
+			matrices.add(R);
+			quats.add(ConvertRotation3D_F64.matrixToQuaternion(R, null));
+		}
+
+		ProfileOperation.printOpsPerSec(new BatchQuaternion(), TIME);
+		ProfileOperation.printOpsPerSec(new IncrementalQuaternion(), TIME);
+		ProfileOperation.printOpsPerSec(new BatchMatrix(), TIME);
+		ProfileOperation.printOpsPerSec(new Robust(AverageRotationRobust_F64.Distance.GEODESIC), TIME);
+		ProfileOperation.printOpsPerSec(new Robust(AverageRotationRobust_F64.Distance.CHORDAL), TIME);
+	}
+
+	public static void main( String[] args ) {
+		new BenchmarkAverageRotation().process();
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.transform.se;
+
+import georegression.PerformerBase;
+import georegression.ProfileOperation;
+import georegression.struct.point.Vector3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.se.SpecialEuclideanOps_F64;
+import georegression.transform.twist.TwistCoordinate_F64;
+import org.ejml.data.DMatrixRMaj;
+
+import java.util.Random;
+
+/**
+ * Speed of evaluating {@link CubicBSplineSe3_F64} and {@link CubicBSplineSo3_F64} at sorted time stamps
+ *
+ * @author Peter Abeles
+ */
+public class BenchmarkCubicBSpline {
+
+	long TIME = 1000;
+	// Number of control points
+	int numControl = 100;
+	// Number of queries
+	int N = 100_000;
+
+	Random rand = new Random(234);
+
+	CubicBSplineSe3_F64 se3 = new CubicBSplineSe3_F64(0.0, 0.1);
+	CubicBSplineSo3_F64 so3 = new CubicBSplineSo3_F64(0.0, 0.1);
+	double[] queries = new double[N];
+
+	public class PoseSe3 extends PerformerBase {
+		Se3_F64 pose = new Se3_F64();
+
+		@Override
+		public void process() {
+			for (int i = 0; i < N; i++) {
+				se3.evaluate(queries[i], pose);
+			}
+		}
+	}
+
+	public class DerivativesSe3 extends PerformerBase {
+		Se3_F64 pose = new Se3_F64();
+		TwistCoordinate_F64 vel = new TwistCoordinate_F64();
+		TwistCoordinate_F64 acc = new TwistCoordinate_F64();
+
+		@Override
+		public void process() {
+			for (int i = 0; i < N; i++) {
+				se3.evaluate(queries[i], pose, vel, acc);
+			}
+		}
+	}
+
+	public class RotationSo3 extends PerformerBase {
+		DMatrixRMaj R = new DMatrixRMaj(3, 3);
+
+		@Override
+		public void process() {
+			for (int i = 0; i < N; i++) {
+				so3.evaluate(queries[i], R);
+			}
+		}
+	}
+
+	public class DerivativesSo3 extends PerformerBase {
+		DMatrixRMaj R = new DMatrixRMaj(3, 3);
+		Vector3D_F64 vel = new Vector3D_F64();
+		Vector3D_F64 acc = new Vector3D_F64();
+
+		@Override
+		public void process() {
+			for (int i = 0; i < N; i++) {
+				so3.evaluate(queries[i], R, vel, acc);
+			}
+		}
+	}
+
+	public void process() {
+		Se3_F64 pose = new Se3_F64();
+		for (int i = 0; i < numControl; i++) {
+			se3.add(pose);
+			so3.add(pose.R);
+			Se3_F64 motion = SpecialEuclideanOps_F64.eulerXyz(rand.nextGaussian(), rand.nextGaussian(),
+					rand.nextGaussian(), 0.1*rand.nextGaussian(), 0.1*rand.nextGaussian(), 0.1*rand.nextGaussian(), null);
+			pose = pose.concat(motion, null);
+		}
+		for (int i = 0; i < N; i++) {
+			queries[i] = se3.getEndTime()*i/(double)N;
+		}
+
+		ProfileOperation.printOpsPerSec(new PoseSe3(), TIME);
+		ProfileOperation.printOpsPerSec(new DerivativesSe3(), TIME);
+		ProfileOperation.printOpsPerSec(new RotationSo3(), TIME);
+		ProfileOperation.printOpsPerSec(new DerivativesSo3(), TIME);
+	}
+
+	public static void main( String[] args ) {
+		new BenchmarkCubicBSpline().process();
+	}
+}
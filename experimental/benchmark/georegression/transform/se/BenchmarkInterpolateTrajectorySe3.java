@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.transform.se;
+
+import georegression.PerformerBase;
+import georegression.ProfileOperation;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.se.SpecialEuclideanOps_F64;
+import georegression.transform.se.InterpolateTrajectorySe3_F64.Method;
+
+import java.util.Random;
+
+/**
+ * Compares the speed of querying a trajectory at many sorted time stamps, e.g. LiDAR motion compensation,
+ * using {@link InterpolateLinearSe3_F64} and {@link InterpolateTrajectorySe3_F64}.
+ *
+ * @author Peter Abeles
+ */
+public class BenchmarkInterpolateTrajectorySe3 {
+
+	long TIME = 1000;
+	// Number of poses in the trajectory
+	int numPoses = 100;
+	// Number of queries
+	int N = 100_000;
+
+	Random rand = new Random(234);
+
+	Se3_F64[] poses = new Se3_F64[numPoses];
+	double[] queries = new double[N];
+
+	double[] quaternions = new double[N*4];
+	double[] translations = new double[N*3];
+
+	public class LinearSe3 extends PerformerBase {
+		InterpolateLinearSe3_F64 alg = new InterpolateLinearSe3_F64();
+		Se3_F64 output = new Se3_F64();
+
+		@Override
+		public void process() {
+			for (int i = 0; i < N; i++) {
+				// poses have a time stamp equal to their index
+				int segment = Math.min(numPoses - 2, (int)queries[i]);
+				alg.setTransforms(poses[segment], poses[segment + 1]);
+				alg.interpolate(queries[i] - segment, output);
+			}
+		}
+	}
+
+	public class Trajectory extends PerformerBase {
+		InterpolateTrajectorySe3_F64 alg;
+		Se3_F64 output = new Se3_F64();
+
+		public Trajectory( Method method ) {
+			alg = createTrajectory(method);
+		}
+
+		@Override
+		public void process() {
+			for (int i = 0; i < N; i++) {
+				alg.interpolate(queries[i], output);
+			}
+		}
+
+		@Override
+		public String getName() {
+			return "Trajectory " + alg.getMethod();
+		}
+	}
+
+	public class TrajectoryBulk extends PerformerBase {
+		InterpolateTrajectorySe3_F64 alg;
+
+		public TrajectoryBulk( Method method ) {
+			alg = createTrajectory(method);
+		}
+
+		@Override
+		public void process() {
+			alg.interpolate(queries, 0, N, quaternions, translations);
+		}
+
+		@Override
+		public String getName() {
+			return "TrajectoryBulk " + alg.getMethod();
+		}
+	}
+
+	InterpolateTrajectorySe3_F64 createTrajectory( Method method ) {
+		var alg = new InterpolateTrajectorySe3_F64(numPoses, method);
+		for (int i = 0; i < numPoses; i++) {
+			alg.add(i, poses[i]);
+		}
+		return alg;
+	}
+
+	public void process() {
+		poses[0] = new Se3_F64();
+		for (int i = 1; i < numPoses; i++) {
+			Se3_F64 motion = SpecialEuclideanOps_F64.eulerXyz(rand.nextGaussian(), rand.nextGaussian(),
+					rand.nextGaussian(), 0.1*rand.nextGaussian(), 0.1*rand.nextGaussian(), 0.1*rand.nextGaussian(), null);
+			poses[i] = poses[i - 1].concat(motion, null);
+		}
+		for (int i = 0; i < N; i++) {
+			queries[i] = (numPoses - 1)*i/(double)N;
+		}
+
+		ProfileOperation.printOpsPerSec(new LinearSe3(), TIME);
+		for (Method method : Method.values()) {
+			ProfileOperation.printOpsPerSec(new Trajectory(method), TIME);
+			ProfileOperation.printOpsPerSec(new TrajectoryBulk(method), TIME);
+		}
+	}
+
+	public static void main( String[] args ) {
+		new BenchmarkInterpolateTrajectorySe3().process();
+	}
+}
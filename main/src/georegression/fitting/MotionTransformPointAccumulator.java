@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting;
+
+import georegression.struct.GeoTuple;
+import georegression.struct.InvertibleTransform;
+
+/**
+ * Estimates the transform between two sets of corresponding points, where the correspondences are added one
+ * at a time. Only running statistics are saved, not the points, so the correspondences can come directly from
+ * a search without first being copied into lists. The solution is the same as {@link MotionTransformPointWeighted}
+ * applied to every pair that has been added.
+ *
+ * @author Peter Abeles
+ */
+public interface MotionTransformPointAccumulator<T extends InvertibleTransform, P extends GeoTuple> {
+	/**
+	 * Discards all the correspondences which have been added
+	 */
+	void reset();
+
+	/**
+	 * Adds a pair of corresponding points with a weight of one
+	 *
+	 * @param src Point which is to be transformed. Not modified.
+	 * @param dst The point it's compared against. Not modified.
+	 */
+	default void add( P src, P dst ) {
+		add(src, dst, 1.0);
+	}
+
+	/**
+	 * Adds a pair of corresponding points
+	 *
+	 * @param src Point which is to be transformed. Not modified.
+	 * @param dst The point it's compared against. Not modified.
+	 * @param weight Weight of the pair. Must be non-negative.
+	 */
+	void add( P src, P dst, double weight );
+
+	/**
+	 * Computes the transform from all the correspondences which have been added so far. Can be called
+	 * multiple times while correspondences are being added.
+	 *
+	 * @param srcToDst (Output) Found transform
+	 * @return true if the computation successfully produced a solution and false if not.
+	 */
+	boolean compute( T srcToDst );
+
+	/**
+	 * Number of correspondences which have been added since the last reset
+	 */
+	int getCount();
+
+	/**
+	 * Sum of weights for all the correspondences which have been added since the last reset
+	 */
+	double getTotalWeight();
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting;
+
+import georegression.struct.GeoTuple;
+import georegression.struct.InvertibleTransform;
+import org.ddogleg.struct.DogArray_F64;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Extension of {@link MotionTransformPoint} where each pair of corresponding points can have a different weight.
+ * Weights can come from the confidence in an association or from a robust loss function, e.g. iteratively
+ * re-weighted least squares.
+ *
+ * @author Peter Abeles
+ */
+public interface MotionTransformPointWeighted<T extends InvertibleTransform, P extends GeoTuple>
+		extends MotionTransformPoint<T, P> {
+
+	/**
+	 * Processes the sets of corresponding points and finds the transformation which when applied
+	 * to 'srcPts' minimizes the weighted square difference with the 'dstPts'.
+	 *
+	 * @param srcPts The points which are to be transformed. Not modified.
+	 * @param dstPts The points that are being compared against. Not modified.
+	 * @param weights Weight for each pair of points. Must be non-negative. If null then all weights are one.
+	 * @return true if the computation successfully produced a solution and false if not.
+	 */
+	boolean process( List<P> srcPts, List<P> dstPts, @Nullable DogArray_F64 weights );
+}
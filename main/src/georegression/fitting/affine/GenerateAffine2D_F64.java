@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.affine;
+
+import georegression.struct.affine.Affine2D_F64;
+import georegression.struct.point.AssociatedPair2D_F64;
+import georegression.struct.point.Point2D_F64;
+import org.ddogleg.fitting.modelset.ModelGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Estimates an {@link Affine2D_F64} from a set of {@link AssociatedPair2D_F64 associated pairs}. Intended for use
+ * inside of robust model fitting, e.g. RANSAC. When given the minimal set of three pairs the affine transform is
+ * computed in closed form, without any matrix decompositions. If more pairs are provided then the least squares
+ * solution from {@link MotionAffinePoint2D_F64} is used.
+ * </p>
+ *
+ * <p>
+ * With three pairs the solution is A = [e1 e2]*inv([d1 d2]) where d<sub>i</sub> = p<sub>i</sub> - p<sub>0</sub>
+ * and e<sub>i</sub> = q<sub>i</sub> - q<sub>0</sub>, p are the source points, and q are the destination points.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class GenerateAffine2D_F64 implements ModelGenerator<Affine2D_F64, AssociatedPair2D_F64> {
+	/**
+	 * The three source points are considered collinear if the sine of the angle between d1 and d2 is less than this
+	 */
+	public double collinearTol = 1.0e-8;
+
+	MotionAffinePoint2D_F64 leastSquares = new MotionAffinePoint2D_F64();
+
+	// references to the points in each pair
+	List<Point2D_F64> src = new ArrayList<>();
+	List<Point2D_F64> dst = new ArrayList<>();
+
+	@Override
+	public boolean generate( List<AssociatedPair2D_F64> dataSet, Affine2D_F64 output ) {
+		if (dataSet.size() == 3) {
+			Point2D_F64 p0 = dataSet.get(0).src, p1 = dataSet.get(1).src, p2 = dataSet.get(2).src;
+			Point2D_F64 q0 = dataSet.get(0).dst, q1 = dataSet.get(1).dst, q2 = dataSet.get(2).dst;
+			return generate(p0.x, p0.y, p1.x, p1.y, p2.x, p2.y, q0.x, q0.y, q1.x, q1.y, q2.x, q2.y, output);
+		}
+
+		src.clear();
+		dst.clear();
+		for (int i = 0; i < dataSet.size(); i++) {
+			AssociatedPair2D_F64 pair = dataSet.get(i);
+			src.add(pair.src);
+			dst.add(pair.dst);
+		}
+
+		if (!leastSquares.process(src, dst))
+			return false;
+
+		output.setTo(leastSquares.getTransformSrcToDst());
+		return true;
+	}
+
+	/**
+	 * Computes the affine transform from three pairs of points packed in arrays
+	 *
+	 * @param src (Input) Source points packed as (x,y)
+	 * @param dst (Input) Destination points packed as (x,y)
+	 * @param i0 (Input) Index of the first pair
+	 * @param i1 (Input) Index of the second pair
+	 * @param i2 (Input) Index of the third pair
+	 * @param output (Output) The found transform
+	 * @return true if successful or false if the points are degenerate
+	 */
+	public boolean generate( double[] src, double[] dst, int i0, int i1, int i2, Affine2D_F64 output ) {
+		i0 *= 2;
+		i1 *= 2;
+		i2 *= 2;
+		return generate(src[i0], src[i0 + 1], src[i1], src[i1 + 1], src[i2], src[i2 + 1],
+				dst[i0], dst[i0 + 1], dst[i1], dst[i1 + 1], dst[i2], dst[i2 + 1], output);
+	}
+
+	boolean generate( double px0, double py0, double px1, double py1, double px2, double py2,
+					  double qx0, double qy0, double qx1, double qy1, double qx2, double qy2,
+					  Affine2D_F64 output ) {
+		double d1x = px1 - px0, d1y = py1 - py0;
+		double d2x = px2 - px0, d2y = py2 - py0;
+		double e1x = qx1 - qx0, e1y = qy1 - qy0;
+		double e2x = qx2 - qx0, e2y = qy2 - qy0;
+
+		double det = d1x*d2y - d2x*d1y;
+		// det = |d1|*|d2|*sin(angle)
+		if (!(det*det > collinearTol*collinearTol*(d1x*d1x + d1y*d1y)*(d2x*d2x + d2y*d2y)))
+			return false;
+
+		output.a11 = (e1x*d2y - e2x*d1y)/det;
+		output.a12 = (e2x*d1x - e1x*d2x)/det;
+		output.a21 = (e1y*d2y - e2y*d1y)/det;
+		output.a22 = (e2y*d1x - e1y*d2x)/det;
+		output.tx = qx0 - output.a11*px0 - output.a12*py0;
+		output.ty = qy0 - output.a21*px0 - output.a22*py0;
+		return true;
+	}
+
+	@Override
+	public int getMinimumPoints() {
+		return 3;
+	}
+}
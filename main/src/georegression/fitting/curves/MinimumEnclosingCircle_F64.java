@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.curves;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.trig.Circle2D_F64;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_F64;
+import org.ddogleg.struct.DogArray_I32;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * <p>
+ * Finds the smallest circle which contains all the points. The exact solution is found using Welzl's algorithm [1]
+ * in its iterative form, which has an expected run time of O(n) when the points are visited in a random order.
+ * If {@link #exact} is false then Ritter's algorithm [2] is used instead, which is faster but produces a circle
+ * that's typically a few percent larger.
+ * </p>
+ *
+ * <p>
+ * Points can be provided as a list or packed into an array. The batch API finds the circle for many groups of
+ * points stored in a single packed array. Nothing is declared after the first call.
+ * </p>
+ *
+ * <p>[1] Welzl, Emo. "Smallest enclosing disks (balls and ellipsoids)." New Results and New Trends in Computer
+ * Science (1991)</p>
+ * <p>[2] Ritter, Jack. "An efficient bounding sphere." Graphics Gems (1990)</p>
+ *
+ * @author Peter Abeles
+ */
+public class MinimumEnclosingCircle_F64 {
+	/** If true the smallest circle is found. Otherwise an approximation is found with Ritter's algorithm */
+	public boolean exact = true;
+
+	/** Relative tolerance used to decide if a point is inside the circle */
+	public double tolerance = 1000.0*GrlConstants.EPS;
+
+	// Used to visit the points in a random order
+	final Random rand = new Random(0xBEEF);
+	final DogArray_I32 order = new DogArray_I32();
+	final DogArray_F64 packed = new DogArray_F64();
+
+	// current circle
+	double cx, cy, radiusSq;
+	double[] xy = new double[0];
+
+	/**
+	 * Finds the smallest circle that contains the points
+	 *
+	 * @param points (Input) Points
+	 * @param circle (Output) The circle
+	 * @return true if successful or false if there are no points
+	 */
+	public boolean process( List<Point2D_F64> points, Circle2D_F64 circle ) {
+		packed.resize(points.size()*2);
+		for (int i = 0, idx = 0; i < points.size(); i++) {
+			Point2D_F64 p = points.get(i);
+			packed.data[idx++] = p.x;
+			packed.data[idx++] = p.y;
+		}
+		return process(packed.data, 0, points.size(), circle);
+	}
+
+	/**
+	 * Finds the smallest circle that contains the points
+	 *
+	 * @param xy (Input) Points packed as x0,y0,x1,y1,...
+	 * @param first (Input) Index of the first point
+	 * @param count (Input) Number of points
+	 * @param circle (Output) The circle
+	 * @return true if successful or false if there are no points
+	 */
+	public boolean process( double[] xy, int first, int count, Circle2D_F64 circle ) {
+		if (first < 0 || count < 0 || 2L*(first + count) > xy.length)
+			throw new IllegalArgumentException("Array is too small for the requested points");
+		if (count == 0)
+			return false;
+		this.xy = xy;
+
+		if (exact)
+			welzl(first, count);
+		else
+			ritter(first, count);
+
+		circle.setTo(cx, cy, Math.sqrt(radiusSq));
+		return true;
+	}
+
+	/**
+	 * Finds the circle for every group of points in the array
+	 *
+	 * @param xy (Input) Points packed as x0,y0,x1,y1,...
+	 * @param groupFirst (Input) Index of the first point in each group, plus the number of points at the end.
+	 * Group i has points from groupFirst[i] to groupFirst[i+1]-1.
+	 * @param circles (Output) Circle for each group. An empty group will have a radius of -1.
+	 */
+	public void processBatch( double[] xy, DogArray_I32 groupFirst, DogArray<Circle2D_F64> circles ) {
+		int numGroups = Integer.max(0, groupFirst.size - 1);
+		circles.resize(numGroups);
+		for (int group = 0; group < numGroups; group++) {
+			int first = groupFirst.data[group];
+			Circle2D_F64 circle = circles.get(group);
+			if (!process(xy, first, groupFirst.data[group + 1] - first, circle)) {
+				circle.setTo(0, 0, -1);
+			}
+		}
+	}
+
+	/**
+	 * Iterative version of Welzl's algorithm. When a point is outside the circle, the new circle must have
+	 * that point on its boundary, so it's recomputed from the points before it with the point fixed.
+	 */
+	void welzl( int first, int count ) {
+		// Random order so that the expected run time is linear
+		order.resize(count);
+		for (int i = 0; i < count; i++) {
+			order.data[i] = first + i;
+		}
+		for (int i = count - 1; i > 0; i--) {
+			int j = rand.nextInt(i + 1);
+			int tmp = order.data[i];
+			order.data[i] = order.data[j];
+			order.data[j] = tmp;
+		}
+		int[] o = order.data;
+
+		setCircle(o[0]);
+		for (int i = 1; i < count; i++) {
+			if (isInside(o[i]))
+				continue;
+			setCircle(o[i]);
+			for (int j = 0; j < i; j++) {
+				if (isInside(o[j]))
+					continue;
+				setCircle(o[i], o[j]);
+				for (int k = 0; k < j; k++) {
+					if (isInside(o[k]))
+						continue;
+					setCircle(o[i], o[j], o[k]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Ritter's algorithm. Starts with a circle from two points that are far apart and then grows it to
+	 * include every point outside of it.
+	 */
+	void ritter( int first, int count ) {
+		int end = first + count;
+
+		// point farthest from the first point, then the point farthest from that
+		int a = farthest(first, first, end);
+		int b = farthest(a, first, end);
+		setCircle(a, b);
+
+		double radius = Math.sqrt(radiusSq);
+		for (int i = first; i < end; i++) {
+			double dx = xy[i*2] - cx, dy = xy[i*2 + 1] - cy;
+			double d2 = dx*dx + dy*dy;
+			if (d2 <= radiusSq)
+				continue;
+			// Grow the circle so that it touches the point and the opposite side of the old circle
+			double d = Math.sqrt(d2);
+			double newRadius = (radius + d)/2.0;
+			double shift = (newRadius - radius)/d;
+			cx += dx*shift;
+			cy += dy*shift;
+			radius = newRadius;
+			radiusSq = radius*radius;
+		}
+	}
+
+	int farthest( int from, int first, int end ) {
+		double x = xy[from*2], y = xy[from*2 + 1];
+		int best = from;
+		double bestDistance = -1.0;
+		for (int i = first; i < end; i++) {
+			double dx = xy[i*2] - x, dy = xy[i*2 + 1] - y;
+			double d = dx*dx + dy*dy;
+			if (d > bestDistance) {
+				bestDistance = d;
+				best = i;
+			}
+		}
+		return best;
+	}
+
+	boolean isInside( int point ) {
+		double dx = xy[point*2] - cx, dy = xy[point*2 + 1] - cy;
+		return dx*dx + dy*dy <= radiusSq*(1.0 + tolerance);
+	}
+
+	void setCircle( int a ) {
+		cx = xy[a*2];
+		cy = xy[a*2 + 1];
+		radiusSq = 0.0;
+	}
+
+	/** Circle with the two points on opposite sides */
+	void setCircle( int a, int b ) {
+		double ax = xy[a*2], ay = xy[a*2 + 1];
+		double bx = xy[b*2], by = xy[b*2 + 1];
+		cx = (ax + bx)/2.0;
+		cy = (ay + by)/2.0;
+		double dx = bx - ax, dy = by - ay;
+		radiusSq = (dx*dx + dy*dy)/4.0;
+	}
+
+	/** Circle which passes through all three points */
+	void setCircle( int a, int b, int c ) {
+		double ax = xy[a*2], ay = xy[a*2 + 1];
+		double ux = xy[b*2] - ax, uy = xy[b*2 + 1] - ay;
+		double vx = xy[c*2] - ax, vy = xy[c*2 + 1] - ay;
+
+		double u2 = ux*ux + uy*uy;
+		double v2 = vx*vx + vy*vy;
+		double det = 2.0*(ux*vy - uy*vx);
+		if (det*det <= 1.0e-24*u2*v2) {
+			// collinear. Use the two points which are farthest apart
+			double ab = u2, ac = v2;
+			double bc = (ux - vx)*(ux - vx) + (uy - vy)*(uy - vy);
+			if (ab >= ac && ab >= bc)
+				setCircle(a, b);
+			else if (ac >= bc)
+				setCircle(a, c);
+			else
+				setCircle(b, c);
+			return;
+		}
+
+		double px = (vy*u2 - uy*v2)/det;
+		double py = (ux*v2 - vx*u2)/det;
+		cx = ax + px;
+		cy = ay + py;
+		radiusSq = px*px + py*py;
+	}
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.homography;
+
+import georegression.struct.homography.Homography2D_F64;
+import georegression.struct.point.AssociatedPair2D_F64;
+import org.ddogleg.fitting.modelset.ModelGenerator;
+
+import java.util.List;
+
+/**
+ * Estimates a {@link Homography2D_F64} from a set of {@link AssociatedPair2D_F64 associated pairs} using
+ * {@link MotionHomographyPoint2D_F64}. Intended for use inside of robust model fitting, e.g. RANSAC.
+ * Minimal samples which are degenerate, e.g. three collinear points, are rejected.
+ *
+ * @author Peter Abeles
+ */
+public class GenerateHomography2D_F64 implements ModelGenerator<Homography2D_F64, AssociatedPair2D_F64> {
+	MotionHomographyPoint2D_F64 alg = new MotionHomographyPoint2D_F64();
+
+	@Override
+	public boolean generate( List<AssociatedPair2D_F64> dataSet, Homography2D_F64 output ) {
+		if (!alg.process(dataSet))
+			return false;
+
+		output.setTo(alg.getTransformSrcToDst());
+		return true;
+	}
+
+	@Override
+	public int getMinimumPoints() {
+		return alg.getMinimumPoints();
+	}
+}
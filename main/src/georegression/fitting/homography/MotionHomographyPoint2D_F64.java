@@ -0,0 +1,420 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.homography;
+
+import georegression.fitting.MotionTransformPoint;
+import georegression.struct.homography.Homography2D_F64;
+import georegression.struct.point.AssociatedPair2D_F64;
+import georegression.struct.point.Point2D_F64;
+import org.ddogleg.struct.DogArray_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
+import org.ejml.interfaces.decomposition.EigenDecomposition_F64;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * Estimates a {@link Homography2D_F64} from associated points using the normalized Direct Linear Transform (DLT) [1].
+ * Points in each set are first translated and scaled so that their centroid is at the origin and their average
+ * distance from the origin is &radic;2, which greatly improves numerical stability. Each pair of points provides
+ * two linear constraints on the nine elements of the homography, which are stacked into the matrix A.
+ * </p>
+ *
+ * <ul>
+ *     <li>Four points: The homography is the null space of the 8x9 matrix A. It's found using Gaussian elimination
+ *     with complete pivoting on a fixed size array, which is much faster than an SVD.</li>
+ *     <li>More than four points: The homography is the eigenvector of A<sup>T</sup>A with the smallest eigenvalue,
+ *     which minimizes the algebraic error. A<sup>T</sup>A is always 9x9, independent of the number of points.</li>
+ * </ul>
+ *
+ * <p>
+ * The found homography is scaled so that its Frobenius norm is one and a33 is positive.
+ * </p>
+ *
+ * <p>[1] Hartley, Richard, and Andrew Zisserman. "Multiple view geometry in computer vision." 2nd Ed. (2003)</p>
+ *
+ * @author Peter Abeles
+ */
+public class MotionHomographyPoint2D_F64 implements MotionTransformPoint<Homography2D_F64, Point2D_F64> {
+	/**
+	 * If a pivot relative to the largest pivot is smaller than this, the four points are considered to be
+	 * degenerate, e.g. three points are collinear
+	 */
+	public double degenerateTol = 1.0e-10;
+
+	/**
+	 * Four points are degenerate if the area of a triangle formed by three of them, after normalization, is less
+	 * than this
+	 */
+	public double collinearTol = 1.0e-8;
+
+	Homography2D_F64 model = new Homography2D_F64();
+
+	// Points packed as (x,y)
+	final DogArray_F64 pointsSrc = new DogArray_F64();
+	final DogArray_F64 pointsDst = new DogArray_F64();
+
+	// Normalization of each set of points. x' = scale*(x - mean)
+	double meanSrcX, meanSrcY, scaleSrc;
+	double meanDstX, meanDstY, scaleDst;
+
+	// Linear system for four points, 8x9 row-major
+	final double[] A = new double[8*9];
+	final double[] normSrc = new double[8];
+	final double[] normDst = new double[8];
+	final int[] columns = new int[9];
+	// Homography in normalized coordinates
+	final double[] h = new double[9];
+
+	// Linear system for more than four points
+	final DMatrixRMaj AtA = new DMatrixRMaj(9, 9);
+	EigenDecomposition_F64<DMatrixRMaj> eig = DecompositionFactory_DDRM.eig(9, true, true);
+
+	@Override
+	public Homography2D_F64 getTransformSrcToDst() {
+		return model;
+	}
+
+	@Override
+	public boolean process( List<Point2D_F64> srcPts, List<Point2D_F64> dstPts ) {
+		int N = srcPts.size();
+		if (N != dstPts.size())
+			throw new IllegalArgumentException("From and to lists must be the same size");
+
+		pointsSrc.resize(N*2);
+		pointsDst.resize(N*2);
+		for (int i = 0; i < N; i++) {
+			Point2D_F64 s = srcPts.get(i);
+			Point2D_F64 d = dstPts.get(i);
+			pointsSrc.data[i*2] = s.x;
+			pointsSrc.data[i*2 + 1] = s.y;
+			pointsDst.data[i*2] = d.x;
+			pointsDst.data[i*2 + 1] = d.y;
+		}
+		return process(pointsSrc.data, pointsDst.data, N);
+	}
+
+	/**
+	 * Estimates the homography from a list of associated pairs
+	 *
+	 * @param pairs (Input) Associated points
+	 * @return true if successful
+	 */
+	public boolean process( List<AssociatedPair2D_F64> pairs ) {
+		int N = pairs.size();
+		pointsSrc.resize(N*2);
+		pointsDst.resize(N*2);
+		for (int i = 0; i < N; i++) {
+			AssociatedPair2D_F64 p = pairs.get(i);
+			pointsSrc.data[i*2] = p.src.x;
+			pointsSrc.data[i*2 + 1] = p.src.y;
+			pointsDst.data[i*2] = p.dst.x;
+			pointsDst.data[i*2 + 1] = p.dst.y;
+		}
+		return process(pointsSrc.data, pointsDst.data, N);
+	}
+
+	/**
+	 * Estimates the homography from points packed in arrays
+	 *
+	 * @param src (Input) Source points packed as (x,y)
+	 * @param dst (Input) Destination points packed as (x,y)
+	 * @param count (Input) Number of points
+	 * @return true if successful
+	 */
+	public boolean process( double[] src, double[] dst, int count ) {
+		if (count < 4)
+			throw new IllegalArgumentException("Must be at least 4 points");
+		if (2L*count > src.length || 2L*count > dst.length)
+			throw new IllegalArgumentException("Array is too small for the requested points");
+
+		if (!computeNormalization(src, dst, count))
+			return false;
+
+		if (count == 4) {
+			if (!solveMinimal(src, dst))
+				return false;
+		} else {
+			if (!solveLinear(src, dst, count))
+				return false;
+		}
+
+		undoNormalization();
+		return true;
+	}
+
+	/**
+	 * Computes the mean and scale of each set of points
+	 */
+	boolean computeNormalization( double[] src, double[] dst, int count ) {
+		double sx = 0, sy = 0, dx = 0, dy = 0;
+		for (int i = 0, idx = 0; i < count; i++, idx += 2) {
+			sx += src[idx];
+			sy += src[idx + 1];
+			dx += dst[idx];
+			dy += dst[idx + 1];
+		}
+		meanSrcX = sx/count;
+		meanSrcY = sy/count;
+		meanDstX = dx/count;
+		meanDstY = dy/count;
+
+		double distSrc = 0, distDst = 0;
+		for (int i = 0, idx = 0; i < count; i++, idx += 2) {
+			distSrc += Math.sqrt(sq(src[idx] - meanSrcX) + sq(src[idx + 1] - meanSrcY));
+			distDst += Math.sqrt(sq(dst[idx] - meanDstX) + sq(dst[idx + 1] - meanDstY));
+		}
+		if (distSrc == 0.0 || distDst == 0.0)
+			return false;
+		scaleSrc = Math.sqrt(2)*count/distSrc;
+		scaleDst = Math.sqrt(2)*count/distDst;
+		return true;
+	}
+
+	/**
+	 * Finds the null space of the 8x9 matrix using Gaussian elimination with complete pivoting
+	 */
+	boolean solveMinimal( double[] src, double[] dst ) {
+		for (int i = 0; i < 8; i += 2) {
+			normSrc[i] = scaleSrc*(src[i] - meanSrcX);
+			normSrc[i + 1] = scaleSrc*(src[i + 1] - meanSrcY);
+			normDst[i] = scaleDst*(dst[i] - meanDstX);
+			normDst[i + 1] = scaleDst*(dst[i + 1] - meanDstY);
+		}
+		// If three points are collinear in one set but not the other, the null space is a singular matrix
+		if (hasCollinear(normSrc) || hasCollinear(normDst))
+			return false;
+
+		for (int i = 0; i < 4; i++) {
+			double x = normSrc[i*2], y = normSrc[i*2 + 1];
+			double u = normDst[i*2], v = normDst[i*2 + 1];
+
+			int row0 = i*18, row1 = row0 + 9;
+			//@formatter:off
+			A[row0    ] = -x; A[row0 + 1] = -y; A[row0 + 2] = -1;
+			A[row0 + 3] =  0; A[row0 + 4] =  0; A[row0 + 5] =  0;
+			A[row0 + 6] = u*x; A[row0 + 7] = u*y; A[row0 + 8] = u;
+			A[row1    ] =  0; A[row1 + 1] =  0; A[row1 + 2] =  0;
+			A[row1 + 3] = -x; A[row1 + 4] = -y; A[row1 + 5] = -1;
+			A[row1 + 6] = v*x; A[row1 + 7] = v*y; A[row1 + 8] = v;
+			//@formatter:on
+		}
+		for (int i = 0; i < 9; i++) {
+			columns[i] = i;
+		}
+
+		double largestPivot = 0.0;
+		for (int k = 0; k < 8; k++) {
+			// Select the largest element in the remaining sub-matrix as the pivot
+			int pivotRow = k, pivotCol = k;
+			double pivot = 0.0;
+			for (int row = k; row < 8; row++) {
+				for (int col = k; col < 9; col++) {
+					double value = Math.abs(A[row*9 + col]);
+					if (value > pivot) {
+						pivot = value;
+						pivotRow = row;
+						pivotCol = col;
+					}
+				}
+			}
+			if (k == 0)
+				largestPivot = pivot;
+			if (!(pivot > degenerateTol*largestPivot))
+				return false;
+
+			if (pivotRow != k) {
+				for (int col = 0; col < 9; col++) {
+					double tmp = A[k*9 + col];
+					A[k*9 + col] = A[pivotRow*9 + col];
+					A[pivotRow*9 + col] = tmp;
+				}
+			}
+			if (pivotCol != k) {
+				for (int row = 0; row < 8; row++) {
+					double tmp = A[row*9 + k];
+					A[row*9 + k] = A[row*9 + pivotCol];
+					A[row*9 + pivotCol] = tmp;
+				}
+				int tmp = columns[k];
+				columns[k] = columns[pivotCol];
+				columns[pivotCol] = tmp;
+			}
+
+			// Eliminate the pivot column from the rows below
+			double pivotValue = A[k*9 + k];
+			for (int row = k + 1; row < 8; row++) {
+				double f = A[row*9 + k]/pivotValue;
+				if (f == 0.0)
+					continue;
+				for (int col = k + 1; col < 9; col++) {
+					A[row*9 + col] -= f*A[k*9 + col];
+				}
+				A[row*9 + k] = 0.0;
+			}
+		}
+
+		// The last column is the free variable. Back substitute to find the rest
+		h[columns[8]] = 1.0;
+		for (int k = 7; k >= 0; k--) {
+			double sum = A[k*9 + 8];
+			for (int col = k + 1; col < 8; col++) {
+				sum += A[k*9 + col]*h[columns[col]];
+			}
+			h[columns[k]] = -sum/A[k*9 + k];
+		}
+		return true;
+	}
+
+	/**
+	 * Checks to see if any three of the four normalized points are collinear. Points have been normalized so
+	 * the tolerance doesn't depend on their scale.
+	 */
+	boolean hasCollinear( double[] p ) {
+		for (int skip = 0; skip < 4; skip++) {
+			int i0 = skip == 0 ? 2 : 0;
+			int i1 = skip <= 1 ? 4 : 2;
+			int i2 = skip <= 2 ? 6 : 4;
+			double area = (p[i1] - p[i0])*(p[i2 + 1] - p[i0 + 1]) - (p[i1 + 1] - p[i0 + 1])*(p[i2] - p[i0]);
+			if (Math.abs(area) <= collinearTol)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Finds the eigenvector of A<sup>T</sup>A with the smallest eigenvalue
+	 */
+	boolean solveLinear( double[] src, double[] dst, int count ) {
+		// Only the upper triangle is accumulated. The structure of A is exploited to avoid multiplying by zero
+		double[] m = AtA.data;
+		Arrays.fill(m, 0.0);
+		for (int i = 0, idx = 0; i < count; i++, idx += 2) {
+			double x = scaleSrc*(src[idx] - meanSrcX);
+			double y = scaleSrc*(src[idx + 1] - meanSrcY);
+			double u = scaleDst*(dst[idx] - meanDstX);
+			double v = scaleDst*(dst[idx + 1] - meanDstY);
+
+			double xx = x*x, xy = x*y, yy = y*y;
+			double uu_vv = u*u + v*v;
+
+			// block for (a11,a12,a13) and (a21,a22,a23) is the same
+			m[0] += xx;
+			m[1] += xy;
+			m[2] += x;
+			m[10] += yy;
+			m[11] += y;
+			m[20] += 1;
+
+			// cross terms with (a31,a32,a33)
+			m[6] -= u*xx;
+			m[7] -= u*xy;
+			m[8] -= u*x;
+			m[15] -= u*xy;
+			m[16] -= u*yy;
+			m[17] -= u*y;
+			m[24] -= u*x;
+			m[25] -= u*y;
+			m[26] -= u;
+
+			m[33] -= v*xx;
+			m[34] -= v*xy;
+			m[35] -= v*x;
+			m[42] -= v*xy;
+			m[43] -= v*yy;
+			m[44] -= v*y;
+			m[51] -= v*x;
+			m[52] -= v*y;
+			m[53] -= v;
+
+			m[60] += uu_vv*xx;
+			m[61] += uu_vv*xy;
+			m[62] += uu_vv*x;
+			m[70] += uu_vv*yy;
+			m[71] += uu_vv*y;
+			m[80] += uu_vv;
+		}
+		// copy the shared blocks and fill in the lower triangle
+		m[30] = m[0];
+		m[31] = m[1];
+		m[32] = m[2];
+		m[40] = m[10];
+		m[41] = m[11];
+		m[50] = m[20];
+		for (int row = 1; row < 9; row++) {
+			for (int col = 0; col < row; col++) {
+				m[row*9 + col] = m[col*9 + row];
+			}
+		}
+
+		if (!eig.decompose(AtA))
+			return false;
+
+		int smallest = 0;
+		for (int i = 1; i < 9; i++) {
+			if (eig.getEigenvalue(i).real < eig.getEigenvalue(smallest).real)
+				smallest = i;
+		}
+		DMatrixRMaj vector = eig.getEigenVector(smallest);
+		if (vector == null)
+			return false;
+		System.arraycopy(vector.data, 0, h, 0, 9);
+		return true;
+	}
+
+	/**
+	 * H = inv(T<sub>dst</sub>)*H<sub>n</sub>*T<sub>src</sub> then normalizes the scale
+	 */
+	void undoNormalization() {
+		double s = scaleSrc, tx = -scaleSrc*meanSrcX, ty = -scaleSrc*meanSrcY;
+
+		// H_n*T_src
+		double b11 = h[0]*s, b12 = h[1]*s, b13 = h[0]*tx + h[1]*ty + h[2];
+		double b21 = h[3]*s, b22 = h[4]*s, b23 = h[3]*tx + h[4]*ty + h[5];
+		double b31 = h[6]*s, b32 = h[7]*s, b33 = h[6]*tx + h[7]*ty + h[8];
+
+		// inv(T_dst)*B
+		double d = 1.0/scaleDst;
+		model.a11 = d*b11 + meanDstX*b31;
+		model.a12 = d*b12 + meanDstX*b32;
+		model.a13 = d*b13 + meanDstX*b33;
+		model.a21 = d*b21 + meanDstY*b31;
+		model.a22 = d*b22 + meanDstY*b32;
+		model.a23 = d*b23 + meanDstY*b33;
+		model.a31 = b31;
+		model.a32 = b32;
+		model.a33 = b33;
+
+		double norm = Math.sqrt(model.a11*model.a11 + model.a12*model.a12 + model.a13*model.a13 +
+				model.a21*model.a21 + model.a22*model.a22 + model.a23*model.a23 +
+				model.a31*model.a31 + model.a32*model.a32 + model.a33*model.a33);
+		model.scale(model.a33 < 0 ? -1.0/norm : 1.0/norm);
+	}
+
+	private static double sq( double value ) {
+		return value*value;
+	}
+
+	@Override
+	public int getMinimumPoints() {
+		return 4;
+	}
+}
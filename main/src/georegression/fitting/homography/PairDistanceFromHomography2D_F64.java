@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.homography;
+
+import georegression.struct.homography.Homography2D_F64;
+import georegression.struct.point.AssociatedPair2D_F64;
+import org.ddogleg.fitting.modelset.DistanceFromModel;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Implementation of {@link DistanceFromModel} for {@link Homography2D_F64} and {@link AssociatedPair2D_F64} which
+ * computes the symmetric transfer error [1]. This is the squared distance between the destination point and the
+ * transformed source point plus the squared distance between the source point and the destination point
+ * transformed by the inverse. Since the error is squared, so should the inlier threshold.
+ * </p>
+ *
+ * <p>
+ * The inverse is found using the adjugate, which is only the same as the inverse up to a scale factor. This doesn't
+ * matter because the homography is projective. If a point is mapped to infinity the error is
+ * {@link Double#MAX_VALUE}.
+ * </p>
+ *
+ * <p>[1] Hartley, Richard, and Andrew Zisserman. "Multiple view geometry in computer vision." 2nd Ed. (2003)</p>
+ *
+ * @author Peter Abeles
+ */
+public class PairDistanceFromHomography2D_F64 implements DistanceFromModel<Homography2D_F64, AssociatedPair2D_F64> {
+	// Homography from src to dst
+	double h11, h12, h13, h21, h22, h23, h31, h32, h33;
+	// Adjugate of the homography, i.e. dst to src up to a scale factor
+	double g11, g12, g13, g21, g22, g23, g31, g32, g33;
+
+	@Override
+	public void setModel( Homography2D_F64 H ) {
+		//@formatter:off
+		h11 = H.a11; h12 = H.a12; h13 = H.a13;
+		h21 = H.a21; h22 = H.a22; h23 = H.a23;
+		h31 = H.a31; h32 = H.a32; h33 = H.a33;
+		//@formatter:on
+
+		g11 = h22*h33 - h23*h32;
+		g12 = h13*h32 - h12*h33;
+		g13 = h12*h23 - h13*h22;
+		g21 = h23*h31 - h21*h33;
+		g22 = h11*h33 - h13*h31;
+		g23 = h13*h21 - h11*h23;
+		g31 = h21*h32 - h22*h31;
+		g32 = h12*h31 - h11*h32;
+		g33 = h11*h22 - h12*h21;
+	}
+
+	@Override
+	public /**/double distance( AssociatedPair2D_F64 pair ) {
+		double sx = pair.src.x, sy = pair.src.y;
+		double dx = pair.dst.x, dy = pair.dst.y;
+
+		// src to dst
+		double w = h31*sx + h32*sy + h33;
+		if (w == 0.0)
+			return Double.MAX_VALUE;
+		double ex = (h11*sx + h12*sy + h13)/w - dx;
+		double ey = (h21*sx + h22*sy + h23)/w - dy;
+
+		// dst to src
+		w = g31*dx + g32*dy + g33;
+		if (w == 0.0)
+			return Double.MAX_VALUE;
+		double fx = (g11*dx + g12*dy + g13)/w - sx;
+		double fy = (g21*dx + g22*dy + g23)/w - sy;
+
+		return ex*ex + ey*ey + fx*fx + fy*fy;
+	}
+
+	@Override
+	public void distances( List<AssociatedPair2D_F64> list, /**/double[] errors ) {
+		for (int i = 0; i < list.size(); i++) {
+			errors[i] = distance(list.get(i));
+		}
+	}
+
+	@Override
+	public Class<AssociatedPair2D_F64> getPointType() {
+		return AssociatedPair2D_F64.class;
+	}
+
+	@Override
+	public Class<Homography2D_F64> getModelType() {
+		return Homography2D_F64.class;
+	}
+}
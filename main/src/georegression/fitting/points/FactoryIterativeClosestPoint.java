@@ -20,8 +20,8 @@ package georegression.fitting.points;
 
 import georegression.fitting.se.MotionSe2PointSVD_F32;
 import georegression.fitting.se.MotionSe2PointSVD_F64;
-import georegression.fitting.se.MotionSe3PointSVD_F32;
-import georegression.fitting.se.MotionSe3PointSVD_F64;
+import georegression.fitting.se.MotionSe3PointQuaternion_F32;
+import georegression.fitting.se.MotionSe3PointQuaternion_F64;
 import georegression.helper.KdTreePoint2D_F32;
 import georegression.helper.KdTreePoint2D_F64;
 import georegression.helper.KdTreePoint3D_F32;
@@ -115,14 +115,14 @@ public class FactoryIterativeClosestPoint {
 	/** Specialized implementation for rigid body 3D points */
 	public static class SE3_F32 extends MatchCloudToCloudIcp<Se3_F32, Point3D_F32> {
 		public SE3_F32(NearestNeighbor<Point3D_F32> nn, double maxDistanceSq, StoppingCondition stop) {
-			super(new MotionSe3PointSVD_F32(), nn, GeoTuple3D_F32::distance2, maxDistanceSq, stop);
+			super(new MotionSe3PointQuaternion_F32(), nn, GeoTuple3D_F32::distance2, maxDistanceSq, stop);
 		}
 	}
 
 	/** Specialized implementation for rigid body 3D points */
 	public static class SE3_F64 extends MatchCloudToCloudIcp<Se3_F64, Point3D_F64> {
 		public SE3_F64(NearestNeighbor<Point3D_F64> nn, double maxDistanceSq, StoppingCondition stop) {
-			super(new MotionSe3PointSVD_F64(), nn, GeoTuple3D_F64::distance2, maxDistanceSq, stop);
+			super(new MotionSe3PointQuaternion_F64(), nn, GeoTuple3D_F64::distance2, maxDistanceSq, stop);
 		}
 	}
 }
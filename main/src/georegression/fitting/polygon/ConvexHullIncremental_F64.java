@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.polygon;
+
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import org.ddogleg.struct.FastAccess;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * Convex hull which is updated as points are added one at a time, for when the hull is needed after each new batch
+ * of points. The hull is stored as a lower and upper chain, as in Andrew's monotone chain algorithm, with the
+ * vertexes in each chain sorted by x then y. A new point is located in each chain with a binary search. If it's
+ * inside the hull it's discarded, otherwise it's inserted and the vertexes it makes non-convex are removed.
+ * </p>
+ *
+ * <p>
+ * Checking a point is O(log h), where h is the number of vertexes in the hull. Removing vertexes is amortized O(1)
+ * since each vertex can only be removed once. Inserting a vertex shifts the chain's array, which is O(h). Adding
+ * a point is therefore O(h) in the worst case and not amortized O(log n), but it's very fast in practice since h is
+ * typically much smaller than the number of points.
+ * </p>
+ *
+ * <p>
+ * The output hull is counter-clockwise, starts at the vertex with the smallest x then y, and doesn't include
+ * collinear points or duplicates. If all the points are collinear then it has two vertexes, the first and last
+ * point in sorted order. This is the same as {@link ConvexHullAndrewMonotone_F64} when it's given three or more
+ * points that are not all identical. With fewer points it copies them in the input's order, and if they are all
+ * identical it outputs the same vertex twice.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ConvexHullIncremental_F64 implements FitConvexHull_F64 {
+	// vertexes on the bottom of the hull. Always turns counter-clockwise
+	final Chain lower = new Chain(1.0);
+	// vertexes on the top of the hull. Always turns clockwise
+	final Chain upper = new Chain(-1.0);
+
+	/**
+	 * Removes all points from the hull
+	 */
+	public void reset() {
+		lower.size = 0;
+		upper.size = 0;
+	}
+
+	/**
+	 * Adds a point to the hull
+	 *
+	 * @return true if the hull changed or false if the point is inside the hull
+	 */
+	public boolean add( double x, double y ) {
+		// Non-short circuit OR since both chains need to be updated
+		return lower.add(x, y) | upper.add(x, y);
+	}
+
+	/**
+	 * Adds a point to the hull
+	 *
+	 * @return true if the hull changed or false if the point is inside the hull
+	 */
+	public boolean add( Point2D_F64 p ) {
+		return add(p.x, p.y);
+	}
+
+	/**
+	 * Adds all the points to the hull
+	 *
+	 * @return true if the hull changed
+	 */
+	public boolean addAll( List<Point2D_F64> points ) {
+		boolean changed = false;
+		for (int i = 0; i < points.size(); i++) {
+			Point2D_F64 p = points.get(i);
+			changed |= add(p.x, p.y);
+		}
+		return changed;
+	}
+
+	/**
+	 * Adds all the points to the hull
+	 *
+	 * @return true if the hull changed
+	 */
+	public boolean addAll( FastAccess<Point2D_F64> points ) {
+		boolean changed = false;
+		for (int i = 0; i < points.size; i++) {
+			Point2D_F64 p = points.data[i];
+			changed |= add(p.x, p.y);
+		}
+		return changed;
+	}
+
+	/**
+	 * Number of vertexes in the hull
+	 */
+	public int size() {
+		if (lower.size <= 1)
+			return lower.size;
+		return lower.size + upper.size - 2;
+	}
+
+	/**
+	 * Copies the current hull into the polygon.
+	 *
+	 * @param output (Output) The convex hull in counter-clockwise order
+	 */
+	public void getHull( Polygon2D_F64 output ) {
+		output.vertexes.resize(size());
+		int index = 0;
+		for (int i = 0; i < lower.size; i++) {
+			output.vertexes.data[index++].setTo(lower.x[i], lower.y[i]);
+		}
+		for (int i = upper.size - 2; i > 0; i--) {
+			output.vertexes.data[index++].setTo(upper.x[i], upper.y[i]);
+		}
+	}
+
+	/**
+	 * Computes the convex hull from scratch. The points are not modified.
+	 */
+	@Override
+	public void process( FastAccess<Point2D_F64> points, Polygon2D_F64 output ) {
+		reset();
+		addAll(points);
+		getHull(output);
+	}
+
+	/**
+	 * One side of the hull with vertexes sorted by x and then y.
+	 */
+	static class Chain {
+		// +1 for the lower chain and -1 for the upper
+		final double sign;
+		double[] x = new double[10];
+		double[] y = new double[10];
+		int size;
+
+		Chain( double sign ) {
+			this.sign = sign;
+		}
+
+		boolean add( double px, double py ) {
+			// index of the first vertex after the point
+			int k = search(px, py);
+
+			if (k > 0 && x[k - 1] == px && y[k - 1] == py)
+				return false;
+
+			// Inside if it's on or above the lower chain's edge, or below for the upper chain
+			if (k > 0 && k < size && turn(x[k - 1], y[k - 1], x[k], y[k], px, py) >= 0.0)
+				return false;
+
+			insert(k, px, py);
+
+			// remove vertexes after the point which are no longer convex
+			int remove = 0;
+			while (k + 2 + remove < size && turn(px, py, x[k + 1 + remove], y[k + 1 + remove],
+					x[k + 2 + remove], y[k + 2 + remove]) <= 0.0) {
+				remove++;
+			}
+			removeRange(k + 1, k + 1 + remove);
+
+			// remove vertexes before the point
+			remove = 0;
+			while (k - 2 - remove >= 0 && turn(x[k - 2 - remove], y[k - 2 - remove],
+					x[k - 1 - remove], y[k - 1 - remove], px, py) <= 0.0) {
+				remove++;
+			}
+			removeRange(k - remove, k);
+			return true;
+		}
+
+		/**
+		 * Binary search for the first vertex which comes after the point
+		 */
+		int search( double px, double py ) {
+			int low = 0, high = size;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (x[mid] < px || (x[mid] == px && y[mid] <= py))
+					low = mid + 1;
+				else
+					high = mid;
+			}
+			return low;
+		}
+
+		/**
+		 * Positive if a, b, c turns in the same direction as the chain
+		 */
+		double turn( double ax, double ay, double bx, double by, double cx, double cy ) {
+			return sign*((bx - ax)*(cy - ay) - (by - ay)*(cx - ax));
+		}
+
+		void insert( int index, double px, double py ) {
+			if (size == x.length) {
+				x = Arrays.copyOf(x, size*2);
+				y = Arrays.copyOf(y, size*2);
+			}
+			System.arraycopy(x, index, x, index + 1, size - index);
+			System.arraycopy(y, index, y, index + 1, size - index);
+			x[index] = px;
+			y[index] = py;
+			size++;
+		}
+
+		/** Removes vertexes from index0 (inclusive) to index1 (exclusive) */
+		void removeRange( int index0, int index1 ) {
+			if (index0 >= index1)
+				return;
+			System.arraycopy(x, index1, x, index0, size - index1);
+			System.arraycopy(y, index1, y, index0, size - index1);
+			size -= index1 - index0;
+		}
+	}
+}
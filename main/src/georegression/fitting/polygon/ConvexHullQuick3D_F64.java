@@ -0,0 +1,813 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.polygon;
+
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.shapes.HalfEdgeMesh3D_F64;
+import lombok.Getter;
+import org.ddogleg.sorting.QuickSortComparator;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_F64;
+import org.ddogleg.struct.DogArray_I32;
+import org.ddogleg.struct.FastAccess;
+import org.ddogleg.struct.FastArray;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Computes the convex hull of a set of 3D points using the Quickhull algorithm [1]. The hull is built from
+ * triangles. A point is added by deleting every face it can see, then connecting it to the horizon of the deleted
+ * faces. Each point outside of the hull is assigned to one face, and the point farthest from a face is always added
+ * next. Expected run time is O(n log n).
+ * </p>
+ *
+ * <p>
+ * Before the hull is computed, the points can optionally be pre-filtered using the Akl-Toussaint heuristic [2].
+ * The hull of the extreme points along 14 directions is found and every point which is strictly inside of it is
+ * discarded. For uniformly distributed points most of the points are removed with a few dot products each.
+ * </p>
+ *
+ * <p>
+ * A point is only considered outside of a face if its distance is more than {@link #tolerance}. Once the hull has
+ * been computed, adjacent triangles that lie on the same plane, within tolerance, are merged into a single
+ * polygon. Output is a {@link HalfEdgeMesh3D_F64} with faces ordered counter-clockwise when viewed from outside.
+ * </p>
+ *
+ * <p>[1] Barber, C. Bradford, David P. Dobkin, and Hannu Huhdanpaa. "The quickhull algorithm for convex hulls."
+ * ACM Transactions on Mathematical Software (1996)</p>
+ * <p>[2] Akl, Selim G., and Godfried T. Toussaint. "A fast convex hull algorithm." Information Processing Letters
+ * (1978)</p>
+ *
+ * @author Peter Abeles
+ */
+public class ConvexHullQuick3D_F64 {
+	/**
+	 * Points which are closer than this distance to a face are considered to be on the face. If &le; 0 then it's
+	 * computed automatically from the magnitude of the input points.
+	 */
+	public double tolerance = -1.0;
+
+	/** If true then adjacent triangles which lie on the same plane are merged into a single polygon */
+	public boolean mergeCoplanar = true;
+
+	/** If true then points inside the hull of the extreme points are discarded before the hull is computed */
+	public boolean prefilter = true;
+
+	/** Pre-filtering is only done if there are at least this many points */
+	public int prefilterMinimumPoints = 100;
+
+	/** The tolerance used in the last call to process */
+	@Getter double actualTolerance;
+
+	/** For each vertex in the output mesh, the index of the input point */
+	@Getter DogArray_I32 vertexIndexes = new DogArray_I32();
+
+	// Faces and edges of the hull. Deleted faces remain in the list until the next call
+	final DogArray<Face> faces = new DogArray<>(Face::new, Face::reset);
+	final DogArray<HalfEdge> edges = new DogArray<>(HalfEdge::new);
+
+	// Points packed into a single array, x0,y0,z0,x1,...
+	double[] xyz = new double[0];
+	final DogArray_F64 packed = new DogArray_F64();
+
+	// Index of the points which the hull is computed from
+	final DogArray_I32 candidates = new DogArray_I32();
+
+	// Faces which might have outside points
+	final FastArray<Face> pending = new FastArray<>(Face.class);
+	// Ordered list of edges on the boundary between visible and hidden faces
+	final FastArray<HalfEdge> horizon = new FastArray<>(HalfEdge.class);
+	// Faces created when the last point was added
+	final FastArray<Face> newFaces = new FastArray<>(Face.class);
+	// Points which were outside of deleted faces
+	final DogArray_I32 unclaimed = new DogArray_I32();
+
+	// Stack used to search for the horizon. The next edge to be examined and the number remaining in the face
+	final FastArray<HalfEdge> stackEdge = new FastArray<>(HalfEdge.class);
+	final DogArray_I32 stackCount = new DogArray_I32();
+
+	// Pre-filter work space
+	final int[] extremeMin = new int[7];
+	final int[] extremeMax = new int[7];
+	final double[] extremeValueMin = new double[7];
+	final double[] extremeValueMax = new double[7];
+	final DogArray_I32 extremeIndexes = new DogArray_I32();
+	final DogArray_F64 filterPlanes = new DogArray_F64();
+
+	// Mesh extraction work space
+	final FastArray<Face> alive = new FastArray<>(Face.class);
+	final FastArray<Face> sortedFaces = new FastArray<>(Face.class);
+	final FastArray<Face> open = new FastArray<>(Face.class);
+	final FastArray<HalfEdge> boundary = new FastArray<>(HalfEdge.class);
+	final DogArray_I32 loopStart = new DogArray_I32();
+	final DogArray_I32 vertexMap = new DogArray_I32();
+	final DogArray_I32 vertexDegree = new DogArray_I32();
+	final QuickSortComparator<Face> sorter = new QuickSortComparator<>(( a, b ) -> Double.compare(b.area, a.area));
+
+	/**
+	 * Computes the convex hull of the points
+	 *
+	 * @param points (Input) Points
+	 * @param output (Output) The convex hull
+	 * @return true if successful or false if the points are degenerate, i.e. they all lie on the same plane
+	 */
+	public boolean process( List<Point3D_F64> points, HalfEdgeMesh3D_F64 output ) {
+		packed.resize(points.size()*3);
+		for (int i = 0, idx = 0; i < points.size(); i++) {
+			Point3D_F64 p = points.get(i);
+			packed.data[idx++] = p.x;
+			packed.data[idx++] = p.y;
+			packed.data[idx++] = p.z;
+		}
+		return process(packed.data, points.size(), output);
+	}
+
+	/**
+	 * Computes the convex hull of points which have been packed into an array
+	 *
+	 * @param xyz (Input) Points packed as x0,y0,z0,x1,y1,z1,...
+	 * @param count (Input) Number of points
+	 * @param output (Output) The convex hull
+	 * @return true if successful or false if the points are degenerate, i.e. they all lie on the same plane
+	 */
+	public boolean process( double[] xyz, int count, HalfEdgeMesh3D_F64 output ) {
+		checkArray(xyz, count);
+		candidates.resize(count);
+		for (int i = 0; i < count; i++) {
+			candidates.data[i] = i;
+		}
+		return processIndexes(xyz, candidates, output);
+	}
+
+	/**
+	 * Computes the convex hull of a subset of the points
+	 *
+	 * @param xyz (Input) Points packed as x0,y0,z0,x1,y1,z1,...
+	 * @param indexes (Input) Index of points which are included in the hull. Modified.
+	 * @param output (Output) The convex hull
+	 * @return true if successful or false if the points are degenerate, i.e. they all lie on the same plane
+	 */
+	public boolean processIndexes( double[] xyz, DogArray_I32 indexes, HalfEdgeMesh3D_F64 output ) {
+		this.xyz = xyz;
+		output.reset();
+		vertexIndexes.reset();
+
+		if (indexes.size < 4)
+			return false;
+
+		actualTolerance = tolerance > 0.0 ? tolerance : automaticTolerance(xyz, indexes);
+
+		if (prefilter && indexes.size >= prefilterMinimumPoints)
+			prefilterPoints(indexes);
+
+		if (!quickhull(indexes))
+			return false;
+
+		extractMesh(output);
+		return true;
+	}
+
+	/**
+	 * Tolerance which is a few floating point errors of the largest coordinates
+	 */
+	static double automaticTolerance( double[] xyz, DogArray_I32 indexes ) {
+		double maxX = 0, maxY = 0, maxZ = 0;
+		for (int i = 0; i < indexes.size; i++) {
+			int idx = indexes.data[i]*3;
+			maxX = Math.max(maxX, Math.abs(xyz[idx]));
+			maxY = Math.max(maxY, Math.abs(xyz[idx + 1]));
+			maxZ = Math.max(maxZ, Math.abs(xyz[idx + 2]));
+		}
+		return 3.0*Math.ulp(1.0)*(maxX + maxY + maxZ);
+	}
+
+	static void checkArray( double[] xyz, int count ) {
+		if (count < 0 || 3L*count > xyz.length)
+			throw new IllegalArgumentException("Array is too small for the number of points");
+	}
+
+	/**
+	 * Finds the extreme points along the axes and diagonals, computes their hull, then discards every point
+	 * which is inside of that hull.
+	 */
+	void prefilterPoints( DogArray_I32 points ) {
+		int first = points.data[0];
+		for (int k = 0; k < 7; k++) {
+			extremeMin[k] = extremeMax[k] = first;
+			extremeValueMin[k] = Double.MAX_VALUE;
+			extremeValueMax[k] = -Double.MAX_VALUE;
+		}
+
+		for (int i = 0; i < points.size; i++) {
+			int p = points.data[i];
+			int idx = p*3;
+			double x = xyz[idx], y = xyz[idx + 1], z = xyz[idx + 2];
+			updateExtreme(0, p, x);
+			updateExtreme(1, p, y);
+			updateExtreme(2, p, z);
+			updateExtreme(3, p, x + y + z);
+			updateExtreme(4, p, x + y - z);
+			updateExtreme(5, p, x - y + z);
+			updateExtreme(6, p, -x + y + z);
+		}
+
+		extremeIndexes.reset();
+		for (int k = 0; k < 7; k++) {
+			if (!extremeIndexes.contains(extremeMin[k]))
+				extremeIndexes.add(extremeMin[k]);
+			if (!extremeIndexes.contains(extremeMax[k]))
+				extremeIndexes.add(extremeMax[k]);
+		}
+
+		// If the extreme points are degenerate then nothing can be discarded
+		if (!quickhull(extremeIndexes))
+			return;
+
+		filterPlanes.reset();
+		for (int i = 0; i < faces.size; i++) {
+			Face f = faces.data[i];
+			if (f.deleted)
+				continue;
+			filterPlanes.add(f.nx);
+			filterPlanes.add(f.ny);
+			filterPlanes.add(f.nz);
+			filterPlanes.add(f.offset);
+		}
+
+		// Keep points which are not strictly inside. Extreme points are kept since they lie on the planes
+		double[] planes = filterPlanes.data;
+		int numPlanes = filterPlanes.size;
+		int kept = 0;
+		for (int i = 0; i < points.size; i++) {
+			int p = points.data[i];
+			int idx = p*3;
+			double x = xyz[idx], y = xyz[idx + 1], z = xyz[idx + 2];
+			for (int j = 0; j < numPlanes; j += 4) {
+				if (planes[j]*x + planes[j + 1]*y + planes[j + 2]*z - planes[j + 3] > -actualTolerance) {
+					points.data[kept++] = p;
+					break;
+				}
+			}
+		}
+		points.size = kept;
+	}
+
+	private void updateExtreme( int k, int p, double value ) {
+		if (value < extremeValueMin[k]) {
+			extremeValueMin[k] = value;
+			extremeMin[k] = p;
+		}
+		if (value > extremeValueMax[k]) {
+			extremeValueMax[k] = value;
+			extremeMax[k] = p;
+		}
+	}
+
+	/**
+	 * Computes the triangulated hull of the points
+	 *
+	 * @return false if the points are degenerate
+	 */
+	boolean quickhull( DogArray_I32 points ) {
+		faces.reset();
+		edges.reset();
+		pending.reset();
+		unclaimed.reset();
+
+		if (!createSimplex(points))
+			return false;
+
+		while (true) {
+			Face face = null;
+			while (pending.size > 0) {
+				Face f = pending.removeTail();
+				if (!f.deleted && f.outside.size > 0) {
+					face = f;
+					break;
+				}
+			}
+			if (face == null)
+				break;
+
+			// The point farthest from the face is guaranteed to be on the hull
+			int bestIndex = 0;
+			double bestDistance = -Double.MAX_VALUE;
+			for (int i = 0; i < face.outside.size; i++) {
+				double d = face.distance(xyz, face.outside.data[i]);
+				if (d > bestDistance) {
+					bestDistance = d;
+					bestIndex = i;
+				}
+			}
+			int eye = face.outside.removeSwap(bestIndex);
+
+			computeHorizon(eye, face);
+			createNewFaces(eye);
+			assignUnclaimed();
+		}
+		return true;
+	}
+
+	/**
+	 * Creates the initial tetrahedron from points which are far apart and assigns every point to a face
+	 */
+	boolean createSimplex( DogArray_I32 points ) {
+		// Two points which are extreme along the axis with the largest spread
+		int v0 = -1, v1 = -1;
+		double bestSpread = -1.0;
+		for (int axis = 0; axis < 3; axis++) {
+			int idxMin = points.data[0], idxMax = idxMin;
+			double valueMin = xyz[idxMin*3 + axis], valueMax = valueMin;
+			for (int i = 1; i < points.size; i++) {
+				int p = points.data[i];
+				double v = xyz[p*3 + axis];
+				if (v < valueMin) {
+					valueMin = v;
+					idxMin = p;
+				} else if (v > valueMax) {
+					valueMax = v;
+					idxMax = p;
+				}
+			}
+			if (valueMax - valueMin > bestSpread) {
+				bestSpread = valueMax - valueMin;
+				v0 = idxMin;
+				v1 = idxMax;
+			}
+		}
+		if (bestSpread <= actualTolerance)
+			return false;
+
+		// Point farthest from the line
+		double x0 = xyz[v0*3], y0 = xyz[v0*3 + 1], z0 = xyz[v0*3 + 2];
+		double dx = xyz[v1*3] - x0, dy = xyz[v1*3 + 1] - y0, dz = xyz[v1*3 + 2] - z0;
+		double norm = Math.sqrt(dx*dx + dy*dy + dz*dz);
+		dx /= norm;
+		dy /= norm;
+		dz /= norm;
+
+		int v2 = -1;
+		double bestDistance = 0.0;
+		for (int i = 0; i < points.size; i++) {
+			int p = points.data[i];
+			double px = xyz[p*3] - x0, py = xyz[p*3 + 1] - y0, pz = xyz[p*3 + 2] - z0;
+			double cx = py*dz - pz*dy, cy = pz*dx - px*dz, cz = px*dy - py*dx;
+			double d = cx*cx + cy*cy + cz*cz;
+			if (d > bestDistance) {
+				bestDistance = d;
+				v2 = p;
+			}
+		}
+		if (v2 < 0 || Math.sqrt(bestDistance) <= actualTolerance)
+			return false;
+
+		// Point farthest from the plane
+		double ux = xyz[v1*3] - x0, uy = xyz[v1*3 + 1] - y0, uz = xyz[v1*3 + 2] - z0;
+		double wx = xyz[v2*3] - x0, wy = xyz[v2*3 + 1] - y0, wz = xyz[v2*3 + 2] - z0;
+		double nx = uy*wz - uz*wy, ny = uz*wx - ux*wz, nz = ux*wy - uy*wx;
+		norm = Math.sqrt(nx*nx + ny*ny + nz*nz);
+		nx /= norm;
+		ny /= norm;
+		nz /= norm;
+
+		int v3 = -1;
+		bestDistance = 0.0;
+		for (int i = 0; i < points.size; i++) {
+			int p = points.data[i];
+			double d = nx*(xyz[p*3] - x0) + ny*(xyz[p*3 + 1] - y0) + nz*(xyz[p*3 + 2] - z0);
+			if (Math.abs(d) > Math.abs(bestDistance)) {
+				bestDistance = d;
+				v3 = p;
+			}
+		}
+		if (v3 < 0 || Math.abs(bestDistance) <= actualTolerance)
+			return false;
+
+		// The base's normal needs to point away from the apex
+		if (bestDistance > 0) {
+			int tmp = v1;
+			v1 = v2;
+			v2 = tmp;
+		}
+
+		newFaces.reset();
+		newFaces.add(createTriangle(v0, v1, v2));
+		newFaces.add(createTriangle(v1, v0, v3));
+		newFaces.add(createTriangle(v2, v1, v3));
+		newFaces.add(createTriangle(v0, v2, v3));
+		for (int i = 0; i < 4; i++) {
+			for (int j = i + 1; j < 4; j++) {
+				linkTwins(newFaces.data[i], newFaces.data[j]);
+			}
+		}
+
+		for (int i = 0; i < points.size; i++) {
+			assignPoint(points.data[i], newFaces);
+		}
+		pending.addAll(newFaces);
+		return true;
+	}
+
+	/**
+	 * Finds the horizon using a depth first search from the visible face. Visible faces are deleted and their
+	 * points moved into the unclaimed list. Horizon edges are found in counter-clockwise order.
+	 */
+	void computeHorizon( int eye, Face visible ) {
+		horizon.reset();
+		deleteFace(visible);
+
+		stackEdge.reset();
+		stackCount.reset();
+		stackEdge.add(visible.edge);
+		stackCount.add(3);
+
+		while (stackEdge.size > 0) {
+			int top = stackEdge.size - 1;
+			if (stackCount.data[top] == 0) {
+				stackEdge.removeTail();
+				stackCount.removeTail();
+				continue;
+			}
+			HalfEdge edge = stackEdge.data[top];
+			stackEdge.data[top] = edge.next;
+			stackCount.data[top]--;
+
+			Face opposite = edge.twin.face;
+			if (opposite.deleted)
+				continue;
+
+			if (opposite.distance(xyz, eye) > actualTolerance) {
+				deleteFace(opposite);
+				// The edge which was crossed has already been handled
+				stackEdge.add(edge.twin.next);
+				stackCount.add(2);
+			} else {
+				horizon.add(edge);
+			}
+		}
+	}
+
+	void deleteFace( Face face ) {
+		face.deleted = true;
+		for (int i = 0; i < face.outside.size; i++) {
+			unclaimed.add(face.outside.data[i]);
+		}
+		face.outside.reset();
+	}
+
+	/**
+	 * Connects each horizon edge to the eye point with a new triangle
+	 */
+	void createNewFaces( int eye ) {
+		newFaces.reset();
+
+		HalfEdge first = null;
+		HalfEdge previous = null;
+		for (int i = 0; i < horizon.size; i++) {
+			HalfEdge h = horizon.data[i];
+			Face f = createTriangle(h.vertex, h.next.vertex, eye);
+			newFaces.add(f);
+
+			// edges are tail->head, head->eye, eye->tail
+			HalfEdge e0 = f.edge;
+			HalfEdge e1 = e0.next;
+			HalfEdge e2 = e1.next;
+
+			e0.twin = h.twin;
+			h.twin.twin = e0;
+
+			if (previous == null) {
+				first = e2;
+			} else {
+				previous.twin = e2;
+				e2.twin = previous;
+			}
+			previous = e1;
+		}
+
+		if (first != null) {
+			previous.twin = first;
+			first.twin = previous;
+		}
+	}
+
+	/**
+	 * Points which were outside of a deleted face are either inside the hull or outside of a new face
+	 */
+	void assignUnclaimed() {
+		for (int i = 0; i < unclaimed.size; i++) {
+			assignPoint(unclaimed.data[i], newFaces);
+		}
+		unclaimed.reset();
+
+		for (int i = 0; i < newFaces.size; i++) {
+			Face f = newFaces.data[i];
+			if (f.outside.size > 0)
+				pending.add(f);
+		}
+	}
+
+	/**
+	 * Assigns the point to the face it's farthest outside of, if any
+	 */
+	void assignPoint( int point, FastAccess<Face> options ) {
+		Face best = null;
+		double bestDistance = actualTolerance;
+		for (int i = 0; i < options.size; i++) {
+			Face f = options.data[i];
+			double d = f.distance(xyz, point);
+			if (d > bestDistance) {
+				bestDistance = d;
+				best = f;
+			}
+		}
+		if (best != null)
+			best.outside.add(point);
+	}
+
+	Face createTriangle( int a, int b, int c ) {
+		Face f = faces.grow();
+		HalfEdge e0 = edges.grow();
+		HalfEdge e1 = edges.grow();
+		HalfEdge e2 = edges.grow();
+		e0.vertex = a;
+		e1.vertex = b;
+		e2.vertex = c;
+		e0.next = e1;
+		e1.next = e2;
+		e2.next = e0;
+		e0.face = e1.face = e2.face = f;
+		f.edge = e0;
+
+		double ax = xyz[a*3], ay = xyz[a*3 + 1], az = xyz[a*3 + 2];
+		double bx = xyz[b*3], by = xyz[b*3 + 1], bz = xyz[b*3 + 2];
+		double cx = xyz[c*3], cy = xyz[c*3 + 1], cz = xyz[c*3 + 2];
+		double ux = bx - ax, uy = by - ay, uz = bz - az;
+		double vx = cx - ax, vy = cy - ay, vz = cz - az;
+		double nx = uy*vz - uz*vy, ny = uz*vx - ux*vz, nz = ux*vy - uy*vx;
+		double norm = Math.sqrt(nx*nx + ny*ny + nz*nz);
+		f.area = norm/2.0;
+		if (norm == 0.0) {
+			// Degenerate triangle. Nothing will ever be outside of it
+			f.nx = f.ny = f.nz = f.offset = 0.0;
+		} else {
+			f.nx = nx/norm;
+			f.ny = ny/norm;
+			f.nz = nz/norm;
+			// The centroid reduces the error in the offset
+			f.offset = (f.nx*(ax + bx + cx) + f.ny*(ay + by + cy) + f.nz*(az + bz + cz))/3.0;
+		}
+		return f;
+	}
+
+	static void linkTwins( Face a, Face b ) {
+		HalfEdge ea = a.edge;
+		do {
+			HalfEdge eb = b.edge;
+			do {
+				if (ea.vertex == eb.next.vertex && ea.next.vertex == eb.vertex) {
+					ea.twin = eb;
+					eb.twin = ea;
+				}
+				eb = eb.next;
+			} while (eb != b.edge);
+			ea = ea.next;
+		} while (ea != a.edge);
+	}
+
+	/**
+	 * Converts the hull into the output mesh. If requested, coplanar faces are merged into a single polygon
+	 */
+	void extractMesh( HalfEdgeMesh3D_F64 output ) {
+		alive.reset();
+		for (int i = 0; i < faces.size; i++) {
+			Face f = faces.data[i];
+			if (f.deleted)
+				continue;
+			f.region = -1;
+			alive.add(f);
+
+			HalfEdge e = f.edge;
+			do {
+				e.index = -1;
+				e = e.next;
+			} while (e != f.edge);
+		}
+
+		if (mergeCoplanar) {
+			mergeCoplanarFaces();
+		} else {
+			for (int i = 0; i < alive.size; i++) {
+				alive.data[i].region = i;
+			}
+		}
+
+		// Lookup tables from input point to output vertex and the number of boundary edges leaving it
+		int numPoints = xyz.length/3;
+		if (vertexMap.size < numPoints) {
+			int before = vertexMap.size;
+			vertexMap.resize(numPoints);
+			vertexDegree.resize(numPoints);
+			for (int i = before; i < numPoints; i++) {
+				vertexMap.data[i] = -1;
+				vertexDegree.data[i] = 0;
+			}
+		}
+
+		// Find the loops of edges on the boundary of each region
+		boundary.reset();
+		loopStart.reset();
+		for (int i = 0; i < alive.size; i++) {
+			Face f = alive.data[i];
+			HalfEdge start = f.edge;
+			do {
+				if (start.index == -1 && start.twin.face.region != f.region)
+					traceBoundary(start);
+				start = start.next;
+			} while (start != f.edge);
+		}
+		loopStart.add(boundary.size);
+
+		// Each loop becomes a face. A vertex where only two faces meet lies on a straight edge and is skipped
+		for (int loop = 0; loop < loopStart.size - 1; loop++) {
+			int faceIndex = output.faceEdge.size;
+			int firstIndex = output.edgeVertex.size;
+			output.faceEdge.add(firstIndex);
+			for (int i = loopStart.data[loop]; i < loopStart.data[loop + 1]; i++) {
+				HalfEdge e = boundary.data[i];
+				if (vertexDegree.data[e.vertex] == 2)
+					continue;
+				e.index = output.edgeVertex.size;
+				output.edgeVertex.add(lookupVertex(e.vertex, e.index, output));
+				output.edgeFace.add(faceIndex);
+				output.edgeNext.add(e.index + 1);
+			}
+			output.edgeNext.data[output.edgeNext.size - 1] = firstIndex;
+		}
+
+		// The twin is the twin of the last edge before the next vertex which was kept
+		output.edgeTwin.resize(output.edgeVertex.size);
+		for (int loop = 0; loop < loopStart.size - 1; loop++) {
+			int idx0 = loopStart.data[loop];
+			int length = loopStart.data[loop + 1] - idx0;
+			for (int i = 0; i < length; i++) {
+				HalfEdge e = boundary.data[idx0 + i];
+				if (e.index < 0)
+					continue;
+				int last = i;
+				while (boundary.data[idx0 + (last + 1)%length].index < 0) {
+					last++;
+				}
+				output.edgeTwin.data[e.index] = boundary.data[idx0 + last%length].twin.index;
+			}
+		}
+
+		// Restore the lookup tables for the next call
+		for (int i = 0; i < boundary.size; i++) {
+			HalfEdge e = boundary.data[i];
+			vertexMap.data[e.vertex] = -1;
+			vertexDegree.data[e.vertex] = 0;
+		}
+	}
+
+	/**
+	 * Adds the loop of boundary edges around a region to the list of boundary edges. The next boundary edge is
+	 * found by rotating around the head vertex until an edge is found which is on the region's boundary.
+	 */
+	void traceBoundary( HalfEdge start ) {
+		int region = start.face.region;
+		loopStart.add(boundary.size);
+
+		HalfEdge e = start;
+		do {
+			e.index = -2;
+			boundary.add(e);
+			vertexDegree.data[e.vertex]++;
+
+			HalfEdge next = e.next;
+			while (next.twin.face.region == region) {
+				next = next.twin.next;
+			}
+			e = next;
+		} while (e != start);
+	}
+
+	/**
+	 * Returns the output vertex for the input point, adding it if needed
+	 */
+	int lookupVertex( int point, int edgeIndex, HalfEdgeMesh3D_F64 output ) {
+		int vertex = vertexMap.data[point];
+		if (vertex != -1)
+			return vertex;
+
+		vertex = output.vertexes.size;
+		vertexMap.data[point] = vertex;
+		vertexIndexes.add(point);
+		output.vertexes.grow().setTo(xyz[point*3], xyz[point*3 + 1], xyz[point*3 + 2]);
+		output.vertexEdge.add(edgeIndex);
+		return vertex;
+	}
+
+	/**
+	 * Grows regions from the largest faces. A face is added to a region if it's facing the same direction
+	 * and all of its vertexes are within tolerance of the seed face's plane.
+	 */
+	void mergeCoplanarFaces() {
+		sortedFaces.reset();
+		sortedFaces.addAll(alive);
+		sorter.sort(sortedFaces.data, sortedFaces.size);
+
+		int regions = 0;
+		for (int seedIdx = 0; seedIdx < sortedFaces.size; seedIdx++) {
+			Face seed = sortedFaces.data[seedIdx];
+			if (seed.region != -1)
+				continue;
+			seed.region = regions++;
+
+			open.reset();
+			open.add(seed);
+			while (open.size > 0) {
+				Face f = open.removeTail();
+				HalfEdge e = f.edge;
+				do {
+					Face neighbor = e.twin.face;
+					if (neighbor.region == -1 && isCoplanar(seed, neighbor)) {
+						neighbor.region = seed.region;
+						open.add(neighbor);
+					}
+					e = e.next;
+				} while (e != f.edge);
+			}
+		}
+	}
+
+	boolean isCoplanar( Face seed, Face f ) {
+		if (seed.nx*f.nx + seed.ny*f.ny + seed.nz*f.nz <= 0.0)
+			return false;
+
+		HalfEdge e = f.edge;
+		do {
+			if (Math.abs(seed.distance(xyz, e.vertex)) > actualTolerance)
+				return false;
+			e = e.next;
+		} while (e != f.edge);
+		return true;
+	}
+
+	/**
+	 * Triangular face in the hull
+	 */
+	static class Face {
+		// One of the edges in the face
+		HalfEdge edge;
+		// Plane the face lies on. Normal points outside
+		double nx, ny, nz, offset;
+		double area;
+		// Points which are outside of this face
+		final DogArray_I32 outside = new DogArray_I32();
+		boolean deleted;
+		// Which merged polygon it belongs to
+		int region;
+
+		double distance( double[] xyz, int point ) {
+			int idx = point*3;
+			return nx*xyz[idx] + ny*xyz[idx + 1] + nz*xyz[idx + 2] - offset;
+		}
+
+		void reset() {
+			outside.reset();
+			deleted = false;
+			region = -1;
+		}
+	}
+
+	/**
+	 * Half of an edge going from 'vertex' to the vertex at the start of 'next'
+	 */
+	static class HalfEdge {
+		// Index of the input point it starts at
+		int vertex;
+		HalfEdge next;
+		HalfEdge twin;
+		Face face;
+		// Index in the output mesh. -1 = not traced and -2 = traced but skipped
+		int index;
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.polygon;
+
+import georegression.struct.shapes.HalfEdgeMesh3D_F64;
+import org.ddogleg.DDoglegConcurrency;
+import org.ddogleg.struct.DogArray_I32;
+import pabeles.concurrency.GrowArray;
+
+/**
+ * <p>
+ * A concurrent implementation of {@link ConvexHullQuick3D_F64}. The points are split into blocks and the hull of
+ * each block is computed in parallel. Only points which are a vertex in a block's hull can be a vertex in the
+ * final hull, so the final hull is computed from the union of the block's vertexes. Blocks which are degenerate
+ * contribute all of their points.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ConvexHullQuick3D_MT_F64 extends ConvexHullQuick3D_F64 {
+	/** There needs to be at least this many points for it to use the concurrent implementation */
+	public int minimumPointsConcurrent = 20_000;
+
+	GrowArray<Helper> concurrentHelper = new GrowArray<>(Helper::new);
+
+	@Override
+	public boolean process( double[] xyz, int count, HalfEdgeMesh3D_F64 output ) {
+		if (count < minimumPointsConcurrent)
+			return super.process(xyz, count, output);
+
+		checkArray(xyz, count);
+		candidates.resize(count);
+		for (int i = 0; i < count; i++) {
+			candidates.data[i] = i;
+		}
+
+		// Every block needs to use the same tolerance as the final hull
+		final double blockTolerance = tolerance > 0.0 ? tolerance : automaticTolerance(xyz, candidates);
+
+		DDoglegConcurrency.loopBlocks(0, count, concurrentHelper, ( helper, idx0, idx1 ) -> {
+			helper.hull.tolerance = blockTolerance;
+			helper.hull.prefilter = prefilter;
+			helper.hull.prefilterMinimumPoints = prefilterMinimumPoints;
+
+			helper.indexes.reset();
+			for (int i = idx0; i < idx1; i++) {
+				helper.indexes.add(i);
+			}
+
+			helper.vertexes.reset();
+			if (helper.hull.processIndexes(xyz, helper.indexes, helper.mesh)) {
+				helper.vertexes.setTo(helper.hull.getVertexIndexes());
+			} else {
+				for (int i = idx0; i < idx1; i++) {
+					helper.vertexes.add(i);
+				}
+			}
+		});
+
+		candidates.reset();
+		for (int i = 0; i < concurrentHelper.size(); i++) {
+			DogArray_I32 found = concurrentHelper.get(i).vertexes;
+			for (int j = 0; j < found.size; j++) {
+				candidates.add(found.data[j]);
+			}
+		}
+
+		return processIndexes(xyz, candidates, output);
+	}
+
+	static class Helper {
+		final ConvexHullQuick3D_F64 hull = new ConvexHullQuick3D_F64();
+		final DogArray_I32 indexes = new DogArray_I32();
+		final DogArray_I32 vertexes = new DogArray_I32();
+		final HalfEdgeMesh3D_F64 mesh = new HalfEdgeMesh3D_F64();
+
+		Helper() {
+			// Merging can remove vertexes and isn't needed
+			hull.mergeCoplanar = false;
+		}
+	}
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.polygon;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.point.Vector3D_F64;
+import georegression.struct.shapes.BoxOriented3D_F64;
+import georegression.struct.shapes.HalfEdgeMesh3D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import georegression.struct.shapes.Quadrilateral_F64;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.FastArray;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
+import org.ejml.interfaces.decomposition.EigenDecomposition_F64;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Fits an Oriented Bounding Box (OBB) to a set of 3D points. An initial box is found using the principal axes
+ * (PCA) of the points. This box is then refined using the convex hull. For each principal axis and the normal
+ * of each face in the convex hull, the hull's vertexes are projected onto the plane perpendicular to it. The
+ * minimum area rectangle that contains the projected points is found with rotating calipers. The box with the
+ * smallest volume is selected and ties are broken using surface area.
+ * </p>
+ *
+ * <p>
+ * The result isn't guaranteed to be the smallest possible box, which would need to consider pairs of edges
+ * in the hull [1], but in practice is close and much better than the PCA box. If the points lie on a plane
+ * then every box has zero volume, in which case the box with the smallest area along the plane is selected.
+ * </p>
+ *
+ * <p>[1] O'Rourke, Joseph. "Finding minimal enclosing boxes." International Journal of Computer &amp;
+ * Information Sciences (1985)</p>
+ *
+ * @author Peter Abeles
+ */
+public class FitBoxOriented3D_F64 {
+	/** If true then the box found using PCA will be refined using the convex hull */
+	public boolean refine = true;
+
+	/** Used to compute the 3D convex hull. Can be configured. */
+	public final ConvexHullQuick3D_F64 hull3D = new ConvexHullQuick3D_F64();
+
+	final HalfEdgeMesh3D_F64 mesh = new HalfEdgeMesh3D_F64();
+	final ConvexHullAndrewMonotone_F64 hull2D = new ConvexHullAndrewMonotone_F64();
+	final RotatingCalipers_F64 calipers = new RotatingCalipers_F64();
+
+	// Points which the box must contain
+	final FastArray<Point3D_F64> support = new FastArray<>(Point3D_F64.class);
+
+	// Work space for PCA
+	final EigenDecomposition_F64<DMatrixRMaj> eig = DecompositionFactory_DDRM.eig(3, true, true);
+	final DMatrixRMaj covariance = new DMatrixRMaj(3, 3);
+	final Vector3D_F64 axisX = new Vector3D_F64();
+	final Vector3D_F64 axisY = new Vector3D_F64();
+	final Vector3D_F64 axisZ = new Vector3D_F64();
+
+	// Work space for refinement
+	final DogArray<Point2D_F64> projected = new DogArray<>(Point2D_F64::new);
+	final Polygon2D_F64 polygon = new Polygon2D_F64();
+	final Quadrilateral_F64 rectangle = new Quadrilateral_F64();
+	final Vector3D_F64 normal = new Vector3D_F64();
+	final Vector3D_F64 u = new Vector3D_F64();
+	final Vector3D_F64 v = new Vector3D_F64();
+	final Vector3D_F64 boxX = new Vector3D_F64();
+	final Vector3D_F64 boxY = new Vector3D_F64();
+
+	// Volume and surface area of the best box so far
+	double bestVolume;
+	double bestArea;
+
+	/**
+	 * Fits a box to the points
+	 *
+	 * @param points (Input) Points
+	 * @param output (Output) The smallest box that was found
+	 * @return true if successful or false if there are no points
+	 */
+	public boolean process( List<Point3D_F64> points, BoxOriented3D_F64 output ) {
+		if (points.isEmpty())
+			return false;
+
+		// Only vertexes in the hull can touch the box
+		support.reset();
+		boolean hasHull = refine && hull3D.process(points, mesh);
+		if (hasHull) {
+			for (int i = 0; i < mesh.vertexes.size; i++) {
+				support.add(mesh.vertexes.data[i]);
+			}
+		} else {
+			support.addAll(points);
+		}
+
+		principalAxes(points);
+		bestVolume = Double.MAX_VALUE;
+		bestArea = Double.MAX_VALUE;
+		fitAlongAxes(axisX, axisY, axisZ, output);
+
+		if (!refine)
+			return true;
+
+		fitToNormal(axisX, output);
+		fitToNormal(axisY, output);
+		fitToNormal(axisZ, output);
+
+		if (hasHull) {
+			for (int face = 0; face < mesh.getFaceCount(); face++) {
+				mesh.computeFaceNormal(face, normal);
+				fitToNormal(normal, output);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Finds the principal axes of the points. If that fails the coordinate axes are used.
+	 */
+	void principalAxes( List<Point3D_F64> points ) {
+		double mx = 0, my = 0, mz = 0;
+		for (int i = 0; i < points.size(); i++) {
+			Point3D_F64 p = points.get(i);
+			mx += p.x;
+			my += p.y;
+			mz += p.z;
+		}
+		mx /= points.size();
+		my /= points.size();
+		mz /= points.size();
+
+		double xx = 0, xy = 0, xz = 0, yy = 0, yz = 0, zz = 0;
+		for (int i = 0; i < points.size(); i++) {
+			Point3D_F64 p = points.get(i);
+			double dx = p.x - mx, dy = p.y - my, dz = p.z - mz;
+			xx += dx*dx;
+			xy += dx*dy;
+			xz += dx*dz;
+			yy += dy*dy;
+			yz += dy*dz;
+			zz += dz*dz;
+		}
+		//@formatter:off
+		covariance.data[0] = xx; covariance.data[1] = xy; covariance.data[2] = xz;
+		covariance.data[3] = xy; covariance.data[4] = yy; covariance.data[5] = yz;
+		covariance.data[6] = xz; covariance.data[7] = yz; covariance.data[8] = zz;
+		//@formatter:on
+
+		axisX.setTo(1, 0, 0);
+		axisY.setTo(0, 1, 0);
+		axisZ.setTo(0, 0, 1);
+		if (!eig.decompose(covariance))
+			return;
+		DMatrixRMaj v0 = eig.getEigenVector(0);
+		DMatrixRMaj v1 = eig.getEigenVector(1);
+		if (v0 == null || v1 == null)
+			return;
+
+		// Make sure the axes are orthonormal and right handed
+		axisX.setTo(v0.data[0], v0.data[1], v0.data[2]);
+		axisX.normalize();
+		axisY.setTo(v1.data[0], v1.data[1], v1.data[2]);
+		double dot = axisX.dot(axisY);
+		axisY.setTo(axisY.x - dot*axisX.x, axisY.y - dot*axisX.y, axisY.z - dot*axisX.z);
+		axisY.normalize();
+		axisZ.crossSetTo(axisX, axisY);
+	}
+
+	/**
+	 * Fits a box with the specified orientation. The axes must be orthonormal and right handed.
+	 */
+	void fitAlongAxes( Vector3D_F64 ax, Vector3D_F64 ay, Vector3D_F64 az, BoxOriented3D_F64 output ) {
+		double x0 = Double.MAX_VALUE, x1 = -Double.MAX_VALUE;
+		double y0 = Double.MAX_VALUE, y1 = -Double.MAX_VALUE;
+		double z0 = Double.MAX_VALUE, z1 = -Double.MAX_VALUE;
+		for (int i = 0; i < support.size; i++) {
+			Point3D_F64 p = support.data[i];
+			double x = ax.x*p.x + ax.y*p.y + ax.z*p.z;
+			double y = ay.x*p.x + ay.y*p.y + ay.z*p.z;
+			double z = az.x*p.x + az.y*p.y + az.z*p.z;
+			x0 = Math.min(x0, x);
+			x1 = Math.max(x1, x);
+			y0 = Math.min(y0, y);
+			y1 = Math.max(y1, y);
+			z0 = Math.min(z0, z);
+			z1 = Math.max(z1, z);
+		}
+
+		if (!isBetter(x1 - x0, y1 - y0, z1 - z0))
+			return;
+
+		setBox(ax, ay, az, (x0 + x1)/2.0, (y0 + y1)/2.0, (z0 + z1)/2.0, output);
+		output.lengthX = x1 - x0;
+		output.lengthY = y1 - y0;
+		output.lengthZ = z1 - z0;
+	}
+
+	/**
+	 * Fits a box with one axis along the normal. The other two axes are found by projecting the points onto
+	 * the plane and finding the minimum area rectangle.
+	 */
+	void fitToNormal( Vector3D_F64 n, BoxOriented3D_F64 output ) {
+		// Two vectors that span the plane with u x v = n
+		if (Math.abs(n.x) <= Math.abs(n.y) && Math.abs(n.x) <= Math.abs(n.z))
+			u.setTo(0, n.z, -n.y);
+		else if (Math.abs(n.y) <= Math.abs(n.z))
+			u.setTo(-n.z, 0, n.x);
+		else
+			u.setTo(n.y, -n.x, 0);
+		u.normalize();
+		v.crossSetTo(n, u);
+
+		double z0 = Double.MAX_VALUE, z1 = -Double.MAX_VALUE;
+		projected.resize(support.size);
+		for (int i = 0; i < support.size; i++) {
+			Point3D_F64 p = support.data[i];
+			projected.data[i].setTo(u.x*p.x + u.y*p.y + u.z*p.z, v.x*p.x + v.y*p.y + v.z*p.z);
+			double z = n.x*p.x + n.y*p.y + n.z*p.z;
+			z0 = Math.min(z0, z);
+			z1 = Math.max(z1, z);
+		}
+
+		hull2D.process(projected, polygon);
+		if (!calipers.minimumAreaRectangle(polygon, rectangle))
+			return;
+
+		// Sides of the rectangle. The hull is counter-clockwise so (ex, ey) is right handed
+		double ex = rectangle.b.x - rectangle.a.x, ey = rectangle.b.y - rectangle.a.y;
+		double lengthX = Math.sqrt(ex*ex + ey*ey);
+		double lengthY = rectangle.a.distance(rectangle.d);
+		if (!isBetter(lengthX, lengthY, z1 - z0))
+			return;
+
+		if (lengthX == 0.0) {
+			ex = 1.0;
+			ey = 0.0;
+		} else {
+			ex /= lengthX;
+			ey /= lengthX;
+		}
+		boxX.setTo(u.x*ex + v.x*ey, u.y*ex + v.y*ey, u.z*ex + v.z*ey);
+		boxY.setTo(-u.x*ey + v.x*ex, -u.y*ey + v.y*ex, -u.z*ey + v.z*ex);
+
+		// rectangle's center in the box's frame
+		double cx = (rectangle.a.x + rectangle.c.x)/2.0, cy = (rectangle.a.y + rectangle.c.y)/2.0;
+		setBox(boxX, boxY, n, ex*cx + ey*cy, -ey*cx + ex*cy, (z0 + z1)/2.0, output);
+		output.lengthX = lengthX;
+		output.lengthY = lengthY;
+		output.lengthZ = z1 - z0;
+	}
+
+	/**
+	 * Checks to see if a box with the specified side lengths is better than the best box so far, and if so it
+	 * becomes the new best. Boxes are compared by volume. Planar points produce boxes with zero volume, up to
+	 * numerical noise, so volumes which are within tolerance of each other are compared by surface area.
+	 */
+	boolean isBetter( double lengthX, double lengthY, double lengthZ ) {
+		double volume = lengthX*lengthY*lengthZ;
+		double area = 2.0*(lengthX*lengthY + lengthX*lengthZ + lengthY*lengthZ);
+		double tol = 1000.0*GrlConstants.EPS*area*(lengthX + lengthY + lengthZ);
+
+		if (volume > bestVolume + tol)
+			return false;
+		if (volume >= bestVolume - tol && area >= bestArea)
+			return false;
+
+		bestVolume = volume;
+		bestArea = area;
+		return true;
+	}
+
+	/**
+	 * Sets the box's pose given its axes and the center's coordinate along each axis
+	 */
+	static void setBox( Vector3D_F64 ax, Vector3D_F64 ay, Vector3D_F64 az,
+						double cx, double cy, double cz, BoxOriented3D_F64 output ) {
+		DMatrixRMaj R = output.pose.R;
+		//@formatter:off
+		R.data[0] = ax.x; R.data[1] = ay.x; R.data[2] = az.x;
+		R.data[3] = ax.y; R.data[4] = ay.y; R.data[5] = az.y;
+		R.data[6] = ax.z; R.data[7] = ay.z; R.data[8] = az.z;
+		//@formatter:on
+		output.pose.T.setTo(
+				ax.x*cx + ay.x*cy + az.x*cz,
+				ax.y*cx + ay.y*cy + az.y*cz,
+				ax.z*cx + ay.z*cy + az.z*cz);
+	}
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.polygon;
+
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import georegression.struct.shapes.Quadrilateral_F64;
+import lombok.Getter;
+import org.ddogleg.struct.DogArray_I32;
+
+/**
+ * <p>
+ * Rotating calipers [1] algorithms for convex polygons, such as the output of {@link FitConvexHull_F64}. A pair of
+ * parallel lines is rotated around the polygon while tracking the vertexes they touch. Since the vertexes only
+ * move forward, each algorithm is O(n) for a polygon with n vertexes.
+ * </p>
+ *
+ * <ul>
+ *     <li>Minimum area and minimum perimeter bounding rectangles. One side is always flush with an edge.</li>
+ *     <li>Diameter, the largest distance between two vertexes</li>
+ *     <li>Width, the smallest distance between two parallel lines which enclose the polygon</li>
+ *     <li>Antipodal pairs, vertexes which can be touched by two parallel lines at the same time</li>
+ * </ul>
+ *
+ * <p>
+ * Input polygons must be convex and should not have repeated or collinear vertexes. They can be clockwise or
+ * counter-clockwise. Nothing is declared after the first call.
+ * </p>
+ *
+ * <p>[1] Toussaint, Godfried T. "Solving geometric problems with the rotating calipers." Proc. IEEE Melecon (1983)</p>
+ *
+ * @author Peter Abeles
+ */
+public class RotatingCalipers_F64 {
+	/** Index of the two vertexes which are farthest apart. Found by {@link #diameter} */
+	@Getter int diameterA, diameterB;
+
+	/** Index of the first vertex in the edge and the vertex which define the width. Found by {@link #width} */
+	@Getter int widthEdge, widthVertex;
+
+	// storage for antipodal pairs
+	final DogArray_I32 work = new DogArray_I32();
+
+	/**
+	 * Finds the rectangle with the smallest area that contains the polygon
+	 *
+	 * @param polygon (Input) Convex polygon
+	 * @param output (Output) The rectangle. Same orientation as the input polygon.
+	 * @return true if successful or false if the polygon is empty
+	 */
+	public boolean minimumAreaRectangle( Polygon2D_F64 polygon, Quadrilateral_F64 output ) {
+		return rectangle(polygon, true, output);
+	}
+
+	/**
+	 * Finds the rectangle with the smallest perimeter that contains the polygon
+	 *
+	 * @param polygon (Input) Convex polygon
+	 * @param output (Output) The rectangle. Same orientation as the input polygon.
+	 * @return true if successful or false if the polygon is empty
+	 */
+	public boolean minimumPerimeterRectangle( Polygon2D_F64 polygon, Quadrilateral_F64 output ) {
+		return rectangle(polygon, false, output);
+	}
+
+	boolean rectangle( Polygon2D_F64 polygon, boolean minimizeArea, Quadrilateral_F64 output ) {
+		final int N = polygon.size();
+		if (N == 0)
+			return false;
+		Point2D_F64[] p = polygon.vertexes.data;
+		if (N == 1) {
+			output.a.setTo(p[0]);
+			output.b.setTo(p[0]);
+			output.c.setTo(p[0]);
+			output.d.setTo(p[0]);
+			return true;
+		}
+
+		// v = sign*(-u.y, u.x) points inside the polygon
+		double sign = orientation(polygon);
+
+		double bestScore = Double.MAX_VALUE;
+		double bestOx = p[0].x, bestOy = p[0].y, bestUx = 1, bestUy = 0;
+		double bestMinU = 0, bestMaxU = 0, bestHeight = 0;
+
+		// vertexes with the largest projection along u, along v, and the smallest along u
+		int right = -1, top = -1, left = -1;
+		for (int i = 0; i < N; i++) {
+			Point2D_F64 p0 = p[i];
+			Point2D_F64 p1 = p[(i + 1)%N];
+			double ux = p1.x - p0.x, uy = p1.y - p0.y;
+			double length = Math.sqrt(ux*ux + uy*uy);
+			if (length == 0.0)
+				continue;
+			ux /= length;
+			uy /= length;
+			double vx = -sign*uy, vy = sign*ux;
+
+			if (right == -1)
+				right = (i + 1)%N;
+			right = advance(p, N, right, ux, uy, 1.0);
+			if (top == -1)
+				top = right;
+			top = advance(p, N, top, vx, vy, 1.0);
+			if (left == -1)
+				left = top;
+			left = advance(p, N, left, ux, uy, -1.0);
+
+			double maxU = (p[right].x - p0.x)*ux + (p[right].y - p0.y)*uy;
+			double minU = (p[left].x - p0.x)*ux + (p[left].y - p0.y)*uy;
+			double height = (p[top].x - p0.x)*vx + (p[top].y - p0.y)*vy;
+			double width = maxU - minU;
+
+			double score = minimizeArea ? width*height : width + height;
+			if (score < bestScore) {
+				bestScore = score;
+				bestOx = p0.x;
+				bestOy = p0.y;
+				bestUx = ux;
+				bestUy = uy;
+				bestMinU = minU;
+				bestMaxU = maxU;
+				bestHeight = height;
+			}
+		}
+
+		double vx = -sign*bestUy, vy = sign*bestUx;
+		output.a.setTo(bestOx + bestUx*bestMinU, bestOy + bestUy*bestMinU);
+		output.b.setTo(bestOx + bestUx*bestMaxU, bestOy + bestUy*bestMaxU);
+		output.c.setTo(output.b.x + vx*bestHeight, output.b.y + vy*bestHeight);
+		output.d.setTo(output.a.x + vx*bestHeight, output.a.y + vy*bestHeight);
+		return true;
+	}
+
+	/**
+	 * Moves forward until the vertex with the largest projection along the direction is found
+	 */
+	static int advance( Point2D_F64[] p, int N, int index, double dx, double dy, double sign ) {
+		while (true) {
+			int next = index + 1 == N ? 0 : index + 1;
+			if (sign*((p[next].x - p[index].x)*dx + (p[next].y - p[index].y)*dy) > 0.0)
+				index = next;
+			else
+				return index;
+		}
+	}
+
+	/**
+	 * Computes the width of the polygon. The width is found when one of the lines is flush with an edge.
+	 *
+	 * @param polygon (Input) Convex polygon
+	 * @return The width
+	 */
+	public double width( Polygon2D_F64 polygon ) {
+		final int N = polygon.size();
+		widthEdge = widthVertex = 0;
+		if (N < 3)
+			return 0.0;
+		Point2D_F64[] p = polygon.vertexes.data;
+		double sign = orientation(polygon);
+
+		double best = Double.MAX_VALUE;
+		int top = -1;
+		for (int i = 0; i < N; i++) {
+			Point2D_F64 p0 = p[i];
+			Point2D_F64 p1 = p[(i + 1)%N];
+			double ux = p1.x - p0.x, uy = p1.y - p0.y;
+			double length = Math.sqrt(ux*ux + uy*uy);
+			if (length == 0.0)
+				continue;
+			double vx = -sign*uy/length, vy = sign*ux/length;
+
+			if (top == -1)
+				top = (i + 1)%N;
+			top = advance(p, N, top, vx, vy, 1.0);
+
+			double height = (p[top].x - p0.x)*vx + (p[top].y - p0.y)*vy;
+			if (height < best) {
+				best = height;
+				widthEdge = i;
+				widthVertex = top;
+			}
+		}
+		return best == Double.MAX_VALUE ? 0.0 : best;
+	}
+
+	/**
+	 * Computes the diameter of the polygon, which is the largest distance between two vertexes. Only antipodal
+	 * pairs need to be considered.
+	 *
+	 * @param polygon (Input) Convex polygon
+	 * @return The diameter
+	 */
+	public double diameter( Polygon2D_F64 polygon ) {
+		diameterA = diameterB = 0;
+		antipodalPairs(polygon, work);
+
+		Point2D_F64[] p = polygon.vertexes.data;
+		double best = 0.0;
+		for (int i = 0; i < work.size; i += 2) {
+			double d = p[work.data[i]].distance2(p[work.data[i + 1]]);
+			if (d > best) {
+				best = d;
+				diameterA = work.data[i];
+				diameterB = work.data[i + 1];
+			}
+		}
+		return Math.sqrt(best);
+	}
+
+	/**
+	 * Finds all antipodal pairs of vertexes using the algorithm from Preparata and Shamos. Vertexes are antipodal
+	 * if there are two parallel lines that touch them and contain the polygon. Each pair is found once.
+	 *
+	 * @param polygon (Input) Convex polygon
+	 * @param pairs (Output) Index of vertexes in each pair, packed as (a0, b0, a1, b1, ...)
+	 */
+	public void antipodalPairs( Polygon2D_F64 polygon, DogArray_I32 pairs ) {
+		pairs.reset();
+		final int N = polygon.size();
+		if (N < 2)
+			return;
+		if (N == 2) {
+			pairs.add(0);
+			pairs.add(1);
+			return;
+		}
+		Point2D_F64[] p = polygon.vertexes.data;
+
+		// Find the vertex farthest from the edge (N-1, 0)
+		int a = N - 1;
+		int b = 0;
+		while (area(p, a, next(a, N), next(b, N)) > area(p, a, next(a, N), b)) {
+			b = next(b, N);
+		}
+		final int b0 = b;
+
+		// Safety check to avoid an infinite loop if the polygon isn't convex
+		int remaining = 3*N;
+		while (b != 0 && remaining-- > 0) {
+			a = next(a, N);
+			pairs.add(a);
+			pairs.add(b);
+
+			while (area(p, a, next(a, N), next(b, N)) > area(p, a, next(a, N), b)) {
+				b = next(b, N);
+				if (a == b0 && b == 0)
+					return;
+				pairs.add(a);
+				pairs.add(b);
+			}
+
+			// parallel edges
+			if (area(p, a, next(a, N), next(b, N)) == area(p, a, next(a, N), b)) {
+				if (a != b0 || b != N - 1) {
+					pairs.add(a);
+					pairs.add(next(b, N));
+				} else {
+					pairs.add(next(a, N));
+					pairs.add(b);
+				}
+			}
+		}
+	}
+
+	private static int next( int i, int N ) {
+		return i + 1 == N ? 0 : i + 1;
+	}
+
+	/** Twice the area of the triangle. Proportional to the distance of k from the line through i and j */
+	private static double area( Point2D_F64[] p, int i, int j, int k ) {
+		return Math.abs((p[j].x - p[i].x)*(p[k].y - p[i].y) - (p[j].y - p[i].y)*(p[k].x - p[i].x));
+	}
+
+	/**
+	 * Returns 1 if counter-clockwise and -1 if clockwise
+	 */
+	static double orientation( Polygon2D_F64 polygon ) {
+		final int N = polygon.size();
+		Point2D_F64[] p = polygon.vertexes.data;
+		double sum = 0.0;
+		for (int i = 0, j = N - 1; i < N; j = i, i++) {
+			sum += p[j].x*p[i].y - p[i].x*p[j].y;
+		}
+		return sum >= 0.0 ? 1.0 : -1.0;
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.se;
+
+import georegression.struct.point.AssociatedPair2D_F64;
+import georegression.struct.se.Se2_F64;
+import org.ddogleg.fitting.modelset.ModelGenerator;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Estimates a {@link Se2_F64} from a set of {@link AssociatedPair2D_F64 associated pairs}. Intended for use inside of
+ * robust model fitting, e.g. RANSAC. Only two pairs are required.
+ * </p>
+ *
+ * <p>
+ * In 2D the least squares rotation has a closed form solution and no SVD is needed. After subtracting the mean from
+ * both sets of points, cos(&theta;) and sin(&theta;) are proportional to the sum of dot products and the sum of
+ * cross products between the source and destination points. This produces the same solution as
+ * {@link MotionSe2PointSVD_F64}. With two pairs it rotates the vector between the source points onto the vector
+ * between the destination points.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class GenerateSe2FromPairs_F64 implements ModelGenerator<Se2_F64, AssociatedPair2D_F64> {
+	@Override
+	public boolean generate( List<AssociatedPair2D_F64> dataSet, Se2_F64 output ) {
+		final int N = dataSet.size();
+		if (N == 2) {
+			AssociatedPair2D_F64 a = dataSet.get(0), b = dataSet.get(1);
+			return generate(a.src.x, a.src.y, b.src.x, b.src.y, a.dst.x, a.dst.y, b.dst.x, b.dst.y, output);
+		}
+
+		double msx = 0, msy = 0, mdx = 0, mdy = 0;
+		for (int i = 0; i < N; i++) {
+			AssociatedPair2D_F64 p = dataSet.get(i);
+			msx += p.src.x;
+			msy += p.src.y;
+			mdx += p.dst.x;
+			mdy += p.dst.y;
+		}
+		msx /= N;
+		msy /= N;
+		mdx /= N;
+		mdy /= N;
+
+		double sumDot = 0, sumCross = 0;
+		for (int i = 0; i < N; i++) {
+			AssociatedPair2D_F64 p = dataSet.get(i);
+			double sx = p.src.x - msx, sy = p.src.y - msy;
+			double dx = p.dst.x - mdx, dy = p.dst.y - mdy;
+			sumDot += sx*dx + sy*dy;
+			sumCross += sx*dy - sy*dx;
+		}
+
+		return setMotion(msx, msy, mdx, mdy, sumDot, sumCross, output);
+	}
+
+	/**
+	 * Computes the motion from two pairs of points packed in arrays
+	 *
+	 * @param src (Input) Source points packed as (x,y)
+	 * @param dst (Input) Destination points packed as (x,y)
+	 * @param i0 (Input) Index of the first pair
+	 * @param i1 (Input) Index of the second pair
+	 * @param output (Output) The found motion
+	 * @return true if successful or false if the points are degenerate
+	 */
+	public boolean generate( double[] src, double[] dst, int i0, int i1, Se2_F64 output ) {
+		i0 *= 2;
+		i1 *= 2;
+		return generate(src[i0], src[i0 + 1], src[i1], src[i1 + 1], dst[i0], dst[i0 + 1], dst[i1], dst[i1 + 1], output);
+	}
+
+	boolean generate( double sx0, double sy0, double sx1, double sy1,
+					  double dx0, double dy0, double dx1, double dy1, Se2_F64 output ) {
+		double sx = sx1 - sx0, sy = sy1 - sy0;
+		double dx = dx1 - dx0, dy = dy1 - dy0;
+		return setMotion((sx0 + sx1)/2.0, (sy0 + sy1)/2.0, (dx0 + dx1)/2.0, (dy0 + dy1)/2.0,
+				sx*dx + sy*dy, sx*dy - sy*dx, output);
+	}
+
+	/**
+	 * Computes the motion from the mean of each set of points and the cosine and sine of the rotation, up to a scale
+	 * factor
+	 */
+	static boolean setMotion( double msx, double msy, double mdx, double mdy, double cos, double sin,
+							  Se2_F64 output ) {
+		double norm = Math.sqrt(cos*cos + sin*sin);
+		if (norm == 0.0)
+			return false;
+		double c = cos/norm, s = sin/norm;
+
+		// T = mean_dst - R*mean_src
+		output.setTo(mdx - (c*msx - s*msy), mdy - (s*msx + c*msy), c, s);
+		return true;
+	}
+
+	@Override
+	public int getMinimumPoints() {
+		return 2;
+	}
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.se;
+
+import georegression.fitting.MotionTransformPointAccumulator;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.se.Se2_F64;
+import lombok.Getter;
+
+/**
+ * <p>
+ * Streaming version of {@link MotionSe2PointSVD_F64}, where corresponding points are added one at a time.
+ * Weighted means and the cross-covariance are updated with each new pair using West's numerically stable
+ * update [1], so points far from the origin don't lose precision. The rotation is then found in closed form
+ * from the 2x2 cross-covariance matrix S, tan(theta) = (S<sub>12</sub>-S<sub>21</sub>)/(S<sub>11</sub>+S<sub>22</sub>).
+ * </p>
+ *
+ * <p>[1] West, D. H. D. "Updating mean and variance estimates: An improved method."
+ * Communications of the ACM (1979)</p>
+ *
+ * @author Peter Abeles
+ */
+public class MotionSe2PointAccumulator_F64 implements MotionTransformPointAccumulator<Se2_F64, Point2D_F64> {
+
+	/** Number of pairs which have been added */
+	@Getter int count;
+
+	/** Sum of weights */
+	double totalWeight;
+
+	// weighted mean of src and dst points
+	double msx, msy, mdx, mdy;
+
+	// weighted cross-covariance sum w*(s-ms)*(d-md)^T
+	double s11, s12, s21, s22;
+
+	@Override
+	public void reset() {
+		count = 0;
+		totalWeight = 0;
+		msx = msy = mdx = mdy = 0;
+		s11 = s12 = s21 = s22 = 0;
+	}
+
+	@Override
+	public void add( Point2D_F64 src, Point2D_F64 dst, /**/double weight ) {
+		add(src.x, src.y, dst.x, dst.y, (double)weight);
+	}
+
+	/**
+	 * Adds a pair of corresponding points
+	 *
+	 * @param sx Source point x
+	 * @param sy Source point y
+	 * @param dx Destination point x
+	 * @param dy Destination point y
+	 * @param weight Weight of the pair. Must be non-negative.
+	 */
+	public void add( double sx, double sy, double dx, double dy, double weight ) {
+		count++;
+		double sum = totalWeight + weight;
+		if (sum <= 0.0)
+			return;
+		totalWeight = sum;
+
+		double r = weight/sum;
+		double esx = sx - msx;
+		double esy = sy - msy;
+		msx += r*esx;
+		msy += r*esy;
+		mdx += r*(dx - mdx);
+		mdy += r*(dy - mdy);
+
+		// uses the src mean before the update and the dst mean after
+		double edx = dx - mdx;
+		double edy = dy - mdy;
+		s11 += weight*esx*edx;
+		s12 += weight*esx*edy;
+		s21 += weight*esy*edx;
+		s22 += weight*esy*edy;
+	}
+
+	/**
+	 * Adds all the pairs from another accumulator. Useful when pairs are found in parallel.
+	 */
+	public void add( MotionSe2PointAccumulator_F64 src ) {
+		count += src.count;
+		double sum = totalWeight + src.totalWeight;
+		if (sum <= 0.0)
+			return;
+
+		double r = src.totalWeight/sum;
+		double f = totalWeight*r;
+		double esx = src.msx - msx, esy = src.msy - msy;
+		double edx = src.mdx - mdx, edy = src.mdy - mdy;
+
+		s11 += src.s11 + f*esx*edx;
+		s12 += src.s12 + f*esx*edy;
+		s21 += src.s21 + f*esy*edx;
+		s22 += src.s22 + f*esy*edy;
+
+		msx += r*esx;
+		msy += r*esy;
+		mdx += r*edx;
+		mdy += r*edy;
+		totalWeight = sum;
+	}
+
+	@Override
+	public boolean compute( Se2_F64 srcToDst ) {
+		double a = s11 + s22;
+		double b = s12 - s21;
+		double r = Math.sqrt(a*a + b*b);
+		if (r == 0.0 || Double.isNaN(r))
+			return false;
+
+		double c = a/r;
+		double s = b/r;
+
+		// T = mean_dst - R*mean_src
+		srcToDst.setTo(mdx - (c*msx - s*msy), mdy - (s*msx + c*msy), c, s);
+		return true;
+	}
+
+	@Override
+	public /**/double getTotalWeight() {
+		return totalWeight;
+	}
+}
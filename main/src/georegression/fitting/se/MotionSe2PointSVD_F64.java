@@ -18,18 +18,22 @@
 
 package georegression.fitting.se;
 
-import georegression.fitting.MotionTransformPoint;
+import georegression.fitting.MotionTransformPointWeighted;
 import georegression.geometry.GeometryMath_F64;
-import georegression.geometry.UtilPoint2D_F64;
 import georegression.struct.point.Point2D_F64;
 import georegression.struct.se.Se2_F64;
+import org.ddogleg.struct.DogArray_F64;
 import org.ejml.data.DMatrixRMaj;
 import org.ejml.dense.row.CommonOps_DDRM;
 import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
 import org.ejml.interfaces.decomposition.SingularValueDecomposition;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
 
+//CUSTOM ignore DogArray_F64
+//CUSTOM ignore org.ddogleg.struct.DogArray_F64;
+
 /**
  * <p>
  * Finds the rigid body motion which minimizes the different between the two sets of associated points in 2D. The
@@ -39,7 +43,7 @@ import java.util.List;
  * The mean square error function that is minimized is:<br>
  * f(p) = (1/N) sum( i=1:N , ||x_i - R(theta)*p_i + T||<sup>2</sup> )<br>
  * where theta is the angle of rotation and T is the translation, x is the set of 'to' points
- * and p is the set of 'from' points.
+ * and p is the set of 'from' points. If weights are provided then each term in the sum is scaled by its weight.
  * </p>
  * <p>
  * Based upon the sketch of Arun et al. 1987 provided in: D.W. Eggert, A. Loruso, R.B. Fisher, "Estimating 3-D Rigid Body Transformation:
@@ -48,7 +52,7 @@ import java.util.List;
  *
  * @author Peter Abeles
  */
-public class MotionSe2PointSVD_F64 implements MotionTransformPoint<Se2_F64, Point2D_F64> {
+public class MotionSe2PointSVD_F64 implements MotionTransformPointWeighted<Se2_F64, Point2D_F64> {
 
 	Se2_F64 motion = new Se2_F64();
 
@@ -68,39 +72,58 @@ public class MotionSe2PointSVD_F64 implements MotionTransformPoint<Se2_F64, Poin
 
 	@Override
 	public boolean process( List<Point2D_F64> srcPts, List<Point2D_F64> dstPts) {
+		return process(srcPts, dstPts, null);
+	}
+
+	@Override
+	public boolean process( List<Point2D_F64> srcPts, List<Point2D_F64> dstPts, @Nullable DogArray_F64 weights ) {
 		if( srcPts.size() != dstPts.size() )
 			throw new IllegalArgumentException( "There must be a 1 to 1 correspondence between the two sets of points" );
-
-		// find the mean of both sets of points
-		UtilPoint2D_F64.mean(srcPts, meanFrom );
-		UtilPoint2D_F64.mean(dstPts, meanTo );
+		if( weights != null && weights.size != srcPts.size() )
+			throw new IllegalArgumentException( "There must be one weight for each pair of points" );
 
 		final int N = srcPts.size();
 
+		// find the weighted mean of both sets of points
+		double totalWeight = 0;
+		meanFrom.setTo(0, 0);
+		meanTo.setTo(0, 0);
+		for( int i = 0; i < N; i++ ) {
+			double w = weights == null ? 1.0 : (double)weights.data[i];
+			Point2D_F64 f = srcPts.get( i );
+			Point2D_F64 t = dstPts.get( i );
+			meanFrom.x += w*f.x;
+			meanFrom.y += w*f.y;
+			meanTo.x += w*t.x;
+			meanTo.y += w*t.y;
+			totalWeight += w;
+		}
+		if( totalWeight <= 0.0 )
+			return false;
+		meanFrom.x /= totalWeight;
+		meanFrom.y /= totalWeight;
+		meanTo.x /= totalWeight;
+		meanTo.y /= totalWeight;
+
 		// compute the cross-covariance matrix Sigma of the two sets of points
-		// Sigma = (1/N)*sum(i=1:N,[p*x^T]) + mu_p*mu_x^T
+		// Sigma = sum(i=1:N,w*[(p-mu_p)*(x-mu_x)^T])
 		// for performance reasons usage of matrices is postponed
 		double s11 = 0, s12 = 0;
 		double s21 = 0, s22 = 0;
 
-		// mu*mu^2
-		double m11 = meanFrom.x * meanTo.x, m12 = meanFrom.x * meanTo.y;
-		double m21 = meanFrom.y * meanTo.x, m22 = meanFrom.y * meanTo.y;
-
 		for( int i = 0; i < N; i++ ) {
+			double w = weights == null ? 1.0 : (double)weights.data[i];
 			Point2D_F64 f = srcPts.get( i );
 			Point2D_F64 t = dstPts.get( i );
 
-			s11 += f.x * t.x;
-			s12 += f.x * t.y;
-			s21 += f.y * t.x;
-			s22 += f.y * t.y;
-		}
+			double fx = w*(f.x - meanFrom.x), fy = w*(f.y - meanFrom.y);
+			double tx = t.x - meanTo.x, ty = t.y - meanTo.y;
 
-		s11 = s11 / N - m11;
-		s12 = s12 / N - m12;
-		s21 = s21 / N - m21;
-		s22 = s22 / N - m22;
+			s11 += fx * tx;
+			s12 += fx * ty;
+			s21 += fy * tx;
+			s22 += fy * ty;
+		}
 
 		Sigma.data[0] = s11;Sigma.data[1] = s12;
 		Sigma.data[2] = s21;Sigma.data[3] = s22;
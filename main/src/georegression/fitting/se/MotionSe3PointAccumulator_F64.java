@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.se;
+
+import georegression.fitting.MotionTransformPointAccumulator;
+import georegression.fitting.so.CrossCovarianceToQuaternion_F64;
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import lombok.Getter;
+import org.ejml.data.DMatrix3x3;
+import org.ejml.data.DMatrixRMaj;
+
+/**
+ * <p>
+ * Streaming version of {@link MotionSe3PointQuaternion_F64}, where corresponding points are added one at a time.
+ * Weighted means and the cross-covariance are updated with each new pair using West's numerically stable
+ * update [1], so points far from the origin don't lose precision. The rotation is found from the cross-covariance
+ * using {@link CrossCovarianceToQuaternion_F64}.
+ * </p>
+ *
+ * <p>[1] West, D. H. D. "Updating mean and variance estimates: An improved method."
+ * Communications of the ACM (1979)</p>
+ *
+ * @author Peter Abeles
+ */
+public class MotionSe3PointAccumulator_F64 implements MotionTransformPointAccumulator<Se3_F64, Point3D_F64> {
+
+	/** Number of pairs which have been added */
+	@Getter int count;
+
+	/** Sum of weights */
+	double totalWeight;
+
+	// weighted mean of src and dst points
+	double msx, msy, msz, mdx, mdy, mdz;
+
+	// weighted cross-covariance sum w*(s-ms)*(d-md)^T
+	final DMatrix3x3 S = new DMatrix3x3();
+
+	final CrossCovarianceToQuaternion_F64 solver = new CrossCovarianceToQuaternion_F64();
+
+	@Override
+	public void reset() {
+		count = 0;
+		totalWeight = 0;
+		msx = msy = msz = mdx = mdy = mdz = 0;
+		S.zero();
+	}
+
+	@Override
+	public void add( Point3D_F64 src, Point3D_F64 dst, /**/double weight ) {
+		add(src.x, src.y, src.z, dst.x, dst.y, dst.z, (double)weight);
+	}
+
+	/**
+	 * Adds a pair of corresponding points
+	 *
+	 * @param sx Source point x
+	 * @param sy Source point y
+	 * @param sz Source point z
+	 * @param dx Destination point x
+	 * @param dy Destination point y
+	 * @param dz Destination point z
+	 * @param weight Weight of the pair. Must be non-negative.
+	 */
+	public void add( double sx, double sy, double sz, double dx, double dy, double dz, double weight ) {
+		count++;
+		double sum = totalWeight + weight;
+		if (sum <= 0.0)
+			return;
+		totalWeight = sum;
+
+		double r = weight/sum;
+		double esx = sx - msx;
+		double esy = sy - msy;
+		double esz = sz - msz;
+		msx += r*esx;
+		msy += r*esy;
+		msz += r*esz;
+		mdx += r*(dx - mdx);
+		mdy += r*(dy - mdy);
+		mdz += r*(dz - mdz);
+
+		// uses the src mean before the update and the dst mean after
+		addOuter(weight*esx, weight*esy, weight*esz, dx - mdx, dy - mdy, dz - mdz);
+	}
+
+	/**
+	 * Adds all the pairs from another accumulator. Useful when pairs are found in parallel.
+	 */
+	public void add( MotionSe3PointAccumulator_F64 src ) {
+		count += src.count;
+		double sum = totalWeight + src.totalWeight;
+		if (sum <= 0.0)
+			return;
+
+		double r = src.totalWeight/sum;
+		double f = totalWeight*r;
+		double esx = src.msx - msx, esy = src.msy - msy, esz = src.msz - msz;
+		double edx = src.mdx - mdx, edy = src.mdy - mdy, edz = src.mdz - mdz;
+
+		//@formatter:off
+		S.a11 += src.S.a11; S.a12 += src.S.a12; S.a13 += src.S.a13;
+		S.a21 += src.S.a21; S.a22 += src.S.a22; S.a23 += src.S.a23;
+		S.a31 += src.S.a31; S.a32 += src.S.a32; S.a33 += src.S.a33;
+		//@formatter:on
+		addOuter(f*esx, f*esy, f*esz, edx, edy, edz);
+
+		msx += r*esx;
+		msy += r*esy;
+		msz += r*esz;
+		mdx += r*edx;
+		mdy += r*edy;
+		mdz += r*edz;
+		totalWeight = sum;
+	}
+
+	/** S += a*b<sup>T</sup> */
+	private void addOuter( double ax, double ay, double az, double bx, double by, double bz ) {
+		//@formatter:off
+		S.a11 += ax*bx; S.a12 += ax*by; S.a13 += ax*bz;
+		S.a21 += ay*bx; S.a22 += ay*by; S.a23 += ay*bz;
+		S.a31 += az*bx; S.a32 += az*by; S.a33 += az*bz;
+		//@formatter:on
+	}
+
+	@Override
+	public boolean compute( Se3_F64 srcToDst ) {
+		if (totalWeight <= 0.0)
+			return false;
+		if (!solver.process(S))
+			return false;
+
+		DMatrixRMaj R = srcToDst.R;
+		ConvertRotation3D_F64.quaternionToMatrix(solver.getQuaternion(), R);
+
+		// T = mean_dst - R*mean_src
+		srcToDst.T.x = mdx - (R.data[0]*msx + R.data[1]*msy + R.data[2]*msz);
+		srcToDst.T.y = mdy - (R.data[3]*msx + R.data[4]*msy + R.data[5]*msz);
+		srcToDst.T.z = mdz - (R.data[6]*msx + R.data[7]*msy + R.data[8]*msz);
+		return true;
+	}
+
+	@Override
+	public /**/double getTotalWeight() {
+		return totalWeight;
+	}
+}
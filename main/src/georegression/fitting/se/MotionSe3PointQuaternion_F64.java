@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.se;
+
+import georegression.fitting.MotionTransformPointWeighted;
+import georegression.fitting.so.CrossCovarianceToQuaternion_F64;
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import org.ddogleg.struct.DogArray_F64;
+import org.ejml.data.DMatrix3x3;
+import org.ejml.data.DMatrixRMaj;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+//CUSTOM ignore DogArray_F64
+//CUSTOM ignore org.ddogleg.struct.DogArray_F64;
+
+/**
+ * <p>
+ * Finds the rigid body motion which minimizes the difference between two sets of associated points in 3D using
+ * Horn's closed form quaternion method. This produces the same solution as {@link MotionSe3PointSVD_F64} but
+ * avoids computing a general SVD, see {@link CrossCovarianceToQuaternion_F64}. Points can optionally be weighted.
+ * </p>
+ *
+ * <p>
+ * The weighted square error function that is minimized is:<br>
+ * f(R,T) = sum( i=1:N , w<sub>i</sub>*||d<sub>i</sub> - R*s<sub>i</sub> - T||<sup>2</sup> )
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class MotionSe3PointQuaternion_F64 implements MotionTransformPointWeighted<Se3_F64, Point3D_F64> {
+
+	// rigid body motion
+	private final Se3_F64 motion = new Se3_F64();
+
+	final CrossCovarianceToQuaternion_F64 solver = new CrossCovarianceToQuaternion_F64();
+
+	// cross-covariance between the two sets of points
+	final DMatrix3x3 S = new DMatrix3x3();
+
+	@Override
+	public Se3_F64 getTransformSrcToDst() {
+		return motion;
+	}
+
+	@Override
+	public boolean process( List<Point3D_F64> srcPts, List<Point3D_F64> dstPts ) {
+		return process(srcPts, dstPts, null);
+	}
+
+	@Override
+	public boolean process( List<Point3D_F64> srcPts, List<Point3D_F64> dstPts,
+							@Nullable DogArray_F64 weights ) {
+		if (srcPts.size() != dstPts.size())
+			throw new IllegalArgumentException("There must be a 1 to 1 correspondence between the two sets of points");
+		if (weights != null && weights.size != srcPts.size())
+			throw new IllegalArgumentException("There must be one weight for each pair of points");
+
+		final int N = srcPts.size();
+
+		// find the weighted mean of both sets of points
+		double totalWeight = 0;
+		double msx = 0, msy = 0, msz = 0;
+		double mdx = 0, mdy = 0, mdz = 0;
+		for (int i = 0; i < N; i++) {
+			double w = weights == null ? 1.0 : (double)weights.data[i];
+			Point3D_F64 s = srcPts.get(i);
+			Point3D_F64 d = dstPts.get(i);
+			msx += w*s.x;
+			msy += w*s.y;
+			msz += w*s.z;
+			mdx += w*d.x;
+			mdy += w*d.y;
+			mdz += w*d.z;
+			totalWeight += w;
+		}
+		if (totalWeight <= 0.0)
+			return false;
+		msx /= totalWeight;
+		msy /= totalWeight;
+		msz /= totalWeight;
+		mdx /= totalWeight;
+		mdy /= totalWeight;
+		mdz /= totalWeight;
+
+		// compute the cross-covariance matrix of the two sets of points
+		double s11 = 0, s12 = 0, s13 = 0;
+		double s21 = 0, s22 = 0, s23 = 0;
+		double s31 = 0, s32 = 0, s33 = 0;
+
+		for (int i = 0; i < N; i++) {
+			double w = weights == null ? 1.0 : (double)weights.data[i];
+			Point3D_F64 s = srcPts.get(i);
+			Point3D_F64 d = dstPts.get(i);
+
+			double dsx = w*(s.x - msx);
+			double dsy = w*(s.y - msy);
+			double dsz = w*(s.z - msz);
+
+			double ddx = d.x - mdx;
+			double ddy = d.y - mdy;
+			double ddz = d.z - mdz;
+
+			s11 += dsx*ddx;
+			s12 += dsx*ddy;
+			s13 += dsx*ddz;
+			s21 += dsy*ddx;
+			s22 += dsy*ddy;
+			s23 += dsy*ddz;
+			s31 += dsz*ddx;
+			s32 += dsz*ddy;
+			s33 += dsz*ddz;
+		}
+		S.setTo(s11, s12, s13, s21, s22, s23, s31, s32, s33);
+
+		if (!solver.process(S))
+			return false;
+
+		DMatrixRMaj R = motion.R;
+		ConvertRotation3D_F64.quaternionToMatrix(solver.getQuaternion(), R);
+
+		// T = mean_dst - R*mean_src
+		motion.T.x = mdx - (R.data[0]*msx + R.data[1]*msy + R.data[2]*msz);
+		motion.T.y = mdy - (R.data[3]*msx + R.data[4]*msy + R.data[5]*msz);
+		motion.T.z = mdz - (R.data[6]*msx + R.data[7]*msy + R.data[8]*msz);
+
+		return true;
+	}
+
+	@Override
+	public int getMinimumPoints() {
+		return 3;
+	}
+}
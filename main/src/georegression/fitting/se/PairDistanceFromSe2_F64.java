@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.se;
+
+import georegression.struct.point.AssociatedPair2D_F64;
+import georegression.struct.se.Se2_F64;
+import org.ddogleg.fitting.modelset.DistanceFromModel;
+
+import java.util.List;
+
+/**
+ * Implementation of {@link DistanceFromModel} for {@link Se2_F64} and {@link AssociatedPair2D_F64}. The distance
+ * is the Euclidean distance between the destination point and the transformed source point.
+ *
+ * @author Peter Abeles
+ */
+public class PairDistanceFromSe2_F64 implements DistanceFromModel<Se2_F64, AssociatedPair2D_F64> {
+	double c, s, tx, ty;
+
+	@Override
+	public void setModel( Se2_F64 model ) {
+		c = model.c;
+		s = model.s;
+		tx = model.T.x;
+		ty = model.T.y;
+	}
+
+	@Override
+	public /**/double distance( AssociatedPair2D_F64 pair ) {
+		double dx = c*pair.src.x - s*pair.src.y + tx - pair.dst.x;
+		double dy = s*pair.src.x + c*pair.src.y + ty - pair.dst.y;
+		return Math.sqrt(dx*dx + dy*dy);
+	}
+
+	@Override
+	public void distances( List<AssociatedPair2D_F64> list, /**/double[] errors ) {
+		for (int i = 0; i < list.size(); i++) {
+			errors[i] = distance(list.get(i));
+		}
+	}
+
+	/**
+	 * Computes the distance for pairs of points packed in arrays
+	 *
+	 * @param src (Input) Source points packed as (x,y)
+	 * @param dst (Input) Destination points packed as (x,y)
+	 * @param count (Input) Number of pairs
+	 * @param errors (Output) Distance for each pair
+	 */
+	public void distances( double[] src, double[] dst, int count, double[] errors ) {
+		if (2L*count > src.length || 2L*count > dst.length || count > errors.length)
+			throw new IllegalArgumentException("Array is too small for the requested points");
+		for (int i = 0, idx = 0; i < count; i++, idx += 2) {
+			double x = src[idx], y = src[idx + 1];
+			double dx = c*x - s*y + tx - dst[idx];
+			double dy = s*x + c*y + ty - dst[idx + 1];
+			errors[i] = Math.sqrt(dx*dx + dy*dy);
+		}
+	}
+
+	@Override
+	public Class<AssociatedPair2D_F64> getPointType() {
+		return AssociatedPair2D_F64.class;
+	}
+
+	@Override
+	public Class<Se2_F64> getModelType() {
+		return Se2_F64.class;
+	}
+}
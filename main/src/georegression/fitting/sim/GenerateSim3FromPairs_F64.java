@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.sim;
+
+import georegression.struct.point.AssociatedPair3D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.sim.Sim3_F64;
+import org.ddogleg.fitting.modelset.ModelGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Estimates a {@link Sim3_F64} from a set of {@link AssociatedPair3D_F64 associated pairs} using
+ * {@link MotionSim3PointUmeyama_F64}. Intended for use inside of robust model fitting, e.g. RANSAC.
+ *
+ * @author Peter Abeles
+ */
+public class GenerateSim3FromPairs_F64 implements ModelGenerator<Sim3_F64, AssociatedPair3D_F64> {
+	MotionSim3PointUmeyama_F64 alg = new MotionSim3PointUmeyama_F64();
+
+	// references to the points in each pair
+	List<Point3D_F64> src = new ArrayList<>();
+	List<Point3D_F64> dst = new ArrayList<>();
+
+	@Override
+	public boolean generate( List<AssociatedPair3D_F64> dataSet, Sim3_F64 output ) {
+		src.clear();
+		dst.clear();
+		for (int i = 0; i < dataSet.size(); i++) {
+			AssociatedPair3D_F64 pair = dataSet.get(i);
+			src.add(pair.src);
+			dst.add(pair.dst);
+		}
+
+		if (!alg.process(src, dst))
+			return false;
+
+		output.setTo(alg.getTransformSrcToDst());
+		return true;
+	}
+
+	@Override
+	public int getMinimumPoints() {
+		return alg.getMinimumPoints();
+	}
+}
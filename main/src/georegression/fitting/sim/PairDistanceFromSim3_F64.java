@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.sim;
+
+import georegression.struct.point.AssociatedPair3D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.sim.Sim3_F64;
+import georegression.transform.sim.SimPointOps_F64;
+import org.ddogleg.fitting.modelset.DistanceFromModel;
+
+import java.util.List;
+
+/**
+ * Implementation of {@link DistanceFromModel} for {@link Sim3_F64} and {@link AssociatedPair3D_F64}. The distance
+ * is the Euclidean distance between the destination point and the transformed source point.
+ *
+ * @author Peter Abeles
+ */
+public class PairDistanceFromSim3_F64 implements DistanceFromModel<Sim3_F64, AssociatedPair3D_F64> {
+	Sim3_F64 model = new Sim3_F64();
+
+	// storage for the transformed point
+	Point3D_F64 work = new Point3D_F64();
+
+	@Override
+	public void setModel( Sim3_F64 model ) {
+		this.model.setTo(model);
+	}
+
+	@Override
+	public /**/double distance( AssociatedPair3D_F64 pair ) {
+		SimPointOps_F64.transform(model, pair.src, work);
+		return work.distance(pair.dst);
+	}
+
+	@Override
+	public void distances( List<AssociatedPair3D_F64> list, /**/double[] errors ) {
+		for (int i = 0; i < list.size(); i++) {
+			errors[i] = distance(list.get(i));
+		}
+	}
+
+	@Override
+	public Class<AssociatedPair3D_F64> getPointType() {
+		return AssociatedPair3D_F64.class;
+	}
+
+	@Override
+	public Class<Sim3_F64> getModelType() {
+		return Sim3_F64.class;
+	}
+}
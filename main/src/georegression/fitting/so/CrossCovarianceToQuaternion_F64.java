@@ -0,0 +1,255 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.so;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.so.Quaternion_F64;
+import lombok.Getter;
+import org.ejml.data.DMatrix3x3;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
+import org.ejml.interfaces.decomposition.EigenDecomposition_F64;
+
+/**
+ * <p>
+ * Finds the rotation which best aligns two sets of points from their cross-covariance matrix, using Horn's
+ * closed form quaternion method [1]. The rotation is the eigenvector of a symmetric 4x4 matrix N with the
+ * largest eigenvalue. Instead of a general eigen decomposition the eigenvalue is found by applying Newton's
+ * method to the characteristic polynomial of N, starting from an upper bound, similar to QCP [2]. The eigenvector
+ * is then a column of the adjugate of (N - &lambda;I), which is refined with one step of Rayleigh quotient iteration.
+ * If the largest eigenvalue isn't unique or is very close to the second largest, e.g. the points are
+ * collinear or nearly collinear, then it falls back to a general eigen decomposition.
+ * </p>
+ *
+ * <p>
+ * Cross-covariance is defined as S = sum w<sub>i</sub>*(s<sub>i</sub>-&mu;<sub>s</sub>)*(d<sub>i</sub>-&mu;<sub>d</sub>)<sup>T</sup>,
+ * where s is a source point and d is a destination point. Scale does not matter.
+ * </p>
+ *
+ * <p>[1] Horn, Berthold KP. "Closed-form solution of absolute orientation using unit quaternions." JOSA A (1987)</p>
+ * <p>[2] Theobald, Douglas L. "Rapid calculation of RMSDs using a quaternion-based characteristic polynomial."
+ * Acta Crystallographica Section A (2005)</p>
+ *
+ * @author Peter Abeles
+ */
+public class CrossCovarianceToQuaternion_F64 {
+	/** Maximum number of Newton iterations */
+	public int maxIterations = 50;
+
+	/**
+	 * If the adjugate's magnitude relative to the largest eigenvalue is less than this, then the largest
+	 * eigenvalue is considered to be repeated, or too close to the second largest to be refined reliably, and the
+	 * fallback is used. E.g. nearly collinear points.
+	 */
+	public double degenerateTol = GrlConstants.TEST_SQ_F64;
+
+	/** The found rotation */
+	@Getter Quaternion_F64 quaternion = new Quaternion_F64();
+
+	/** Largest eigenvalue of N */
+	@Getter double eigenvalue;
+
+	// Symmetric 4x4 matrix whose largest eigenvector is the rotation
+	double n00, n01, n02, n03, n11, n12, n13, n22, n23, n33;
+
+	// Used when the largest eigenvalue is not unique
+	EigenDecomposition_F64<DMatrixRMaj> eig = DecompositionFactory_DDRM.eig(4, true, true);
+	DMatrixRMaj N = new DMatrixRMaj(4, 4);
+
+	/**
+	 * Computes the rotation from the source points to the destination points
+	 *
+	 * @param S (Input) 3x3 cross-covariance matrix
+	 * @return true if successful
+	 */
+	public boolean process( DMatrix3x3 S ) {
+		double sxx = S.a11, sxy = S.a12, sxz = S.a13;
+		double syx = S.a21, syy = S.a22, syz = S.a23;
+		double szx = S.a31, szy = S.a32, szz = S.a33;
+
+		n00 = sxx + syy + szz;
+		n01 = syz - szy;
+		n02 = szx - sxz;
+		n03 = sxy - syx;
+		n11 = sxx - syy - szz;
+		n12 = sxy + syx;
+		n13 = szx + sxz;
+		n22 = -sxx + syy - szz;
+		n23 = syz + szy;
+		n33 = -sxx - syy + szz;
+
+		// N is traceless so the characteristic polynomial is x^4 + c2*x^2 + c1*x + c0
+		double normSq = n00*n00 + n11*n11 + n22*n22 + n33*n33 +
+				2.0*(n01*n01 + n02*n02 + n03*n03 + n12*n12 + n13*n13 + n23*n23);
+		if (normSq == 0.0 || Double.isNaN(normSq))
+			return false;
+
+		double c2 = -0.5*normSq;
+		double c1 = -8.0*(sxx*(syy*szz - syz*szy) - sxy*(syx*szz - syz*szx) + sxz*(syx*szy - syy*szx));
+		double c0 = determinant();
+
+		// The Frobenius norm is an upper bound on the largest eigenvalue. Every root of the polynomial is real,
+		// so Newton's method converges monotonically to the largest root when started above it.
+		double lambda = Math.sqrt(normSq);
+		for (int iter = 0; iter < maxIterations; iter++) {
+			double x2 = lambda*lambda;
+			double p = (x2 + c2)*x2 + c1*lambda + c0;
+			double dp = (4.0*x2 + 2.0*c2)*lambda + c1;
+			if (dp == 0.0)
+				break;
+			double delta = p/dp;
+			lambda -= delta;
+			if (Math.abs(delta) <= 1.0e-15*Math.abs(lambda))
+				break;
+		}
+		eigenvalue = lambda;
+
+		// When the two largest eigenvalues are close Newton's eigenvalue is inaccurate and the eigenvector is a
+		// mix of both. One step of Rayleigh quotient iteration, i.e. recomputing the adjugate using the Rayleigh
+		// quotient, corrects it. The adjugate's magnitude is only a reliable test for a small gap between the
+		// eigenvalues once the eigenvalue is accurate, so the refined step is checked too.
+		if (!eigenvectorAdjugate(lambda) || !eigenvectorAdjugate(eigenvalue)) {
+			return eigenvectorFallback();
+		}
+		return true;
+	}
+
+	/**
+	 * The adjugate of A = N - &lambda;I is proportional to v*v<sup>T</sup> when &lambda; is a simple eigenvalue.
+	 * The row with the largest diagonal element is used since it has the largest magnitude.
+	 */
+	boolean eigenvectorAdjugate( double lambda ) {
+		double a00 = n00 - lambda, a11 = n11 - lambda, a22 = n22 - lambda, a33 = n33 - lambda;
+		double a01 = n01, a02 = n02, a03 = n03, a12 = n12, a13 = n13, a23 = n23;
+
+		// 2x2 minors of the top two and bottom two rows
+		double s0 = a00*a11 - a01*a01;
+		double s1 = a00*a12 - a01*a02;
+		double s2 = a00*a13 - a01*a03;
+		double s3 = a01*a12 - a11*a02;
+		double s4 = a01*a13 - a11*a03;
+		double s5 = a02*a13 - a12*a03;
+
+		double c5 = a22*a33 - a23*a23;
+		double c4 = a12*a33 - a13*a23;
+		double c3 = a12*a23 - a13*a22;
+		double c2 = a02*a33 - a03*a23;
+		double c1 = a02*a23 - a03*a22;
+		double c0 = a02*a13 - a03*a12;
+
+		// Diagonal elements of the adjugate
+		double b00 = a11*c5 - a12*c4 + a13*c3;
+		double b11 = a00*c5 - a02*c2 + a03*c1;
+		double b22 = a03*s4 - a13*s2 + a33*s0;
+		double b33 = a02*s3 - a12*s1 + a22*s0;
+
+		double v0, v1, v2, v3, largest;
+		if (Math.abs(b00) >= Math.abs(b11) && Math.abs(b00) >= Math.abs(b22) && Math.abs(b00) >= Math.abs(b33)) {
+			largest = b00;
+			v0 = b00;
+			v1 = -a01*c5 + a02*c4 - a03*c3;
+			v2 = a13*s5 - a23*s4 + a33*s3;
+			v3 = -a12*s5 + a22*s4 - a23*s3;
+		} else if (Math.abs(b11) >= Math.abs(b22) && Math.abs(b11) >= Math.abs(b33)) {
+			largest = b11;
+			v0 = -a01*c5 + a12*c2 - a13*c1;
+			v1 = b11;
+			v2 = -a03*s5 + a23*s2 - a33*s1;
+			v3 = a02*s5 - a22*s2 + a23*s1;
+		} else if (Math.abs(b22) >= Math.abs(b33)) {
+			largest = b22;
+			v0 = a01*c4 - a11*c2 + a13*c0;
+			v1 = -a00*c4 + a01*c2 - a03*c0;
+			v2 = b22;
+			v3 = -a02*s4 + a12*s2 - a23*s0;
+		} else {
+			largest = b33;
+			v0 = -a01*c3 + a11*c1 - a12*c0;
+			v1 = a00*c3 - a01*c1 + a02*c0;
+			v2 = -a03*s3 + a13*s1 - a23*s0;
+			v3 = b33;
+		}
+
+		// The adjugate is a product of three eigenvalue differences. Compare against the scale of N
+		double scale = Math.abs(lambda);
+		if (!(Math.abs(largest) > degenerateTol*scale*scale*scale))
+			return false;
+
+		double norm = Math.sqrt(v0*v0 + v1*v1 + v2*v2 + v3*v3);
+		v0 /= norm;
+		v1 /= norm;
+		v2 /= norm;
+		v3 /= norm;
+		quaternion.setTo(v0, v1, v2, v3);
+
+		// The Rayleigh quotient is more accurate than Newton when eigenvalues are close together
+		eigenvalue = n00*v0*v0 + n11*v1*v1 + n22*v2*v2 + n33*v3*v3 +
+				2.0*(n01*v0*v1 + n02*v0*v2 + n03*v0*v3 + n12*v1*v2 + n13*v1*v3 + n23*v2*v3);
+		return true;
+	}
+
+	/**
+	 * Finds the eigenvector using a general eigen decomposition
+	 */
+	boolean eigenvectorFallback() {
+		//@formatter:off
+		N.data[0]  = n00; N.data[1]  = n01; N.data[2]  = n02; N.data[3]  = n03;
+		N.data[4]  = n01; N.data[5]  = n11; N.data[6]  = n12; N.data[7]  = n13;
+		N.data[8]  = n02; N.data[9]  = n12; N.data[10] = n22; N.data[11] = n23;
+		N.data[12] = n03; N.data[13] = n13; N.data[14] = n23; N.data[15] = n33;
+		//@formatter:on
+
+		if (!eig.decompose(N))
+			return false;
+
+		int largest = 0;
+		for (int i = 1; i < 4; i++) {
+			if (eig.getEigenvalue(i).real > eig.getEigenvalue(largest).real)
+				largest = i;
+		}
+		DMatrixRMaj v = eig.getEigenVector(largest);
+		if (v == null)
+			return false;
+		eigenvalue = eig.getEigenvalue(largest).real;
+		quaternion.setTo(v.data[0], v.data[1], v.data[2], v.data[3]);
+		quaternion.normalize();
+		return true;
+	}
+
+	/**
+	 * Determinant of the symmetric matrix N
+	 */
+	private double determinant() {
+		double s0 = n00*n11 - n01*n01;
+		double s1 = n00*n12 - n01*n02;
+		double s2 = n00*n13 - n01*n03;
+		double s3 = n01*n12 - n11*n02;
+		double s4 = n01*n13 - n11*n03;
+		double s5 = n02*n13 - n12*n03;
+
+		double c5 = n22*n33 - n23*n23;
+		double c4 = n12*n33 - n13*n23;
+		double c3 = n12*n23 - n13*n22;
+		double c2 = n02*n33 - n03*n23;
+		double c1 = n02*n23 - n03*n22;
+		double c0 = n02*n13 - n03*n12;
+
+		return s0*c5 - s1*c4 + s2*c3 + s3*c2 - s4*c1 + s5*c0;
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.so;
+
+import georegression.fitting.MotionTransformPointWeighted;
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.so.So3_F64;
+import org.ddogleg.struct.DogArray_F64;
+import org.ejml.data.DMatrix3x3;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+//CUSTOM ignore DogArray_F64
+//CUSTOM ignore org.ddogleg.struct.DogArray_F64;
+
+/**
+ * <p>
+ * Finds the rotation which minimizes the difference between two sets of associated points in 3D using
+ * Horn's closed form quaternion method. This produces the same solution as {@link MotionSo3PointSVD_F64} but
+ * avoids computing a general SVD, see {@link CrossCovarianceToQuaternion_F64}. Points can optionally be weighted.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class MotionSo3PointQuaternion_F64 implements MotionTransformPointWeighted<So3_F64, Point3D_F64> {
+
+	// Pure rotational motion
+	private final So3_F64 rotation = new So3_F64();
+
+	final CrossCovarianceToQuaternion_F64 solver = new CrossCovarianceToQuaternion_F64();
+
+	// cross-covariance between the two sets of points
+	final DMatrix3x3 S = new DMatrix3x3();
+
+	@Override
+	public So3_F64 getTransformSrcToDst() {
+		return rotation;
+	}
+
+	@Override
+	public boolean process( List<Point3D_F64> srcPts, List<Point3D_F64> dstPts ) {
+		return process(srcPts, dstPts, null);
+	}
+
+	@Override
+	public boolean process( List<Point3D_F64> srcPts, List<Point3D_F64> dstPts, @Nullable DogArray_F64 weights ) {
+		if (srcPts.size() != dstPts.size())
+			throw new IllegalArgumentException("There must be a 1 to 1 correspondence between the two sets of points");
+		if (weights != null && weights.size != srcPts.size())
+			throw new IllegalArgumentException("There must be one weight for each pair of points");
+
+		final int N = srcPts.size();
+
+		double s11 = 0, s12 = 0, s13 = 0;
+		double s21 = 0, s22 = 0, s23 = 0;
+		double s31 = 0, s32 = 0, s33 = 0;
+
+		for (int i = 0; i < N; i++) {
+			double w = weights == null ? 1.0 : (double)weights.data[i];
+			Point3D_F64 s = srcPts.get(i);
+			Point3D_F64 d = dstPts.get(i);
+
+			double sx = w*s.x, sy = w*s.y, sz = w*s.z;
+
+			s11 += sx*d.x;
+			s12 += sx*d.y;
+			s13 += sx*d.z;
+			s21 += sy*d.x;
+			s22 += sy*d.y;
+			s23 += sy*d.z;
+			s31 += sz*d.x;
+			s32 += sz*d.y;
+			s33 += sz*d.z;
+		}
+		S.setTo(s11, s12, s13, s21, s22, s23, s31, s32, s33);
+
+		if (!solver.process(S))
+			return false;
+
+		ConvertRotation3D_F64.quaternionToMatrix(solver.getQuaternion(), rotation.R);
+		return true;
+	}
+
+	@Override
+	public int getMinimumPoints() {
+		return 3;
+	}
+}
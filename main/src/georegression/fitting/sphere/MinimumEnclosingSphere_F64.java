@@ -0,0 +1,333 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.sphere;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.shapes.Sphere3D_F64;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_F64;
+import org.ddogleg.struct.DogArray_I32;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * <p>
+ * Finds the smallest sphere which contains all the points. The exact solution is found using Welzl's algorithm [1]
+ * in its iterative form, which has an expected run time of O(n) when the points are visited in a random order.
+ * If {@link #exact} is false then Ritter's algorithm [2] is used instead, which is faster but produces a sphere
+ * that's typically 5% to 20% larger.
+ * </p>
+ *
+ * <p>
+ * Points can be provided as a list or packed into an array. The batch API finds the sphere for many groups of
+ * points stored in a single packed array. Nothing is declared after the first call.
+ * </p>
+ *
+ * <p>[1] Welzl, Emo. "Smallest enclosing disks (balls and ellipsoids)." New Results and New Trends in Computer
+ * Science (1991)</p>
+ * <p>[2] Ritter, Jack. "An efficient bounding sphere." Graphics Gems (1990)</p>
+ *
+ * @author Peter Abeles
+ */
+public class MinimumEnclosingSphere_F64 {
+	/** If true the smallest sphere is found. Otherwise an approximation is found with Ritter's algorithm */
+	public boolean exact = true;
+
+	/** Relative tolerance used to decide if a point is inside the sphere */
+	public double tolerance = 1000.0*GrlConstants.EPS;
+
+	// Used to visit the points in a random order
+	final Random rand = new Random(0xBEEF);
+	final DogArray_I32 order = new DogArray_I32();
+	final DogArray_F64 packed = new DogArray_F64();
+
+	// current sphere
+	double cx, cy, cz, radiusSq;
+	double[] xyz = new double[0];
+
+	/**
+	 * Finds the smallest sphere that contains the points
+	 *
+	 * @param points (Input) Points
+	 * @param sphere (Output) The sphere
+	 * @return true if successful or false if there are no points
+	 */
+	public boolean process( List<Point3D_F64> points, Sphere3D_F64 sphere ) {
+		packed.resize(points.size()*3);
+		for (int i = 0, idx = 0; i < points.size(); i++) {
+			Point3D_F64 p = points.get(i);
+			packed.data[idx++] = p.x;
+			packed.data[idx++] = p.y;
+			packed.data[idx++] = p.z;
+		}
+		return process(packed.data, 0, points.size(), sphere);
+	}
+
+	/**
+	 * Finds the smallest sphere that contains the points
+	 *
+	 * @param xyz (Input) Points packed as x0,y0,z0,x1,y1,z1,...
+	 * @param first (Input) Index of the first point
+	 * @param count (Input) Number of points
+	 * @param sphere (Output) The sphere
+	 * @return true if successful or false if there are no points
+	 */
+	public boolean process( double[] xyz, int first, int count, Sphere3D_F64 sphere ) {
+		if (first < 0 || count < 0 || 3L*(first + count) > xyz.length)
+			throw new IllegalArgumentException("Array is too small for the requested points");
+		if (count == 0)
+			return false;
+		this.xyz = xyz;
+
+		if (exact)
+			welzl(first, count);
+		else
+			ritter(first, count);
+
+		sphere.center.setTo(cx, cy, cz);
+		sphere.radius = Math.sqrt(radiusSq);
+		return true;
+	}
+
+	/**
+	 * Finds the sphere for every group of points in the array
+	 *
+	 * @param xyz (Input) Points packed as x0,y0,z0,x1,y1,z1,...
+	 * @param groupFirst (Input) Index of the first point in each group, plus the number of points at the end.
+	 * Group i has points from groupFirst[i] to groupFirst[i+1]-1.
+	 * @param spheres (Output) Sphere for each group. An empty group will have a radius of -1.
+	 */
+	public void processBatch( double[] xyz, DogArray_I32 groupFirst, DogArray<Sphere3D_F64> spheres ) {
+		int numGroups = Integer.max(0, groupFirst.size - 1);
+		spheres.resize(numGroups);
+		for (int group = 0; group < numGroups; group++) {
+			int first = groupFirst.data[group];
+			Sphere3D_F64 sphere = spheres.get(group);
+			if (!process(xyz, first, groupFirst.data[group + 1] - first, sphere)) {
+				sphere.center.setTo(0, 0, 0);
+				sphere.radius = -1;
+			}
+		}
+	}
+
+	/**
+	 * Iterative version of Welzl's algorithm. When a point is outside the sphere, the new sphere must have
+	 * that point on its boundary, so it's recomputed from the points before it with the point fixed.
+	 */
+	void welzl( int first, int count ) {
+		// Random order so that the expected run time is linear
+		order.resize(count);
+		for (int i = 0; i < count; i++) {
+			order.data[i] = first + i;
+		}
+		for (int i = count - 1; i > 0; i--) {
+			int j = rand.nextInt(i + 1);
+			int tmp = order.data[i];
+			order.data[i] = order.data[j];
+			order.data[j] = tmp;
+		}
+		int[] o = order.data;
+
+		setSphere(o[0]);
+		for (int i = 1; i < count; i++) {
+			if (isInside(o[i]))
+				continue;
+			setSphere(o[i]);
+			for (int j = 0; j < i; j++) {
+				if (isInside(o[j]))
+					continue;
+				setSphere(o[i], o[j]);
+				for (int k = 0; k < j; k++) {
+					if (isInside(o[k]))
+						continue;
+					setSphere(o[i], o[j], o[k]);
+					for (int l = 0; l < k; l++) {
+						if (isInside(o[l]))
+							continue;
+						setSphere(o[i], o[j], o[k], o[l]);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Ritter's algorithm. Starts with a sphere from two points that are far apart and then grows it to
+	 * include every point outside of it.
+	 */
+	void ritter( int first, int count ) {
+		int end = first + count;
+
+		// point farthest from the first point, then the point farthest from that
+		int a = farthest(first, first, end);
+		int b = farthest(a, first, end);
+		setSphere(a, b);
+
+		double radius = Math.sqrt(radiusSq);
+		for (int i = first; i < end; i++) {
+			int idx = i*3;
+			double dx = xyz[idx] - cx, dy = xyz[idx + 1] - cy, dz = xyz[idx + 2] - cz;
+			double d2 = dx*dx + dy*dy + dz*dz;
+			if (d2 <= radiusSq)
+				continue;
+			// Grow the sphere so that it touches the point and the opposite side of the old sphere
+			double d = Math.sqrt(d2);
+			double newRadius = (radius + d)/2.0;
+			double shift = (newRadius - radius)/d;
+			cx += dx*shift;
+			cy += dy*shift;
+			cz += dz*shift;
+			radius = newRadius;
+			radiusSq = radius*radius;
+		}
+	}
+
+	int farthest( int from, int first, int end ) {
+		double x = xyz[from*3], y = xyz[from*3 + 1], z = xyz[from*3 + 2];
+		int best = from;
+		double bestDistance = -1.0;
+		for (int i = first; i < end; i++) {
+			double dx = xyz[i*3] - x, dy = xyz[i*3 + 1] - y, dz = xyz[i*3 + 2] - z;
+			double d = dx*dx + dy*dy + dz*dz;
+			if (d > bestDistance) {
+				bestDistance = d;
+				best = i;
+			}
+		}
+		return best;
+	}
+
+	boolean isInside( int point ) {
+		int idx = point*3;
+		double dx = xyz[idx] - cx, dy = xyz[idx + 1] - cy, dz = xyz[idx + 2] - cz;
+		return dx*dx + dy*dy + dz*dz <= radiusSq*(1.0 + tolerance);
+	}
+
+	void setSphere( int a ) {
+		cx = xyz[a*3];
+		cy = xyz[a*3 + 1];
+		cz = xyz[a*3 + 2];
+		radiusSq = 0.0;
+	}
+
+	/** Sphere with the two points on opposite sides */
+	void setSphere( int a, int b ) {
+		double ax = xyz[a*3], ay = xyz[a*3 + 1], az = xyz[a*3 + 2];
+		double bx = xyz[b*3], by = xyz[b*3 + 1], bz = xyz[b*3 + 2];
+		cx = (ax + bx)/2.0;
+		cy = (ay + by)/2.0;
+		cz = (az + bz)/2.0;
+		double dx = bx - ax, dy = by - ay, dz = bz - az;
+		radiusSq = (dx*dx + dy*dy + dz*dz)/4.0;
+	}
+
+	/** Smallest sphere with all three points on its surface. Its center lies on their plane */
+	void setSphere( int a, int b, int c ) {
+		double ax = xyz[a*3], ay = xyz[a*3 + 1], az = xyz[a*3 + 2];
+		double ux = xyz[b*3] - ax, uy = xyz[b*3 + 1] - ay, uz = xyz[b*3 + 2] - az;
+		double vx = xyz[c*3] - ax, vy = xyz[c*3 + 1] - ay, vz = xyz[c*3 + 2] - az;
+
+		// w = u x v
+		double wx = uy*vz - uz*vy, wy = uz*vx - ux*vz, wz = ux*vy - uy*vx;
+		double w2 = wx*wx + wy*wy + wz*wz;
+		double u2 = ux*ux + uy*uy + uz*uz;
+		double v2 = vx*vx + vy*vy + vz*vz;
+		if (w2 <= 1.0e-24*u2*v2) {
+			// collinear. Use the two points which are farthest apart
+			setSphereFarthestPair(a, b, c);
+			return;
+		}
+
+		// center = a + (|u|^2 (v x w) + |v|^2 (w x u))/(2|w|^2)
+		double px = u2*(vy*wz - vz*wy) + v2*(wy*uz - wz*uy);
+		double py = u2*(vz*wx - vx*wz) + v2*(wz*ux - wx*uz);
+		double pz = u2*(vx*wy - vy*wx) + v2*(wx*uy - wy*ux);
+		px /= 2.0*w2;
+		py /= 2.0*w2;
+		pz /= 2.0*w2;
+		cx = ax + px;
+		cy = ay + py;
+		cz = az + pz;
+		radiusSq = px*px + py*py + pz*pz;
+	}
+
+	void setSphereFarthestPair( int a, int b, int c ) {
+		double ab = distanceSq(a, b), ac = distanceSq(a, c), bc = distanceSq(b, c);
+		if (ab >= ac && ab >= bc)
+			setSphere(a, b);
+		else if (ac >= bc)
+			setSphere(a, c);
+		else
+			setSphere(b, c);
+	}
+
+	/** Sphere with all four points on its surface */
+	void setSphere( int a, int b, int c, int d ) {
+		double ax = xyz[a*3], ay = xyz[a*3 + 1], az = xyz[a*3 + 2];
+		double ux = xyz[b*3] - ax, uy = xyz[b*3 + 1] - ay, uz = xyz[b*3 + 2] - az;
+		double vx = xyz[c*3] - ax, vy = xyz[c*3 + 1] - ay, vz = xyz[c*3 + 2] - az;
+		double tx = xyz[d*3] - ax, ty = xyz[d*3 + 1] - ay, tz = xyz[d*3 + 2] - az;
+
+		// Solve [u;v;t]*p = 0.5*[|u|^2;|v|^2;|t|^2] using Cramer's rule
+		double u2 = (ux*ux + uy*uy + uz*uz)/2.0;
+		double v2 = (vx*vx + vy*vy + vz*vz)/2.0;
+		double t2 = (tx*tx + ty*ty + tz*tz)/2.0;
+
+		double c0 = vy*tz - vz*ty, c1 = vz*tx - vx*tz, c2 = vx*ty - vy*tx;
+		double det = ux*c0 + uy*c1 + uz*c2;
+		double scale = Math.sqrt(u2*v2*t2)*8.0;
+		if (Math.abs(det) <= 1.0e-12*scale) {
+			// coplanar. The sphere through three of the points which contains the fourth
+			setSphereCoplanar(a, b, c, d);
+			return;
+		}
+
+		// p = (u2*(v x t) + v2*(t x u) + t2*(u x v))/det
+		double px = u2*c0 + v2*(ty*uz - tz*uy) + t2*(uy*vz - uz*vy);
+		double py = u2*c1 + v2*(tz*ux - tx*uz) + t2*(uz*vx - ux*vz);
+		double pz = u2*c2 + v2*(tx*uy - ty*ux) + t2*(ux*vy - uy*vx);
+		px /= det;
+		py /= det;
+		pz /= det;
+		cx = ax + px;
+		cy = ay + py;
+		cz = az + pz;
+		radiusSq = px*px + py*py + pz*pz;
+	}
+
+	void setSphereCoplanar( int a, int b, int c, int d ) {
+		setSphere(a, b, c);
+		if (isInside(d))
+			return;
+		setSphere(a, b, d);
+		if (isInside(c))
+			return;
+		setSphere(a, c, d);
+		if (isInside(b))
+			return;
+		setSphere(b, c, d);
+	}
+
+	double distanceSq( int a, int b ) {
+		double dx = xyz[a*3] - xyz[b*3], dy = xyz[a*3 + 1] - xyz[b*3 + 1], dz = xyz[a*3 + 2] - xyz[b*3 + 2];
+		return dx*dx + dy*dy + dz*dz;
+	}
+}
@@ -241,121 +241,112 @@ public class ConvertRotation3D_F64 {
 		if( euler == null )
 			euler = new double[3];
 
+		double[] d = R.data;
+		matrixToEuler(d[0], d[1], d[2], d[3], d[4], d[5], d[6], d[7], d[8], type, euler, 0);
+
+		return euler;
+	}
+
+	/**
+	 * Converts a rotation matrix, which is passed in element by element, into Euler angles
+	 *
+	 * @param euler (Output) array the Euler angles are written to
+	 * @param offset (Input) index of the first Euler angle
+	 */
+	static void matrixToEuler( double m00, double m01, double m02,
+							   double m10, double m11, double m12,
+							   double m20, double m21, double m22,
+							   EulerType type, double[] euler, int offset ) {
 		switch(type){
 			case ZYX:
-				TanSinTan(-2,1,  3,  -6,9,  5,-7,4,8,  R,euler);
+				TanSinTan(-m01,m00,  m02,  -m12,m22,  m11,-m20,m10,m21,  euler,offset);
 				break;
 
 			case ZYZ:
-				TanCosTan(8,-7,  9,   6,3,  5,-7,4,8,  R,euler);
+				TanCosTan(m21,-m20,  m22,   m12,m02,  m11,-m20,m10,m21,  euler,offset);
 				break;
 
 			case ZXY:
-				TanSinTan(4,5,  -6,   3,9,  1,8,-2,7,  R,euler);
+				TanSinTan(m10,m11,  -m12,   m02,m22,  m00,m21,-m01,m20,  euler,offset);
 				break;
 
 			case ZXZ:
-				TanCosTan(7,8,   9,  3,-6,  1,8,-2,7,  R,euler);
+				TanCosTan(m20,m21,   m22,  m02,-m12,  m00,m21,-m01,m20,  euler,offset);
 				break;
 
 			case YXZ:
-				TanSinTan(-7,9,  8, -2,5,  1,-6,3,4,   R,euler);
+				TanSinTan(-m20,m22,  m21, -m01,m11,  m00,-m12,m02,m10,   euler,offset);
 				break;
 
 			case YXY:
-				TanCosTan(4,-6,  5,  2,8,  1,-6,3,4,   R,euler);
+				TanCosTan(m10,-m12,  m11,  m01,m21,  m00,-m12,m02,m10,   euler,offset);
 				break;
 
 			case YZX:
-				TanSinTan(3,1,  -2,  8,5,  9,4,-7,6,   R,euler);
+				TanSinTan(m02,m00,  -m01,  m21,m11,  m22,m10,-m20,m12,   euler,offset);
 				break;
 
 			case YZY:
-				TanCosTan(6,4,   5,  8,-2, 9,4,-7,6,   R,euler);
+				TanCosTan(m12,m10,   m11,  m21,-m01, m22,m10,-m20,m12,   euler,offset);
 				break;
 
 			case XYZ:
-				TanSinTan(8,9,  -7,  4,1,  5,3,-6,2,   R,euler);
+				TanSinTan(m21,m22,  -m20,  m10,m00,  m11,m02,-m12,m01,   euler,offset);
 				break;
 
 			case XYX:
-				TanCosTan(2,3,   1,  4,-7, 5,3,-6,2,   R,euler);
+				TanCosTan(m01,m02,   m00,  m10,-m20, m11,m02,-m12,m01,   euler,offset);
 				break;
 
 			case XZY:
-				TanSinTan(-6,5,  4, -7,1,  9,-2,8,3,   R,euler);
+				TanSinTan(-m12,m11,  m10, -m20,m00,  m22,-m01,m21,m02,   euler,offset);
 				break;
 
 			case XZX:
-				TanCosTan(3,-2,  1,  7,4,  9,-2,8,3,   R,euler);
+				TanCosTan(m02,-m01,  m00,  m20,m10,  m22,-m01,m21,m02,   euler,offset);
 				break;
 
 			default:
 				throw new IllegalArgumentException("Unknown rotation sequence");
 		}
-
-		return euler;
 	}
 
-	private static void TanSinTan( int y0 , int x0 , int sin1 , int y2 , int x2 ,
-								   int cos0a , int cos0b , int sin0a , int sin0b,
-								   DMatrixRMaj R , double euler[] ) {
-
-		double val_y0 = get(R,y0);
-		double val_x0 = get(R,x0);
-		double val_sin1 = get(R,sin1);
-		double val_y2 = get(R,y2);
-		double val_x2 = get(R,x2);
+	private static void TanSinTan( double val_y0 , double val_x0 , double val_sin1 , double val_y2 , double val_x2 ,
+								   double cos0a , double cos0b , double sin0a , double sin0b,
+								   double[] euler , int offset ) {
 
 		if( 1.0-Math.abs(val_sin1) <= GrlConstants.EPS ) {
 
 			double sign = Math.signum(val_sin1);
 
-			double sin0 = (get(R,sin0a)+sign*get(R,sin0b))/2.0;
-			double cos0 = (get(R,cos0a)+sign*get(R,cos0b))/2.0;
+			double sin0 = (sin0a+sign*sin0b)/2.0;
+			double cos0 = (cos0a+sign*cos0b)/2.0;
 
-			euler[0] = Math.atan2(sin0,cos0);
-			euler[1] = sign * Math.PI/2.0;
-			euler[2] = 0;
+			euler[offset] = Math.atan2(sin0,cos0);
+			euler[offset+1] = sign * Math.PI/2.0;
+			euler[offset+2] = 0;
 		} else {
-			euler[0] = Math.atan2(val_y0,val_x0);
-			euler[1] = Math.asin(val_sin1);
-			euler[2] = Math.atan2(val_y2,val_x2);
+			euler[offset] = Math.atan2(val_y0,val_x0);
+			euler[offset+1] = Math.asin(val_sin1);
+			euler[offset+2] = Math.atan2(val_y2,val_x2);
 		}
 	}
 
-	private static void TanCosTan( int y0 , int x0 , int cos1 , int y2 , int x2 ,
-								   int cos0a , int cos0b , int sin0a , int sin0b,
-								  DMatrixRMaj R , double euler[] ) {
-
-		double val_y0 = get(R,y0);
-		double val_x0 = get(R,x0);
-		double val_cos1 = get(R,cos1);
-		double val_y2 = get(R,y2);
-		double val_x2 = get(R,x2);
+	private static void TanCosTan( double val_y0 , double val_x0 , double val_cos1 , double val_y2 , double val_x2 ,
+								   double cos0a , double cos0b , double sin0a , double sin0b,
+								   double[] euler , int offset ) {
 
 		if( 1.0-Math.abs(val_cos1) <= GrlConstants.EPS ) {
-			double sin0 = (get(R,sin0a)+get(R,sin0b))/2.0;
-			double cos0 = (get(R,cos0a)+get(R,cos0b))/2.0;
-
-			euler[0] = Math.atan2(sin0,cos0);
-			euler[1] = 0;
-			euler[2] = 0;
-		} else {
-			euler[0] = Math.atan2(val_y0,val_x0);
-			euler[1] = Math.acos(val_cos1);
-			euler[2] = Math.atan2(val_y2,val_x2);
-		}
-	}
+			double sin0 = (sin0a+sin0b)/2.0;
+			double cos0 = (cos0a+cos0b)/2.0;
 
-	/**
-	 * If the index is negative it returns the negative of the value at -index. Starts at 0
-	 */
-	private static double get( DMatrixRMaj M , int index ) {
-		if( index < 0 ) {
-			return -M.data[-index-1];
+			euler[offset] = Math.atan2(sin0,cos0);
+			euler[offset+1] = 0;
+			euler[offset+2] = 0;
 		} else {
-			return M.data[index-1];
+			euler[offset] = Math.atan2(val_y0,val_x0);
+			euler[offset+1] = Math.acos(val_cos1);
+			euler[offset+2] = Math.atan2(val_y2,val_x2);
 		}
 	}
 
@@ -371,20 +362,33 @@ public class ConvertRotation3D_F64 {
 		if( quat == null )
 			quat = new Quaternion_F64();
 
+		matrixToQuaternion(R.data, 0, quat);
+
+		return quat;
+	}
+
+	/**
+	 * Extracts a quaternion from a row-major 3x3 rotation matrix stored in an array
+	 *
+	 * @param R (Input) array containing the rotation matrix
+	 * @param offset (Input) index of the first element in the rotation matrix
+	 * @param quat (Output) unit quaternion
+	 */
+	static void matrixToQuaternion( double[] R, int offset, Quaternion_F64 quat ) {
 		// algorithm from:
 		// http://www.euclideanspace.com/maths/geometry/rotations/conversions/matrixToQuaternion/
 		//
 		// Designed to minimize numerical error by not dividing by very small numbers
 
-		double m00 = R.unsafe_get(0,0);
-		double m01 = R.unsafe_get(0,1);
-		double m02 = R.unsafe_get(0,2);
-		double m10 = R.unsafe_get(1,0);
-		double m11 = R.unsafe_get(1,1);
-		double m12 = R.unsafe_get(1,2);
-		double m20 = R.unsafe_get(2,0);
-		double m21 = R.unsafe_get(2,1);
-		double m22 = R.unsafe_get(2,2);
+		double m00 = R[offset];
+		double m01 = R[offset + 1];
+		double m02 = R[offset + 2];
+		double m10 = R[offset + 3];
+		double m11 = R[offset + 4];
+		double m12 = R[offset + 5];
+		double m20 = R[offset + 6];
+		double m21 = R[offset + 7];
+		double m22 = R[offset + 8];
 
 		double trace = m00 + m11 + m22;
 
@@ -413,8 +417,6 @@ public class ConvertRotation3D_F64 {
 			quat.y = (m12 + m21) / S;
 			quat.z = 0.25 * S;
 		}
-
-		return quat;
 	}
 
 	/**
@@ -801,30 +803,226 @@ public class ConvertRotation3D_F64 {
 		return quaternionToMatrix(quat.w,quat.x,quat.y,quat.z,R);
 	}
 
-	@SuppressWarnings("UnnecessaryLocalVariable")
 	public static DMatrixRMaj quaternionToMatrix(double w, double x , double y , double z ,
 												 @Nullable DMatrixRMaj R )
 	{
 		R = checkDeclare3x3( R );
+		quaternionToMatrix(w, x, y, z, R.data, 0);
+		return R;
+	}
 
+	/**
+	 * Converts a unit quaternion into a row-major 3x3 rotation matrix stored in an array
+	 *
+	 * @param R (Output) array the rotation matrix is written to
+	 * @param offset (Input) index of the first element in the rotation matrix
+	 */
+	@SuppressWarnings("UnnecessaryLocalVariable")
+	static void quaternionToMatrix( double w, double x, double y, double z, double[] R, int offset ) {
 		final double q0 = w;
 		final double q1 = x;
 		final double q2 = y;
 		final double q3 = z;
 
-		R.data[0] = q0*q0 + q1*q1 - q2*q2 - q3*q3; // (0,0)
-		R.data[1] = 2.0*( q1*q2 - q0*q3 );         // (0,1)
-		R.data[2] = 2.0*( q1*q3 + q0*q2 );         // (0,2)
+		R[offset    ] = q0*q0 + q1*q1 - q2*q2 - q3*q3; // (0,0)
+		R[offset + 1] = 2.0*( q1*q2 - q0*q3 );         // (0,1)
+		R[offset + 2] = 2.0*( q1*q3 + q0*q2 );         // (0,2)
 
-		R.data[3] = 2.0*( q1*q2 + q0*q3 );         // (1,0)
-		R.data[4] = q0*q0 - q1*q1 + q2*q2 - q3*q3; // (1,1)
-		R.data[5] = 2.0*( q2*q3 - q0*q1 );         // (1,2)
+		R[offset + 3] = 2.0*( q1*q2 + q0*q3 );         // (1,0)
+		R[offset + 4] = q0*q0 - q1*q1 + q2*q2 - q3*q3; // (1,1)
+		R[offset + 5] = 2.0*( q2*q3 - q0*q1 );         // (1,2)
 
-		R.data[6] = 2.0*( q1*q3 - q0*q2 );         // (2,0)
-		R.data[7] = 2.0*( q2*q3 + q0*q1 );         // (2,1)
-		R.data[8] = q0*q0 - q1*q1 - q2*q2 + q3*q3; // (2,2)
+		R[offset + 6] = 2.0*( q1*q3 - q0*q2 );         // (2,0)
+		R[offset + 7] = 2.0*( q2*q3 + q0*q1 );         // (2,1)
+		R[offset + 8] = q0*q0 - q1*q1 - q2*q2 + q3*q3; // (2,2)
+	}
 
-		return R;
+	/**
+	 * <p>Converts an array of unit quaternions into an array of rotation matrices. Quaternions are packed as
+	 * (w,x,y,z) and matrices are packed as 9 row-major elements. No memory is allocated.</p>
+	 *
+	 * @param quaternions (Input) packed quaternions
+	 * @param quatOffset (Input) array index of the first quaternion
+	 * @param matrices (Output) packed rotation matrices
+	 * @param matrixOffset (Input) array index of the first rotation matrix
+	 * @param count (Input) number of rotations which are converted
+	 */
+	public static void quaternionToMatrix( double[] quaternions, int quatOffset,
+										   double[] matrices, int matrixOffset, int count ) {
+		checkBulkArguments(quaternions, quatOffset, 4, matrices, matrixOffset, 9, count);
+		for (int i = 0; i < count; i++) {
+			int q = quatOffset + i*4;
+			quaternionToMatrix(quaternions[q], quaternions[q + 1], quaternions[q + 2], quaternions[q + 3],
+					matrices, matrixOffset + i*9);
+		}
+	}
+
+	/**
+	 * <p>Converts an array of rotation matrices into an array of unit quaternions. Matrices are packed as
+	 * 9 row-major elements and quaternions are packed as (w,x,y,z) No memory is allocated.</p>
+	 *
+	 * @param matrices (Input) packed rotation matrices
+	 * @param matrixOffset (Input) array index of the first rotation matrix
+	 * @param quaternions (Output) packed quaternions
+	 * @param quatOffset (Input) array index of the first quaternion
+	 * @param count (Input) number of rotations which are converted
+	 */
+	public static void matrixToQuaternion( double[] matrices, int matrixOffset,
+										   double[] quaternions, int quatOffset, int count ) {
+		checkBulkArguments(matrices, matrixOffset, 9, quaternions, quatOffset, 4, count);
+		for (int i = 0; i < count; i++) {
+			int r = matrixOffset + i*9;
+			double m00 = matrices[r], m01 = matrices[r + 1], m02 = matrices[r + 2];
+			double m10 = matrices[r + 3], m11 = matrices[r + 4], m12 = matrices[r + 5];
+			double m20 = matrices[r + 6], m21 = matrices[r + 7], m22 = matrices[r + 8];
+
+			// Same as matrixToQuaternion(double[],int,Quaternion_F64) but written straight to the array
+			double w, x, y, z;
+			double trace = m00 + m11 + m22;
+			if (trace > 0) {
+				double S = Math.sqrt(trace + 1.0)*2; // S=4*qw
+				w = 0.25*S;
+				x = (m21 - m12)/S;
+				y = (m02 - m20)/S;
+				z = (m10 - m01)/S;
+			} else if ((m00 > m11) && (m00 > m22)) {
+				double S = Math.sqrt(1.0 + m00 - m11 - m22)*2; // S=4*qx
+				w = (m21 - m12)/S;
+				x = 0.25*S;
+				y = (m01 + m10)/S;
+				z = (m02 + m20)/S;
+			} else if (m11 > m22) {
+				double S = Math.sqrt(1.0 + m11 - m00 - m22)*2; // S=4*qy
+				w = (m02 - m20)/S;
+				x = (m01 + m10)/S;
+				y = 0.25*S;
+				z = (m12 + m21)/S;
+			} else {
+				double S = Math.sqrt(1.0 + m22 - m00 - m11)*2; // S=4*qz
+				w = (m10 - m01)/S;
+				x = (m02 + m20)/S;
+				y = (m12 + m21)/S;
+				z = 0.25*S;
+			}
+
+			int q = quatOffset + i*4;
+			quaternions[q] = w;
+			quaternions[q + 1] = x;
+			quaternions[q + 2] = y;
+			quaternions[q + 3] = z;
+		}
+	}
+
+	/**
+	 * <p>Converts an array of Euler angles into an array of unit quaternions. Euler angles are packed as
+	 * (rotA, rotB, rotC) and quaternions are packed as (w,x,y,z) No memory is allocated.</p>
+	 *
+	 * @param type Which Euler coordinate the input is in
+	 * @param euler (Input) packed Euler angles
+	 * @param eulerOffset (Input) array index of the first Euler angle
+	 * @param quaternions (Output) packed quaternions
+	 * @param quatOffset (Input) array index of the first quaternion
+	 * @param count (Input) number of rotations which are converted
+	 */
+	public static void eulerToQuaternion( EulerType type, double[] euler, int eulerOffset,
+										  double[] quaternions, int quatOffset, int count ) {
+		checkBulkArguments(euler, eulerOffset, 3, quaternions, quatOffset, 4, count);
+		for (int i = 0; i < count; i++) {
+			int e = eulerOffset + i*3;
+			int q = quatOffset + i*4;
+
+			// R = R_c*R_b*R_a so the quaternion is built up by rotating the identity by each axis in order
+			quaternions[q] = 1.0;
+			quaternions[q + 1] = 0.0;
+			quaternions[q + 2] = 0.0;
+			quaternions[q + 3] = 0.0;
+			rotateAboutAxis(type.getAxisA(), euler[e], quaternions, q);
+			rotateAboutAxis(type.getAxisB(), euler[e + 1], quaternions, q);
+			rotateAboutAxis(type.getAxisC(), euler[e + 2], quaternions, q);
+		}
+	}
+
+	/**
+	 * Multiplies the quaternion on the left by a rotation about one of the coordinate axes, in place
+	 *
+	 * @param axis 0 = x, 1 = y, 2 = z
+	 * @param angle The angle it is rotated by in radians.
+	 * @param quat (Input/Output) packed quaternion (w,x,y,z)
+	 * @param offset (Input) index of the quaternion in the array
+	 */
+	private static void rotateAboutAxis( int axis, double angle, double[] quat, int offset ) {
+		double c = Math.cos(angle*0.5);
+		double s = Math.sin(angle*0.5);
+
+		double w = quat[offset], x = quat[offset + 1], y = quat[offset + 2], z = quat[offset + 3];
+		switch (axis) {
+			case 0:
+				quat[offset] = c*w - s*x;
+				quat[offset + 1] = c*x + s*w;
+				quat[offset + 2] = c*y - s*z;
+				quat[offset + 3] = c*z + s*y;
+				break;
+
+			case 1:
+				quat[offset] = c*w - s*y;
+				quat[offset + 1] = c*x + s*z;
+				quat[offset + 2] = c*y + s*w;
+				quat[offset + 3] = c*z - s*x;
+				break;
+
+			case 2:
+				quat[offset] = c*w - s*z;
+				quat[offset + 1] = c*x - s*y;
+				quat[offset + 2] = c*y + s*x;
+				quat[offset + 3] = c*z + s*w;
+				break;
+
+			default:
+				throw new IllegalArgumentException("Unknown axis");
+		}
+	}
+
+	/**
+	 * <p>Converts an array of unit quaternions into an array of Euler angles. Quaternions are packed as
+	 * (w,x,y,z) and Euler angles are packed as (rotA, rotB, rotC) No memory is allocated.</p>
+	 *
+	 * @param quaternions (Input) packed quaternions
+	 * @param quatOffset (Input) array index of the first quaternion
+	 * @param type Which Euler coordinate the output is in
+	 * @param euler (Output) packed Euler angles
+	 * @param eulerOffset (Input) array index of the first Euler angle
+	 * @param count (Input) number of rotations which are converted
+	 */
+	public static void quaternionToEuler( double[] quaternions, int quatOffset, EulerType type,
+										  double[] euler, int eulerOffset, int count ) {
+		checkBulkArguments(quaternions, quatOffset, 4, euler, eulerOffset, 3, count);
+		for (int i = 0; i < count; i++) {
+			int q = quatOffset + i*4;
+			double q0 = quaternions[q], q1 = quaternions[q + 1], q2 = quaternions[q + 2], q3 = quaternions[q + 3];
+
+			// Same rotation matrix as quaternionToMatrix()
+			double m00 = q0*q0 + q1*q1 - q2*q2 - q3*q3;
+			double m01 = 2.0*(q1*q2 - q0*q3);
+			double m02 = 2.0*(q1*q3 + q0*q2);
+			double m10 = 2.0*(q1*q2 + q0*q3);
+			double m11 = q0*q0 - q1*q1 + q2*q2 - q3*q3;
+			double m12 = 2.0*(q2*q3 - q0*q1);
+			double m20 = 2.0*(q1*q3 - q0*q2);
+			double m21 = 2.0*(q2*q3 + q0*q1);
+			double m22 = q0*q0 - q1*q1 - q2*q2 + q3*q3;
+
+			matrixToEuler(m00, m01, m02, m10, m11, m12, m20, m21, m22, type, euler, eulerOffset + i*3);
+		}
+	}
+
+	private static void checkBulkArguments( double[] src, int srcOffset, int srcStride,
+											double[] dst, int dstOffset, int dstStride, int count ) {
+		if (count < 0 || srcOffset < 0 || dstOffset < 0)
+			throw new IllegalArgumentException("Negative count or offset");
+		if (srcOffset + (long)count*srcStride > src.length)
+			throw new IllegalArgumentException("Input array is too small");
+		if (dstOffset + (long)count*dstStride > dst.length)
+			throw new IllegalArgumentException("Output array is too small");
 	}
 
 	private static DMatrixRMaj checkDeclare3x3( @Nullable DMatrixRMaj R ) {
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry;
+
+import georegression.struct.EulerType;
+import org.ddogleg.DDoglegConcurrency;
+
+/**
+ * Concurrent implementations of the bulk conversions in {@link ConvertRotation3D_F64}. Every rotation is converted
+ * independently, so the arrays are split into blocks which are processed by different threads.
+ *
+ * @author Peter Abeles
+ */
+public class ConvertRotation3D_MT_F64 {
+
+	/** There needs to be at least this many rotations for it to use the concurrent implementation */
+	public static int minimumConcurrent = 10_000;
+
+	/**
+	 * Concurrent version of {@link ConvertRotation3D_F64#quaternionToMatrix(double[], int, double[], int, int)}
+	 */
+	public static void quaternionToMatrix( double[] quaternions, int quatOffset,
+										   double[] matrices, int matrixOffset, int count ) {
+		if (count < minimumConcurrent) {
+			ConvertRotation3D_F64.quaternionToMatrix(quaternions, quatOffset, matrices, matrixOffset, count);
+			return;
+		}
+		DDoglegConcurrency.loopBlocks(0, count, ( idx0, idx1 ) -> ConvertRotation3D_F64.quaternionToMatrix(
+				quaternions, quatOffset + idx0*4, matrices, matrixOffset + idx0*9, idx1 - idx0));
+	}
+
+	/**
+	 * Concurrent version of {@link ConvertRotation3D_F64#matrixToQuaternion(double[], int, double[], int, int)}
+	 */
+	public static void matrixToQuaternion( double[] matrices, int matrixOffset,
+										   double[] quaternions, int quatOffset, int count ) {
+		if (count < minimumConcurrent) {
+			ConvertRotation3D_F64.matrixToQuaternion(matrices, matrixOffset, quaternions, quatOffset, count);
+			return;
+		}
+		DDoglegConcurrency.loopBlocks(0, count, ( idx0, idx1 ) -> ConvertRotation3D_F64.matrixToQuaternion(
+				matrices, matrixOffset + idx0*9, quaternions, quatOffset + idx0*4, idx1 - idx0));
+	}
+
+	/**
+	 * Concurrent version of
+	 * {@link ConvertRotation3D_F64#eulerToQuaternion(EulerType, double[], int, double[], int, int)}
+	 */
+	public static void eulerToQuaternion( EulerType type, double[] euler, int eulerOffset,
+										  double[] quaternions, int quatOffset, int count ) {
+		if (count < minimumConcurrent) {
+			ConvertRotation3D_F64.eulerToQuaternion(type, euler, eulerOffset, quaternions, quatOffset, count);
+			return;
+		}
+		DDoglegConcurrency.loopBlocks(0, count, ( idx0, idx1 ) -> ConvertRotation3D_F64.eulerToQuaternion(
+				type, euler, eulerOffset + idx0*3, quaternions, quatOffset + idx0*4, idx1 - idx0));
+	}
+
+	/**
+	 * Concurrent version of
+	 * {@link ConvertRotation3D_F64#quaternionToEuler(double[], int, EulerType, double[], int, int)}
+	 */
+	public static void quaternionToEuler( double[] quaternions, int quatOffset, EulerType type,
+										  double[] euler, int eulerOffset, int count ) {
+		if (count < minimumConcurrent) {
+			ConvertRotation3D_F64.quaternionToEuler(quaternions, quatOffset, type, euler, eulerOffset, count);
+			return;
+		}
+		DDoglegConcurrency.loopBlocks(0, count, ( idx0, idx1 ) -> ConvertRotation3D_F64.quaternionToEuler(
+				quaternions, quatOffset + idx0*4, type, euler, eulerOffset + idx0*3, idx1 - idx0));
+	}
+}
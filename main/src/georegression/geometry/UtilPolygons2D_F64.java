@@ -18,8 +18,9 @@
 
 package georegression.geometry;
 
+import georegression.geometry.lines.IntersectionSegmentsSweep_F64;
 import georegression.geometry.polygon.ThreeIndexes;
-import georegression.geometry.polygon.TriangulateSimpleRemoveEars_F64;
+import georegression.geometry.polygon.TriangulateMonotone_F64;
 import georegression.metric.Distance2D_F64;
 import georegression.metric.Intersection2D_F64;
 import georegression.struct.line.LineSegment2D_F64;
@@ -81,6 +82,18 @@ public class UtilPolygons2D_F64 {
 	 * @return true if simple or false if complex.
 	 */
 	public static PolygonInfo isSimple(Polygon2D_F64 p, @Nullable PolygonInfo result, double tol) {
+		return isSimple(p, result, tol, null);
+	}
+
+	/**
+	 * Same as {@link #isSimple(Polygon2D_F64, PolygonInfo, double)} but the sweep line used to check for self
+	 * intersections is provided so that memory can be reused when called many times.
+	 *
+	 * @param sweep (Input) Used to check for self intersections. If null a new instance is created. Its
+	 * configuration is restored before returning.
+	 */
+	public static PolygonInfo isSimple(Polygon2D_F64 p, @Nullable PolygonInfo result, double tol,
+									   @Nullable IntersectionSegmentsSweep_F64 sweep) {
 		if (result==null)
 			result = new PolygonInfo();
 		result.reset();
@@ -133,10 +146,9 @@ public class UtilPolygons2D_F64 {
 		} else if (!concave) {
 			result.type = PolygonInfo.Type.CONVEX;
 			result.ccw = wind > 0;
-		} else if (isSelfIntersectingBrute(p, tol)) {
-			// Need to examine all pairs of edges for intersections now. This implements the brute force O(N^2) algorithm
-			// found in numerical recipes. They suggest doing something smarter than this for N>10
-			// See Computational Geometry in C Section 7.7 for a better approach
+		} else if (isSelfIntersecting(p, tol, sweep)) {
+			// Need to examine all pairs of edges for intersections now. Numerical recipes suggests doing something
+			// smarter than the brute force O(N^2) algorithm for N>10, so a sweep line is used instead.
 			result.type = PolygonInfo.Type.COMPLEX;
 		} else {
 			result.ccw = wind > 0;
@@ -146,6 +158,50 @@ public class UtilPolygons2D_F64 {
 		return result;
 	}
 
+	/**
+	 * Checks for self intersection using a sweep line in O(N log N). Two sides are intersecting using the same
+	 * definition as {@link #isSelfIntersectingBrute}.
+	 *
+	 * @see IntersectionSegmentsSweep_F64
+	 *
+	 * @param p (Input) the polygon
+	 * @param tol (Input) tolerance for testing if lines are colinear
+	 * @return true if self intersection
+	 */
+	public static boolean isSelfIntersecting( Polygon2D_F64 p, double tol ) {
+		return isSelfIntersecting(p, tol, null);
+	}
+
+	/**
+	 * Same as {@link #isSelfIntersecting(Polygon2D_F64, double)} but the sweep line is provided so that memory
+	 * can be reused when called many times. The sweep's configuration is changed while checking the polygon
+	 * and restored afterwards. Its found intersections are modified.
+	 *
+	 * @param p (Input) the polygon
+	 * @param tol (Input) tolerance for testing if lines are colinear
+	 * @param sweep (Input) Used to find the intersections. If null a new instance is created.
+	 * @return true if self intersection
+	 */
+	public static boolean isSelfIntersecting( Polygon2D_F64 p, double tol,
+											  @Nullable IntersectionSegmentsSweep_F64 sweep ) {
+		if (sweep == null)
+			sweep = new IntersectionSegmentsSweep_F64();
+
+		double origTol = sweep.tol;
+		boolean origIncludeEndPoints = sweep.includeEndPoints;
+		boolean origStopAtFirst = sweep.stopAtFirst;
+
+		sweep.tol = tol;
+		sweep.includeEndPoints = false;
+		sweep.stopAtFirst = true;
+		boolean found = sweep.process(p);
+
+		sweep.tol = origTol;
+		sweep.includeEndPoints = origIncludeEndPoints;
+		sweep.stopAtFirst = origStopAtFirst;
+		return found;
+	}
+
 	/**
 	 * Brute force algorithm which checks for self intersection.
 	 *
@@ -172,17 +228,35 @@ public class UtilPolygons2D_F64 {
 	}
 
 	/**
-	 * Triangulates the simple polygon in O(N^2). Output is represented by sets of indexes where
+	 * Triangulates the simple polygon in O(N*log(N)). Output is represented by sets of indexes where
 	 * each index is the index of the vertex in the input polygon.
 	 *
-	 * @see TriangulateSimpleRemoveEars_F64
+	 * @see TriangulateMonotone_F64
 	 *
 	 * @param p (Input) Polygon
 	 * @param triangles (Output) Triangles.
+	 * @throws IllegalArgumentException If the polygon is degenerate, e.g. touches itself at a repeated vertex
 	 */
 	public static void triangulate(Polygon2D_F64 p, DogArray<ThreeIndexes> triangles) {
-		var alg = new TriangulateSimpleRemoveEars_F64();
-		alg.process(p,triangles);
+		var alg = new TriangulateMonotone_F64();
+		if (!alg.process(p,triangles))
+			throw new IllegalArgumentException("Polygon is degenerate and can't be triangulated");
+	}
+
+	/**
+	 * Triangulates the polygon with holes in O(N*log(N)). Indexes of vertexes in the holes come after
+	 * the outer boundary's, in the same order as the holes.
+	 *
+	 * @see TriangulateMonotone_F64
+	 *
+	 * @param p (Input) Polygon with holes
+	 * @param triangles (Output) Triangles.
+	 * @throws IllegalArgumentException If the polygon is degenerate, e.g. touches itself at a repeated vertex
+	 */
+	public static void triangulate(PolygonHoles2D_F64 p, DogArray<ThreeIndexes> triangles) {
+		var alg = new TriangulateMonotone_F64();
+		if (!alg.process(p,triangles))
+			throw new IllegalArgumentException("Polygon is degenerate and can't be triangulated");
 	}
 
 	/**
@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.GeoTuple3D_F64;
+import georegression.struct.so.Quaternion_F64;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Functions for manipulating quaternions. Quaternions use the Hamilton convention, which is the same convention
+ * as {@link ConvertRotation3D_F64#quaternionToMatrix}, so that rotating by the product a*b is the same as
+ * rotating by b and then a.
+ *
+ * @author Peter Abeles
+ */
+public class UtilQuaternion_F64 {
+	/**
+	 * Computes the Hamilton product c = a*b. The output can be the same instance as the inputs.
+	 *
+	 * @param a (Input) quaternion
+	 * @param b (Input) quaternion
+	 * @param c (Output) product. If null a new instance is created.
+	 * @return The product
+	 */
+	public static Quaternion_F64 multiply( Quaternion_F64 a, Quaternion_F64 b, @Nullable Quaternion_F64 c ) {
+		if (c == null)
+			c = new Quaternion_F64();
+
+		double w = a.w*b.w - a.x*b.x - a.y*b.y - a.z*b.z;
+		double x = a.w*b.x + a.x*b.w + a.y*b.z - a.z*b.y;
+		double y = a.w*b.y - a.x*b.z + a.y*b.w + a.z*b.x;
+		double z = a.w*b.z + a.x*b.y - a.y*b.x + a.z*b.w;
+
+		return c.setTo(w, x, y, z);
+	}
+
+	/**
+	 * Computes the conjugate, which is the inverse of a unit quaternion. The output can be the same instance
+	 * as the input.
+	 */
+	public static Quaternion_F64 conjugate( Quaternion_F64 q, @Nullable Quaternion_F64 output ) {
+		if (output == null)
+			output = new Quaternion_F64();
+		return output.setTo(q.w, -q.x, -q.y, -q.z);
+	}
+
+	/**
+	 * Dot product between the two quaternions when treated as 4-vectors
+	 */
+	public static double dot( Quaternion_F64 a, Quaternion_F64 b ) {
+		return a.w*b.w + a.x*b.x + a.y*b.y + a.z*b.z;
+	}
+
+	/**
+	 * Rotates the tuple by the unit quaternion, i.e. dst = q*src*conj(q). Faster than converting the quaternion
+	 * into a rotation matrix when only a few points are rotated. src and dst can be the same instance.
+	 *
+	 * @param q (Input) Unit quaternion
+	 * @param src (Input) The tuple being rotated
+	 * @param dst (Output) The rotated tuple
+	 */
+	public static <T extends GeoTuple3D_F64<T>> T rotate( Quaternion_F64 q, T src, T dst ) {
+		// dst = src + 2*w*(v x src) + 2*v x (v x src), where v = (x,y,z)
+		double tx = 2.0*(q.y*src.z - q.z*src.y);
+		double ty = 2.0*(q.z*src.x - q.x*src.z);
+		double tz = 2.0*(q.x*src.y - q.y*src.x);
+
+		double x = src.x + q.w*tx + q.y*tz - q.z*ty;
+		double y = src.y + q.w*ty + q.z*tx - q.x*tz;
+		double z = src.z + q.w*tz + q.x*ty - q.y*tx;
+
+		dst.setTo(x, y, z);
+		return dst;
+	}
+
+	/**
+	 * Spherical linear interpolation (SLERP) between two unit quaternions. The interpolation will follow the
+	 * shortest path between the two rotations. Output can be the same instance as the inputs.
+	 *
+	 * @param a (Input) Rotation at t = 0
+	 * @param b (Input) Rotation at t = 1
+	 * @param t (Input) Interpolation location. Typically 0 to 1.
+	 * @param output (Output) Interpolated rotation. If null a new instance is created.
+	 * @return The interpolated rotation
+	 */
+	public static Quaternion_F64 slerp( Quaternion_F64 a, Quaternion_F64 b, double t, @Nullable Quaternion_F64 output ) {
+		if (output == null)
+			output = new Quaternion_F64();
+
+		// q and -q are the same rotation, pick the one which is closest
+		double cosTheta = dot(a, b);
+		double sign = 1.0;
+		if (cosTheta < 0.0) {
+			cosTheta = -cosTheta;
+			sign = -1.0;
+		}
+
+		double scaleA, scaleB;
+		if (cosTheta > 1.0 - GrlConstants.TEST_F64) {
+			// The angle is too small to compute sin() accurately. Linear interpolation is accurate here.
+			scaleA = 1.0 - t;
+			scaleB = t;
+		} else {
+			double theta = Math.acos(cosTheta);
+			double sinTheta = Math.sin(theta);
+			scaleA = Math.sin((1.0 - t)*theta)/sinTheta;
+			scaleB = Math.sin(t*theta)/sinTheta;
+		}
+		scaleB *= sign;
+
+		output.setTo(
+				scaleA*a.w + scaleB*b.w,
+				scaleA*a.x + scaleB*b.x,
+				scaleA*a.y + scaleB*b.y,
+				scaleA*a.z + scaleB*b.z);
+		output.normalize();
+		return output;
+	}
+
+	/**
+	 * Logarithm of a unit quaternion. The output is a pure quaternion (w = 0) with the vector part being
+	 * (theta/2)*n, where theta is the rotation angle and n the rotation axis. The output can be the same instance
+	 * as the input.
+	 *
+	 * @param q (Input) Unit quaternion
+	 * @param output (Output) Logarithm of the quaternion. If null a new instance is created.
+	 * @return The logarithm
+	 */
+	public static Quaternion_F64 log( Quaternion_F64 q, @Nullable Quaternion_F64 output ) {
+		if (output == null)
+			output = new Quaternion_F64();
+
+		double norm = Math.sqrt(q.x*q.x + q.y*q.y + q.z*q.z);
+		// sin(x)/x goes to one as x goes to zero
+		double scale = norm < 1.0e-12 ? 1.0/q.w : Math.atan2(norm, q.w)/norm;
+		return output.setTo(0.0, q.x*scale, q.y*scale, q.z*scale);
+	}
+
+	/**
+	 * Exponential of a pure quaternion, i.e. w is ignored. This is the inverse of {@link #log}. The output can be
+	 * the same instance as the input.
+	 *
+	 * @param q (Input) Pure quaternion
+	 * @param output (Output) Unit quaternion. If null a new instance is created.
+	 * @return The exponential
+	 */
+	public static Quaternion_F64 exp( Quaternion_F64 q, @Nullable Quaternion_F64 output ) {
+		if (output == null)
+			output = new Quaternion_F64();
+
+		double theta = Math.sqrt(q.x*q.x + q.y*q.y + q.z*q.z);
+		double scale = theta < 1.0e-12 ? 1.0 : Math.sin(theta)/theta;
+		return output.setTo((double)Math.cos(theta), q.x*scale, q.y*scale, q.z*scale);
+	}
+
+	/**
+	 * Normalizes an array of quaternions so that they have a norm of one. Quaternions are packed as (w,x,y,z).
+	 *
+	 * @param quaternions (Input/Output) packed quaternions
+	 * @param offset (Input) array index of the first quaternion
+	 * @param count (Input) number of quaternions
+	 */
+	public static void normalize( double[] quaternions, int offset, int count ) {
+		checkArray(quaternions, offset, count);
+		for (int i = 0, idx = offset; i < count; i++, idx += 4) {
+			double n2 = quaternions[idx]*quaternions[idx] + quaternions[idx + 1]*quaternions[idx + 1] +
+					quaternions[idx + 2]*quaternions[idx + 2] + quaternions[idx + 3]*quaternions[idx + 3];
+			double scale = 1.0/(double)Math.sqrt(n2);
+			quaternions[idx] *= scale;
+			quaternions[idx + 1] *= scale;
+			quaternions[idx + 2] *= scale;
+			quaternions[idx + 3] *= scale;
+		}
+	}
+
+	/**
+	 * <p>Fast normalization of quaternions which are already close to unit length, e.g. a stream of quaternions
+	 * which slowly drift from numerical errors as they are integrated. Instead of 1/sqrt(n<sup>2</sup>) a single
+	 * Newton step from one is used, (3-n<sup>2</sup>)/2, which avoids the square root and division.
+	 * The error after normalizing is about 3/8*(n<sup>2</sup>-1)<sup>2</sup>. If |n<sup>2</sup>-1| &gt; 1e-4
+	 * then the exact normalization is used instead, so the norm is always within 4e-9 of one.</p>
+	 *
+	 * @param quaternions (Input/Output) packed quaternions, (w,x,y,z)
+	 * @param offset (Input) array index of the first quaternion
+	 * @param count (Input) number of quaternions
+	 */
+	public static void normalizeApprox( double[] quaternions, int offset, int count ) {
+		checkArray(quaternions, offset, count);
+		for (int i = 0, idx = offset; i < count; i++, idx += 4) {
+			double n2 = quaternions[idx]*quaternions[idx] + quaternions[idx + 1]*quaternions[idx + 1] +
+					quaternions[idx + 2]*quaternions[idx + 2] + quaternions[idx + 3]*quaternions[idx + 3];
+			double scale = Math.abs(n2 - 1.0) <= 1.0e-4 ? 0.5*(3.0 - n2) : 1.0/(double)Math.sqrt(n2);
+			quaternions[idx] *= scale;
+			quaternions[idx + 1] *= scale;
+			quaternions[idx + 2] *= scale;
+			quaternions[idx + 3] *= scale;
+		}
+	}
+
+	private static void checkArray( double[] quaternions, int offset, int count ) {
+		if (offset < 0 || count < 0 || offset + 4L*count > quaternions.length)
+			throw new IllegalArgumentException("Array is too small for the requested quaternions");
+	}
+}
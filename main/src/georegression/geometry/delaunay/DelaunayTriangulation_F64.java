@@ -0,0 +1,944 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.delaunay;
+
+import georegression.geometry.polygon.ThreeIndexes;
+import georegression.struct.line.LineSegment2D_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import georegression.struct.shapes.Rectangle2D_F64;
+import lombok.Getter;
+import org.ddogleg.sorting.QuickSort_F64;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_F64;
+import org.ddogleg.struct.DogArray_I32;
+import org.ddogleg.struct.FastArray;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static georegression.geometry.delaunay.RobustPredicates2D_F64.inCircle;
+import static georegression.geometry.delaunay.RobustPredicates2D_F64.orient;
+
+/**
+ * <p>
+ * Incremental constrained Delaunay triangulation of a set of 2D points. Points are inserted one at a time by
+ * splitting the triangle which contains them and then restoring the Delaunay property with edge flips [1].
+ * Points are inserted in the order of a Hilbert curve so that walking from the previous triangle to the one
+ * which contains the next point is fast, which makes building the triangulation O(N log N) in practice.
+ * All geometric tests are done with {@link RobustPredicates2D_F64} so the results are always consistent.
+ * </p>
+ *
+ * <p>
+ * The outside of the convex hull is covered with "ghost" triangles, which have one vertex at infinity
+ * ({@link #GHOST}). This removes all special cases for points which are outside the current convex hull.
+ * Ghost triangles are never returned to the user.
+ * </p>
+ *
+ * <p>
+ * Constraints are edges which must be in the triangulation. They are inserted after the points by flipping the
+ * edges which they intersect [2], after which the triangulation is constrained Delaunay. Constraints can't cross
+ * each other. Once the triangulation has been built it can be used to quickly find the triangle or the closest
+ * vertex to a point, and to compute the dual Voronoi diagram.
+ * </p>
+ *
+ * <p>
+ * Duplicate points are not added to the triangulation, only the one with the lowest index is. If all the points are collinear then there will be
+ * no triangles.
+ * </p>
+ *
+ * <ol>
+ *     <li>Mark de Berg, et. al. "Computational Geometry: Algorithms and Applications" 3rd Ed. Chapter 9</li>
+ *     <li>S. W. Sloan, "A fast algorithm for generating constrained Delaunay triangulations"
+ *     Computers &amp; Structures 47.3 (1993): 441-450</li>
+ * </ol>
+ *
+ * @author Peter Abeles
+ */
+public class DelaunayTriangulation_F64 {
+	/** Index of the vertex at infinity which is used by ghost triangles */
+	public static final int GHOST = -1;
+
+	/** Copy of all the points. Index of a point is its index in the input list */
+	@Getter protected final DogArray<Point2D_F64> vertexes = new DogArray<>(Point2D_F64::new);
+
+	// A triangle which contains the vertex. null if the vertex is not part of the triangulation
+	protected final FastArray<Triangle> vertexTriangle = new FastArray<>(Triangle.class);
+
+	// All triangles, including ghost triangles
+	protected final DogArray<Triangle> triangles = new DogArray<>(Triangle::new, Triangle::reset);
+
+	// Where the next walk will start from
+	protected @Nullable Triangle lastTriangle;
+	// Used to select which edge is tested first when walking
+	protected int walkCounter;
+
+	// Order that points are inserted
+	protected final DogArray_F64 hilbert = new DogArray_F64();
+	protected final DogArray_I32 order = new DogArray_I32();
+	protected final QuickSort_F64 sorter = new QuickSort_F64();
+
+	// Triangles which need to be checked to see if they are still Delaunay
+	protected final FastArray<Triangle> stack = new FastArray<>(Triangle.class);
+
+	// Storage for inserting constraints. Edges are stored as pairs of vertexes
+	protected final DogArray_I32 crossing = new DogArray_I32();
+	protected final DogArray_I32 created = new DogArray_I32();
+	protected final DogArray_I32 polygonVertexes = new DogArray_I32();
+
+	// Work space for computing Voronoi cells
+	protected final DogArray_I32 neighbors = new DogArray_I32();
+	protected final Polygon2D_F64 workCell = new Polygon2D_F64();
+
+	/**
+	 * Computes the Delaunay triangulation of the points. Any previous triangulation and constraints are discarded.
+	 *
+	 * @param points (Input) Points which are to be triangulated. Not modified.
+	 */
+	public void process( List<Point2D_F64> points ) {
+		reset();
+		vertexes.resize(points.size());
+		vertexTriangle.resize(points.size());
+		for (int i = 0; i < points.size(); i++) {
+			vertexes.get(i).setTo(points.get(i));
+			vertexTriangle.set(i, null);
+		}
+
+		computeInsertOrder();
+
+		// Find three points which are not collinear to create the first triangle
+		if (order.size < 3)
+			return;
+		int a = order.get(0);
+		int b = -1, c = -1;
+		int i = 1;
+		for (; i < order.size; i++) {
+			if (!vertexes.get(order.get(i)).isIdentical(vertexes.get(a), 0.0)) {
+				b = order.get(i);
+				break;
+			}
+		}
+		for (i++; i < order.size && b != -1; i++) {
+			if (orient(vertexes.get(a), vertexes.get(b), vertexes.get(order.get(i))) != 0) {
+				c = order.get(i);
+				break;
+			}
+		}
+		if (c == -1)
+			return;
+		createFirstTriangle(a, b, c);
+
+		for (i = 1; i < order.size; i++) {
+			int index = order.get(i);
+			if (index != b && index != c)
+				insert(index);
+		}
+	}
+
+	/**
+	 * Adds a point to the triangulation.
+	 *
+	 * @param p (Input) The point. Not modified.
+	 * @return Index of the vertex. If the point has the same location as an existing vertex then that vertex's
+	 * index is returned.
+	 */
+	public int addPoint( Point2D_F64 p ) {
+		if (triangles.size == 0)
+			throw new IllegalArgumentException("Need to call process() with at least 3 points which are not collinear");
+
+		int duplicate = findDuplicate(locate(p), p);
+		if (duplicate != -1)
+			return duplicate;
+
+		int index = vertexes.size;
+		vertexes.grow().setTo(p);
+		vertexTriangle.add(null);
+		insert(index);
+		return index;
+	}
+
+	/**
+	 * Adds a constraint between two vertexes, i.e. the edge between them must be part of the triangulation.
+	 * If other vertexes lie along the edge then the constraint is broken up into several edges.
+	 *
+	 * @param vertexA Index of a vertex
+	 * @param vertexB Index of a vertex
+	 * @throws IllegalArgumentException If it would cross another constraint or a vertex isn't in the triangulation
+	 */
+	public void addConstraint( int vertexA, int vertexB ) {
+		if (vertexA == vertexB)
+			throw new IllegalArgumentException("The two vertexes must be different");
+		if (vertexTriangle.get(vertexA) == null || vertexTriangle.get(vertexB) == null)
+			throw new IllegalArgumentException("Vertex is not part of the triangulation");
+
+		while (vertexA != vertexB) {
+			vertexA = insertConstraint(vertexA, vertexB);
+		}
+	}
+
+	/**
+	 * Adds a constraint along the line segment. The end points are added as vertexes if needed.
+	 */
+	public void addConstraint( LineSegment2D_F64 segment ) {
+		int a = addPoint(segment.a);
+		int b = addPoint(segment.b);
+		addConstraint(a, b);
+	}
+
+	/**
+	 * Adds all the sides of the polygon as constraints. The vertexes are added to the triangulation if needed.
+	 */
+	public void addConstraints( Polygon2D_F64 polygon ) {
+		polygonVertexes.reset();
+		for (int i = 0; i < polygon.size(); i++) {
+			polygonVertexes.add(addPoint(polygon.get(i)));
+		}
+		for (int i = 0, j = polygon.size() - 1; i < polygon.size(); j = i, i++) {
+			if (polygonVertexes.get(i) != polygonVertexes.get(j))
+				addConstraint(polygonVertexes.get(j), polygonVertexes.get(i));
+		}
+	}
+
+	/**
+	 * Returns all the triangles. Each triangle is in counter-clockwise order.
+	 *
+	 * @param output (Output) Triangles. Indexes refer to {@link #getVertexes()}
+	 */
+	public void getTriangles( DogArray<ThreeIndexes> output ) {
+		output.reset();
+		for (int i = 0; i < triangles.size; i++) {
+			Triangle t = triangles.get(i);
+			if (t.isGhost())
+				continue;
+			ThreeIndexes out = output.grow();
+			out.idx0 = t.v[0];
+			out.idx1 = t.v[1];
+			out.idx2 = t.v[2];
+		}
+	}
+
+	/**
+	 * Finds the triangle which contains the point by walking from the previous triangle it found. Fast when
+	 * repeated queries are near each other.
+	 *
+	 * @param p (Input) Point
+	 * @param output (Output) Vertexes in the triangle which contains the point
+	 * @return true if the point is inside the triangulation or false if it's outside the convex hull
+	 */
+	public boolean findTriangle( Point2D_F64 p, ThreeIndexes output ) {
+		if (triangles.size == 0)
+			return false;
+		Triangle t = locate(p);
+		if (t.isGhost())
+			return false;
+		output.idx0 = t.v[0];
+		output.idx1 = t.v[1];
+		output.idx2 = t.v[2];
+		return true;
+	}
+
+	/**
+	 * Finds the vertex which is closest to the point. The containing triangle is found and then it moves to
+	 * adjacent vertexes which are closer to the point. This is guaranteed to find the closest vertex
+	 * if there are no constraints. Equivalent to finding the Voronoi cell which contains the point.
+	 *
+	 * @param p (Input) Point
+	 * @return index of the closest vertex or -1 if there are no vertexes
+	 */
+	public int findNearest( Point2D_F64 p ) {
+		// Degenerate case which has no triangles
+		if (triangles.size == 0) {
+			int best = -1;
+			double bestDistance = Double.MAX_VALUE;
+			for (int i = 0; i < vertexes.size; i++) {
+				double d = vertexes.get(i).distance2(p);
+				if (d < bestDistance) {
+					bestDistance = d;
+					best = i;
+				}
+			}
+			return best;
+		}
+
+		Triangle t = locate(p);
+		int best = -1;
+		double bestDistance = Double.MAX_VALUE;
+		for (int i = 0; i < 3; i++) {
+			if (t.v[i] == GHOST)
+				continue;
+			double d = vertexes.get(t.v[i]).distance2(p);
+			if (d < bestDistance) {
+				bestDistance = d;
+				best = t.v[i];
+			}
+		}
+
+		// Greedy search through the neighbors
+		boolean improved = true;
+		while (improved) {
+			improved = false;
+			findNeighbors(best, neighbors);
+			for (int i = 0; i < neighbors.size; i++) {
+				double d = vertexes.get(neighbors.get(i)).distance2(p);
+				if (d < bestDistance) {
+					bestDistance = d;
+					best = neighbors.get(i);
+					improved = true;
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Finds all the vertexes which are connected to the vertex by an edge
+	 *
+	 * @param vertex (Input) Index of the vertex
+	 * @param output (Output) Connected vertexes in counter-clockwise order
+	 */
+	public void findNeighbors( int vertex, DogArray_I32 output ) {
+		output.reset();
+		Triangle start = vertexTriangle.get(vertex);
+		if (start == null)
+			return;
+		Triangle t = start;
+		do {
+			int k = t.indexOf(vertex);
+			if (t.v[(k + 1)%3] != GHOST)
+				output.add(t.v[(k + 1)%3]);
+			t = t.n[(k + 2)%3];
+		} while (t != start);
+	}
+
+	/**
+	 * Computes the Voronoi diagram, which is the dual of the Delaunay triangulation. Cells along the convex
+	 * hull are unbounded so all cells are clipped by the rectangle. Constraints are ignored.
+	 *
+	 * @param bounds (Input) All cells are clipped to be inside this rectangle
+	 * @param cells (Output) The Voronoi cell for each vertex in counter-clockwise order. Cells are empty if
+	 * the vertex isn't part of the triangulation or is entirely outside the bounds.
+	 */
+	public void computeVoronoi( Rectangle2D_F64 bounds, DogArray<Polygon2D_F64> cells ) {
+		cells.resize(vertexes.size);
+		for (int vertex = 0; vertex < vertexes.size; vertex++) {
+			Polygon2D_F64 cell = cells.get(vertex);
+			cell.vertexes.resize(4);
+			cell.get(0).setTo(bounds.p0.x, bounds.p0.y);
+			cell.get(1).setTo(bounds.p1.x, bounds.p0.y);
+			cell.get(2).setTo(bounds.p1.x, bounds.p1.y);
+			cell.get(3).setTo(bounds.p0.x, bounds.p1.y);
+
+			Point2D_F64 site = vertexes.get(vertex);
+			if (triangles.size == 0) {
+				// All points are collinear. Compare against every other point
+				for (int i = 0; i < vertexes.size && cell.size() > 0; i++) {
+					if (i == vertex)
+						continue;
+					if (vertexes.get(i).isIdentical(site, 0.0)) {
+						if (i < vertex)
+							cell.vertexes.reset();
+						continue;
+					}
+					clipCloser(site, vertexes.get(i), cell);
+				}
+				continue;
+			}
+
+			if (vertexTriangle.get(vertex) == null) {
+				cell.vertexes.reset();
+				continue;
+			}
+
+			// Only the neighbors in the Delaunay triangulation can share an edge with the cell
+			findNeighbors(vertex, neighbors);
+			for (int i = 0; i < neighbors.size && cell.size() > 0; i++) {
+				clipCloser(site, vertexes.get(neighbors.get(i)), cell);
+			}
+		}
+	}
+
+	/**
+	 * Removes the part of the cell which is closer to 'other' than to 'site'
+	 */
+	void clipCloser( Point2D_F64 site, Point2D_F64 other, Polygon2D_F64 cell ) {
+		// points which are closer to site satisfy nx*x + ny*y <= c
+		double nx = other.x - site.x;
+		double ny = other.y - site.y;
+		double c = (other.x*other.x + other.y*other.y - site.x*site.x - site.y*site.y)/2.0;
+
+		workCell.vertexes.reset();
+		for (int i = 0, j = cell.size() - 1; i < cell.size(); j = i, i++) {
+			Point2D_F64 a = cell.get(j);
+			Point2D_F64 b = cell.get(i);
+			double da = nx*a.x + ny*a.y - c;
+			double db = nx*b.x + ny*b.y - c;
+			if ((da < 0.0 && db > 0.0) || (da > 0.0 && db < 0.0)) {
+				double t = da/(da - db);
+				workCell.vertexes.grow().setTo(a.x + t*(b.x - a.x), a.y + t*(b.y - a.y));
+			}
+			if (db <= 0.0)
+				workCell.vertexes.grow().setTo(b);
+		}
+		cell.setTo(workCell);
+	}
+
+	public void reset() {
+		vertexes.reset();
+		vertexTriangle.reset();
+		triangles.reset();
+		lastTriangle = null;
+	}
+
+	/**
+	 * Sorts the points along a Hilbert curve so that points which are inserted one after the other are
+	 * close to each other
+	 */
+	void computeInsertOrder() {
+		final int N = vertexes.size;
+		double x0 = Double.MAX_VALUE, y0 = Double.MAX_VALUE;
+		double x1 = -Double.MAX_VALUE, y1 = -Double.MAX_VALUE;
+		for (int i = 0; i < N; i++) {
+			Point2D_F64 p = vertexes.get(i);
+			x0 = Math.min(x0, p.x);
+			y0 = Math.min(y0, p.y);
+			x1 = Math.max(x1, p.x);
+			y1 = Math.max(y1, p.y);
+		}
+		double scale = Math.max(x1 - x0, y1 - y0);
+		scale = scale == 0.0 ? 0.0 : 0xFFFF/scale;
+
+		hilbert.resize(N);
+		order.resize(N);
+		for (int i = 0; i < N; i++) {
+			Point2D_F64 p = vertexes.get(i);
+			hilbert.data[i] = hilbertIndex((int)((p.x - x0)*scale), (int)((p.y - y0)*scale));
+		}
+		sorter.sort(hilbert.data, 0, N, order.data);
+
+		// The sort isn't stable. Points with the same key are put in order of their index so that when there are
+		// duplicates the one with the lowest index is always inserted first and is the one which is kept
+		int start = 0;
+		while (start < N) {
+			double key = hilbert.data[order.data[start]];
+			int end = start + 1;
+			while (end < N && hilbert.data[order.data[end]] == key) {
+				end++;
+			}
+			if (end - start > 1)
+				Arrays.sort(order.data, start, end);
+			start = end;
+		}
+	}
+
+	/**
+	 * Distance along a Hilbert curve which fills a 2^16 by 2^16 grid
+	 */
+	static long hilbertIndex( int x, int y ) {
+		long d = 0;
+		for (int s = 1 << 15; s > 0; s /= 2) {
+			int rx = (x & s) > 0 ? 1 : 0;
+			int ry = (y & s) > 0 ? 1 : 0;
+			d += (long)s*s*((3*rx) ^ ry);
+			// rotate the quadrant
+			if (ry == 0) {
+				if (rx == 1) {
+					x = s - 1 - x;
+					y = s - 1 - y;
+				}
+				int tmp = x;
+				x = y;
+				y = tmp;
+			}
+		}
+		return d;
+	}
+
+	/**
+	 * Creates a triangle from the three points and the ghost triangles around it
+	 */
+	void createFirstTriangle( int a, int b, int c ) {
+		if (orient(vertexes.get(a), vertexes.get(b), vertexes.get(c)) < 0) {
+			int tmp = b;
+			b = c;
+			c = tmp;
+		}
+		Triangle t = triangles.grow().setTo(a, b, c);
+		Triangle gab = triangles.grow().setTo(b, a, GHOST);
+		Triangle gbc = triangles.grow().setTo(c, b, GHOST);
+		Triangle gca = triangles.grow().setTo(a, c, GHOST);
+
+		link(t, 0, gab, false);
+		link(t, 1, gbc, false);
+		link(t, 2, gca, false);
+		link(gab, 1, gca, false);
+		link(gca, 1, gbc, false);
+		link(gbc, 1, gab, false);
+
+		vertexTriangle.set(a, t);
+		vertexTriangle.set(b, t);
+		vertexTriangle.set(c, t);
+		lastTriangle = t;
+	}
+
+	/**
+	 * Inserts a vertex into the triangulation and then restores the Delaunay property
+	 */
+	void insert( int index ) {
+		Point2D_F64 p = vertexes.get(index);
+		Triangle t = locate(p);
+
+		// A duplicate of a vertex on the convex hull can be located inside a ghost triangle
+		if (findDuplicate(t, p) != -1)
+			return;
+
+		if (t.isGhost()) {
+			splitTriangle(t, index);
+		} else {
+			// See if it lies on an edge
+			int onEdge = -1;
+			for (int i = 0; i < 3; i++) {
+				if (orient(vertexes.get(t.v[i]), vertexes.get(t.v[(i + 1)%3]), p) == 0)
+					onEdge = i;
+			}
+			if (onEdge == -1)
+				splitTriangle(t, index);
+			else
+				splitEdge(t, onEdge, index);
+		}
+
+		// Flip edges which are no longer Delaunay. Edge 0 is always the edge opposite the new vertex
+		while (stack.size > 0) {
+			Triangle s = stack.removeTail();
+			if (s.constrained[0] || !inConflict(s.n[0], p))
+				continue;
+			Triangle n = flip(s, 0);
+			stack.add(s);
+			stack.add(n);
+		}
+	}
+
+	/**
+	 * Returns the vertex in the triangle which has the same location as the point or -1 if there is none
+	 */
+	int findDuplicate( Triangle t, Point2D_F64 p ) {
+		for (int i = 0; i < 3; i++) {
+			if (t.v[i] != GHOST && vertexes.get(t.v[i]).isIdentical(p, 0.0))
+				return t.v[i];
+		}
+		return -1;
+	}
+
+	/**
+	 * Splits the triangle into three triangles which share the new vertex
+	 */
+	void splitTriangle( Triangle t, int index ) {
+		int a = t.v[0], b = t.v[1], c = t.v[2];
+		Triangle nab = t.n[0], nbc = t.n[1], nca = t.n[2];
+		boolean cab = t.constrained[0], cbc = t.constrained[1], cca = t.constrained[2];
+
+		Triangle t0 = t.setTo(a, b, index);
+		Triangle t1 = triangles.grow().setTo(b, c, index);
+		Triangle t2 = triangles.grow().setTo(c, a, index);
+
+		link(t0, 0, nab, cab);
+		link(t1, 0, nbc, cbc);
+		link(t2, 0, nca, cca);
+		link(t0, 1, t1, false);
+		link(t1, 1, t2, false);
+		link(t2, 1, t0, false);
+
+		updateVertexTriangles(t0);
+		updateVertexTriangles(t1);
+		updateVertexTriangles(t2);
+
+		stack.add(t0);
+		stack.add(t1);
+		stack.add(t2);
+	}
+
+	/**
+	 * Splits the edge and the two triangles on either side of it. A constrained edge will be split into two
+	 * constrained edges.
+	 */
+	void splitEdge( Triangle t, int edge, int index ) {
+		Triangle n = t.n[edge];
+		int x = t.v[edge], y = t.v[(edge + 1)%3], w = t.v[(edge + 2)%3];
+		int j = n.edgeIndex(y, x);
+		int z = n.v[(j + 2)%3];
+		boolean constrained = t.constrained[edge];
+
+		Triangle tyw = t.n[(edge + 1)%3], twx = t.n[(edge + 2)%3];
+		boolean cyw = t.constrained[(edge + 1)%3], cwx = t.constrained[(edge + 2)%3];
+		Triangle nxz = n.n[(j + 1)%3], nzy = n.n[(j + 2)%3];
+		boolean cxz = n.constrained[(j + 1)%3], czy = n.constrained[(j + 2)%3];
+
+		Triangle t1 = t.setTo(w, x, index);
+		Triangle t2 = triangles.grow().setTo(y, w, index);
+		Triangle n1 = n.setTo(x, z, index);
+		Triangle n2 = triangles.grow().setTo(z, y, index);
+
+		link(t1, 0, twx, cwx);
+		link(t2, 0, tyw, cyw);
+		link(n1, 0, nxz, cxz);
+		link(n2, 0, nzy, czy);
+		link(t1, 1, n1, constrained);
+		link(t1, 2, t2, false);
+		link(t2, 2, n2, constrained);
+		link(n1, 1, n2, false);
+
+		updateVertexTriangles(t1);
+		updateVertexTriangles(t2);
+		updateVertexTriangles(n1);
+		updateVertexTriangles(n2);
+
+		stack.add(t1);
+		stack.add(t2);
+		stack.add(n1);
+		stack.add(n2);
+	}
+
+	/**
+	 * Flips the edge shared by the triangle and its neighbor. If the triangle is (x,y,w) and the edge is (x,y)
+	 * then afterwards 't' will be (x,z,w) and the neighbor (z,y,w), where z is the neighbor's third vertex.
+	 *
+	 * @return The neighbor
+	 */
+	Triangle flip( Triangle t, int edge ) {
+		Triangle n = t.n[edge];
+		int x = t.v[edge], y = t.v[(edge + 1)%3], w = t.v[(edge + 2)%3];
+		int j = n.edgeIndex(y, x);
+		int z = n.v[(j + 2)%3];
+
+		Triangle tyw = t.n[(edge + 1)%3], twx = t.n[(edge + 2)%3];
+		boolean cyw = t.constrained[(edge + 1)%3], cwx = t.constrained[(edge + 2)%3];
+		Triangle nxz = n.n[(j + 1)%3], nzy = n.n[(j + 2)%3];
+		boolean cxz = n.constrained[(j + 1)%3], czy = n.constrained[(j + 2)%3];
+
+		t.setTo(x, z, w);
+		n.setTo(z, y, w);
+		link(t, 0, nxz, cxz);
+		link(t, 1, n, false);
+		link(t, 2, twx, cwx);
+		link(n, 0, nzy, czy);
+		link(n, 1, tyw, cyw);
+
+		updateVertexTriangles(t);
+		updateVertexTriangles(n);
+		return n;
+	}
+
+	/**
+	 * Makes the two triangles neighbors along edge 'edgeA' in triangle 'a'
+	 */
+	static void link( Triangle a, int edgeA, Triangle b, boolean constrained ) {
+		int edgeB = b.edgeIndex(a.v[(edgeA + 1)%3], a.v[edgeA]);
+		a.n[edgeA] = b;
+		b.n[edgeB] = a;
+		a.constrained[edgeA] = constrained;
+		b.constrained[edgeB] = constrained;
+	}
+
+	void updateVertexTriangles( Triangle t ) {
+		for (int i = 0; i < 3; i++) {
+			if (t.v[i] != GHOST)
+				vertexTriangle.set(t.v[i], t);
+		}
+		lastTriangle = t;
+	}
+
+	/**
+	 * Returns true if the point is inside the triangle's circumcircle. For ghost triangles the circumcircle
+	 * becomes the open half plane on the outside of the finite edge plus the inside of the finite edge.
+	 */
+	boolean inConflict( Triangle t, Point2D_F64 p ) {
+		int g = t.indexOf(GHOST);
+		if (g == -1)
+			return inCircle(vertexes.get(t.v[0]), vertexes.get(t.v[1]), vertexes.get(t.v[2]), p) > 0;
+
+		Point2D_F64 a = vertexes.get(t.v[(g + 1)%3]);
+		Point2D_F64 b = vertexes.get(t.v[(g + 2)%3]);
+		int o = orient(a, b, p);
+		if (o != 0)
+			return o > 0;
+		// It's on the line. See if it's inside the segment
+		double dot = (p.x - a.x)*(b.x - a.x) + (p.y - a.y)*(b.y - a.y);
+		return dot > 0.0 && dot < a.distance2(b);
+	}
+
+	/**
+	 * Finds the triangle which contains the point by walking towards it. If the point is outside the convex hull
+	 * then a ghost triangle whose finite edge can be seen from the point is returned. Must only be called after the
+	 * first triangle has been created.
+	 */
+	@SuppressWarnings({"ConstantConditions", "NullAway"})
+	Triangle locate( Point2D_F64 p ) {
+		Triangle t = lastTriangle;
+		if (t.isGhost())
+			t = t.n[(t.indexOf(GHOST) + 1)%3];
+
+		// Walking can get stuck in a loop in constrained triangulations, so give up after visiting every triangle
+		for (int step = 0; step < triangles.size; step++) {
+			if (t.isGhost())
+				break;
+			// Changing which edge is checked first prevents it from getting stuck in a cycle
+			int offset = walkCounter++%3;
+			boolean moved = false;
+			for (int k = 0; k < 3; k++) {
+				int i = (offset + k)%3;
+				if (orient(vertexes.get(t.v[i]), vertexes.get(t.v[(i + 1)%3]), p) < 0) {
+					t = t.n[i];
+					moved = true;
+					break;
+				}
+			}
+			if (!moved)
+				break;
+		}
+
+		if (!contains(t, p))
+			t = locateExhaustive(p);
+		lastTriangle = t;
+		return t;
+	}
+
+	/**
+	 * Finds the triangle which contains the point by checking every triangle
+	 */
+	Triangle locateExhaustive( Point2D_F64 p ) {
+		for (int i = 0; i < triangles.size; i++) {
+			Triangle t = triangles.get(i);
+			if (!t.isGhost() && contains(t, p))
+				return t;
+		}
+		for (int i = 0; i < triangles.size; i++) {
+			Triangle t = triangles.get(i);
+			if (t.isGhost() && contains(t, p))
+				return t;
+		}
+		throw new RuntimeException("BUG! Point isn't contained by any triangle");
+	}
+
+	/**
+	 * Finite triangles contain the point if it's inside or on the border. Ghost triangles contain the point
+	 * if it's strictly outside the finite edge.
+	 */
+	boolean contains( Triangle t, Point2D_F64 p ) {
+		int g = t.indexOf(GHOST);
+		if (g != -1)
+			return orient(vertexes.get(t.v[(g + 1)%3]), vertexes.get(t.v[(g + 2)%3]), p) > 0;
+		for (int i = 0; i < 3; i++) {
+			if (orient(vertexes.get(t.v[i]), vertexes.get(t.v[(i + 1)%3]), p) < 0)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Inserts a constraint from vertex a towards b. If there is a vertex on the line between them then the
+	 * constraint stops at that vertex.
+	 *
+	 * @return The vertex the constraint stopped at
+	 */
+	int insertConstraint( int a, int b ) {
+		Point2D_F64 pa = vertexes.get(a);
+		Point2D_F64 pb = vertexes.get(b);
+
+		// Go around vertex 'a' and find the triangle which the constraint passes through
+		Triangle start = vertexTriangle.get(a);
+		Triangle t = start;
+		int crossed = -1;
+		do {
+			int k = t.indexOf(a);
+			int x = t.v[(k + 1)%3], y = t.v[(k + 2)%3];
+			if (x == b || isCollinearVertex(pa, pb, x)) {
+				setConstrained(t, k);
+				return x;
+			}
+			if (!t.isGhost() && orient(pa, pb, vertexes.get(x)) < 0 && orient(pa, pb, vertexes.get(y)) > 0) {
+				crossed = (k + 1)%3;
+				break;
+			}
+			t = t.n[(k + 2)%3];
+		} while (t != start);
+
+		if (crossed == -1)
+			throw new RuntimeException("BUG! Couldn't find the triangle the constraint starts in");
+
+		// Walk along the constraint and save the edges which it crosses
+		crossing.reset();
+		int end;
+		while (true) {
+			if (t.constrained[crossed])
+				throw new IllegalArgumentException("Constraints can't cross each other");
+			int x = t.v[crossed], y = t.v[(crossed + 1)%3];
+			crossing.add(x);
+			crossing.add(y);
+
+			Triangle n = t.n[crossed];
+			int j = n.edgeIndex(y, x);
+			int z = n.v[(j + 2)%3];
+			if (z == b || orient(pa, pb, vertexes.get(z)) == 0) {
+				end = z;
+				break;
+			}
+			t = n;
+			crossed = orient(pa, pb, vertexes.get(z)) < 0 ? (j + 2)%3 : (j + 1)%3;
+		}
+
+		// Flip the crossing edges until none of them cross the constraint
+		Point2D_F64 pe = vertexes.get(end);
+		created.reset();
+		for (int idx = 0; idx < crossing.size; idx += 2) {
+			int x = crossing.get(idx), y = crossing.get(idx + 1);
+			t = findEdge(x, y);
+			int edge = t.edgeIndex(x, y);
+			Triangle n = t.n[edge];
+			int w = t.v[(edge + 2)%3];
+			int z = n.v[(n.edgeIndex(y, x) + 2)%3];
+			Point2D_F64 pw = vertexes.get(w), pz = vertexes.get(z);
+
+			// Can only flip if the two triangles form a convex quadrilateral
+			if (orient(pw, pz, vertexes.get(x))*orient(pw, pz, vertexes.get(y)) >= 0) {
+				crossing.add(x);
+				crossing.add(y);
+				continue;
+			}
+			flip(t, edge);
+
+			if (w != a && w != end && z != a && z != end && orient(pa, pe, pw)*orient(pa, pe, pz) < 0) {
+				crossing.add(z);
+				crossing.add(w);
+			} else {
+				created.add(z);
+				created.add(w);
+			}
+		}
+
+		t = findEdge(a, end);
+		setConstrained(t, t.edgeIndex(a, end));
+
+		// Restore the Delaunay property for the new edges
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int idx = 0; idx < created.size; idx += 2) {
+				int x = created.get(idx), y = created.get(idx + 1);
+				t = findEdge(x, y);
+				int edge = t.edgeIndex(x, y);
+				if (t.constrained[edge])
+					continue;
+				Triangle n = t.n[edge];
+				int w = t.v[(edge + 2)%3];
+				int z = n.v[(n.edgeIndex(y, x) + 2)%3];
+				if (inConflict(t, vertexes.get(z))) {
+					flip(t, edge);
+					created.set(idx, z);
+					created.set(idx + 1, w);
+					changed = true;
+				}
+			}
+		}
+
+		return end;
+	}
+
+	/**
+	 * Returns true if the vertex lies on the line segment from a to b
+	 */
+	boolean isCollinearVertex( Point2D_F64 a, Point2D_F64 b, int vertex ) {
+		if (vertex == GHOST)
+			return false;
+		Point2D_F64 p = vertexes.get(vertex);
+		if (orient(a, b, p) != 0)
+			return false;
+		double dot = (p.x - a.x)*(b.x - a.x) + (p.y - a.y)*(b.y - a.y);
+		return dot > 0.0 && dot < a.distance2(b);
+	}
+
+	void setConstrained( Triangle t, int edge ) {
+		Triangle n = t.n[edge];
+		t.constrained[edge] = true;
+		n.constrained[n.edgeIndex(t.v[(edge + 1)%3], t.v[edge])] = true;
+	}
+
+	/**
+	 * Finds the triangle which has the directed edge from a to b
+	 */
+	Triangle findEdge( int a, int b ) {
+		Triangle start = vertexTriangle.get(a);
+		Triangle t = start;
+		do {
+			int k = t.indexOf(a);
+			if (t.v[(k + 1)%3] == b)
+				return t;
+			t = t.n[(k + 2)%3];
+		} while (t != start);
+		throw new RuntimeException("BUG! Edge not found");
+	}
+
+	/**
+	 * Triangle in counter-clockwise order. Edge 'i' goes from vertex 'i' to 'i+1' and is shared with neighbor 'i'.
+	 */
+	public static class Triangle {
+		/** Index of each vertex. Can be {@link #GHOST} */
+		public final int[] v = new int[3];
+		/** The triangle on the other side of each edge */
+		public final Triangle[] n = new Triangle[3];
+		/** If an edge is constrained */
+		public final boolean[] constrained = new boolean[3];
+
+		public Triangle setTo( int a, int b, int c ) {
+			v[0] = a;
+			v[1] = b;
+			v[2] = c;
+			return this;
+		}
+
+		public boolean isGhost() {
+			return v[0] == GHOST || v[1] == GHOST || v[2] == GHOST;
+		}
+
+		/** Returns the index of the vertex in this triangle or -1 if it isn't in it */
+		public int indexOf( int vertex ) {
+			for (int i = 0; i < 3; i++) {
+				if (v[i] == vertex)
+					return i;
+			}
+			return -1;
+		}
+
+		/** Returns the index of the edge which goes from a to b */
+		public int edgeIndex( int a, int b ) {
+			for (int i = 0; i < 3; i++) {
+				if (v[i] == a && v[(i + 1)%3] == b)
+					return i;
+			}
+			throw new RuntimeException("BUG! Not an edge in this triangle");
+		}
+
+		public void reset() {
+			for (int i = 0; i < 3; i++) {
+				v[i] = GHOST;
+				n[i] = null;
+				constrained[i] = false;
+			}
+		}
+	}
+}
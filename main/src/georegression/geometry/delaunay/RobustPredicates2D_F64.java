@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.delaunay;
+
+import georegression.struct.point.Point2D_F64;
+
+import java.math.BigDecimal;
+
+/**
+ * Geometric predicates which always return the correct sign. A fast floating point approximation is computed
+ * first along with a bound on its round off error, see [1]. Only when the sign can't be determined from the
+ * approximation is the exact value computed using arbitrary precision arithmetic, which is rare.
+ *
+ * <p>[1] Jonathan Richard Shewchuk, "Adaptive Precision Floating-Point Arithmetic and Fast Robust Geometric
+ * Predicates" Discrete &amp; Computational Geometry 18(3):305–363, October 1997</p>
+ *
+ * @author Peter Abeles
+ */
+public class RobustPredicates2D_F64 {
+	// Machine epsilon as defined in [1], i.e. half of the gap between 1 and the next larger double
+	private static final double EPSILON = Math.ulp(1.0)/2.0;
+	private static final double ORIENT_BOUND = (3.0 + 16.0*EPSILON)*EPSILON;
+	private static final double INCIRCLE_BOUND = (10.0 + 96.0*EPSILON)*EPSILON;
+
+	/**
+	 * Sign of the orientation of the three points.
+	 *
+	 * @return 1 if counter-clockwise, i.e. c is to the left of the line a to b. -1 if clockwise and 0 if collinear
+	 */
+	public static int orient( Point2D_F64 a, Point2D_F64 b, Point2D_F64 c ) {
+		double detLeft = (a.x - c.x)*(b.y - c.y);
+		double detRight = (a.y - c.y)*(b.x - c.x);
+		double det = detLeft - detRight;
+
+		double detSum;
+		if (detLeft > 0.0) {
+			if (detRight <= 0.0)
+				return signum(det);
+			detSum = detLeft + detRight;
+		} else if (detLeft < 0.0) {
+			if (detRight >= 0.0)
+				return signum(det);
+			detSum = -detLeft - detRight;
+		} else {
+			return signum(det);
+		}
+
+		if (Math.abs(det) >= ORIENT_BOUND*detSum)
+			return signum(det);
+
+		return orientExact(a, b, c);
+	}
+
+	/**
+	 * Tests to see if point d is inside the circle which passes through a, b, and c. The points a, b, c must be
+	 * in counter-clockwise order, otherwise the sign is reversed.
+	 *
+	 * @return 1 if d is inside, -1 if it's outside, and 0 if it's on the circle
+	 */
+	public static int inCircle( Point2D_F64 a, Point2D_F64 b, Point2D_F64 c, Point2D_F64 d ) {
+		double adx = a.x - d.x, ady = a.y - d.y;
+		double bdx = b.x - d.x, bdy = b.y - d.y;
+		double cdx = c.x - d.x, cdy = c.y - d.y;
+
+		double bdxcdy = bdx*cdy, cdxbdy = cdx*bdy;
+		double cdxady = cdx*ady, adxcdy = adx*cdy;
+		double adxbdy = adx*bdy, bdxady = bdx*ady;
+
+		double alift = adx*adx + ady*ady;
+		double blift = bdx*bdx + bdy*bdy;
+		double clift = cdx*cdx + cdy*cdy;
+
+		double det = alift*(bdxcdy - cdxbdy) + blift*(cdxady - adxcdy) + clift*(adxbdy - bdxady);
+
+		double permanent = (Math.abs(bdxcdy) + Math.abs(cdxbdy))*alift +
+				(Math.abs(cdxady) + Math.abs(adxcdy))*blift +
+				(Math.abs(adxbdy) + Math.abs(bdxady))*clift;
+
+		if (Math.abs(det) > INCIRCLE_BOUND*permanent)
+			return signum(det);
+
+		return inCircleExact(a, b, c, d);
+	}
+
+	/**
+	 * Computes the orientation using exact arithmetic
+	 */
+	public static int orientExact( Point2D_F64 a, Point2D_F64 b, Point2D_F64 c ) {
+		BigDecimal cx = new BigDecimal(c.x), cy = new BigDecimal(c.y);
+		BigDecimal acx = new BigDecimal(a.x).subtract(cx), acy = new BigDecimal(a.y).subtract(cy);
+		BigDecimal bcx = new BigDecimal(b.x).subtract(cx), bcy = new BigDecimal(b.y).subtract(cy);
+
+		return acx.multiply(bcy).subtract(acy.multiply(bcx)).signum();
+	}
+
+	/**
+	 * Computes the in circle test using exact arithmetic
+	 */
+	public static int inCircleExact( Point2D_F64 a, Point2D_F64 b, Point2D_F64 c, Point2D_F64 d ) {
+		BigDecimal dx = new BigDecimal(d.x), dy = new BigDecimal(d.y);
+		BigDecimal adx = new BigDecimal(a.x).subtract(dx), ady = new BigDecimal(a.y).subtract(dy);
+		BigDecimal bdx = new BigDecimal(b.x).subtract(dx), bdy = new BigDecimal(b.y).subtract(dy);
+		BigDecimal cdx = new BigDecimal(c.x).subtract(dx), cdy = new BigDecimal(c.y).subtract(dy);
+
+		BigDecimal alift = adx.multiply(adx).add(ady.multiply(ady));
+		BigDecimal blift = bdx.multiply(bdx).add(bdy.multiply(bdy));
+		BigDecimal clift = cdx.multiply(cdx).add(cdy.multiply(cdy));
+
+		BigDecimal det = alift.multiply(bdx.multiply(cdy).subtract(cdx.multiply(bdy)));
+		det = det.add(blift.multiply(cdx.multiply(ady).subtract(adx.multiply(cdy))));
+		det = det.add(clift.multiply(adx.multiply(bdy).subtract(bdx.multiply(ady))));
+
+		return det.signum();
+	}
+
+	private static int signum( double value ) {
+		return value > 0.0 ? 1 : (value < 0.0 ? -1 : 0);
+	}
+}
@@ -0,0 +1,642 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.lines;
+
+import georegression.geometry.UtilLine2D_F64;
+import georegression.metric.Intersection2D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.line.LineSegment2D_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import lombok.Getter;
+import org.ddogleg.struct.DogArray;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Finds all pairs of intersecting line segments using a sweep line, i.e. the Bentley-Ottmann algorithm [1].
+ * The sweep moves along the x-axis with ties broken by the y-axis. Line segments which are currently
+ * crossed by the sweep line are stored in a balanced tree, sorted by their y-coordinate. Only segments
+ * which are neighbors inside this tree can intersect next, which reduces the number of tests to
+ * O((n+k) log n), where n is the number of segments and k the number of intersections. If only the
+ * existence of an intersection is needed then set {@link #stopAtFirst} to true and it will exit after the
+ * first one, which is the Shamos-Hoey algorithm and has a complexity of O(n log n).
+ *
+ * Degenerate situations, such as vertical segments, shared end points, and multiple segments intersecting
+ * at the same point, are handled. Collinear overlapping segments are reported as intersecting. Swaps inside
+ * the tree are done by reference so that round off errors can't corrupt the order after a segment
+ * has been inserted.
+ *
+ * <p>[1] Mark de Berg, et. al. "Computational Geometry: Algorithms and Applications" 3rd Ed. Chapter 2</p>
+ *
+ * @author Peter Abeles
+ */
+public class IntersectionSegmentsSweep_F64 {
+	/** Tolerance used when testing if points are colinear */
+	public double tol = GrlConstants.TEST_F64;
+
+	/**
+	 * If true then two segments whose end points touch are considered to intersect. This is the same as
+	 * {@link Intersection2D_F64#intersects} if true and {@link Intersection2D_F64#intersects2} if false.
+	 */
+	public boolean includeEndPoints = true;
+
+	/** If true it will stop after the first intersection has been found */
+	public boolean stopAtFirst = false;
+
+	/** All the pairs of segments which were found to intersect */
+	@Getter protected final DogArray<Crossing> found = new DogArray<>(Crossing::new, Crossing::reset);
+
+	// Copy of the input segments. End points are ordered so that 'a' comes before 'b' along the sweep
+	protected final DogArray<LineSegment2D_F64> segments = new DogArray<>(LineSegment2D_F64::new);
+
+	// Sweep line status. Tree nodes for each segment. null if the segment isn't on the sweep line
+	protected Node[] handles = new Node[0];
+	protected final DogArray<Node> nodes = new DogArray<>(Node::new, Node::reset);
+	protected @Nullable Node root;
+
+	// Events sorted in the order they are encountered by the sweep line
+	protected final DogArray<Event> events = new DogArray<>(Event::new);
+	protected final PriorityQueue<Event> queue = new PriorityQueue<>(IntersectionSegmentsSweep_F64::compareEvents);
+
+	// Pairs that have been reported and pairs which have been, or are scheduled to be, swapped
+	protected final PairSet reported = new PairSet();
+	protected final PairSet swapped = new PairSet();
+
+	// Location of the event currently being processed
+	protected final Point2D_F64 sweepPoint = new Point2D_F64();
+
+	// Used to create random priorities in the tree. Fixed seed so that results are repeatable
+	protected final Random rand = new Random(0xBEEF);
+
+	// Work space
+	protected final Point2D_F64 location = new Point2D_F64();
+
+	/**
+	 * Finds all intersections between the line segments.
+	 *
+	 * @param input (Input) Set of line segments
+	 * @return true if at least one intersection was found
+	 */
+	public boolean process( List<LineSegment2D_F64> input ) {
+		segments.reset();
+		for (int i = 0; i < input.size(); i++) {
+			LineSegment2D_F64 s = input.get(i);
+			addSegment(s.a, s.b);
+		}
+		return sweep();
+	}
+
+	/**
+	 * Finds all intersections between the sides of the polygon. Side 'i' goes from vertex i to vertex i+1.
+	 * Adjacent sides will always share an end point, so you probably want {@link #includeEndPoints} to
+	 * be false.
+	 *
+	 * @param polygon (Input) Polygon
+	 * @return true if at least one intersection was found
+	 */
+	public boolean process( Polygon2D_F64 polygon ) {
+		segments.reset();
+		for (int i = 0; i < polygon.size(); i++) {
+			addSegment(polygon.get(i), polygon.get((i + 1)%polygon.size()));
+		}
+		return sweep();
+	}
+
+	/** Adds a segment and ensures its end points are in sweep line order */
+	private void addSegment( Point2D_F64 a, Point2D_F64 b ) {
+		LineSegment2D_F64 s = segments.grow();
+		if (isBefore(a.x, a.y, b.x, b.y)) {
+			s.setTo(a, b);
+		} else {
+			s.setTo(b, a);
+		}
+	}
+
+	/**
+	 * Processes the segments using the sweep line.
+	 */
+	protected boolean sweep() {
+		found.reset();
+		nodes.reset();
+		events.reset();
+		queue.clear();
+		reported.clear();
+		swapped.clear();
+		root = null;
+
+		final int N = segments.size;
+		if (handles.length < N)
+			handles = new Node[N];
+		for (int i = 0; i < N; i++) {
+			handles[i] = null;
+			LineSegment2D_F64 s = segments.data[i];
+			queue.add(events.grow().setTo(s.a.x, s.a.y, Event.INSERT, i, -1));
+			queue.add(events.grow().setTo(s.b.x, s.b.y, Event.REMOVE, i, -1));
+		}
+
+		while (!queue.isEmpty()) {
+			Event e = queue.poll();
+			sweepPoint.setTo(e.x, e.y);
+
+			if (e.type == Event.CROSS) {
+				handleCross(e.segA, e.segB);
+			} else if (e.type == Event.INSERT) {
+				handleInsert(e.segA);
+			} else {
+				handleRemove(e.segA);
+			}
+
+			if (stopAtFirst && found.size > 0)
+				break;
+		}
+
+		return found.size > 0;
+	}
+
+	private void handleInsert( int seg ) {
+		Node n = nodes.grow();
+		n.segment = seg;
+		n.priority = rand.nextInt();
+		handles[seg] = n;
+		insert(n);
+
+		checkNeighbors(n);
+	}
+
+	private void handleRemove( int seg ) {
+		Node n = handles[seg];
+		checkNeighbors(n);
+
+		Node prev = predecessor(n);
+		Node next = successor(n);
+		remove(n);
+		handles[seg] = null;
+
+		if (prev != null && next != null)
+			checkPair(prev, next);
+	}
+
+	private void handleCross( int lower, int upper ) {
+		Node nl = handles[lower];
+		Node nu = handles[upper];
+
+		// See if the two segments are still neighbors. If not they can be scheduled again when they are
+		if (nl == null || nu == null || successor(nl) != nu) {
+			swapped.remove(pairKey(lower, upper));
+			return;
+		}
+
+		// Swap their order in the tree. This is done by reference to avoid numerical issues
+		nl.segment = upper;
+		nu.segment = lower;
+		handles[lower] = nu;
+		handles[upper] = nl;
+
+		Node prev = predecessor(nl);
+		if (prev != null)
+			checkPair(prev, nl);
+		Node next = successor(nu);
+		if (next != null)
+			checkPair(nu, next);
+	}
+
+	/**
+	 * Checks a node against its neighbors. Segments which touch the current sweep point will all be next to each
+	 * other in the tree but not all of them are neighbors, so it keeps on going until one doesn't touch it.
+	 */
+	private void checkNeighbors( Node n ) {
+		Node prev = predecessor(n);
+		while (prev != null) {
+			checkPair(prev, n);
+			if (!containsSweepPoint(prev.segment))
+				break;
+			prev = predecessor(prev);
+		}
+		Node next = successor(n);
+		while (next != null) {
+			checkPair(n, next);
+			if (!containsSweepPoint(next.segment))
+				break;
+			next = successor(next);
+		}
+	}
+
+	/**
+	 * Checks to see if two segments intersect. If they intersect it's saved and if they will swap their order
+	 * along the sweep line an event is created.
+	 *
+	 * @param lower Node which is lower on the sweep line
+	 * @param upper Node which is higher on the sweep line
+	 * @return true if they intersect
+	 */
+	private boolean checkPair( Node lower, Node upper ) {
+		LineSegment2D_F64 sl = segments.data[lower.segment];
+		LineSegment2D_F64 su = segments.data[upper.segment];
+
+		boolean intersects = includeEndPoints ?
+				Intersection2D_F64.intersects(sl.a, sl.b, su.a, su.b, tol) :
+				Intersection2D_F64.intersects2(sl.a, sl.b, su.a, su.b, tol);
+		if (!intersects)
+			return false;
+
+		long key = pairKey(lower.segment, upper.segment);
+		if (reported.add(key)) {
+			Crossing c = found.grow();
+			c.indexA = Integer.min(lower.segment, upper.segment);
+			c.indexB = Integer.max(lower.segment, upper.segment);
+			computeLocation(sl, su, c.location);
+		}
+
+		// If the lower segment points above the upper segment they will swap. A segment pair can only swap once
+		double cross = (sl.b.x - sl.a.x)*(su.b.y - su.a.y) - (sl.b.y - sl.a.y)*(su.b.x - su.a.x);
+		if (cross >= 0.0 || !swapped.add(key))
+			return true;
+
+		// Make sure the event isn't in the past or outside the segments due to round off errors. This is important
+		// for vertical segments since the event needs to happen before the segment is removed.
+		if (Intersection2D_F64.intersection(sl.a, sl.b, su.a, su.b, location) == null) {
+			location.setTo(sweepPoint);
+		} else {
+			location.x = Math.max(Math.max(sl.a.x, su.a.x), Math.min(Math.min(sl.b.x, su.b.x), location.x));
+			if (sl.a.x == sl.b.x)
+				location.y = Math.max(sl.a.y, Math.min(sl.b.y, location.y));
+			else if (su.a.x == su.b.x)
+				location.y = Math.max(su.a.y, Math.min(su.b.y, location.y));
+			if (isBefore(location.x, location.y, sweepPoint.x, sweepPoint.y))
+				location.setTo(sweepPoint);
+		}
+		queue.add(events.grow().setTo(location.x, location.y, Event.CROSS, lower.segment, upper.segment));
+
+		return true;
+	}
+
+	/**
+	 * Finds a point where the two intersecting segments touch. If parallel then an end point inside the overlap
+	 * is selected.
+	 */
+	private void computeLocation( LineSegment2D_F64 a, LineSegment2D_F64 b, Point2D_F64 output ) {
+		if (Intersection2D_F64.intersection(a.a, a.b, b.a, b.b, output) != null)
+			return;
+
+		if (UtilLine2D_F64.isBetweenColinear(a.a, a.b, b.a))
+			output.setTo(b.a);
+		else if (UtilLine2D_F64.isBetweenColinear(a.a, a.b, b.b))
+			output.setTo(b.b);
+		else
+			output.setTo(a.a);
+	}
+
+	/** True if the segment touches the point currently being processed by the sweep line */
+	private boolean containsSweepPoint( int seg ) {
+		LineSegment2D_F64 s = segments.data[seg];
+		return UtilLine2D_F64.isColinear(s.a, s.b, sweepPoint, tol) &&
+				UtilLine2D_F64.isBetweenColinear(s.a, s.b, sweepPoint);
+	}
+
+	/**
+	 * Compares the order of two segments along the sweep line at the start of segment 'segA'. If they touch
+	 * there then the direction they are heading in is used to break the tie.
+	 *
+	 * @return negative if segA is below segB and positive if above
+	 */
+	protected int compareAtStart( int segA, int segB ) {
+		LineSegment2D_F64 sa = segments.data[segA];
+		LineSegment2D_F64 sb = segments.data[segB];
+		double px = sa.a.x, py = sa.a.y;
+
+		// y-coordinate of 'b' along the sweep line
+		double y;
+		if (sb.a.x == sb.b.x) {
+			// vertical lines are a special case since the sweep line is parallel to it
+			y = Math.max(sb.a.y, Math.min(py, sb.b.y));
+		} else {
+			y = sb.a.y + (px - sb.a.x)*(sb.b.y - sb.a.y)/(sb.b.x - sb.a.x);
+		}
+
+		if (Math.abs(y - py) > tol)
+			return py < y ? -1 : 1;
+
+		// They touch. The one which points higher is above the other. The direction of the whole segment is used
+		// since 'b' could end at this point
+		double cross = (sb.b.x - sb.a.x)*(sa.b.y - sa.a.y) - (sb.b.y - sb.a.y)*(sa.b.x - sa.a.x);
+		if (cross != 0.0)
+			return cross < 0.0 ? -1 : 1;
+
+		// Segments with zero length have no direction. If they were ordered by index relative to the others then
+		// the order would no longer be transitive, so they always go below
+		boolean pointA = sa.a.x == sa.b.x && sa.a.y == sa.b.y;
+		boolean pointB = sb.a.x == sb.b.x && sb.a.y == sb.b.y;
+		if (pointA != pointB)
+			return pointA ? -1 : 1;
+
+		return Integer.compare(segA, segB);
+	}
+
+	//----------------------------------------- Tree operations. A treap with references to parents
+
+	/** Inserts the node into the sweep line tree */
+	protected void insert( Node n ) {
+		if (root == null) {
+			root = n;
+			return;
+		}
+
+		Node parent = root;
+		while (true) {
+			if (compareAtStart(n.segment, parent.segment) < 0) {
+				if (parent.left == null) {
+					parent.left = n;
+					break;
+				}
+				parent = parent.left;
+			} else {
+				if (parent.right == null) {
+					parent.right = n;
+					break;
+				}
+				parent = parent.right;
+			}
+		}
+		n.parent = parent;
+
+		// Restore the heap property of the priorities
+		while (n.parent != null && n.priority > n.parent.priority) {
+			rotateUp(n);
+		}
+	}
+
+	/** Removes the node from the tree by rotating it down into a leaf */
+	@SuppressWarnings({"ConstantConditions", "NullAway"})
+	protected void remove( Node n ) {
+		while (n.left != null || n.right != null) {
+			Node child;
+			if (n.left == null)
+				child = n.right;
+			else if (n.right == null)
+				child = n.left;
+			else
+				child = n.left.priority > n.right.priority ? n.left : n.right;
+			rotateUp(child);
+		}
+
+		if (n.parent == null)
+			root = null;
+		else if (n.parent.left == n)
+			n.parent.left = null;
+		else
+			n.parent.right = null;
+		n.parent = null;
+	}
+
+	/** Rotates the node so that it takes the place of its parent. The node must have a parent. */
+	@SuppressWarnings({"ConstantConditions", "NullAway"})
+	protected void rotateUp( Node n ) {
+		Node p = n.parent;
+		Node g = p.parent;
+
+		if (p.left == n) {
+			p.left = n.right;
+			if (n.right != null)
+				n.right.parent = p;
+			n.right = p;
+		} else {
+			p.right = n.left;
+			if (n.left != null)
+				n.left.parent = p;
+			n.left = p;
+		}
+		p.parent = n;
+		n.parent = g;
+
+		if (g == null)
+			root = n;
+		else if (g.left == p)
+			g.left = n;
+		else
+			g.right = n;
+	}
+
+	/** Returns the node which is above 'n' in the sweep line or null if there is none */
+	protected @Nullable Node successor( Node n ) {
+		if (n.right != null) {
+			n = n.right;
+			while (n.left != null)
+				n = n.left;
+			return n;
+		}
+		while (n.parent != null && n.parent.right == n)
+			n = n.parent;
+		return n.parent;
+	}
+
+	/** Returns the node which is below 'n' in the sweep line or null if there is none */
+	protected @Nullable Node predecessor( Node n ) {
+		if (n.left != null) {
+			n = n.left;
+			while (n.right != null)
+				n = n.right;
+			return n;
+		}
+		while (n.parent != null && n.parent.left == n)
+			n = n.parent;
+		return n.parent;
+	}
+
+	/** Returns true if point (x0,y0) will be encountered by the sweep line before (x1,y1) */
+	protected static boolean isBefore( double x0, double y0, double x1, double y1 ) {
+		return x0 < x1 || (x0 == x1 && y0 < y1);
+	}
+
+	protected static long pairKey( int a, int b ) {
+		return a < b ? ((long)a << 32) | b : ((long)b << 32) | a;
+	}
+
+	/**
+	 * Events are processed in sweep line order. If at the same point, crossings are handled first,
+	 * then insertions, then removals. This way segments which touch at their end points will be neighbors.
+	 */
+	protected static int compareEvents( Event a, Event b ) {
+		if (a.x != b.x)
+			return Double.compare(a.x, b.x);
+		if (a.y != b.y)
+			return Double.compare(a.y, b.y);
+		return Integer.compare(a.type, b.type);
+	}
+
+	/**
+	 * Specifies a pair of segments which intersect
+	 */
+	public static class Crossing {
+		/** Index of the two intersecting segments. indexA &lt; indexB */
+		public int indexA, indexB;
+		/** Where they intersect. If they overlap then this is a point inside the overlap. */
+		public final Point2D_F64 location = new Point2D_F64();
+
+		public void reset() {
+			indexA = indexB = -1;
+			location.setTo(Double.NaN, Double.NaN);
+		}
+	}
+
+	/**
+	 * Set of segment pairs, see {@link #pairKey}. Uses open addressing with linear probing so that keys aren't
+	 * boxed and memory is recycled between calls.
+	 */
+	protected static class PairSet {
+		// Marks a slot which isn't used. Keys are never negative since segment indexes are never negative
+		static final long EMPTY = -1;
+
+		// The number of slots is always a power of two
+		long[] table = new long[16];
+		int size;
+
+		public PairSet() {
+			Arrays.fill(table, EMPTY);
+		}
+
+		/**
+		 * Adds the key to the set
+		 *
+		 * @return true if the key wasn't already in the set
+		 */
+		public boolean add( long key ) {
+			if (2*(size + 1) > table.length)
+				resize(table.length*2);
+
+			int mask = table.length - 1;
+			int i = slot(key, mask);
+			while (table[i] != EMPTY) {
+				if (table[i] == key)
+					return false;
+				i = (i + 1) & mask;
+			}
+			table[i] = key;
+			size++;
+			return true;
+		}
+
+		/**
+		 * Removes the key from the set
+		 *
+		 * @return true if the key was in the set
+		 */
+		public boolean remove( long key ) {
+			int mask = table.length - 1;
+			int gap = slot(key, mask);
+			while (table[gap] != key) {
+				if (table[gap] == EMPTY)
+					return false;
+				gap = (gap + 1) & mask;
+			}
+
+			// Shift keys after it back so that none of them are separated from their slot by an empty slot
+			int i = gap;
+			while (true) {
+				i = (i + 1) & mask;
+				long k = table[i];
+				if (k == EMPTY)
+					break;
+				// It can be moved into the gap if its slot isn't between the gap and where it is now
+				int home = slot(k, mask);
+				if (((i - home) & mask) >= ((i - gap) & mask)) {
+					table[gap] = k;
+					gap = i;
+				}
+			}
+			table[gap] = EMPTY;
+			size--;
+			return true;
+		}
+
+		public boolean contains( long key ) {
+			int mask = table.length - 1;
+			int i = slot(key, mask);
+			while (table[i] != EMPTY) {
+				if (table[i] == key)
+					return true;
+				i = (i + 1) & mask;
+			}
+			return false;
+		}
+
+		public void clear() {
+			if (size > 0)
+				Arrays.fill(table, EMPTY);
+			size = 0;
+		}
+
+		public int size() {
+			return size;
+		}
+
+		private void resize( int length ) {
+			long[] old = table;
+			table = new long[length];
+			Arrays.fill(table, EMPTY);
+			size = 0;
+			for (long k : old) {
+				if (k != EMPTY)
+					add(k);
+			}
+		}
+
+		/** Slot the key should be in if there are no collisions. Mixes the bits since keys are highly structured */
+		private static int slot( long key, int mask ) {
+			return (int)((key*0x9E3779B97F4A7C15L) >>> 32) & mask;
+		}
+	}
+
+	/** Node in the sweep line tree */
+	protected static class Node {
+		public int segment;
+		public int priority;
+		public @Nullable Node left, right, parent;
+
+		public void reset() {
+			segment = -1;
+			left = right = parent = null;
+		}
+	}
+
+	/** Something which changes the status of the sweep line */
+	protected static class Event {
+		public static final int CROSS = 0;
+		public static final int INSERT = 1;
+		public static final int REMOVE = 2;
+
+		public double x, y;
+		public int type;
+		// segments the event references. For crossings segA is the lower one before the crossing.
+		public int segA, segB;
+
+		public Event setTo( double x, double y, int type, int segA, int segB ) {
+			this.x = x;
+			this.y = y;
+			this.type = type;
+			this.segA = segA;
+			this.segB = segB;
+			return this;
+		}
+	}
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.polygon;
+
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import org.ddogleg.struct.DogArray_F64;
+
+/**
+ * <p>
+ * Finds the intersection of two convex polygons using the Sutherland-Hodgman algorithm [1]. The subject polygon
+ * is clipped by the line through each side of the clip polygon. Polygons can be in clockwise or counter-clockwise
+ * order. The area is computed using double precision, unlike {@link AreaIntersectionPolygon2D_F64} which snaps
+ * the vertexes to an integer grid.
+ * </p>
+ *
+ * <p>
+ * Polygons can be passed in as packed arrays to avoid creating objects when processing a large number of them.
+ * Internal work space is saved and reused between calls.
+ * </p>
+ *
+ * <p>[1] Sutherland, Ivan E., and Gary W. Hodgman. "Reentrant polygon clipping." Communications of the ACM (1974)</p>
+ *
+ * @author Peter Abeles
+ */
+public class ClipConvexPolygon2D_F64 {
+	// Work space. The result of the previous clip is read from one while writing to the other
+	DogArray_F64 work0 = new DogArray_F64();
+	DogArray_F64 work1 = new DogArray_F64();
+	DogArray_F64 workClip = new DogArray_F64();
+
+	// Which work buffer contains the output of the most recent clip
+	DogArray_F64 result = work0;
+
+	/**
+	 * Computes the intersection of the two polygons
+	 *
+	 * @param subject (Input) Convex polygon
+	 * @param clip (Input) Convex polygon
+	 * @param output (Output) The intersection. Has the same order as subject. Empty if they don't intersect.
+	 */
+	public void process( Polygon2D_F64 subject, Polygon2D_F64 clip, Polygon2D_F64 output ) {
+		clip(subject, clip);
+		int count = result.size/2;
+		output.vertexes.resize(count);
+		for (int i = 0; i < count; i++) {
+			output.get(i).setTo(result.data[i*2], result.data[i*2 + 1]);
+		}
+	}
+
+	/**
+	 * Computes the area of the intersection between the two polygons
+	 *
+	 * @param a (Input) Convex polygon
+	 * @param b (Input) Convex polygon
+	 * @return Area of the intersection. Always positive.
+	 */
+	public double area( Polygon2D_F64 a, Polygon2D_F64 b ) {
+		clip(a, b);
+		return Math.abs(resultArea());
+	}
+
+	/**
+	 * Computes the area of the intersection between the two polygons
+	 *
+	 * @param a (Input) Array containing the first polygon's vertexes packed as x0,y0,x1,y1,...
+	 * @param offsetA (Input) Array index of the first polygon's first vertex
+	 * @param countA (Input) Number of vertexes in the first polygon
+	 * @param b (Input) Array containing the second polygon
+	 * @param offsetB (Input) Array index of the second polygon's first vertex
+	 * @param countB (Input) Number of vertexes in the second polygon
+	 * @return Area of the intersection. Always positive.
+	 */
+	public double area( double[] a, int offsetA, int countA, double[] b, int offsetB, int countB ) {
+		work0.resize(countA*2);
+		System.arraycopy(a, offsetA, work0.data, 0, countA*2);
+		clip(b, offsetB, countB);
+		return Math.abs(resultArea());
+	}
+
+	void clip( Polygon2D_F64 subject, Polygon2D_F64 clip ) {
+		work0.resize(subject.size()*2);
+		for (int i = 0; i < subject.size(); i++) {
+			Point2D_F64 p = subject.get(i);
+			work0.data[i*2] = p.x;
+			work0.data[i*2 + 1] = p.y;
+		}
+		workClip.resize(clip.size()*2);
+		for (int i = 0; i < clip.size(); i++) {
+			Point2D_F64 p = clip.get(i);
+			workClip.data[i*2] = p.x;
+			workClip.data[i*2 + 1] = p.y;
+		}
+		clip(workClip.data, 0, clip.size());
+	}
+
+	/**
+	 * Clips the polygon in work0 by each side of the clip polygon. The output is in {@link #result}.
+	 */
+	void clip( double[] clip, int offset, int count ) {
+		DogArray_F64 input = work0;
+		DogArray_F64 output = work1;
+		result = work0;
+		if (count < 3 || input.size < 6) {
+			input.reset();
+			return;
+		}
+
+		// The inside of the clip polygon is on the left if it's counter-clockwise
+		double sign = signedArea(clip, offset, count) >= 0.0 ? 1.0 : -1.0;
+
+		for (int i = 0, j = count - 1; i < count && input.size > 0; j = i, i++) {
+			double x0 = clip[offset + j*2], y0 = clip[offset + j*2 + 1];
+			double dx = clip[offset + i*2] - x0, dy = clip[offset + i*2 + 1] - y0;
+
+			output.reset();
+			int N = input.size/2;
+			double px = input.data[N*2 - 2], py = input.data[N*2 - 1];
+			double sidePrev = sign*(dx*(py - y0) - dy*(px - x0));
+			for (int k = 0; k < N; k++) {
+				double cx = input.data[k*2], cy = input.data[k*2 + 1];
+				double side = sign*(dx*(cy - y0) - dy*(cx - x0));
+				if (side >= 0.0) {
+					if (sidePrev < 0.0)
+						addCrossing(output, px, py, sidePrev, cx, cy, side);
+					output.add(cx);
+					output.add(cy);
+				} else if (sidePrev >= 0.0) {
+					// Don't add the same point twice if the previous point was on the line
+					if (sidePrev > 0.0)
+						addCrossing(output, px, py, sidePrev, cx, cy, side);
+				}
+				px = cx;
+				py = cy;
+				sidePrev = side;
+			}
+
+			DogArray_F64 tmp = input;
+			input = output;
+			output = tmp;
+		}
+		result = input;
+	}
+
+	/** Adds the point where the line from (px,py) to (cx,cy) crosses the clipping line */
+	static void addCrossing( DogArray_F64 output, double px, double py, double sidePrev,
+							 double cx, double cy, double side ) {
+		double t = sidePrev/(sidePrev - side);
+		output.add(px + t*(cx - px));
+		output.add(py + t*(cy - py));
+	}
+
+	double resultArea() {
+		return result.size < 6 ? 0.0 : signedArea(result.data, 0, result.size/2);
+	}
+
+	/**
+	 * Signed area of a polygon using the shoelace formula. Positive if counter-clockwise.
+	 */
+	public static double signedArea( double[] xy, int offset, int count ) {
+		if (count < 3)
+			return 0.0;
+		// Subtract the first vertex to reduce round off errors
+		double x0 = xy[offset], y0 = xy[offset + 1];
+		double sum = 0.0;
+		double px = xy[offset + 2] - x0, py = xy[offset + 3] - y0;
+		for (int i = 2; i < count; i++) {
+			double cx = xy[offset + i*2] - x0, cy = xy[offset + i*2 + 1] - y0;
+			sum += px*cy - py*cx;
+			px = cx;
+			py = cy;
+		}
+		return sum/2.0;
+	}
+}
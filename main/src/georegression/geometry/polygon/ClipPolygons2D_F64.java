@@ -0,0 +1,791 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.polygon;
+
+import georegression.geometry.lines.IntersectionSegmentsSweep_F64;
+import georegression.metric.Area2D_F64;
+import georegression.metric.Intersection2D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.line.LineSegment2D_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import georegression.struct.shapes.PolygonHoles2D_F64;
+import org.ddogleg.sorting.QuickSortComparator;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_I32;
+import org.ddogleg.struct.FastArray;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Boolean operations (union, intersection, difference, and XOR) between two sets of polygons, which are
+ * referred to as the subject and the clip. Each set can contain any number of polygons with holes and the
+ * polygons inside a set are allowed to overlap, in which case the set is their union. This makes it possible to
+ * merge a large number of polygons at once. The output is a set of polygons with holes.
+ * </p>
+ *
+ * <p>
+ * The approach is similar to the one used by Martinez-Rueda [1]. All the sides are split where they intersect
+ * another side using a sweep line, see {@link IntersectionSegmentsSweep_F64}. Points which are within tolerance
+ * of each other are merged and overlapping sides are merged into a single edge. The winding number of each input
+ * set is then found on both sides of every edge. If the result of the operation is different on each side then
+ * the edge lies on the boundary of the output. Finally, boundary edges are linked together into rings and holes
+ * are assigned to the outer ring which contains them.
+ * </p>
+ *
+ * <p>
+ * Internal work space is saved and reused between calls, so if a large number of operations are performed it's
+ * best to use the same instance.
+ * </p>
+ *
+ * <p>[1] Martinez, Francisco, et al. "A new algorithm for computing Boolean operations on polygons."
+ * Computers &amp; Geosciences 35.6 (2009)</p>
+ *
+ * @author Peter Abeles
+ */
+public class ClipPolygons2D_F64 {
+	/** Points which are closer than this distance are considered to be the same point */
+	public double tol = GrlConstants.TEST_F64;
+
+	/** If true, vertexes which lie along a straight line are removed from the output */
+	public boolean pruneCollinear = true;
+
+	// sides of the input polygons. Oriented so that the inside is on the left
+	protected final DogArray<LineSegment2D_F64> sides = new DogArray<>(LineSegment2D_F64::new);
+	// which set each side belongs to. 0 = subject, 1 = clip
+	protected final DogArray_I32 sideSet = new DogArray_I32();
+
+	// Finds intersections between sides
+	protected final IntersectionSegmentsSweep_F64 sweep = new IntersectionSegmentsSweep_F64();
+
+	// All the points which sides are split at. The first two for each side are its end points
+	protected final DogArray<SortPoint> points = new DogArray<>(SortPoint::new);
+	protected final DogArray<Split> splits = new DogArray<>(Split::new);
+	protected final QuickSortComparator<SortPoint> sorterPoints = new QuickSortComparator<>(( a, b ) -> Double.compare(a.p.x, b.p.x));
+	protected final QuickSortComparator<Split> sorterSplits = new QuickSortComparator<>(( a, b ) -> {
+		if (a.side != b.side)
+			return Integer.compare(a.side, b.side);
+		return Double.compare(a.t, b.t);
+	});
+
+	// Points after points within tolerance have been merged
+	protected final DogArray<Point2D_F64> vertexes = new DogArray<>(Point2D_F64::new);
+	// Look up table from index in 'points' to index in 'vertexes'
+	protected final DogArray_I32 pointToVertex = new DogArray_I32();
+
+	// Unique edges after overlapping sides have been merged
+	protected final DogArray<Edge> edges = new DogArray<>(Edge::new, Edge::reset);
+	protected final QuickSortComparator<Edge> sorterEdges = new QuickSortComparator<>(( a, b ) -> {
+		if (a.v0 != b.v0)
+			return Integer.compare(a.v0, b.v0);
+		return Integer.compare(a.v1, b.v1);
+	});
+
+	// Used to quickly find all the edges which a ray could intersect
+	protected final Buckets bucketsY = new Buckets(false);
+	protected final Buckets bucketsX = new Buckets(true);
+
+	// Outgoing boundary edges for each vertex
+	protected final DogArray_I32 outStart = new DogArray_I32();
+	protected final FastArray<Edge> outEdges = new FastArray<>(Edge.class);
+
+	// Rings which were found from boundary edges
+	protected final DogArray<Polygon2D_F64> rings = new DogArray<>(Polygon2D_F64::new, p -> p.vertexes.reset());
+	protected final DogArray_I32 ringToOutput = new DogArray_I32();
+
+	// Work space
+	protected final Point2D_F64 location = new Point2D_F64();
+	protected final int[] winding = new int[2];
+
+	/**
+	 * Computes the boolean operation between two polygons which don't have holes.
+	 *
+	 * @param op (Input) Which operation
+	 * @param subject (Input) The subject polygon. CW or CCW.
+	 * @param clip (Input) The clip polygon. CW or CCW.
+	 * @param output (Output) Resulting polygons
+	 */
+	public void process( Operation op, Polygon2D_F64 subject, Polygon2D_F64 clip,
+						 DogArray<PolygonHoles2D_F64> output ) {
+		reset();
+		addSubject(subject);
+		addClip(clip);
+		process(op, output);
+	}
+
+	/**
+	 * Computes the union of all the polygons
+	 *
+	 * @param polygons (Input) Polygons. CW or CCW.
+	 * @param output (Output) Resulting polygons
+	 */
+	public void union( List<Polygon2D_F64> polygons, DogArray<PolygonHoles2D_F64> output ) {
+		reset();
+		for (int i = 0; i < polygons.size(); i++) {
+			addSubject(polygons.get(i));
+		}
+		process(Operation.UNION, output);
+	}
+
+	/**
+	 * Removes all the polygons which have been added
+	 */
+	public void reset() {
+		sides.reset();
+		sideSet.reset();
+	}
+
+	/** Adds a polygon to the subject set. Can be CW or CCW. */
+	public void addSubject( Polygon2D_F64 polygon ) {
+		addRing(polygon, 0, true);
+	}
+
+	/** Adds a polygon with holes to the subject set. */
+	public void addSubject( PolygonHoles2D_F64 polygon ) {
+		addRing(polygon.outer, 0, true);
+		for (int i = 0; i < polygon.holes.size; i++) {
+			addRing(polygon.holes.get(i), 0, false);
+		}
+	}
+
+	/** Adds a polygon to the clip set. Can be CW or CCW. */
+	public void addClip( Polygon2D_F64 polygon ) {
+		addRing(polygon, 1, true);
+	}
+
+	/** Adds a polygon with holes to the clip set. */
+	public void addClip( PolygonHoles2D_F64 polygon ) {
+		addRing(polygon.outer, 1, true);
+		for (int i = 0; i < polygon.holes.size; i++) {
+			addRing(polygon.holes.get(i), 1, false);
+		}
+	}
+
+	/**
+	 * Adds the sides of a polygon so that the inside is always on the left. Outer boundaries become CCW and
+	 * holes become CW.
+	 */
+	private void addRing( Polygon2D_F64 polygon, int set, boolean outer ) {
+		final int N = polygon.size();
+		if (N < 3)
+			return;
+		// The sign of the area is used since it works with concave polygons
+		boolean reverse = (Area2D_F64.polygonSimpleSigned(polygon) > 0.0) != outer;
+		for (int i = 0; i < N; i++) {
+			Point2D_F64 a = polygon.get(i);
+			Point2D_F64 b = polygon.get((i + 1)%N);
+			if (a.distance2(b) <= tol*tol)
+				continue;
+			if (reverse)
+				sides.grow().setTo(b, a);
+			else
+				sides.grow().setTo(a, b);
+			sideSet.add(set);
+		}
+	}
+
+	/**
+	 * Applies the operation to the subject and clip sets which have already been added.
+	 *
+	 * @param op (Input) Which operation
+	 * @param output (Output) Resulting polygons. Outer boundaries are CCW and holes are CW.
+	 */
+	public void process( Operation op, DogArray<PolygonHoles2D_F64> output ) {
+		output.reset();
+
+		splitSides();
+		mergeVertexes();
+		createEdges();
+		selectBoundary(op);
+		linkRings();
+		assignHoles(output);
+	}
+
+	/**
+	 * Finds where each side needs to be split because another side intersects it
+	 */
+	void splitSides() {
+		points.reset();
+		splits.reset();
+
+		for (int i = 0; i < sides.size; i++) {
+			LineSegment2D_F64 s = sides.get(i);
+			points.grow().p.setTo(s.a);
+			points.grow().p.setTo(s.b);
+		}
+
+		sweep.tol = tol;
+		sweep.includeEndPoints = true;
+		sweep.stopAtFirst = false;
+		sweep.process(sides.toList());
+
+		DogArray<IntersectionSegmentsSweep_F64.Crossing> found = sweep.getFound();
+		for (int i = 0; i < found.size; i++) {
+			IntersectionSegmentsSweep_F64.Crossing c = found.get(i);
+			LineSegment2D_F64 a = sides.get(c.indexA);
+			LineSegment2D_F64 b = sides.get(c.indexB);
+
+			// End points which touch the other side. This handles overlapping and T-junctions
+			splitAt(c.indexA, b.a);
+			splitAt(c.indexA, b.b);
+			splitAt(c.indexB, a.a);
+			splitAt(c.indexB, a.b);
+
+			// Proper intersection in the middle of both sides
+			if (Intersection2D_F64.intersection(a.a, a.b, b.a, b.b, location) == null)
+				continue;
+			if (isEndPoint(a, location) || isEndPoint(b, location))
+				continue;
+			double ta = parameter(a, location);
+			double tb = parameter(b, location);
+			if (ta <= 0.0 || ta >= 1.0 || tb <= 0.0 || tb >= 1.0)
+				continue;
+			SortPoint p = points.grow();
+			p.p.setTo(location);
+			addSplit(c.indexA, ta, points.size - 1);
+			addSplit(c.indexB, tb, points.size - 1);
+		}
+	}
+
+	/**
+	 * Splits the side at the point if the point lies on the side, but isn't one of its end points
+	 */
+	private void splitAt( int sideIdx, Point2D_F64 p ) {
+		LineSegment2D_F64 s = sides.get(sideIdx);
+		if (isEndPoint(s, p))
+			return;
+		double t = parameter(s, p);
+		if (t <= 0.0 || t >= 1.0)
+			return;
+		double x = s.a.x + t*(s.b.x - s.a.x);
+		double y = s.a.y + t*(s.b.y - s.a.y);
+		if (p.distance2(x, y) > tol*tol)
+			return;
+		points.grow().p.setTo(p);
+		addSplit(sideIdx, t, points.size - 1);
+	}
+
+	private void addSplit( int side, double t, int point ) {
+		Split s = splits.grow();
+		s.side = side;
+		s.t = t;
+		s.point = point;
+	}
+
+	private boolean isEndPoint( LineSegment2D_F64 s, Point2D_F64 p ) {
+		return s.a.distance2(p) <= tol*tol || s.b.distance2(p) <= tol*tol;
+	}
+
+	/** Location of the closest point along the side. 0 = a and 1 = b */
+	private static double parameter( LineSegment2D_F64 s, Point2D_F64 p ) {
+		double dx = s.b.x - s.a.x;
+		double dy = s.b.y - s.a.y;
+		return ((p.x - s.a.x)*dx + (p.y - s.a.y)*dy)/(dx*dx + dy*dy);
+	}
+
+	/**
+	 * Merges points which are within tolerance of each other into a single vertex
+	 */
+	void mergeVertexes() {
+		vertexes.reset();
+		pointToVertex.resize(points.size);
+
+		for (int i = 0; i < points.size; i++) {
+			points.get(i).index = i;
+		}
+		sorterPoints.sort(points.data, points.size);
+
+		// Sweep along the x-axis and only compare against vertexes which are close along x
+		int windowStart = 0;
+		for (int i = 0; i < points.size; i++) {
+			SortPoint sp = points.get(i);
+			while (points.get(windowStart).p.x < sp.p.x - tol) {
+				windowStart++;
+			}
+			int match = -1;
+			for (int j = windowStart; j < i; j++) {
+				SortPoint prev = points.get(j);
+				if (prev.p.distance2(sp.p) <= tol*tol) {
+					match = pointToVertex.get(prev.index);
+					break;
+				}
+			}
+			if (match == -1) {
+				match = vertexes.size;
+				vertexes.grow().setTo(sp.p);
+			}
+			pointToVertex.set(sp.index, match);
+		}
+	}
+
+	/**
+	 * Splits the sides into edges and merges edges which overlap. Overlapping edges connect the same two vertexes
+	 * so they are found by sorting the edges.
+	 */
+	void createEdges() {
+		edges.reset();
+
+		sorterSplits.sort(splits.data, splits.size);
+
+		int splitIdx = 0;
+		for (int sideIdx = 0; sideIdx < sides.size; sideIdx++) {
+			int set = sideSet.get(sideIdx);
+			int prev = pointToVertex.get(sideIdx*2);
+			while (splitIdx < splits.size && splits.get(splitIdx).side == sideIdx) {
+				int v = pointToVertex.get(splits.get(splitIdx++).point);
+				addEdge(prev, v, set);
+				prev = v;
+			}
+			addEdge(prev, pointToVertex.get(sideIdx*2 + 1), set);
+		}
+
+		sorterEdges.sort(edges.data, edges.size);
+		int numUnique = 0;
+		for (int i = 0; i < edges.size; i++) {
+			Edge e = edges.data[i];
+			if (numUnique > 0) {
+				Edge last = edges.data[numUnique - 1];
+				if (last.v0 == e.v0 && last.v1 == e.v1) {
+					last.delta[0] += e.delta[0];
+					last.delta[1] += e.delta[1];
+					continue;
+				}
+			}
+			// Swap instead of copying so that the array still owns every instance
+			edges.data[i] = edges.data[numUnique];
+			edges.data[numUnique++] = e;
+		}
+		edges.resize(numUnique);
+	}
+
+	/**
+	 * Adds a directed edge. Edges which connect the same vertexes are merged later on.
+	 */
+	private void addEdge( int from, int to, int set ) {
+		if (from == to)
+			return;
+
+		Edge e = edges.grow();
+		e.v0 = Integer.min(from, to);
+		e.v1 = Integer.max(from, to);
+		e.delta[set] += from == e.v0 ? 1 : -1;
+	}
+
+	/**
+	 * Determines which edges lie along the boundary of the output
+	 */
+	void selectBoundary( Operation op ) {
+		bucketsY.build();
+		bucketsX.build();
+
+		for (int i = 0; i < edges.size; i++) {
+			Edge e = edges.get(i);
+			if (e.delta[0] == 0 && e.delta[1] == 0)
+				continue;
+
+			Point2D_F64 p0 = vertexes.get(e.v0);
+			Point2D_F64 p1 = vertexes.get(e.v1);
+			double dx = p1.x - p0.x;
+			double dy = p1.y - p0.y;
+			double mx = (p0.x + p1.x)/2.0;
+			double my = (p0.y + p1.y)/2.0;
+
+			// Cast a ray from the middle of the edge which is as perpendicular as possible to the edge
+			boolean rayIsRight;
+			if (Math.abs(dy) >= Math.abs(dx)) {
+				bucketsY.winding(mx, my, e, winding);
+				rayIsRight = dy > 0;
+			} else {
+				bucketsX.winding(mx, my, e, winding);
+				rayIsRight = dx < 0;
+			}
+
+			// Crossing an edge from its right to its left side will increase the winding number by its delta
+			boolean insideLeft, insideRight;
+			if (rayIsRight) {
+				insideRight = op.apply(winding[0] > 0, winding[1] > 0);
+				insideLeft = op.apply(winding[0] + e.delta[0] > 0, winding[1] + e.delta[1] > 0);
+			} else {
+				insideLeft = op.apply(winding[0] > 0, winding[1] > 0);
+				insideRight = op.apply(winding[0] - e.delta[0] > 0, winding[1] - e.delta[1] > 0);
+			}
+
+			if (insideLeft == insideRight)
+				continue;
+			e.boundary = true;
+			// the output has its inside on the left
+			e.forward = insideLeft;
+			e.angle = e.forward ? Math.atan2(dy, dx) : Math.atan2(-dy, -dx);
+		}
+	}
+
+	/**
+	 * Links boundary edges together to form rings. At each vertex the next edge is the first one which is
+	 * clockwise from the incoming edge, i.e. the sharpest left turn. This will keep rings which touch at a
+	 * single vertex separate.
+	 */
+	void linkRings() {
+		rings.reset();
+
+		// Count sort the edges by their starting vertex
+		outStart.reset().resize(vertexes.size + 1, 0);
+		int total = 0;
+		for (int i = 0; i < edges.size; i++) {
+			Edge e = edges.get(i);
+			if (!e.boundary)
+				continue;
+			outStart.data[e.from() + 1]++;
+			total++;
+		}
+		for (int i = 0; i < vertexes.size; i++) {
+			outStart.data[i + 1] += outStart.data[i];
+		}
+		outEdges.resize(total);
+		for (int i = 0; i < edges.size; i++) {
+			Edge e = edges.get(i);
+			if (!e.boundary)
+				continue;
+			outEdges.data[outStart.data[e.from()]++] = e;
+		}
+		// Adding the edges shifted where each vertex starts by one
+		for (int i = vertexes.size; i > 0; i--) {
+			outStart.data[i] = outStart.data[i - 1];
+		}
+		outStart.data[0] = 0;
+
+		for (int i = 0; i < outEdges.size; i++) {
+			Edge start = outEdges.get(i);
+			if (start.used != 0)
+				continue;
+
+			Polygon2D_F64 ring = rings.grow();
+			Edge e = start;
+			while (true) {
+				e.used = 1;
+				ring.vertexes.grow().setTo(vertexes.get(e.from()));
+				e = selectNext(e, start);
+				if (e == start)
+					break;
+				if (e == null) {
+					// Something went wrong numerically and it's not a closed loop
+					rings.removeTail();
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Selects the outgoing edge which is the first one clockwise from the incoming edge
+	 */
+	private @Nullable Edge selectNext( Edge incoming, Edge start ) {
+		int v = incoming.to();
+		double reverse = incoming.angle + Math.PI;
+
+		Edge best = null;
+		double bestDistance = Double.MAX_VALUE;
+		for (int i = outStart.get(v); i < outStart.get(v + 1); i++) {
+			Edge e = outEdges.get(i);
+			if (e.used != 0 && e != start)
+				continue;
+			double distance = reverse - e.angle;
+			while (distance <= 0.0)
+				distance += 2.0*Math.PI;
+			while (distance > 2.0*Math.PI)
+				distance -= 2.0*Math.PI;
+			if (distance < bestDistance) {
+				bestDistance = distance;
+				best = e;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Rings with a positive area are outer boundaries and the others are holes. Holes are assigned to the
+	 * smallest outer boundary which contains them.
+	 */
+	void assignHoles( DogArray<PolygonHoles2D_F64> output ) {
+		ringToOutput.reset().resize(rings.size, -1);
+
+		for (int i = 0; i < rings.size; i++) {
+			Polygon2D_F64 ring = rings.get(i);
+			if (pruneCollinear)
+				pruneCollinear(ring);
+			if (ring.size() < 3)
+				continue;
+			if (Area2D_F64.polygonSimpleSigned(ring) <= 0.0)
+				continue;
+			ringToOutput.data[i] = output.size;
+			// the output might not have a reset function and contain holes from a previous call
+			PolygonHoles2D_F64 polygon = output.grow();
+			polygon.reset();
+			polygon.outer.setTo(ring);
+		}
+
+		for (int i = 0; i < rings.size; i++) {
+			Polygon2D_F64 ring = rings.get(i);
+			if (ring.size() < 3 || ringToOutput.data[i] != -1)
+				continue;
+
+			// a point along the hole's boundary which will be inside the outer boundary
+			Point2D_F64 a = ring.get(0);
+			Point2D_F64 b = ring.get(1);
+			location.setTo((a.x + b.x)/2.0, (a.y + b.y)/2.0);
+
+			int bestIdx = -1;
+			double bestArea = Double.MAX_VALUE;
+			for (int j = 0; j < rings.size; j++) {
+				int outputIdx = ringToOutput.data[j];
+				if (outputIdx == -1)
+					continue;
+				Polygon2D_F64 outer = output.get(outputIdx).outer;
+				if (!Intersection2D_F64.containsConcave(outer, location))
+					continue;
+				double area = Area2D_F64.polygonSimpleSigned(outer);
+				if (area < bestArea) {
+					bestArea = area;
+					bestIdx = outputIdx;
+				}
+			}
+			if (bestIdx != -1)
+				output.get(bestIdx).holes.grow().setTo(ring);
+		}
+	}
+
+	/**
+	 * Removes vertexes which lie on the line between their neighbors. The ring is compacted in a single pass by
+	 * treating the vertexes which are kept as a stack, then the vertexes where the ring wraps around are checked.
+	 */
+	void pruneCollinear( Polygon2D_F64 ring ) {
+		Point2D_F64[] v = ring.vertexes.data;
+		int N = ring.size();
+		if (N < 3)
+			return;
+
+		// number of vertexes which have been kept. They are stored at the start of the array
+		int kept = 0;
+		for (int i = 0; i < N; i++) {
+			while (kept >= 2 && isBetween(v[kept - 2], v[kept - 1], v[i])) {
+				kept--;
+			}
+			v[kept++].setTo(v[i]);
+		}
+
+		// Check the vertexes at the end of the ring, then the ones at the start
+		int first = 0;
+		while (kept - first >= 3) {
+			if (isBetween(v[kept - 2], v[kept - 1], v[first])) {
+				kept--;
+			} else if (isBetween(v[kept - 1], v[first], v[first + 1])) {
+				first++;
+			} else {
+				break;
+			}
+		}
+
+		if (first > 0) {
+			for (int i = first; i < kept; i++) {
+				v[i - first].setTo(v[i]);
+			}
+		}
+		ring.vertexes.size = kept - first;
+	}
+
+	/**
+	 * True if p1 lies on the line between p0 and p2, within tolerance, and is strictly between them
+	 */
+	boolean isBetween( Point2D_F64 p0, Point2D_F64 p1, Point2D_F64 p2 ) {
+		double dx = p2.x - p0.x;
+		double dy = p2.y - p0.y;
+		double length = Math.sqrt(dx*dx + dy*dy);
+		double cross = dx*(p1.y - p0.y) - dy*(p1.x - p0.x);
+		double dot = dx*(p1.x - p0.x) + dy*(p1.y - p0.y);
+
+		return Math.abs(cross) <= tol*length && dot > 0.0 && dot < length*length;
+	}
+
+	/**
+	 * Edges are put into buckets along one axis so that the edges a ray could cross can be quickly found. The
+	 * ray is always cast along the other axis in the positive direction.
+	 */
+	class Buckets {
+		// if true the ray goes along the y-axis otherwise the x-axis
+		boolean alongY;
+		DogArray<DogArray_I32> lists = new DogArray<>(DogArray_I32::new, DogArray_I32::reset);
+		double min, cellSize;
+
+		Buckets( boolean alongY ) {
+			this.alongY = alongY;
+		}
+
+		void build() {
+			lists.reset();
+			if (vertexes.size == 0)
+				return;
+
+			double max = -Double.MAX_VALUE;
+			min = Double.MAX_VALUE;
+			for (int i = 0; i < vertexes.size; i++) {
+				double v = coordinate(vertexes.get(i));
+				min = Math.min(min, v);
+				max = Math.max(max, v);
+			}
+			int numBuckets = Integer.max(1, (int)Math.sqrt(edges.size));
+			cellSize = Math.max((max - min)/numBuckets, Double.MIN_NORMAL);
+			lists.resize(numBuckets);
+
+			for (int i = 0; i < edges.size; i++) {
+				Edge e = edges.get(i);
+				if (e.delta[0] == 0 && e.delta[1] == 0)
+					continue;
+				double v0 = coordinate(vertexes.get(e.v0));
+				double v1 = coordinate(vertexes.get(e.v1));
+				int b0 = bucket(Math.min(v0, v1));
+				int b1 = bucket(Math.max(v0, v1));
+				for (int b = b0; b <= b1; b++) {
+					lists.get(b).add(i);
+				}
+			}
+		}
+
+		int bucket( double v ) {
+			return Integer.max(0, Integer.min(lists.size - 1, (int)((v - min)/cellSize)));
+		}
+
+		/** The coordinate the buckets are along. Rotated so that the ray is along the +x axis. */
+		double coordinate( Point2D_F64 p ) {
+			return alongY ? -p.x : p.y;
+		}
+
+		double other( Point2D_F64 p ) {
+			return alongY ? p.y : p.x;
+		}
+
+		/**
+		 * Computes the winding number for each set using a ray which starts at the specified point. Edges are
+		 * rotated so that the ray is always along the +x axis. If along y then (x,y) becomes (y,-x).
+		 */
+		void winding( double x, double y, Edge skip, int[] winding ) {
+			winding[0] = winding[1] = 0;
+			if (lists.size == 0)
+				return;
+
+			double px = alongY ? y : x;
+			double py = alongY ? -x : y;
+
+			DogArray_I32 list = lists.get(bucket(py));
+			for (int i = 0; i < list.size; i++) {
+				Edge e = edges.get(list.get(i));
+				if (e == skip)
+					continue;
+				Point2D_F64 a = vertexes.get(e.v0);
+				Point2D_F64 b = vertexes.get(e.v1);
+				double ax = other(a), ay = coordinate(a);
+				double bx = other(b), by = coordinate(b);
+
+				double side = (bx - ax)*(py - ay) - (px - ax)*(by - ay);
+				if (ay <= py) {
+					if (by > py && side > 0) {
+						winding[0] += e.delta[0];
+						winding[1] += e.delta[1];
+					}
+				} else if (by <= py && side < 0) {
+					winding[0] -= e.delta[0];
+					winding[1] -= e.delta[1];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Boolean operation that's applied to the two sets
+	 */
+	public enum Operation {
+		/** Inside the subject or the clip */
+		UNION,
+		/** Inside both the subject and clip */
+		INTERSECTION,
+		/** Inside the subject but not the clip */
+		DIFFERENCE,
+		/** Inside the subject or clip, but not both */
+		XOR;
+
+		boolean apply( boolean subject, boolean clip ) {
+			switch (this) {
+				case UNION:
+					return subject || clip;
+				case INTERSECTION:
+					return subject && clip;
+				case DIFFERENCE:
+					return subject && !clip;
+				default:
+					return subject != clip;
+			}
+		}
+	}
+
+	/** An edge between two vertexes after sides have been split and merged */
+	protected static class Edge {
+		// vertexes it connects. v0 < v1
+		public int v0, v1;
+		// How much the winding number changes going from right to left of v0 to v1 for each set
+		public final int[] delta = new int[2];
+		// if it's on the boundary of the output
+		public boolean boundary;
+		// if true the output boundary goes from v0 to v1
+		public boolean forward;
+		// angle of the output boundary
+		public double angle;
+		// used when linking edges together
+		public int used;
+
+		public int from() {
+			return forward ? v0 : v1;
+		}
+
+		public int to() {
+			return forward ? v1 : v0;
+		}
+
+		public void reset() {
+			v0 = v1 = -1;
+			delta[0] = delta[1] = 0;
+			boundary = false;
+			forward = false;
+			angle = 0;
+			used = 0;
+		}
+	}
+
+	/** Location where a side is split */
+	protected static class Split {
+		public int side;
+		public double t;
+		public int point;
+	}
+
+	/** Point which is sorted while remembering where it came from */
+	protected static class SortPoint {
+		public final Point2D_F64 p = new Point2D_F64();
+		public int index;
+	}
+}
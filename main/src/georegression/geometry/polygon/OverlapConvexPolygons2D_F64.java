@@ -0,0 +1,265 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.polygon;
+
+import georegression.metric.alg.OverlapSweepNms_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import georegression.struct.shapes.Quadrilateral_F64;
+import lombok.Getter;
+import org.ddogleg.struct.DogArray_F64;
+import org.ddogleg.struct.DogArray_I32;
+import org.ejml.data.DMatrixRMaj;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Computes the Intersection over Union (IoU) between every pair in a large set of convex polygons, and
+ * performs non-maximum suppression (NMS) with it, e.g. to select rotated bounding boxes from an object detector.
+ * </p>
+ *
+ * <p>
+ * Most pairs don't overlap. Candidate pairs are found by sweeping along the x-axis and only keeping pairs whose
+ * bounding boxes overlap. A pair is also skipped if an upper bound on its IoU, computed from the area of each
+ * polygon and the overlap of the bounding boxes, is too small. The exact IoU of the remaining pairs is found with
+ * {@link ClipConvexPolygon2D_F64}. All polygons are stored in a single packed array and no memory is declared
+ * after the first call.
+ * </p>
+ *
+ * <p>
+ * Usage: Add the polygons using {@link #add} then call {@link #process(double)} or
+ * {@link #nonMaximumSuppression}.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class OverlapConvexPolygons2D_F64 {
+	/** Pairs of polygons, packed as (i,j) with i &lt; j, that overlap. Order is arbitrary. */
+	@Getter protected final DogArray_I32 pairs = new DogArray_I32();
+
+	/** IoU of each pair in {@link #pairs} */
+	@Getter protected final DogArray_F64 pairIoU = new DogArray_F64();
+
+	// All the polygon's vertexes packed as (x,y)
+	protected final DogArray_F64 vertexes = new DogArray_F64();
+	// Index of the first vertex in each polygon. Has one more element than the number of polygons
+	protected final DogArray_I32 polygonStart = new DogArray_I32();
+	// Area of each polygon
+	protected final DogArray_F64 areas = new DogArray_F64();
+	// Bounding box of each polygon packed as (x0,y0,x1,y1)
+	protected final DogArray_F64 bounds = new DogArray_F64();
+
+	// Pairs whose bounding boxes overlap and their IoU
+	protected final DogArray_I32 candidates = new DogArray_I32();
+	protected final DogArray_F64 candidateIoU = new DogArray_F64();
+
+	// Finds candidate pairs and performs NMS
+	protected final OverlapSweepNms_F64 sweep = new OverlapSweepNms_F64();
+
+	protected final ClipConvexPolygon2D_F64 clipper = new ClipConvexPolygon2D_F64();
+
+	{
+		polygonStart.add(0);
+	}
+
+	/**
+	 * Removes all the polygons
+	 */
+	public void reset() {
+		vertexes.reset();
+		polygonStart.reset();
+		polygonStart.add(0);
+		areas.reset();
+		bounds.reset();
+		pairs.reset();
+		pairIoU.reset();
+	}
+
+	/**
+	 * Removes the old polygons and adds the new ones
+	 */
+	public void setPolygons( List<Polygon2D_F64> polygons ) {
+		reset();
+		for (int i = 0; i < polygons.size(); i++) {
+			add(polygons.get(i));
+		}
+	}
+
+	/**
+	 * Adds a convex polygon. Can be clockwise or counter-clockwise.
+	 */
+	public void add( Polygon2D_F64 polygon ) {
+		for (int i = 0; i < polygon.size(); i++) {
+			Point2D_F64 p = polygon.get(i);
+			vertexes.add(p.x);
+			vertexes.add(p.y);
+		}
+		finishPolygon();
+	}
+
+	/**
+	 * Adds a convex quadrilateral. Can be clockwise or counter-clockwise.
+	 */
+	public void add( Quadrilateral_F64 quad ) {
+		vertexes.add(quad.a.x);
+		vertexes.add(quad.a.y);
+		vertexes.add(quad.b.x);
+		vertexes.add(quad.b.y);
+		vertexes.add(quad.c.x);
+		vertexes.add(quad.c.y);
+		vertexes.add(quad.d.x);
+		vertexes.add(quad.d.y);
+		finishPolygon();
+	}
+
+	/** Number of polygons */
+	public int size() {
+		return areas.size;
+	}
+
+	private void finishPolygon() {
+		int start = polygonStart.getTail();
+		int end = vertexes.size/2;
+		polygonStart.add(end);
+
+		double x0 = Double.MAX_VALUE, y0 = Double.MAX_VALUE;
+		double x1 = -Double.MAX_VALUE, y1 = -Double.MAX_VALUE;
+		for (int i = start; i < end; i++) {
+			double x = vertexes.data[i*2], y = vertexes.data[i*2 + 1];
+			x0 = Math.min(x0, x);
+			y0 = Math.min(y0, y);
+			x1 = Math.max(x1, x);
+			y1 = Math.max(y1, y);
+		}
+		bounds.add(x0);
+		bounds.add(y0);
+		bounds.add(x1);
+		bounds.add(y1);
+		areas.add(Math.abs(ClipConvexPolygon2D_F64.signedArea(vertexes.data, start*2, end - start)));
+	}
+
+	/**
+	 * Computes the IoU between every pair of polygons. Pairs with an IoU greater than the minimum are saved in
+	 * {@link #getPairs()}.
+	 *
+	 * @param minimumIoU (Input) Only pairs with an IoU greater than this are saved. Set to 0 to save all
+	 * overlapping pairs.
+	 */
+	public void process( double minimumIoU ) {
+		findCandidates(minimumIoU);
+		computeCandidateIoU();
+
+		pairs.reset();
+		pairIoU.reset();
+		for (int i = 0; i < candidateIoU.size; i++) {
+			if (candidateIoU.data[i] <= minimumIoU)
+				continue;
+			pairs.add(candidates.data[i*2]);
+			pairs.add(candidates.data[i*2 + 1]);
+			pairIoU.add(candidateIoU.data[i]);
+		}
+	}
+
+	/**
+	 * Computes a dense matrix with the IoU between every pair of polygons. The diagonal is one.
+	 *
+	 * @param iou (Output) N by N symmetric matrix. Resized.
+	 */
+	public void computeMatrix( DMatrixRMaj iou ) {
+		process(0.0);
+		int N = size();
+		iou.reshape(N, N);
+		iou.zero();
+		for (int i = 0; i < N; i++) {
+			iou.unsafe_set(i, i, 1.0);
+		}
+		for (int k = 0; k < pairIoU.size; k++) {
+			int i = pairs.data[k*2], j = pairs.data[k*2 + 1];
+			iou.unsafe_set(i, j, pairIoU.data[k]);
+			iou.unsafe_set(j, i, pairIoU.data[k]);
+		}
+	}
+
+	/**
+	 * Greedy non-maximum suppression. Polygons are visited from the highest score to the lowest. If a polygon
+	 * hasn't been suppressed it's selected and every polygon with an IoU greater than the threshold is suppressed.
+	 * After calling this, {@link #getPairs()} contains the pairs with an IoU greater than the threshold.
+	 *
+	 * @param scores (Input) Score for each polygon. Higher is better.
+	 * @param threshold (Input) Polygons which overlap a selected polygon by more than this IoU are suppressed
+	 * @param selected (Output) Index of selected polygons, ordered from highest to lowest score
+	 */
+	public void nonMaximumSuppression( DogArray_F64 scores, double threshold, DogArray_I32 selected ) {
+		int N = size();
+		if (scores.size != N)
+			throw new IllegalArgumentException("There must be one score for each polygon");
+
+		process(threshold);
+		sweep.nonMaximumSuppression(pairs, scores.data, N, selected);
+	}
+
+	/**
+	 * Finds pairs whose bounding boxes overlap using a sweep along the x-axis. Pairs which can't possibly have an
+	 * IoU greater than the minimum are skipped.
+	 */
+	protected void findCandidates( double minimumIoU ) {
+		sweep.findCandidates(bounds.data, areas.data, size(), 2, minimumIoU, candidates);
+	}
+
+	/**
+	 * Computes the IoU of every candidate pair
+	 */
+	protected void computeCandidateIoU() {
+		candidateIoU.resize(candidates.size/2);
+		computeCandidateIoU(clipper, 0, candidateIoU.size);
+	}
+
+	/**
+	 * Computes the IoU of candidates in the specified range
+	 */
+	protected void computeCandidateIoU( ClipConvexPolygon2D_F64 clipper, int idx0, int idx1 ) {
+		for (int k = idx0; k < idx1; k++) {
+			candidateIoU.data[k] = computeIoU(clipper, candidates.data[k*2], candidates.data[k*2 + 1]);
+		}
+	}
+
+	/**
+	 * Computes the IoU between two polygons
+	 */
+	protected double computeIoU( ClipConvexPolygon2D_F64 clipper, int i, int j ) {
+		int startI = polygonStart.data[i], startJ = polygonStart.data[j];
+		double intersection = clipper.area(
+				vertexes.data, startI*2, polygonStart.data[i + 1] - startI,
+				vertexes.data, startJ*2, polygonStart.data[j + 1] - startJ);
+		double union = areas.data[i] + areas.data[j] - intersection;
+		return union <= 0.0 ? 0.0 : intersection/union;
+	}
+
+	/**
+	 * Computes the IoU between two of the polygons
+	 *
+	 * @param i (Input) Index of a polygon
+	 * @param j (Input) Index of a polygon
+	 * @return IoU
+	 */
+	public double computeIoU( int i, int j ) {
+		return computeIoU(clipper, i, j);
+	}
+}
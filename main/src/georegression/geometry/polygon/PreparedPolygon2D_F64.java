@@ -0,0 +1,292 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.polygon;
+
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import georegression.struct.shapes.PolygonHoles2D_F64;
+import org.ddogleg.sorting.QuickSort_F64;
+import org.ddogleg.struct.DogArray_B;
+import org.ddogleg.struct.DogArray_F64;
+import org.ddogleg.struct.DogArray_I32;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Polygon which has been preprocessed so that it can quickly determine if points are inside of it. Intended
+ * for when a large number of points are tested against the same polygon. Each test is O(log N) instead of the
+ * O(N) for {@link georegression.metric.Intersection2D_F64#containsConcave}.
+ * </p>
+ *
+ * <p>
+ * The plane is split into horizontal slabs at the y-coordinate of each vertex. No vertexes are inside a slab, so
+ * the sides which cross a slab can be sorted from left to right. Containment is then found with two binary
+ * searches, one for the slab and one for the number of sides to the left of the point. The polygon must be
+ * simple but can be concave and can have holes. The required memory is the total number of sides crossing
+ * each slab. This is typically much less than N<sup>2</sup> but N<sup>2</sup> is the worst case.
+ * </p>
+ *
+ * <p>NOTE: Points which lie along the perimeter may or may not be considered as inside.</p>
+ *
+ * @author Peter Abeles
+ */
+public class PreparedPolygon2D_F64 {
+	// y-coordinate of the border between slabs, in increasing order
+	protected final DogArray_F64 slabY = new DogArray_F64();
+
+	// Index of the first side in each slab. Sides in a slab are stored in 'slabSides'
+	protected final DogArray_I32 slabStart = new DogArray_I32();
+	protected final DogArray_I32 slabSides = new DogArray_I32();
+
+	// Each non-horizontal side is described by its bottom point and the change in x as y increases
+	protected final DogArray_F64 sideX = new DogArray_F64();
+	protected final DogArray_F64 sideY = new DogArray_F64();
+	protected final DogArray_F64 sideSlope = new DogArray_F64();
+	protected final DogArray_F64 sideTopY = new DogArray_F64();
+
+	// Bounding box of the polygon
+	protected double minX, maxX;
+
+	// Work space for sorting
+	protected final DogArray_F64 sortValues = new DogArray_F64();
+	protected final DogArray_I32 sortIndexes = new DogArray_I32();
+	protected final DogArray_I32 workSides = new DogArray_I32();
+	protected final QuickSort_F64 sorter = new QuickSort_F64();
+
+	public PreparedPolygon2D_F64( Polygon2D_F64 polygon ) {
+		setPolygon(polygon);
+	}
+
+	public PreparedPolygon2D_F64( PolygonHoles2D_F64 polygon ) {
+		setPolygon(polygon);
+	}
+
+	public PreparedPolygon2D_F64() {}
+
+	/**
+	 * Specifies the polygon and builds the search structure
+	 */
+	public void setPolygon( Polygon2D_F64 polygon ) {
+		reset();
+		addSides(polygon);
+		build();
+	}
+
+	/**
+	 * Specifies the polygon with holes and builds the search structure
+	 */
+	public void setPolygon( PolygonHoles2D_F64 polygon ) {
+		reset();
+		addSides(polygon.outer);
+		for (int i = 0; i < polygon.holes.size; i++) {
+			addSides(polygon.holes.get(i));
+		}
+		build();
+	}
+
+	/**
+	 * Returns true if the point is inside the polygon
+	 */
+	public boolean contains( Point2D_F64 p ) {
+		return contains(p.x, p.y);
+	}
+
+	/**
+	 * Returns true if the point (x,y) is inside the polygon
+	 */
+	public boolean contains( double x, double y ) {
+		final int numSlabs = slabY.size - 1;
+		if (numSlabs <= 0 || y < slabY.data[0] || y >= slabY.data[numSlabs] || x < minX || x > maxX)
+			return false;
+
+		// Find the slab which contains y
+		int lower = 0, upper = numSlabs;
+		while (upper - lower > 1) {
+			int middle = (lower + upper) >>> 1;
+			if (slabY.data[middle] <= y)
+				lower = middle;
+			else
+				upper = middle;
+		}
+
+		// Count the number of sides to the left of the point
+		final int start = slabStart.data[lower];
+		int low = start, high = slabStart.data[lower + 1];
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			int side = slabSides.data[middle];
+			double sx = sideX.data[side] + (y - sideY.data[side])*sideSlope.data[side];
+			if (sx <= x)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+
+		return (low - start)%2 == 1;
+	}
+
+	/**
+	 * Checks to see if each point is inside the polygon.
+	 *
+	 * @param points (Input) Points stored in an interleaved array, i.e. x0, y0, x1, y1, ...
+	 * @param results (Output) true if the point at the same index is inside
+	 */
+	public void contains( DogArray_F64 points, DogArray_B results ) {
+		if (points.size%2 != 0)
+			throw new IllegalArgumentException("Points must be interleaved x and y, so the size must be even");
+		results.resize(points.size/2);
+		contains(points.data, 0, points.size/2, results.data);
+	}
+
+	/**
+	 * Checks a range of points which are stored in an interleaved array
+	 *
+	 * @param idx0 Index of the first point, inclusive
+	 * @param idx1 Index of the last point, exclusive
+	 */
+	protected void contains( double[] points, int idx0, int idx1, boolean[] results ) {
+		for (int i = idx0; i < idx1; i++) {
+			results[i] = contains(points[i*2], points[i*2 + 1]);
+		}
+	}
+
+	/**
+	 * Number of slabs the plane has been divided into
+	 */
+	public int getSlabCount() {
+		return Integer.max(0, slabY.size - 1);
+	}
+
+	public void reset() {
+		slabY.reset();
+		slabStart.reset();
+		slabSides.reset();
+		sideX.reset();
+		sideY.reset();
+		sideSlope.reset();
+		sideTopY.reset();
+		minX = Double.MAX_VALUE;
+		maxX = -Double.MAX_VALUE;
+	}
+
+	/**
+	 * Saves the non-horizontal sides and the y-coordinate of every vertex
+	 */
+	void addSides( Polygon2D_F64 polygon ) {
+		final int N = polygon.size();
+		if (N < 3)
+			return;
+		for (int i = 0, j = N - 1; i < N; j = i, i++) {
+			Point2D_F64 a = polygon.get(j);
+			Point2D_F64 b = polygon.get(i);
+			minX = Math.min(minX, b.x);
+			maxX = Math.max(maxX, b.x);
+			slabY.add(b.y);
+
+			if (a.y == b.y)
+				continue;
+			if (a.y > b.y) {
+				Point2D_F64 tmp = a;
+				a = b;
+				b = tmp;
+			}
+			sideX.add(a.x);
+			sideY.add(a.y);
+			sideTopY.add(b.y);
+			sideSlope.add((b.x - a.x)/(b.y - a.y));
+		}
+	}
+
+	/**
+	 * Creates the slabs and assigns sides to them
+	 */
+	void build() {
+		// Remove duplicate y values
+		if (slabY.size == 0)
+			return;
+		Arrays.sort(slabY.data, 0, slabY.size);
+		int unique = 1;
+		for (int i = 1; i < slabY.size; i++) {
+			if (slabY.data[i] != slabY.data[unique - 1])
+				slabY.data[unique++] = slabY.data[i];
+		}
+		slabY.size = unique;
+		final int numSlabs = unique - 1;
+
+		// Count how many sides are in each slab, then compute where each slab starts
+		slabStart.reset().resize(numSlabs + 1, 0);
+		for (int side = 0; side < sideX.size; side++) {
+			int first = findSlab(sideY.data[side]);
+			int last = findSlab(sideTopY.data[side]);
+			for (int slab = first; slab < last; slab++) {
+				slabStart.data[slab + 1]++;
+			}
+		}
+		for (int slab = 0; slab < numSlabs; slab++) {
+			slabStart.data[slab + 1] += slabStart.data[slab];
+		}
+
+		// Add the sides to each slab
+		slabSides.resize(slabStart.data[numSlabs]);
+		workSides.reset().resize(numSlabs, 0);
+		for (int side = 0; side < sideX.size; side++) {
+			int first = findSlab(sideY.data[side]);
+			int last = findSlab(sideTopY.data[side]);
+			for (int slab = first; slab < last; slab++) {
+				slabSides.data[slabStart.data[slab] + workSides.data[slab]++] = side;
+			}
+		}
+
+		// Sides can't cross inside a slab, so sorting by their x-coordinate at the middle sorts them everywhere
+		for (int slab = 0; slab < numSlabs; slab++) {
+			int start = slabStart.data[slab];
+			int count = slabStart.data[slab + 1] - start;
+			double y = (slabY.data[slab] + slabY.data[slab + 1])/2.0;
+
+			sortValues.resize(count);
+			sortIndexes.resize(count);
+			workSides.resize(count);
+			for (int i = 0; i < count; i++) {
+				int side = slabSides.data[start + i];
+				sortValues.data[i] = sideX.data[side] + (y - sideY.data[side])*sideSlope.data[side];
+				workSides.data[i] = side;
+			}
+			sorter.sort(sortValues.data, 0, count, sortIndexes.data);
+			for (int i = 0; i < count; i++) {
+				slabSides.data[start + i] = workSides.data[sortIndexes.data[i]];
+			}
+		}
+	}
+
+	/**
+	 * Returns the index of the slab whose lower border has the specified y-coordinate
+	 */
+	int findSlab( double y ) {
+		int lower = 0, upper = slabY.size - 1;
+		while (lower < upper) {
+			int middle = (lower + upper) >>> 1;
+			if (slabY.data[middle] < y)
+				lower = middle + 1;
+			else
+				upper = middle;
+		}
+		return lower;
+	}
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.polygon;
+
+import georegression.struct.shapes.Polygon2D_F64;
+import georegression.struct.shapes.PolygonHoles2D_F64;
+import org.ddogleg.DDoglegConcurrency;
+import org.ddogleg.struct.DogArray_B;
+import org.ddogleg.struct.DogArray_F64;
+
+/**
+ * A concurrent implementation of {@link PreparedPolygon2D_F64}. Only checking a batch of points is concurrent.
+ *
+ * @author Peter Abeles
+ */
+public class PreparedPolygon2D_MT_F64 extends PreparedPolygon2D_F64 {
+
+	/** There needs to be at least this many points for it to use the concurrent implementation */
+	public int minimumPointsConcurrent = 1000;
+
+	public PreparedPolygon2D_MT_F64( Polygon2D_F64 polygon ) {
+		super(polygon);
+	}
+
+	public PreparedPolygon2D_MT_F64( PolygonHoles2D_F64 polygon ) {
+		super(polygon);
+	}
+
+	public PreparedPolygon2D_MT_F64() {}
+
+	@Override
+	public void contains( DogArray_F64 points, DogArray_B results ) {
+		if (points.size%2 != 0)
+			throw new IllegalArgumentException("Points must be interleaved x and y, so the size must be even");
+		final int N = points.size/2;
+		results.resize(N);
+
+		if (N < minimumPointsConcurrent) {
+			contains(points.data, 0, N, results.data);
+		} else {
+			// The search structure is only read from, so each point can be checked independently
+			DDoglegConcurrency.loopBlocks(0, N, ( idx0, idx1 ) -> contains(points.data, idx0, idx1, results.data));
+		}
+	}
+}
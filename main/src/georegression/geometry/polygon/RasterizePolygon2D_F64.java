@@ -0,0 +1,473 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.polygon;
+
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.point.Point2D_I32;
+import georegression.struct.shapes.Polygon2D_F64;
+import georegression.struct.shapes.Polygon2D_I32;
+import org.ddogleg.struct.DogArray_F64;
+import org.ddogleg.struct.DogArray_I32;
+
+/**
+ * <p>
+ * Converts a polygon into pixels using a scanline algorithm with an active edge table. Instead of creating a mask
+ * the pixels are passed to a consumer one row at a time. The cost is proportional to the number of rows plus
+ * the number of edges crossing each row, instead of the number of pixels times the number of vertexes.
+ * </p>
+ *
+ * <ul>
+ *     <li>{@link #process(Polygon2D_F64, int, int, SpanConsumer) Spans}: A pixel (x,y) is inside if the point
+ *     (x,y) is inside the polygon using the even-odd rule. This gives the same result as
+ *     {@link georegression.metric.Intersection2D_F64#containsConcave} for every pixel.</li>
+ *     <li>{@link #processCoverage(Polygon2D_F64, int, int, CoverageConsumer) Coverage}: Anti-aliased. The
+ *     fraction of the pixel's area which is inside the polygon, where pixel (x,y) is the square with corners
+ *     (x-0.5,y-0.5) and (x+0.5,y+0.5). Computed by accumulating the signed area of each edge [1], so where a
+ *     self-intersecting polygon overlaps itself the coverage is clamped to 1 instead of using the even-odd rule.</li>
+ * </ul>
+ *
+ * <p>
+ * Only pixels inside the image, 0 &le; x &lt; width and 0 &le; y &lt; height, are passed to the consumer.
+ * Internal work space is saved and reused between calls.
+ * </p>
+ *
+ * <p>[1] Levien, Raph. "Inside the fastest font renderer in the world." (2016)</p>
+ *
+ * @author Peter Abeles
+ */
+public class RasterizePolygon2D_F64 {
+	// Input polygon packed as (x,y)
+	final DogArray_F64 vertexes = new DogArray_F64();
+
+	// Edges packed as (x0,y0,x1,y1,direction) with y0 < y1. direction is +1 if the polygon goes down the edge
+	final DogArray_F64 edges = new DogArray_F64();
+
+	// Edge table. Index of edges sorted by the first row they intersect
+	final DogArray_I32 bucketStart = new DogArray_I32();
+	final DogArray_I32 bucketEdges = new DogArray_I32();
+
+	// Edges which intersect the current row
+	final DogArray_I32 active = new DogArray_I32();
+	final DogArray_F64 crossings = new DogArray_F64();
+
+	// Coverage accumulation buffer for a single row
+	final DogArray_F64 accumulator = new DogArray_F64();
+
+	// range of rows with edges in them
+	int rowFirst, rowEnd;
+
+	/**
+	 * Finds all the pixels inside the polygon
+	 *
+	 * @param polygon (Input) Polygon
+	 * @param width (Input) Image width
+	 * @param height (Input) Image height
+	 * @param consumer (Output) Receives the spans of pixels which are inside
+	 */
+	public void process( Polygon2D_F64 polygon, int width, int height, SpanConsumer consumer ) {
+		setPolygon(polygon);
+		process(vertexes.data, polygon.size(), width, height, consumer);
+	}
+
+	/**
+	 * Finds all the pixels inside the polygon
+	 *
+	 * @param polygon (Input) Polygon
+	 * @param width (Input) Image width
+	 * @param height (Input) Image height
+	 * @param consumer (Output) Receives the spans of pixels which are inside
+	 */
+	public void process( Polygon2D_I32 polygon, int width, int height, SpanConsumer consumer ) {
+		setPolygon(polygon);
+		process(vertexes.data, polygon.size(), width, height, consumer);
+	}
+
+	/**
+	 * Finds all the pixels inside the polygon
+	 *
+	 * @param xy (Input) Polygon's vertexes packed as x0,y0,x1,y1,...
+	 * @param count (Input) Number of vertexes
+	 * @param width (Input) Image width
+	 * @param height (Input) Image height
+	 * @param consumer (Output) Receives the spans of pixels which are inside
+	 */
+	public void process( double[] xy, int count, int width, int height, SpanConsumer consumer ) {
+		createEdges(xy, count);
+		// Row y intersects an edge if y0 <= y < y1
+		createEdgeTable(0.0, height);
+
+		active.reset();
+		for (int y = rowFirst; y < rowEnd; y++) {
+			updateActive(y, 0.0);
+
+			// x-coordinate where each edge crosses the row
+			crossings.reset();
+			for (int i = 0; i < active.size; i++) {
+				int idx = active.data[i]*5;
+				double x0 = edges.data[idx], y0 = edges.data[idx + 1];
+				double x1 = edges.data[idx + 2], y1 = edges.data[idx + 3];
+				crossings.add((y - y0)*(x1 - x0)/(y1 - y0) + x0);
+			}
+			insertionSort(crossings);
+
+			// Pixel x is between two crossings if xa <= x < xb
+			for (int i = 0; i + 1 < crossings.size; i += 2) {
+				int x0 = (int)Math.max(0.0, Math.ceil(crossings.data[i]));
+				int x1 = (int)Math.min(width, Math.ceil(crossings.data[i + 1]));
+				if (x0 < x1)
+					consumer.span(y, x0, x1);
+			}
+		}
+	}
+
+	/**
+	 * Computes the fraction of each pixel which is covered by the polygon
+	 *
+	 * @param polygon (Input) Polygon
+	 * @param width (Input) Image width
+	 * @param height (Input) Image height
+	 * @param consumer (Output) Receives the coverage one row at a time
+	 */
+	public void processCoverage( Polygon2D_F64 polygon, int width, int height, CoverageConsumer consumer ) {
+		setPolygon(polygon);
+		processCoverage(vertexes.data, polygon.size(), width, height, consumer);
+	}
+
+	/**
+	 * Computes the fraction of each pixel which is covered by the polygon
+	 *
+	 * @param polygon (Input) Polygon
+	 * @param width (Input) Image width
+	 * @param height (Input) Image height
+	 * @param consumer (Output) Receives the coverage one row at a time
+	 */
+	public void processCoverage( Polygon2D_I32 polygon, int width, int height, CoverageConsumer consumer ) {
+		setPolygon(polygon);
+		processCoverage(vertexes.data, polygon.size(), width, height, consumer);
+	}
+
+	/**
+	 * Computes the fraction of each pixel which is covered by the polygon
+	 *
+	 * @param xy (Input) Polygon's vertexes packed as x0,y0,x1,y1,...
+	 * @param count (Input) Number of vertexes
+	 * @param width (Input) Image width
+	 * @param height (Input) Image height
+	 * @param consumer (Output) Receives the coverage one row at a time
+	 */
+	public void processCoverage( double[] xy, int count, int width, int height, CoverageConsumer consumer ) {
+		createEdges(xy, count);
+		// Pixel row y covers y-0.5 to y+0.5
+		createEdgeTable(0.5, height);
+
+		// two extra elements since the area to the right of a pixel is added to the next pixel
+		accumulator.reset().resize(width + 2, 0.0);
+		double[] acc = accumulator.data;
+
+		active.reset();
+		for (int y = rowFirst; y < rowEnd; y++) {
+			updateActive(y, 0.5);
+
+			// Range of pixels which have been modified
+			int minX = width, maxX = -1;
+			for (int i = 0; i < active.size; i++) {
+				int idx = active.data[i]*5;
+				double x0 = edges.data[idx] + 0.5, y0 = edges.data[idx + 1] + 0.5;
+				double x1 = edges.data[idx + 2] + 0.5, y1 = edges.data[idx + 3] + 0.5;
+				double direction = edges.data[idx + 4];
+
+				// part of the edge which is inside this row
+				double top = Math.max(y0, y), bottom = Math.min(y1, y + 1);
+				if (top >= bottom)
+					continue;
+				double slope = (x1 - x0)/(y1 - y0);
+				double xa = x0 + (top - y0)*slope;
+				double xb = x0 + (bottom - y0)*slope;
+
+				minX = Integer.min(minX, clamp((double)Math.floor(Math.min(xa, xb)), width));
+				maxX = Integer.max(maxX, clamp((double)Math.ceil(Math.max(xa, xb)), width));
+
+				accumulateClipped(acc, width, direction, xa, top - y, xb, bottom - y);
+			}
+			if (maxX < 0)
+				continue;
+
+			// The sum of everything to the left is the signed area that's covered
+			double sum = 0.0;
+			int end = Integer.min(width, maxX + 1);
+			for (int x = minX; x < end; x++) {
+				sum += acc[x];
+				acc[x] = Math.min(1.0, Math.abs(sum));
+			}
+			if (minX < end)
+				consumer.row(y, minX, end, acc);
+
+			// Lines can modify up to two elements past the last pixel
+			for (int x = minX; x < Math.min(width + 2, maxX + 2); x++) {
+				acc[x] = 0.0;
+			}
+		}
+	}
+
+	static int clamp( double x, int width ) {
+		return (int)Math.max(0.0, Math.min(width, x));
+	}
+
+	/**
+	 * Adds the line from (xa,ya) to (xb,yb) inside the row, after clipping it to the image. The part which is to
+	 * the left of the image becomes a vertical line along the image's left border.
+	 */
+	void accumulateClipped( double[] acc, int width, double direction,
+							double xa, double ya, double xb, double yb ) {
+		if (xa > xb) {
+			// order by x to make clipping easier. Direction doesn't change since y still increases
+			double tx = xa, ty = ya;
+			xa = xb;
+			ya = yb;
+			xb = tx;
+			yb = ty;
+		}
+		if (xb <= 0.0) {
+			accumulate(acc, direction, 0.0, ya, 0.0, yb);
+			return;
+		}
+		if (xa >= width) {
+			accumulate(acc, direction, width, ya, width, yb);
+			return;
+		}
+		if (xa < 0.0) {
+			double yc = ya + (yb - ya)*(0.0 - xa)/(xb - xa);
+			accumulate(acc, direction, 0.0, ya, 0.0, yc);
+			xa = 0.0;
+			ya = yc;
+		}
+		if (xb > width) {
+			double yc = ya + (yb - ya)*(width - xa)/(xb - xa);
+			accumulate(acc, direction, width, yc, width, yb);
+			xb = width;
+			yb = yc;
+		}
+		accumulate(acc, direction, xa, ya, xb, yb);
+	}
+
+	/**
+	 * Adds the signed area of a line inside the row. The row spans y = 0 to 1 and the y-coordinates are relative
+	 * to it. Each pixel gets the area to its right, minus what's added to the pixels to its right, so that the
+	 * running sum of the accumulator is the area to the left of the line.
+	 */
+	static void accumulate( double[] acc, double direction, double xa, double ya, double xb, double yb ) {
+		double d = direction*Math.abs(yb - ya);
+		if (d == 0.0)
+			return;
+		double x0 = Math.min(xa, xb), x1 = Math.max(xa, xb);
+		double x0floor = Math.floor(x0);
+		int x0i = (int)x0floor;
+		double x1ceil = Math.ceil(x1);
+		int x1i = (int)x1ceil;
+
+		if (x1i <= x0i + 1) {
+			// The line is inside a single pixel
+			double xmf = 0.5*(x0 + x1) - x0floor;
+			acc[x0i] += d - d*xmf;
+			acc[x0i + 1] += d*xmf;
+		} else {
+			double s = 1.0/(x1 - x0);
+			double x0f = x0 - x0floor;
+			double a0 = 0.5*s*(1.0 - x0f)*(1.0 - x0f);
+			double x1f = x1 - x1ceil + 1.0;
+			double am = 0.5*s*x1f*x1f;
+			acc[x0i] += d*a0;
+			if (x1i == x0i + 2) {
+				acc[x0i + 1] += d*(1.0 - a0 - am);
+			} else {
+				double a1 = s*(1.5 - x0f);
+				acc[x0i + 1] += d*(a1 - a0);
+				for (int x = x0i + 2; x < x1i - 1; x++) {
+					acc[x] += d*s;
+				}
+				double a2 = a1 + (x1i - x0i - 3)*s;
+				acc[x1i - 1] += d*(1.0 - a2 - am);
+			}
+			acc[x1i] += d*am;
+		}
+	}
+
+	void setPolygon( Polygon2D_F64 polygon ) {
+		vertexes.resize(polygon.size()*2);
+		for (int i = 0; i < polygon.size(); i++) {
+			Point2D_F64 p = polygon.get(i);
+			vertexes.data[i*2] = p.x;
+			vertexes.data[i*2 + 1] = p.y;
+		}
+	}
+
+	void setPolygon( Polygon2D_I32 polygon ) {
+		vertexes.resize(polygon.size()*2);
+		for (int i = 0; i < polygon.size(); i++) {
+			Point2D_I32 p = polygon.get(i);
+			vertexes.data[i*2] = p.x;
+			vertexes.data[i*2 + 1] = p.y;
+		}
+	}
+
+	/**
+	 * Creates the list of edges. Horizontal edges are skipped since they never cross a row.
+	 */
+	void createEdges( double[] xy, int count ) {
+		if (count < 0 || 2L*count > xy.length)
+			throw new IllegalArgumentException("Array is too small for the requested points");
+		edges.reset();
+		if (count < 3)
+			return;
+		for (int i = 0, j = count - 1; i < count; j = i, i++) {
+			double ax = xy[j*2], ay = xy[j*2 + 1];
+			double bx = xy[i*2], by = xy[i*2 + 1];
+			if (ay == by)
+				continue;
+			if (ay < by) {
+				edges.add(ax);
+				edges.add(ay);
+				edges.add(bx);
+				edges.add(by);
+				edges.add(1.0);
+			} else {
+				edges.add(bx);
+				edges.add(by);
+				edges.add(ax);
+				edges.add(ay);
+				edges.add(-1.0);
+			}
+		}
+	}
+
+	/**
+	 * Sorts the edges into buckets by the first row they intersect using a counting sort. If offset is 0 then an
+	 * edge intersects rows y0 &le; y &lt; y1, if it's 0.5 then rows y0-0.5 &lt; y &lt; y1+0.5.
+	 */
+	void createEdgeTable( double offset, int height ) {
+		int numEdges = edges.size/5;
+
+		// rows which need to be processed
+		rowFirst = height;
+		rowEnd = 0;
+		for (int i = 0; i < numEdges; i++) {
+			rowFirst = Integer.min(rowFirst, firstRow(edges.data[i*5 + 1], offset));
+			rowEnd = Integer.max(rowEnd, lastRow(edges.data[i*5 + 3], offset) + 1);
+		}
+		rowFirst = Integer.max(0, rowFirst);
+		rowEnd = Integer.min(height, rowEnd);
+		if (rowFirst >= rowEnd) {
+			rowEnd = rowFirst;
+			bucketEdges.reset();
+			return;
+		}
+
+		int numRows = rowEnd - rowFirst;
+		bucketStart.reset().resize(numRows + 1, 0);
+		for (int i = 0; i < numEdges; i++) {
+			int row = firstRow(edges.data[i*5 + 1], offset);
+			if (lastRow(edges.data[i*5 + 3], offset) < Math.max(row, rowFirst) || row >= rowEnd)
+				continue;
+			bucketStart.data[Math.max(0, row - rowFirst) + 1]++;
+		}
+		for (int i = 0; i < numRows; i++) {
+			bucketStart.data[i + 1] += bucketStart.data[i];
+		}
+		bucketEdges.resize(bucketStart.data[numRows]);
+		// bucketStart is used to track where the next edge goes then restored
+		for (int i = 0; i < numEdges; i++) {
+			int row = firstRow(edges.data[i*5 + 1], offset);
+			if (lastRow(edges.data[i*5 + 3], offset) < Math.max(row, rowFirst) || row >= rowEnd)
+				continue;
+			int bucket = Integer.max(0, row - rowFirst);
+			bucketEdges.data[bucketStart.data[bucket]++] = i;
+		}
+		for (int i = numRows; i > 0; i--) {
+			bucketStart.data[i] = bucketStart.data[i - 1];
+		}
+		bucketStart.data[0] = 0;
+	}
+
+	/** First row which intersects the edge */
+	static int firstRow( double y0, double offset ) {
+		return offset == 0.0 ? (int)Math.ceil(y0) : (int)Math.floor(y0 + offset);
+	}
+
+	/** Last row which intersects the edge */
+	static int lastRow( double y1, double offset ) {
+		return offset == 0.0 ? (int)Math.ceil(y1) - 1 : (int)Math.ceil(y1 + offset) - 1;
+	}
+
+	/**
+	 * Adds edges which start at this row and removes edges which ended before it
+	 */
+	void updateActive( int y, double offset ) {
+		int keep = 0;
+		for (int i = 0; i < active.size; i++) {
+			int edge = active.data[i];
+			if (lastRow(edges.data[edge*5 + 3], offset) >= y)
+				active.data[keep++] = edge;
+		}
+		active.size = keep;
+
+		int bucket = y - rowFirst;
+		for (int i = bucketStart.data[bucket]; i < bucketStart.data[bucket + 1]; i++) {
+			active.add(bucketEdges.data[i]);
+		}
+	}
+
+	/** Crossings are nearly sorted from one row to the next so insertion sort is fast */
+	static void insertionSort( DogArray_F64 values ) {
+		double[] data = values.data;
+		for (int i = 1; i < values.size; i++) {
+			double v = data[i];
+			int j = i - 1;
+			while (j >= 0 && data[j] > v) {
+				data[j + 1] = data[j];
+				j--;
+			}
+			data[j + 1] = v;
+		}
+	}
+
+	/**
+	 * Receives a horizontal run of pixels which are inside the polygon
+	 */
+	public interface SpanConsumer {
+		/**
+		 * @param y Row
+		 * @param x0 First pixel in the span, inclusive
+		 * @param x1 Last pixel in the span, exclusive
+		 */
+		void span( int y, int x0, int x1 );
+	}
+
+	/**
+	 * Receives the coverage for a single row. Pixels outside the range have a coverage of zero.
+	 */
+	public interface CoverageConsumer {
+		/**
+		 * @param y Row
+		 * @param x0 First pixel with non-zero coverage, inclusive
+		 * @param x1 Last pixel with non-zero coverage, exclusive
+		 * @param coverage Fraction of each pixel which is inside the polygon. Pixel x is at coverage[x].
+		 */
+		void row( int y, int x0, int x1, double[] coverage );
+	}
+}
@@ -0,0 +1,505 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.polygon;
+
+import georegression.geometry.lines.IntersectionSegmentsSweep_F64;
+import georegression.struct.line.LineSegment2D_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.point.Point2D_I32;
+import georegression.struct.shapes.Polygon2D_F64;
+import georegression.struct.shapes.Polygon2D_I32;
+import lombok.Getter;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_B;
+import org.ddogleg.struct.DogArray_F64;
+import org.ddogleg.struct.DogArray_I32;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Reduces the number of vertexes in a polyline or polygon while approximately preserving its shape. Polygons are
+ * treated as closed polylines. The selected vertexes are always a subset of the input vertexes and are in the
+ * same order.
+ * </p>
+ *
+ * <ul>
+ *     <li>{@link Method#DOUGLAS_PEUCKER}: Ramer-Douglas-Peucker [1]. Vertexes are added until every removed
+ *     vertex is within {@link #tolerance} of the simplified polyline. Implemented with an explicit stack.</li>
+ *     <li>{@link Method#VISVALINGAM}: Visvalingam-Whyatt [2]. The vertex which forms the triangle with the
+ *     smallest area with its two neighbors is removed until every triangle has an area of at least
+ *     {@link #tolerance}. A heap is used to find the smallest triangle.</li>
+ * </ul>
+ *
+ * <p>
+ * Neither method ensures the output is simple, e.g. a thin part of a contour can collapse onto itself. If
+ * {@link #preserveTopology} is true then the sides of the output are checked for intersections with
+ * {@link IntersectionSegmentsSweep_F64}. Removed vertexes are restored in sides which cross until none remain,
+ * which works so long as the input was simple.
+ * </p>
+ *
+ * <p>
+ * Internal work space is saved and reused between calls.
+ * </p>
+ *
+ * <p>[1] Douglas, David H., and Thomas K. Peucker. "Algorithms for the reduction of the number of points required
+ * to represent a digitized line or its caricature." Cartographica (1973)</p>
+ * <p>[2] Visvalingam, Maheswari, and James D. Whyatt. "Line generalisation by repeated elimination of points."
+ * The Cartographic Journal (1993)</p>
+ *
+ * @author Peter Abeles
+ */
+public class SimplifyPolyline_F64 {
+	/** Which algorithm is used to select vertexes */
+	public Method method = Method.DOUGLAS_PEUCKER;
+
+	/**
+	 * How much the shape can change. For Douglas-Peucker it's the maximum distance a removed vertex can be from
+	 * the output. For Visvalingam it's the minimum triangle area a vertex must have to be kept.
+	 */
+	public double tolerance = 1.0;
+
+	/** If true then removed vertexes are restored until the output doesn't intersect itself */
+	public boolean preserveTopology = false;
+
+	/** Indexes of the input vertexes which were selected, in increasing order */
+	@Getter final DogArray_I32 selected = new DogArray_I32();
+
+	// input points packed as (x,y)
+	final DogArray_F64 packed = new DogArray_F64();
+	double[] xy = new double[0];
+	int N;
+	boolean closed;
+
+	// true if a vertex is part of the output
+	final DogArray_B keep = new DogArray_B();
+
+	// Douglas-Peucker stack of (start,end) pairs. End can be N for a closed polyline, which is vertex 0
+	final DogArray_I32 stack = new DogArray_I32();
+
+	// Visvalingam linked list and a min-heap of vertexes ordered by area
+	final DogArray_I32 prev = new DogArray_I32();
+	final DogArray_I32 next = new DogArray_I32();
+	final DogArray_F64 area = new DogArray_F64();
+	final DogArray_I32 heap = new DogArray_I32();
+	final DogArray_I32 heapLocation = new DogArray_I32();
+
+	// Used to find sides which intersect
+	final IntersectionSegmentsSweep_F64 sweep = new IntersectionSegmentsSweep_F64();
+	final DogArray<LineSegment2D_F64> sides = new DogArray<>(LineSegment2D_F64::new);
+	final DogArray_B crossed = new DogArray_B();
+
+	{
+		sweep.includeEndPoints = false;
+	}
+
+	/**
+	 * Simplifies the polygon. Input and output can be the same instance.
+	 *
+	 * @param input (Input) Polygon
+	 * @param output (Output) Simplified polygon
+	 */
+	public void process( Polygon2D_F64 input, Polygon2D_F64 output ) {
+		packed.resize(input.size()*2);
+		for (int i = 0; i < input.size(); i++) {
+			Point2D_F64 p = input.get(i);
+			packed.data[i*2] = p.x;
+			packed.data[i*2 + 1] = p.y;
+		}
+		process(packed.data, input.size(), true);
+
+		output.vertexes.resize(selected.size);
+		for (int i = 0; i < selected.size; i++) {
+			int idx = selected.data[i]*2;
+			output.get(i).setTo(packed.data[idx], packed.data[idx + 1]);
+		}
+	}
+
+	/**
+	 * Simplifies the polygon. Input and output can be the same instance.
+	 *
+	 * @param input (Input) Polygon
+	 * @param output (Output) Simplified polygon
+	 */
+	public void process( Polygon2D_I32 input, Polygon2D_I32 output ) {
+		packed.resize(input.size()*2);
+		for (int i = 0; i < input.size(); i++) {
+			Point2D_I32 p = input.get(i);
+			packed.data[i*2] = p.x;
+			packed.data[i*2 + 1] = p.y;
+		}
+		process(packed.data, input.size(), true);
+
+		output.vertexes.resize(selected.size);
+		for (int i = 0; i < selected.size; i++) {
+			int idx = selected.data[i]*2;
+			output.get(i).setTo((int)packed.data[idx], (int)packed.data[idx + 1]);
+		}
+	}
+
+	/**
+	 * Simplifies a polyline. Input and output can't be the same instance.
+	 *
+	 * @param input (Input) Vertexes in the polyline
+	 * @param closed (Input) true if the last vertex is connected to the first
+	 * @param output (Output) Selected vertexes
+	 */
+	public void process( List<Point2D_F64> input, boolean closed, DogArray<Point2D_F64> output ) {
+		process(input, closed);
+		output.resize(selected.size);
+		for (int i = 0; i < selected.size; i++) {
+			output.get(i).setTo(input.get(selected.data[i]));
+		}
+	}
+
+	/**
+	 * Selects vertexes from the polyline. Results are stored in {@link #getSelected()}.
+	 *
+	 * @param input (Input) Vertexes in the polyline
+	 * @param closed (Input) true if the last vertex is connected to the first
+	 */
+	public void process( List<Point2D_F64> input, boolean closed ) {
+		packed.resize(input.size()*2);
+		for (int i = 0; i < input.size(); i++) {
+			Point2D_F64 p = input.get(i);
+			packed.data[i*2] = p.x;
+			packed.data[i*2 + 1] = p.y;
+		}
+		process(packed.data, input.size(), closed);
+	}
+
+	/**
+	 * Selects vertexes from the polyline. Results are stored in {@link #getSelected()}.
+	 *
+	 * @param xy (Input) Vertexes packed as x0,y0,x1,y1,...
+	 * @param count (Input) Number of vertexes
+	 * @param closed (Input) true if the last vertex is connected to the first
+	 */
+	public void process( double[] xy, int count, boolean closed ) {
+		if (count < 0 || 2L*count > xy.length)
+			throw new IllegalArgumentException("Array is too small for the requested points");
+		this.xy = xy;
+		this.N = count;
+		this.closed = closed;
+
+		keep.reset().resize(N, false);
+		if (N <= (closed ? 3 : 2)) {
+			keep.reset().resize(N, true);
+		} else {
+			switch (method) {
+				case DOUGLAS_PEUCKER:
+					douglasPeucker();
+					break;
+				case VISVALINGAM:
+					visvalingam();
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown method " + method);
+			}
+		}
+		updateSelected();
+
+		if (preserveTopology)
+			restoreTopology();
+	}
+
+	/**
+	 * Iterative Douglas-Peucker. A closed polyline is split into two chains at vertex 0 and the vertex farthest
+	 * from it.
+	 */
+	void douglasPeucker() {
+		stack.reset();
+		keep.data[0] = true;
+		if (closed) {
+			int far = 0;
+			double bestDistance = -1;
+			for (int i = 1; i < N; i++) {
+				double d = distanceSq(0, i);
+				if (d > bestDistance) {
+					bestDistance = d;
+					far = i;
+				}
+			}
+			keep.data[far] = true;
+			stack.add(0);
+			stack.add(far);
+			stack.add(far);
+			stack.add(N);
+		} else {
+			keep.data[N - 1] = true;
+			stack.add(0);
+			stack.add(N - 1);
+		}
+
+		double toleranceSq = tolerance*tolerance;
+		while (stack.size > 0) {
+			int end = stack.removeTail();
+			int start = stack.removeTail();
+			int farthest = farthestInChain(start, end);
+			if (farthest < 0 || bestSq <= toleranceSq)
+				continue;
+			keep.data[farthest] = true;
+			stack.add(start);
+			stack.add(farthest);
+			stack.add(farthest);
+			stack.add(end);
+		}
+
+		// A polygon needs at least 3 vertexes
+		if (closed && countKept() < 3) {
+			int far = 1;
+			while (!keep.data[far]) {
+				far++;
+			}
+			int a = farthestInChain(0, far);
+			double distanceA = bestSq;
+			int b = farthestInChain(far, N);
+			keep.data[a >= 0 && (b < 0 || distanceA >= bestSq) ? a : b] = true;
+		}
+	}
+
+	// distance squared of the vertex found by farthestInChain()
+	double bestSq;
+
+	/**
+	 * Finds the vertex strictly between start and end which is farthest from the line segment connecting them.
+	 * For closed polylines end can be N or more, which wraps around to the start.
+	 *
+	 * @return index of the vertex or -1 if there are none. Can be N or more if end is.
+	 */
+	int farthestInChain( int start, int end ) {
+		int e = end%N;
+		double x0 = xy[start*2], y0 = xy[start*2 + 1];
+		double dx = xy[e*2] - x0, dy = xy[e*2 + 1] - y0;
+		double lengthSq = dx*dx + dy*dy;
+
+		int best = -1;
+		bestSq = -1;
+		for (int i = start + 1; i < end; i++) {
+			int idx = (i < N ? i : i - N)*2;
+			double px = xy[idx] - x0, py = xy[idx + 1] - y0;
+			double d;
+			// distance to the closest point on the line segment
+			double t = lengthSq == 0.0 ? 0.0 : (px*dx + py*dy)/lengthSq;
+			if (t <= 0.0) {
+				d = px*px + py*py;
+			} else if (t >= 1.0) {
+				double ex = px - dx, ey = py - dy;
+				d = ex*ex + ey*ey;
+			} else {
+				double cross = px*dy - py*dx;
+				d = cross*cross/lengthSq;
+			}
+			if (d > bestSq) {
+				bestSq = d;
+				best = i;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Visvalingam-Whyatt using a min-heap. When a vertex is removed the area of its neighbors is recomputed. If the
+	 * new area is smaller than the removed vertex's area it's set to that area, so that vertexes are removed in
+	 * order of increasing significance.
+	 */
+	void visvalingam() {
+		prev.resize(N);
+		next.resize(N);
+		area.resize(N);
+		heapLocation.reset().resize(N, -1);
+		heap.reset();
+
+		for (int i = 0; i < N; i++) {
+			prev.data[i] = i == 0 ? (closed ? N - 1 : -1) : i - 1;
+			next.data[i] = i == N - 1 ? (closed ? 0 : -1) : i + 1;
+			keep.data[i] = true;
+		}
+
+		// end points of an open polyline are always kept
+		int first = closed ? 0 : 1;
+		int last = closed ? N : N - 1;
+		for (int i = first; i < last; i++) {
+			area.data[i] = triangleArea(prev.data[i], i, next.data[i]);
+			heapLocation.data[i] = heap.size;
+			heap.add(i);
+		}
+		for (int i = heap.size/2 - 1; i >= 0; i--) {
+			siftDown(i);
+		}
+
+		int remaining = N;
+		int minimum = closed ? 3 : 2;
+		while (heap.size > 0 && remaining > minimum) {
+			int v = heap.data[0];
+			double removedArea = area.data[v];
+			if (removedArea >= tolerance)
+				break;
+			heapRemoveTop();
+			keep.data[v] = false;
+			remaining--;
+
+			int p = prev.data[v];
+			int n = next.data[v];
+			next.data[p] = n;
+			prev.data[n] = p;
+
+			updateArea(p, removedArea);
+			updateArea(n, removedArea);
+		}
+	}
+
+	void updateArea( int v, double removedArea ) {
+		int location = heapLocation.data[v];
+		if (location < 0)
+			return;
+		double before = area.data[v];
+		area.data[v] = Math.max(removedArea, triangleArea(prev.data[v], v, next.data[v]));
+		if (area.data[v] < before)
+			siftUp(location);
+		else
+			siftDown(location);
+	}
+
+	double triangleArea( int a, int b, int c ) {
+		double x0 = xy[a*2], y0 = xy[a*2 + 1];
+		double ux = xy[b*2] - x0, uy = xy[b*2 + 1] - y0;
+		double vx = xy[c*2] - x0, vy = xy[c*2 + 1] - y0;
+		return Math.abs(ux*vy - uy*vx)/2.0;
+	}
+
+	void heapRemoveTop() {
+		int top = heap.data[0];
+		heapLocation.data[top] = -1;
+		int tail = heap.removeTail();
+		if (heap.size == 0)
+			return;
+		heap.data[0] = tail;
+		heapLocation.data[tail] = 0;
+		siftDown(0);
+	}
+
+	void siftUp( int location ) {
+		int v = heap.data[location];
+		while (location > 0) {
+			int parent = (location - 1)/2;
+			int u = heap.data[parent];
+			if (area.data[u] <= area.data[v])
+				break;
+			heap.data[location] = u;
+			heapLocation.data[u] = location;
+			location = parent;
+		}
+		heap.data[location] = v;
+		heapLocation.data[v] = location;
+	}
+
+	void siftDown( int location ) {
+		int v = heap.data[location];
+		while (true) {
+			int child = location*2 + 1;
+			if (child >= heap.size)
+				break;
+			if (child + 1 < heap.size && area.data[heap.data[child + 1]] < area.data[heap.data[child]])
+				child++;
+			int u = heap.data[child];
+			if (area.data[v] <= area.data[u])
+				break;
+			heap.data[location] = u;
+			heapLocation.data[u] = location;
+			location = child;
+		}
+		heap.data[location] = v;
+		heapLocation.data[v] = location;
+	}
+
+	/**
+	 * Finds sides in the output which intersect each other and restores the removed vertex in each which is
+	 * farthest from it. Repeats until there are no intersections or no more vertexes can be restored.
+	 */
+	void restoreTopology() {
+		while (true) {
+			int numSides = closed ? selected.size : selected.size - 1;
+			if (numSides < 3)
+				return;
+
+			sides.resize(numSides);
+			for (int i = 0; i < numSides; i++) {
+				int a = selected.data[i]*2;
+				int b = selected.data[(i + 1)%selected.size]*2;
+				sides.get(i).setTo(xy[a], xy[a + 1], xy[b], xy[b + 1]);
+			}
+			if (!sweep.process(sides.toList()))
+				return;
+
+			crossed.reset().resize(numSides, false);
+			DogArray<IntersectionSegmentsSweep_F64.Crossing> found = sweep.getFound();
+			for (int i = 0; i < found.size; i++) {
+				crossed.data[found.get(i).indexA] = true;
+				crossed.data[found.get(i).indexB] = true;
+			}
+
+			boolean changed = false;
+			for (int i = 0; i < numSides; i++) {
+				if (!crossed.data[i])
+					continue;
+				int start = selected.data[i];
+				int end = i + 1 < selected.size ? selected.data[i + 1] : selected.data[0] + N;
+				int farthest = farthestInChain(start, end);
+				if (farthest < 0)
+					continue;
+				keep.data[farthest%N] = true;
+				changed = true;
+			}
+			if (!changed)
+				return;
+			updateSelected();
+		}
+	}
+
+	int countKept() {
+		int total = 0;
+		for (int i = 0; i < N; i++) {
+			if (keep.data[i])
+				total++;
+		}
+		return total;
+	}
+
+	void updateSelected() {
+		selected.reset();
+		for (int i = 0; i < N; i++) {
+			if (keep.data[i])
+				selected.add(i);
+		}
+	}
+
+	double distanceSq( int a, int b ) {
+		double dx = xy[a*2] - xy[b*2], dy = xy[a*2 + 1] - xy[b*2 + 1];
+		return dx*dx + dy*dy;
+	}
+
+	/** Algorithm used to select vertexes */
+	public enum Method {
+		/** Keeps every vertex which is farther than the tolerance from the simplified polyline */
+		DOUGLAS_PEUCKER,
+		/** Removes vertexes with the smallest effective area */
+		VISVALINGAM
+	}
+}
@@ -0,0 +1,569 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.polygon;
+
+import georegression.metric.Area2D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import georegression.struct.shapes.PolygonHoles2D_F64;
+import org.ddogleg.sorting.QuickSortComparator;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_I32;
+import org.ddogleg.struct.FastArray;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.TreeSet;
+
+/**
+ * <p>
+ * Triangulates a simple polygon, which can have holes, in O(N log N) time. First the polygon is partitioned into
+ * y-monotone pieces using a sweep line which moves from the top down. Diagonals are added at split and merge
+ * vertexes, which are the vertexes which prevent the polygon from being monotone. Each monotone piece is then
+ * triangulated in linear time. See [1] for a detailed description.
+ * </p>
+ *
+ * <p>
+ * The output is the same as {@link TriangulateSimpleRemoveEars_F64}. Each triangle is described by the index of
+ * its vertexes and has the same orientation as the input polygon. When there are holes, vertexes in the holes are
+ * indexed after the outer polygon's vertexes and in the same order as the holes. The polygon can be CW or CCW
+ * and the holes can have any orientation.
+ * </p>
+ *
+ * <p>
+ * Degenerate polygons, such as weakly simple polygons which touch themselves at a repeated vertex, can't always be
+ * partitioned by the sweep line. When that happens process returns false and no triangles are output.
+ * </p>
+ *
+ * <p>[1] Mark de Berg, et. al. "Computational Geometry: Algorithms and Applications" 3rd Ed. Chapter 3</p>
+ *
+ * @author Peter Abeles
+ */
+public class TriangulateMonotone_F64 {
+	// Types of vertexes
+	protected static final int START = 0, END = 1, SPLIT = 2, MERGE = 3, REGULAR = 4;
+
+	// Vertexes along the boundary of the polygon. Linked so that the inside is always to the left
+	protected final DogArray<Vertex> vertexes = new DogArray<>(Vertex::new, Vertex::reset);
+
+	// Vertexes sorted in the order the sweep line encounters them
+	protected final FastArray<Vertex> sorted = new FastArray<>(Vertex.class);
+	protected final QuickSortComparator<Vertex> sorter = new QuickSortComparator<>(TriangulateMonotone_F64::compareSweep);
+
+	// Edges which are currently intersected by the sweep line. An edge is referred to by the vertex it starts at
+	protected final TreeSet<Vertex> status = new TreeSet<>(this::compareEdges);
+	// Used to search for the edge to the left of a vertex
+	protected final Vertex probe = new Vertex();
+
+	// Pairs of vertexes connected by diagonals
+	protected final DogArray_I32 diagonals = new DogArray_I32();
+
+	// Half edges which are used to extract the monotone polygons
+	protected final DogArray<HalfEdge> halfEdges = new DogArray<>(HalfEdge::new);
+	protected final FastArray<HalfEdge> outgoing = new FastArray<>(HalfEdge.class);
+	protected final DogArray_I32 outgoingStart = new DogArray_I32();
+
+	// Work space for triangulating a monotone polygon
+	protected final FastArray<Vertex> piece = new FastArray<>(Vertex.class);
+	protected final FastArray<Vertex> chainOrder = new FastArray<>(Vertex.class);
+	protected final FastArray<Vertex> stack = new FastArray<>(Vertex.class);
+
+	// If the outer polygon is in counter-clockwise order
+	protected boolean ccw;
+
+	/**
+	 * Triangulates a simple polygon.
+	 *
+	 * @param input (Input) Simple polygon. CW or CCW.
+	 * @param output (Output) Storage for triangulation results. Reset is called.
+	 * @return true if successful or false if the polygon is degenerate and couldn't be partitioned
+	 */
+	public boolean process( Polygon2D_F64 input, DogArray<ThreeIndexes> output ) {
+		output.reset();
+		vertexes.reset();
+		if (input.size() < 3)
+			return true;
+
+		ccw = addRing(input, true);
+		return triangulate(output);
+	}
+
+	/**
+	 * Triangulates a simple polygon with holes in it.
+	 *
+	 * @param input (Input) Polygon with holes.
+	 * @param output (Output) Storage for triangulation results. Reset is called.
+	 * @return true if successful or false if the polygon is degenerate and couldn't be partitioned
+	 */
+	public boolean process( PolygonHoles2D_F64 input, DogArray<ThreeIndexes> output ) {
+		output.reset();
+		vertexes.reset();
+		if (input.outer.size() < 3)
+			return true;
+
+		ccw = addRing(input.outer, true);
+		for (int i = 0; i < input.holes.size; i++) {
+			addRing(input.holes.get(i), false);
+		}
+		return triangulate(output);
+	}
+
+	/**
+	 * Adds vertexes from the polygon and links them so that the inside is on the left.
+	 *
+	 * @return true if the polygon is CCW
+	 */
+	private boolean addRing( Polygon2D_F64 polygon, boolean outer ) {
+		final int N = polygon.size();
+		final int offset = vertexes.size;
+
+		// Holes with fewer than 3 vertexes have no area and are skipped, but still use up indexes
+		if (N < 3) {
+			for (int i = 0; i < N; i++) {
+				vertexes.grow().index = -1;
+			}
+			return true;
+		}
+
+		for (int i = 0; i < N; i++) {
+			Vertex v = vertexes.grow();
+			v.index = offset + i;
+			v.p = polygon.get(i);
+		}
+
+		boolean ccw = Area2D_F64.polygonSimpleSigned(polygon) > 0.0;
+		boolean forwards = ccw == outer;
+		for (int i = 0; i < N; i++) {
+			Vertex v = vertexes.get(offset + i);
+			Vertex before = vertexes.get(offset + (i + N - 1)%N);
+			Vertex after = vertexes.get(offset + (i + 1)%N);
+			v.prev = forwards ? before : after;
+			v.next = forwards ? after : before;
+		}
+		return ccw;
+	}
+
+	private boolean triangulate( DogArray<ThreeIndexes> output ) {
+		if (!partitionMonotone())
+			return false;
+		extractPieces(output);
+		return true;
+	}
+
+	/**
+	 * Adds diagonals so that the polygon is partitioned into y-monotone pieces
+	 *
+	 * @return false if the sweep line found the polygon to be degenerate
+	 */
+	boolean partitionMonotone() {
+		diagonals.reset();
+		status.clear();
+
+		sorted.reset();
+		for (int i = 0; i < vertexes.size; i++) {
+			Vertex v = vertexes.get(i);
+			if (v.index == -1)
+				continue;
+			v.type = classify(v);
+			sorted.add(v);
+		}
+		sorter.sort(sorted.data, sorted.size);
+
+		for (int i = 0; i < sorted.size; i++) {
+			Vertex v = sorted.get(i);
+			switch (v.type) {
+				case START:
+					v.helper = v;
+					status.add(v);
+					break;
+
+				case END:
+					if (!handleEdgeEnding(v))
+						return false;
+					break;
+
+				case SPLIT: {
+					Vertex left = edgeLeftOf(v);
+					if (left == null)
+						return false;
+					addDiagonal(v, left.helper);
+					left.helper = v;
+					v.helper = v;
+					status.add(v);
+				}
+				break;
+
+				case MERGE: {
+					if (!handleEdgeEnding(v) || !handleLeftHelper(v))
+						return false;
+				}
+				break;
+
+				default:
+					if (compareSweep(v.prev, v) < 0) {
+						// Boundary is going down so the inside is to the right
+						if (!handleEdgeEnding(v))
+							return false;
+						v.helper = v;
+						status.add(v);
+					} else if (!handleLeftHelper(v)) {
+						return false;
+					}
+					break;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * The edge which ends at 'v' is removed. If its helper is a merge vertex then a diagonal is added.
+	 *
+	 * @return false if the edge was never added to the status, which happens with degenerate polygons
+	 */
+	private boolean handleEdgeEnding( Vertex v ) {
+		Vertex edge = v.prev;
+		Vertex helper = edge.helper;
+		if (helper == null)
+			return false;
+		if (helper.type == MERGE)
+			addDiagonal(v, helper);
+		status.remove(edge);
+		return true;
+	}
+
+	/**
+	 * 'v' becomes the helper of the edge to its left. If the old helper was a merge vertex then a
+	 * diagonal is added.
+	 *
+	 * @return false if there is no edge to the left, which happens with degenerate polygons
+	 */
+	private boolean handleLeftHelper( Vertex v ) {
+		Vertex left = edgeLeftOf(v);
+		if (left == null)
+			return false;
+		if (left.helper.type == MERGE)
+			addDiagonal(v, left.helper);
+		left.helper = v;
+		return true;
+	}
+
+	/**
+	 * Finds the edge to the left of a split, merge, or regular vertex with the inside to its right. For a simple
+	 * polygon there is always one, but with degenerate polygons there might not be.
+	 */
+	private @Nullable Vertex edgeLeftOf( Vertex v ) {
+		probe.p = v.p;
+		return status.lower(probe);
+	}
+
+	private void addDiagonal( Vertex a, Vertex b ) {
+		diagonals.add(a.index);
+		diagonals.add(b.index);
+	}
+
+	/**
+	 * Determines the vertex's type by looking at its neighbors
+	 */
+	static int classify( Vertex v ) {
+		boolean prevBelow = compareSweep(v.prev, v) > 0;
+		boolean nextBelow = compareSweep(v.next, v) > 0;
+		if (prevBelow != nextBelow)
+			return REGULAR;
+
+		// The inside is to the left, so a left turn means the interior angle is less than 180 degrees
+		boolean convex = cross(v.prev.p, v.p, v.next.p) > 0.0;
+		if (prevBelow)
+			return convex ? START : SPLIT;
+		else
+			return convex ? END : MERGE;
+	}
+
+	/**
+	 * Splits the polygon along the diagonals and triangulates each monotone piece. Pieces are found by
+	 * walking along half edges and turning as sharply left as possible at each vertex.
+	 */
+	void extractPieces( DogArray<ThreeIndexes> output ) {
+		halfEdges.reset();
+		for (int i = 0; i < vertexes.size; i++) {
+			Vertex v = vertexes.get(i);
+			if (v.index != -1)
+				addHalfEdge(v, v.next);
+		}
+		for (int i = 0; i < diagonals.size; i += 2) {
+			Vertex a = vertexes.get(diagonals.get(i));
+			Vertex b = vertexes.get(diagonals.get(i + 1));
+			addHalfEdge(a, b);
+			addHalfEdge(b, a);
+		}
+
+		// Sort the half edges by the vertex they start at
+		outgoingStart.reset().resize(vertexes.size + 1, 0);
+		for (int i = 0; i < halfEdges.size; i++) {
+			outgoingStart.data[halfEdges.get(i).from.index + 1]++;
+		}
+		for (int i = 0; i < vertexes.size; i++) {
+			outgoingStart.data[i + 1] += outgoingStart.data[i];
+		}
+		outgoing.resize(halfEdges.size);
+		for (int i = 0; i < halfEdges.size; i++) {
+			HalfEdge h = halfEdges.get(i);
+			outgoing.data[outgoingStart.data[h.from.index]++] = h;
+		}
+		for (int i = vertexes.size; i > 0; i--) {
+			outgoingStart.data[i] = outgoingStart.data[i - 1];
+		}
+		outgoingStart.data[0] = 0;
+
+		for (int i = 0; i < halfEdges.size; i++) {
+			HalfEdge start = halfEdges.get(i);
+			if (start.used)
+				continue;
+
+			piece.reset();
+			HalfEdge h = start;
+			do {
+				h.used = true;
+				piece.add(h.from);
+				h = selectNext(h);
+			} while (h != start && h != null && !h.used);
+
+			triangulateMonotone(output);
+		}
+	}
+
+	private void addHalfEdge( Vertex from, Vertex to ) {
+		HalfEdge h = halfEdges.grow();
+		h.from = from;
+		h.to = to;
+		h.used = false;
+		h.angle = Math.atan2(to.p.y - from.p.y, to.p.x - from.p.x);
+	}
+
+	/**
+	 * Selects the outgoing edge which is the first one clockwise from the incoming edge
+	 */
+	private @Nullable HalfEdge selectNext( HalfEdge incoming ) {
+		int v = incoming.to.index;
+		double reverse = incoming.angle + GrlConstants.PI;
+
+		HalfEdge best = null;
+		double bestDistance = Double.MAX_VALUE;
+		for (int i = outgoingStart.get(v); i < outgoingStart.get(v + 1); i++) {
+			HalfEdge h = outgoing.get(i);
+			double distance;
+			if (h.to == incoming.from) {
+				// Going back along the same edge is the last option. Round off errors in the angle
+				// could make it look like it's the first option
+				distance = GrlConstants.PI2;
+			} else {
+				distance = reverse - h.angle;
+				while (distance <= 0.0)
+					distance += GrlConstants.PI2;
+				while (distance > GrlConstants.PI2)
+					distance -= GrlConstants.PI2;
+			}
+			if (distance < bestDistance) {
+				bestDistance = distance;
+				best = h;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Triangulates a y-monotone polygon, which is stored in 'piece' in CCW order, using a stack.
+	 */
+	void triangulateMonotone( DogArray<ThreeIndexes> output ) {
+		final int N = piece.size;
+		if (N < 3)
+			return;
+		if (N == 3) {
+			addTriangle(piece.get(0), piece.get(1), piece.get(2), output);
+			return;
+		}
+
+		// Find the top and bottom vertexes
+		int top = 0, bottom = 0;
+		for (int i = 1; i < N; i++) {
+			if (compareSweep(piece.get(i), piece.get(top)) < 0)
+				top = i;
+			if (compareSweep(piece.get(i), piece.get(bottom)) > 0)
+				bottom = i;
+		}
+
+		// Merge the two chains into a sorted list. Going forwards from the top is the left chain
+		chainOrder.reset();
+		chainOrder.add(piece.get(top));
+		int left = (top + 1)%N;
+		int right = (top + N - 1)%N;
+		while (left != bottom || right != bottom) {
+			Vertex vl = piece.get(left);
+			Vertex vr = piece.get(right);
+			if (right == bottom || (left != bottom && compareSweep(vl, vr) < 0)) {
+				vl.leftChain = true;
+				chainOrder.add(vl);
+				left = (left + 1)%N;
+			} else {
+				vr.leftChain = false;
+				chainOrder.add(vr);
+				right = (right + N - 1)%N;
+			}
+		}
+		chainOrder.add(piece.get(bottom));
+
+		stack.reset();
+		stack.add(chainOrder.get(0));
+		stack.add(chainOrder.get(1));
+		for (int j = 2; j < N - 1; j++) {
+			Vertex u = chainOrder.get(j);
+			Vertex last = stack.get(stack.size - 1);
+			if (u.leftChain != last.leftChain) {
+				// Connect to all the vertexes in the stack
+				for (int k = stack.size - 1; k > 0; k--) {
+					addTriangle(u, stack.get(k), stack.get(k - 1), output);
+				}
+				stack.reset();
+				stack.add(last);
+				stack.add(u);
+			} else {
+				stack.removeTail();
+				while (stack.size > 0) {
+					Vertex next = stack.get(stack.size - 1);
+					double turn = cross(next.p, last.p, u.p);
+					if (u.leftChain ? turn <= 0.0 : turn >= 0.0)
+						break;
+					addTriangle(u, last, next, output);
+					last = stack.removeTail();
+				}
+				stack.add(last);
+				stack.add(u);
+			}
+		}
+
+		Vertex u = chainOrder.get(N - 1);
+		for (int k = stack.size - 1; k > 0; k--) {
+			addTriangle(u, stack.get(k), stack.get(k - 1), output);
+		}
+	}
+
+	/**
+	 * Adds a triangle with the same orientation as the input polygon
+	 */
+	private void addTriangle( Vertex a, Vertex b, Vertex c, DogArray<ThreeIndexes> output ) {
+		boolean triangleCCW = cross(a.p, b.p, c.p) >= 0.0;
+		if (triangleCCW == ccw)
+			output.grow().set(a.index, b.index, c.index);
+		else
+			output.grow().set(a.index, c.index, b.index);
+	}
+
+	/**
+	 * Order the sweep line encounters vertexes. Top to bottom and then left to right.
+	 */
+	static int compareSweep( Vertex a, Vertex b ) {
+		if (a.p.y != b.p.y)
+			return a.p.y > b.p.y ? -1 : 1;
+		if (a.p.x != b.p.x)
+			return a.p.x < b.p.x ? -1 : 1;
+		return Integer.compare(a.index, b.index);
+	}
+
+	/**
+	 * Compares two edges in the status. Since edges can't cross, the order can be found by seeing which side
+	 * of one edge the other edge's upper vertex is on.
+	 */
+	int compareEdges( Vertex a, Vertex b ) {
+		if (a == b)
+			return 0;
+
+		Vertex au = upper(a), bu = upper(b);
+		if (compareSweep(au, bu) >= 0) {
+			double side = side(au.p, b);
+			if (side == 0.0)
+				side = side(lower(a).p, b);
+			if (side != 0.0)
+				return side > 0.0 ? 1 : -1;
+		} else {
+			double side = side(bu.p, a);
+			if (side == 0.0)
+				side = side(lower(b).p, a);
+			if (side != 0.0)
+				return side > 0.0 ? -1 : 1;
+		}
+		return Integer.compare(a.index, b.index);
+	}
+
+	/** Positive if the point is to the right of the edge */
+	private double side( Point2D_F64 p, Vertex edge ) {
+		Point2D_F64 u = upper(edge).p;
+		Point2D_F64 l = lower(edge).p;
+		return (l.x - u.x)*(p.y - u.y) - (l.y - u.y)*(p.x - u.x);
+	}
+
+	private Vertex upper( Vertex edge ) {
+		if (edge == probe)
+			return probe;
+		return compareSweep(edge, edge.next) < 0 ? edge : edge.next;
+	}
+
+	private Vertex lower( Vertex edge ) {
+		if (edge == probe)
+			return probe;
+		return compareSweep(edge, edge.next) < 0 ? edge.next : edge;
+	}
+
+	/** Cross product of (b - a) and (c - b). Positive for a left turn */
+	static double cross( Point2D_F64 a, Point2D_F64 b, Point2D_F64 c ) {
+		return (b.x - a.x)*(c.y - b.y) - (b.y - a.y)*(c.x - b.x);
+	}
+
+	/**
+	 * Vertex in the polygon. Also used to refer to the edge which starts at this vertex.
+	 */
+	@SuppressWarnings("NullAway.Init")
+	protected static class Vertex {
+		// Index of the vertex in the input
+		public int index;
+		public Point2D_F64 p;
+		// Neighbors along the boundary. The inside is to the left
+		public Vertex prev, next;
+		public int type;
+		// The edge's helper, i.e. the lowest vertex above the sweep line that can see the edge
+		public Vertex helper;
+		// Which chain it's on when triangulating a monotone polygon
+		public boolean leftChain;
+
+		@SuppressWarnings("NullAway")
+		public void reset() {
+			index = -1;
+			p = null;
+			prev = next = helper = null;
+			type = -1;
+			leftChain = false;
+		}
+	}
+
+	/** Directed edge used when splitting the polygon into monotone pieces */
+	@SuppressWarnings("NullAway.Init")
+	protected static class HalfEdge {
+		public Vertex from, to;
+		public double angle;
+		public boolean used;
+	}
+}
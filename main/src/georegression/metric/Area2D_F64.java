@@ -97,6 +97,23 @@ public class Area2D_F64 {
 		return Math.abs(total/2.0);
 	}
 
+	/**
+	 * Signed area of a simple polygon. The area is positive if the vertexes are in counter-clockwise order
+	 * and negative if clockwise.
+	 *
+	 * @param poly Simple polygon
+	 * @return signed area
+	 */
+	public static double polygonSimpleSigned( Polygon2D_F64 poly ) {
+		double total = 0;
+		for (int i = 0, j = poly.size() - 1; i < poly.size(); j = i, i++) {
+			Point2D_F64 a = poly.get(j);
+			Point2D_F64 b = poly.get(i);
+			total += a.x*b.y - b.x*a.y;
+		}
+		return total/2.0;
+	}
+
 	/**
 	 * Returns the area of the Rectangle
 	 *
@@ -19,14 +19,17 @@
 package georegression.metric;
 
 import georegression.metric.alg.DistancePointTriangle3D_F64;
+import georegression.metric.alg.OverlapBoxesOriented3D_F64;
 import georegression.struct.line.LineParametric3D_F64;
 import georegression.struct.line.LineSegment3D_F64;
 import georegression.struct.plane.PlaneGeneral3D_F64;
 import georegression.struct.point.Point3D_F64;
 import georegression.struct.shapes.Box3D_F64;
+import georegression.struct.shapes.BoxOriented3D_F64;
 import georegression.struct.shapes.Cylinder3D_F64;
 import georegression.struct.shapes.Sphere3D_F64;
 import georegression.struct.shapes.Triangle3D_F64;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Distance of various shapes in 3D space
@@ -241,4 +244,25 @@ public class Distance3D_F64 {
 
 		return areaI/(a.area() + b.area() - areaI);
 	}
+
+	/**
+	 * Returns the Intersection Over Union (IoU) score between two boxes which are only rotated around the z-axis.
+	 * To compute the IoU between many boxes use {@link OverlapBoxesOriented3D_F64} directly.
+	 *
+	 * @param a (Input) box
+	 * @param b (Input) box
+	 * @param overlap (Optional) Used to compute the IoU. Any boxes it contains are removed. If null a new instance
+	 * is created, which is expensive if called many times.
+	 * @return IoU score
+	 */
+	public static double scoreIoU( BoxOriented3D_F64 a, BoxOriented3D_F64 b,
+								   @Nullable OverlapBoxesOriented3D_F64 overlap ) {
+		if (overlap == null)
+			overlap = new OverlapBoxesOriented3D_F64();
+
+		overlap.reset();
+		overlap.add(a);
+		overlap.add(b);
+		return overlap.computeIoU(0, 1);
+	}
 }
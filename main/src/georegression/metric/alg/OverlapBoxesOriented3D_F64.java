@@ -0,0 +1,285 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.metric.alg;
+
+import georegression.geometry.polygon.ClipConvexPolygon2D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.shapes.BoxOriented3D_F64;
+import lombok.Getter;
+import org.ddogleg.struct.DogArray_F64;
+import org.ddogleg.struct.DogArray_I32;
+import org.ejml.data.DMatrixRMaj;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Computes the Intersection over Union (IoU) between every pair in a large set of {@link BoxOriented3D_F64} and
+ * performs non-maximum suppression (NMS) with it. Boxes can only be rotated around the z-axis (yaw), which is
+ * what 3D object detectors typically produce when z is up. This lets the intersection be computed exactly as the
+ * area of intersection between the two footprints in the x-y plane, see {@link ClipConvexPolygon2D_F64}, times
+ * the overlap along the z-axis.
+ * </p>
+ *
+ * <p>
+ * Candidate pairs are found by sweeping along the x-axis and only keeping pairs whose axis aligned bounding boxes
+ * overlap. Pairs are also skipped if an upper bound on their IoU is too small. Boxes are stored in packed arrays
+ * and no memory is declared after the first call.
+ * </p>
+ *
+ * <p>
+ * Usage: Add the boxes using {@link #add} then call {@link #process(double)} or {@link #nonMaximumSuppression}.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class OverlapBoxesOriented3D_F64 {
+	/** Tolerance used to decide if a box's z-axis is parallel to the world's z-axis */
+	public double tolerance = GrlConstants.TEST_F64;
+
+	/** Pairs of boxes, packed as (i,j) with i &lt; j, that overlap. Order is arbitrary. */
+	@Getter protected final DogArray_I32 pairs = new DogArray_I32();
+
+	/** IoU of each pair in {@link #pairs} */
+	@Getter protected final DogArray_F64 pairIoU = new DogArray_F64();
+
+	// Four corners of each box's footprint in the x-y plane packed as (x,y)
+	protected final DogArray_F64 footprints = new DogArray_F64();
+	// Volume of each box
+	protected final DogArray_F64 volumes = new DogArray_F64();
+	// Axis aligned bounding box of each box packed as (x0,y0,z0,x1,y1,z1)
+	protected final DogArray_F64 bounds = new DogArray_F64();
+
+	// Pairs whose bounding boxes overlap and their IoU
+	protected final DogArray_I32 candidates = new DogArray_I32();
+	protected final DogArray_F64 candidateIoU = new DogArray_F64();
+
+	// Finds candidate pairs and performs NMS
+	protected final OverlapSweepNms_F64 sweep = new OverlapSweepNms_F64();
+
+	protected final ClipConvexPolygon2D_F64 clipper = new ClipConvexPolygon2D_F64();
+
+	/**
+	 * Removes all the boxes
+	 */
+	public void reset() {
+		footprints.reset();
+		volumes.reset();
+		bounds.reset();
+		pairs.reset();
+		pairIoU.reset();
+	}
+
+	/**
+	 * Removes the old boxes and adds the new ones
+	 */
+	public void setBoxes( List<BoxOriented3D_F64> boxes ) {
+		reset();
+		for (int i = 0; i < boxes.size(); i++) {
+			add(boxes.get(i));
+		}
+	}
+
+	/**
+	 * Removes the old boxes and adds the new ones
+	 *
+	 * @param boxes (Input) Boxes packed as (x,y,z,lengthX,lengthY,lengthZ,yaw). See {@link #add(double, double,
+	 * double, double, double, double, double)}.
+	 * @param count (Input) Number of boxes
+	 */
+	public void setBoxes( double[] boxes, int count ) {
+		if (count < 0 || 7L*count > boxes.length)
+			throw new IllegalArgumentException("Array is too small for the requested boxes");
+		reset();
+		for (int i = 0, idx = 0; i < count; i++, idx += 7) {
+			add(boxes[idx], boxes[idx + 1], boxes[idx + 2], boxes[idx + 3], boxes[idx + 4], boxes[idx + 5],
+					boxes[idx + 6]);
+		}
+	}
+
+	/**
+	 * Adds a box. Its z-axis must be parallel to the world's z-axis.
+	 */
+	public void add( BoxOriented3D_F64 box ) {
+		double[] R = box.pose.R.data;
+		if (Math.abs(R[2]) > tolerance || Math.abs(R[5]) > tolerance)
+			throw new IllegalArgumentException("The box can only be rotated around the z-axis");
+		// The box's x and y axes in the world frame
+		addBox(box.pose.T.x, box.pose.T.y, box.pose.T.z, box.lengthX, box.lengthY, box.lengthZ,
+				R[0], R[3], R[1], R[4]);
+	}
+
+	/**
+	 * Adds a box
+	 *
+	 * @param x Center x-coordinate
+	 * @param y Center y-coordinate
+	 * @param z Center z-coordinate
+	 * @param lengthX Length of the side along the box's x-axis
+	 * @param lengthY Length of the side along the box's y-axis
+	 * @param lengthZ Length of the side along the z-axis
+	 * @param yaw Counter-clockwise rotation around the z-axis, in radians
+	 */
+	public void add( double x, double y, double z, double lengthX, double lengthY, double lengthZ, double yaw ) {
+		double c = Math.cos(yaw), s = Math.sin(yaw);
+		addBox(x, y, z, lengthX, lengthY, lengthZ, c, s, -s, c);
+	}
+
+	/** Number of boxes */
+	public int size() {
+		return volumes.size;
+	}
+
+	/**
+	 * @param ux,uy Direction of the box's x-axis
+	 * @param vx,vy Direction of the box's y-axis
+	 */
+	private void addBox( double x, double y, double z, double lengthX, double lengthY, double lengthZ,
+						 double ux, double uy, double vx, double vy ) {
+		double ax = ux*lengthX/2.0, ay = uy*lengthX/2.0;
+		double bx = vx*lengthY/2.0, by = vy*lengthY/2.0;
+
+		//@formatter:off
+		footprints.add(x - ax - bx); footprints.add(y - ay - by);
+		footprints.add(x + ax - bx); footprints.add(y + ay - by);
+		footprints.add(x + ax + bx); footprints.add(y + ay + by);
+		footprints.add(x - ax + bx); footprints.add(y - ay + by);
+		//@formatter:on
+
+		double extentX = Math.abs(ax) + Math.abs(bx);
+		double extentY = Math.abs(ay) + Math.abs(by);
+		double extentZ = Math.abs(lengthZ)/2.0;
+		bounds.add(x - extentX);
+		bounds.add(y - extentY);
+		bounds.add(z - extentZ);
+		bounds.add(x + extentX);
+		bounds.add(y + extentY);
+		bounds.add(z + extentZ);
+		volumes.add(Math.abs(lengthX*lengthY*lengthZ));
+	}
+
+	/**
+	 * Computes the IoU between every pair of boxes. Pairs with an IoU greater than the minimum are saved in
+	 * {@link #getPairs()}.
+	 *
+	 * @param minimumIoU (Input) Only pairs with an IoU greater than this are saved. Set to 0 to save all
+	 * overlapping pairs.
+	 */
+	public void process( double minimumIoU ) {
+		findCandidates(minimumIoU);
+		computeCandidateIoU();
+
+		pairs.reset();
+		pairIoU.reset();
+		for (int i = 0; i < candidateIoU.size; i++) {
+			if (candidateIoU.data[i] <= minimumIoU)
+				continue;
+			pairs.add(candidates.data[i*2]);
+			pairs.add(candidates.data[i*2 + 1]);
+			pairIoU.add(candidateIoU.data[i]);
+		}
+	}
+
+	/**
+	 * Computes a dense matrix with the IoU between every pair of boxes. The diagonal is one.
+	 *
+	 * @param iou (Output) N by N symmetric matrix. Resized.
+	 */
+	public void computeMatrix( DMatrixRMaj iou ) {
+		process(0.0);
+		int N = size();
+		iou.reshape(N, N);
+		iou.zero();
+		for (int i = 0; i < N; i++) {
+			iou.unsafe_set(i, i, 1.0);
+		}
+		for (int k = 0; k < pairIoU.size; k++) {
+			int i = pairs.data[k*2], j = pairs.data[k*2 + 1];
+			iou.unsafe_set(i, j, pairIoU.data[k]);
+			iou.unsafe_set(j, i, pairIoU.data[k]);
+		}
+	}
+
+	/**
+	 * Greedy non-maximum suppression. Boxes are visited from the highest score to the lowest. If a box hasn't
+	 * been suppressed it's selected and every box with an IoU greater than the threshold is suppressed.
+	 * After calling this, {@link #getPairs()} contains the pairs with an IoU greater than the threshold.
+	 *
+	 * @param scores (Input) Score for each box. Higher is better.
+	 * @param threshold (Input) Boxes which overlap a selected box by more than this IoU are suppressed
+	 * @param selected (Output) Index of selected boxes, ordered from highest to lowest score
+	 */
+	public void nonMaximumSuppression( DogArray_F64 scores, double threshold, DogArray_I32 selected ) {
+		int N = size();
+		if (scores.size != N)
+			throw new IllegalArgumentException("There must be one score for each box");
+
+		process(threshold);
+		sweep.nonMaximumSuppression(pairs, scores.data, N, selected);
+	}
+
+	/**
+	 * Finds pairs whose bounding boxes overlap using a sweep along the x-axis. Pairs which can't possibly have an
+	 * IoU greater than the minimum are skipped.
+	 */
+	protected void findCandidates( double minimumIoU ) {
+		sweep.findCandidates(bounds.data, volumes.data, size(), 3, minimumIoU, candidates);
+	}
+
+	/**
+	 * Computes the IoU of every candidate pair
+	 */
+	protected void computeCandidateIoU() {
+		candidateIoU.resize(candidates.size/2);
+		computeCandidateIoU(clipper, 0, candidateIoU.size);
+	}
+
+	/**
+	 * Computes the IoU of candidates in the specified range
+	 */
+	protected void computeCandidateIoU( ClipConvexPolygon2D_F64 clipper, int idx0, int idx1 ) {
+		for (int k = idx0; k < idx1; k++) {
+			candidateIoU.data[k] = computeIoU(clipper, candidates.data[k*2], candidates.data[k*2 + 1]);
+		}
+	}
+
+	/**
+	 * Computes the IoU between two boxes
+	 */
+	protected double computeIoU( ClipConvexPolygon2D_F64 clipper, int i, int j ) {
+		double overlapZ = Math.min(bounds.data[i*6 + 5], bounds.data[j*6 + 5]) -
+				Math.max(bounds.data[i*6 + 2], bounds.data[j*6 + 2]);
+		if (overlapZ <= 0.0)
+			return 0.0;
+		double intersection = overlapZ*clipper.area(footprints.data, i*8, 4, footprints.data, j*8, 4);
+		double union = volumes.data[i] + volumes.data[j] - intersection;
+		return union <= 0.0 ? 0.0 : intersection/union;
+	}
+
+	/**
+	 * Computes the IoU between two of the boxes
+	 *
+	 * @param i (Input) Index of a box
+	 * @param j (Input) Index of a box
+	 * @return IoU
+	 */
+	public double computeIoU( int i, int j ) {
+		return computeIoU(clipper, i, j);
+	}
+}
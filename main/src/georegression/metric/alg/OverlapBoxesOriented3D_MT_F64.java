@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.metric.alg;
+
+import georegression.geometry.polygon.ClipConvexPolygon2D_F64;
+import org.ddogleg.DDoglegConcurrency;
+import pabeles.concurrency.GrowArray;
+
+/**
+ * A concurrent implementation of {@link OverlapBoxesOriented3D_F64}. The IoU of candidate pairs is computed in
+ * parallel.
+ *
+ * @author Peter Abeles
+ */
+public class OverlapBoxesOriented3D_MT_F64 extends OverlapBoxesOriented3D_F64 {
+	/** There needs to be at least this many candidate pairs for it to use the concurrent implementation */
+	public int minimumCandidatesConcurrent = 500;
+
+	GrowArray<ClipConvexPolygon2D_F64> concurrentClippers = new GrowArray<>(ClipConvexPolygon2D_F64::new);
+
+	@Override
+	protected void computeCandidateIoU() {
+		int numCandidates = candidates.size/2;
+		if (numCandidates < minimumCandidatesConcurrent) {
+			super.computeCandidateIoU();
+			return;
+		}
+
+		candidateIoU.resize(numCandidates);
+		DDoglegConcurrency.loopBlocks(0, numCandidates, concurrentClippers, ( clipper, idx0, idx1 ) ->
+				computeCandidateIoU(clipper, idx0, idx1));
+	}
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.metric.alg;
+
+import org.ddogleg.sorting.QuickSort_F64;
+import org.ddogleg.struct.DogArray_B;
+import org.ddogleg.struct.DogArray_F64;
+import org.ddogleg.struct.DogArray_I32;
+
+/**
+ * <p>
+ * Shared steps for computing the IoU between every pair in a large set of shapes and for performing greedy
+ * non-maximum suppression (NMS) with it. Candidate pairs are found by sweeping along the first axis and only
+ * keeping pairs whose axis aligned bounding boxes overlap and whose IoU could be greater than the minimum. The
+ * exact IoU of the candidates is computed by the caller.
+ * </p>
+ *
+ * <p>
+ * Bounding boxes are packed as (min<sub>0</sub>, ..., min<sub>D-1</sub>, max<sub>0</sub>, ..., max<sub>D-1</sub>),
+ * where D is the number of dimensions, e.g. (x0,y0,x1,y1) in 2D. No memory is declared after the first call.
+ * </p>
+ *
+ * @author Peter Abeles
+ * @see OverlapBoxesOriented3D_F64
+ * @see georegression.geometry.polygon.OverlapConvexPolygons2D_F64
+ */
+public class OverlapSweepNms_F64 {
+	// Used to sort shapes along the first axis and by score
+	protected final QuickSort_F64 sorter = new QuickSort_F64();
+	protected final DogArray_F64 sortValues = new DogArray_F64();
+	protected final DogArray_I32 order = new DogArray_I32();
+
+	// Neighbors of each shape in compressed row format, used by NMS
+	protected final DogArray_I32 neighborStart = new DogArray_I32();
+	protected final DogArray_I32 neighbors = new DogArray_I32();
+	protected final DogArray_B suppressed = new DogArray_B();
+
+	/**
+	 * Finds pairs whose bounding boxes overlap using a sweep along the first axis. Pairs which can't possibly have
+	 * an IoU greater than the minimum are skipped. The intersection can't be larger than the overlap of the bounding
+	 * boxes or the smaller shape.
+	 *
+	 * @param bounds (Input) Bounding box of each shape, packed as described in the class description
+	 * @param sizes (Input) Area or volume of each shape
+	 * @param count (Input) Number of shapes
+	 * @param dimension (Input) Number of dimensions, D
+	 * @param minimumIoU (Input) Pairs whose IoU can't be greater than this are skipped
+	 * @param candidates (Output) Pairs packed as (i,j) with i &lt; j
+	 */
+	public void findCandidates( double[] bounds, double[] sizes, int count, int dimension, double minimumIoU,
+								DogArray_I32 candidates ) {
+		int stride = 2*dimension;
+		sortValues.resize(count);
+		order.resize(count);
+		for (int i = 0; i < count; i++) {
+			sortValues.data[i] = bounds[i*stride];
+		}
+		sorter.sort(sortValues.data, 0, count, order.data);
+
+		candidates.reset();
+		for (int a = 0; a < count; a++) {
+			int i = order.data[a];
+			int idxI = i*stride;
+			double ax1 = bounds[idxI + dimension];
+			for (int b = a + 1; b < count; b++) {
+				int j = order.data[b];
+				int idxJ = j*stride;
+				if (bounds[idxJ] > ax1)
+					break;
+
+				double maxIntersection = Math.min(ax1, bounds[idxJ + dimension]) - bounds[idxJ];
+				for (int d = 1; d < dimension; d++) {
+					double overlap = Math.min(bounds[idxI + dimension + d], bounds[idxJ + dimension + d]) -
+							Math.max(bounds[idxI + d], bounds[idxJ + d]);
+					if (overlap < 0.0) {
+						maxIntersection = -1.0;
+						break;
+					}
+					maxIntersection *= overlap;
+				}
+				if (maxIntersection < 0.0)
+					continue;
+
+				maxIntersection = Math.min(maxIntersection, Math.min(sizes[i], sizes[j]));
+				double union = sizes[i] + sizes[j] - maxIntersection;
+				if (union <= 0.0 || maxIntersection <= minimumIoU*union)
+					continue;
+
+				candidates.add(Math.min(i, j));
+				candidates.add(Math.max(i, j));
+			}
+		}
+	}
+
+	/**
+	 * Greedy non-maximum suppression. Shapes are visited from the highest score to the lowest. If a shape hasn't
+	 * been suppressed it's selected and every shape it's paired with is suppressed.
+	 *
+	 * @param pairs (Input) Pairs packed as (i,j) which overlap by more than the threshold
+	 * @param scores (Input) Score for each shape. Higher is better.
+	 * @param count (Input) Number of shapes
+	 * @param selected (Output) Index of selected shapes, ordered from highest to lowest score
+	 */
+	public void nonMaximumSuppression( DogArray_I32 pairs, double[] scores, int count, DogArray_I32 selected ) {
+		// Neighbors of each shape in compressed row format
+		neighborStart.reset().resize(count + 1, 0);
+		for (int k = 0; k < pairs.size; k++) {
+			neighborStart.data[pairs.data[k] + 1]++;
+		}
+		for (int i = 0; i < count; i++) {
+			neighborStart.data[i + 1] += neighborStart.data[i];
+		}
+		neighbors.resize(pairs.size);
+		for (int k = 0; k < pairs.size; k += 2) {
+			int i = pairs.data[k], j = pairs.data[k + 1];
+			neighbors.data[neighborStart.data[i]++] = j;
+			neighbors.data[neighborStart.data[j]++] = i;
+		}
+		// undo the shift caused by filling in the neighbors
+		for (int i = count; i > 0; i--) {
+			neighborStart.data[i] = neighborStart.data[i - 1];
+		}
+		neighborStart.data[0] = 0;
+
+		// Sort by score from highest to lowest
+		sortValues.resize(count);
+		order.resize(count);
+		for (int i = 0; i < count; i++) {
+			sortValues.data[i] = -scores[i];
+		}
+		sorter.sort(sortValues.data, 0, count, order.data);
+
+		selected.reset();
+		suppressed.reset().resize(count, false);
+		for (int rank = 0; rank < count; rank++) {
+			int i = order.data[rank];
+			if (suppressed.data[i])
+				continue;
+			selected.add(i);
+			for (int k = neighborStart.data[i]; k < neighborStart.data[i + 1]; k++) {
+				suppressed.data[neighbors.data[k]] = true;
+			}
+		}
+	}
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.struct.point;
+
+/**
+ * A pair of corresponding 2D points, where 'src' is the point in the source frame and 'dst' the
+ * same point observed in the destination frame. Used to fit transforms with robust model fitting.
+ *
+ * @author Peter Abeles
+ */
+public class AssociatedPair2D_F64 {
+	/** Location in the source frame */
+	public Point2D_F64 src = new Point2D_F64();
+	/** Location in the destination frame */
+	public Point2D_F64 dst = new Point2D_F64();
+
+	public AssociatedPair2D_F64( Point2D_F64 src, Point2D_F64 dst ) {
+		setTo(src, dst);
+	}
+
+	public AssociatedPair2D_F64( double srcX, double srcY, double dstX, double dstY ) {
+		setTo(srcX, srcY, dstX, dstY);
+	}
+
+	public AssociatedPair2D_F64() {}
+
+	/** Assigns the value of both points by copying them */
+	public AssociatedPair2D_F64 setTo( Point2D_F64 src, Point2D_F64 dst ) {
+		this.src.setTo(src);
+		this.dst.setTo(dst);
+		return this;
+	}
+
+	public AssociatedPair2D_F64 setTo( double srcX, double srcY, double dstX, double dstY ) {
+		this.src.setTo(srcX, srcY);
+		this.dst.setTo(dstX, dstY);
+		return this;
+	}
+
+	public AssociatedPair2D_F64 setTo( AssociatedPair2D_F64 pair ) {
+		return setTo(pair.src, pair.dst);
+	}
+
+	public AssociatedPair2D_F64 copy() {
+		return new AssociatedPair2D_F64(src, dst);
+	}
+
+	@Override
+	public String toString() {
+		return "AssociatedPair2D_F64{src=" + src + ", dst=" + dst + "}";
+	}
+}
@@ -0,0 +1,354 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.struct.se;
+
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.point.Vector3D_F64;
+import org.ejml.data.DMatrix3x3;
+import org.ejml.data.DMatrixRMaj;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * <p>
+ * Same as {@link Se3_F64} but the rotation matrix is stored in a fixed sized {@link DMatrix3x3}. All operations
+ * are fully unrolled and don't go through generic matrix operations, which makes composing and applying
+ * transforms significantly faster. Intended for when a large number of transforms are chained together.
+ * Use {@link #setTo(Se3_F64)} and {@link #convertTo(Se3_F64)} to convert to and from {@link Se3_F64}.
+ * </p>
+ *
+ * <p>
+ * Unlike {@link Se3_F64}, 'this', 'second', and 'result' can be the same instance in all operations.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class Se3Fixed_F64 implements SpecialEuclidean<Se3Fixed_F64> {
+	// serialization version
+	public static final long serialVersionUID = 1L;
+
+	// rotation matrix
+	public DMatrix3x3 R = new DMatrix3x3(1, 0, 0, 0, 1, 0, 0, 0, 1);
+	// translation vector
+	public Vector3D_F64 T = new Vector3D_F64();
+
+	/**
+	 * Initializes the transform with the provided rotation and translation. A copy is made.
+	 */
+	public Se3Fixed_F64( DMatrix3x3 R, Vector3D_F64 T ) {
+		this.R.setTo(R);
+		this.T.setTo(T);
+	}
+
+	/**
+	 * Creates a copy of the provided transform
+	 */
+	public Se3Fixed_F64( Se3_F64 src ) {
+		setTo(src);
+	}
+
+	/**
+	 * Creates a new transform that does nothing.
+	 */
+	public Se3Fixed_F64() {}
+
+	@Override
+	public Se3Fixed_F64 setTo( Se3Fixed_F64 src ) {
+		R.setTo(src.R);
+		T.setTo(src.T);
+		return this;
+	}
+
+	/**
+	 * Copies the value of a {@link Se3_F64} into this transform
+	 */
+	public Se3Fixed_F64 setTo( Se3_F64 src ) {
+		double[] r = src.R.data;
+		R.setTo(r[0], r[1], r[2], r[3], r[4], r[5], r[6], r[7], r[8]);
+		T.setTo(src.T);
+		return this;
+	}
+
+	/**
+	 * Copies the value of this transform into a {@link Se3_F64}
+	 *
+	 * @param dst (Output) Storage for the transform. If null a new instance is created.
+	 * @return The converted transform
+	 */
+	public Se3_F64 convertTo( @Nullable Se3_F64 dst ) {
+		if (dst == null)
+			dst = new Se3_F64();
+		DMatrixRMaj r = dst.R;
+		r.data[0] = R.a11;
+		r.data[1] = R.a12;
+		r.data[2] = R.a13;
+		r.data[3] = R.a21;
+		r.data[4] = R.a22;
+		r.data[5] = R.a23;
+		r.data[6] = R.a31;
+		r.data[7] = R.a32;
+		r.data[8] = R.a33;
+		dst.T.setTo(T);
+		return dst;
+	}
+
+	/**
+	 * Sets the translation to (x,y,z)
+	 */
+	public void setTranslation( double x, double y, double z ) {
+		T.setTo(x, y, z);
+	}
+
+	public DMatrix3x3 getR() {
+		return R;
+	}
+
+	public Vector3D_F64 getT() {
+		return T;
+	}
+
+	@Override
+	public int getDimension() {
+		return 3;
+	}
+
+	@Override
+	public Se3Fixed_F64 createInstance() {
+		return new Se3Fixed_F64();
+	}
+
+	@Override
+	public Se3Fixed_F64 concat( Se3Fixed_F64 second, @Nullable Se3Fixed_F64 result ) {
+		if (result == null)
+			result = new Se3Fixed_F64();
+
+		DMatrix3x3 a = second.R;
+		DMatrix3x3 b = R;
+
+		// T = second.R*T + second.T
+		double tx = a.a11*T.x + a.a12*T.y + a.a13*T.z + second.T.x;
+		double ty = a.a21*T.x + a.a22*T.y + a.a23*T.z + second.T.y;
+		double tz = a.a31*T.x + a.a32*T.y + a.a33*T.z + second.T.z;
+
+		// R = second.R*R
+		double c11 = a.a11*b.a11 + a.a12*b.a21 + a.a13*b.a31;
+		double c12 = a.a11*b.a12 + a.a12*b.a22 + a.a13*b.a32;
+		double c13 = a.a11*b.a13 + a.a12*b.a23 + a.a13*b.a33;
+		double c21 = a.a21*b.a11 + a.a22*b.a21 + a.a23*b.a31;
+		double c22 = a.a21*b.a12 + a.a22*b.a22 + a.a23*b.a32;
+		double c23 = a.a21*b.a13 + a.a22*b.a23 + a.a23*b.a33;
+		double c31 = a.a31*b.a11 + a.a32*b.a21 + a.a33*b.a31;
+		double c32 = a.a31*b.a12 + a.a32*b.a22 + a.a33*b.a32;
+		double c33 = a.a31*b.a13 + a.a32*b.a23 + a.a33*b.a33;
+
+		result.R.setTo(c11, c12, c13, c21, c22, c23, c31, c32, c33);
+		result.T.setTo(tx, ty, tz);
+		return result;
+	}
+
+	@Override
+	public Se3Fixed_F64 invertConcat( Se3Fixed_F64 second, @Nullable Se3Fixed_F64 result ) {
+		if (result == null)
+			result = new Se3Fixed_F64();
+
+		DMatrix3x3 a = second.R;
+		DMatrix3x3 b = R;
+
+		// -R'*T
+		double px = -(b.a11*T.x + b.a21*T.y + b.a31*T.z);
+		double py = -(b.a12*T.x + b.a22*T.y + b.a32*T.z);
+		double pz = -(b.a13*T.x + b.a23*T.y + b.a33*T.z);
+
+		// T = second.R*(-R'*T) + second.T
+		double tx = a.a11*px + a.a12*py + a.a13*pz + second.T.x;
+		double ty = a.a21*px + a.a22*py + a.a23*pz + second.T.y;
+		double tz = a.a31*px + a.a32*py + a.a33*pz + second.T.z;
+
+		// R = second.R*R'
+		double c11 = a.a11*b.a11 + a.a12*b.a12 + a.a13*b.a13;
+		double c12 = a.a11*b.a21 + a.a12*b.a22 + a.a13*b.a23;
+		double c13 = a.a11*b.a31 + a.a12*b.a32 + a.a13*b.a33;
+		double c21 = a.a21*b.a11 + a.a22*b.a12 + a.a23*b.a13;
+		double c22 = a.a21*b.a21 + a.a22*b.a22 + a.a23*b.a23;
+		double c23 = a.a21*b.a31 + a.a22*b.a32 + a.a23*b.a33;
+		double c31 = a.a31*b.a11 + a.a32*b.a12 + a.a33*b.a13;
+		double c32 = a.a31*b.a21 + a.a32*b.a22 + a.a33*b.a23;
+		double c33 = a.a31*b.a31 + a.a32*b.a32 + a.a33*b.a33;
+
+		result.R.setTo(c11, c12, c13, c21, c22, c23, c31, c32, c33);
+		result.T.setTo(tx, ty, tz);
+		return result;
+	}
+
+	@Override
+	public Se3Fixed_F64 concatInvert( Se3Fixed_F64 second, @Nullable Se3Fixed_F64 result ) {
+		if (result == null)
+			result = new Se3Fixed_F64();
+
+		DMatrix3x3 a = second.R;
+		DMatrix3x3 b = R;
+
+		// T = second.R'*(T - second.T)
+		double dx = T.x - second.T.x;
+		double dy = T.y - second.T.y;
+		double dz = T.z - second.T.z;
+		double tx = a.a11*dx + a.a21*dy + a.a31*dz;
+		double ty = a.a12*dx + a.a22*dy + a.a32*dz;
+		double tz = a.a13*dx + a.a23*dy + a.a33*dz;
+
+		// R = second.R'*R
+		double c11 = a.a11*b.a11 + a.a21*b.a21 + a.a31*b.a31;
+		double c12 = a.a11*b.a12 + a.a21*b.a22 + a.a31*b.a32;
+		double c13 = a.a11*b.a13 + a.a21*b.a23 + a.a31*b.a33;
+		double c21 = a.a12*b.a11 + a.a22*b.a21 + a.a32*b.a31;
+		double c22 = a.a12*b.a12 + a.a22*b.a22 + a.a32*b.a32;
+		double c23 = a.a12*b.a13 + a.a22*b.a23 + a.a32*b.a33;
+		double c31 = a.a13*b.a11 + a.a23*b.a21 + a.a33*b.a31;
+		double c32 = a.a13*b.a12 + a.a23*b.a22 + a.a33*b.a32;
+		double c33 = a.a13*b.a13 + a.a23*b.a23 + a.a33*b.a33;
+
+		result.R.setTo(c11, c12, c13, c21, c22, c23, c31, c32, c33);
+		result.T.setTo(tx, ty, tz);
+		return result;
+	}
+
+	@Override
+	public Se3Fixed_F64 invert( @Nullable Se3Fixed_F64 inverse ) {
+		if (inverse == null)
+			inverse = new Se3Fixed_F64();
+
+		DMatrix3x3 r = R;
+
+		// -R'*T
+		double tx = -(r.a11*T.x + r.a21*T.y + r.a31*T.z);
+		double ty = -(r.a12*T.x + r.a22*T.y + r.a32*T.z);
+		double tz = -(r.a13*T.x + r.a23*T.y + r.a33*T.z);
+
+		inverse.R.setTo(r.a11, r.a21, r.a31, r.a12, r.a22, r.a32, r.a13, r.a23, r.a33);
+		inverse.T.setTo(tx, ty, tz);
+		return inverse;
+	}
+
+	@Override
+	public void reset() {
+		R.setTo(1, 0, 0, 0, 1, 0, 0, 0, 1);
+		T.setTo(0, 0, 0);
+	}
+
+	/**
+	 * Applies the transform to the src point and stores the result in dst. src and dst can be the same instance
+	 *
+	 * @param src Input
+	 * @param dst Output
+	 * @return Output
+	 */
+	public Point3D_F64 transform( Point3D_F64 src, @Nullable Point3D_F64 dst ) {
+		if (dst == null)
+			dst = new Point3D_F64();
+
+		double x = src.x, y = src.y, z = src.z;
+		dst.x = R.a11*x + R.a12*y + R.a13*z + T.x;
+		dst.y = R.a21*x + R.a22*y + R.a23*z + T.y;
+		dst.z = R.a31*x + R.a32*y + R.a33*z + T.z;
+		return dst;
+	}
+
+	/**
+	 * Applies the reverse transform to the src point and stores the result in dst. src and dst can be the same
+	 * instance
+	 *
+	 * @param src Input
+	 * @param dst Output
+	 * @return Output
+	 */
+	public Point3D_F64 transformReverse( Point3D_F64 src, @Nullable Point3D_F64 dst ) {
+		if (dst == null)
+			dst = new Point3D_F64();
+
+		double x = src.x - T.x, y = src.y - T.y, z = src.z - T.z;
+		dst.x = R.a11*x + R.a21*y + R.a31*z;
+		dst.y = R.a12*x + R.a22*y + R.a32*z;
+		dst.z = R.a13*x + R.a23*y + R.a33*z;
+		return dst;
+	}
+
+	/**
+	 * Applies the rotation to the src vector and stores the result in dst. src and dst can be the same instance
+	 *
+	 * @param src Input
+	 * @param dst Output
+	 * @return Output
+	 */
+	public Vector3D_F64 transform( Vector3D_F64 src, @Nullable Vector3D_F64 dst ) {
+		if (dst == null)
+			dst = new Vector3D_F64();
+
+		double x = src.x, y = src.y, z = src.z;
+		dst.x = R.a11*x + R.a12*y + R.a13*z;
+		dst.y = R.a21*x + R.a22*y + R.a23*z;
+		dst.z = R.a31*x + R.a32*y + R.a33*z;
+		return dst;
+	}
+
+	/**
+	 * Applies the reverse rotation to the src vector and stores the result in dst. src and dst can be the same
+	 * instance
+	 *
+	 * @param src Input
+	 * @param dst Output
+	 * @return Output
+	 */
+	public Vector3D_F64 transformReverse( Vector3D_F64 src, @Nullable Vector3D_F64 dst ) {
+		if (dst == null)
+			dst = new Vector3D_F64();
+
+		double x = src.x, y = src.y, z = src.z;
+		dst.x = R.a11*x + R.a21*y + R.a31*z;
+		dst.y = R.a12*x + R.a22*y + R.a32*z;
+		dst.z = R.a13*x + R.a23*y + R.a33*z;
+		return dst;
+	}
+
+	/**
+	 * Checks to see if the two transforms are identical to within tolerance
+	 *
+	 * @param tolT Tolerance for each element in the translation
+	 * @param tolR Tolerance for each element in the rotation matrix
+	 */
+	public boolean isIdentical( Se3Fixed_F64 other, double tolT, double tolR ) {
+		if (!T.isIdentical(other.T, tolT))
+			return false;
+		DMatrix3x3 a = R, b = other.R;
+		return Math.abs(a.a11 - b.a11) <= tolR && Math.abs(a.a12 - b.a12) <= tolR && Math.abs(a.a13 - b.a13) <= tolR &&
+				Math.abs(a.a21 - b.a21) <= tolR && Math.abs(a.a22 - b.a22) <= tolR && Math.abs(a.a23 - b.a23) <= tolR &&
+				Math.abs(a.a31 - b.a31) <= tolR && Math.abs(a.a32 - b.a32) <= tolR && Math.abs(a.a33 - b.a33) <= tolR;
+	}
+
+	public Se3Fixed_F64 copy() {
+		return new Se3Fixed_F64().setTo(this);
+	}
+
+	@Override
+	public String toString() {
+		return "Se3Fixed_F64: T = " + T + "\n" + R;
+	}
+
+	public void print() {
+		System.out.println(this);
+	}
+}
@@ -0,0 +1,352 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.struct.se;
+
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.geometry.UtilQuaternion_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.point.Vector3D_F64;
+import georegression.struct.so.Quaternion_F64;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * <p>
+ * Rigid body transform where the rotation is encoded using a unit quaternion. Composing two transforms takes
+ * fewer operations than with a rotation matrix and avoids converting back and forth between quaternions and
+ * rotation matrices when interpolating, e.g. along a trajectory.
+ * </p>
+ *
+ * <p>
+ * A point is transformed by p' = q*p*conj(q) + T. Rounding errors will slowly cause the quaternion to no longer
+ * have a norm of one after many operations. Call {@link #normalize()} periodically to fix that. In all operations
+ * 'this', 'second', and 'result' can be the same instance.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class Se3Quaternion_F64 implements SpecialEuclidean<Se3Quaternion_F64> {
+	// serialization version
+	public static final long serialVersionUID = 1L;
+
+	/** Rotation. Unit quaternion */
+	public Quaternion_F64 q = new Quaternion_F64();
+	/** Translation */
+	public Vector3D_F64 T = new Vector3D_F64();
+
+	/**
+	 * Initializes the transform with the provided rotation and translation. A copy is made.
+	 */
+	public Se3Quaternion_F64( Quaternion_F64 q, Vector3D_F64 T ) {
+		this.q.setTo(q);
+		this.T.setTo(T);
+	}
+
+	/**
+	 * Creates a copy of the provided transform
+	 */
+	public Se3Quaternion_F64( Se3_F64 src ) {
+		setTo(src);
+	}
+
+	/**
+	 * Creates a new transform that does nothing.
+	 */
+	public Se3Quaternion_F64() {}
+
+	@Override
+	public Se3Quaternion_F64 setTo( Se3Quaternion_F64 src ) {
+		q.setTo(src.q);
+		T.setTo(src.T);
+		return this;
+	}
+
+	/**
+	 * Copies the value of a {@link Se3_F64} into this transform
+	 */
+	public Se3Quaternion_F64 setTo( Se3_F64 src ) {
+		ConvertRotation3D_F64.matrixToQuaternion(src.R, q);
+		T.setTo(src.T);
+		return this;
+	}
+
+	/**
+	 * Copies the value of this transform into a {@link Se3_F64}
+	 *
+	 * @param dst (Output) Storage for the transform. If null a new instance is created.
+	 * @return The converted transform
+	 */
+	public Se3_F64 convertTo( @Nullable Se3_F64 dst ) {
+		if (dst == null)
+			dst = new Se3_F64();
+		ConvertRotation3D_F64.quaternionToMatrix(q, dst.R);
+		dst.T.setTo(T);
+		return dst;
+	}
+
+	/**
+	 * Normalizes the quaternion so that it's a unit quaternion
+	 */
+	public void normalize() {
+		q.normalize();
+	}
+
+	public Quaternion_F64 getQ() {
+		return q;
+	}
+
+	public Vector3D_F64 getT() {
+		return T;
+	}
+
+	@Override
+	public int getDimension() {
+		return 3;
+	}
+
+	@Override
+	public Se3Quaternion_F64 createInstance() {
+		return new Se3Quaternion_F64();
+	}
+
+	@Override
+	public Se3Quaternion_F64 concat( Se3Quaternion_F64 second, @Nullable Se3Quaternion_F64 result ) {
+		if (result == null)
+			result = new Se3Quaternion_F64();
+
+		// T = second.R*T + second.T
+		double tx = second.T.x, ty = second.T.y, tz = second.T.z;
+		UtilQuaternion_F64.rotate(second.q, T, result.T);
+		result.T.x += tx;
+		result.T.y += ty;
+		result.T.z += tz;
+
+		// q = second.q*q
+		UtilQuaternion_F64.multiply(second.q, q, result.q);
+		return result;
+	}
+
+	@Override
+	public Se3Quaternion_F64 invertConcat( Se3Quaternion_F64 second, @Nullable Se3Quaternion_F64 result ) {
+		if (result == null)
+			result = new Se3Quaternion_F64();
+
+		// T = second.R*(-R'*T) + second.T
+		double qw = q.w, qx = q.x, qy = q.y, qz = q.z;
+		double tx = second.T.x, ty = second.T.y, tz = second.T.z;
+		Vector3D_F64 t = result.T;
+		t.setTo(-T.x, -T.y, -T.z);
+		rotateInverse(qw, qx, qy, qz, t);
+		UtilQuaternion_F64.rotate(second.q, t, t);
+		t.x += tx;
+		t.y += ty;
+		t.z += tz;
+
+		// q = second.q*conj(q)
+		double sw = second.q.w, sx = second.q.x, sy = second.q.y, sz = second.q.z;
+		result.q.setTo(
+				sw*qw + sx*qx + sy*qy + sz*qz,
+				-sw*qx + sx*qw - sy*qz + sz*qy,
+				-sw*qy + sx*qz + sy*qw - sz*qx,
+				-sw*qz - sx*qy + sy*qx + sz*qw);
+		return result;
+	}
+
+	@Override
+	public Se3Quaternion_F64 concatInvert( Se3Quaternion_F64 second, @Nullable Se3Quaternion_F64 result ) {
+		if (result == null)
+			result = new Se3Quaternion_F64();
+
+		// T = second.R'*(T - second.T)
+		double sw = second.q.w, sx = second.q.x, sy = second.q.y, sz = second.q.z;
+		result.T.setTo(T.x - second.T.x, T.y - second.T.y, T.z - second.T.z);
+		rotateInverse(sw, sx, sy, sz, result.T);
+
+		// q = conj(second.q)*q
+		double qw = q.w, qx = q.x, qy = q.y, qz = q.z;
+		result.q.setTo(
+				sw*qw + sx*qx + sy*qy + sz*qz,
+				sw*qx - sx*qw - sy*qz + sz*qy,
+				sw*qy + sx*qz - sy*qw - sz*qx,
+				sw*qz - sx*qy + sy*qx - sz*qw);
+		return result;
+	}
+
+	@Override
+	public Se3Quaternion_F64 invert( @Nullable Se3Quaternion_F64 inverse ) {
+		if (inverse == null)
+			inverse = new Se3Quaternion_F64();
+
+		// T = -R'*T
+		inverse.T.setTo(-T.x, -T.y, -T.z);
+		rotateInverse(q.w, q.x, q.y, q.z, inverse.T);
+		UtilQuaternion_F64.conjugate(q, inverse.q);
+		return inverse;
+	}
+
+	/**
+	 * Rotates the vector in place by the inverse of the quaternion
+	 */
+	private static void rotateInverse( double w, double x, double y, double z, Vector3D_F64 v ) {
+		double tx = 2.0*(-y*v.z + z*v.y);
+		double ty = 2.0*(-z*v.x + x*v.z);
+		double tz = 2.0*(-x*v.y + y*v.x);
+
+		double vx = v.x + w*tx - y*tz + z*ty;
+		double vy = v.y + w*ty - z*tx + x*tz;
+		double vz = v.z + w*tz - x*ty + y*tx;
+		v.setTo(vx, vy, vz);
+	}
+
+	@Override
+	public void reset() {
+		q.setTo(1, 0, 0, 0);
+		T.setTo(0, 0, 0);
+	}
+
+	/**
+	 * Applies the transform to the src point and stores the result in dst. src and dst can be the same instance
+	 *
+	 * @param src Input
+	 * @param dst Output
+	 * @return Output
+	 */
+	public Point3D_F64 transform( Point3D_F64 src, @Nullable Point3D_F64 dst ) {
+		if (dst == null)
+			dst = new Point3D_F64();
+		UtilQuaternion_F64.rotate(q, src, dst);
+		dst.x += T.x;
+		dst.y += T.y;
+		dst.z += T.z;
+		return dst;
+	}
+
+	/**
+	 * Applies the reverse transform to the src point and stores the result in dst. src and dst can be the same
+	 * instance
+	 *
+	 * @param src Input
+	 * @param dst Output
+	 * @return Output
+	 */
+	public Point3D_F64 transformReverse( Point3D_F64 src, @Nullable Point3D_F64 dst ) {
+		if (dst == null)
+			dst = new Point3D_F64();
+		dst.setTo(src.x - T.x, src.y - T.y, src.z - T.z);
+		double tx = 2.0*(-q.y*dst.z + q.z*dst.y);
+		double ty = 2.0*(-q.z*dst.x + q.x*dst.z);
+		double tz = 2.0*(-q.x*dst.y + q.y*dst.x);
+		dst.setTo(
+				dst.x + q.w*tx - q.y*tz + q.z*ty,
+				dst.y + q.w*ty - q.z*tx + q.x*tz,
+				dst.z + q.w*tz - q.x*ty + q.y*tx);
+		return dst;
+	}
+
+	/**
+	 * Interpolates between this transform and 'end'. The rotation is interpolated using SLERP and
+	 * the translation linearly.
+	 *
+	 * @param end (Input) Transform at t = 1. 'this' is the transform at t = 0
+	 * @param t (Input) Interpolation location. Typically 0 to 1.
+	 * @param output (Output) Interpolated transform. If null a new instance is created.
+	 * @return The interpolated transform
+	 */
+	public Se3Quaternion_F64 interpolate( Se3Quaternion_F64 end, double t, @Nullable Se3Quaternion_F64 output ) {
+		if (output == null)
+			output = new Se3Quaternion_F64();
+
+		output.T.setTo(
+				T.x + t*(end.T.x - T.x),
+				T.y + t*(end.T.y - T.y),
+				T.z + t*(end.T.z - T.z));
+		UtilQuaternion_F64.slerp(q, end.q, t, output.q);
+		return output;
+	}
+
+	/**
+	 * Screw linear interpolation (ScLERP) between this transform and 'end'. The relative motion between the two
+	 * transforms is a rotation around an axis and a translation along that same axis. Both are interpolated
+	 * at a constant rate, which is the same as interpolating a unit dual quaternion. Unlike {@link #interpolate}
+	 * the path doesn't depend on the location of the origin.
+	 *
+	 * @param end (Input) Transform at t = 1. 'this' is the transform at t = 0
+	 * @param t (Input) Interpolation location. Typically 0 to 1.
+	 * @param output (Output) Interpolated transform. If null a new instance is created.
+	 * @return The interpolated transform
+	 */
+	public Se3Quaternion_F64 interpolateScrew( Se3Quaternion_F64 end, double t, @Nullable Se3Quaternion_F64 output ) {
+		if (output == null)
+			output = new Se3Quaternion_F64();
+
+		// Motion from this to end, in this transform's frame
+		var delta = end.concatInvert(this, null);
+		Quaternion_F64 dq = delta.q;
+		if (dq.w < 0.0)
+			dq.setTo(-dq.w, -dq.x, -dq.y, -dq.z);
+		Vector3D_F64 dt = delta.T;
+
+		double sinHalf = Math.sqrt(dq.x*dq.x + dq.y*dq.y + dq.z*dq.z);
+		double theta = 2.0*(double)Math.atan2(sinHalf, dq.w);
+
+		if (theta < GrlConstants.TEST_F64) {
+			// There is almost no rotation so it's a translation
+			UtilQuaternion_F64.slerp(new Quaternion_F64(), dq, t, dq);
+			dt.scale(t);
+		} else {
+			// Unit vector of the screw axis
+			double nx = dq.x/sinHalf, ny = dq.y/sinHalf, nz = dq.z/sinHalf;
+
+			// Translation along the screw axis and perpendicular to it
+			double d = nx*dt.x + ny*dt.y + nz*dt.z;
+			double px = dt.x - d*nx, py = dt.y - d*ny, pz = dt.z - d*nz;
+
+			// Point on the screw axis, c = (p + cot(theta/2)*(n x p))/2
+			double cot = 1.0/(double)Math.tan(theta/2.0);
+			var c = new Vector3D_F64(
+					(px + cot*(ny*pz - nz*py))/2.0,
+					(py + cot*(nz*px - nx*pz))/2.0,
+					(pz + cot*(nx*py - ny*px))/2.0);
+
+			// Rotate around the axis by a fraction of the angle
+			double halfAngle = t*theta/2.0;
+			double s = Math.sin(halfAngle);
+			dq.setTo((double)Math.cos(halfAngle), nx*s, ny*s, nz*s);
+
+			// translation = c - R*c + t*d*n
+			var rc = UtilQuaternion_F64.rotate(dq, c, new Vector3D_F64());
+			dt.setTo(c.x - rc.x + t*d*nx, c.y - rc.y + t*d*ny, c.z - rc.z + t*d*nz);
+		}
+
+		return delta.concat(this, output);
+	}
+
+	public Se3Quaternion_F64 copy() {
+		return new Se3Quaternion_F64().setTo(this);
+	}
+
+	@Override
+	public String toString() {
+		return "Se3Quaternion_F64: T = " + T + " q = " + q;
+	}
+
+	public void print() {
+		System.out.println(this);
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.struct.shapes;
+
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.transform.se.SePointOps_F64;
+import lombok.Getter;
+import lombok.Setter;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Serializable;
+
+/**
+ * A box in 3D with an arbitrary orientation, also known as an Oriented Bounding Box (OBB). In the box's reference
+ * frame it's centered at the origin and its sides are aligned with the axes, with lengths of lengthX, lengthY,
+ * and lengthZ. The pose specifies the transform from the box's reference frame to the world frame.
+ *
+ * @author Peter Abeles
+ */
+@Getter @Setter
+public class BoxOriented3D_F64 implements Serializable {
+	/** Transform from box to world. The translation is the box's center */
+	public Se3_F64 pose = new Se3_F64();
+
+	/** The length of each side along the box's axes */
+	public double lengthX, lengthY, lengthZ;
+
+	public BoxOriented3D_F64( Se3_F64 pose, double lengthX, double lengthY, double lengthZ ) {
+		setTo(pose, lengthX, lengthY, lengthZ);
+	}
+
+	public BoxOriented3D_F64( BoxOriented3D_F64 orig ) {
+		setTo(orig);
+	}
+
+	public BoxOriented3D_F64() {}
+
+	public BoxOriented3D_F64 setTo( BoxOriented3D_F64 orig ) {
+		return setTo(orig.pose, orig.lengthX, orig.lengthY, orig.lengthZ);
+	}
+
+	public BoxOriented3D_F64 setTo( Se3_F64 pose, double lengthX, double lengthY, double lengthZ ) {
+		this.pose.setTo(pose);
+		this.lengthX = lengthX;
+		this.lengthY = lengthY;
+		this.lengthZ = lengthZ;
+		return this;
+	}
+
+	public void zero() {
+		pose.reset();
+		lengthX = lengthY = lengthZ = 0.0;
+	}
+
+	public double volume() {
+		return lengthX*lengthY*lengthZ;
+	}
+
+	public void setPose( Se3_F64 pose ) {
+		this.pose.setTo(pose);
+	}
+
+	/**
+	 * Used to retrieve the corners of the box in the world frame. Bits 0, 1, and 2 in the index select the
+	 * positive side along x, y, and z.
+	 *
+	 * @param index A value from 0 to 7
+	 * @param corner (Optional) storage for the corner. If null a new point will be declared
+	 * @return The corner.
+	 */
+	public Point3D_F64 getCorner( int index, @Nullable Point3D_F64 corner ) {
+		if (corner == null)
+			corner = new Point3D_F64();
+
+		corner.x = (index & 0x01) != 0 ? lengthX/2.0 : -lengthX/2.0;
+		corner.y = (index & 0x02) != 0 ? lengthY/2.0 : -lengthY/2.0;
+		corner.z = (index & 0x04) != 0 ? lengthZ/2.0 : -lengthZ/2.0;
+		return SePointOps_F64.transform(pose, corner, corner);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " center( " + pose.T.x + " " + pose.T.y + " " + pose.T.z +
+				" ) sides ( " + lengthX + " , " + lengthY + " , " + lengthZ + " )";
+	}
+}
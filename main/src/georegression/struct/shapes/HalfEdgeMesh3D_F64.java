@@ -0,0 +1,253 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.struct.shapes;
+
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.point.Vector3D_F64;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_I32;
+
+import java.io.Serializable;
+
+/**
+ * <p>
+ * A closed polygonal surface mesh in 3D, stored as a half-edge data structure. Every edge in the mesh is split
+ * into two half-edges which point in opposite directions, one for each of the two faces it borders. Faces
+ * are convex or non-convex polygons with any number of vertexes. Half-edges around a face are ordered
+ * counter-clockwise when viewed from outside, i.e. the face's normal points out of the surface.
+ * </p>
+ *
+ * <p>
+ * All connectivity is stored in arrays of indexes, one entry for each half-edge, face, or vertex.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class HalfEdgeMesh3D_F64 implements Serializable {
+	/** Location of each vertex */
+	public DogArray<Point3D_F64> vertexes = new DogArray<>(Point3D_F64::new);
+
+	/** For each vertex, the index of a half-edge which starts at the vertex */
+	public DogArray_I32 vertexEdge = new DogArray_I32();
+
+	/** For each half-edge, index of the vertex it starts at */
+	public DogArray_I32 edgeVertex = new DogArray_I32();
+
+	/** For each half-edge, index of the half-edge going in the opposite direction */
+	public DogArray_I32 edgeTwin = new DogArray_I32();
+
+	/** For each half-edge, index of the next half-edge around the same face */
+	public DogArray_I32 edgeNext = new DogArray_I32();
+
+	/** For each half-edge, index of the face it belongs to */
+	public DogArray_I32 edgeFace = new DogArray_I32();
+
+	/** For each face, index of one of its half-edges */
+	public DogArray_I32 faceEdge = new DogArray_I32();
+
+	/**
+	 * Removes all vertexes, edges, and faces
+	 */
+	public void reset() {
+		vertexes.reset();
+		vertexEdge.reset();
+		edgeVertex.reset();
+		edgeTwin.reset();
+		edgeNext.reset();
+		edgeFace.reset();
+		faceEdge.reset();
+	}
+
+	public int getVertexCount() {
+		return vertexes.size;
+	}
+
+	public int getFaceCount() {
+		return faceEdge.size;
+	}
+
+	/** Number of half-edges, which is twice the number of edges */
+	public int getHalfEdgeCount() {
+		return edgeVertex.size;
+	}
+
+	/**
+	 * Index of the vertex that a half-edge ends at
+	 */
+	public int getEdgeHead( int edge ) {
+		return edgeVertex.data[edgeNext.data[edge]];
+	}
+
+	/**
+	 * Returns the number of vertexes in a face
+	 */
+	public int getFaceSize( int face ) {
+		int start = faceEdge.data[face];
+		int edge = start;
+		int count = 0;
+		do {
+			count++;
+			edge = edgeNext.data[edge];
+		} while (edge != start);
+		return count;
+	}
+
+	/**
+	 * Returns the vertexes in a face, ordered counter-clockwise when viewed from outside
+	 *
+	 * @param face (Input) Index of the face
+	 * @param indexes (Output) Index of each vertex in the face
+	 */
+	public void getFaceVertexes( int face, DogArray_I32 indexes ) {
+		indexes.reset();
+		int start = faceEdge.data[face];
+		int edge = start;
+		do {
+			indexes.add(edgeVertex.data[edge]);
+			edge = edgeNext.data[edge];
+		} while (edge != start);
+	}
+
+	/**
+	 * Computes the face's unit normal, which points outside. Newell's method is used so that it's well behaved
+	 * for polygons with many vertexes.
+	 *
+	 * @param face (Input) Index of the face
+	 * @param normal (Output) The normal
+	 * @return Area of the face
+	 */
+	public double computeFaceNormal( int face, Vector3D_F64 normal ) {
+		double nx = 0, ny = 0, nz = 0;
+		int start = faceEdge.data[face];
+		int edge = start;
+		do {
+			Point3D_F64 a = vertexes.data[edgeVertex.data[edge]];
+			Point3D_F64 b = vertexes.data[getEdgeHead(edge)];
+			nx += (a.y - b.y)*(a.z + b.z);
+			ny += (a.z - b.z)*(a.x + b.x);
+			nz += (a.x - b.x)*(a.y + b.y);
+			edge = edgeNext.data[edge];
+		} while (edge != start);
+
+		double norm = Math.sqrt(nx*nx + ny*ny + nz*nz);
+		if (norm == 0.0)
+			normal.setTo(0, 0, 0);
+		else
+			normal.setTo(nx/norm, ny/norm, nz/norm);
+		return norm/2.0;
+	}
+
+	/**
+	 * Computes the surface area of the mesh
+	 */
+	public double computeArea() {
+		Vector3D_F64 normal = new Vector3D_F64();
+		double area = 0.0;
+		for (int face = 0; face < faceEdge.size; face++) {
+			area += computeFaceNormal(face, normal);
+		}
+		return area;
+	}
+
+	/**
+	 * Computes the volume enclosed by the mesh using the divergence theorem. Each face is split into a fan of
+	 * triangles and the signed volume of the tetrahedron they form with the first vertex is summed.
+	 */
+	public double computeVolume() {
+		if (vertexes.size == 0)
+			return 0.0;
+		Point3D_F64 o = vertexes.data[0];
+		double volume = 0.0;
+		for (int face = 0; face < faceEdge.size; face++) {
+			int start = faceEdge.data[face];
+			Point3D_F64 a = vertexes.data[edgeVertex.data[start]];
+			double ax = a.x - o.x, ay = a.y - o.y, az = a.z - o.z;
+
+			int edge = edgeNext.data[start];
+			while (edgeNext.data[edge] != start) {
+				Point3D_F64 b = vertexes.data[edgeVertex.data[edge]];
+				Point3D_F64 c = vertexes.data[getEdgeHead(edge)];
+				double bx = b.x - o.x, by = b.y - o.y, bz = b.z - o.z;
+				double cx = c.x - o.x, cy = c.y - o.y, cz = c.z - o.z;
+				volume += ax*(by*cz - bz*cy) + ay*(bz*cx - bx*cz) + az*(bx*cy - by*cx);
+				edge = edgeNext.data[edge];
+			}
+		}
+		return volume/6.0;
+	}
+
+	/**
+	 * Checks the connectivity of the mesh. Returns true if every half-edge has a consistent twin and next, every face
+	 * is a closed loop, and the mesh is a closed surface.
+	 */
+	public boolean isConsistent() {
+		int numEdges = edgeVertex.size;
+		if (edgeTwin.size != numEdges || edgeNext.size != numEdges || edgeFace.size != numEdges)
+			return false;
+		if (vertexEdge.size != vertexes.size)
+			return false;
+
+		for (int edge = 0; edge < numEdges; edge++) {
+			int twin = edgeTwin.data[edge];
+			int next = edgeNext.data[edge];
+			if (twin < 0 || twin >= numEdges || next < 0 || next >= numEdges)
+				return false;
+			if (edgeTwin.data[twin] != edge || twin == edge)
+				return false;
+			// twins go in opposite directions
+			if (edgeVertex.data[twin] != edgeVertex.data[next])
+				return false;
+			if (edgeFace.data[next] != edgeFace.data[edge])
+				return false;
+		}
+
+		// each face is a loop which contains its edge
+		int total = 0;
+		for (int face = 0; face < faceEdge.size; face++) {
+			int start = faceEdge.data[face];
+			if (edgeFace.data[start] != face)
+				return false;
+			total += getFaceSize(face);
+		}
+		if (total != numEdges)
+			return false;
+
+		for (int vertex = 0; vertex < vertexes.size; vertex++) {
+			if (edgeVertex.data[vertexEdge.data[vertex]] != vertex)
+				return false;
+		}
+
+		// Euler characteristic of a closed surface with genus 0
+		return vertexes.size - numEdges/2 + faceEdge.size == 2;
+	}
+
+	public HalfEdgeMesh3D_F64 setTo( HalfEdgeMesh3D_F64 src ) {
+		vertexes.resize(src.vertexes.size);
+		for (int i = 0; i < src.vertexes.size; i++) {
+			vertexes.data[i].setTo(src.vertexes.data[i]);
+		}
+		vertexEdge.setTo(src.vertexEdge);
+		edgeVertex.setTo(src.edgeVertex);
+		edgeTwin.setTo(src.edgeTwin);
+		edgeNext.setTo(src.edgeNext);
+		edgeFace.setTo(src.edgeFace);
+		faceEdge.setTo(src.faceEdge);
+		return this;
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.struct.shapes;
+
+import georegression.metric.Area2D_F64;
+import georegression.metric.Intersection2D_F64;
+import georegression.struct.point.Point2D_F64;
+import org.ddogleg.struct.DogArray;
+
+import java.io.Serializable;
+
+/**
+ * Polygon in 2D which can contain holes. The outer boundary is ordered counter-clockwise and holes are
+ * ordered clockwise, i.e. the inside is always to the left of a side. Holes should be inside the outer
+ * boundary and not overlap each other.
+ *
+ * @author Peter Abeles
+ */
+public class PolygonHoles2D_F64 implements Serializable {
+	/** The outer boundary. Counter-clockwise */
+	public Polygon2D_F64 outer = new Polygon2D_F64();
+
+	/** Holes inside the polygon. Clockwise */
+	public DogArray<Polygon2D_F64> holes = new DogArray<>(Polygon2D_F64::new, p -> p.vertexes.reset());
+
+	public PolygonHoles2D_F64( Polygon2D_F64 outer, Polygon2D_F64... holes ) {
+		this.outer.setTo(outer);
+		for (Polygon2D_F64 h : holes) {
+			this.holes.grow().setTo(h);
+		}
+	}
+
+	public PolygonHoles2D_F64( PolygonHoles2D_F64 src ) {
+		setTo(src);
+	}
+
+	public PolygonHoles2D_F64() {}
+
+	public PolygonHoles2D_F64 setTo( PolygonHoles2D_F64 src ) {
+		outer.setTo(src.outer);
+		holes.reset();
+		for (int i = 0; i < src.holes.size; i++) {
+			holes.grow().setTo(src.holes.get(i));
+		}
+		return this;
+	}
+
+	/**
+	 * Area of the outer boundary minus the area of the holes
+	 */
+	public double area() {
+		if (outer.size() < 3)
+			return 0.0;
+		double area = Area2D_F64.polygonSimple(outer);
+		for (int i = 0; i < holes.size; i++) {
+			if (holes.get(i).size() >= 3)
+				area -= Area2D_F64.polygonSimple(holes.get(i));
+		}
+		return area;
+	}
+
+	/**
+	 * True if the point is inside the outer boundary and not inside any of the holes. Points on the
+	 * perimeter may or may not be considered inside.
+	 */
+	public boolean isInside( Point2D_F64 p ) {
+		if (!Intersection2D_F64.containsConcave(outer, p))
+			return false;
+		for (int i = 0; i < holes.size; i++) {
+			if (Intersection2D_F64.containsConcave(holes.get(i), p))
+				return false;
+		}
+		return true;
+	}
+
+	/** Total number of vertexes in the outer boundary and holes */
+	public int totalVertexes() {
+		int total = outer.size();
+		for (int i = 0; i < holes.size; i++) {
+			total += holes.get(i).size();
+		}
+		return total;
+	}
+
+	public void reset() {
+		outer.vertexes.reset();
+		holes.reset();
+	}
+
+	public PolygonHoles2D_F64 copy() {
+		return new PolygonHoles2D_F64(this);
+	}
+
+	@Override public String toString() {
+		String out = getClass().getSimpleName() + "{ outer=" + outer + ", holes=" + holes.size + " [ ";
+		for (int i = 0; i < holes.size; i++) {
+			out += holes.get(i) + " ";
+		}
+		return out + "] }";
+	}
+}
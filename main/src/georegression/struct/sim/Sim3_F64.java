@@ -0,0 +1,261 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.struct.sim;
+
+import georegression.geometry.GeometryMath_F64;
+import georegression.struct.InvertibleTransform;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.point.Vector3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.transform.sim.SimPointOps_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A 3D similarity transform composed of a scale, rotation, and translation, p' = s*R*p + T. This is a rigid
+ * body transform with an additional uniform scale factor and is a member of the similarity group Sim(3).
+ * Commonly used to align reconstructions which have an unknown scale, e.g. from monocular SLAM.
+ *
+ * @author Peter Abeles
+ */
+public class Sim3_F64 implements InvertibleTransform<Sim3_F64> {
+
+	// serialization version
+	public static final long serialVersionUID = 1L;
+
+	/** Scale factor. Must be positive. */
+	public double scale;
+	/** Rotation matrix */
+	public DMatrixRMaj R;
+	/** Translation vector */
+	public Vector3D_F64 T;
+
+	/**
+	 * Creates a new transform that does nothing.
+	 */
+	public Sim3_F64() {
+		scale = 1.0;
+		R = CommonOps_DDRM.identity(3);
+		T = new Vector3D_F64();
+	}
+
+	/**
+	 * Initializes the transform with a copy of the provided rotation and translation.
+	 *
+	 * @param scale Scale factor
+	 * @param R Rotation matrix.
+	 * @param T Translation.
+	 */
+	public Sim3_F64( double scale, DMatrixRMaj R, Vector3D_F64 T ) {
+		this.scale = scale;
+		this.R = R.copy();
+		this.T = T.copy();
+	}
+
+	@Override
+	public Sim3_F64 setTo( Sim3_F64 src ) {
+		this.scale = src.scale;
+		this.R.setTo(src.R);
+		this.T.setTo(src.T);
+		return this;
+	}
+
+	/**
+	 * Assigns the transform to have the specified scale and the rotation and translation of a rigid body motion
+	 */
+	public Sim3_F64 setTo( double scale, Se3_F64 se ) {
+		this.scale = scale;
+		this.R.setTo(se.R);
+		this.T.setTo(se.T);
+		return this;
+	}
+
+	/**
+	 * Assigns the transform to have the specified scale, rotation, and translation
+	 */
+	public Sim3_F64 setTo( double scale, DMatrixRMaj R, Vector3D_F64 T ) {
+		this.scale = scale;
+		this.R.setTo(R);
+		this.T.setTo(T);
+		return this;
+	}
+
+	public double getScale() {
+		return scale;
+	}
+
+	public void setScale( double scale ) {
+		this.scale = scale;
+	}
+
+	public DMatrixRMaj getR() {
+		return R;
+	}
+
+	public Vector3D_F64 getT() {
+		return T;
+	}
+
+	@Override
+	public int getDimension() {
+		return 3;
+	}
+
+	@Override
+	public Sim3_F64 createInstance() {
+		return new Sim3_F64();
+	}
+
+	@Override
+	public Sim3_F64 concat( Sim3_F64 second, @Nullable Sim3_F64 result ) {
+		if (result == null)
+			result = new Sim3_F64();
+
+		// result can be the same instance as an input, so save everything read after it has been modified
+		double scale2 = second.scale;
+		double tx = second.T.x, ty = second.T.y, tz = second.T.z;
+		DMatrixRMaj R1 = result == this ? R.copy() : R;
+		DMatrixRMaj R2 = result == second ? second.R.copy() : second.R;
+
+		// s2*R2*(s1*R1*p + T1) + T2
+		GeometryMath_F64.mult(R2, T, result.T);
+		result.T.setTo(scale2*result.T.x + tx, scale2*result.T.y + ty, scale2*result.T.z + tz);
+		CommonOps_DDRM.mult(R2, R1, result.R);
+		result.scale = scale2*scale;
+
+		return result;
+	}
+
+	@Override
+	public Sim3_F64 invertConcat( Sim3_F64 second, @Nullable Sim3_F64 result ) {
+		if (result == null)
+			result = new Sim3_F64();
+
+		// result can be the same instance as an input, so save everything read after it has been modified
+		double ratio = second.scale/scale;
+		double tx = second.T.x, ty = second.T.y, tz = second.T.z;
+		DMatrixRMaj R1 = result == this ? R.copy() : R;
+		DMatrixRMaj R2 = result == second ? second.R.copy() : second.R;
+
+		// inverse of this is [R'/s | -R'*T/s]
+		GeometryMath_F64.multTran(R1, T, result.T);
+		GeometryMath_F64.mult(R2, result.T, result.T);
+		result.T.setTo(tx - ratio*result.T.x, ty - ratio*result.T.y, tz - ratio*result.T.z);
+
+		CommonOps_DDRM.multTransB(R2, R1, result.R);
+		result.scale = ratio;
+
+		return result;
+	}
+
+	@Override
+	public Sim3_F64 concatInvert( Sim3_F64 second, @Nullable Sim3_F64 result ) {
+		if (result == null)
+			result = new Sim3_F64();
+
+		// result can be the same instance as an input, so save everything read after it has been modified
+		double ratio = scale/second.scale;
+		DMatrixRMaj R1 = result == this ? R.copy() : R;
+		DMatrixRMaj R2 = result == second ? second.R.copy() : second.R;
+
+		// R2'*(s1*R1*p + T1 - T2)/s2
+		result.T.setTo(T.x - second.T.x, T.y - second.T.y, T.z - second.T.z);
+		GeometryMath_F64.multTran(R2, result.T, result.T);
+		result.T.divideIP(second.scale);
+
+		CommonOps_DDRM.multTransA(R2, R1, result.R);
+		result.scale = ratio;
+
+		return result;
+	}
+
+	@Override
+	public Sim3_F64 invert( @Nullable Sim3_F64 inverse ) {
+		if (inverse == null)
+			inverse = new Sim3_F64();
+
+		// p = R^T*(p' - T)/s. inverse can be the same instance as this
+		GeometryMath_F64.multTran(R, T, inverse.T);
+		inverse.T.scale(-1.0/scale);
+		if (inverse == this)
+			CommonOps_DDRM.transpose(R);
+		else
+			CommonOps_DDRM.transpose(R, inverse.R);
+		inverse.scale = 1.0/scale;
+
+		return inverse;
+	}
+
+	@Override
+	public void reset() {
+		scale = 1.0;
+		CommonOps_DDRM.setIdentity(R);
+		T.setTo(0, 0, 0);
+	}
+
+	/**
+	 * Applies the transform to the src point and stores the result in dst. src and dst can be the same instance
+	 *
+	 * @see SimPointOps_F64#transform(Sim3_F64, Point3D_F64, Point3D_F64)
+	 */
+	public Point3D_F64 transform( Point3D_F64 src, @Nullable Point3D_F64 dst ) {
+		return SimPointOps_F64.transform(this, src, dst);
+	}
+
+	/**
+	 * Applies the reverse transform to the src point and stores the result in dst. src and dst can be the same
+	 * instance
+	 *
+	 * @see SimPointOps_F64#transformReverse(Sim3_F64, Point3D_F64, Point3D_F64)
+	 */
+	public Point3D_F64 transformReverse( Point3D_F64 src, @Nullable Point3D_F64 dst ) {
+		return SimPointOps_F64.transformReverse(this, src, dst);
+	}
+
+	/**
+	 * Returns true if the two transforms are within tolerance of each other
+	 *
+	 * @param other The other transform
+	 * @param tolScale Tolerance for the scale
+	 * @param tolR Tolerance for each element in the rotation matrix
+	 * @param tolT Tolerance for each element in the translation
+	 */
+	public boolean isIdentical( Sim3_F64 other, double tolScale, double tolR, double tolT ) {
+		if (Math.abs(scale - other.scale) > tolScale)
+			return false;
+		for (int i = 0; i < 9; i++) {
+			if (Math.abs(R.data[i] - other.R.data[i]) > tolR)
+				return false;
+		}
+		return T.isIdentical(other.T, tolT);
+	}
+
+	public Sim3_F64 copy() {
+		return new Sim3_F64(scale, R, T);
+	}
+
+	@Override
+	public String toString() {
+		String ret = "Sim3_F64: scale = " + scale + " T = " + T.toString() + "\n";
+		ret += R;
+
+		return ret;
+	}
+}
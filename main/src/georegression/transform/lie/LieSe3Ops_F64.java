@@ -0,0 +1,302 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.transform.lie;
+
+import georegression.struct.point.Vector3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.transform.twist.TwistCoordinate_F64;
+import org.ejml.data.DMatrixRMaj;
+
+/**
+ * <p>
+ * Operations on the Lie group SE(3), rigid body motion in 3D. Elements of the Lie algebra se(3) are
+ * {@link TwistCoordinate_F64 twists} &xi; = (v, w), where w is a rotation vector. The exponential is the same as
+ * {@link georegression.transform.twist.TwistOps_F64#exponential} with theta = 1. Functions don't declare new memory
+ * and are numerically stable for small angles.
+ * </p>
+ *
+ * <p>
+ * 6x6 matrices (adjoint and Jacobians) have their rows and columns ordered as (v, w), i.e. translation then
+ * rotation. The left Jacobian is defined by exp(&xi; + &delta;) &asymp; exp(J<sub>l</sub>*&delta;)*exp(&xi;)
+ * and the right Jacobian by exp(&xi; + &delta;) &asymp; exp(&xi;)*exp(J<sub>r</sub>*&delta;), where the
+ * product is of homogenous matrices.
+ * </p>
+ *
+ * <p>
+ * [1] Barfoot, Timothy D. "State estimation for robotics." Cambridge University Press, 2017.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class LieSe3Ops_F64 {
+	/** Below this angle a Taylor series is used for the Jacobian's coupling terms */
+	static final double SMALL_ANGLE_Q = 0.1;
+
+	/**
+	 * Exponential map. Converts a twist into a rigid body motion.
+	 *
+	 * @param xi (Input) twist
+	 * @param motion (Output) rigid body motion
+	 * @return The motion
+	 */
+	public static Se3_F64 exp( TwistCoordinate_F64 xi, Se3_F64 motion ) {
+		Vector3D_F64 w = xi.w;
+		double theta2 = w.normSq();
+		double theta = Math.sqrt(theta2);
+
+		// R = I + A*hat(w) + B*hat(w)^2 and T = J_l(w)*v = (I + B*hat(w) + C*hat(w)^2)*v
+		double A, B, C;
+		if (theta < LieSo3Ops_F64.SMALL_ANGLE) {
+			A = 1.0 - theta2/6.0 + theta2*theta2/120.0;
+			B = 0.5 - theta2/24.0 + theta2*theta2/720.0;
+			C = 1.0/6.0 - theta2/120.0 + theta2*theta2/5040.0;
+		} else {
+			double s = Math.sin(theta/2.0);
+			double c = Math.cos(theta/2.0);
+			double sin = 2.0*s*c;
+			A = sin/theta;
+			B = 2.0*s*s/theta2;
+			C = (theta - sin)/(theta2*theta);
+		}
+		motion.R.reshape(3, 3);
+		LieSo3Ops_F64.setPolynomial(1.0, A, B, w.x, w.y, w.z, theta2, motion.R.data, 0, 3);
+		LieSo3Ops_F64.multPolynomial(1.0, B, C, w.x, w.y, w.z, xi.v, motion.T);
+		return motion;
+	}
+
+	/**
+	 * Logarithm map. Converts a rigid body motion into a twist.
+	 *
+	 * @param motion (Input) rigid body motion
+	 * @param xi (Output) twist
+	 * @return The twist
+	 */
+	public static TwistCoordinate_F64 log( Se3_F64 motion, TwistCoordinate_F64 xi ) {
+		Vector3D_F64 w = xi.w;
+		LieSo3Ops_F64.log(motion.R, w);
+
+		// v = inv(J_l(w))*T
+		double theta = w.norm();
+		LieSo3Ops_F64.multPolynomial(1.0, -0.5, LieSo3Ops_F64.coefD(theta), w.x, w.y, w.z, motion.T, xi.v);
+		return xi;
+	}
+
+	/**
+	 * Computes the adjoint, which transforms twists from one frame to another, i.e.
+	 * T*exp(&xi;)*inv(T) = exp(Ad(T)*&xi;).
+	 * <pre>
+	 * Ad(T) = [ R , hat(t)*R ; 0 , R ]
+	 * </pre>
+	 * where T is interpreted as the homogenous matrix [R t ; 0 1].
+	 *
+	 * @param motion (Input) rigid body motion
+	 * @param adj (Output) 6x6 adjoint. Reshaped.
+	 * @return The adjoint
+	 */
+	public static DMatrixRMaj adjoint( Se3_F64 motion, DMatrixRMaj adj ) {
+		adj.reshape(6, 6);
+		adj.zero();
+		double[] R = motion.R.data;
+		double tx = motion.T.x, ty = motion.T.y, tz = motion.T.z;
+		for (int row = 0; row < 3; row++) {
+			for (int col = 0; col < 3; col++) {
+				double r = R[row*3 + col];
+				adj.data[row*6 + col] = r;
+				adj.data[(row + 3)*6 + col + 3] = r;
+			}
+		}
+		// hat(t)*R
+		for (int col = 0; col < 3; col++) {
+			double r0 = R[col], r1 = R[3 + col], r2 = R[6 + col];
+			adj.data[col + 3] = -tz*r1 + ty*r2;
+			adj.data[6 + col + 3] = tz*r0 - tx*r2;
+			adj.data[12 + col + 3] = -ty*r0 + tx*r1;
+		}
+		return adj;
+	}
+
+	/**
+	 * Left Jacobian.
+	 * <pre>
+	 * J<sub>l</sub>(&xi;) = [ J(w) , Q(v,w) ; 0 , J(w) ]
+	 * </pre>
+	 * where J(w) is the SO(3) left Jacobian.
+	 *
+	 * @param xi (Input) twist
+	 * @param J (Output) 6x6 Jacobian. Reshaped.
+	 * @return The Jacobian
+	 */
+	public static DMatrixRMaj jacobianLeft( TwistCoordinate_F64 xi, DMatrixRMaj J ) {
+		jacobian(1.0, xi, J);
+		return J;
+	}
+
+	/**
+	 * Inverse of the left Jacobian
+	 * <pre>
+	 * inv(J<sub>l</sub>(&xi;)) = [ inv(J) , -inv(J)*Q*inv(J) ; 0 , inv(J) ]
+	 * </pre>
+	 *
+	 * @param xi (Input) twist
+	 * @param J (Output) 6x6 Jacobian. Reshaped.
+	 * @return The Jacobian
+	 */
+	public static DMatrixRMaj jacobianLeftInv( TwistCoordinate_F64 xi, DMatrixRMaj J ) {
+		jacobianInv(1.0, xi, J);
+		return J;
+	}
+
+	/**
+	 * Right Jacobian. J<sub>r</sub>(&xi;) = J<sub>l</sub>(-&xi;)
+	 *
+	 * @param xi (Input) twist
+	 * @param J (Output) 6x6 Jacobian. Reshaped.
+	 * @return The Jacobian
+	 */
+	public static DMatrixRMaj jacobianRight( TwistCoordinate_F64 xi, DMatrixRMaj J ) {
+		jacobian(-1.0, xi, J);
+		return J;
+	}
+
+	/**
+	 * Inverse of the right Jacobian.
+	 *
+	 * @param xi (Input) twist
+	 * @param J (Output) 6x6 Jacobian. Reshaped.
+	 * @return The Jacobian
+	 */
+	public static DMatrixRMaj jacobianRightInv( TwistCoordinate_F64 xi, DMatrixRMaj J ) {
+		jacobianInv(-1.0, xi, J);
+		return J;
+	}
+
+	/**
+	 * Left Jacobian of sign*&xi;
+	 */
+	static void jacobian( double sign, TwistCoordinate_F64 xi, DMatrixRMaj J ) {
+		J.reshape(6, 6);
+		J.zero();
+		double wx = sign*xi.w.x, wy = sign*xi.w.y, wz = sign*xi.w.z;
+		LieSo3Ops_F64.jacobian(wx, wy, wz, J.data, 0, 6);
+		LieSo3Ops_F64.jacobian(wx, wy, wz, J.data, 21, 6);
+		computeQ(sign, xi, J.data, 3, 6);
+	}
+
+	/**
+	 * Inverse of the left Jacobian of sign*&xi;
+	 */
+	static void jacobianInv( double sign, TwistCoordinate_F64 xi, DMatrixRMaj J ) {
+		J.reshape(6, 6);
+		J.zero();
+		double wx = sign*xi.w.x, wy = sign*xi.w.y, wz = sign*xi.w.z;
+		LieSo3Ops_F64.jacobianInv(wx, wy, wz, J.data, 0, 6);
+		LieSo3Ops_F64.jacobianInv(wx, wy, wz, J.data, 21, 6);
+
+		// upper right block = -inv(J)*Q*inv(J). Q is computed into the lower left block, which is zero, as a
+		// workspace
+		computeQ(sign, xi, J.data, 18, 6);
+		double[] d = J.data;
+		for (int row = 0; row < 3; row++) {
+			// a = row of inv(J)*Q
+			double a0 = 0, a1 = 0, a2 = 0;
+			for (int k = 0; k < 3; k++) {
+				double jk = d[row*6 + k];
+				a0 += jk*d[18 + k*6];
+				a1 += jk*d[18 + k*6 + 1];
+				a2 += jk*d[18 + k*6 + 2];
+			}
+			for (int col = 0; col < 3; col++) {
+				d[row*6 + col + 3] = -(a0*d[col] + a1*d[6 + col] + a2*d[12 + col]);
+			}
+		}
+		for (int row = 0; row < 3; row++) {
+			for (int col = 0; col < 3; col++) {
+				d[18 + row*6 + col] = 0.0;
+			}
+		}
+	}
+
+	/**
+	 * Computes the Q(v,w) block of the SE(3) left Jacobian of sign*&xi; [1]
+	 * <pre>
+	 * Q = 1/2*V + c1*(W*V + V*W + W*V*W) + c2*(W*W*V + V*W*W - 3*W*V*W) + c3*(W*V*W*W + W*W*V*W)
+	 * </pre>
+	 * where V = hat(v), W = hat(w), and c1, c2, c3 are functions of the angle.
+	 */
+	static void computeQ( double sign, TwistCoordinate_F64 xi, double[] data, int offset, int stride ) {
+		double wx = sign*xi.w.x, wy = sign*xi.w.y, wz = sign*xi.w.z;
+		double vx = sign*xi.v.x, vy = sign*xi.v.y, vz = sign*xi.v.z;
+
+		double theta2 = wx*wx + wy*wy + wz*wz;
+		double theta = Math.sqrt(theta2);
+		double c1, c2, c3;
+		if (theta < SMALL_ANGLE_Q) {
+			double theta4 = theta2*theta2;
+			double theta6 = theta4*theta2;
+			c1 = 1.0/6.0 - theta2/120.0 + theta4/5040.0 - theta6/362880.0;
+			c2 = 1.0/24.0 - theta2/720.0 + theta4/40320.0 - theta6/3628800.0;
+			c3 = 1.0/120.0 - theta2/2520.0 + theta4/120960.0 - theta6/9979200.0;
+		} else {
+			double sin = Math.sin(theta);
+			double cos = Math.cos(theta);
+			double theta3 = theta2*theta;
+			c1 = (theta - sin)/theta3;
+			c2 = (theta2 + 2.0*cos - 2.0)/(2.0*theta3*theta);
+			c3 = (2.0*theta - 3.0*sin + theta*cos)/(2.0*theta3*theta2);
+		}
+
+		// The products of hat matrices are expanded with: W*V = v*w' - (w.v)*I, W*V*W = -(w.v)*W, and
+		// W*W = w*w' - theta^2*I, so that
+		// Q = 1/2*V + c1*(v*w' + w*v' - 2*d*I - d*W) + c2*(u*w' - w*u' + d*W) - 2*c3*d*W*W
+		// where d = w.v and u = w x v
+		double d = wx*vx + wy*vy + wz*vz;
+		double ux = wy*vz - wz*vy, uy = wz*vx - wx*vz, uz = wx*vy - wy*vx;
+		for (int row = 0; row < 3; row++) {
+			double wr = component(wx, wy, wz, row);
+			double vr = component(vx, vy, vz, row);
+			double ur = component(ux, uy, uz, row);
+			for (int col = 0; col < 3; col++) {
+				double wc = component(wx, wy, wz, col);
+				double vc = component(vx, vy, vz, col);
+				double uc = component(ux, uy, uz, col);
+				double hatV = hat(vx, vy, vz, row, col);
+				double hatW = hat(wx, wy, wz, row, col);
+				double identity = row == col ? 1.0 : 0.0;
+				data[offset + row*stride + col] = 0.5*hatV +
+						c1*(vr*wc + wr*vc - 2.0*d*identity - d*hatW) +
+						c2*(ur*wc - wr*uc + d*hatW) -
+						2.0*c3*d*(wr*wc - theta2*identity);
+			}
+		}
+	}
+
+	private static double component( double x, double y, double z, int index ) {
+		return index == 0 ? x : index == 1 ? y : z;
+	}
+
+	/**
+	 * Element (row, col) of hat(a) = [0 -z y; z 0 -x; -y x 0]
+	 */
+	private static double hat( double x, double y, double z, int row, int col ) {
+		if (row == col)
+			return 0.0;
+		double value = component(x, y, z, 3 - row - col);
+		return (col - row + 3)%3 == 1 ? -value : value;
+	}
+}
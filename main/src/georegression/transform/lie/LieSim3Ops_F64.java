@@ -0,0 +1,513 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.transform.lie;
+
+import georegression.struct.GeoTuple3D_F64;
+import georegression.struct.point.Vector3D_F64;
+import georegression.struct.sim.Sim3_F64;
+import georegression.transform.twist.TwistCoordinate_F64;
+import org.ejml.data.DMatrixRMaj;
+
+/**
+ * <p>
+ * Operations on the Lie group Sim(3), similarity transforms in 3D. A similarity transform is a scale, rotation,
+ * and translation, p' = s*R*p + t, or as a homogenous matrix [s*R t ; 0 1]. Elements of the Lie algebra sim(3) are a
+ * {@link TwistCoordinate_F64 twist} (v, w) and the log of the scale, &sigma;. Functions don't declare new memory
+ * and are numerically stable for small angles and scales close to one.
+ * </p>
+ *
+ * <p>
+ * 7x7 matrices have their rows and columns ordered as (v, w, &sigma;).
+ * </p>
+ *
+ * <p>
+ * [1] Strasdat, Hauke. "Local accuracy and global consistency for efficient visual SLAM." PhD Thesis. 2012
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class LieSim3Ops_F64 {
+	/**
+	 * Exponential map.
+	 * <pre>
+	 * s = exp(&sigma;), R = exp(w), t = W*v
+	 * W = a*I + b*hat(w) + c*hat(w)<sup>2</sup>
+	 * </pre>
+	 *
+	 * @param xi (Input) Twist component
+	 * @param sigma (Input) Log of the scale
+	 * @param R (Output) Rotation matrix. Reshaped to 3x3
+	 * @param T (Output) Translation
+	 * @return The scale
+	 */
+	public static double exp( TwistCoordinate_F64 xi, double sigma, DMatrixRMaj R, GeoTuple3D_F64<?> T ) {
+		Vector3D_F64 w = xi.w;
+		LieSo3Ops_F64.exp(w.x, w.y, w.z, R);
+
+		double theta = w.norm();
+		double a = coefA(sigma);
+		double b = coefB(sigma, theta);
+		double c = coefC(sigma, theta, a);
+		LieSo3Ops_F64.multPolynomial(a, b, c, w.x, w.y, w.z, xi.v, T);
+
+		return Math.exp(sigma);
+	}
+
+	/**
+	 * Logarithm map. Inverse of {@link #exp}.
+	 *
+	 * @param scale (Input) Scale. Must be more than zero.
+	 * @param R (Input) Rotation matrix
+	 * @param T (Input) Translation
+	 * @param xi (Output) Twist component
+	 * @return Log of the scale, &sigma;
+	 */
+	public static double log( double scale, DMatrixRMaj R, GeoTuple3D_F64<?> T, TwistCoordinate_F64 xi ) {
+		if (scale <= 0.0)
+			throw new IllegalArgumentException("Scale must be positive");
+		double sigma = Math.log(scale);
+		Vector3D_F64 w = xi.w;
+		LieSo3Ops_F64.log(R, w);
+
+		double theta2 = w.normSq();
+		double theta = Math.sqrt(theta2);
+		double a = coefA(sigma);
+		double b = coefB(sigma, theta);
+		double c = coefC(sigma, theta, a);
+
+		// inv(W) = alpha*I + beta*hat(w) + gamma*hat(w)^2, found using hat(w)^3 = -theta^2*hat(w)
+		double alpha = 1.0/a;
+		double m = a - theta2*c;
+		double det = m*m + theta2*b*b;
+		double beta = -b/det;
+		double gamma = alpha*(b*b - m*c)/det;
+		LieSo3Ops_F64.multPolynomial(alpha, beta, gamma, w.x, w.y, w.z, T, xi.v);
+
+		return sigma;
+	}
+
+	/**
+	 * Computes the adjoint, i.e. S*exp(&xi;)*inv(S) = exp(Ad(S)*&xi;)
+	 * <pre>
+	 * Ad(S) = [ s*R , hat(t)*R , -t ; 0 , R , 0 ; 0 , 0 , 1 ]
+	 * </pre>
+	 *
+	 * @param scale (Input) Scale
+	 * @param R (Input) Rotation matrix
+	 * @param T (Input) Translation
+	 * @param adj (Output) 7x7 adjoint. Reshaped.
+	 * @return The adjoint
+	 */
+	public static DMatrixRMaj adjoint( double scale, DMatrixRMaj R, GeoTuple3D_F64<?> T, DMatrixRMaj adj ) {
+		adj.reshape(7, 7);
+		adj.zero();
+		double[] r = R.data;
+		double tx = T.x, ty = T.y, tz = T.z;
+		for (int row = 0; row < 3; row++) {
+			for (int col = 0; col < 3; col++) {
+				double value = r[row*3 + col];
+				adj.data[row*7 + col] = scale*value;
+				adj.data[(row + 3)*7 + col + 3] = value;
+			}
+		}
+		// hat(t)*R
+		for (int col = 0; col < 3; col++) {
+			double r0 = r[col], r1 = r[3 + col], r2 = r[6 + col];
+			adj.data[col + 3] = -tz*r1 + ty*r2;
+			adj.data[7 + col + 3] = tz*r0 - tx*r2;
+			adj.data[14 + col + 3] = -ty*r0 + tx*r1;
+		}
+		adj.data[6] = -tx;
+		adj.data[13] = -ty;
+		adj.data[20] = -tz;
+		adj.data[48] = 1.0;
+		return adj;
+	}
+
+	/**
+	 * Exponential map which writes to a {@link Sim3_F64}. See {@link #exp(TwistCoordinate_F64, double, DMatrixRMaj, GeoTuple3D_F64)}
+	 *
+	 * @param xi (Input) Twist component
+	 * @param sigma (Input) Log of the scale
+	 * @param output (Output) Similarity transform
+	 * @return The similarity transform
+	 */
+	public static Sim3_F64 exp( TwistCoordinate_F64 xi, double sigma, Sim3_F64 output ) {
+		output.scale = exp(xi, sigma, output.R, output.T);
+		return output;
+	}
+
+	/**
+	 * Logarithm map of a {@link Sim3_F64}. See {@link #log(double, DMatrixRMaj, GeoTuple3D_F64, TwistCoordinate_F64)}
+	 *
+	 * @param sim (Input) Similarity transform
+	 * @param xi (Output) Twist component
+	 * @return Log of the scale, &sigma;
+	 */
+	public static double log( Sim3_F64 sim, TwistCoordinate_F64 xi ) {
+		return log(sim.scale, sim.R, sim.T, xi);
+	}
+
+	/**
+	 * Computes the adjoint of a {@link Sim3_F64}. See {@link #adjoint(double, DMatrixRMaj, GeoTuple3D_F64, DMatrixRMaj)}
+	 */
+	public static DMatrixRMaj adjoint( Sim3_F64 sim, DMatrixRMaj adj ) {
+		return adjoint(sim.scale, sim.R, sim.T, adj);
+	}
+
+	/**
+	 * Left Jacobian of Sim(3), J<sub>l</sub>, which is defined by exp(&xi;+&delta;) &asymp; exp(J<sub>l</sub>*&delta;)*exp(&xi;).
+	 * Found by differentiating the exponential map, with t = W*v as defined in {@link #exp}.
+	 * <pre>
+	 * J<sub>l</sub>(&xi;) = [ W , dt/dw + hat(t)*J , dt/d&sigma; - t ; 0 , J , 0 ; 0 , 0 , 1 ]
+	 * </pre>
+	 * where J is the left Jacobian of SO(3).
+	 *
+	 * @param xi (Input) Twist component
+	 * @param sigma (Input) Log of the scale
+	 * @param J (Output) 7x7 Jacobian. Reshaped.
+	 * @return The Jacobian
+	 */
+	public static DMatrixRMaj jacobianLeft( TwistCoordinate_F64 xi, double sigma, DMatrixRMaj J ) {
+		jacobian(1.0, xi, sigma, J);
+		return J;
+	}
+
+	/**
+	 * Inverse of the left Jacobian. Found using the block triangular structure of the Jacobian.
+	 * <pre>
+	 * inv(J<sub>l</sub>(&xi;)) = [ inv(W) , -inv(W)*B*inv(J) , -inv(W)*c ; 0 , inv(J) , 0 ; 0 , 0 , 1 ]
+	 * </pre>
+	 * where B and c are the upper middle and upper right blocks of the Jacobian.
+	 *
+	 * @param xi (Input) Twist component
+	 * @param sigma (Input) Log of the scale
+	 * @param J (Output) 7x7 Jacobian. Reshaped.
+	 * @return The Jacobian
+	 */
+	public static DMatrixRMaj jacobianLeftInv( TwistCoordinate_F64 xi, double sigma, DMatrixRMaj J ) {
+		jacobianInv(1.0, xi, sigma, J);
+		return J;
+	}
+
+	/**
+	 * Right Jacobian. J<sub>r</sub>(&xi;) = J<sub>l</sub>(-&xi;)
+	 *
+	 * @param xi (Input) Twist component
+	 * @param sigma (Input) Log of the scale
+	 * @param J (Output) 7x7 Jacobian. Reshaped.
+	 * @return The Jacobian
+	 */
+	public static DMatrixRMaj jacobianRight( TwistCoordinate_F64 xi, double sigma, DMatrixRMaj J ) {
+		jacobian(-1.0, xi, sigma, J);
+		return J;
+	}
+
+	/**
+	 * Inverse of the right Jacobian.
+	 *
+	 * @param xi (Input) Twist component
+	 * @param sigma (Input) Log of the scale
+	 * @param J (Output) 7x7 Jacobian. Reshaped.
+	 * @return The Jacobian
+	 */
+	public static DMatrixRMaj jacobianRightInv( TwistCoordinate_F64 xi, double sigma, DMatrixRMaj J ) {
+		jacobianInv(-1.0, xi, sigma, J);
+		return J;
+	}
+
+	/**
+	 * Left Jacobian of sign*(&xi;, &sigma;)
+	 */
+	static void jacobian( double sign, TwistCoordinate_F64 xi, double sigma, DMatrixRMaj J ) {
+		J.reshape(7, 7);
+		J.zero();
+		double[] d = J.data;
+		double wx = sign*xi.w.x, wy = sign*xi.w.y, wz = sign*xi.w.z;
+		double theta2 = wx*wx + wy*wy + wz*wz;
+		double theta = Math.sqrt(theta2);
+		double s = sign*sigma;
+		double a = coefA(s);
+		double b = coefB(s, theta);
+		double c = coefC(s, theta, a);
+
+		LieSo3Ops_F64.setPolynomial(a, b, c, wx, wy, wz, theta2, d, 0, 7);
+		LieSo3Ops_F64.jacobian(wx, wy, wz, d, 24, 7);
+		computeTranslation(sign, xi, s, a, b, c, d, 24, 3, 6, 7);
+		d[48] = 1.0;
+	}
+
+	/**
+	 * Inverse of the left Jacobian of sign*(&xi;, &sigma;)
+	 */
+	static void jacobianInv( double sign, TwistCoordinate_F64 xi, double sigma, DMatrixRMaj J ) {
+		J.reshape(7, 7);
+		J.zero();
+		double[] d = J.data;
+		double wx = sign*xi.w.x, wy = sign*xi.w.y, wz = sign*xi.w.z;
+		double theta2 = wx*wx + wy*wy + wz*wz;
+		double theta = Math.sqrt(theta2);
+		double s = sign*sigma;
+		double a = coefA(s);
+		double b = coefB(s, theta);
+		double c = coefC(s, theta, a);
+
+		// inv(W). See log()
+		double alpha = 1.0/a;
+		double m = a - theta2*c;
+		double det = m*m + theta2*b*b;
+		double beta = -b/det;
+		double gamma = alpha*(b*b - m*c)/det;
+		LieSo3Ops_F64.setPolynomial(alpha, beta, gamma, wx, wy, wz, theta2, d, 0, 7);
+		LieSo3Ops_F64.jacobianInv(wx, wy, wz, d, 24, 7);
+
+		// Blocks of the Jacobian are computed in parts of the matrix which are zero or are written to last, as a
+		// workspace. J goes in the upper middle, B in the lower left, and c in the middle right
+		LieSo3Ops_F64.jacobian(wx, wy, wz, d, 3, 7);
+		computeTranslation(sign, xi, s, a, b, c, d, 3, 21, 27, 7);
+
+		for (int row = 0; row < 3; row++) {
+			// e = row of -inv(W)*B
+			double e0 = 0, e1 = 0, e2 = 0, f = 0;
+			for (int k = 0; k < 3; k++) {
+				double wk = -d[row*7 + k];
+				e0 += wk*d[21 + k*7];
+				e1 += wk*d[21 + k*7 + 1];
+				e2 += wk*d[21 + k*7 + 2];
+				f += wk*d[27 + k*7];
+			}
+			for (int col = 0; col < 3; col++) {
+				d[row*7 + col + 3] = e0*d[24 + col] + e1*d[31 + col] + e2*d[38 + col];
+			}
+			d[row*7 + 6] = f;
+		}
+		for (int row = 0; row < 3; row++) {
+			for (int col = 0; col < 3; col++) {
+				d[21 + row*7 + col] = 0.0;
+			}
+			d[27 + row*7] = 0.0;
+		}
+		d[48] = 1.0;
+	}
+
+	/**
+	 * Computes the blocks of the left Jacobian which describe how the translation, t = W*v, changes. These are
+	 * B = dt/dw + hat(t)*J and c = dt/d&sigma; - t.
+	 *
+	 * @param offsetJ Index of the SO(3) left Jacobian, which is read
+	 * @param offsetB Index of the 3x3 block B
+	 * @param offsetC Index of the 3x1 block c
+	 * @param stride Number of columns in the array
+	 */
+	static void computeTranslation( double sign, TwistCoordinate_F64 xi, double sigma, double a, double b, double c,
+									double[] data, int offsetJ, int offsetB, int offsetC, int stride ) {
+		double wx = sign*xi.w.x, wy = sign*xi.w.y, wz = sign*xi.w.z;
+		double vx = sign*xi.v.x, vy = sign*xi.v.y, vz = sign*xi.v.z;
+		double theta2 = wx*wx + wy*wy + wz*wz;
+		double theta = Math.sqrt(theta2);
+
+		// d = w.v, u = hat(w)*v, q = hat(w)^2*v
+		double d = wx*vx + wy*vy + wz*vz;
+		double ux = wy*vz - wz*vy, uy = wz*vx - wx*vz, uz = wx*vy - wy*vx;
+		double qx = wx*d - vx*theta2, qy = wy*d - vy*theta2, qz = wz*d - vz*theta2;
+		double tx = a*vx + b*ux + c*qx, ty = a*vy + b*uy + c*qy, tz = a*vz + b*uz + c*qz;
+
+		// dt/dw = (db/dtheta)/theta*u*w' - b*hat(v) + (dc/dtheta)/theta*q*w' + c*(d*I + w*v' - 2*v*w')
+		double bTheta = coefBdTheta(sigma, theta);
+		double cTheta = coefCdTheta(sigma, theta);
+		for (int row = 0; row < 3; row++) {
+			double wr = component(wx, wy, wz, row);
+			double vr = component(vx, vy, vz, row);
+			double ur = component(ux, uy, uz, row);
+			double qr = component(qx, qy, qz, row);
+			for (int col = 0; col < 3; col++) {
+				double wc = component(wx, wy, wz, col);
+				double vc = component(vx, vy, vz, col);
+				double identity = row == col ? 1.0 : 0.0;
+				double value = (bTheta*ur + cTheta*qr)*wc - b*hat(vx, vy, vz, row, col) +
+						c*(d*identity + wr*vc - 2.0*vr*wc);
+				// hat(t)*J
+				for (int k = 0; k < 3; k++) {
+					value += hat(tx, ty, tz, row, k)*data[offsetJ + k*stride + col];
+				}
+				data[offsetB + row*stride + col] = value;
+			}
+		}
+
+		// dt/dsigma - t
+		double ca = moment(sigma, 1) - a;
+		double cb = coefBdSigma(sigma, theta) - b;
+		double cc = coefCdSigma(sigma, theta) - c;
+		data[offsetC] = ca*vx + cb*ux + cc*qx;
+		data[offsetC + stride] = ca*vy + cb*uy + cc*qy;
+		data[offsetC + 2*stride] = ca*vz + cb*uz + cc*qz;
+	}
+
+	/**
+	 * a = (exp(&sigma;)-1)/&sigma; = integral of exp(&sigma;*s) from 0 to 1
+	 */
+	static double coefA( double sigma ) {
+		if (sigma == 0.0)
+			return 1.0;
+		return Math.expm1(sigma)/sigma;
+	}
+
+	/**
+	 * b = integral of exp(&sigma;*s)*sin(s*&theta;)/&theta; from 0 to 1
+	 */
+	static double coefB( double sigma, double theta ) {
+		if (theta < LieSo3Ops_F64.SMALL_ANGLE) {
+			double theta2 = theta*theta;
+			return moment(sigma, 1) - theta2*moment(sigma, 3)/6.0 + theta2*theta2*moment(sigma, 5)/120.0;
+		}
+		double e = Math.exp(sigma);
+		double sin = Math.sin(theta);
+		double cos = Math.cos(theta);
+		return (e*(sigma*sin - theta*cos) + theta)/(theta*(sigma*sigma + theta*theta));
+	}
+
+	/**
+	 * c = integral of exp(&sigma;*s)*(1-cos(s*&theta;))/&theta;<sup>2</sup> from 0 to 1
+	 */
+	static double coefC( double sigma, double theta, double a ) {
+		double theta2 = theta*theta;
+		if (theta < LieSo3Ops_F64.SMALL_ANGLE) {
+			return moment(sigma, 2)/2.0 - theta2*moment(sigma, 4)/24.0 + theta2*theta2*moment(sigma, 6)/720.0;
+		}
+		double e = Math.exp(sigma);
+		double sin = Math.sin(theta);
+		double cos = Math.cos(theta);
+		double integralCos = (e*(sigma*cos + theta*sin) - sigma)/(sigma*sigma + theta2);
+		return (a - integralCos)/theta2;
+	}
+
+	/**
+	 * Derivative of {@link #coefB} with respect to &theta;, divided by &theta;
+	 */
+	static double coefBdTheta( double sigma, double theta ) {
+		if (theta < LieSe3Ops_F64.SMALL_ANGLE_Q) {
+			double theta2 = theta*theta;
+			return -moment(sigma, 3)/3.0 + theta2*(moment(sigma, 5)/30.0 -
+					theta2*(moment(sigma, 7)/840.0 - theta2*moment(sigma, 9)/45360.0));
+		}
+		double e = Math.exp(sigma);
+		double sin = Math.sin(theta);
+		double cos = Math.cos(theta);
+		double n = e*(sigma*sin - theta*cos) + theta;
+		double nTheta = e*((sigma - 1.0)*cos + theta*sin) + 1.0;
+		double den = theta*(sigma*sigma + theta*theta);
+		double denTheta = sigma*sigma + 3.0*theta*theta;
+		return (nTheta*den - n*denTheta)/(den*den*theta);
+	}
+
+	/**
+	 * Derivative of {@link #coefC} with respect to &theta;, divided by &theta;
+	 */
+	static double coefCdTheta( double sigma, double theta ) {
+		double theta2 = theta*theta;
+		if (theta < LieSe3Ops_F64.SMALL_ANGLE_Q) {
+			return -moment(sigma, 4)/12.0 + theta2*(moment(sigma, 6)/180.0 -
+					theta2*(moment(sigma, 8)/6720.0 - theta2*moment(sigma, 10)/453600.0));
+		}
+		double e = Math.exp(sigma);
+		double sin = Math.sin(theta);
+		double cos = Math.cos(theta);
+		double den = sigma*sigma + theta2;
+		double n = e*(sigma*cos + theta*sin) - sigma;
+		double nTheta = e*((1.0 - sigma)*sin + theta*cos);
+		double integralCos = n/den;
+		double integralCosTheta = (nTheta*den - 2.0*theta*n)/(den*den);
+		double c = (coefA(sigma) - integralCos)/theta2;
+		return -(integralCosTheta/theta + 2.0*c)/theta2;
+	}
+
+	/**
+	 * Derivative of {@link #coefB} with respect to &sigma;
+	 */
+	static double coefBdSigma( double sigma, double theta ) {
+		if (theta < LieSe3Ops_F64.SMALL_ANGLE_Q) {
+			double theta2 = theta*theta;
+			return moment(sigma, 2) - theta2*(moment(sigma, 4)/6.0 -
+					theta2*(moment(sigma, 6)/120.0 - theta2*moment(sigma, 8)/5040.0));
+		}
+		double e = Math.exp(sigma);
+		double sin = Math.sin(theta);
+		double cos = Math.cos(theta);
+		double n = e*(sigma*sin - theta*cos) + theta;
+		double nSigma = e*((sigma + 1.0)*sin - theta*cos);
+		double den = theta*(sigma*sigma + theta*theta);
+		return (nSigma*den - n*2.0*sigma*theta)/(den*den);
+	}
+
+	/**
+	 * Derivative of {@link #coefC} with respect to &sigma;
+	 */
+	static double coefCdSigma( double sigma, double theta ) {
+		double theta2 = theta*theta;
+		if (theta < LieSe3Ops_F64.SMALL_ANGLE_Q) {
+			return moment(sigma, 3)/2.0 - theta2*(moment(sigma, 5)/24.0 -
+					theta2*(moment(sigma, 7)/720.0 - theta2*moment(sigma, 9)/40320.0));
+		}
+		double e = Math.exp(sigma);
+		double sin = Math.sin(theta);
+		double cos = Math.cos(theta);
+		double den = sigma*sigma + theta2;
+		double n = e*(sigma*cos + theta*sin) - sigma;
+		double nSigma = e*(sigma*cos + theta*sin + cos) - 1.0;
+		double integralCosSigma = (nSigma*den - 2.0*sigma*n)/(den*den);
+		return (moment(sigma, 1) - integralCosSigma)/theta2;
+	}
+
+	/**
+	 * Computes the integral of s<sup>k</sup>*exp(&sigma;*s) from 0 to 1.
+	 */
+	static double moment( double sigma, int k ) {
+		if (Math.abs(sigma) < 2.0) {
+			// Taylor series. sum of sigma^n/(n!*(n+k+1))
+			double sum = 0.0;
+			double term = 1.0;
+			for (int n = 0; n < 40; n++) {
+				sum += term/(n + k + 1);
+				term *= sigma/(n + 1);
+			}
+			return sum;
+		}
+		// Integration by parts. M[k] = (exp(sigma) - k*M[k-1])/sigma
+		double e = Math.exp(sigma);
+		double value = Math.expm1(sigma)/sigma;
+		for (int i = 1; i <= k; i++) {
+			value = (e - i*value)/sigma;
+		}
+		return value;
+	}
+
+	private static double component( double x, double y, double z, int index ) {
+		return index == 0 ? x : index == 1 ? y : z;
+	}
+
+	/**
+	 * Element (row, col) of hat(a) = [0 -z y; z 0 -x; -y x 0]
+	 */
+	private static double hat( double x, double y, double z, int row, int col ) {
+		if (row == col)
+			return 0.0;
+		double value = component(x, y, z, 3 - row - col);
+		return (col - row + 3)%3 == 1 ? -value : value;
+	}
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.transform.lie;
+
+import georegression.struct.GeoTuple3D_F64;
+import org.ejml.data.DMatrixRMaj;
+
+/**
+ * <p>
+ * Operations on the Lie group SO(3), rotations in 3D. Elements of the Lie algebra so(3) are rotation vectors,
+ * &phi; = &theta;*n, where n is the rotation axis and &theta; the angle. Functions don't declare new memory and are
+ * numerically stable for small angles, where they switch to a Taylor series.
+ * </p>
+ *
+ * <p>
+ * The left Jacobian is defined by exp(&phi; + &delta;) &asymp; exp(J<sub>l</sub>*&delta;)*exp(&phi;) and
+ * the right Jacobian by exp(&phi; + &delta;) &asymp; exp(&phi;)*exp(J<sub>r</sub>*&delta;).
+ * </p>
+ *
+ * <p>
+ * [1] Barfoot, Timothy D. "State estimation for robotics." Cambridge University Press, 2017.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class LieSo3Ops_F64 {
+	/** Below this angle a Taylor series is used */
+	static final double SMALL_ANGLE = 1.0e-2;
+
+	/**
+	 * Exponential map. Converts a rotation vector into a rotation matrix.
+	 *
+	 * @param phi (Input) Rotation vector
+	 * @param R (Output) Rotation matrix. Reshaped to 3x3
+	 * @return The rotation matrix
+	 */
+	public static DMatrixRMaj exp( GeoTuple3D_F64<?> phi, DMatrixRMaj R ) {
+		return exp(phi.x, phi.y, phi.z, R);
+	}
+
+	/**
+	 * Exponential map. Converts a rotation vector into a rotation matrix.
+	 *
+	 * @param R (Output) Rotation matrix. Reshaped to 3x3
+	 * @return The rotation matrix
+	 */
+	public static DMatrixRMaj exp( double x, double y, double z, DMatrixRMaj R ) {
+		double theta2 = x*x + y*y + z*z;
+		double theta = Math.sqrt(theta2);
+
+		// R = I + A*hat(phi) + B*hat(phi)^2
+		double A, B;
+		if (theta < SMALL_ANGLE) {
+			A = 1.0 - theta2/6.0 + theta2*theta2/120.0;
+			B = 0.5 - theta2/24.0 + theta2*theta2/720.0;
+		} else {
+			// half angle formulas avoid the cancellation in 1-cos(theta)
+			double s = Math.sin(theta/2.0);
+			double c = Math.cos(theta/2.0);
+			A = 2.0*s*c/theta;
+			B = 2.0*s*s/theta2;
+		}
+		R.reshape(3, 3);
+		setPolynomial(1.0, A, B, x, y, z, theta2, R.data, 0, 3);
+		return R;
+	}
+
+	/**
+	 * Logarithm map. Converts a rotation matrix into a rotation vector with an angle from 0 to &pi;.
+	 * Stable for all angles, including close to zero and close to &pi;.
+	 *
+	 * @param R (Input) Rotation matrix
+	 * @param phi (Output) Rotation vector
+	 * @return The rotation vector
+	 */
+	public static <T extends GeoTuple3D_F64<T>> T log( DMatrixRMaj R, T phi ) {
+		double[] d = R.data;
+		double cos = (d[0] + d[4] + d[8] - 1.0)/2.0;
+		// skew symmetric part is sin(theta)*n
+		double sx = (d[7] - d[5])/2.0;
+		double sy = (d[2] - d[6])/2.0;
+		double sz = (d[3] - d[1])/2.0;
+		double sin = Math.sqrt(sx*sx + sy*sy + sz*sz);
+		double theta = Math.atan2(sin, cos);
+
+		if (cos > -0.9) {
+			// theta/sin(theta) is well conditioned
+			double scale;
+			if (theta < SMALL_ANGLE) {
+				double theta2 = theta*theta;
+				scale = 1.0 + theta2/6.0 + 7.0*theta2*theta2/360.0;
+			} else {
+				scale = theta/sin;
+			}
+			phi.setTo(sx*scale, sy*scale, sz*scale);
+			return phi;
+		}
+
+		// Close to pi. The axis is found from the symmetric part, (R + R')/2 = cos*I + (1 - cos)*n*n'
+		double a = 1.0 - cos;
+		double nxx = (d[0] - cos)/a, nyy = (d[4] - cos)/a, nzz = (d[8] - cos)/a;
+		double nx, ny, nz;
+		if (nxx >= nyy && nxx >= nzz) {
+			nx = Math.sqrt(Math.max(0.0, nxx));
+			ny = (d[1] + d[3])/(2.0*a*nx);
+			nz = (d[2] + d[6])/(2.0*a*nx);
+		} else if (nyy >= nzz) {
+			ny = Math.sqrt(Math.max(0.0, nyy));
+			nx = (d[1] + d[3])/(2.0*a*ny);
+			nz = (d[5] + d[7])/(2.0*a*ny);
+		} else {
+			nz = Math.sqrt(Math.max(0.0, nzz));
+			nx = (d[2] + d[6])/(2.0*a*nz);
+			ny = (d[5] + d[7])/(2.0*a*nz);
+		}
+		double norm = Math.sqrt(nx*nx + ny*ny + nz*nz);
+		// The skew symmetric part has the correct sign
+		if (nx*sx + ny*sy + nz*sz < 0.0)
+			norm = -norm;
+		double scale = theta/norm;
+		phi.setTo(nx*scale, ny*scale, nz*scale);
+		return phi;
+	}
+
+	/**
+	 * Adjoint of SO(3) is the rotation matrix itself. Here for completeness.
+	 *
+	 * @param R (Input) Rotation matrix
+	 * @param adj (Output) 3x3 adjoint matrix.
+	 * @return The adjoint
+	 */
+	public static DMatrixRMaj adjoint( DMatrixRMaj R, DMatrixRMaj adj ) {
+		adj.setTo(R);
+		return adj;
+	}
+
+	/**
+	 * Left Jacobian, J<sub>l</sub> = I + (1-cos&theta;)/&theta;<sup>2</sup>*hat(&phi;) +
+	 * (&theta;-sin&theta;)/&theta;<sup>3</sup>*hat(&phi;)<sup>2</sup>
+	 *
+	 * @param phi (Input) Rotation vector
+	 * @param J (Output) 3x3 Jacobian. Reshaped.
+	 * @return The Jacobian
+	 */
+	public static DMatrixRMaj jacobianLeft( GeoTuple3D_F64<?> phi, DMatrixRMaj J ) {
+		J.reshape(3, 3);
+		jacobian(phi.x, phi.y, phi.z, J.data, 0, 3);
+		return J;
+	}
+
+	/**
+	 * Inverse of the left Jacobian
+	 *
+	 * @param phi (Input) Rotation vector
+	 * @param J (Output) 3x3 Jacobian. Reshaped.
+	 * @return The Jacobian
+	 */
+	public static DMatrixRMaj jacobianLeftInv( GeoTuple3D_F64<?> phi, DMatrixRMaj J ) {
+		J.reshape(3, 3);
+		jacobianInv(phi.x, phi.y, phi.z, J.data, 0, 3);
+		return J;
+	}
+
+	/**
+	 * Right Jacobian. J<sub>r</sub>(&phi;) = J<sub>l</sub>(-&phi;)
+	 *
+	 * @param phi (Input) Rotation vector
+	 * @param J (Output) 3x3 Jacobian. Reshaped.
+	 * @return The Jacobian
+	 */
+	public static DMatrixRMaj jacobianRight( GeoTuple3D_F64<?> phi, DMatrixRMaj J ) {
+		J.reshape(3, 3);
+		jacobian(-phi.x, -phi.y, -phi.z, J.data, 0, 3);
+		return J;
+	}
+
+	/**
+	 * Inverse of the right Jacobian.
+	 *
+	 * @param phi (Input) Rotation vector
+	 * @param J (Output) 3x3 Jacobian. Reshaped.
+	 * @return The Jacobian
+	 */
+	public static DMatrixRMaj jacobianRightInv( GeoTuple3D_F64<?> phi, DMatrixRMaj J ) {
+		J.reshape(3, 3);
+		jacobianInv(-phi.x, -phi.y, -phi.z, J.data, 0, 3);
+		return J;
+	}
+
+	/**
+	 * Writes the left Jacobian into a block of a row-major array.
+	 *
+	 * @param offset Index of the first element in the block
+	 * @param stride Number of columns in the array
+	 */
+	static void jacobian( double x, double y, double z, double[] data, int offset, int stride ) {
+		double theta2 = x*x + y*y + z*z;
+		double theta = Math.sqrt(theta2);
+		double B, C;
+		if (theta < SMALL_ANGLE) {
+			B = 0.5 - theta2/24.0 + theta2*theta2/720.0;
+			C = 1.0/6.0 - theta2/120.0 + theta2*theta2/5040.0;
+		} else {
+			B = coefB(theta);
+			C = (theta - Math.sin(theta))/(theta2*theta);
+		}
+		setPolynomial(1.0, B, C, x, y, z, theta2, data, offset, stride);
+	}
+
+	/**
+	 * Writes the inverse of the left Jacobian into a block of a row-major array.
+	 */
+	static void jacobianInv( double x, double y, double z, double[] data, int offset, int stride ) {
+		double theta2 = x*x + y*y + z*z;
+		double theta = Math.sqrt(theta2);
+		setPolynomial(1.0, -0.5, coefD(theta), x, y, z, theta2, data, offset, stride);
+	}
+
+	/**
+	 * (1 - cos(&theta;))/&theta;<sup>2</sup>. Computed with sin() to avoid cancellation
+	 */
+	static double coefB( double theta ) {
+		double s = Math.sin(theta/2.0);
+		return 2.0*s*s/(theta*theta);
+	}
+
+	/**
+	 * (1 - &theta;*sin(&theta;)/(2*(1-cos(&theta;))))/&theta;<sup>2</sup>, which is the coefficient of hat(&phi;)
+	 * <sup>2</sup> in the inverse Jacobian.
+	 */
+	static double coefD( double theta ) {
+		double theta2 = theta*theta;
+		if (theta < SMALL_ANGLE)
+			return 1.0/12.0 + theta2/720.0 + theta2*theta2/30240.0;
+		// theta*sin/(2*(1-cos)) = (theta/2)/tan(theta/2)
+		return (1.0 - (theta/2.0)/(double)Math.tan(theta/2.0))/theta2;
+	}
+
+	/**
+	 * Writes a*I + b*hat(&phi;) + c*hat(&phi;)<sup>2</sup> into a 3x3 block. hat(&phi;)<sup>2</sup> =
+	 * &phi;*&phi;' - &theta;<sup>2</sup>*I
+	 */
+	static void setPolynomial( double a, double b, double c, double x, double y, double z, double theta2,
+							   double[] data, int offset, int stride ) {
+		double diag = a - c*theta2;
+		int i0 = offset, i1 = offset + stride, i2 = offset + 2*stride;
+		data[i0] = diag + c*x*x;
+		data[i0 + 1] = -b*z + c*x*y;
+		data[i0 + 2] = b*y + c*x*z;
+		data[i1] = b*z + c*y*x;
+		data[i1 + 1] = diag + c*y*y;
+		data[i1 + 2] = -b*x + c*y*z;
+		data[i2] = -b*y + c*z*x;
+		data[i2 + 1] = b*x + c*z*y;
+		data[i2 + 2] = diag + c*z*z;
+	}
+
+	/**
+	 * Computes (a*I + b*hat(&phi;) + c*hat(&phi;)<sup>2</sup>)*v and writes it into the output, which can be the
+	 * same instance as the input.
+	 */
+	static void multPolynomial( double a, double b, double c, double x, double y, double z,
+								GeoTuple3D_F64<?> v, GeoTuple3D_F64<?> output ) {
+		// phi x v
+		double cx = y*v.z - z*v.y;
+		double cy = z*v.x - x*v.z;
+		double cz = x*v.y - y*v.x;
+		// phi x (phi x v)
+		double ccx = y*cz - z*cy;
+		double ccy = z*cx - x*cz;
+		double ccz = x*cy - y*cx;
+		output.setTo(a*v.x + b*cx + c*ccx, a*v.y + b*cy + c*ccy, a*v.z + b*cz + c*ccz);
+	}
+}
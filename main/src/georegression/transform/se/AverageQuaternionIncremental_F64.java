@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.transform.se;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.so.Quaternion_F64;
+import lombok.Getter;
+
+/**
+ * <p>Incrementally computes the weighted average of {@link Quaternion_F64 quaternions} using the method in [1].
+ * Samples can be added and removed at any time, e.g. for a sliding window, and the average can be computed
+ * whenever it's needed without revisiting the samples. The weighted moment M = sum w*q*q<sup>T</sup> is
+ * accumulated as samples arrive and the average is the eigenvector of M with the largest eigenvalue.</p>
+ *
+ * <p>Instead of a general eigen decomposition the dominant eigenvector is found with power iteration. M is
+ * symmetric positive semi-definite, so it's first raised to a high power through repeated squaring. This
+ * widens the gap between the two largest eigenvalues and power iteration then converges in a few steps.</p>
+ *
+ * <p>[1] MLA Markley, F. Landis, et al. "Quaternion averaging." (2007)</p>
+ *
+ * @author Peter Abeles
+ * @see AverageQuaternion_F64
+ */
+public class AverageQuaternionIncremental_F64 {
+	/** Number of times the moment matrix is squared before power iteration */
+	public int squarings = 4;
+
+	/** Maximum number of power iterations */
+	public int maxIterations = 100;
+
+	/** Iterations stop when the Euclidean norm of the change in the normalized estimate is less than this */
+	public double convergenceTol = GrlConstants.DCONV_TOL_B;
+
+	/** Sum of weights of all the samples */
+	@Getter double totalWeight;
+
+	/** Number of samples which have been added minus the number removed */
+	@Getter int count;
+
+	// Upper triangle of the weighted moment matrix, [w,x,y,z] order
+	double m00, m01, m02, m03, m11, m12, m13, m22, m23, m33;
+
+	// Workspace for the powered moment matrix
+	final double[] P = new double[16];
+	final double[] tmp = new double[16];
+
+	/**
+	 * Discards all samples
+	 */
+	public void reset() {
+		m00 = m01 = m02 = m03 = m11 = m12 = m13 = m22 = m23 = m33 = 0.0;
+		totalWeight = 0.0;
+		count = 0;
+	}
+
+	/**
+	 * Adds a sample with a weight of one
+	 */
+	public void add( Quaternion_F64 q ) {
+		add(q, 1.0);
+	}
+
+	/**
+	 * Adds a sample with the specified weight. The sign of the quaternion does not matter.
+	 *
+	 * @param q (Input) Normalized quaternion
+	 * @param weight (Input) Weight. Must be zero or positive.
+	 */
+	public void add( Quaternion_F64 q, double weight ) {
+		accumulate(q, weight);
+		count++;
+	}
+
+	/**
+	 * Removes a sample which was previously added with a weight of one.
+	 */
+	public void remove( Quaternion_F64 q ) {
+		remove(q, 1.0);
+	}
+
+	/**
+	 * Removes a sample which was previously added.
+	 *
+	 * @param q (Input) Quaternion that was previously added
+	 * @param weight (Input) The same weight that it was added with
+	 */
+	public void remove( Quaternion_F64 q, double weight ) {
+		accumulate(q, -weight);
+		count--;
+	}
+
+	private void accumulate( Quaternion_F64 q, double weight ) {
+		double w = q.w, x = q.x, y = q.y, z = q.z;
+		double ww = weight*w, wx = weight*x, wy = weight*y, wz = weight*z;
+		//@formatter:off
+		m00 += ww*w; m01 += ww*x; m02 += ww*y; m03 += ww*z;
+		             m11 += wx*x; m12 += wx*y; m13 += wx*z;
+		                          m22 += wy*y; m23 += wy*z;
+		                                       m33 += wz*z;
+		//@formatter:on
+		totalWeight += weight;
+	}
+
+	/**
+	 * Computes the average of all the samples which are currently in the set
+	 *
+	 * @param average (Output) The average quaternion. Normalized with w &ge; 0
+	 * @return true if successful or false if there are no samples with a positive weight
+	 */
+	public boolean compute( Quaternion_F64 average ) {
+		double trace = m00 + m11 + m22 + m33;
+		if (count <= 0 || !(trace > 0.0))
+			return false;
+
+		// Normalizing by the trace keeps the eigenvalues inside of [0,1] and avoids overflow when squaring
+		double s = 1.0/trace;
+		//@formatter:off
+		P[0]  = m00*s; P[1]  = m01*s; P[2]  = m02*s; P[3]  = m03*s;
+		P[4]  = m01*s; P[5]  = m11*s; P[6]  = m12*s; P[7]  = m13*s;
+		P[8]  = m02*s; P[9]  = m12*s; P[10] = m22*s; P[11] = m23*s;
+		P[12] = m03*s; P[13] = m13*s; P[14] = m23*s; P[15] = m33*s;
+		//@formatter:on
+
+		for (int i = 0; i < squarings; i++) {
+			squareNormalize();
+		}
+
+		// The column with the largest diagonal element is dominated by the largest eigenvector
+		int best = 0;
+		for (int i = 1; i < 4; i++) {
+			if (P[i*5] > P[best*5])
+				best = i;
+		}
+		double v0 = P[best], v1 = P[4 + best], v2 = P[8 + best], v3 = P[12 + best];
+		double n = Math.sqrt(v0*v0 + v1*v1 + v2*v2 + v3*v3);
+		if (n == 0.0)
+			return false;
+		v0 /= n;
+		v1 /= n;
+		v2 /= n;
+		v3 /= n;
+
+		for (int iter = 0; iter < maxIterations; iter++) {
+			double a0 = P[0]*v0 + P[1]*v1 + P[2]*v2 + P[3]*v3;
+			double a1 = P[4]*v0 + P[5]*v1 + P[6]*v2 + P[7]*v3;
+			double a2 = P[8]*v0 + P[9]*v1 + P[10]*v2 + P[11]*v3;
+			double a3 = P[12]*v0 + P[13]*v1 + P[14]*v2 + P[15]*v3;
+			n = Math.sqrt(a0*a0 + a1*a1 + a2*a2 + a3*a3);
+			if (n == 0.0)
+				return false;
+			a0 /= n;
+			a1 /= n;
+			a2 /= n;
+			a3 /= n;
+
+			double d0 = a0 - v0, d1 = a1 - v1, d2 = a2 - v2, d3 = a3 - v3;
+			v0 = a0;
+			v1 = a1;
+			v2 = a2;
+			v3 = a3;
+			if (Math.sqrt(d0*d0 + d1*d1 + d2*d2 + d3*d3) <= convergenceTol)
+				break;
+		}
+
+		if (v0 < 0)
+			average.setTo(-v0, -v1, -v2, -v3);
+		else
+			average.setTo(v0, v1, v2, v3);
+		return true;
+	}
+
+	/**
+	 * P = P*P/trace(P*P). Since P is symmetric P*P = P*P<sup>T</sup>, which is also symmetric.
+	 */
+	private void squareNormalize() {
+		double trace = 0.0;
+		for (int row = 0; row < 4; row++) {
+			int r = row*4;
+			for (int col = row; col < 4; col++) {
+				int c = col*4;
+				double sum = P[r]*P[c] + P[r + 1]*P[c + 1] + P[r + 2]*P[c + 2] + P[r + 3]*P[c + 3];
+				tmp[r + col] = sum;
+				tmp[c + row] = sum;
+			}
+			trace += tmp[row*5];
+		}
+		if (trace == 0.0)
+			return;
+		double s = 1.0/trace;
+		for (int i = 0; i < 16; i++) {
+			P[i] = tmp[i]*s;
+		}
+	}
+}
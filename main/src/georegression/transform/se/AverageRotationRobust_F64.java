@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.transform.se;
+
+import georegression.struct.point.Vector3D_F64;
+import georegression.transform.lie.LieSo3Ops_F64;
+import lombok.Getter;
+import org.ddogleg.struct.DogArray_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
+import org.ejml.interfaces.decomposition.SingularValueDecomposition_F64;
+
+import java.util.List;
+
+/**
+ * <p>Robust average of rotation matrices which minimizes the sum of distances (L1) instead of the sum of
+ * squared distances (L2), making it much less sensitive to outliers. The L1 median is found with the
+ * Weiszfeld algorithm [1], which is an iteratively re-weighted average where each sample's weight is the inverse
+ * of its distance to the current estimate. It's initialized with the chordal L2 average from
+ * {@link AverageRotationMatrix_F64}.</p>
+ *
+ * <ul>
+ *     <li>{@link Distance#GEODESIC}: Distance is the rotation angle between two rotations. Each iteration
+ *     averages the samples in the tangent space of the current estimate [1].</li>
+ *     <li>{@link Distance#CHORDAL}: Distance is the Frobenius norm of the difference between two rotation matrices.
+ *     Each iteration computes a weighted sum of the matrices and projects it onto SO(3).</li>
+ * </ul>
+ *
+ * <p>[1] Hartley, Richard, Khurrum Aftab, and Jochen Trumpf. "L1 rotation averaging using the Weiszfeld
+ * algorithm." CVPR 2011.</p>
+ *
+ * @author Peter Abeles
+ */
+public class AverageRotationRobust_F64 {
+	/** Which distance function is minimized */
+	public Distance distance = Distance.GEODESIC;
+
+	/** Maximum number of Weiszfeld iterations */
+	public int maxIterations = 100;
+
+	/** Iterations stop when the change in the rotation's angle is less than this */
+	public double convergenceTol = 1.0e-10;
+
+	/** Samples closer than this to the current estimate are skipped to avoid dividing by zero */
+	public double zeroTol = 1.0e-12;
+
+	/** Weight of each sample in the final iteration. Outliers will have smaller weights. */
+	@Getter DogArray_F64 weights = new DogArray_F64();
+
+	/** Number of iterations used in the last call to process */
+	@Getter int iterations;
+
+	AverageRotationMatrix_F64 initial = new AverageRotationMatrix_F64();
+	SingularValueDecomposition_F64<DMatrixRMaj> svd = DecompositionFactory_DDRM.svd(3, 3, true, true, true);
+
+	// Workspace
+	DMatrixRMaj M = new DMatrixRMaj(3, 3);
+	DMatrixRMaj U = new DMatrixRMaj(3, 3);
+	DMatrixRMaj V = new DMatrixRMaj(3, 3);
+	DMatrixRMaj R_diff = new DMatrixRMaj(3, 3);
+	DMatrixRMaj R_step = new DMatrixRMaj(3, 3);
+	Vector3D_F64 tangent = new Vector3D_F64();
+	Vector3D_F64 step = new Vector3D_F64();
+
+	/**
+	 * Finds the robust average of the rotation matrices
+	 *
+	 * @param list (Input) rotation matrices
+	 * @param average (Output) average rotation.
+	 * @return true if successful or false if it failed
+	 */
+	public boolean process( List<DMatrixRMaj> list, DMatrixRMaj average ) {
+		if (list.isEmpty())
+			throw new IllegalArgumentException("Input list is empty");
+		if (average == null)
+			throw new IllegalArgumentException("average is null");
+
+		weights.reset().resize(list.size(), 1.0);
+		iterations = 0;
+
+		if (!initial.process(list, average))
+			return false;
+
+		switch (distance) {
+			case GEODESIC:
+				return geodesic(list, average);
+			case CHORDAL:
+				return chordal(list, average);
+			default:
+				throw new IllegalArgumentException("Unknown distance " + distance);
+		}
+	}
+
+	/**
+	 * Weiszfeld in the tangent space: step = sum(v[i]/|v[i]|)/sum(1/|v[i]|) where v[i] = log(R<sup>T</sup>*R[i])
+	 */
+	boolean geodesic( List<DMatrixRMaj> list, DMatrixRMaj average ) {
+		while (iterations < maxIterations) {
+			iterations++;
+			step.setTo(0, 0, 0);
+			double sumWeights = 0.0;
+			for (int i = 0; i < list.size(); i++) {
+				CommonOps_DDRM.multTransA(average, list.get(i), R_diff);
+				LieSo3Ops_F64.log(R_diff, tangent);
+				double d = tangent.norm();
+				if (d <= zeroTol) {
+					weights.data[i] = 0.0;
+					continue;
+				}
+				double w = 1.0/d;
+				weights.data[i] = w;
+				step.x += w*tangent.x;
+				step.y += w*tangent.y;
+				step.z += w*tangent.z;
+				sumWeights += w;
+			}
+			// Every sample is at the current estimate
+			if (sumWeights == 0.0)
+				break;
+			step.divideIP(sumWeights);
+
+			LieSo3Ops_F64.exp(step, R_step);
+			CommonOps_DDRM.mult(average, R_step, R_diff);
+			average.setTo(R_diff);
+
+			if (step.norm() <= convergenceTol)
+				break;
+		}
+		return true;
+	}
+
+	/**
+	 * Weiszfeld in matrix space followed by a projection onto SO(3): R = proj(sum(R[i]/|R[i]-R|_F))
+	 */
+	boolean chordal( List<DMatrixRMaj> list, DMatrixRMaj average ) {
+		while (iterations < maxIterations) {
+			iterations++;
+			M.zero();
+			double sumWeights = 0.0;
+			for (int i = 0; i < list.size(); i++) {
+				DMatrixRMaj R = list.get(i);
+				double d2 = 0.0;
+				for (int j = 0; j < 9; j++) {
+					double v = R.data[j] - average.data[j];
+					d2 += v*v;
+				}
+				double d = Math.sqrt(d2);
+				if (d <= zeroTol) {
+					weights.data[i] = 0.0;
+					continue;
+				}
+				double w = 1.0/d;
+				weights.data[i] = w;
+				for (int j = 0; j < 9; j++) {
+					M.data[j] += w*R.data[j];
+				}
+				sumWeights += w;
+			}
+			if (sumWeights == 0.0)
+				break;
+
+			if (!svd.decompose(M))
+				return false;
+			CommonOps_DDRM.multTransB(svd.getU(U, false), svd.getV(V, false), R_step);
+			if (CommonOps_DDRM.det(R_step) < 0)
+				CommonOps_DDRM.scale(-1, R_step);
+
+			// Change in angle between the two estimates
+			CommonOps_DDRM.multTransA(average, R_step, R_diff);
+			LieSo3Ops_F64.log(R_diff, tangent);
+			average.setTo(R_step);
+
+			if (tangent.norm() <= convergenceTol)
+				break;
+		}
+		return true;
+	}
+
+	/** Distance function that is minimized */
+	public enum Distance {
+		/** Angle of the relative rotation */
+		GEODESIC,
+		/** Frobenius norm of the difference between the two rotation matrices */
+		CHORDAL
+	}
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.transform.se;
+
+import georegression.geometry.GeometryMath_F64;
+import georegression.struct.point.Vector3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.transform.lie.LieSe3Ops_F64;
+import georegression.transform.twist.TwistCoordinate_F64;
+import lombok.Getter;
+import org.ddogleg.struct.DogArray;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * <p>
+ * Continuous time trajectory in SE(3) represented by a uniform cumulative cubic B-spline [1]. The pose inside of
+ * segment 'i' is found using 4 control points:
+ * </p>
+ * <pre>
+ * T(u) = C[i] * exp(B1(u)*&Omega;[i+1]) * exp(B2(u)*&Omega;[i+2]) * exp(B3(u)*&Omega;[i+3])
+ * &Omega;[k] = log(inv(C[k-1])*C[k])
+ * </pre>
+ * <p>
+ * where C[k] is a control point as a homogenous matrix, u in [0,1] is the location inside the segment, and
+ * B are the cumulative basis functions. Unlike an interpolating spline, the curve doesn't pass through the control
+ * points, but it is C2 continuous which makes it well suited to fusing IMU measurements.
+ * </p>
+ *
+ * <p>
+ * The relative motion between consecutive control points, &Omega;, is computed once when a control point is added.
+ * Evaluating the spline takes constant time and doesn't declare new memory. Control points are uniformly
+ * spaced in time and the first segment starts at {@link #getStartTime()}.
+ * </p>
+ *
+ * <p>
+ * Velocity and acceleration are computed analytically and recursively, one relative motion at a time, which
+ * only requires 3x3 matrix-vector products. Angular terms are in the body frame, i.e. hat(w) = R<sup>T</sup>*dR/dt,
+ * and linear terms are the derivative of the translation in the world frame.
+ * </p>
+ *
+ * <p>
+ * [1] Sommer, Christiane, et al. "Efficient derivative computation for cumulative B-splines on Lie groups."
+ * CVPR 2020
+ * </p>
+ *
+ * @author Peter Abeles
+ * @see CubicBSplineSo3_F64
+ */
+public class CubicBSplineSe3_F64 {
+	/** Time of the first segment */
+	@Getter double startTime;
+	/** Time between control points */
+	@Getter double spacing = 1.0;
+
+	// Control points
+	final DogArray<Se3_F64> controls = new DogArray<>(Se3_F64::new, Se3_F64::reset);
+	// Relative motion between control points. deltas[k] is from k-1 to k. deltas[0] isn't used
+	final DogArray<TwistCoordinate_F64> deltas = new DogArray<>(TwistCoordinate_F64::new);
+
+	// Exponential of each relative motion in the segment
+	final Se3_F64[] A = new Se3_F64[3];
+
+	// Cumulative basis functions and their derivatives with respect to time
+	final double[] B = new double[3];
+	final double[] dB = new double[3];
+	final double[] ddB = new double[3];
+
+	// Workspace
+	final Se3_F64 motion = new Se3_F64();
+	final TwistCoordinate_F64 scaled = new TwistCoordinate_F64();
+	final DMatrixRMaj R = new DMatrixRMaj(3, 3);
+	final Vector3D_F64 omega = new Vector3D_F64();
+	final Vector3D_F64 omegaDot = new Vector3D_F64();
+	final Vector3D_F64 linearVel = new Vector3D_F64();
+	final Vector3D_F64 linearAcc = new Vector3D_F64();
+	final Vector3D_F64 aDot = new Vector3D_F64();
+	final Vector3D_F64 aDDot = new Vector3D_F64();
+	final Vector3D_F64 wv = new Vector3D_F64();
+	final Vector3D_F64 tmp = new Vector3D_F64();
+
+	/**
+	 * @param startTime Time at the start of the first segment
+	 * @param spacing Time between control points
+	 */
+	public CubicBSplineSe3_F64( double startTime, double spacing ) {
+		this();
+		initialize(startTime, spacing);
+	}
+
+	public CubicBSplineSe3_F64() {
+		for (int i = 0; i < 3; i++) {
+			A[i] = new Se3_F64();
+		}
+	}
+
+	/**
+	 * Removes all control points and specifies the time of the spline
+	 *
+	 * @param startTime Time at the start of the first segment
+	 * @param spacing Time between control points. Must be more than zero.
+	 */
+	public void initialize( double startTime, double spacing ) {
+		if (spacing <= 0.0)
+			throw new IllegalArgumentException("Spacing must be more than zero");
+		this.startTime = startTime;
+		this.spacing = spacing;
+		reset();
+	}
+
+	/**
+	 * Removes all control points
+	 */
+	public void reset() {
+		controls.reset();
+		deltas.reset();
+	}
+
+	/**
+	 * Adds a control point to the end of the spline
+	 *
+	 * @param control The control point. A copy is made.
+	 */
+	public void add( Se3_F64 control ) {
+		controls.grow().setTo(control);
+		TwistCoordinate_F64 delta = deltas.grow();
+		if (controls.size == 1) {
+			delta.set(0, 0, 0, 0, 0, 0);
+			return;
+		}
+		// inv(C[k-1])*C[k] as a homogenous matrix
+		control.concatInvert(controls.get(controls.size - 2), motion);
+		LieSe3Ops_F64.log(motion, delta);
+	}
+
+	/** Returns the number of control points */
+	public int size() {
+		return controls.size;
+	}
+
+	/** Returns the control point at the index. Do not modify. */
+	public Se3_F64 getControl( int index ) {
+		return controls.get(index);
+	}
+
+	/** Time at the end of the last segment. */
+	public double getEndTime() {
+		return startTime + (controls.size - 3)*spacing;
+	}
+
+	/** True if the spline can be evaluated at this time */
+	public boolean isInside( double time ) {
+		return controls.size >= 4 && time >= startTime && time <= getEndTime();
+	}
+
+	/**
+	 * Computes the pose at the specified time.
+	 *
+	 * @param time (Input) Time the spline is evaluated at
+	 * @param pose (Output) The pose
+	 * @return true if successful or false if the time is outside the spline
+	 */
+	public boolean evaluate( double time, Se3_F64 pose ) {
+		return evaluate(time, pose, null, null);
+	}
+
+	/**
+	 * Computes the pose and its derivatives at the specified time.
+	 *
+	 * @param time (Input) Time the spline is evaluated at
+	 * @param pose (Output) The pose
+	 * @param velocity (Output) Angular velocity in the body frame (w) and linear velocity in the world frame (v).
+	 * Can be null.
+	 * @param acceleration (Output) Angular acceleration in the body frame (w) and linear acceleration in the world
+	 * frame (v). Can be null.
+	 * @return true if successful or false if the time is outside the spline
+	 */
+	public boolean evaluate( double time, Se3_F64 pose,
+							 @Nullable TwistCoordinate_F64 velocity, @Nullable TwistCoordinate_F64 acceleration ) {
+		if (!isInside(time))
+			return false;
+
+		double s = (time - startTime)/spacing;
+		int index = Integer.min((int)s, controls.size - 4);
+		double u = s - index;
+		computeBasis(u);
+
+		for (int j = 0; j < 3; j++) {
+			TwistCoordinate_F64 d = deltas.get(index + 1 + j);
+			scaled.w.setTo(d.w.x*B[j], d.w.y*B[j], d.w.z*B[j]);
+			scaled.v.setTo(d.v.x*B[j], d.v.y*B[j], d.v.z*B[j]);
+			LieSe3Ops_F64.exp(scaled, A[j]);
+		}
+
+		// The product is computed one relative motion at a time. With P[j] = P[j-1]*A[j], the rotation is
+		// R[j] = R[j-1]*Q[j] and translation p[j] = p[j-1] + R[j-1]*a[j], where A[j] = [Q[j], a[j]].
+		// Derivatives are found by differentiating these relationships.
+		Se3_F64 base = controls.get(index);
+		pose.setTo(base);
+		omega.setTo(0, 0, 0);
+		omegaDot.setTo(0, 0, 0);
+		linearVel.setTo(0, 0, 0);
+		linearAcc.setTo(0, 0, 0);
+		boolean derivatives = velocity != null || acceleration != null;
+
+		for (int j = 0; j < 3; j++) {
+			TwistCoordinate_F64 d = deltas.get(index + 1 + j);
+			Se3_F64 Aj = A[j];
+
+			if (derivatives) {
+				// derivatives of a[j] = dB*Q*v and ddB*Q*v + dB*dB*Q*(w x v)
+				GeometryMath_F64.mult(Aj.R, d.v, tmp);
+				wv.crossSetTo(d.w, d.v);
+				GeometryMath_F64.mult(Aj.R, wv, wv);
+				aDot.setTo(dB[j]*tmp.x, dB[j]*tmp.y, dB[j]*tmp.z);
+				aDDot.setTo(
+						ddB[j]*tmp.x + dB[j]*dB[j]*wv.x,
+						ddB[j]*tmp.y + dB[j]*dB[j]*wv.y,
+						ddB[j]*tmp.z + dB[j]*dB[j]*wv.z);
+
+				// acceleration += R*(w x (w x a) + dw x a + 2*w x da + dda)
+				tmp.crossSetTo(omega, Aj.T);
+				wv.crossSetTo(omega, tmp);
+				tmp.crossSetTo(omegaDot, Aj.T);
+				wv.plusIP(tmp);
+				tmp.crossSetTo(omega, aDot);
+				wv.x += 2.0*tmp.x + aDDot.x;
+				wv.y += 2.0*tmp.y + aDDot.y;
+				wv.z += 2.0*tmp.z + aDDot.z;
+				GeometryMath_F64.mult(pose.R, wv, wv);
+				linearAcc.plusIP(wv);
+
+				// velocity += R*(w x a + da)
+				tmp.crossSetTo(omega, Aj.T);
+				tmp.plusIP(aDot);
+				GeometryMath_F64.mult(pose.R, tmp, tmp);
+				linearVel.plusIP(tmp);
+
+				// w[j] = Q'*w[j-1] + dB*w
+				// dw[j] = Q'*dw[j-1] + ddB*w + dB*(w[j] x w)
+				GeometryMath_F64.multTran(Aj.R, omega, omega);
+				omega.x += dB[j]*d.w.x;
+				omega.y += dB[j]*d.w.y;
+				omega.z += dB[j]*d.w.z;
+
+				GeometryMath_F64.multTran(Aj.R, omegaDot, omegaDot);
+				tmp.crossSetTo(omega, d.w);
+				omegaDot.x += ddB[j]*d.w.x + dB[j]*tmp.x;
+				omegaDot.y += ddB[j]*d.w.y + dB[j]*tmp.y;
+				omegaDot.z += ddB[j]*d.w.z + dB[j]*tmp.z;
+			}
+
+			// p[j] = p[j-1] + R[j-1]*a[j]
+			GeometryMath_F64.mult(pose.R, Aj.T, tmp);
+			pose.T.plusIP(tmp);
+			// R[j] = R[j-1]*Q[j]
+			CommonOps_DDRM.mult(pose.R, Aj.R, R);
+			pose.R.setTo(R);
+		}
+
+		if (velocity != null) {
+			velocity.w.setTo(omega);
+			velocity.v.setTo(linearVel);
+		}
+		if (acceleration != null) {
+			acceleration.w.setTo(omegaDot);
+			acceleration.v.setTo(linearAcc);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Computes the cumulative basis functions and their time derivatives
+	 */
+	void computeBasis( double u ) {
+		double u2 = u*u;
+		double u3 = u2*u;
+		B[0] = (5.0 + 3.0*u - 3.0*u2 + u3)/6.0;
+		B[1] = (1.0 + 3.0*u + 3.0*u2 - 2.0*u3)/6.0;
+		B[2] = u3/6.0;
+
+		double s1 = 1.0/spacing;
+		dB[0] = s1*(3.0 - 6.0*u + 3.0*u2)/6.0;
+		dB[1] = s1*(3.0 + 6.0*u - 6.0*u2)/6.0;
+		dB[2] = s1*(3.0*u2)/6.0;
+
+		double s2 = s1*s1;
+		ddB[0] = s2*(-6.0 + 6.0*u)/6.0;
+		ddB[1] = s2*(6.0 - 12.0*u)/6.0;
+		ddB[2] = s2*u;
+	}
+
+	/**
+	 * Returns the relative motion between control point index-1 and index. Do not modify.
+	 */
+	public TwistCoordinate_F64 getDelta( int index ) {
+		return deltas.get(index);
+	}
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.transform.se;
+
+import georegression.geometry.GeometryMath_F64;
+import georegression.struct.point.Vector3D_F64;
+import georegression.transform.lie.LieSo3Ops_F64;
+import lombok.Getter;
+import org.ddogleg.struct.DogArray;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * <p>
+ * Continuous time rotation in SO(3) represented by a uniform cumulative cubic B-spline [1]. See
+ * {@link CubicBSplineSe3_F64} for a description of the spline.
+ * </p>
+ *
+ * <p>
+ * Angular velocity and acceleration are in the body frame, i.e. hat(w) = R<sup>T</sup>*dR/dt, and are computed
+ * recursively from one relative rotation to the next. This only requires matrix-vector products.
+ * </p>
+ *
+ * <p>
+ * [1] Sommer, Christiane, et al. "Efficient derivative computation for cumulative B-splines on Lie groups."
+ * CVPR 2020
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class CubicBSplineSo3_F64 {
+	/** Time of the first segment */
+	@Getter double startTime;
+	/** Time between control points */
+	@Getter double spacing = 1.0;
+
+	// Control points
+	final DogArray<DMatrixRMaj> controls = new DogArray<>(() -> new DMatrixRMaj(3, 3));
+	// Relative rotation between control points as a rotation vector. deltas[k] is from k-1 to k
+	final DogArray<Vector3D_F64> deltas = new DogArray<>(Vector3D_F64::new);
+
+	// Exponential of each relative rotation in the segment
+	final DMatrixRMaj[] A = new DMatrixRMaj[3];
+
+	// Cumulative basis functions and their derivatives with respect to time
+	final double[] B = new double[3];
+	final double[] dB = new double[3];
+	final double[] ddB = new double[3];
+
+	// Workspace
+	final DMatrixRMaj tmp0 = new DMatrixRMaj(3, 3);
+	final DMatrixRMaj tmp1 = new DMatrixRMaj(3, 3);
+	final Vector3D_F64 omega = new Vector3D_F64();
+	final Vector3D_F64 omegaDot = new Vector3D_F64();
+
+	/**
+	 * @param startTime Time at the start of the first segment
+	 * @param spacing Time between control points
+	 */
+	public CubicBSplineSo3_F64( double startTime, double spacing ) {
+		this();
+		initialize(startTime, spacing);
+	}
+
+	public CubicBSplineSo3_F64() {
+		for (int i = 0; i < 3; i++) {
+			A[i] = new DMatrixRMaj(3, 3);
+		}
+	}
+
+	/**
+	 * Removes all control points and specifies the time of the spline
+	 *
+	 * @param startTime Time at the start of the first segment
+	 * @param spacing Time between control points. Must be more than zero.
+	 */
+	public void initialize( double startTime, double spacing ) {
+		if (spacing <= 0.0)
+			throw new IllegalArgumentException("Spacing must be more than zero");
+		this.startTime = startTime;
+		this.spacing = spacing;
+		reset();
+	}
+
+	/**
+	 * Removes all control points
+	 */
+	public void reset() {
+		controls.reset();
+		deltas.reset();
+	}
+
+	/**
+	 * Adds a control point to the end of the spline
+	 *
+	 * @param control Rotation matrix. A copy is made.
+	 */
+	public void add( DMatrixRMaj control ) {
+		controls.grow().setTo(control);
+		Vector3D_F64 delta = deltas.grow();
+		if (controls.size == 1) {
+			delta.setTo(0, 0, 0);
+			return;
+		}
+		CommonOps_DDRM.multTransA(controls.get(controls.size - 2), control, tmp0);
+		LieSo3Ops_F64.log(tmp0, delta);
+	}
+
+	/** Returns the number of control points */
+	public int size() {
+		return controls.size;
+	}
+
+	/** Returns the control point at the index. Do not modify. */
+	public DMatrixRMaj getControl( int index ) {
+		return controls.get(index);
+	}
+
+	/** Time at the end of the last segment. */
+	public double getEndTime() {
+		return startTime + (controls.size - 3)*spacing;
+	}
+
+	/** True if the spline can be evaluated at this time */
+	public boolean isInside( double time ) {
+		return controls.size >= 4 && time >= startTime && time <= getEndTime();
+	}
+
+	/**
+	 * Computes the rotation at the specified time.
+	 *
+	 * @param time (Input) Time the spline is evaluated at
+	 * @param R (Output) Rotation matrix
+	 * @return true if successful or false if the time is outside the spline
+	 */
+	public boolean evaluate( double time, DMatrixRMaj R ) {
+		return evaluate(time, R, null, null);
+	}
+
+	/**
+	 * Computes the rotation and its derivatives at the specified time.
+	 *
+	 * @param time (Input) Time the spline is evaluated at
+	 * @param R (Output) Rotation matrix
+	 * @param velocity (Output) Angular velocity in the body frame. Can be null.
+	 * @param acceleration (Output) Angular acceleration in the body frame. Can be null.
+	 * @return true if successful or false if the time is outside the spline
+	 */
+	public boolean evaluate( double time, DMatrixRMaj R,
+							 @Nullable Vector3D_F64 velocity, @Nullable Vector3D_F64 acceleration ) {
+		if (!isInside(time))
+			return false;
+
+		double s = (time - startTime)/spacing;
+		int index = Integer.min((int)s, controls.size - 4);
+		double u = s - index;
+		computeBasis(u);
+
+		for (int j = 0; j < 3; j++) {
+			Vector3D_F64 d = deltas.get(index + 1 + j);
+			LieSo3Ops_F64.exp(d.x*B[j], d.y*B[j], d.z*B[j], A[j]);
+		}
+
+		// R = base*A0*A1*A2
+		CommonOps_DDRM.mult(controls.get(index), A[0], tmp0);
+		CommonOps_DDRM.mult(tmp0, A[1], tmp1);
+		CommonOps_DDRM.mult(tmp1, A[2], R);
+
+		if (velocity == null && acceleration == null)
+			return true;
+
+		// w[j] = A[j]'*w[j-1] + dB[j]*d[j]
+		// dw[j] = A[j]'*dw[j-1] + ddB[j]*d[j] + dB[j]*(w[j] x d[j])
+		omega.setTo(0, 0, 0);
+		omegaDot.setTo(0, 0, 0);
+		for (int j = 0; j < 3; j++) {
+			Vector3D_F64 d = deltas.get(index + 1 + j);
+			GeometryMath_F64.multTran(A[j], omega, omega);
+			omega.x += dB[j]*d.x;
+			omega.y += dB[j]*d.y;
+			omega.z += dB[j]*d.z;
+
+			GeometryMath_F64.multTran(A[j], omegaDot, omegaDot);
+			omegaDot.x += ddB[j]*d.x + dB[j]*(omega.y*d.z - omega.z*d.y);
+			omegaDot.y += ddB[j]*d.y + dB[j]*(omega.z*d.x - omega.x*d.z);
+			omegaDot.z += ddB[j]*d.z + dB[j]*(omega.x*d.y - omega.y*d.x);
+		}
+
+		if (velocity != null)
+			velocity.setTo(omega);
+		if (acceleration != null)
+			acceleration.setTo(omegaDot);
+
+		return true;
+	}
+
+	/**
+	 * Computes the cumulative basis functions and their time derivatives
+	 */
+	void computeBasis( double u ) {
+		double u2 = u*u;
+		double u3 = u2*u;
+		B[0] = (5.0 + 3.0*u - 3.0*u2 + u3)/6.0;
+		B[1] = (1.0 + 3.0*u + 3.0*u2 - 2.0*u3)/6.0;
+		B[2] = u3/6.0;
+
+		double s1 = 1.0/spacing;
+		dB[0] = s1*(3.0 - 6.0*u + 3.0*u2)/6.0;
+		dB[1] = s1*(3.0 + 6.0*u - 6.0*u2)/6.0;
+		dB[2] = s1*(3.0*u2)/6.0;
+
+		double s2 = s1*s1;
+		ddB[0] = s2*(-6.0 + 6.0*u)/6.0;
+		ddB[1] = s2*(6.0 - 12.0*u)/6.0;
+		ddB[2] = s2*u;
+	}
+
+	/**
+	 * Returns the relative rotation, as a rotation vector, between control point index-1 and index. Do not modify.
+	 */
+	public Vector3D_F64 getDelta( int index ) {
+		return deltas.get(index);
+	}
+}
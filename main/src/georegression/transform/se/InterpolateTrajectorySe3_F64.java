@@ -0,0 +1,491 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.transform.se;
+
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.geometry.UtilQuaternion_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Vector3D_F64;
+import georegression.struct.se.Se3Quaternion_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.so.Quaternion_F64;
+import lombok.Getter;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_F64;
+
+/**
+ * <p>
+ * Interpolates a trajectory made up of time stamped {@link Se3_F64} poses. Poses are stored in a ring buffer with
+ * a fixed capacity, when full the oldest pose is discarded. Designed for when a trajectory is queried at a very large
+ * number of time stamps, e.g. motion compensation of a LiDAR scan.
+ * </p>
+ *
+ * <ul>
+ *     <li>Rotations are stored as quaternions so that no conversions are needed when queried.</li>
+ *     <li>The segment containing the time is found with a binary search. The most recently used segment
+ *     is checked first, so sorted queries are found in constant time.</li>
+ *     <li>Values which only depend on the segment, e.g. the angle between the two rotations,
+ *     are computed once and cached.</li>
+ * </ul>
+ *
+ * <p>
+ * Time stamps must be strictly increasing. Queries are only valid between the first and last pose, the trajectory
+ * is never extrapolated.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class InterpolateTrajectorySe3_F64 {
+	/** Which type of interpolation is applied */
+	@Getter final Method method;
+
+	// Time stamps and poses in the ring buffer
+	final double[] times;
+	final Se3Quaternion_F64[] poses;
+	// Index of the oldest element in the ring buffer
+	int head;
+	/** Number of poses in the trajectory */
+	@Getter int size;
+
+	// The logical index of the segment which is cached. -1 if nothing is cached
+	int segment = -1;
+	// Time at the start of the segment and 1/(duration of the segment)
+	double segTime0, segInvDelta;
+	// Rotation at start and end of the segment. q1 has the same sign as q0
+	final Quaternion_F64 q0 = new Quaternion_F64();
+	final Quaternion_F64 q1 = new Quaternion_F64();
+	// Angle between q0 and q1 and sin() of that angle. Used by SLERP
+	double theta, sinTheta;
+	// Control points used by SQUAD and the angle between them
+	final Quaternion_F64 s0 = new Quaternion_F64();
+	final Quaternion_F64 s1 = new Quaternion_F64();
+	double thetaS, sinThetaS;
+	// Translation at the start and end of the segment
+	final Vector3D_F64 p0 = new Vector3D_F64();
+	final Vector3D_F64 p1 = new Vector3D_F64();
+	// Translation tangents, scaled by the segment duration
+	final Vector3D_F64 m0 = new Vector3D_F64();
+	final Vector3D_F64 m1 = new Vector3D_F64();
+
+	// Workspace
+	final Quaternion_F64 qa = new Quaternion_F64();
+	final Quaternion_F64 qb = new Quaternion_F64();
+	final Quaternion_F64 qc = new Quaternion_F64();
+	final Se3Quaternion_F64 work = new Se3Quaternion_F64();
+
+	/**
+	 * @param capacity Maximum number of poses stored
+	 * @param method Interpolation method
+	 */
+	public InterpolateTrajectorySe3_F64( int capacity, Method method ) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("Capacity must be at least one");
+		this.method = method;
+		this.times = new double[capacity];
+		this.poses = new Se3Quaternion_F64[capacity];
+		for (int i = 0; i < capacity; i++) {
+			poses[i] = new Se3Quaternion_F64();
+		}
+	}
+
+	/**
+	 * Adds a new pose to the end of the trajectory. If the buffer is full then the oldest pose is discarded.
+	 *
+	 * @param time Time stamp. Must be more than the time of the previous pose.
+	 * @param pose The pose. A copy is made.
+	 */
+	public void add( double time, Se3_F64 pose ) {
+		Se3Quaternion_F64 dst = addTime(time);
+		dst.setTo(pose);
+		enforceContinuity(dst);
+	}
+
+	/**
+	 * Same as {@link #add(double, Se3_F64)} but the pose is already encoded with a quaternion
+	 */
+	public void add( double time, Se3Quaternion_F64 pose ) {
+		Se3Quaternion_F64 dst = addTime(time);
+		dst.setTo(pose);
+		enforceContinuity(dst);
+	}
+
+	private Se3Quaternion_F64 addTime( double time ) {
+		if (size > 0 && time <= getTime(size - 1))
+			throw new IllegalArgumentException("Time stamps must be strictly increasing");
+
+		int index;
+		if (size < times.length) {
+			index = (head + size) % times.length;
+			size++;
+		} else {
+			index = head;
+			head = (head + 1) % times.length;
+		}
+		times[index] = time;
+		segment = -1;
+		return poses[index];
+	}
+
+	/**
+	 * q and -q are the same rotation. Flips the sign so that it's in the same hemisphere as the previous pose
+	 * and the interpolation doesn't take the long way around.
+	 */
+	private void enforceContinuity( Se3Quaternion_F64 pose ) {
+		pose.normalize();
+		if (size < 2)
+			return;
+		Quaternion_F64 prev = getPose(size - 2).q;
+		Quaternion_F64 q = pose.q;
+		if (UtilQuaternion_F64.dot(prev, q) < 0.0)
+			q.setTo(-q.w, -q.x, -q.y, -q.z);
+	}
+
+	/**
+	 * Interpolates the pose at the specified time
+	 *
+	 * @param time (Input) Time of the pose
+	 * @param output (Output) The pose
+	 * @return true if successful or false if the time is outside the trajectory.
+	 */
+	public boolean interpolate( double time, Se3Quaternion_F64 output ) {
+		if (!isInside(time))
+			return false;
+		compute(time, output);
+		return true;
+	}
+
+	/**
+	 * Interpolates the pose at the specified time
+	 *
+	 * @param time (Input) Time of the pose
+	 * @param output (Output) The pose
+	 * @return true if successful or false if the time is outside the trajectory.
+	 */
+	public boolean interpolate( double time, Se3_F64 output ) {
+		if (!isInside(time))
+			return false;
+		compute(time, work);
+		work.convertTo(output);
+		return true;
+	}
+
+	/**
+	 * Interpolates the pose at every time stamp. All time stamps must be inside the trajectory.
+	 *
+	 * @param times (Input) Time stamps
+	 * @param output (Output) Pose at each time stamp
+	 */
+	public void interpolate( DogArray_F64 times, DogArray<Se3_F64> output ) {
+		checkInside(times.data, 0, times.size);
+		output.resize(times.size);
+		for (int i = 0; i < times.size; i++) {
+			compute(times.data[i], work);
+			work.convertTo(output.get(i));
+		}
+	}
+
+	/**
+	 * Interpolates the pose at every time stamp and writes the results into packed arrays. All time stamps must be
+	 * inside the trajectory.
+	 *
+	 * @param times (Input) Array with time stamps
+	 * @param offset (Input) Index of the first time stamp
+	 * @param length (Input) Number of time stamps
+	 * @param quaternions (Output) Rotation for each time stamp. Stored as (w,x,y,z). Must have 4*length elements
+	 * @param translations (Output) Translation for each time stamp. Stored as (x,y,z). Must have 3*length elements
+	 */
+	public void interpolate( double[] times, int offset, int length, double[] quaternions, double[] translations ) {
+		checkInside(times, offset, length);
+		if (quaternions.length < 4*length || translations.length < 3*length)
+			throw new IllegalArgumentException("Output arrays are too small");
+
+		for (int i = 0; i < length; i++) {
+			compute(times[offset + i], work);
+			Quaternion_F64 q = work.q;
+			quaternions[i*4] = q.w;
+			quaternions[i*4 + 1] = q.x;
+			quaternions[i*4 + 2] = q.y;
+			quaternions[i*4 + 3] = q.z;
+			Vector3D_F64 T = work.T;
+			translations[i*3] = T.x;
+			translations[i*3 + 1] = T.y;
+			translations[i*3 + 2] = T.z;
+		}
+	}
+
+	private void checkInside( double[] times, int offset, int length ) {
+		for (int i = 0; i < length; i++) {
+			if (!isInside(times[offset + i]))
+				throw new IllegalArgumentException("Time stamp is outside the trajectory: " + times[offset + i]);
+		}
+	}
+
+	/**
+	 * Computes the pose. The time must be inside the trajectory.
+	 */
+	void compute( double time, Se3Quaternion_F64 output ) {
+		if (size == 1) {
+			output.setTo(getPose(0));
+			return;
+		}
+
+		selectSegment(findSegment(time));
+		double u = (time - segTime0)*segInvDelta;
+
+		switch (method) {
+			case LINEAR:
+				// normalized linear interpolation
+				output.q.setTo(
+						q0.w + u*(q1.w - q0.w),
+						q0.x + u*(q1.x - q0.x),
+						q0.y + u*(q1.y - q0.y),
+						q0.z + u*(q1.z - q0.z));
+				output.q.normalize();
+				linearTranslation(u, output.T);
+				break;
+
+			case SLERP:
+				slerp(q0, q1, theta, sinTheta, u, output.q);
+				linearTranslation(u, output.T);
+				break;
+
+			case CATMULL_ROM:
+				// SQUAD
+				slerp(q0, q1, theta, sinTheta, u, qa);
+				slerp(s0, s1, thetaS, sinThetaS, u, qb);
+				UtilQuaternion_F64.slerp(qa, qb, 2.0*u*(1.0 - u), output.q);
+
+				// Cubic Hermite spline
+				double u2 = u*u;
+				double u3 = u2*u;
+				double h00 = 2.0*u3 - 3.0*u2 + 1.0;
+				double h10 = u3 - 2.0*u2 + u;
+				double h01 = -2.0*u3 + 3.0*u2;
+				double h11 = u3 - u2;
+				output.T.setTo(
+						h00*p0.x + h10*m0.x + h01*p1.x + h11*m1.x,
+						h00*p0.y + h10*m0.y + h01*p1.y + h11*m1.y,
+						h00*p0.z + h10*m0.z + h01*p1.z + h11*m1.z);
+				break;
+
+			default:
+				throw new RuntimeException("Unknown method " + method);
+		}
+	}
+
+	private void linearTranslation( double u, Vector3D_F64 output ) {
+		output.setTo(
+				p0.x + u*(p1.x - p0.x),
+				p0.y + u*(p1.y - p0.y),
+				p0.z + u*(p1.z - p0.z));
+	}
+
+	/**
+	 * SLERP between q0 and q1 using the cached angle between them
+	 */
+	private static void slerp( Quaternion_F64 q0, Quaternion_F64 q1, double theta, double sinTheta,
+							   double u, Quaternion_F64 output ) {
+		double scale0, scale1;
+		if (sinTheta < GrlConstants.TEST_F64) {
+			scale0 = 1.0 - u;
+			scale1 = u;
+		} else {
+			scale0 = Math.sin((1.0 - u)*theta)/sinTheta;
+			scale1 = Math.sin(u*theta)/sinTheta;
+		}
+		output.setTo(
+				scale0*q0.w + scale1*q1.w,
+				scale0*q0.x + scale1*q1.x,
+				scale0*q0.y + scale1*q1.y,
+				scale0*q0.z + scale1*q1.z);
+	}
+
+	/**
+	 * Finds the segment which contains the time stamp. The segment is identified by the index of the pose
+	 * at its start.
+	 */
+	int findSegment( double time ) {
+		// Queries are often sorted. See if it's in the current or next segment
+		if (segment >= 0) {
+			if (time >= getTime(segment)) {
+				if (time <= getTime(segment + 1))
+					return segment;
+				if (segment + 2 < size && time <= getTime(segment + 2))
+					return segment + 1;
+			}
+		}
+
+		// Binary search for the last pose with a time less than or equal to the target
+		int low = 0;
+		int high = size - 2;
+		while (low < high) {
+			int middle = (low + high + 1)/2;
+			if (getTime(middle) <= time)
+				low = middle;
+			else
+				high = middle - 1;
+		}
+		return low;
+	}
+
+	/**
+	 * Computes all the values which only depend on the segment
+	 */
+	void selectSegment( int index ) {
+		if (segment == index)
+			return;
+		segment = index;
+
+		segTime0 = getTime(index);
+		double delta = getTime(index + 1) - segTime0;
+		segInvDelta = 1.0/delta;
+
+		Se3Quaternion_F64 a = getPose(index);
+		Se3Quaternion_F64 b = getPose(index + 1);
+		q0.setTo(a.q);
+		q1.setTo(b.q);
+		p0.setTo(a.T);
+		p1.setTo(b.T);
+
+		double cosTheta = UtilQuaternion_F64.dot(q0, q1);
+		if (cosTheta < 0.0) {
+			cosTheta = -cosTheta;
+			q1.setTo(-q1.w, -q1.x, -q1.y, -q1.z);
+		}
+		theta = Math.acos(Math.min(1.0, cosTheta));
+		sinTheta = Math.sin(theta);
+
+		if (method != Method.CATMULL_ROM)
+			return;
+
+		// Tangents are computed using finite difference and scaled so that they are relative to this segment
+		tangent(index, delta, m0);
+		tangent(index + 1, delta, m1);
+
+		squadControl(index, index + 1, q0, delta, s0);
+		squadControl(index + 1, index, q1, delta, s1);
+
+		double cosThetaS = UtilQuaternion_F64.dot(s0, s1);
+		if (cosThetaS < 0.0) {
+			cosThetaS = -cosThetaS;
+			s1.setTo(-s1.w, -s1.x, -s1.y, -s1.z);
+		}
+		thetaS = Math.acos(Math.min(1.0, cosThetaS));
+		sinThetaS = Math.sin(thetaS);
+	}
+
+	/**
+	 * Tangent of the translation at the specified pose
+	 */
+	private void tangent( int index, double delta, Vector3D_F64 tangent ) {
+		int prev = Integer.max(0, index - 1);
+		int next = Integer.min(size - 1, index + 1);
+		Vector3D_F64 a = getPose(prev).T;
+		Vector3D_F64 b = getPose(next).T;
+		double scale = delta/(getTime(next) - getTime(prev));
+		tangent.setTo((b.x - a.x)*scale, (b.y - a.y)*scale, (b.z - a.z)*scale);
+	}
+
+	/**
+	 * Computes the SQUAD control point for the pose at 'index'. The angular velocity is found using finite
+	 * difference, the same as the translation tangent, and scaled by the segment's duration. For evenly spaced
+	 * poses this reduces to the standard formula s = q*exp(-(log(q'*q[i+1]) + log(q'*q[i-1]))/4).
+	 *
+	 * @param index Index of the pose
+	 * @param other Index of the pose at the other end of the segment
+	 * @param q The rotation at 'index' with the same sign as used in the segment
+	 * @param delta Duration of the segment
+	 */
+	private void squadControl( int index, int other, Quaternion_F64 q, double delta, Quaternion_F64 control ) {
+		int prev = Integer.max(0, index - 1);
+		int next = Integer.min(size - 1, index + 1);
+
+		// angular velocity in log space, scaled by the segment duration
+		relativeLog(q, getPose(prev).q, qa);
+		relativeLog(q, getPose(next).q, qb);
+		double scale = delta/(getTime(next) - getTime(prev));
+		// tangent is in the direction of travel along the segment
+		if (other < index)
+			scale = -scale;
+		double wx = (qb.x - qa.x)*scale, wy = (qb.y - qa.y)*scale, wz = (qb.z - qa.z)*scale;
+
+		relativeLog(q, getPose(other).q, qa);
+		qc.setTo(0.0, (wx - qa.x)/2.0, (wy - qa.y)/2.0, (wz - qa.z)/2.0);
+		UtilQuaternion_F64.exp(qc, qc);
+		UtilQuaternion_F64.multiply(q, qc, control);
+		// Keep it on the same side as q so that SLERP between control points doesn't flip
+		if (UtilQuaternion_F64.dot(q, control) < 0.0)
+			control.setTo(-control.w, -control.x, -control.y, -control.z);
+	}
+
+	/**
+	 * log(conj(a)*b) along the shortest path
+	 */
+	private static void relativeLog( Quaternion_F64 a, Quaternion_F64 b, Quaternion_F64 output ) {
+		UtilQuaternion_F64.conjugate(a, output);
+		UtilQuaternion_F64.multiply(output, b, output);
+		if (output.w < 0.0)
+			output.setTo(-output.w, -output.x, -output.y, -output.z);
+		UtilQuaternion_F64.log(output, output);
+	}
+
+	/** True if the time is between the first and last pose, inclusive */
+	public boolean isInside( double time ) {
+		return size > 0 && time >= getTime(0) && time <= getTime(size - 1);
+	}
+
+	/** Time stamp of the pose at the index. 0 is the oldest pose. */
+	public double getTime( int index ) {
+		return times[(head + index) % times.length];
+	}
+
+	/**
+	 * Returns the pose at the index. 0 is the oldest pose. Do not modify.
+	 */
+	public Se3Quaternion_F64 getPose( int index ) {
+		return poses[(head + index) % times.length];
+	}
+
+	/** Maximum number of poses which can be stored */
+	public int getCapacity() {
+		return times.length;
+	}
+
+	/**
+	 * Removes all poses
+	 */
+	public void reset() {
+		head = 0;
+		size = 0;
+		segment = -1;
+	}
+
+	/** Interpolation methods */
+	public enum Method {
+		/** Normalized linear interpolation of quaternions and linear interpolation of translation. Fastest. */
+		LINEAR,
+		/** Spherical linear interpolation of rotation and linear interpolation of translation. */
+		SLERP,
+		/**
+		 * Smooth interpolation that passes through every pose. Catmull-Rom spline for translation and
+		 * SQUAD for rotation.
+		 */
+		CATMULL_ROM
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.transform.sim;
+
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.point.Vector3D_F64;
+import georegression.struct.sim.Sim3_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Applies similarity transforms to points.
+ *
+ * @author Peter Abeles
+ */
+public class SimPointOps_F64 {
+	/**
+	 * Applies a 3D similarity transform to an array of points.
+	 *
+	 * @param sim The transform.
+	 * @param points Array of points which are to be transformed. Modified.
+	 */
+	public static void transform( Sim3_F64 sim, Point3D_F64[] points, int start, int length ) {
+		for (int i = 0; i < length; i++) {
+			Point3D_F64 p = points[i + start];
+			transform(sim, p, p);
+		}
+	}
+
+	/**
+	 * Applies a 3D similarity transform to a list of points.
+	 *
+	 * @param sim The transform.
+	 * @param points List of points which are to be transformed. Modified.
+	 */
+	public static void transform( Sim3_F64 sim, List<Point3D_F64> points ) {
+		for (int i = 0; i < points.size(); i++) {
+			Point3D_F64 p = points.get(i);
+			transform(sim, p, p);
+		}
+	}
+
+	/**
+	 * <p>
+	 * Applies the similarity transform to a point.<br>
+	 * <br>
+	 * p' = s*R*p + T
+	 * </p>
+	 * <p>
+	 * Both src and dst can be the same instance.
+	 * </p>
+	 *
+	 * @param sim Similarity transform. Not modified.
+	 * @param src Original coordinate of the point. Not modified.
+	 * @param dst Storage for transformed coordinate of the point. Point declared if null. Modified.
+	 * @return Transformed point.
+	 */
+	public static Point3D_F64 transform( Sim3_F64 sim, Point3D_F64 src, @Nullable Point3D_F64 dst ) {
+		return transform(sim, src.x, src.y, src.z, dst);
+	}
+
+	public static Point3D_F64 transform( Sim3_F64 sim, double x, double y, double z, @Nullable Point3D_F64 dst ) {
+		if (dst == null)
+			dst = new Point3D_F64();
+
+		DMatrixRMaj R = sim.R;
+		Vector3D_F64 T = sim.T;
+		double s = sim.scale;
+
+		dst.x = s*(R.data[0]*x + R.data[1]*y + R.data[2]*z) + T.x;
+		dst.y = s*(R.data[3]*x + R.data[4]*y + R.data[5]*z) + T.y;
+		dst.z = s*(R.data[6]*x + R.data[7]*y + R.data[8]*z) + T.z;
+
+		return dst;
+	}
+
+	/**
+	 * <p>
+	 * Applies the transform in the reverse direction<br>
+	 * <br>
+	 * p = R<sup>T</sup>*(p'-T)/s
+	 * </p>
+	 * <p>
+	 * Both src and dst can be the same instance.
+	 * </p>
+	 *
+	 * @param sim Similarity transform. Not modified.
+	 * @param src Transformed coordinate of the point. Not modified.
+	 * @param dst Storage for the original coordinate of the point. Point declared if null. Modified.
+	 * @return Original point.
+	 */
+	public static Point3D_F64 transformReverse( Sim3_F64 sim, Point3D_F64 src, @Nullable Point3D_F64 dst ) {
+		if (dst == null)
+			dst = new Point3D_F64();
+
+		DMatrixRMaj R = sim.R;
+		Vector3D_F64 T = sim.T;
+		double inv = 1.0/sim.scale;
+
+		double x = src.x - T.x;
+		double y = src.y - T.y;
+		double z = src.z - T.z;
+
+		dst.x = inv*(R.data[0]*x + R.data[3]*y + R.data[6]*z);
+		dst.y = inv*(R.data[1]*x + R.data[4]*y + R.data[7]*z);
+		dst.z = inv*(R.data[2]*x + R.data[5]*y + R.data[8]*z);
+
+		return dst;
+	}
+}
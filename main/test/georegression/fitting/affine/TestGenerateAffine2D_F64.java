@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.affine;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.affine.Affine2D_F64;
+import georegression.struct.point.AssociatedPair2D_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.transform.affine.AffinePointOps_F64;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestGenerateAffine2D_F64 {
+	Random rand = new Random(234);
+
+	@Test void minimal() {
+		var alg = new GenerateAffine2D_F64();
+		for (int trial = 0; trial < 20; trial++) {
+			Affine2D_F64 truth = random();
+			List<AssociatedPair2D_F64> pairs = createPairs(truth, 3, 0.0);
+
+			var found = new Affine2D_F64();
+			assertTrue(alg.generate(pairs, found));
+			checkSame(truth, found, GrlConstants.TEST_F64*100);
+		}
+	}
+
+	/**
+	 * With more than the minimum it should be the same as the least squares solution
+	 */
+	@Test void leastSquares() {
+		Affine2D_F64 truth = random();
+		List<AssociatedPair2D_F64> pairs = createPairs(truth, 20, 0.5);
+		List<Point2D_F64> src = new ArrayList<>();
+		List<Point2D_F64> dst = new ArrayList<>();
+		for (AssociatedPair2D_F64 p : pairs) {
+			src.add(p.src);
+			dst.add(p.dst);
+		}
+		var expected = new MotionAffinePoint2D_F64();
+		assertTrue(expected.process(src, dst));
+
+		var found = new Affine2D_F64();
+		assertTrue(new GenerateAffine2D_F64().generate(pairs, found));
+		checkSame(expected.getTransformSrcToDst(), found, GrlConstants.TEST_F64*100);
+	}
+
+	@Test void packed() {
+		Affine2D_F64 truth = random();
+		List<AssociatedPair2D_F64> pairs = createPairs(truth, 6, 0.0);
+		double[] src = new double[12];
+		double[] dst = new double[12];
+		for (int i = 0; i < pairs.size(); i++) {
+			src[i*2] = pairs.get(i).src.x;
+			src[i*2 + 1] = pairs.get(i).src.y;
+			dst[i*2] = pairs.get(i).dst.x;
+			dst[i*2 + 1] = pairs.get(i).dst.y;
+		}
+
+		var found = new Affine2D_F64();
+		assertTrue(new GenerateAffine2D_F64().generate(src, dst, 4, 1, 2, found));
+		checkSame(truth, found, GrlConstants.TEST_F64*100);
+	}
+
+	@Test void collinear() {
+		List<AssociatedPair2D_F64> pairs = createPairs(random(), 3, 0.0);
+		pairs.get(0).src.setTo(1, 1);
+		pairs.get(1).src.setTo(2, 3);
+		pairs.get(2).src.setTo(3, 5);
+		assertFalse(new GenerateAffine2D_F64().generate(pairs, new Affine2D_F64()));
+
+		// scale shouldn't change the result
+		pairs.get(2).src.setTo(3.0e-6, 5.0e-6);
+		pairs.get(1).src.setTo(1.0e-6, 2.0e-6);
+		pairs.get(0).src.setTo(0, 0);
+		assertTrue(new GenerateAffine2D_F64().generate(pairs, new Affine2D_F64()));
+	}
+
+	@Test void getMinimumPoints() {
+		assertEquals(3, new GenerateAffine2D_F64().getMinimumPoints());
+	}
+
+	static void checkSame( Affine2D_F64 expected, Affine2D_F64 found, double tol ) {
+		assertEquals(expected.a11, found.a11, tol);
+		assertEquals(expected.a12, found.a12, tol);
+		assertEquals(expected.a21, found.a21, tol);
+		assertEquals(expected.a22, found.a22, tol);
+		assertEquals(expected.tx, found.tx, tol);
+		assertEquals(expected.ty, found.ty, tol);
+	}
+
+	Affine2D_F64 random() {
+		return new Affine2D_F64(1 + rand.nextGaussian()*0.3, rand.nextGaussian()*0.3, rand.nextGaussian()*0.3,
+				1 + rand.nextGaussian()*0.3, rand.nextGaussian()*10, rand.nextGaussian()*10);
+	}
+
+	List<AssociatedPair2D_F64> createPairs( Affine2D_F64 truth, int count, double noise ) {
+		List<AssociatedPair2D_F64> pairs = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			var src = new Point2D_F64(rand.nextGaussian()*10, rand.nextGaussian()*10);
+			Point2D_F64 dst = AffinePointOps_F64.transform(truth, src, null);
+			dst.x += rand.nextGaussian()*noise;
+			dst.y += rand.nextGaussian()*noise;
+			pairs.add(new AssociatedPair2D_F64(src, dst));
+		}
+		return pairs;
+	}
+}
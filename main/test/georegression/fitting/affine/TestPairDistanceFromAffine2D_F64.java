@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.affine;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.affine.Affine2D_F64;
+import georegression.struct.point.AssociatedPair2D_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.transform.affine.AffinePointOps_F64;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestPairDistanceFromAffine2D_F64 {
+	Random rand = new Random(234);
+
+	Affine2D_F64 model = new Affine2D_F64(1.1, 0.2, -0.3, 0.9, 4, -2);
+
+	@Test void distance() {
+		var src = new Point2D_F64(1, 2);
+		Point2D_F64 dst = AffinePointOps_F64.transform(model, src, null);
+		dst.x += 0.3;
+		dst.y -= 0.4;
+
+		var alg = new PairDistanceFromAffine2D_F64();
+		alg.setModel(model);
+		assertEquals(0.5, alg.distance(new AssociatedPair2D_F64(src, dst)), GrlConstants.TEST_F64);
+	}
+
+	@Test void distances() {
+		var alg = new PairDistanceFromAffine2D_F64();
+		alg.setModel(model);
+
+		List<AssociatedPair2D_F64> pairs = new ArrayList<>();
+		double[] src = new double[10];
+		double[] dst = new double[10];
+		for (int i = 0; i < 5; i++) {
+			var pair = new AssociatedPair2D_F64(rand.nextGaussian(), rand.nextGaussian(),
+					rand.nextGaussian(), rand.nextGaussian());
+			pairs.add(pair);
+			src[i*2] = pair.src.x;
+			src[i*2 + 1] = pair.src.y;
+			dst[i*2] = pair.dst.x;
+			dst[i*2 + 1] = pair.dst.y;
+		}
+		/**/double[] found = new /**/double[pairs.size()];
+		alg.distances(pairs, found);
+		for (int i = 0; i < pairs.size(); i++) {
+			assertEquals(alg.distance(pairs.get(i)), found[i]);
+		}
+
+		double[] foundPacked = new double[pairs.size()];
+		alg.distances(src, dst, pairs.size(), foundPacked);
+		for (int i = 0; i < pairs.size(); i++) {
+			assertEquals(found[i], foundPacked[i], GrlConstants.TEST_F64);
+		}
+		assertThrows(IllegalArgumentException.class, () -> alg.distances(src, dst, 6, new double[6]));
+	}
+}
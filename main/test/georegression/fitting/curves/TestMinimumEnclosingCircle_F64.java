@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.curves;
+
+import georegression.geometry.UtilPoint2D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.trig.Circle2D_F64;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_F64;
+import org.ddogleg.struct.DogArray_I32;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMinimumEnclosingCircle_F64 {
+	Random rand = new Random(234);
+
+	/**
+	 * Compare against checking every circle defined by 2 or 3 points
+	 */
+	@Test void compareToBruteForce() {
+		var alg = new MinimumEnclosingCircle_F64();
+		var found = new Circle2D_F64();
+		for (int trial = 0; trial < 50; trial++) {
+			List<Point2D_F64> points = UtilPoint2D_F64.random(-2, 3, 2 + trial%10, rand);
+			assertTrue(alg.process(points, found));
+			checkContains(points, found);
+			assertEquals(bruteForceRadius(points), found.radius, GrlConstants.TEST_F64);
+		}
+	}
+
+	@Test void ritter() {
+		var exact = new MinimumEnclosingCircle_F64();
+		var alg = new MinimumEnclosingCircle_F64();
+		alg.exact = false;
+		var expected = new Circle2D_F64();
+		var found = new Circle2D_F64();
+		for (int trial = 0; trial < 20; trial++) {
+			List<Point2D_F64> points = UtilPoint2D_F64.random(-2, 3, 200, rand);
+			assertTrue(exact.process(points, expected));
+			assertTrue(alg.process(points, found));
+			checkContains(points, found);
+			assertTrue(found.radius >= expected.radius - GrlConstants.TEST_F64);
+			assertTrue(found.radius <= expected.radius*1.3);
+		}
+	}
+
+	@Test void degenerate() {
+		var alg = new MinimumEnclosingCircle_F64();
+		var found = new Circle2D_F64();
+
+		assertFalse(alg.process(new ArrayList<>(), found));
+
+		// single point and duplicates
+		List<Point2D_F64> points = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			points.add(new Point2D_F64(1, 2));
+			assertTrue(alg.process(points, found));
+			assertEquals(0.0, found.center.distance(1, 2), GrlConstants.TEST_F64);
+			assertEquals(0.0, found.radius, GrlConstants.TEST_F64);
+		}
+
+		// collinear
+		points.clear();
+		for (int i = 0; i <= 10; i++) {
+			points.add(new Point2D_F64(i, 2*i));
+		}
+		assertTrue(alg.process(points, found));
+		assertEquals(0.0, found.center.distance(5, 10), GrlConstants.TEST_F64);
+		assertEquals(points.get(0).distance(points.get(10))/2.0, found.radius, GrlConstants.TEST_F64);
+	}
+
+	/**
+	 * The batch API should produce the same results as processing each group individually
+	 */
+	@Test void processBatch() {
+		var alg = new MinimumEnclosingCircle_F64();
+		var xy = new DogArray_F64();
+		var groupFirst = new DogArray_I32();
+		List<List<Point2D_F64>> groups = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			List<Point2D_F64> points = UtilPoint2D_F64.random(-2, 3, i == 2 ? 0 : 5 + i*10, rand);
+			groups.add(points);
+			groupFirst.add(xy.size/2);
+			for (Point2D_F64 p : points) {
+				xy.add(p.x);
+				xy.add(p.y);
+			}
+		}
+		groupFirst.add(xy.size/2);
+
+		var circles = new DogArray<>(Circle2D_F64::new);
+		alg.processBatch(xy.data, groupFirst, circles);
+		assertEquals(groups.size(), circles.size);
+
+		var expected = new Circle2D_F64();
+		for (int i = 0; i < groups.size(); i++) {
+			if (groups.get(i).isEmpty()) {
+				assertEquals(-1, circles.get(i).radius);
+				continue;
+			}
+			assertTrue(alg.process(groups.get(i), expected));
+			assertEquals(0.0, expected.center.distance(circles.get(i).center), GrlConstants.TEST_F64);
+			assertEquals(expected.radius, circles.get(i).radius, GrlConstants.TEST_F64);
+		}
+	}
+
+	static void checkContains( List<Point2D_F64> points, Circle2D_F64 circle ) {
+		for (Point2D_F64 p : points) {
+			assertTrue(p.distance(circle.center) <= circle.radius + GrlConstants.TEST_F64);
+		}
+	}
+
+	static double bruteForceRadius( List<Point2D_F64> points ) {
+		int N = points.size();
+		double best = Double.MAX_VALUE;
+		var candidate = new Circle2D_F64();
+		for (int a = 0; a < N; a++) {
+			for (int b = a + 1; b < N; b++) {
+				Point2D_F64 pa = points.get(a), pb = points.get(b);
+				candidate.setTo((pa.x + pb.x)/2, (pa.y + pb.y)/2, pa.distance(pb)/2);
+				best = selectBest(points, candidate, best);
+				for (int c = b + 1; c < N; c++) {
+					Point2D_F64 pc = points.get(c);
+					// circumcircle from the intersection of perpendicular bisectors
+					double d = 2*(pa.x*(pb.y - pc.y) + pb.x*(pc.y - pa.y) + pc.x*(pa.y - pb.y));
+					if (Math.abs(d) < 1.0e-12)
+						continue;
+					double a2 = pa.normSq(), b2 = pb.normSq(), c2 = pc.normSq();
+					double x = (a2*(pb.y - pc.y) + b2*(pc.y - pa.y) + c2*(pa.y - pb.y))/d;
+					double y = (a2*(pc.x - pb.x) + b2*(pa.x - pc.x) + c2*(pb.x - pa.x))/d;
+					candidate.setTo(x, y, pa.distance(x, y));
+					best = selectBest(points, candidate, best);
+				}
+			}
+		}
+		return best;
+	}
+
+	static double selectBest( List<Point2D_F64> points, Circle2D_F64 circle, double best ) {
+		if (circle.radius >= best)
+			return best;
+		for (Point2D_F64 p : points) {
+			if (p.distance(circle.center) > circle.radius + GrlConstants.TEST_F64)
+				return best;
+		}
+		return circle.radius;
+	}
+}
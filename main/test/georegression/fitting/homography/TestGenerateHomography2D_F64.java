@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.homography;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.homography.Homography2D_F64;
+import georegression.struct.point.AssociatedPair2D_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.transform.homography.HomographyPointOps_F64;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestGenerateHomography2D_F64 {
+	Random rand = new Random(234);
+
+	@Test void generate() {
+		Homography2D_F64 truth = TestMotionHomographyPoint2D_F64.random(rand);
+
+		var alg = new GenerateHomography2D_F64();
+		List<AssociatedPair2D_F64> pairs = new ArrayList<>();
+		for (int i = 0; i < alg.getMinimumPoints(); i++) {
+			var src = new Point2D_F64(rand.nextDouble()*640, rand.nextDouble()*480);
+			pairs.add(new AssociatedPair2D_F64(src, HomographyPointOps_F64.transform(truth, src, null)));
+		}
+
+		var found = new Homography2D_F64();
+		assertTrue(alg.generate(pairs, found));
+		TestMotionHomographyPoint2D_F64.checkSame(truth, found, GrlConstants.TEST_F64);
+
+		// collinear points should be rejected
+		for (int i = 0; i < 3; i++) {
+			pairs.get(i).src.setTo(i*10, i*5);
+		}
+		assertFalse(alg.generate(pairs, found));
+	}
+
+	@Test void getMinimumPoints() {
+		assertEquals(4, new GenerateHomography2D_F64().getMinimumPoints());
+	}
+}
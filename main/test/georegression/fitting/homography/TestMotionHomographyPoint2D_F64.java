@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.homography;
+
+import georegression.geometry.UtilPoint2D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.homography.Homography2D_F64;
+import georegression.struct.point.AssociatedPair2D_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.transform.homography.HomographyPointOps_F64;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMotionHomographyPoint2D_F64 {
+	Random rand = new Random(234);
+
+	@Test void minimal_noiseless() {
+		var alg = new MotionHomographyPoint2D_F64();
+		for (int trial = 0; trial < 50; trial++) {
+			Homography2D_F64 truth = random(rand);
+			List<Point2D_F64> src = UtilPoint2D_F64.random(0, 640, 4, rand);
+			List<Point2D_F64> dst = transform(truth, src);
+
+			assertTrue(alg.process(src, dst));
+			checkSame(truth, alg.getTransformSrcToDst(), 10*GrlConstants.TEST_F64);
+		}
+	}
+
+	@Test void linear_noiseless() {
+		var alg = new MotionHomographyPoint2D_F64();
+		for (int trial = 0; trial < 20; trial++) {
+			Homography2D_F64 truth = random(rand);
+			List<Point2D_F64> src = UtilPoint2D_F64.random(0, 640, 5 + trial, rand);
+			List<Point2D_F64> dst = transform(truth, src);
+
+			assertTrue(alg.process(src, dst));
+			checkSame(truth, alg.getTransformSrcToDst(), GrlConstants.TEST_F64);
+		}
+	}
+
+	/**
+	 * With noise the found homography should be close to the truth
+	 */
+	@Test void linear_noisy() {
+		Homography2D_F64 truth = random(rand);
+		List<Point2D_F64> src = UtilPoint2D_F64.random(0, 640, 200, rand);
+		List<Point2D_F64> dst = transform(truth, src);
+		for (Point2D_F64 p : dst) {
+			p.x += rand.nextGaussian()*0.5;
+			p.y += rand.nextGaussian()*0.5;
+		}
+
+		var alg = new MotionHomographyPoint2D_F64();
+		assertTrue(alg.process(src, dst));
+
+		var expected = new Point2D_F64();
+		var found = new Point2D_F64();
+		double totalError = 0;
+		for (Point2D_F64 p : src) {
+			HomographyPointOps_F64.transform(truth, p, expected);
+			HomographyPointOps_F64.transform(alg.getTransformSrcToDst(), p, found);
+			totalError += expected.distance(found);
+		}
+		assertTrue(totalError/src.size() < 0.2);
+	}
+
+	/**
+	 * If three of the points are collinear there is no unique solution
+	 */
+	@Test void minimal_degenerate() {
+		List<Point2D_F64> src = new ArrayList<>();
+		src.add(new Point2D_F64(0, 0));
+		src.add(new Point2D_F64(10, 10));
+		src.add(new Point2D_F64(20, 20));
+		src.add(new Point2D_F64(10, -5));
+		List<Point2D_F64> dst = transform(random(rand), src);
+
+		assertFalse(new MotionHomographyPoint2D_F64().process(src, dst));
+
+		// all the points are the same
+		for (Point2D_F64 p : src) {
+			p.setTo(1, 2);
+		}
+		assertFalse(new MotionHomographyPoint2D_F64().process(src, dst));
+	}
+
+	/**
+	 * All the different ways to pass in points should produce the same result
+	 */
+	@Test void process_pairsAndPacked() {
+		for (int count : new int[]{4, 10}) {
+			Homography2D_F64 truth = random(rand);
+			List<Point2D_F64> src = UtilPoint2D_F64.random(0, 640, count, rand);
+			List<Point2D_F64> dst = transform(truth, src);
+			List<AssociatedPair2D_F64> pairs = new ArrayList<>();
+			double[] packedSrc = new double[count*2];
+			double[] packedDst = new double[count*2];
+			for (int i = 0; i < count; i++) {
+				dst.get(i).x += rand.nextGaussian()*0.2;
+				pairs.add(new AssociatedPair2D_F64(src.get(i), dst.get(i)));
+				packedSrc[i*2] = src.get(i).x;
+				packedSrc[i*2 + 1] = src.get(i).y;
+				packedDst[i*2] = dst.get(i).x;
+				packedDst[i*2 + 1] = dst.get(i).y;
+			}
+
+			var alg = new MotionHomographyPoint2D_F64();
+			assertTrue(alg.process(src, dst));
+			Homography2D_F64 expected = alg.getTransformSrcToDst().copy();
+			assertTrue(alg.process(pairs));
+			checkSame(expected, alg.getTransformSrcToDst(), GrlConstants.TEST_F64);
+			assertTrue(alg.process(packedSrc, packedDst, count));
+			checkSame(expected, alg.getTransformSrcToDst(), GrlConstants.TEST_F64);
+
+			assertThrows(IllegalArgumentException.class, () -> alg.process(packedSrc, packedDst, count + 1));
+		}
+	}
+
+	@Test void tooFewPoints() {
+		List<Point2D_F64> src = UtilPoint2D_F64.random(0, 640, 3, rand);
+		assertThrows(IllegalArgumentException.class, () -> new MotionHomographyPoint2D_F64().process(src, src));
+	}
+
+	/**
+	 * Compares two homographies after normalizing their scale
+	 */
+	static void checkSame( Homography2D_F64 expected, Homography2D_F64 found, double tol ) {
+		Homography2D_F64 a = normalize(expected);
+		Homography2D_F64 b = normalize(found);
+		for (int row = 0; row < 3; row++) {
+			for (int col = 0; col < 3; col++) {
+				assertEquals(a.get(row, col), b.get(row, col), tol);
+			}
+		}
+	}
+
+	static Homography2D_F64 normalize( Homography2D_F64 H ) {
+		Homography2D_F64 out = H.copy();
+		double norm = 0;
+		for (int i = 0; i < 9; i++) {
+			norm += out.get(i/3, i%3)*out.get(i/3, i%3);
+		}
+		out.scale((out.a33 < 0 ? -1 : 1)/(double)Math.sqrt(norm));
+		return out;
+	}
+
+	static List<Point2D_F64> transform( Homography2D_F64 H, List<Point2D_F64> src ) {
+		List<Point2D_F64> dst = new ArrayList<>();
+		for (Point2D_F64 p : src) {
+			dst.add(HomographyPointOps_F64.transform(H, p, null));
+		}
+		return dst;
+	}
+
+	/** Random homography which is similar to what's found between two images */
+	static Homography2D_F64 random( Random rand ) {
+		return new Homography2D_F64(
+				1 + rand.nextGaussian()*0.1, rand.nextGaussian()*0.1, rand.nextGaussian()*20,
+				rand.nextGaussian()*0.1, 1 + rand.nextGaussian()*0.1, rand.nextGaussian()*20,
+				rand.nextGaussian()*1.0e-4, rand.nextGaussian()*1.0e-4, 1);
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.homography;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.homography.Homography2D_F64;
+import georegression.struct.point.AssociatedPair2D_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.transform.homography.HomographyPointOps_F64;
+import org.ejml.dense.fixed.CommonOps_DDF3;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestPairDistanceFromHomography2D_F64 {
+	Random rand = new Random(234);
+
+	@Test void distance() {
+		Homography2D_F64 H = TestMotionHomographyPoint2D_F64.random(rand);
+		var H_inv = new Homography2D_F64();
+		CommonOps_DDF3.invert(H, H_inv);
+
+		var src = new Point2D_F64(100, 20);
+		var dst = new Point2D_F64(130, -5);
+		Point2D_F64 forward = HomographyPointOps_F64.transform(H, src, null);
+		Point2D_F64 backward = HomographyPointOps_F64.transform(H_inv, dst, null);
+		double expected = forward.distance2(dst) + backward.distance2(src);
+
+		var alg = new PairDistanceFromHomography2D_F64();
+		alg.setModel(H);
+		assertEquals(expected, alg.distance(new AssociatedPair2D_F64(src, dst)), expected*GrlConstants.TEST_F64);
+
+		// scale of the homography shouldn't matter
+		H.scale(-0.1);
+		alg.setModel(H);
+		assertEquals(expected, alg.distance(new AssociatedPair2D_F64(src, dst)), expected*GrlConstants.TEST_F64);
+
+		// perfect match
+		assertEquals(0.0, alg.distance(new AssociatedPair2D_F64(src, forward)), GrlConstants.TEST_F64);
+	}
+
+	@Test void distances() {
+		var alg = new PairDistanceFromHomography2D_F64();
+		alg.setModel(TestMotionHomographyPoint2D_F64.random(rand));
+
+		List<AssociatedPair2D_F64> pairs = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			pairs.add(new AssociatedPair2D_F64(rand.nextDouble()*100, rand.nextDouble()*100,
+					rand.nextDouble()*100, rand.nextDouble()*100));
+		}
+		/**/double[] found = new /**/double[pairs.size()];
+		alg.distances(pairs, found);
+		for (int i = 0; i < pairs.size(); i++) {
+			assertEquals(alg.distance(pairs.get(i)), found[i]);
+		}
+	}
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.polygon;
+
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import org.ddogleg.struct.DogArray;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestConvexHullIncremental_F64 extends CommonConvexHullChecks_F64 {
+	@Override FitConvexHull_F64 createAlgorithm() {
+		return new ConvexHullIncremental_F64();
+	}
+
+	/**
+	 * Add points in batches and compare against computing the hull from scratch
+	 */
+	@Test void compareToBatch() {
+		var alg = new ConvexHullIncremental_F64();
+		var batch = new ConvexHullAndrewMonotone_F64();
+		var points = new DogArray<>(Point2D_F64::new);
+		var copy = new DogArray<>(Point2D_F64::new);
+		var expected = new Polygon2D_F64();
+		var found = new Polygon2D_F64();
+
+		for (int iteration = 0; iteration < 50; iteration++) {
+			int N = 1 + rand.nextInt(20);
+			for (int i = 0; i < N; i++) {
+				// Integer coordinates to create collinear and duplicate points
+				Point2D_F64 p = points.grow().setTo(rand.nextInt(30) - 15, rand.nextInt(30) - 15);
+				alg.add(p);
+			}
+
+			copy.reset();
+			points.forEach(p -> copy.grow().setTo(p));
+			batch.process(copy, expected);
+			alg.getHull(found);
+
+			assertEquals(expected.size(), alg.size());
+			assertEquals(expected.size(), found.size());
+			for (int i = 0; i < expected.size(); i++) {
+				assertEquals(0.0, expected.get(i).distance(found.get(i)));
+			}
+		}
+	}
+
+	/**
+	 * If every point is collinear the hull has two vertexes. They should be in the same order as the batch
+	 * algorithm, no matter which order the points were added in.
+	 */
+	@Test void compareToBatch_collinear() {
+		var alg = new ConvexHullIncremental_F64();
+		var batch = new ConvexHullAndrewMonotone_F64();
+		var points = new DogArray<>(Point2D_F64::new);
+		var expected = new Polygon2D_F64();
+		var found = new Polygon2D_F64();
+
+		for (int iteration = 0; iteration < 100; iteration++) {
+			// Integer direction so that the points are exactly collinear. Includes vertical lines
+			int dx = rand.nextInt(5) - 2, dy = rand.nextInt(5) - 2;
+			if (dx == 0 && dy == 0)
+				dx = 1;
+			points.reset();
+			int N = 3 + rand.nextInt(10);
+			for (int i = 0; i < N; i++) {
+				int t = rand.nextInt(20) - 10;
+				points.grow().setTo(3 + t*dx, -2 + t*dy);
+			}
+			// Make sure it isn't a single point
+			points.grow().setTo(3 + 11*dx, -2 + 11*dy);
+
+			alg.process(points, found);
+			batch.process(points, expected);
+
+			assertEquals(2, found.size());
+			assertEquals(expected.size(), found.size());
+			for (int i = 0; i < expected.size(); i++) {
+				assertEquals(0.0, expected.get(i).distance(found.get(i)));
+			}
+		}
+	}
+
+	/**
+	 * The vertexes are always sorted, even when there are only two points
+	 */
+	@Test void twoPoints() {
+		var alg = new ConvexHullIncremental_F64();
+		var found = new Polygon2D_F64();
+
+		alg.add(2, 1);
+		alg.add(-1, 3);
+		alg.getHull(found);
+		assertEquals(2, found.size());
+		assertEquals(0.0, found.get(0).distance(-1, 3));
+		assertEquals(0.0, found.get(1).distance(2, 1));
+	}
+
+	@Test void add_returnsChanged() {
+		var alg = new ConvexHullIncremental_F64();
+		assertTrue(alg.add(0, 0));
+		assertTrue(alg.add(4, 0));
+		assertTrue(alg.add(0, 4));
+		assertEquals(3, alg.size());
+
+		// inside, on an edge, and a duplicate
+		assertFalse(alg.add(1, 1));
+		assertFalse(alg.add(2, 0));
+		assertFalse(alg.add(0, 4));
+		assertEquals(3, alg.size());
+
+		// outside and it should remove a vertex
+		assertTrue(alg.add(5, 5));
+		assertEquals(4, alg.size());
+		assertTrue(alg.add(-1, 8));
+		assertEquals(4, alg.size());
+
+		alg.reset();
+		assertEquals(0, alg.size());
+		assertTrue(alg.add(1, 1));
+		assertEquals(1, alg.size());
+	}
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.polygon;
+
+import georegression.geometry.UtilPoint3D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.point.Vector3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.se.SpecialEuclideanOps_F64;
+import georegression.struct.shapes.HalfEdgeMesh3D_F64;
+import georegression.transform.se.SePointOps_F64;
+import org.ddogleg.struct.DogArray_I32;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestConvexHullQuick3D_F64 {
+	Random rand = new Random(234);
+
+	ConvexHullQuick3D_F64 createAlgorithm() {
+		return new ConvexHullQuick3D_F64();
+	}
+
+	/**
+	 * Every point should be inside or on the hull and the mesh should be a closed surface
+	 */
+	@Test void randomPoints() {
+		ConvexHullQuick3D_F64 alg = createAlgorithm();
+		var found = new HalfEdgeMesh3D_F64();
+
+		for (int trial = 0; trial < 5; trial++) {
+			List<Point3D_F64> points = UtilPoint3D_F64.random(-2, 3, 500 + trial*1000, rand);
+			assertTrue(alg.process(points, found));
+			checkHull(points, found);
+
+			// Vertexes should be input points
+			for (int i = 0; i < found.getVertexCount(); i++) {
+				Point3D_F64 p = points.get(alg.getVertexIndexes().get(i));
+				assertEquals(0.0, p.distance(found.vertexes.get(i)));
+			}
+		}
+	}
+
+	/**
+	 * Points on a cube's surface and inside. Coplanar triangles should be merged
+	 */
+	@Test void cube() {
+		List<Point3D_F64> points = new ArrayList<>();
+		for (int i = 0; i <= 4; i++) {
+			for (int j = 0; j <= 4; j++) {
+				for (int k = 0; k <= 4; k++) {
+					points.add(new Point3D_F64(i*0.5, j*0.5, k*0.5));
+				}
+			}
+		}
+
+		ConvexHullQuick3D_F64 alg = createAlgorithm();
+		var found = new HalfEdgeMesh3D_F64();
+		assertTrue(alg.process(points, found));
+		checkHull(points, found);
+		assertEquals(8, found.getVertexCount());
+		assertEquals(6, found.getFaceCount());
+		for (int face = 0; face < 6; face++) {
+			assertEquals(4, found.getFaceSize(face));
+		}
+		assertEquals(8.0, found.computeVolume(), GrlConstants.TEST_F64);
+		assertEquals(24.0, found.computeArea(), GrlConstants.TEST_F64);
+
+		// Without merging it should be triangles. Points on the cube's edges can be vertexes
+		alg.mergeCoplanar = false;
+		assertTrue(alg.process(points, found));
+		checkHull(points, found);
+		assertEquals(2*found.getVertexCount() - 4, found.getFaceCount());
+		assertEquals(8.0, found.computeVolume(), GrlConstants.TEST_F64);
+	}
+
+	/**
+	 * Every point on a sphere is on the hull
+	 */
+	@Test void sphere() {
+		List<Point3D_F64> points = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			var v = new Vector3D_F64(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian());
+			v.normalize();
+			points.add(new Point3D_F64(2 + 5*v.x, 5*v.y - 1, 5*v.z));
+		}
+
+		ConvexHullQuick3D_F64 alg = createAlgorithm();
+		var found = new HalfEdgeMesh3D_F64();
+		assertTrue(alg.process(points, found));
+		checkHull(points, found);
+		assertEquals(points.size(), found.getVertexCount());
+		// A triangulated closed surface has 2V-4 faces
+		assertEquals(2*points.size() - 4, found.getFaceCount());
+	}
+
+	/**
+	 * Results should be the same with and without pre-filtering
+	 */
+	@Test void prefilter() {
+		List<Point3D_F64> points = UtilPoint3D_F64.random(-2, 3, 2000, rand);
+
+		ConvexHullQuick3D_F64 alg = createAlgorithm();
+		var expected = new HalfEdgeMesh3D_F64();
+		var found = new HalfEdgeMesh3D_F64();
+		alg.prefilter = false;
+		assertTrue(alg.process(points, expected));
+		DogArray_I32 expectedIndexes = alg.getVertexIndexes().copy();
+
+		alg.prefilter = true;
+		assertTrue(alg.process(points, found));
+		checkHull(points, found);
+
+		assertEquals(expected.getFaceCount(), found.getFaceCount());
+		assertEquals(expected.computeVolume(), found.computeVolume(), GrlConstants.TEST_F64);
+		DogArray_I32 foundIndexes = alg.getVertexIndexes().copy();
+		expectedIndexes.sort();
+		foundIndexes.sort();
+		assertArrayEquals(expectedIndexes.toArray(), foundIndexes.toArray());
+	}
+
+	/**
+	 * Packed array input should produce the same results as a list
+	 */
+	@Test void packedArray() {
+		List<Point3D_F64> points = UtilPoint3D_F64.random(-2, 3, 300, rand);
+		double[] xyz = new double[points.size()*3 + 6];
+		for (int i = 0; i < points.size(); i++) {
+			xyz[i*3] = points.get(i).x;
+			xyz[i*3 + 1] = points.get(i).y;
+			xyz[i*3 + 2] = points.get(i).z;
+		}
+
+		ConvexHullQuick3D_F64 alg = createAlgorithm();
+		var expected = new HalfEdgeMesh3D_F64();
+		var found = new HalfEdgeMesh3D_F64();
+		assertTrue(alg.process(points, expected));
+		assertTrue(alg.process(xyz, points.size(), found));
+
+		assertEquals(expected.getVertexCount(), found.getVertexCount());
+		assertEquals(expected.getFaceCount(), found.getFaceCount());
+		assertEquals(expected.computeVolume(), found.computeVolume(), GrlConstants.TEST_F64);
+
+		assertThrows(IllegalArgumentException.class, () -> alg.process(xyz, points.size() + 3, found));
+	}
+
+	/**
+	 * If all the points are on a plane or line then it should fail
+	 */
+	@Test void degenerate() {
+		ConvexHullQuick3D_F64 alg = createAlgorithm();
+		var found = new HalfEdgeMesh3D_F64();
+
+		List<Point3D_F64> points = new ArrayList<>();
+		assertFalse(alg.process(points, found));
+
+		// too few points
+		points.add(new Point3D_F64(0, 0, 0));
+		points.add(new Point3D_F64(1, 0, 0));
+		points.add(new Point3D_F64(0, 1, 0));
+		assertFalse(alg.process(points, found));
+
+		// plane
+		for (int i = 0; i < 200; i++) {
+			points.add(new Point3D_F64(rand.nextDouble(), rand.nextDouble(), 0));
+		}
+		assertFalse(alg.process(points, found));
+		assertEquals(0, found.getVertexCount());
+
+		// line
+		points.clear();
+		for (int i = 0; i < 200; i++) {
+			points.add(new Point3D_F64(i, 2*i, -i));
+		}
+		assertFalse(alg.process(points, found));
+
+		// duplicate points
+		points.clear();
+		for (int i = 0; i < 10; i++) {
+			points.add(new Point3D_F64(1, 2, 3));
+		}
+		assertFalse(alg.process(points, found));
+	}
+
+	/**
+	 * Checks that the hull is a closed surface with outward normals which contains all the points
+	 */
+	public static void checkHull( List<Point3D_F64> points, HalfEdgeMesh3D_F64 hull ) {
+		assertTrue(hull.isConsistent());
+		assertTrue(hull.computeVolume() > 0.0);
+
+		var normal = new Vector3D_F64();
+		var vertexes = new DogArray_I32();
+		for (int face = 0; face < hull.getFaceCount(); face++) {
+			hull.computeFaceNormal(face, normal);
+			hull.getFaceVertexes(face, vertexes);
+			Point3D_F64 v = hull.vertexes.get(vertexes.get(0));
+			for (Point3D_F64 p : points) {
+				double d = normal.x*(p.x - v.x) + normal.y*(p.y - v.y) + normal.z*(p.z - v.z);
+				assertTrue(d <= GrlConstants.TEST_F64, "distance = " + d);
+			}
+		}
+	}
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.polygon;
+
+import georegression.geometry.UtilPoint3D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.shapes.HalfEdgeMesh3D_F64;
+import org.ddogleg.struct.DogArray_I32;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestConvexHullQuick3D_MT_F64 extends TestConvexHullQuick3D_F64 {
+	@Override ConvexHullQuick3D_F64 createAlgorithm() {
+		var alg = new ConvexHullQuick3D_MT_F64();
+		alg.minimumPointsConcurrent = 0;
+		return alg;
+	}
+
+	@Test void compareToSingleThread() {
+		var single = new ConvexHullQuick3D_F64();
+		var concurrent = new ConvexHullQuick3D_MT_F64();
+		concurrent.minimumPointsConcurrent = 0;
+
+		var expected = new HalfEdgeMesh3D_F64();
+		var found = new HalfEdgeMesh3D_F64();
+		for (int trial = 0; trial < 3; trial++) {
+			List<Point3D_F64> points = UtilPoint3D_F64.random(-2, 3, 5000, rand);
+			assertTrue(single.process(points, expected));
+			assertTrue(concurrent.process(points, found));
+
+			assertEquals(expected.getFaceCount(), found.getFaceCount());
+			assertEquals(expected.computeVolume(), found.computeVolume(), GrlConstants.TEST_F64);
+
+			DogArray_I32 expectedIndexes = single.getVertexIndexes().copy();
+			DogArray_I32 foundIndexes = concurrent.getVertexIndexes().copy();
+			expectedIndexes.sort();
+			foundIndexes.sort();
+			assertArrayEquals(expectedIndexes.toArray(), foundIndexes.toArray());
+		}
+	}
+}
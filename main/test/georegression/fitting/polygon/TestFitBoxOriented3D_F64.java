@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.polygon;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.se.SpecialEuclideanOps_F64;
+import georegression.struct.shapes.BoxOriented3D_F64;
+import georegression.transform.se.SePointOps_F64;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestFitBoxOriented3D_F64 {
+	Random rand = new Random(234);
+
+	/**
+	 * Points inside a rotated box, which includes the corners. The refined box should be the original box.
+	 */
+	@Test void rotatedBox() {
+		Se3_F64 boxToWorld = SpecialEuclideanOps_F64.eulerXyz(1, -2, 0.5, 0.3, 1.2, -0.4, null);
+		List<Point3D_F64> points = randomInBox(boxToWorld, 2.0, 1.0, 0.5, 500);
+
+		var alg = new FitBoxOriented3D_F64();
+		var found = new BoxOriented3D_F64();
+		assertTrue(alg.process(points, found));
+		assertEquals(1.0, found.volume(), 100*GrlConstants.TEST_F64);
+		checkBox(points, found);
+		assertEquals(0.0, found.pose.T.distance(boxToWorld.T), 100*GrlConstants.TEST_F64);
+
+		// Without refinement it will be larger
+		alg.refine = false;
+		var pca = new BoxOriented3D_F64();
+		assertTrue(alg.process(points, pca));
+		checkBox(points, pca);
+		assertTrue(pca.volume() >= found.volume() - GrlConstants.TEST_F64);
+	}
+
+	/**
+	 * Compare against a brute force search over orientations
+	 */
+	@Test void betterThanRandomOrientations() {
+		List<Point3D_F64> points = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			points.add(new Point3D_F64(rand.nextGaussian()*3, rand.nextGaussian(), rand.nextGaussian()*0.5 + 2*i/200.0));
+		}
+
+		var alg = new FitBoxOriented3D_F64();
+		var found = new BoxOriented3D_F64();
+		assertTrue(alg.process(points, found));
+		checkBox(points, found);
+
+		var axes = new Se3_F64();
+		for (int trial = 0; trial < 200; trial++) {
+			SpecialEuclideanOps_F64.eulerXyz(0, 0, 0, rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(), axes);
+			double volume = 1.0;
+			for (int axis = 0; axis < 3; axis++) {
+				double min = Double.MAX_VALUE, max = -Double.MAX_VALUE;
+				for (Point3D_F64 p : points) {
+					double v = axes.R.get(0, axis)*p.x + axes.R.get(1, axis)*p.y + axes.R.get(2, axis)*p.z;
+					min = Math.min(min, v);
+					max = Math.max(max, v);
+				}
+				volume *= max - min;
+			}
+			assertTrue(found.volume() <= volume);
+		}
+	}
+
+	/**
+	 * If all the points are on a plane the box should be flat
+	 */
+	@Test void planar() {
+		Se3_F64 boxToWorld = SpecialEuclideanOps_F64.eulerXyz(1, -2, 0.5, 0.3, 1.2, -0.4, null);
+		List<Point3D_F64> points = randomInBox(boxToWorld, 2.0, 1.0, 0.0, 100);
+
+		var alg = new FitBoxOriented3D_F64();
+		var found = new BoxOriented3D_F64();
+		assertTrue(alg.process(points, found));
+		checkBox(points, found);
+		assertEquals(0.0, found.volume(), GrlConstants.TEST_F64);
+		assertEquals(2.0, found.lengthX*found.lengthY + found.lengthX*found.lengthZ + found.lengthY*found.lengthZ,
+				100*GrlConstants.TEST_F64);
+
+		assertFalse(alg.process(new ArrayList<>(), found));
+	}
+
+	/**
+	 * Random points inside a box plus its corners
+	 */
+	List<Point3D_F64> randomInBox( Se3_F64 boxToWorld, double lx, double ly, double lz, int count ) {
+		List<Point3D_F64> points = new ArrayList<>();
+		var box = new BoxOriented3D_F64(boxToWorld, lx, ly, lz);
+		for (int i = 0; i < 8; i++) {
+			points.add(box.getCorner(i, null));
+		}
+		for (int i = 0; i < count; i++) {
+			var p = new Point3D_F64((rand.nextDouble() - 0.5)*lx, (rand.nextDouble() - 0.5)*ly, (rand.nextDouble() - 0.5)*lz);
+			points.add(SePointOps_F64.transform(boxToWorld, p, p));
+		}
+		return points;
+	}
+
+	/**
+	 * The box must contain all the points and have a valid rotation matrix
+	 */
+	static void checkBox( List<Point3D_F64> points, BoxOriented3D_F64 box ) {
+		assertEquals(1.0, CommonOps_DDRM.det(box.pose.R), GrlConstants.TEST_F64);
+		var local = new Point3D_F64();
+		for (Point3D_F64 p : points) {
+			SePointOps_F64.transformReverse(box.pose, p, local);
+			assertTrue(Math.abs(local.x) <= box.lengthX/2.0 + GrlConstants.TEST_F64);
+			assertTrue(Math.abs(local.y) <= box.lengthY/2.0 + GrlConstants.TEST_F64);
+			assertTrue(Math.abs(local.z) <= box.lengthZ/2.0 + GrlConstants.TEST_F64);
+		}
+	}
+}
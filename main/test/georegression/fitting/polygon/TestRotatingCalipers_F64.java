@@ -0,0 +1,267 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.polygon;
+
+import georegression.metric.Intersection2D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import georegression.struct.shapes.Quadrilateral_F64;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_I32;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestRotatingCalipers_F64 {
+	Random rand = new Random(234);
+
+	RotatingCalipers_F64 alg = new RotatingCalipers_F64();
+
+	/**
+	 * Rotated rectangle. Solution is the rectangle
+	 */
+	@Test void minimumAreaRectangle_rectangle() {
+		double c = Math.cos(0.4), s = Math.sin(0.4);
+		var polygon = new Polygon2D_F64(4);
+		polygon.get(0).setTo(1, 2);
+		polygon.get(1).setTo(1 + 4*c, 2 + 4*s);
+		polygon.get(2).setTo(1 + 4*c - 2*s, 2 + 4*s + 2*c);
+		polygon.get(3).setTo(1 - 2*s, 2 + 2*c);
+
+		var found = new Quadrilateral_F64();
+		assertTrue(alg.minimumAreaRectangle(polygon, found));
+		assertEquals(8.0, found.area(), GrlConstants.TEST_F64);
+		assertTrue(alg.minimumPerimeterRectangle(polygon, found));
+		assertEquals(8.0, found.area(), GrlConstants.TEST_F64);
+
+		// clockwise order should produce the same solution
+		polygon.flip();
+		assertTrue(alg.minimumAreaRectangle(polygon, found));
+		assertEquals(8.0, found.area(), GrlConstants.TEST_F64);
+	}
+
+	/**
+	 * Compare against brute force for random convex polygons
+	 */
+	@Test void rectangles_random() {
+		var found = new Quadrilateral_F64();
+		for (int trial = 0; trial < 50; trial++) {
+			Polygon2D_F64 polygon = randomConvex(3 + rand.nextInt(40));
+
+			assertTrue(alg.minimumAreaRectangle(polygon, found));
+			assertEquals(bruteForceRectangle(polygon, true), found.area(), GrlConstants.TEST_F64);
+			checkContains(polygon, found);
+
+			assertTrue(alg.minimumPerimeterRectangle(polygon, found));
+			double perimeter = 2.0*(found.a.distance(found.b) + found.b.distance(found.c));
+			assertEquals(bruteForceRectangle(polygon, false), perimeter, GrlConstants.TEST_F64);
+			checkContains(polygon, found);
+		}
+	}
+
+	@Test void rectangles_degenerate() {
+		var found = new Quadrilateral_F64();
+		assertFalse(alg.minimumAreaRectangle(new Polygon2D_F64(), found));
+
+		var polygon = new Polygon2D_F64(1);
+		polygon.get(0).setTo(2, 3);
+		assertTrue(alg.minimumAreaRectangle(polygon, found));
+		assertEquals(0.0, found.c.distance(2, 3));
+
+		// line segment
+		polygon = new Polygon2D_F64(2);
+		polygon.get(0).setTo(2, 3);
+		polygon.get(1).setTo(4, 3);
+		assertTrue(alg.minimumAreaRectangle(polygon, found));
+		assertEquals(0.0, found.area(), GrlConstants.TEST_F64);
+		assertEquals(2.0, found.a.distance(found.b), GrlConstants.TEST_F64);
+	}
+
+	@Test void diameter() {
+		for (int trial = 0; trial < 50; trial++) {
+			Polygon2D_F64 polygon = randomConvex(2 + rand.nextInt(40));
+
+			double expected = 0.0;
+			for (int i = 0; i < polygon.size(); i++) {
+				for (int j = i + 1; j < polygon.size(); j++) {
+					expected = Math.max(expected, polygon.get(i).distance(polygon.get(j)));
+				}
+			}
+			assertEquals(expected, alg.diameter(polygon), GrlConstants.TEST_F64);
+			assertEquals(expected, polygon.get(alg.getDiameterA()).distance(polygon.get(alg.getDiameterB())),
+					GrlConstants.TEST_F64);
+		}
+	}
+
+	@Test void width() {
+		for (int trial = 0; trial < 50; trial++) {
+			Polygon2D_F64 polygon = randomConvex(3 + rand.nextInt(40));
+
+			// The width is the smallest height from an edge
+			double expected = Double.MAX_VALUE;
+			for (int i = 0; i < polygon.size(); i++) {
+				Point2D_F64 a = polygon.get(i);
+				Point2D_F64 b = polygon.get((i + 1)%polygon.size());
+				double height = 0.0;
+				for (int j = 0; j < polygon.size(); j++) {
+					height = Math.max(height, distanceLine(a, b, polygon.get(j)));
+				}
+				expected = Math.min(expected, height);
+			}
+			assertEquals(expected, alg.width(polygon), GrlConstants.TEST_F64);
+			Point2D_F64 a = polygon.get(alg.getWidthEdge());
+			Point2D_F64 b = polygon.get((alg.getWidthEdge() + 1)%polygon.size());
+			assertEquals(expected, distanceLine(a, b, polygon.get(alg.getWidthVertex())), GrlConstants.TEST_F64);
+		}
+	}
+
+	/**
+	 * Compare against brute force using the range of directions each vertex is extreme along
+	 */
+	@Test void antipodalPairs_random() {
+		var pairs = new DogArray_I32();
+		for (int trial = 0; trial < 50; trial++) {
+			Polygon2D_F64 polygon = randomConvex(3 + rand.nextInt(30));
+			alg.antipodalPairs(polygon, pairs);
+
+			Set<Integer> found = new HashSet<>();
+			for (int i = 0; i < pairs.size; i += 2) {
+				int a = pairs.get(i), b = pairs.get(i + 1);
+				assertNotEquals(a, b);
+				// Each pair should only be found once
+				assertTrue(found.add(Integer.min(a, b)*1000 + Integer.max(a, b)));
+			}
+
+			int N = polygon.size();
+			for (int i = 0; i < N; i++) {
+				for (int j = i + 1; j < N; j++) {
+					assertEquals(isAntipodal(polygon, i, j), found.contains(i*1000 + j));
+				}
+			}
+		}
+	}
+
+	/**
+	 * A square has parallel edges. Every pair of vertexes is antipodal
+	 */
+	@Test void antipodalPairs_square() {
+		var polygon = new Polygon2D_F64(0, 0, 1, 0, 1, 1, 0, 1);
+		var pairs = new DogArray_I32();
+		alg.antipodalPairs(polygon, pairs);
+
+		Set<Integer> found = new HashSet<>();
+		for (int i = 0; i < pairs.size; i += 2) {
+			int a = pairs.get(i), b = pairs.get(i + 1);
+			found.add(Integer.min(a, b)*1000 + Integer.max(a, b));
+		}
+		assertEquals(6, found.size());
+		assertEquals(Math.sqrt(2), alg.diameter(polygon), GrlConstants.TEST_F64);
+		assertEquals(1.0, alg.width(polygon), GrlConstants.TEST_F64);
+	}
+
+	/**
+	 * Vertex i is extreme along directions between the outward normals of its two edges. i and j are antipodal
+	 * if a direction which i is extreme along is opposite to one that j is extreme along.
+	 */
+	static boolean isAntipodal( Polygon2D_F64 polygon, int i, int j ) {
+		double si = normalAngle(polygon, i - 1), ei = normalAngle(polygon, i);
+		double sj = normalAngle(polygon, j - 1) + GrlConstants.PI, ej = normalAngle(polygon, j) + GrlConstants.PI;
+		double wi = wrap(ei - si), wj = wrap(ej - sj);
+		return wrap(sj - si) <= wi || wrap(si - sj) <= wj;
+	}
+
+	static double normalAngle( Polygon2D_F64 polygon, int edge ) {
+		int N = polygon.size();
+		Point2D_F64 a = polygon.get((edge + N)%N);
+		Point2D_F64 b = polygon.get((edge + 1 + N)%N);
+		return Math.atan2(-(b.x - a.x), b.y - a.y);
+	}
+
+	static double wrap( double angle ) {
+		angle %= GrlConstants.PI2;
+		return angle < 0 ? angle + GrlConstants.PI2 : angle;
+	}
+
+	static double distanceLine( Point2D_F64 a, Point2D_F64 b, Point2D_F64 p ) {
+		double dx = b.x - a.x, dy = b.y - a.y;
+		return Math.abs(dx*(p.y - a.y) - dy*(p.x - a.x))/(double)Math.sqrt(dx*dx + dy*dy);
+	}
+
+	/**
+	 * The best rectangle has one side along an edge
+	 */
+	static double bruteForceRectangle( Polygon2D_F64 polygon, boolean area ) {
+		double best = Double.MAX_VALUE;
+		int N = polygon.size();
+		for (int i = 0; i < N; i++) {
+			Point2D_F64 a = polygon.get(i);
+			Point2D_F64 b = polygon.get((i + 1)%N);
+			double ux = b.x - a.x, uy = b.y - a.y;
+			double length = Math.sqrt(ux*ux + uy*uy);
+			ux /= length;
+			uy /= length;
+			double u0 = Double.MAX_VALUE, u1 = -Double.MAX_VALUE, v0 = Double.MAX_VALUE, v1 = -Double.MAX_VALUE;
+			for (int j = 0; j < N; j++) {
+				Point2D_F64 p = polygon.get(j);
+				double u = p.x*ux + p.y*uy;
+				double v = -p.x*uy + p.y*ux;
+				u0 = Math.min(u0, u);
+				u1 = Math.max(u1, u);
+				v0 = Math.min(v0, v);
+				v1 = Math.max(v1, v);
+			}
+			double score = area ? (u1 - u0)*(v1 - v0) : 2.0*((u1 - u0) + (v1 - v0));
+			best = Math.min(best, score);
+		}
+		return best;
+	}
+
+	static void checkContains( Polygon2D_F64 polygon, Quadrilateral_F64 quad ) {
+		// Shrink the polygon slightly towards its center to avoid issues with points on the boundary
+		Point2D_F64 center = new Point2D_F64();
+		for (int i = 0; i < polygon.size(); i++) {
+			center.x += polygon.get(i).x/polygon.size();
+			center.y += polygon.get(i).y/polygon.size();
+		}
+		for (int i = 0; i < polygon.size(); i++) {
+			Point2D_F64 p = polygon.get(i);
+			double x = center.x + (p.x - center.x)*(1.0 - GrlConstants.TEST_F64);
+			double y = center.y + (p.y - center.y)*(1.0 - GrlConstants.TEST_F64);
+			assertTrue(Intersection2D_F64.contains(quad, new Point2D_F64(x, y)));
+		}
+	}
+
+	Polygon2D_F64 randomConvex( int numPoints ) {
+		var points = new DogArray<>(Point2D_F64::new);
+		for (int i = 0; i < numPoints; i++) {
+			points.grow().setTo(rand.nextGaussian()*3 + 1, rand.nextGaussian() - 2);
+		}
+		var polygon = new Polygon2D_F64();
+		new ConvexHullAndrewMonotone_F64().process(points, polygon);
+		return polygon;
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.se;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.point.AssociatedPair2D_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.se.Se2_F64;
+import georegression.transform.se.SePointOps_F64;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestGenerateSe2FromPairs_F64 {
+	Random rand = new Random(234);
+
+	@Test void minimal() {
+		var alg = new GenerateSe2FromPairs_F64();
+		for (int trial = 0; trial < 20; trial++) {
+			var truth = new Se2_F64(rand.nextGaussian()*5, rand.nextGaussian()*5, (rand.nextDouble() - 0.5)*6);
+			List<AssociatedPair2D_F64> pairs = createPairs(truth, 2, 0.0);
+
+			var found = new Se2_F64();
+			assertTrue(alg.generate(pairs, found));
+			checkSame(truth, found, GrlConstants.TEST_F64*100);
+		}
+	}
+
+	/**
+	 * With noise it should be the same as the SVD solution. The SVD solution requires at least three points.
+	 */
+	@Test void compareToSvd() {
+		var truth = new Se2_F64(2, -4, 0.93);
+		for (int count : new int[]{3, 20}) {
+			List<AssociatedPair2D_F64> pairs = createPairs(truth, count, 0.5);
+			List<Point2D_F64> src = new ArrayList<>();
+			List<Point2D_F64> dst = new ArrayList<>();
+			for (AssociatedPair2D_F64 p : pairs) {
+				src.add(p.src);
+				dst.add(p.dst);
+			}
+			var expected = new MotionSe2PointSVD_F64();
+			assertTrue(expected.process(src, dst));
+
+			var found = new Se2_F64();
+			assertTrue(new GenerateSe2FromPairs_F64().generate(pairs, found));
+			checkSame(expected.getTransformSrcToDst(), found, GrlConstants.TEST_F64*100);
+		}
+	}
+
+	@Test void packed() {
+		var truth = new Se2_F64(1, 2, -2.5);
+		List<AssociatedPair2D_F64> pairs = createPairs(truth, 4, 0.0);
+		double[] src = new double[8];
+		double[] dst = new double[8];
+		for (int i = 0; i < pairs.size(); i++) {
+			src[i*2] = pairs.get(i).src.x;
+			src[i*2 + 1] = pairs.get(i).src.y;
+			dst[i*2] = pairs.get(i).dst.x;
+			dst[i*2 + 1] = pairs.get(i).dst.y;
+		}
+
+		var found = new Se2_F64();
+		assertTrue(new GenerateSe2FromPairs_F64().generate(src, dst, 3, 1, found));
+		checkSame(truth, found, GrlConstants.TEST_F64*100);
+	}
+
+	@Test void degenerate() {
+		List<AssociatedPair2D_F64> pairs = new ArrayList<>();
+		pairs.add(new AssociatedPair2D_F64(1, 2, 3, 4));
+		pairs.add(new AssociatedPair2D_F64(1, 2, 5, 6));
+		assertFalse(new GenerateSe2FromPairs_F64().generate(pairs, new Se2_F64()));
+	}
+
+	@Test void getMinimumPoints() {
+		assertEquals(2, new GenerateSe2FromPairs_F64().getMinimumPoints());
+	}
+
+	static void checkSame( Se2_F64 expected, Se2_F64 found, double tol ) {
+		assertEquals(expected.T.x, found.T.x, tol);
+		assertEquals(expected.T.y, found.T.y, tol);
+		assertEquals(expected.c, found.c, tol);
+		assertEquals(expected.s, found.s, tol);
+	}
+
+	List<AssociatedPair2D_F64> createPairs( Se2_F64 truth, int count, double noise ) {
+		List<AssociatedPair2D_F64> pairs = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			var src = new Point2D_F64(rand.nextGaussian()*10, rand.nextGaussian()*10);
+			Point2D_F64 dst = SePointOps_F64.transform(truth, src, null);
+			dst.x += rand.nextGaussian()*noise;
+			dst.y += rand.nextGaussian()*noise;
+			pairs.add(new AssociatedPair2D_F64(src, dst));
+		}
+		return pairs;
+	}
+}
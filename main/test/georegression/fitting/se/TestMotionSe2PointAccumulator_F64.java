@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.se;
+
+import georegression.geometry.UtilPoint2D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.se.Se2_F64;
+import georegression.transform.se.SePointOps_F64;
+import org.ddogleg.struct.DogArray_F64;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//CUSTOM ignore DogArray_F64
+//CUSTOM ignore org.ddogleg.struct.DogArray_F64;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMotionSe2PointAccumulator_F64 {
+
+	Random rand = new Random(234);
+
+	List<Point2D_F64> src = new ArrayList<>();
+	List<Point2D_F64> dst = new ArrayList<>();
+	DogArray_F64 weights = new DogArray_F64();
+
+	void createPoints( Se2_F64 tran, double offset, int N ) {
+		src.clear();
+		dst.clear();
+		weights.reset();
+		for (Point2D_F64 p : UtilPoint2D_F64.random(-10, 10, N, rand)) {
+			p.x += offset;
+			p.y -= offset;
+			Point2D_F64 q = SePointOps_F64.transform(tran, p, null);
+			q.x += rand.nextGaussian()*0.5;
+			q.y += rand.nextGaussian()*0.5;
+			src.add(p);
+			dst.add(q);
+			weights.add(rand.nextDouble()*2);
+		}
+	}
+
+	/**
+	 * Should produce the same solution as the batch weighted algorithm
+	 */
+	@Test void compareToBatch() {
+		var batch = new MotionSe2PointSVD_F64();
+		var alg = new MotionSe2PointAccumulator_F64();
+		var found = new Se2_F64();
+
+		for (int trial = 0; trial < 20; trial++) {
+			createPoints(new Se2_F64(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian()), 0, 30);
+
+			alg.reset();
+			for (int i = 0; i < src.size(); i++) {
+				alg.add(src.get(i), dst.get(i), weights.get(i));
+			}
+			assertEquals(src.size(), alg.getCount());
+			double totalWeight = 0;
+			for (int i = 0; i < weights.size; i++) {
+				totalWeight += weights.get(i);
+			}
+			assertEquals(totalWeight, alg.getTotalWeight(), GrlConstants.TEST_F64);
+
+			assertTrue(batch.process(src, dst, weights));
+			assertTrue(alg.compute(found));
+			checkSame(batch.getTransformSrcToDst(), found, GrlConstants.TEST_F64);
+		}
+	}
+
+	/**
+	 * Points are very far from the origin, relative to the floating point precision. Naively summing s*d^T loses all
+	 * precision here
+	 */
+	@Test void farFromOrigin() {
+		Se2_F64 tran = new Se2_F64(2, -3, 0.4);
+		createPoints(tran, 0.1/GrlConstants.TEST_F64, 50);
+
+		var batch = new MotionSe2PointSVD_F64();
+		var alg = new MotionSe2PointAccumulator_F64();
+		for (int i = 0; i < src.size(); i++) {
+			alg.add(src.get(i), dst.get(i), weights.get(i));
+		}
+		var found = new Se2_F64();
+		assertTrue(batch.process(src, dst, weights));
+		assertTrue(alg.compute(found));
+		assertEquals(batch.getTransformSrcToDst().getYaw(), found.getYaw(), GrlConstants.TEST_F64);
+	}
+
+	/**
+	 * Merging two accumulators should be the same as adding all the points to one
+	 */
+	@Test void addAccumulator() {
+		createPoints(new Se2_F64(2, -3, 0.4), 5, 30);
+
+		var all = new MotionSe2PointAccumulator_F64();
+		var a = new MotionSe2PointAccumulator_F64();
+		var b = new MotionSe2PointAccumulator_F64();
+		for (int i = 0; i < src.size(); i++) {
+			all.add(src.get(i), dst.get(i), weights.get(i));
+			if (i < 12)
+				a.add(src.get(i), dst.get(i), weights.get(i));
+			else
+				b.add(src.get(i), dst.get(i), weights.get(i));
+		}
+		a.add(b);
+
+		var expected = new Se2_F64();
+		var found = new Se2_F64();
+		assertTrue(all.compute(expected));
+		assertTrue(a.compute(found));
+		assertEquals(all.getCount(), a.getCount());
+		assertEquals(all.getTotalWeight(), a.getTotalWeight(), GrlConstants.TEST_F64);
+		checkSame(expected, found, GrlConstants.TEST_F64);
+
+		// merging into an empty accumulator should be a copy
+		var empty = new MotionSe2PointAccumulator_F64();
+		empty.add(all);
+		assertTrue(empty.compute(found));
+		checkSame(expected, found, GrlConstants.TEST_F64);
+	}
+
+	@Test void degenerate() {
+		var alg = new MotionSe2PointAccumulator_F64();
+		var found = new Se2_F64();
+		assertFalse(alg.compute(found));
+
+		// A single point doesn't constrain the rotation
+		alg.add(new Point2D_F64(1, 2), new Point2D_F64(3, 4));
+		assertFalse(alg.compute(found));
+
+		// reset should remove all the points
+		alg.add(new Point2D_F64(2, 2), new Point2D_F64(3, 5));
+		alg.reset();
+		assertEquals(0, alg.getCount());
+		assertFalse(alg.compute(found));
+	}
+
+	static void checkSame( Se2_F64 expected, Se2_F64 found, double tol ) {
+		assertEquals(expected.T.x, found.T.x, tol);
+		assertEquals(expected.T.y, found.T.y, tol);
+		assertEquals(expected.c, found.c, tol);
+		assertEquals(expected.s, found.s, tol);
+	}
+}
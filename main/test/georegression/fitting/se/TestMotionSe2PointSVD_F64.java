@@ -24,13 +24,17 @@ import georegression.misc.test.GeometryUnitTest;
 import georegression.struct.point.Point2D_F64;
 import georegression.struct.se.Se2_F64;
 import georegression.transform.se.SePointOps_F64;
+import org.ddogleg.struct.DogArray_F64;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
+
+//CUSTOM ignore DogArray_F64
+//CUSTOM ignore org.ddogleg.struct.DogArray_F64;
 
 /**
  * @author Peter Abeles
@@ -61,6 +65,50 @@ public class TestMotionSe2PointSVD_F64 {
 		checkTransform( src, dst, foundSrcToDst, GrlConstants.TEST_F64);
 	}
 
+	/**
+	 * Integer weights should be the same as repeating the points
+	 */
+	@Test
+	void weights() {
+		Se2_F64 tran = new Se2_F64( 2, -4, 0.93 );
+
+		List<Point2D_F64> src = UtilPoint2D_F64.random( -10, 10, 20, rand );
+		List<Point2D_F64> dst = new ArrayList<>();
+		for( Point2D_F64 p : src ) {
+			Point2D_F64 q = SePointOps_F64.transform(tran, p, null);
+			q.x += rand.nextGaussian()*0.5;
+			q.y += rand.nextGaussian()*0.5;
+			dst.add(q);
+		}
+
+		var weights = new DogArray_F64();
+		List<Point2D_F64> srcRepeated = new ArrayList<>();
+		List<Point2D_F64> dstRepeated = new ArrayList<>();
+		for( int i = 0; i < src.size(); i++ ) {
+			int copies = rand.nextInt(4);
+			weights.add(copies);
+			for( int j = 0; j < copies; j++ ) {
+				srcRepeated.add(src.get(i));
+				dstRepeated.add(dst.get(i));
+			}
+		}
+
+		var expected = new MotionSe2PointSVD_F64();
+		var alg = new MotionSe2PointSVD_F64();
+		assertTrue( expected.process( srcRepeated, dstRepeated ) );
+		assertTrue( alg.process( src, dst, weights ) );
+
+		Se2_F64 a = expected.getTransformSrcToDst();
+		Se2_F64 b = alg.getTransformSrcToDst();
+		assertEquals( a.T.x, b.T.x, GrlConstants.TEST_F64 );
+		assertEquals( a.T.y, b.T.y, GrlConstants.TEST_F64 );
+		assertEquals( a.getYaw(), b.getYaw(), GrlConstants.TEST_F64 );
+
+		// All zero weights is a failure
+		weights.fill(0);
+		assertFalse( alg.process( src, dst, weights ) );
+	}
+
 	public static void checkTransform( List<Point2D_F64> src, List<Point2D_F64> dst, Se2_F64 foundSrcToDst, double tol ) {
 		Point2D_F64 foundPt = new Point2D_F64();
 		for( int i = 0; i < src.size(); i++ ) {
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.se;
+
+import georegression.geometry.UtilPoint3D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.se.SpecialEuclideanOps_F64;
+import georegression.transform.se.SePointOps_F64;
+import org.ddogleg.struct.DogArray_F64;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//CUSTOM ignore DogArray_F64
+//CUSTOM ignore org.ddogleg.struct.DogArray_F64;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMotionSe3PointAccumulator_F64 {
+
+	Random rand = new Random(234);
+
+	List<Point3D_F64> src = new ArrayList<>();
+	List<Point3D_F64> dst = new ArrayList<>();
+	DogArray_F64 weights = new DogArray_F64();
+
+	void createPoints( Se3_F64 tran, double offset, int N ) {
+		src.clear();
+		dst.clear();
+		weights.reset();
+		for (Point3D_F64 p : UtilPoint3D_F64.random(-10, 10, N, rand)) {
+			p.x += offset;
+			p.y -= offset;
+			p.z += offset;
+			Point3D_F64 q = SePointOps_F64.transform(tran, p, null);
+			q.x += rand.nextGaussian()*0.5;
+			q.y += rand.nextGaussian()*0.5;
+			q.z += rand.nextGaussian()*0.5;
+			src.add(p);
+			dst.add(q);
+			weights.add(rand.nextDouble()*2);
+		}
+	}
+
+	Se3_F64 randomMotion() {
+		return SpecialEuclideanOps_F64.eulerXyz(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(),
+				rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(), null);
+	}
+
+	/**
+	 * Should produce the same solution as the batch weighted algorithm
+	 */
+	@Test void compareToBatch() {
+		var batch = new MotionSe3PointQuaternion_F64();
+		var alg = new MotionSe3PointAccumulator_F64();
+		var found = new Se3_F64();
+
+		for (int trial = 0; trial < 20; trial++) {
+			createPoints(randomMotion(), 0, 30);
+
+			alg.reset();
+			double totalWeight = 0;
+			for (int i = 0; i < src.size(); i++) {
+				alg.add(src.get(i), dst.get(i), weights.get(i));
+				totalWeight += weights.get(i);
+			}
+			assertEquals(src.size(), alg.getCount());
+			assertEquals(totalWeight, alg.getTotalWeight(), GrlConstants.TEST_F64);
+
+			assertTrue(batch.process(src, dst, weights));
+			assertTrue(alg.compute(found));
+			assertTrue(SpecialEuclideanOps_F64.isIdentical(batch.getTransformSrcToDst(), found,
+					GrlConstants.TEST_F64, GrlConstants.TEST_F64*100));
+		}
+	}
+
+	/**
+	 * Points are very far from the origin, relative to the floating point precision. Naively summing s*d^T loses all
+	 * precision here
+	 */
+	@Test void farFromOrigin() {
+		createPoints(randomMotion(), 0.1/GrlConstants.TEST_F64, 50);
+
+		var batch = new MotionSe3PointQuaternion_F64();
+		var alg = new MotionSe3PointAccumulator_F64();
+		for (int i = 0; i < src.size(); i++) {
+			alg.add(src.get(i), dst.get(i), weights.get(i));
+		}
+		var found = new Se3_F64();
+		assertTrue(batch.process(src, dst, weights));
+		assertTrue(alg.compute(found));
+
+		Se3_F64 expected = batch.getTransformSrcToDst();
+		for (int i = 0; i < 9; i++) {
+			assertEquals(expected.R.data[i], found.R.data[i], GrlConstants.TEST_F64);
+		}
+	}
+
+	/**
+	 * Merging two accumulators should be the same as adding all the points to one
+	 */
+	@Test void addAccumulator() {
+		createPoints(randomMotion(), 5, 30);
+
+		var all = new MotionSe3PointAccumulator_F64();
+		var a = new MotionSe3PointAccumulator_F64();
+		var b = new MotionSe3PointAccumulator_F64();
+		for (int i = 0; i < src.size(); i++) {
+			all.add(src.get(i), dst.get(i), weights.get(i));
+			if (i < 12)
+				a.add(src.get(i), dst.get(i), weights.get(i));
+			else
+				b.add(src.get(i), dst.get(i), weights.get(i));
+		}
+		a.add(b);
+
+		var expected = new Se3_F64();
+		var found = new Se3_F64();
+		assertTrue(all.compute(expected));
+		assertTrue(a.compute(found));
+		assertEquals(all.getCount(), a.getCount());
+		assertEquals(all.getTotalWeight(), a.getTotalWeight(), GrlConstants.TEST_F64);
+		assertTrue(SpecialEuclideanOps_F64.isIdentical(expected, found,
+				GrlConstants.TEST_F64, GrlConstants.TEST_F64*100));
+
+		// merging into an empty accumulator should be a copy
+		var empty = new MotionSe3PointAccumulator_F64();
+		empty.add(all);
+		assertTrue(empty.compute(found));
+		assertTrue(SpecialEuclideanOps_F64.isIdentical(expected, found,
+				GrlConstants.TEST_F64, GrlConstants.TEST_F64*100));
+	}
+
+	@Test void degenerate() {
+		var alg = new MotionSe3PointAccumulator_F64();
+		var found = new Se3_F64();
+		assertFalse(alg.compute(found));
+
+		// Zero weights are counted but have no influence
+		alg.add(new Point3D_F64(1, 2, 3), new Point3D_F64(3, 4, 5), 0.0);
+		assertEquals(1, alg.getCount());
+		assertFalse(alg.compute(found));
+
+		alg.reset();
+		assertEquals(0, alg.getCount());
+		assertEquals(0.0, alg.getTotalWeight());
+	}
+}
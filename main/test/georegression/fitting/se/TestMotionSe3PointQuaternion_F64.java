@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.se;
+
+import georegression.fitting.MotionTransformPoint;
+import georegression.geometry.UtilPoint3D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.se.SpecialEuclideanOps_F64;
+import georegression.transform.se.SePointOps_F64;
+import org.ddogleg.struct.DogArray_F64;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//CUSTOM ignore DogArray_F64
+//CUSTOM ignore org.ddogleg.struct.DogArray_F64;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMotionSe3PointQuaternion_F64 extends GeneralMotionSe3Tests_F64 {
+
+	@Override
+	MotionTransformPoint<Se3_F64, Point3D_F64> createAlg() {
+		return new MotionSe3PointQuaternion_F64();
+	}
+
+	/**
+	 * With noise it should produce the same solution as the SVD implementation
+	 */
+	@Test void compareToSvd() {
+		var svd = new MotionSe3PointSVD_F64();
+		var alg = new MotionSe3PointQuaternion_F64();
+		for (int trial = 0; trial < 50; trial++) {
+			Se3_F64 truth = SpecialEuclideanOps_F64.eulerXyz(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(),
+					4*rand.nextGaussian(), 4*rand.nextGaussian(), 4*rand.nextGaussian(), null);
+			List<Point3D_F64> src = UtilPoint3D_F64.random(-10, 10, 20, rand);
+			List<Point3D_F64> dst = new ArrayList<>();
+			for (Point3D_F64 p : src) {
+				Point3D_F64 q = SePointOps_F64.transform(truth, p, null);
+				q.x += rand.nextGaussian()*0.5;
+				q.y += rand.nextGaussian()*0.5;
+				q.z += rand.nextGaussian()*0.5;
+				dst.add(q);
+			}
+
+			assertTrue(svd.process(src, dst));
+			assertTrue(alg.process(src, dst));
+			assertTrue(SpecialEuclideanOps_F64.isIdentical(svd.getTransformSrcToDst(), alg.getTransformSrcToDst(),
+					GrlConstants.TEST_F64, GrlConstants.TEST_F64*100));
+		}
+	}
+
+	/**
+	 * Noise free and nearly collinear points. The two largest eigenvalues are close together, which makes
+	 * finding the eigenvector sensitive to errors in the eigenvalue. The SVD implementation is accurate here.
+	 */
+	@Test void nearlyCollinear() {
+		// The eigenvalue gap scales with offset squared. Make it as small as the precision allows
+		double offset = 30.0*GrlConstants.TEST_SQ_F64;
+		var alg = new MotionSe3PointQuaternion_F64();
+		for (int trial = 0; trial < 100; trial++) {
+			Se3_F64 truth = SpecialEuclideanOps_F64.eulerXyz(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(),
+					rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(), null);
+			// Used to place the line at an arbitrary location and orientation
+			Se3_F64 line = SpecialEuclideanOps_F64.eulerXyz(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(),
+					rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(), null);
+
+			List<Point3D_F64> src = new ArrayList<>();
+			src.add(SePointOps_F64.transform(line, new Point3D_F64(-1, 0, 0), null));
+			src.add(SePointOps_F64.transform(line, new Point3D_F64(1, 0, 0), null));
+			src.add(SePointOps_F64.transform(line, new Point3D_F64(0, offset, 0), null));
+			List<Point3D_F64> dst = new ArrayList<>();
+			for (Point3D_F64 p : src) {
+				dst.add(SePointOps_F64.transform(truth, p, null));
+			}
+
+			assertTrue(alg.process(src, dst));
+			Se3_F64 found = alg.getTransformSrcToDst();
+			assertTrue(MatrixFeatures_DDRM.isIdentical(truth.R, found.R, GrlConstants.TEST_F64));
+			assertTrue(truth.T.isIdentical(found.T, GrlConstants.TEST_F64));
+		}
+	}
+
+	/**
+	 * Integer weights should be the same as repeating the points
+	 */
+	@Test void weights() {
+		Se3_F64 truth = SpecialEuclideanOps_F64.eulerXyz(0.5, -1, 2, 0.1, 1.2, -0.4, null);
+		List<Point3D_F64> src = UtilPoint3D_F64.random(-10, 10, 20, rand);
+		List<Point3D_F64> dst = new ArrayList<>();
+		for (Point3D_F64 p : src) {
+			Point3D_F64 q = SePointOps_F64.transform(truth, p, null);
+			q.x += rand.nextGaussian()*0.5;
+			dst.add(q);
+		}
+
+		var weights = new DogArray_F64();
+		List<Point3D_F64> srcRepeated = new ArrayList<>();
+		List<Point3D_F64> dstRepeated = new ArrayList<>();
+		for (int i = 0; i < src.size(); i++) {
+			int count = 1 + i%3;
+			weights.add(count);
+			for (int j = 0; j < count; j++) {
+				srcRepeated.add(src.get(i));
+				dstRepeated.add(dst.get(i));
+			}
+		}
+
+		var expected = new MotionSe3PointQuaternion_F64();
+		var found = new MotionSe3PointQuaternion_F64();
+		assertTrue(expected.process(srcRepeated, dstRepeated));
+		assertTrue(found.process(src, dst, weights));
+		assertTrue(SpecialEuclideanOps_F64.isIdentical(expected.getTransformSrcToDst(), found.getTransformSrcToDst(),
+				GrlConstants.TEST_F64, GrlConstants.TEST_F64*100));
+
+		// zero weight should ignore an outlier
+		src.add(new Point3D_F64(1, 2, 3));
+		dst.add(new Point3D_F64(100, -50, 20));
+		weights.add(0);
+		assertTrue(found.process(src, dst, weights));
+		assertTrue(SpecialEuclideanOps_F64.isIdentical(expected.getTransformSrcToDst(), found.getTransformSrcToDst(),
+				GrlConstants.TEST_F64, GrlConstants.TEST_F64*100));
+	}
+
+	@Test void badWeights() {
+		List<Point3D_F64> src = UtilPoint3D_F64.random(-10, 10, 5, rand);
+		var alg = new MotionSe3PointQuaternion_F64();
+		assertThrows(IllegalArgumentException.class, () -> alg.process(src, src, new DogArray_F64()));
+
+		var weights = new DogArray_F64();
+		weights.resize(5, 0.0);
+		assertFalse(alg.process(src, src, weights));
+	}
+}
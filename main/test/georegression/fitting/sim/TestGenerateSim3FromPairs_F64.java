@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.sim;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.point.AssociatedPair3D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.sim.Sim3_F64;
+import georegression.struct.sim.TestSim3_F64;
+import georegression.transform.sim.SimPointOps_F64;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestGenerateSim3FromPairs_F64 {
+	Random rand = new Random(234);
+
+	@Test void generate() {
+		Sim3_F64 truth = TestSim3_F64.random(rand);
+
+		var alg = new GenerateSim3FromPairs_F64();
+		List<AssociatedPair3D_F64> pairs = new ArrayList<>();
+		for (int i = 0; i < alg.getMinimumPoints(); i++) {
+			var src = new Point3D_F64(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian());
+			pairs.add(new AssociatedPair3D_F64(src, SimPointOps_F64.transform(truth, src, null)));
+		}
+
+		var found = new Sim3_F64();
+		assertTrue(alg.generate(pairs, found));
+		double tol = GrlConstants.TEST_F64*10;
+		assertTrue(truth.isIdentical(found, tol, tol, tol));
+	}
+
+	@Test void getMinimumPoints() {
+		assertEquals(3, new GenerateSim3FromPairs_F64().getMinimumPoints());
+	}
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.sim;
+
+import georegression.struct.sim.Sim3_F64;
+import georegression.struct.sim.TestSim3_F64;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestModelManagerSim3_F64 {
+	@Test void createModelInstance() {
+		assertNotNull(new ModelManagerSim3_F64().createModelInstance());
+	}
+
+	@Test void copyModel() {
+		var alg = new ModelManagerSim3_F64();
+
+		Sim3_F64 model = TestSim3_F64.random(new Random(234));
+		var found = new Sim3_F64();
+		alg.copyModel(model, found);
+
+		assertTrue(model.isIdentical(found, 0.0, 0.0, 0.0));
+	}
+}
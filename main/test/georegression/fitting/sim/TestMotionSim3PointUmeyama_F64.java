@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.sim;
+
+import georegression.geometry.UtilPoint3D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.sim.Sim3_F64;
+import georegression.struct.sim.TestSim3_F64;
+import georegression.transform.sim.SimPointOps_F64;
+import org.ddogleg.struct.DogArray_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
+import org.ejml.interfaces.decomposition.SingularValueDecomposition_F64;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//CUSTOM ignore DogArray_F64
+//CUSTOM ignore org.ddogleg.struct.DogArray_F64;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMotionSim3PointUmeyama_F64 {
+	Random rand = new Random(234);
+
+	List<Point3D_F64> src = new ArrayList<>();
+	List<Point3D_F64> dst = new ArrayList<>();
+
+	void createPoints( Sim3_F64 truth, int N, double noise ) {
+		src = UtilPoint3D_F64.random(-10, 10, N, rand);
+		dst = new ArrayList<>();
+		for (Point3D_F64 p : src) {
+			Point3D_F64 q = SimPointOps_F64.transform(truth, p, null);
+			q.x += rand.nextGaussian()*noise;
+			q.y += rand.nextGaussian()*noise;
+			q.z += rand.nextGaussian()*noise;
+			dst.add(q);
+		}
+	}
+
+	@Test void noiseless() {
+		var alg = new MotionSim3PointUmeyama_F64();
+		for (int trial = 0; trial < 20; trial++) {
+			Sim3_F64 truth = TestSim3_F64.random(rand);
+			createPoints(truth, 20, 0.0);
+
+			assertTrue(alg.process(src, dst));
+			double tol = GrlConstants.TEST_F64*10;
+			assertTrue(truth.isIdentical(alg.getTransformSrcToDst(), tol, tol, tol*10));
+		}
+	}
+
+	/**
+	 * The minimum number of points is enough
+	 */
+	@Test void minimumPoints() {
+		var alg = new MotionSim3PointUmeyama_F64();
+		Sim3_F64 truth = TestSim3_F64.random(rand);
+		createPoints(truth, alg.getMinimumPoints(), 0.0);
+
+		assertTrue(alg.process(src, dst));
+		double tol = GrlConstants.TEST_F64*10;
+		assertTrue(truth.isIdentical(alg.getTransformSrcToDst(), tol, tol, tol*10));
+	}
+
+	/**
+	 * With noise compare against the SVD formulation in Umeyama's paper
+	 */
+	@Test void compareToSvd() {
+		var alg = new MotionSim3PointUmeyama_F64();
+		for (int trial = 0; trial < 20; trial++) {
+			createPoints(TestSim3_F64.random(rand), 15, 0.5);
+
+			assertTrue(alg.process(src, dst));
+			Sim3_F64 expected = umeyamaSvd(src, dst);
+			double tol = GrlConstants.TEST_F64*10;
+			assertTrue(expected.isIdentical(alg.getTransformSrcToDst(), tol, tol, tol*10));
+		}
+	}
+
+	/**
+	 * Integer weights should be the same as repeating the points
+	 */
+	@Test void weights() {
+		createPoints(TestSim3_F64.random(rand), 20, 0.5);
+
+		var weights = new DogArray_F64();
+		List<Point3D_F64> srcRepeated = new ArrayList<>();
+		List<Point3D_F64> dstRepeated = new ArrayList<>();
+		for (int i = 0; i < src.size(); i++) {
+			int copies = rand.nextInt(4);
+			weights.add(copies);
+			for (int j = 0; j < copies; j++) {
+				srcRepeated.add(src.get(i));
+				dstRepeated.add(dst.get(i));
+			}
+		}
+
+		var expected = new MotionSim3PointUmeyama_F64();
+		var alg = new MotionSim3PointUmeyama_F64();
+		assertTrue(expected.process(srcRepeated, dstRepeated));
+		assertTrue(alg.process(src, dst, weights));
+		double tol = GrlConstants.TEST_F64*10;
+		assertTrue(expected.getTransformSrcToDst().isIdentical(alg.getTransformSrcToDst(), tol, tol, tol*10));
+	}
+
+	@Test void degenerate() {
+		var alg = new MotionSim3PointUmeyama_F64();
+
+		// every source point is the same
+		src.clear();
+		dst.clear();
+		for (int i = 0; i < 5; i++) {
+			src.add(new Point3D_F64(1, 2, 3));
+			dst.add(new Point3D_F64(i, 2*i, 1));
+		}
+		assertFalse(alg.process(src, dst));
+
+		// no points
+		assertFalse(alg.process(new ArrayList<>(), new ArrayList<>()));
+
+		// size mismatch
+		dst.remove(0);
+		assertThrows(IllegalArgumentException.class, () -> alg.process(src, dst));
+	}
+
+	/**
+	 * Direct implementation of the equations in Umeyama's paper
+	 */
+	static Sim3_F64 umeyamaSvd( List<Point3D_F64> src, List<Point3D_F64> dst ) {
+		int N = src.size();
+		Point3D_F64 ms = UtilPoint3D_F64.mean(src, null);
+		Point3D_F64 md = UtilPoint3D_F64.mean(dst, null);
+
+		var Sigma = new DMatrixRMaj(3, 3);
+		double variance = 0;
+		for (int i = 0; i < N; i++) {
+			double[] s = {src.get(i).x - ms.x, src.get(i).y - ms.y, src.get(i).z - ms.z};
+			double[] d = {dst.get(i).x - md.x, dst.get(i).y - md.y, dst.get(i).z - md.z};
+			for (int row = 0; row < 3; row++) {
+				variance += s[row]*s[row]/N;
+				for (int col = 0; col < 3; col++) {
+					Sigma.data[row*3 + col] += d[row]*s[col]/N;
+				}
+			}
+		}
+
+		SingularValueDecomposition_F64<DMatrixRMaj> svd = DecompositionFactory_DDRM.svd(3, 3, true, true, false);
+		assertTrue(svd.decompose(Sigma));
+		DMatrixRMaj U = svd.getU(null, false);
+		DMatrixRMaj V = svd.getV(null, false);
+		double[] D = svd.getSingularValues();
+
+		var S = CommonOps_DDRM.identity(3);
+		if (CommonOps_DDRM.det(U)*CommonOps_DDRM.det(V) < 0) {
+			// singular values might not be sorted
+			int smallest = 0;
+			for (int i = 1; i < 3; i++) {
+				if (D[i] < D[smallest])
+					smallest = i;
+			}
+			S.set(smallest, smallest, -1);
+		}
+
+		var US = new DMatrixRMaj(3, 3);
+		var sim = new Sim3_F64();
+		CommonOps_DDRM.mult(U, S, US);
+		CommonOps_DDRM.multTransB(US, V, sim.R);
+		sim.scale = (D[0]*S.get(0, 0) + D[1]*S.get(1, 1) + D[2]*S.get(2, 2))/variance;
+
+		Point3D_F64 t = SimPointOps_F64.transform(sim, ms, null);
+		sim.T.setTo(md.x - t.x, md.y - t.y, md.z - t.z);
+		return sim;
+	}
+}
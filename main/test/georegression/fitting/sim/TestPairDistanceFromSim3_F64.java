@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.sim;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.point.AssociatedPair3D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.sim.Sim3_F64;
+import georegression.struct.sim.TestSim3_F64;
+import georegression.transform.sim.SimPointOps_F64;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestPairDistanceFromSim3_F64 {
+	Random rand = new Random(234);
+
+	@Test void distance() {
+		Sim3_F64 model = TestSim3_F64.random(rand);
+
+		var src = new Point3D_F64(1, 2, -0.5);
+		Point3D_F64 dst = SimPointOps_F64.transform(model, src, null);
+		dst.x += 0.3;
+		dst.z -= 0.4;
+
+		var alg = new PairDistanceFromSim3_F64();
+		alg.setModel(model);
+		assertEquals(0.5, alg.distance(new AssociatedPair3D_F64(src, dst)), GrlConstants.TEST_F64);
+	}
+
+	@Test void distances() {
+		Sim3_F64 model = TestSim3_F64.random(rand);
+		var alg = new PairDistanceFromSim3_F64();
+		alg.setModel(model);
+
+		List<AssociatedPair3D_F64> pairs = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			pairs.add(new AssociatedPair3D_F64(
+					new Point3D_F64(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian()),
+					new Point3D_F64(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian())));
+		}
+		/**/double[] found = new /**/double[pairs.size()];
+		alg.distances(pairs, found);
+		for (int i = 0; i < pairs.size(); i++) {
+			assertEquals(alg.distance(pairs.get(i)), found[i]);
+		}
+	}
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.so;
+
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.so.Quaternion_F64;
+import org.ejml.data.DMatrix3x3;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.NormOps_DDRM;
+import org.ejml.dense.row.mult.VectorVectorMult_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+class TestCrossCovarianceToQuaternion_F64 {
+	Random rand = new Random(234);
+
+	/**
+	 * Random matrices. Found eigenvector should be an eigenvector of N with the largest eigenvalue
+	 */
+	@Test void randomMatrices() {
+		var alg = new CrossCovarianceToQuaternion_F64();
+		var S = new DMatrix3x3();
+		for (int trial = 0; trial < 200; trial++) {
+			double scale = Math.pow(10, rand.nextInt(9) - 4);
+			S.setTo(rand.nextGaussian()*scale, rand.nextGaussian()*scale, rand.nextGaussian()*scale,
+					rand.nextGaussian()*scale, rand.nextGaussian()*scale, rand.nextGaussian()*scale,
+					rand.nextGaussian()*scale, rand.nextGaussian()*scale, rand.nextGaussian()*scale);
+			assertTrue(alg.process(S));
+			checkEigenvector(alg, S);
+		}
+	}
+
+	/**
+	 * Rotations of about 180 degrees have a quaternion with w close to zero
+	 */
+	@Test void rotation180() {
+		var alg = new CrossCovarianceToQuaternion_F64();
+		for (int axis = 0; axis < 3; axis++) {
+			double[] v = new double[3];
+			v[axis] = Math.PI;
+			DMatrixRMaj R = ConvertRotation3D_F64.rodriguesToMatrix(v[0], v[1], v[2], null);
+			// cross-covariance of points along the axis with the rotated points
+			var S = new DMatrix3x3(R.data[0], R.data[3], R.data[6], R.data[1], R.data[4], R.data[7],
+					R.data[2], R.data[5], R.data[8]);
+			assertTrue(alg.process(S));
+			checkEigenvector(alg, S);
+			DMatrixRMaj found = ConvertRotation3D_F64.quaternionToMatrix(alg.getQuaternion(), null);
+			assertTrue(MatrixFeatures_DDRM.isIdentical(R, found, GrlConstants.TEST_F64));
+		}
+	}
+
+	/**
+	 * Points along a line have a repeated eigenvalue and will need to use the fallback
+	 */
+	@Test void degenerate() {
+		var alg = new CrossCovarianceToQuaternion_F64();
+		// Points along the x-axis are mapped onto points along the x-axis. Any rotation around x is a solution
+		var S = new DMatrix3x3(2, 0, 0, 0, 0, 0, 0, 0, 0);
+		assertTrue(alg.process(S));
+		checkEigenvector(alg, S);
+		DMatrixRMaj R = ConvertRotation3D_F64.quaternionToMatrix(alg.getQuaternion(), null);
+		assertEquals(1.0, R.get(0, 0), GrlConstants.TEST_F64);
+
+		// no information
+		assertFalse(alg.process(new DMatrix3x3()));
+	}
+
+	private static void checkEigenvector( CrossCovarianceToQuaternion_F64 alg, DMatrix3x3 S ) {
+		DMatrixRMaj N = horn(S);
+		Quaternion_F64 q = alg.getQuaternion();
+		var v = new DMatrixRMaj(new double[][]{{q.w}, {q.x}, {q.y}, {q.z}});
+		var Nv = new DMatrixRMaj(4, 1);
+		CommonOps_DDRM.mult(N, v, Nv);
+
+		double scale = CommonOps_DDRM.elementMaxAbs(N);
+		assertEquals(1.0, NormOps_DDRM.normF(v), GrlConstants.TEST_F64);
+		for (int i = 0; i < 4; i++) {
+			assertEquals(alg.getEigenvalue()*v.data[i], Nv.data[i], scale*GrlConstants.TEST_F64);
+		}
+
+		// It should be the largest eigenvalue. The quadratic form can't be larger for any unit vector
+		var rand = new Random(2);
+		for (int trial = 0; trial < 100; trial++) {
+			var u = new DMatrixRMaj(4, 1);
+			for (int i = 0; i < 4; i++) {
+				u.data[i] = rand.nextGaussian();
+			}
+			CommonOps_DDRM.divide(u, NormOps_DDRM.normF(u));
+			var Nu = new DMatrixRMaj(4, 1);
+			CommonOps_DDRM.mult(N, u, Nu);
+			assertTrue(VectorVectorMult_DDRM.innerProd(u, Nu) <= alg.getEigenvalue() + scale*GrlConstants.TEST_F64);
+		}
+	}
+
+	/** Horn's 4x4 matrix */
+	private static DMatrixRMaj horn( DMatrix3x3 S ) {
+		double sxx = S.a11, sxy = S.a12, sxz = S.a13;
+		double syx = S.a21, syy = S.a22, syz = S.a23;
+		double szx = S.a31, szy = S.a32, szz = S.a33;
+		return new DMatrixRMaj(new double[][]{
+				{sxx + syy + szz, syz - szy, szx - sxz, sxy - syx},
+				{syz - szy, sxx - syy - szz, sxy + syx, szx + sxz},
+				{szx - sxz, sxy + syx, -sxx + syy - szz, syz + szy},
+				{sxy - syx, szx + sxz, syz + szy, -sxx - syy + szz}});
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.so;
+
+import georegression.fitting.MotionTransformPoint;
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.geometry.GeometryMath_F64;
+import georegression.geometry.UtilPoint3D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.EulerType;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.so.So3_F64;
+import org.ddogleg.struct.DogArray_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//CUSTOM ignore DogArray_F64
+//CUSTOM ignore org.ddogleg.struct.DogArray_F64;
+
+/**
+ * @author Peter Abeles
+ */
+class TestMotionSo3PointQuaternion_F64 extends GeneralMotionSo3Tests_F64 {
+	@Override
+	MotionTransformPoint<So3_F64, Point3D_F64> createAlg() {
+		return new MotionSo3PointQuaternion_F64();
+	}
+
+	/**
+	 * With noise and weights it should produce the same solution as the SVD implementation with repeated points
+	 */
+	@Test void weightedCompareToSvd() {
+		var svd = new MotionSo3PointSVD_F64();
+		var alg = new MotionSo3PointQuaternion_F64();
+		for (int trial = 0; trial < 20; trial++) {
+			DMatrixRMaj R = ConvertRotation3D_F64.eulerToMatrix(EulerType.XYZ, rand.nextGaussian(),
+					rand.nextGaussian(), rand.nextGaussian(), null);
+			List<Point3D_F64> src = UtilPoint3D_F64.random(-10, 10, 20, rand);
+			List<Point3D_F64> dst = new ArrayList<>();
+			var weights = new DogArray_F64();
+			List<Point3D_F64> srcRepeated = new ArrayList<>();
+			List<Point3D_F64> dstRepeated = new ArrayList<>();
+			for (int i = 0; i < src.size(); i++) {
+				Point3D_F64 q = GeometryMath_F64.mult(R, src.get(i), (Point3D_F64)null);
+				q.x += rand.nextGaussian()*0.5;
+				q.y += rand.nextGaussian()*0.5;
+				dst.add(q);
+				int count = 1 + i%2;
+				weights.add(count);
+				for (int j = 0; j < count; j++) {
+					srcRepeated.add(src.get(i));
+					dstRepeated.add(q);
+				}
+			}
+
+			assertTrue(svd.process(srcRepeated, dstRepeated));
+			assertTrue(alg.process(src, dst, weights));
+			assertTrue(MatrixFeatures_DDRM.isIdentical(svd.getTransformSrcToDst().R, alg.getTransformSrcToDst().R,
+					GrlConstants.TEST_F64));
+		}
+	}
+}
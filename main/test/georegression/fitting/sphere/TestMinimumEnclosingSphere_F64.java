@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.sphere;
+
+import georegression.geometry.UtilPoint3D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.shapes.Sphere3D_F64;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_F64;
+import org.ddogleg.struct.DogArray_I32;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMinimumEnclosingSphere_F64 {
+	Random rand = new Random(234);
+
+	/**
+	 * Compare against checking every sphere defined by 2 to 4 points
+	 */
+	@Test void compareToBruteForce() {
+		var alg = new MinimumEnclosingSphere_F64();
+		var found = new Sphere3D_F64();
+		for (int trial = 0; trial < 50; trial++) {
+			List<Point3D_F64> points = UtilPoint3D_F64.random(-2, 3, 3 + trial%8, rand);
+			assertTrue(alg.process(points, found));
+			checkContains(points, found);
+
+			double expected = bruteForceRadius(points);
+			assertEquals(expected, found.radius, GrlConstants.TEST_F64);
+		}
+	}
+
+	@Test void ritter() {
+		var exact = new MinimumEnclosingSphere_F64();
+		var alg = new MinimumEnclosingSphere_F64();
+		alg.exact = false;
+		var expected = new Sphere3D_F64();
+		var found = new Sphere3D_F64();
+		for (int trial = 0; trial < 20; trial++) {
+			List<Point3D_F64> points = UtilPoint3D_F64.random(-2, 3, 200, rand);
+			assertTrue(exact.process(points, expected));
+			assertTrue(alg.process(points, found));
+			checkContains(points, found);
+			assertTrue(found.radius >= expected.radius - GrlConstants.TEST_F64);
+			// Ritter is typically within 20%
+			assertTrue(found.radius <= expected.radius*1.3);
+		}
+	}
+
+	/**
+	 * Points on the surface of a sphere should find that sphere
+	 */
+	@Test void pointsOnSphere() {
+		var sphere = new Sphere3D_F64(1, -2, 0.5, 3);
+		List<Point3D_F64> points = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			double x = rand.nextGaussian(), y = rand.nextGaussian(), z = rand.nextGaussian();
+			double n = Math.sqrt(x*x + y*y + z*z);
+			points.add(new Point3D_F64(
+					sphere.center.x + sphere.radius*x/n,
+					sphere.center.y + sphere.radius*y/n,
+					sphere.center.z + sphere.radius*z/n));
+		}
+
+		var found = new Sphere3D_F64();
+		assertTrue(new MinimumEnclosingSphere_F64().process(points, found));
+		assertEquals(0.0, found.center.distance(sphere.center), 1.0e-2);
+		assertEquals(sphere.radius, found.radius, 1.0e-2);
+		checkContains(points, found);
+	}
+
+	@Test void degenerate() {
+		var alg = new MinimumEnclosingSphere_F64();
+		var found = new Sphere3D_F64();
+
+		assertFalse(alg.process(new ArrayList<>(), found));
+
+		// single point
+		List<Point3D_F64> points = new ArrayList<>();
+		points.add(new Point3D_F64(1, 2, 3));
+		assertTrue(alg.process(points, found));
+		assertEquals(0.0, found.center.distance(points.get(0)), GrlConstants.TEST_F64);
+		assertEquals(0.0, found.radius, GrlConstants.TEST_F64);
+
+		// duplicates
+		for (int i = 0; i < 10; i++) {
+			points.add(new Point3D_F64(1, 2, 3));
+		}
+		assertTrue(alg.process(points, found));
+		assertEquals(0.0, found.radius, GrlConstants.TEST_F64);
+
+		// collinear
+		points.clear();
+		for (int i = 0; i <= 10; i++) {
+			points.add(new Point3D_F64(i, 2*i, -i));
+		}
+		assertTrue(alg.process(points, found));
+		assertEquals(0.0, found.center.distance(5, 10, -5), GrlConstants.TEST_F64);
+		assertEquals(points.get(0).distance(points.get(10))/2.0, found.radius, GrlConstants.TEST_F64);
+		checkContains(points, found);
+
+		// coplanar
+		points.clear();
+		for (int i = 0; i < 30; i++) {
+			points.add(new Point3D_F64(rand.nextGaussian(), rand.nextGaussian(), 2.0));
+		}
+		assertTrue(alg.process(points, found));
+		assertEquals(2.0, found.center.z, GrlConstants.TEST_F64);
+		checkContains(points, found);
+	}
+
+	/**
+	 * The batch API should produce the same results as processing each group individually
+	 */
+	@Test void processBatch() {
+		var alg = new MinimumEnclosingSphere_F64();
+		var xyz = new DogArray_F64();
+		var groupFirst = new DogArray_I32();
+		List<List<Point3D_F64>> groups = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			// include an empty group
+			List<Point3D_F64> points = UtilPoint3D_F64.random(-2, 3, i == 3 ? 0 : 5 + i*10, rand);
+			groups.add(points);
+			groupFirst.add(xyz.size/3);
+			for (Point3D_F64 p : points) {
+				xyz.add(p.x);
+				xyz.add(p.y);
+				xyz.add(p.z);
+			}
+		}
+		groupFirst.add(xyz.size/3);
+
+		var spheres = new DogArray<>(Sphere3D_F64::new);
+		alg.processBatch(xyz.data, groupFirst, spheres);
+		assertEquals(groups.size(), spheres.size);
+
+		var expected = new Sphere3D_F64();
+		for (int i = 0; i < groups.size(); i++) {
+			if (groups.get(i).isEmpty()) {
+				assertEquals(-1, spheres.get(i).radius);
+				continue;
+			}
+			assertTrue(alg.process(groups.get(i), expected));
+			assertEquals(0.0, expected.center.distance(spheres.get(i).center), GrlConstants.TEST_F64);
+			assertEquals(expected.radius, spheres.get(i).radius, GrlConstants.TEST_F64);
+		}
+	}
+
+	@Test void process_array_bounds() {
+		var alg = new MinimumEnclosingSphere_F64();
+		assertThrows(IllegalArgumentException.class, () -> alg.process(new double[8], 0, 3, new Sphere3D_F64()));
+		assertThrows(IllegalArgumentException.class, () -> alg.process(new double[9], 1, 3, new Sphere3D_F64()));
+	}
+
+	static void checkContains( List<Point3D_F64> points, Sphere3D_F64 sphere ) {
+		for (Point3D_F64 p : points) {
+			assertTrue(p.distance(sphere.center) <= sphere.radius + GrlConstants.TEST_F64);
+		}
+	}
+
+	/**
+	 * Smallest sphere defined by 2, 3, or 4 points which contains all the points
+	 */
+	static double bruteForceRadius( List<Point3D_F64> points ) {
+		var alg = new MinimumEnclosingSphere_F64();
+		alg.xyz = new double[points.size()*3];
+		for (int i = 0; i < points.size(); i++) {
+			alg.xyz[i*3] = points.get(i).x;
+			alg.xyz[i*3 + 1] = points.get(i).y;
+			alg.xyz[i*3 + 2] = points.get(i).z;
+		}
+
+		int N = points.size();
+		double best = Double.MAX_VALUE;
+		for (int a = 0; a < N; a++) {
+			for (int b = a + 1; b < N; b++) {
+				alg.setSphere(a, b);
+				best = selectBest(alg, N, best);
+				for (int c = b + 1; c < N; c++) {
+					alg.setSphere(a, b, c);
+					best = selectBest(alg, N, best);
+					for (int d = c + 1; d < N; d++) {
+						alg.setSphere(a, b, c, d);
+						best = selectBest(alg, N, best);
+					}
+				}
+			}
+		}
+		return Math.sqrt(best);
+	}
+
+	static double selectBest( MinimumEnclosingSphere_F64 alg, int N, double best ) {
+		if (alg.radiusSq >= best)
+			return best;
+		for (int i = 0; i < N; i++) {
+			if (!alg.isInside(i))
+				return best;
+		}
+		return alg.radiusSq;
+	}
+}
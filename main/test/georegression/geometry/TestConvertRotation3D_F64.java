@@ -566,4 +566,122 @@ public class TestConvertRotation3D_F64 {
 			}
 		}
 	}
+
+	@Test
+	void quaternionToMatrix_array() {
+		int N = 20, offsetQ = 3, offsetR = 5;
+		double[] quats = new double[offsetQ + N*4];
+		double[] matrices = new double[offsetR + N*9];
+		for (int i = 0; i < N; i++) {
+			Quaternion_F64 q = randomQuaternion();
+			quats[offsetQ + i*4] = q.w;
+			quats[offsetQ + i*4 + 1] = q.x;
+			quats[offsetQ + i*4 + 2] = q.y;
+			quats[offsetQ + i*4 + 3] = q.z;
+		}
+
+		ConvertRotation3D_F64.quaternionToMatrix(quats, offsetQ, matrices, offsetR, N);
+
+		for (int i = 0; i < N; i++) {
+			int q = offsetQ + i*4;
+			DMatrixRMaj expected = ConvertRotation3D_F64.quaternionToMatrix(quats[q], quats[q + 1], quats[q + 2], quats[q + 3], null);
+			for (int j = 0; j < 9; j++) {
+				assertEquals(expected.data[j], matrices[offsetR + i*9 + j], UtilEjml.TEST_F64);
+			}
+		}
+		// elements before the offset should not be modified
+		for (int i = 0; i < offsetR; i++) {
+			assertEquals(0.0, matrices[i]);
+		}
+	}
+
+	@Test
+	void matrixToQuaternion_array() {
+		int N = 20, offsetR = 2, offsetQ = 7;
+		double[] matrices = new double[offsetR + N*9];
+		double[] quats = new double[offsetQ + N*4];
+		for (int i = 0; i < N; i++) {
+			DMatrixRMaj R = ConvertRotation3D_F64.quaternionToMatrix(randomQuaternion(), null);
+			System.arraycopy(R.data, 0, matrices, offsetR + i*9, 9);
+		}
+
+		ConvertRotation3D_F64.matrixToQuaternion(matrices, offsetR, quats, offsetQ, N);
+
+		var R = new DMatrixRMaj(3, 3);
+		for (int i = 0; i < N; i++) {
+			System.arraycopy(matrices, offsetR + i*9, R.data, 0, 9);
+			Quaternion_F64 expected = ConvertRotation3D_F64.matrixToQuaternion(R, null);
+			int q = offsetQ + i*4;
+			assertEquals(expected.w, quats[q], UtilEjml.TEST_F64);
+			assertEquals(expected.x, quats[q + 1], UtilEjml.TEST_F64);
+			assertEquals(expected.y, quats[q + 2], UtilEjml.TEST_F64);
+			assertEquals(expected.z, quats[q + 3], UtilEjml.TEST_F64);
+		}
+	}
+
+	@Test
+	void eulerToQuaternion_array() {
+		int N = 20, offsetE = 1, offsetQ = 2;
+		double[] euler = new double[offsetE + N*3];
+		double[] quats = new double[offsetQ + N*4];
+		for (int i = offsetE; i < euler.length; i++) {
+			euler[i] = GrlConstants.PI2*(rand.nextDouble() - 0.5);
+		}
+
+		var expected = new Quaternion_F64();
+		for (EulerType type : EulerType.values()) {
+			ConvertRotation3D_F64.eulerToQuaternion(type, euler, offsetE, quats, offsetQ, N);
+			for (int i = 0; i < N; i++) {
+				int e = offsetE + i*3;
+				ConvertRotation3D_F64.eulerToQuaternion(type, euler[e], euler[e + 1], euler[e + 2], expected);
+				int q = offsetQ + i*4;
+				assertEquals(expected.w, quats[q], UtilEjml.TEST_F64);
+				assertEquals(expected.x, quats[q + 1], UtilEjml.TEST_F64);
+				assertEquals(expected.y, quats[q + 2], UtilEjml.TEST_F64);
+				assertEquals(expected.z, quats[q + 3], UtilEjml.TEST_F64);
+			}
+		}
+	}
+
+	@Test
+	void quaternionToEuler_array() {
+		int N = 20, offsetQ = 4, offsetE = 3;
+		double[] quats = new double[offsetQ + N*4];
+		double[] euler = new double[offsetE + N*3];
+		for (int i = 0; i < N; i++) {
+			Quaternion_F64 q = randomQuaternion();
+			quats[offsetQ + i*4] = q.w;
+			quats[offsetQ + i*4 + 1] = q.x;
+			quats[offsetQ + i*4 + 2] = q.y;
+			quats[offsetQ + i*4 + 3] = q.z;
+		}
+
+		for (EulerType type : EulerType.values()) {
+			ConvertRotation3D_F64.quaternionToEuler(quats, offsetQ, type, euler, offsetE, N);
+			for (int i = 0; i < N; i++) {
+				int q = offsetQ + i*4;
+				var quat = new Quaternion_F64(quats[q], quats[q + 1], quats[q + 2], quats[q + 3]);
+				double[] expected = ConvertRotation3D_F64.quaternionToEuler(quat, type, null);
+				for (int j = 0; j < 3; j++) {
+					assertEquals(expected[j], euler[offsetE + i*3 + j], UtilEjml.TEST_F64);
+				}
+			}
+		}
+	}
+
+	@Test
+	void bulk_arrayTooSmall() {
+		assertThrows(IllegalArgumentException.class,
+				() -> ConvertRotation3D_F64.quaternionToMatrix(new double[8], 0, new double[17], 0, 2));
+		assertThrows(IllegalArgumentException.class,
+				() -> ConvertRotation3D_F64.quaternionToMatrix(new double[8], 1, new double[18], 0, 2));
+		assertThrows(IllegalArgumentException.class,
+				() -> ConvertRotation3D_F64.matrixToQuaternion(new double[18], 0, new double[7], 0, 2));
+	}
+
+	private Quaternion_F64 randomQuaternion() {
+		var q = new Quaternion_F64(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian());
+		q.normalize();
+		return q;
+	}
 }
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.EulerType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestConvertRotation3D_MT_F64 {
+	Random rand = new Random(234);
+
+	int N = 1000;
+
+	@Test void compareToSingleThread() {
+		// make sure it runs it with the threaded code
+		int minimumConcurrent = ConvertRotation3D_MT_F64.minimumConcurrent;
+		ConvertRotation3D_MT_F64.minimumConcurrent = 0;
+		try {
+			compare();
+		} finally {
+			ConvertRotation3D_MT_F64.minimumConcurrent = minimumConcurrent;
+		}
+	}
+
+	private void compare() {
+		double[] euler = new double[2 + N*3];
+		for (int i = 0; i < euler.length; i++) {
+			euler[i] = GrlConstants.PI2*(rand.nextDouble() - 0.5);
+		}
+
+		for (EulerType type : EulerType.values()) {
+			double[] quatsSingle = new double[1 + N*4];
+			double[] quatsMulti = new double[1 + N*4];
+			ConvertRotation3D_F64.eulerToQuaternion(type, euler, 2, quatsSingle, 1, N);
+			ConvertRotation3D_MT_F64.eulerToQuaternion(type, euler, 2, quatsMulti, 1, N);
+			assertArrayEquals(quatsSingle, quatsMulti);
+
+			double[] eulerSingle = new double[N*3];
+			double[] eulerMulti = new double[N*3];
+			ConvertRotation3D_F64.quaternionToEuler(quatsSingle, 1, type, eulerSingle, 0, N);
+			ConvertRotation3D_MT_F64.quaternionToEuler(quatsSingle, 1, type, eulerMulti, 0, N);
+			assertArrayEquals(eulerSingle, eulerMulti);
+		}
+
+		double[] quats = new double[1 + N*4];
+		ConvertRotation3D_F64.eulerToQuaternion(EulerType.XYZ, euler, 2, quats, 1, N);
+
+		double[] matSingle = new double[3 + N*9];
+		double[] matMulti = new double[3 + N*9];
+		ConvertRotation3D_F64.quaternionToMatrix(quats, 1, matSingle, 3, N);
+		ConvertRotation3D_MT_F64.quaternionToMatrix(quats, 1, matMulti, 3, N);
+		assertArrayEquals(matSingle, matMulti);
+
+		double[] quatsSingle = new double[N*4];
+		double[] quatsMulti = new double[N*4];
+		ConvertRotation3D_F64.matrixToQuaternion(matSingle, 3, quatsSingle, 0, N);
+		ConvertRotation3D_MT_F64.matrixToQuaternion(matSingle, 3, quatsMulti, 0, N);
+		assertArrayEquals(quatsSingle, quatsMulti);
+	}
+}
@@ -18,8 +18,9 @@
 
 package georegression.geometry;
 
+import georegression.geometry.lines.IntersectionSegmentsSweep_F64;
 import georegression.geometry.polygon.ThreeIndexes;
-import georegression.geometry.polygon.TriangulateSimpleRemoveEars_F64;
+import georegression.geometry.polygon.TriangulateMonotone_F64;
 import georegression.struct.point.Point2D_F64;
 import georegression.struct.shapes.*;
 import org.ddogleg.struct.DogArray;
@@ -28,6 +29,7 @@ import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static georegression.misc.GrlConstants.TEST_F64;
 import static org.junit.jupiter.api.Assertions.*;
@@ -150,6 +152,46 @@ public class TestUtilPolygons2D_F64 {
 		assertTrue(UtilPolygons2D_F64.isSelfIntersectingBrute(a.flip(null), tol));
 	}
 
+	/**
+	 * Compare against brute force using hand crafted and random polygons
+	 */
+	@Test void isSelfIntersecting() {
+		double tol = UtilEjml.TEST_F64;
+		List<Polygon2D_F64> polygons = new ArrayList<>();
+		polygons.add(new Polygon2D_F64(new double[][]{{0, 0}, {5, 5}, {-5, 5}}));
+		polygons.add(new Polygon2D_F64(new double[][]{{0, 0}, {0, 5}, {-2.5,2.5}, {-5, 5}, {-5,0}}));
+		polygons.add(new Polygon2D_F64(new double[][]{{0, 0}, {0, 2}, {0, 3}, {0, 5}, {1,5}, {1,0}}));
+		polygons.add(new Polygon2D_F64(new double[][]{{0, 0}, {0, 2}, {1, 2}, {0,3}, {0, 5}, {2,5}, {2,0}}));
+		polygons.add(new Polygon2D_F64(new double[][]{{0, 0}, {0, 5}, {0, 1}}));
+		polygons.add(new Polygon2D_F64(new double[][]{{0, 0}, {0, 5}, {0, 1}, {0, 5}}));
+		polygons.add(new Polygon2D_F64(new double[][]{{0, 0}, {5, 5}, {0, 5}, {5,0}}));
+
+		// Random polygons on a coarse grid will have lots of degenerate situations
+		var rand = new Random(234);
+		for (int trial = 0; trial < 500; trial++) {
+			var p = new Polygon2D_F64(3 + rand.nextInt(8));
+			for (int i = 0; i < p.size(); i++) {
+				p.get(i).setTo(rand.nextInt(6), rand.nextInt(6));
+			}
+			polygons.add(p);
+		}
+
+		// The same sweep is used for every polygon to make sure it's reset between calls
+		var sweep = new IntersectionSegmentsSweep_F64();
+		sweep.tol = 0.5;
+		for (Polygon2D_F64 p : polygons) {
+			boolean expected = UtilPolygons2D_F64.isSelfIntersectingBrute(p, tol);
+			assertEquals(expected, UtilPolygons2D_F64.isSelfIntersecting(p, tol));
+			assertEquals(expected, UtilPolygons2D_F64.isSelfIntersecting(p.flip(null), tol));
+			assertEquals(expected, UtilPolygons2D_F64.isSelfIntersecting(p, tol, sweep));
+		}
+
+		// The caller's configuration should not be modified
+		assertEquals(0.5, sweep.tol);
+		assertTrue(sweep.includeEndPoints);
+		assertFalse(sweep.stopAtFirst);
+	}
+
 	/**
 	 * Compares triangulate to the algorithm which it calls directly
 	 */
@@ -157,11 +199,45 @@ public class TestUtilPolygons2D_F64 {
 		var original = new Polygon2D_F64(new double[][]{{0,0},{2,0},{0.5,0.5},{0,2}});
 		var found = new DogArray<>(ThreeIndexes::new);
 		var expected = new DogArray<>(ThreeIndexes::new);
-		var alg = new TriangulateSimpleRemoveEars_F64();
+		var alg = new TriangulateMonotone_F64();
+		alg.process(original,expected);
+
+		UtilPolygons2D_F64.triangulate(original, found);
+
+		assertEquals(expected.size, found.size);
+		for (int i = 0; i < expected.size; i++) {
+			ThreeIndexes e = expected.get(i);
+			ThreeIndexes f = found.get(i);
+
+			assertEquals(e.idx0, f.idx0);
+			assertEquals(e.idx1, f.idx1);
+			assertEquals(e.idx2, f.idx2);
+		}
+	}
+
+	/**
+	 * Degenerate polygons which can't be triangulated should be rejected with a clear error
+	 */
+	@Test void triangulate_degenerate() {
+		var original = new Polygon2D_F64(5, 1, 5, 4, 5, 1, 7, 2);
+		var found = new DogArray<>(ThreeIndexes::new);
+
+		assertThrows(IllegalArgumentException.class, () -> UtilPolygons2D_F64.triangulate(original, found));
+		assertThrows(IllegalArgumentException.class, () ->
+				UtilPolygons2D_F64.triangulate(new PolygonHoles2D_F64(original), found));
+	}
+
+	@Test void triangulate_holes() {
+		var original = new PolygonHoles2D_F64(new Polygon2D_F64(0, 0, 10, 0, 10, 10, 0, 10),
+				new Polygon2D_F64(2, 2, 2, 4, 4, 4, 4, 2));
+		var found = new DogArray<>(ThreeIndexes::new);
+		var expected = new DogArray<>(ThreeIndexes::new);
+		var alg = new TriangulateMonotone_F64();
 		alg.process(original,expected);
 
 		UtilPolygons2D_F64.triangulate(original, found);
 
+		assertEquals(8, found.size);
 		assertEquals(expected.size, found.size);
 		for (int i = 0; i < expected.size; i++) {
 			ThreeIndexes e = expected.get(i);
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.EulerType;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.so.Quaternion_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestUtilQuaternion_F64 {
+	Random rand = new Random(234);
+	double tol = GrlConstants.TEST_F64;
+
+	/**
+	 * The product of two quaternions should be the same as multiplying their rotation matrices
+	 */
+	@Test void multiply() {
+		Quaternion_F64 a = randomQuaternion();
+		Quaternion_F64 b = randomQuaternion();
+
+		Quaternion_F64 c = UtilQuaternion_F64.multiply(a, b, null);
+
+		DMatrixRMaj Ra = ConvertRotation3D_F64.quaternionToMatrix(a, null);
+		DMatrixRMaj Rb = ConvertRotation3D_F64.quaternionToMatrix(b, null);
+		DMatrixRMaj expected = new DMatrixRMaj(3, 3);
+		CommonOps_DDRM.mult(Ra, Rb, expected);
+		DMatrixRMaj found = ConvertRotation3D_F64.quaternionToMatrix(c, null);
+		assertTrue(MatrixFeatures_DDRM.isIdentical(expected, found, tol));
+
+		// output is the same instance as an input
+		UtilQuaternion_F64.multiply(a, b, a);
+		assertTrue(a.isIdentical(c, 0.0));
+	}
+
+	@Test void conjugate() {
+		Quaternion_F64 a = randomQuaternion();
+		Quaternion_F64 found = UtilQuaternion_F64.multiply(a, UtilQuaternion_F64.conjugate(a, null), null);
+		assertTrue(found.isIdentical(new Quaternion_F64(1, 0, 0, 0), tol));
+	}
+
+	@Test void rotate() {
+		Quaternion_F64 q = randomQuaternion();
+		DMatrixRMaj R = ConvertRotation3D_F64.quaternionToMatrix(q, null);
+
+		var p = new Point3D_F64(1, -2, 0.5);
+		Point3D_F64 expected = GeometryMath_F64.mult(R, p, (Point3D_F64)null);
+		UtilQuaternion_F64.rotate(q, p, p);
+		assertTrue(expected.isIdentical(p, tol));
+	}
+
+	@Test void slerp() {
+		Quaternion_F64 a = randomQuaternion();
+		Quaternion_F64 b = randomQuaternion();
+
+		assertTrue(a.isIdentical(UtilQuaternion_F64.slerp(a, b, 0.0, null), tol));
+		assertTrue(b.isIdentical(UtilQuaternion_F64.slerp(a, b, 1.0, null), tol) ||
+				b.isIdentical(negate(UtilQuaternion_F64.slerp(a, b, 1.0, null)), tol));
+
+		// Rotating around a single axis should change the angle linearly
+		var q0 = ConvertRotation3D_F64.eulerToQuaternion(EulerType.XYZ, 0, 0.1, 0, null);
+		var q1 = ConvertRotation3D_F64.eulerToQuaternion(EulerType.XYZ, 0, 1.5, 0, null);
+		var expected = ConvertRotation3D_F64.eulerToQuaternion(EulerType.XYZ, 0, 0.1 + 0.3*1.4, 0, null);
+		assertTrue(expected.isIdentical(UtilQuaternion_F64.slerp(q0, q1, 0.3, null), tol));
+
+		// Should take the shortest path even when the sign is flipped
+		assertTrue(expected.isIdentical(UtilQuaternion_F64.slerp(q0, negate(q1), 0.3, null), tol));
+
+		// The two rotations are almost identical
+		assertTrue(q0.isIdentical(UtilQuaternion_F64.slerp(q0, q0, 0.6, null), tol));
+	}
+
+	@Test void normalize_array() {
+		int N = 10, offset = 3;
+		var quats = new double[offset + N*4];
+		for (int i = offset; i < quats.length; i++) {
+			quats[i] = rand.nextGaussian();
+		}
+		UtilQuaternion_F64.normalize(quats, offset, N);
+		for (int i = 0; i < N; i++) {
+			assertEquals(1.0, norm(quats, offset + i*4), tol);
+		}
+		for (int i = 0; i < offset; i++) {
+			assertEquals(0.0, quats[i]);
+		}
+	}
+
+	@Test void normalizeApprox_array() {
+		int N = 200;
+		var quats = new double[N*4];
+		var expected = new double[N*4];
+		for (int i = 0; i < N; i++) {
+			Quaternion_F64 q = randomQuaternion();
+			// Most will be close to one but some will be far away
+			double scale = i%10 == 0 ? 0.5 + rand.nextDouble() : 1.0 + 5.0e-5*rand.nextGaussian();
+			quats[i*4] = q.w*scale;
+			quats[i*4 + 1] = q.x*scale;
+			quats[i*4 + 2] = q.y*scale;
+			quats[i*4 + 3] = q.z*scale;
+		}
+		System.arraycopy(quats, 0, expected, 0, quats.length);
+		UtilQuaternion_F64.normalize(expected, 0, N);
+		UtilQuaternion_F64.normalizeApprox(quats, 0, N);
+
+		for (int i = 0; i < N; i++) {
+			assertEquals(1.0, norm(quats, i*4), 4.0e-9 + 10*GrlConstants.EPS);
+			for (int j = 0; j < 4; j++) {
+				assertEquals(expected[i*4 + j], quats[i*4 + j], 4.0e-9 + 10*GrlConstants.EPS);
+			}
+		}
+	}
+
+	private static double norm( double[] quats, int idx ) {
+		return Math.sqrt(quats[idx]*quats[idx] + quats[idx + 1]*quats[idx + 1] +
+				quats[idx + 2]*quats[idx + 2] + quats[idx + 3]*quats[idx + 3]);
+	}
+
+	private static Quaternion_F64 negate( Quaternion_F64 q ) {
+		return new Quaternion_F64(-q.w, -q.x, -q.y, -q.z);
+	}
+
+	private Quaternion_F64 randomQuaternion() {
+		var q = new Quaternion_F64(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian());
+		q.normalize();
+		return q;
+	}
+}
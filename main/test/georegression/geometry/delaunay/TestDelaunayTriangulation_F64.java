@@ -0,0 +1,403 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.delaunay;
+
+import georegression.geometry.polygon.ThreeIndexes;
+import georegression.metric.Area2D_F64;
+import georegression.metric.Intersection2D_F64;
+import georegression.struct.line.LineSegment2D_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import georegression.struct.shapes.Rectangle2D_F64;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_I32;
+import org.ejml.UtilEjml;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestDelaunayTriangulation_F64 {
+	Random rand = new Random(234);
+
+	DogArray<ThreeIndexes> found = new DogArray<>(ThreeIndexes::new);
+
+	@Test void square() {
+		List<Point2D_F64> points = new ArrayList<>();
+		points.add(new Point2D_F64(0, 0));
+		points.add(new Point2D_F64(2, 0));
+		points.add(new Point2D_F64(2, 2));
+		points.add(new Point2D_F64(0, 2));
+		points.add(new Point2D_F64(1, 1.2));
+
+		var alg = new DelaunayTriangulation_F64();
+		alg.process(points);
+		alg.getTriangles(found);
+		assertEquals(4, found.size);
+		checkDelaunay(points, found);
+	}
+
+	@Test void randomPoints() {
+		var alg = new DelaunayTriangulation_F64();
+		for (int trial = 0; trial < 20; trial++) {
+			List<Point2D_F64> points = randomPoints(3 + rand.nextInt(200));
+			alg.process(points);
+			alg.getTriangles(found);
+			checkDelaunay(points, found);
+		}
+	}
+
+	/**
+	 * Points on a grid have many collinear and co-circular points
+	 */
+	@Test void grid() {
+		List<Point2D_F64> points = new ArrayList<>();
+		for (int y = 0; y < 12; y++) {
+			for (int x = 0; x < 15; x++) {
+				points.add(new Point2D_F64(x*0.1, y*0.1));
+			}
+		}
+		Collections.shuffle(points, rand);
+
+		var alg = new DelaunayTriangulation_F64();
+		alg.process(points);
+		alg.getTriangles(found);
+		assertEquals(2*11*14, found.size);
+		checkDelaunay(points, found);
+	}
+
+	@Test void duplicates() {
+		List<Point2D_F64> points = randomPoints(50);
+		for (int i = 0; i < 10; i++) {
+			points.add(points.get(rand.nextInt(50)).copy());
+		}
+
+		var alg = new DelaunayTriangulation_F64();
+		alg.process(points);
+		alg.getTriangles(found);
+		checkDelaunay(points, found);
+
+		// Only the copy with the lowest index should be used
+		for (int i = 0; i < found.size; i++) {
+			ThreeIndexes t = found.get(i);
+			assertTrue(t.idx0 < 50 && t.idx1 < 50 && t.idx2 < 50);
+		}
+
+		// Adding a point which already exists should return the index of the existing vertex
+		assertEquals(4, alg.addPoint(points.get(4).copy()));
+	}
+
+	@Test void collinear() {
+		List<Point2D_F64> points = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			points.add(new Point2D_F64(i, 2*i + 1));
+		}
+		var alg = new DelaunayTriangulation_F64();
+		alg.process(points);
+		alg.getTriangles(found);
+		assertEquals(0, found.size);
+		assertEquals(3, alg.findNearest(new Point2D_F64(3.1, 7)));
+
+		// a point which isn't collinear makes it possible to triangulate
+		points.add(new Point2D_F64(5, 0));
+		alg.process(points);
+		alg.getTriangles(found);
+		assertEquals(9, found.size);
+		checkDelaunay(points, found);
+	}
+
+	@Test void addPoint() {
+		List<Point2D_F64> points = randomPoints(20);
+		var alg = new DelaunayTriangulation_F64();
+		alg.process(points);
+
+		for (int i = 0; i < 40; i++) {
+			var p = new Point2D_F64(rand.nextGaussian()*3, rand.nextGaussian()*3);
+			assertEquals(points.size(), alg.addPoint(p));
+			points.add(p);
+		}
+		alg.getTriangles(found);
+		checkDelaunay(points, found);
+	}
+
+	@Test void constraint() {
+		var alg = new DelaunayTriangulation_F64();
+		for (int trial = 0; trial < 20; trial++) {
+			List<Point2D_F64> points = randomPoints(100);
+			alg.process(points);
+
+			int a = rand.nextInt(100);
+			int b = (a + 1 + rand.nextInt(99))%100;
+			alg.addConstraint(a, b);
+			alg.getTriangles(found);
+
+			checkTriangulation(points, found);
+			assertTrue(hasEdge(found, a, b));
+		}
+	}
+
+	/**
+	 * The constraint passes through a vertex, so it should be broken into two edges
+	 */
+	@Test void constraint_collinearVertex() {
+		List<Point2D_F64> points = randomPoints(50);
+		points.add(new Point2D_F64(-3, -3.5));
+		points.add(new Point2D_F64(0.2, 0.1));
+		points.add(new Point2D_F64(3.4, 3.7));
+
+		var alg = new DelaunayTriangulation_F64();
+		alg.process(points);
+		alg.addConstraint(50, 52);
+		alg.getTriangles(found);
+		checkTriangulation(points, found);
+		assertTrue(hasEdge(found, 50, 51));
+		assertTrue(hasEdge(found, 51, 52));
+	}
+
+	@Test void constraint_crossing() {
+		List<Point2D_F64> points = randomPoints(50);
+		points.add(new Point2D_F64(-3, 0.1));
+		points.add(new Point2D_F64(3, 0.2));
+		points.add(new Point2D_F64(0.1, -3));
+		points.add(new Point2D_F64(0.2, 3));
+
+		var alg = new DelaunayTriangulation_F64();
+		alg.process(points);
+		alg.addConstraint(50, 51);
+		assertThrows(IllegalArgumentException.class, () -> alg.addConstraint(52, 53));
+	}
+
+	/**
+	 * Constraint from a line segment whose end points are not in the triangulation yet
+	 */
+	@Test void constraint_segment() {
+		List<Point2D_F64> points = randomPoints(50);
+		var alg = new DelaunayTriangulation_F64();
+		alg.process(points);
+		alg.addConstraint(new LineSegment2D_F64(-2.5, 0.1, 2.7, -0.3));
+		alg.getTriangles(found);
+
+		points.add(new Point2D_F64(-2.5, 0.1));
+		points.add(new Point2D_F64(2.7, -0.3));
+		checkTriangulation(points, found);
+		assertTrue(hasEdge(found, 50, 51));
+	}
+
+	@Test void constraint_polygon() {
+		var polygon = new Polygon2D_F64(-3, -3, 3, -3, 3, 3, 0.5, 0.2, -3, 3);
+		List<Point2D_F64> points = randomPoints(100);
+		var alg = new DelaunayTriangulation_F64();
+		alg.process(points);
+		alg.addConstraints(polygon);
+		alg.getTriangles(found);
+
+		points.addAll(polygon.vertexes.toList());
+		checkTriangulation(points, found);
+		for (int i = 0, j = 4; i < 5; j = i, i++) {
+			assertTrue(hasEdge(found, 100 + j, 100 + i));
+		}
+	}
+
+	@Test void findTriangle() {
+		List<Point2D_F64> points = randomPoints(100);
+		var alg = new DelaunayTriangulation_F64();
+		alg.process(points);
+
+		var t = new ThreeIndexes();
+		for (int i = 0; i < 200; i++) {
+			var p = new Point2D_F64(rand.nextGaussian()*3, rand.nextGaussian()*3);
+			if (alg.findTriangle(p, t)) {
+				Point2D_F64 a = points.get(t.idx0), b = points.get(t.idx1), c = points.get(t.idx2);
+				assertTrue(RobustPredicates2D_F64.orient(a, b, p) >= 0);
+				assertTrue(RobustPredicates2D_F64.orient(b, c, p) >= 0);
+				assertTrue(RobustPredicates2D_F64.orient(c, a, p) >= 0);
+			} else {
+				// make sure it's really outside
+				alg.getTriangles(found);
+				for (int j = 0; j < found.size; j++) {
+					ThreeIndexes f = found.get(j);
+					assertFalse(RobustPredicates2D_F64.orient(points.get(f.idx0), points.get(f.idx1), p) >= 0 &&
+							RobustPredicates2D_F64.orient(points.get(f.idx1), points.get(f.idx2), p) >= 0 &&
+							RobustPredicates2D_F64.orient(points.get(f.idx2), points.get(f.idx0), p) >= 0);
+				}
+			}
+		}
+	}
+
+	@Test void findNearest() {
+		List<Point2D_F64> points = randomPoints(150);
+		var alg = new DelaunayTriangulation_F64();
+		alg.process(points);
+
+		for (int i = 0; i < 200; i++) {
+			var p = new Point2D_F64(rand.nextGaussian()*4, rand.nextGaussian()*4);
+			int expected = 0;
+			for (int j = 1; j < points.size(); j++) {
+				if (points.get(j).distance2(p) < points.get(expected).distance2(p))
+					expected = j;
+			}
+			assertEquals(expected, alg.findNearest(p));
+		}
+	}
+
+	@Test void findNeighbors() {
+		List<Point2D_F64> points = randomPoints(30);
+		var alg = new DelaunayTriangulation_F64();
+		alg.process(points);
+		alg.getTriangles(found);
+
+		var neighbors = new DogArray_I32();
+		for (int vertex = 0; vertex < points.size(); vertex++) {
+			alg.findNeighbors(vertex, neighbors);
+			for (int i = 0; i < points.size(); i++) {
+				if (i != vertex)
+					assertEquals(hasEdge(found, vertex, i), neighbors.contains(i));
+			}
+		}
+	}
+
+	@Test void computeVoronoi() {
+		List<Point2D_F64> points = randomPoints(80);
+		var alg = new DelaunayTriangulation_F64();
+		alg.process(points);
+
+		var bounds = new Rectangle2D_F64(-5, -5, 6, 5);
+		var cells = new DogArray<>(Polygon2D_F64::new);
+		alg.computeVoronoi(bounds, cells);
+		assertEquals(points.size(), cells.size);
+
+		// The cells should exactly cover the bounds
+		double total = 0;
+		for (int i = 0; i < cells.size; i++) {
+			total += Area2D_F64.polygonSimple(cells.get(i));
+		}
+		assertEquals(11*10, total, UtilEjml.TEST_F64*100);
+
+		// A point should be inside the cell of the closest vertex
+		for (int i = 0; i < 200; i++) {
+			var p = new Point2D_F64(-5 + rand.nextDouble()*11, -5 + rand.nextDouble()*10);
+			int nearest = alg.findNearest(p);
+			assertTrue(Intersection2D_F64.containsConvex(cells.get(nearest), p));
+		}
+	}
+
+	@Test void multipleCalls() {
+		var alg = new DelaunayTriangulation_F64();
+		List<Point2D_F64> pointsA = randomPoints(60);
+		List<Point2D_F64> pointsB = randomPoints(30);
+
+		alg.process(pointsA);
+		alg.getTriangles(found);
+		int expected = found.size;
+		alg.process(pointsB);
+		alg.addConstraint(0, 1);
+		alg.process(pointsA);
+		alg.getTriangles(found);
+		assertEquals(expected, found.size);
+		checkDelaunay(pointsA, found);
+	}
+
+	private List<Point2D_F64> randomPoints( int N ) {
+		List<Point2D_F64> points = new ArrayList<>();
+		for (int i = 0; i < N; i++) {
+			points.add(new Point2D_F64(rand.nextGaussian()*2, rand.nextGaussian()*2));
+		}
+		return points;
+	}
+
+	private static boolean hasEdge( DogArray<ThreeIndexes> triangles, int a, int b ) {
+		for (int i = 0; i < triangles.size; i++) {
+			ThreeIndexes t = triangles.get(i);
+			if ((t.idx0 == a || t.idx1 == a || t.idx2 == a) && (t.idx0 == b || t.idx1 == b || t.idx2 == b))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Checks that it's a valid triangulation and no point is inside of a triangle's circumcircle
+	 */
+	private void checkDelaunay( List<Point2D_F64> points, DogArray<ThreeIndexes> triangles ) {
+		checkTriangulation(points, triangles);
+
+		for (int i = 0; i < triangles.size; i++) {
+			ThreeIndexes t = triangles.get(i);
+			for (int j = 0; j < points.size(); j++) {
+				assertTrue(RobustPredicates2D_F64.inCircle(
+						points.get(t.idx0), points.get(t.idx1), points.get(t.idx2), points.get(j)) <= 0);
+			}
+		}
+	}
+
+	/**
+	 * Checks to see if the triangles cover the convex hull of the points without overlapping
+	 */
+	private void checkTriangulation( List<Point2D_F64> points, DogArray<ThreeIndexes> triangles ) {
+		// All triangles must be counter-clockwise and each directed edge is used only once
+		Set<Long> edges = new HashSet<>();
+		for (int i = 0; i < triangles.size; i++) {
+			ThreeIndexes t = triangles.get(i);
+			int[] v = new int[]{t.idx0, t.idx1, t.idx2};
+			assertEquals(1, RobustPredicates2D_F64.orient(points.get(v[0]), points.get(v[1]), points.get(v[2])));
+			for (int j = 0; j < 3; j++) {
+				assertTrue(edges.add(v[j]*100_000L + v[(j + 1)%3]));
+			}
+		}
+
+		// Edges which are along the border must be along the convex hull
+		double areaBorder = 0.0;
+		double areaTriangles = 0.0;
+		for (int i = 0; i < triangles.size; i++) {
+			ThreeIndexes t = triangles.get(i);
+			int[] v = new int[]{t.idx0, t.idx1, t.idx2};
+			areaTriangles += Area2D_F64.triangle(points.get(v[0]), points.get(v[1]), points.get(v[2]));
+			for (int j = 0; j < 3; j++) {
+				int a = v[j], b = v[(j + 1)%3];
+				if (edges.contains(b*100_000L + a))
+					continue;
+				Point2D_F64 pa = points.get(a), pb = points.get(b);
+				areaBorder += (pa.x*pb.y - pb.x*pa.y)/2.0;
+				for (int k = 0; k < points.size(); k++) {
+					assertTrue(RobustPredicates2D_F64.orient(pa, pb, points.get(k)) >= 0);
+				}
+			}
+		}
+		assertEquals(areaBorder, areaTriangles, UtilEjml.TEST_F64*areaBorder);
+
+		// Every unique point should be used
+		for (int i = 0; i < points.size(); i++) {
+			boolean duplicate = false;
+			for (int j = 0; j < i; j++) {
+				duplicate |= points.get(i).isIdentical(points.get(j), 0.0);
+			}
+			if (duplicate)
+				continue;
+			boolean used = false;
+			for (int j = 0; j < triangles.size && !used; j++) {
+				ThreeIndexes t = triangles.get(j);
+				used = t.idx0 == i || t.idx1 == i || t.idx2 == i;
+			}
+			assertTrue(used);
+		}
+	}
+}
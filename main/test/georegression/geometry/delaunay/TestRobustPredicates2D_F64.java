@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.delaunay;
+
+import georegression.struct.point.Point2D_F64;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestRobustPredicates2D_F64 {
+	Random rand = new Random(234);
+
+	@Test void orient() {
+		var a = new Point2D_F64(1, 1);
+		var b = new Point2D_F64(3, 2);
+		assertEquals(1, RobustPredicates2D_F64.orient(a, b, new Point2D_F64(0, 3)));
+		assertEquals(-1, RobustPredicates2D_F64.orient(a, b, new Point2D_F64(3, 0)));
+		assertEquals(0, RobustPredicates2D_F64.orient(a, b, new Point2D_F64(5, 3)));
+	}
+
+	/**
+	 * Points which are almost collinear, where a naive floating point computation often gets the wrong answer
+	 */
+	@Test void orient_nearlyCollinear() {
+		var a = new Point2D_F64(0.5, 0.5);
+		var b = new Point2D_F64(12, 12);
+		var c = new Point2D_F64(24, 24);
+		for (int i = 0; i < 1000; i++) {
+			var p = new Point2D_F64(0.5 + rand.nextInt(256)*Math.ulp(0.5), 0.5 + rand.nextInt(256)*Math.ulp(0.5));
+			int expected = RobustPredicates2D_F64.orientExact(p, b, c);
+			assertEquals(expected, RobustPredicates2D_F64.orient(p, b, c));
+			assertEquals(-expected, RobustPredicates2D_F64.orient(b, p, c));
+		}
+		assertEquals(0, RobustPredicates2D_F64.orient(a, b, c));
+	}
+
+	@Test void inCircle() {
+		var a = new Point2D_F64(1, 0);
+		var b = new Point2D_F64(0, 1);
+		var c = new Point2D_F64(-1, 0);
+		assertEquals(1, RobustPredicates2D_F64.inCircle(a, b, c, new Point2D_F64(0.2, -0.3)));
+		assertEquals(-1, RobustPredicates2D_F64.inCircle(a, b, c, new Point2D_F64(2, 0.1)));
+		assertEquals(0, RobustPredicates2D_F64.inCircle(a, b, c, new Point2D_F64(0, -1)));
+		// clockwise order flips the sign
+		assertEquals(-1, RobustPredicates2D_F64.inCircle(c, b, a, new Point2D_F64(0.2, -0.3)));
+	}
+
+	/**
+	 * Points which are almost on the circle
+	 */
+	@Test void inCircle_nearlyCocircular() {
+		var a = new Point2D_F64(3, 0);
+		var b = new Point2D_F64(0, 3);
+		var c = new Point2D_F64(-3, 0);
+		for (int i = 0; i < 1000; i++) {
+			var d = new Point2D_F64(rand.nextInt(256)*Math.ulp(1.0), -3 + rand.nextInt(256)*Math.ulp(3.0));
+			int expected = RobustPredicates2D_F64.inCircleExact(a, b, c, d);
+			assertEquals(expected, RobustPredicates2D_F64.inCircle(a, b, c, d));
+		}
+		assertEquals(0, RobustPredicates2D_F64.inCircle(a, b, c, new Point2D_F64(0, -3)));
+	}
+}
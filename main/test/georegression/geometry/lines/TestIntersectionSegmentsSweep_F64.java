@@ -0,0 +1,313 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.lines;
+
+import georegression.geometry.lines.IntersectionSegmentsSweep_F64.Crossing;
+import georegression.metric.Distance2D_F64;
+import georegression.metric.Intersection2D_F64;
+import georegression.struct.line.LineSegment2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import org.ddogleg.struct.DogArray;
+import org.ejml.UtilEjml;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestIntersectionSegmentsSweep_F64 {
+	Random rand = new Random(235);
+	double tol = UtilEjml.TEST_F64;
+
+	@Test void noSegments() {
+		var alg = new IntersectionSegmentsSweep_F64();
+		assertFalse(alg.process(new ArrayList<>()));
+		assertEquals(0, alg.getFound().size);
+	}
+
+	@Test void singleCrossing() {
+		List<LineSegment2D_F64> segments = new ArrayList<>();
+		segments.add(new LineSegment2D_F64(0, 0, 2, 2));
+		segments.add(new LineSegment2D_F64(0, 2, 2, 0));
+		segments.add(new LineSegment2D_F64(5, 5, 6, 8));
+
+		var alg = new IntersectionSegmentsSweep_F64();
+		assertTrue(alg.process(segments));
+		assertEquals(1, alg.getFound().size);
+		Crossing c = alg.getFound().get(0);
+		assertEquals(0, c.indexA);
+		assertEquals(1, c.indexB);
+		assertEquals(1.0, c.location.x, UtilEjml.TEST_F64);
+		assertEquals(1.0, c.location.y, UtilEjml.TEST_F64);
+	}
+
+	/**
+	 * Vertical segments and segments which touch at their end points
+	 */
+	@Test void verticalAndTouching() {
+		List<LineSegment2D_F64> segments = new ArrayList<>();
+		segments.add(new LineSegment2D_F64(1, -1, 1, 3));
+		segments.add(new LineSegment2D_F64(0, 0, 2, 0));
+		segments.add(new LineSegment2D_F64(2, 0, 3, 1));
+		segments.add(new LineSegment2D_F64(1, 3, 1, 5));
+
+		var alg = new IntersectionSegmentsSweep_F64();
+		alg.process(segments);
+		assertEquals(3, alg.getFound().size);
+		assertContains(alg.getFound(), 0, 1);
+		assertContains(alg.getFound(), 1, 2);
+		assertContains(alg.getFound(), 0, 3);
+
+		// touching end points are now ignored
+		alg.includeEndPoints = false;
+		alg.process(segments);
+		assertEquals(1, alg.getFound().size);
+		assertContains(alg.getFound(), 0, 1);
+	}
+
+	/**
+	 * Several lines all intersect at the same point
+	 */
+	@Test void commonPoint() {
+		List<LineSegment2D_F64> segments = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			double theta = Math.PI*i/8;
+			double c = Math.cos(theta), s = Math.sin(theta);
+			segments.add(new LineSegment2D_F64(-c, -s, c, s));
+		}
+		// Line after the common point which intersects all of them
+		segments.add(new LineSegment2D_F64(0.5, -2, 0.5, 2));
+
+		var alg = new IntersectionSegmentsSweep_F64();
+		alg.process(segments);
+		compareToBruteForce(segments, alg.getFound(), true);
+	}
+
+	/**
+	 * Collinear segments which overlap each other
+	 */
+	@Test void overlapping() {
+		List<LineSegment2D_F64> segments = new ArrayList<>();
+		segments.add(new LineSegment2D_F64(0, 0, 4, 4));
+		segments.add(new LineSegment2D_F64(1, 1, 5, 5));
+		segments.add(new LineSegment2D_F64(2, 2, 3, 3));
+		segments.add(new LineSegment2D_F64(0, 4, 4, 0));
+
+		var alg = new IntersectionSegmentsSweep_F64();
+		alg.process(segments);
+		compareToBruteForce(segments, alg.getFound(), true);
+		assertEquals(6, alg.getFound().size);
+	}
+
+	/**
+	 * Randomly generated segments with floating point coordinates
+	 */
+	@Test void compareBruteForce_random() {
+		var alg = new IntersectionSegmentsSweep_F64();
+		for (int trial = 0; trial < 50; trial++) {
+			List<LineSegment2D_F64> segments = new ArrayList<>();
+			int N = 2 + rand.nextInt(60);
+			for (int i = 0; i < N; i++) {
+				segments.add(new LineSegment2D_F64(rand.nextGaussian()*5, rand.nextGaussian()*5,
+						rand.nextGaussian()*5, rand.nextGaussian()*5));
+			}
+			alg.process(segments);
+			compareToBruteForce(segments, alg.getFound(), true);
+		}
+	}
+
+	/**
+	 * Coordinates are on a small grid which creates many degenerate situations
+	 */
+	@Test void compareBruteForce_grid() {
+		var alg = new IntersectionSegmentsSweep_F64();
+		for (boolean endPoints : new boolean[]{true, false}) {
+			alg.includeEndPoints = endPoints;
+			for (int trial = 0; trial < 200; trial++) {
+				List<LineSegment2D_F64> segments = new ArrayList<>();
+				int N = 2 + rand.nextInt(15);
+				while (segments.size() < N) {
+					var s = new LineSegment2D_F64(rand.nextInt(5), rand.nextInt(5), rand.nextInt(5), rand.nextInt(5));
+					// brute force will consider a segment with zero length as touching everything
+					if (s.getLength2() == 0.0)
+						continue;
+					segments.add(s);
+				}
+				alg.process(segments);
+				compareToBruteForce(segments, alg.getFound(), endPoints);
+			}
+		}
+	}
+
+	/**
+	 * The found location should lie on both segments
+	 */
+	@Test void location() {
+		var alg = new IntersectionSegmentsSweep_F64();
+		List<LineSegment2D_F64> segments = new ArrayList<>();
+		for (int i = 0; i < 40; i++) {
+			segments.add(new LineSegment2D_F64(rand.nextGaussian(), rand.nextGaussian(),
+					rand.nextGaussian(), rand.nextGaussian()));
+		}
+		alg.process(segments);
+		assertTrue(alg.getFound().size > 0);
+		for (int i = 0; i < alg.getFound().size; i++) {
+			Crossing c = alg.getFound().get(i);
+			assertEquals(0.0, Distance2D_F64.distance(segments.get(c.indexA), c.location), UtilEjml.TEST_F64_SQ);
+			assertEquals(0.0, Distance2D_F64.distance(segments.get(c.indexB), c.location), UtilEjml.TEST_F64_SQ);
+		}
+	}
+
+	@Test void stopAtFirst() {
+		List<LineSegment2D_F64> segments = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			segments.add(new LineSegment2D_F64(i, 0, i, 10));
+			segments.add(new LineSegment2D_F64(-1, i + 0.5, 11, i + 0.5));
+		}
+
+		var alg = new IntersectionSegmentsSweep_F64();
+		alg.stopAtFirst = true;
+		assertTrue(alg.process(segments));
+		assertEquals(1, alg.getFound().size);
+
+		alg.stopAtFirst = false;
+		assertTrue(alg.process(segments));
+		assertEquals(100, alg.getFound().size);
+	}
+
+	/**
+	 * Sides in a polygon should be indexed by their first vertex
+	 */
+	@Test void polygon() {
+		var polygon = new Polygon2D_F64(new double[][]{{0, 0}, {5, 5}, {0, 5}, {5, 0}});
+
+		var alg = new IntersectionSegmentsSweep_F64();
+		alg.includeEndPoints = false;
+		assertTrue(alg.process(polygon));
+		assertEquals(1, alg.getFound().size);
+		assertContains(alg.getFound(), 0, 2);
+		assertEquals(2.5, alg.getFound().get(0).location.x, UtilEjml.TEST_F64);
+		assertEquals(2.5, alg.getFound().get(0).location.y, UtilEjml.TEST_F64);
+	}
+
+	/**
+	 * Sides with zero length, from repeated vertexes, have no direction. The result should not depend on the
+	 * shape of the tree, which is changed by the random priorities.
+	 */
+	@Test void zeroLengthSides() {
+		var polygon = new Polygon2D_F64(new double[][]{{4, 2}, {4, 2}, {2, 4}, {1, 1}, {1, 0}, {1, 0}, {5, 1}, {0, 5}, {5, 4}});
+
+		var alg = new IntersectionSegmentsSweep_F64();
+		alg.includeEndPoints = false;
+		for (int seed = 0; seed < 50; seed++) {
+			alg.rand.setSeed(seed);
+			assertTrue(alg.process(polygon));
+			assertEquals(1, alg.getFound().size);
+			assertContains(alg.getFound(), 2, 6);
+		}
+	}
+
+	/**
+	 * Call it multiple times and see if the results change
+	 */
+	@Test void multipleCalls() {
+		var alg = new IntersectionSegmentsSweep_F64();
+		List<LineSegment2D_F64> segmentsA = new ArrayList<>();
+		List<LineSegment2D_F64> segmentsB = new ArrayList<>();
+		for (int i = 0; i < 30; i++) {
+			segmentsA.add(new LineSegment2D_F64(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian()));
+			segmentsB.add(new LineSegment2D_F64(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian()));
+		}
+
+		alg.process(segmentsA);
+		int expected = alg.getFound().size;
+		alg.process(segmentsB);
+		compareToBruteForce(segmentsB, alg.getFound(), true);
+		alg.process(segmentsA);
+		assertEquals(expected, alg.getFound().size);
+	}
+
+	/**
+	 * Randomly add and remove pairs and compare against a set which is known to work
+	 */
+	@Test void pairSet() {
+		var alg = new IntersectionSegmentsSweep_F64.PairSet();
+		Set<Long> expected = new HashSet<>();
+
+		for (int trial = 0; trial < 3; trial++) {
+			for (int i = 0; i < 5000; i++) {
+				long key = IntersectionSegmentsSweep_F64.pairKey(rand.nextInt(40), rand.nextInt(40));
+				if (rand.nextInt(3) == 0)
+					assertEquals(expected.remove(key), alg.remove(key));
+				else
+					assertEquals(expected.add(key), alg.add(key));
+				assertEquals(expected.size(), alg.size());
+			}
+			for (int a = 0; a < 40; a++) {
+				for (int b = a; b < 40; b++) {
+					long key = IntersectionSegmentsSweep_F64.pairKey(a, b);
+					assertEquals(expected.contains(key), alg.contains(key));
+				}
+			}
+			alg.clear();
+			expected.clear();
+			assertEquals(0, alg.size());
+		}
+	}
+
+	private void compareToBruteForce( List<LineSegment2D_F64> segments, DogArray<Crossing> found, boolean endPoints ) {
+		Set<Long> foundPairs = new HashSet<>();
+		for (int i = 0; i < found.size; i++) {
+			Crossing c = found.get(i);
+			assertTrue(c.indexA < c.indexB);
+			assertTrue(foundPairs.add(((long)c.indexA << 32) | c.indexB), "Duplicate");
+		}
+
+		int total = 0;
+		for (int i = 0; i < segments.size(); i++) {
+			for (int j = i + 1; j < segments.size(); j++) {
+				LineSegment2D_F64 a = segments.get(i);
+				LineSegment2D_F64 b = segments.get(j);
+				boolean expected = endPoints ?
+						Intersection2D_F64.intersects(a, b, tol) : Intersection2D_F64.intersects2(a, b, tol);
+				if (!expected)
+					continue;
+				total++;
+				assertTrue(foundPairs.contains(((long)i << 32) | j), "Missing " + i + " " + j);
+			}
+		}
+		assertEquals(total, found.size);
+	}
+
+	private void assertContains( DogArray<Crossing> found, int indexA, int indexB ) {
+		for (int i = 0; i < found.size; i++) {
+			Crossing c = found.get(i);
+			if (c.indexA == indexA && c.indexB == indexB)
+				return;
+		}
+		fail("Pair not found " + indexA + " " + indexB);
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.polygon;
+
+import georegression.geometry.UtilPolygons2D_F64;
+import georegression.metric.Area2D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.shapes.Polygon2D_F64;
+import georegression.struct.shapes.PolygonHoles2D_F64;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_F64;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestClipConvexPolygon2D_F64 {
+	Random rand = new Random(234);
+
+	@Test void squares() {
+		var a = new Polygon2D_F64(0, 0, 4, 0, 4, 4, 0, 4);
+		var b = new Polygon2D_F64(1, 2, 6, 2, 6, 7, 1, 7);
+		var alg = new ClipConvexPolygon2D_F64();
+		assertEquals(6.0, alg.area(a, b), GrlConstants.TEST_F64);
+		assertEquals(6.0, alg.area(b, a), GrlConstants.TEST_F64);
+
+		// order shouldn't matter
+		b.flip();
+		assertEquals(6.0, alg.area(a, b), GrlConstants.TEST_F64);
+		a.flip();
+		assertEquals(6.0, alg.area(a, b), GrlConstants.TEST_F64);
+
+		var found = new Polygon2D_F64();
+		alg.process(a, b, found);
+		assertEquals(4, found.size());
+		assertEquals(6.0, Area2D_F64.polygonSimple(found), GrlConstants.TEST_F64);
+		assertTrue(UtilPolygons2D_F64.isConvex(found));
+	}
+
+	@Test void noOverlap() {
+		var a = new Polygon2D_F64(0, 0, 4, 0, 4, 4, 0, 4);
+		var b = new Polygon2D_F64(5, 0, 9, 0, 9, 4);
+		var alg = new ClipConvexPolygon2D_F64();
+		assertEquals(0.0, alg.area(a, b));
+		var found = new Polygon2D_F64();
+		alg.process(a, b, found);
+		assertEquals(0, found.size());
+
+		// they touch along a side
+		b = new Polygon2D_F64(4, 0, 9, 0, 9, 4, 4, 4);
+		assertEquals(0.0, alg.area(a, b), GrlConstants.TEST_F64);
+	}
+
+	@Test void inside() {
+		var a = new Polygon2D_F64(0, 0, 10, 0, 10, 10, 0, 10);
+		var b = new Polygon2D_F64(2, 2, 5, 3, 3, 6);
+		var alg = new ClipConvexPolygon2D_F64();
+		double expected = Area2D_F64.polygonSimple(b);
+		assertEquals(expected, alg.area(a, b), GrlConstants.TEST_F64);
+		assertEquals(expected, alg.area(b, a), GrlConstants.TEST_F64);
+		assertEquals(100.0, alg.area(a, a), GrlConstants.TEST_F64);
+	}
+
+	/**
+	 * Compare against the general purpose polygon clipping algorithm
+	 */
+	@Test void compareToClipPolygons() {
+		var alg = new ClipConvexPolygon2D_F64();
+		var general = new ClipPolygons2D_F64();
+		var output = new DogArray<>(PolygonHoles2D_F64::new);
+		for (int trial = 0; trial < 200; trial++) {
+			Polygon2D_F64 a = randomConvex(rand, 3 + trial%6, 5);
+			Polygon2D_F64 b = randomConvex(rand, 3 + trial%5, 5);
+			general.process(ClipPolygons2D_F64.Operation.INTERSECTION, a, b, output);
+			double expected = 0.0;
+			for (int i = 0; i < output.size; i++) {
+				expected += output.get(i).area();
+			}
+
+			double found = alg.area(a, b);
+			assertEquals(expected, found, GrlConstants.TEST_F64);
+			assertEquals(found, alg.area(b, a), GrlConstants.TEST_F64);
+		}
+	}
+
+	@Test void area_packed() {
+		var alg = new ClipConvexPolygon2D_F64();
+		Polygon2D_F64 a = randomConvex(rand, 5, 5);
+		Polygon2D_F64 b = randomConvex(rand, 6, 5);
+
+		var packed = new DogArray_F64();
+		packed.add(-1);
+		for (int i = 0; i < a.size(); i++) {
+			packed.add(a.get(i).x);
+			packed.add(a.get(i).y);
+		}
+		for (int i = 0; i < b.size(); i++) {
+			packed.add(b.get(i).x);
+			packed.add(b.get(i).y);
+		}
+		double found = alg.area(packed.data, 1, a.size(), packed.data, 1 + a.size()*2, b.size());
+		assertEquals(alg.area(a, b), found, GrlConstants.TEST_F64);
+	}
+
+	@Test void signedArea() {
+		var polygon = new Polygon2D_F64(1, 1, 5, 1, 5, 3, 1, 3);
+		var packed = new double[polygon.size()*2];
+		for (int i = 0; i < polygon.size(); i++) {
+			packed[i*2] = polygon.get(i).x;
+			packed[i*2 + 1] = polygon.get(i).y;
+		}
+		assertEquals(8.0, ClipConvexPolygon2D_F64.signedArea(packed, 0, 4), GrlConstants.TEST_F64);
+		polygon.flip();
+		for (int i = 0; i < polygon.size(); i++) {
+			packed[i*2] = polygon.get(i).x;
+			packed[i*2 + 1] = polygon.get(i).y;
+		}
+		assertEquals(-8.0, ClipConvexPolygon2D_F64.signedArea(packed, 0, 4), GrlConstants.TEST_F64);
+	}
+
+	/** Creates a random convex polygon by sampling points on a circle */
+	static Polygon2D_F64 randomConvex( Random rand, int count, double spread ) {
+		double cx = rand.nextGaussian()*spread, cy = rand.nextGaussian()*spread;
+		double radius = 1.0 + rand.nextDouble()*spread;
+		double[] angles = new double[count];
+		for (int i = 0; i < count; i++) {
+			angles[i] = rand.nextDouble()*GrlConstants.PI2;
+		}
+		Arrays.sort(angles);
+		var polygon = new Polygon2D_F64(count);
+		for (int i = 0; i < count; i++) {
+			polygon.get(i).setTo(cx + radius*(double)Math.cos(angles[i]), cy + radius*(double)Math.sin(angles[i]));
+		}
+		return polygon;
+	}
+}
@@ -0,0 +1,385 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.polygon;
+
+import georegression.geometry.UtilPolygons2D_F64;
+import georegression.geometry.polygon.ClipPolygons2D_F64.Operation;
+import georegression.metric.Area2D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import georegression.struct.shapes.PolygonHoles2D_F64;
+import org.ddogleg.struct.DogArray;
+import org.ejml.UtilEjml;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestClipPolygons2D_F64 {
+	Random rand = new Random(234);
+
+	DogArray<PolygonHoles2D_F64> output = new DogArray<>(PolygonHoles2D_F64::new, PolygonHoles2D_F64::reset);
+
+	/**
+	 * Two squares which partially overlap
+	 */
+	@Test void overlappingSquares() {
+		Polygon2D_F64 a = square(0, 0, 2);
+		Polygon2D_F64 b = square(1, 1, 2);
+
+		var alg = new ClipPolygons2D_F64();
+		alg.process(Operation.UNION, a, b, output);
+		assertEquals(1, output.size);
+		assertEquals(8, output.get(0).outer.size());
+		assertEquals(0, output.get(0).holes.size);
+		assertEquals(7.0, totalArea(output), UtilEjml.TEST_F64);
+
+		alg.process(Operation.INTERSECTION, a, b, output);
+		assertEquals(1, output.size);
+		assertEquals(4, output.get(0).outer.size());
+		assertEquals(1.0, totalArea(output), UtilEjml.TEST_F64);
+		assertTrue(output.get(0).outer.isEquivalent(square(1, 1, 1), UtilEjml.TEST_F64));
+
+		alg.process(Operation.DIFFERENCE, a, b, output);
+		assertEquals(1, output.size);
+		assertEquals(6, output.get(0).outer.size());
+		assertEquals(3.0, totalArea(output), UtilEjml.TEST_F64);
+
+		alg.process(Operation.XOR, a, b, output);
+		assertEquals(2, output.size);
+		assertEquals(6.0, totalArea(output), UtilEjml.TEST_F64);
+	}
+
+	/**
+	 * The order of the input polygons shouldn't matter and the output should be CCW
+	 */
+	@Test void inputOrdering() {
+		Polygon2D_F64 a = square(0, 0, 2);
+		Polygon2D_F64 b = square(1, 1, 2);
+		b.flip();
+
+		var alg = new ClipPolygons2D_F64();
+		for (Operation op : Operation.values()) {
+			alg.process(op, a, b, output);
+			double expected = totalArea(output);
+			for (int i = 0; i < output.size; i++) {
+				assertTrue(UtilPolygons2D_F64.isCCW(output.get(i).outer));
+			}
+			a.flip();
+			alg.process(op, a, b, output);
+			assertEquals(expected, totalArea(output), UtilEjml.TEST_F64);
+		}
+	}
+
+	/**
+	 * One polygon is entirely inside the other. Difference should create a hole
+	 */
+	@Test void contained() {
+		Polygon2D_F64 a = square(0, 0, 10);
+		Polygon2D_F64 b = square(2, 3, 2);
+
+		var alg = new ClipPolygons2D_F64();
+		alg.process(Operation.DIFFERENCE, a, b, output);
+		assertEquals(1, output.size);
+		PolygonHoles2D_F64 found = output.get(0);
+		assertEquals(1, found.holes.size);
+		assertFalse(UtilPolygons2D_F64.isCCW(found.holes.get(0)));
+		assertEquals(96.0, found.area(), UtilEjml.TEST_F64);
+		assertFalse(found.isInside(new Point2D_F64(3, 4)));
+		assertTrue(found.isInside(new Point2D_F64(1, 1)));
+
+		alg.process(Operation.DIFFERENCE, b, a, output);
+		assertEquals(0, output.size);
+
+		alg.process(Operation.UNION, a, b, output);
+		assertEquals(1, output.size);
+		assertEquals(100.0, totalArea(output), UtilEjml.TEST_F64);
+
+		alg.process(Operation.INTERSECTION, a, b, output);
+		assertEquals(1, output.size);
+		assertEquals(4.0, totalArea(output), UtilEjml.TEST_F64);
+	}
+
+	@Test void disjoint() {
+		Polygon2D_F64 a = square(0, 0, 1);
+		Polygon2D_F64 b = square(5, 0, 1);
+
+		var alg = new ClipPolygons2D_F64();
+		alg.process(Operation.INTERSECTION, a, b, output);
+		assertEquals(0, output.size);
+		alg.process(Operation.UNION, a, b, output);
+		assertEquals(2, output.size);
+		alg.process(Operation.DIFFERENCE, a, b, output);
+		assertEquals(1, output.size);
+		assertTrue(output.get(0).outer.isEquivalent(a, UtilEjml.TEST_F64));
+	}
+
+	/**
+	 * The two polygons share a side, which is a degenerate case
+	 */
+	@Test void sharedSide() {
+		Polygon2D_F64 a = square(0, 0, 1);
+		Polygon2D_F64 b = new Polygon2D_F64(1, 0, 2, 0, 2, 1, 1, 1, 1, 0.5);
+
+		var alg = new ClipPolygons2D_F64();
+		alg.process(Operation.UNION, a, b, output);
+		assertEquals(1, output.size);
+		assertEquals(4, output.get(0).outer.size());
+		assertEquals(2.0, totalArea(output), UtilEjml.TEST_F64);
+
+		alg.process(Operation.INTERSECTION, a, b, output);
+		assertEquals(0, output.size);
+
+		// Identical polygons
+		alg.process(Operation.UNION, a, a, output);
+		assertEquals(1, output.size);
+		assertTrue(output.get(0).outer.isEquivalent(a, UtilEjml.TEST_F64));
+		alg.process(Operation.INTERSECTION, a, a, output);
+		assertEquals(1, output.size);
+		assertTrue(output.get(0).outer.isEquivalent(a, UtilEjml.TEST_F64));
+		alg.process(Operation.DIFFERENCE, a, a, output);
+		assertEquals(0, output.size);
+		alg.process(Operation.XOR, a, a, output);
+		assertEquals(0, output.size);
+	}
+
+	/**
+	 * Input polygons have holes in them
+	 */
+	@Test void inputWithHoles() {
+		var a = new PolygonHoles2D_F64(square(0, 0, 10), square(2, 2, 2));
+		var b = new PolygonHoles2D_F64(square(1, 1, 4));
+
+		var alg = new ClipPolygons2D_F64();
+		alg.addSubject(a);
+		alg.addClip(b);
+		alg.process(Operation.UNION, output);
+		assertEquals(1, output.size);
+		assertEquals(0, output.get(0).holes.size);
+		assertEquals(100.0, totalArea(output), UtilEjml.TEST_F64);
+
+		alg.process(Operation.INTERSECTION, output);
+		assertEquals(1, output.size);
+		assertEquals(1, output.get(0).holes.size);
+		assertEquals(12.0, totalArea(output), UtilEjml.TEST_F64);
+
+		alg.process(Operation.XOR, output);
+		assertEquals(96.0 + 16.0 - 2.0*12.0, totalArea(output), UtilEjml.TEST_F64);
+	}
+
+	/**
+	 * Union of many polygons in a single batch
+	 */
+	@Test void union_batch() {
+		List<Polygon2D_F64> polygons = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			polygons.add(square(i, 0, 2));
+		}
+		// One which is disconnected from the others
+		polygons.add(square(20, 0, 1));
+
+		var alg = new ClipPolygons2D_F64();
+		alg.union(polygons, output);
+		assertEquals(2, output.size);
+		assertEquals(23.0, totalArea(output), UtilEjml.TEST_F64);
+		for (int i = 0; i < output.size; i++) {
+			assertEquals(4, output.get(i).outer.size());
+		}
+
+		// A ring of squares will create a hole
+		polygons.clear();
+		for (int i = 0; i < 4; i++) {
+			polygons.add(square(i, 0, 1));
+			polygons.add(square(i + 1, 4, 1));
+			polygons.add(square(0, i + 1, 1));
+			polygons.add(square(4, i, 1));
+		}
+		alg.union(polygons, output);
+		assertEquals(1, output.size);
+		assertEquals(1, output.get(0).holes.size);
+		assertEquals(16.0, totalArea(output), UtilEjml.TEST_F64);
+	}
+
+	/**
+	 * Compare random polygons against identities for the area
+	 */
+	@Test void randomAreaIdentities() {
+		var alg = new ClipPolygons2D_F64();
+		for (int trial = 0; trial < 100; trial++) {
+			Polygon2D_F64 a = randomStar(3 + rand.nextInt(15));
+			Polygon2D_F64 b = randomStar(3 + rand.nextInt(15));
+			double areaA = Area2D_F64.polygonSimple(a);
+			double areaB = Area2D_F64.polygonSimple(b);
+
+			alg.process(Operation.INTERSECTION, a, b, output);
+			double inter = totalArea(output);
+			alg.process(Operation.UNION, a, b, output);
+			double union = totalArea(output);
+			alg.process(Operation.DIFFERENCE, a, b, output);
+			double diff = totalArea(output);
+			alg.process(Operation.XOR, a, b, output);
+			double xor = totalArea(output);
+
+			double tol = GrlConstants.TEST_F64;
+			assertEquals(areaA + areaB - inter, union, tol);
+			assertEquals(areaA - inter, diff, tol);
+			assertEquals(union - inter, xor, tol);
+		}
+	}
+
+	/**
+	 * Compare against clipping convex polygons one side at a time
+	 */
+	@Test void compareConvexClipping() {
+		var alg = new ClipPolygons2D_F64();
+		for (int trial = 0; trial < 50; trial++) {
+			Polygon2D_F64 a = randomConvex();
+			Polygon2D_F64 b = randomConvex();
+
+			alg.process(Operation.INTERSECTION, a, b, output);
+			assertTrue(output.size <= 1);
+			Polygon2D_F64 expected = clipConvex(a, b);
+			double expectedArea = expected.size() < 3 ? 0.0 : Area2D_F64.polygonSimple(expected);
+			assertEquals(expectedArea, totalArea(output), UtilEjml.TEST_F64);
+		}
+	}
+
+	/**
+	 * Call it multiple times and see if the results change
+	 */
+	@Test void multipleCalls() {
+		Polygon2D_F64 a = randomStar(10);
+		Polygon2D_F64 b = randomStar(12);
+
+		var alg = new ClipPolygons2D_F64();
+		alg.process(Operation.XOR, a, b, output);
+		double expected = totalArea(output);
+		alg.process(Operation.UNION, randomStar(20), randomStar(6), output);
+		alg.process(Operation.XOR, a, b, output);
+		assertEquals(expected, totalArea(output), UtilEjml.TEST_F64);
+	}
+
+	/**
+	 * The output is reused and doesn't have a reset function. Holes from the previous call must not be kept
+	 */
+	@Test void reuseOutputWithoutReset() {
+		var output = new DogArray<>(PolygonHoles2D_F64::new);
+		var alg = new ClipPolygons2D_F64();
+		alg.process(Operation.DIFFERENCE, square(0, 0, 10), square(2, 3, 2), output);
+		assertEquals(1, output.size);
+		assertEquals(1, output.get(0).holes.size);
+
+		alg.process(Operation.XOR, square(0, 0, 1), square(5, 0, 1), output);
+		assertEquals(2, output.size);
+		for (int i = 0; i < output.size; i++) {
+			assertEquals(0, output.get(i).holes.size);
+		}
+		assertEquals(2.0, totalArea(output), UtilEjml.TEST_F64);
+	}
+
+	/**
+	 * Collinear vertexes are removed, including ones where the ring wraps around
+	 */
+	@Test void pruneCollinear() {
+		var ring = new Polygon2D_F64(0.5, 0, 1, 0, 1, 0.5, 1, 1, 0.5, 1, 0, 1, 0, 0, 0.25, 0);
+		new ClipPolygons2D_F64().pruneCollinear(ring);
+		assertTrue(ring.isEquivalent(square(0, 0, 1), UtilEjml.TEST_F64));
+
+		// every vertex is on a line
+		ring = new Polygon2D_F64(0, 0, 1, 0, 2, 0, 3, 0);
+		new ClipPolygons2D_F64().pruneCollinear(ring);
+		assertTrue(ring.size() < 3);
+
+		// nothing to remove
+		ring = square(0, 0, 1);
+		new ClipPolygons2D_F64().pruneCollinear(ring);
+		assertTrue(ring.isEquivalent(square(0, 0, 1), UtilEjml.TEST_F64));
+	}
+
+	private static Polygon2D_F64 square( double x, double y, double width ) {
+		return new Polygon2D_F64(x, y, x + width, y, x + width, y + width, x, y + width);
+	}
+
+	private static double totalArea( DogArray<PolygonHoles2D_F64> polygons ) {
+		double total = 0;
+		for (int i = 0; i < polygons.size; i++) {
+			total += polygons.get(i).area();
+		}
+		return total;
+	}
+
+	/** Creates a random simple polygon by sampling points at increasing angles */
+	private Polygon2D_F64 randomStar( int N ) {
+		var polygon = new Polygon2D_F64(N);
+		double cx = rand.nextGaussian()*0.5;
+		double cy = rand.nextGaussian()*0.5;
+		for (int i = 0; i < N; i++) {
+			double theta = GrlConstants.PI2*i/N;
+			double r = 0.2 + rand.nextDouble();
+			polygon.set(i, cx + r*(double)Math.cos(theta), cy + r*(double)Math.sin(theta));
+		}
+		return polygon;
+	}
+
+	/** Clips the subject by each side of a CCW convex polygon */
+	private static Polygon2D_F64 clipConvex( Polygon2D_F64 subject, Polygon2D_F64 clip ) {
+		List<Point2D_F64> output = subject.convert(null, true);
+		for (int i = 0; i < clip.size() && !output.isEmpty(); i++) {
+			Point2D_F64 c0 = clip.get(i);
+			Point2D_F64 c1 = clip.get((i + 1)%clip.size());
+			List<Point2D_F64> input = output;
+			output = new ArrayList<>();
+			for (int j = 0; j < input.size(); j++) {
+				Point2D_F64 p0 = input.get(j);
+				Point2D_F64 p1 = input.get((j + 1)%input.size());
+				double s0 = (c1.x - c0.x)*(p0.y - c0.y) - (c1.y - c0.y)*(p0.x - c0.x);
+				double s1 = (c1.x - c0.x)*(p1.y - c0.y) - (c1.y - c0.y)*(p1.x - c0.x);
+				if (s0 >= 0)
+					output.add(p0);
+				if ((s0 >= 0) != (s1 >= 0)) {
+					double t = s0/(s0 - s1);
+					output.add(new Point2D_F64(p0.x + t*(p1.x - p0.x), p0.y + t*(p1.y - p0.y)));
+				}
+			}
+		}
+		var polygon = new Polygon2D_F64();
+		polygon.setTo(output);
+		return polygon;
+	}
+
+	private Polygon2D_F64 randomConvex() {
+		var polygon = new Polygon2D_F64(5 + rand.nextInt(5));
+		double cx = rand.nextGaussian()*0.5;
+		double cy = rand.nextGaussian()*0.5;
+		double r = 0.5 + rand.nextDouble();
+		double theta = 0;
+		for (int i = 0; i < polygon.size(); i++) {
+			theta += (0.5 + rand.nextDouble())*GrlConstants.PI2/(1.5*polygon.size());
+			polygon.set(i, cx + r*(double)Math.cos(theta), cy + r*(double)Math.sin(theta));
+		}
+		return polygon;
+	}
+}
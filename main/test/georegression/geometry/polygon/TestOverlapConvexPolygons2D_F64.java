@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.polygon;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.shapes.Polygon2D_F64;
+import georegression.struct.shapes.Quadrilateral_F64;
+import org.ddogleg.struct.DogArray_F64;
+import org.ddogleg.struct.DogArray_I32;
+import org.ejml.data.DMatrixRMaj;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestOverlapConvexPolygons2D_F64 {
+	Random rand = new Random(234);
+
+	OverlapConvexPolygons2D_F64 createAlg() {
+		return new OverlapConvexPolygons2D_F64();
+	}
+
+	/**
+	 * Compare the matrix against computing the IoU for every pair
+	 */
+	@Test void computeMatrix() {
+		List<Polygon2D_F64> polygons = randomPolygons(60);
+		OverlapConvexPolygons2D_F64 alg = createAlg();
+		alg.setPolygons(polygons);
+
+		var found = new DMatrixRMaj(1, 1);
+		alg.computeMatrix(found);
+		assertEquals(polygons.size(), found.numRows);
+
+		var clipper = new ClipConvexPolygon2D_F64();
+		int totalOverlap = 0;
+		for (int i = 0; i < polygons.size(); i++) {
+			assertEquals(1.0, found.get(i, i));
+			for (int j = i + 1; j < polygons.size(); j++) {
+				double expected = bruteForceIoU(clipper, polygons.get(i), polygons.get(j));
+				assertEquals(expected, found.get(i, j), GrlConstants.TEST_F64);
+				assertEquals(expected, found.get(j, i), GrlConstants.TEST_F64);
+				if (expected > 0)
+					totalOverlap++;
+			}
+		}
+		// sanity check the test
+		assertTrue(totalOverlap > 10);
+		assertTrue(totalOverlap < polygons.size()*(polygons.size() - 1)/4);
+	}
+
+	/**
+	 * Only pairs above the minimum should be returned
+	 */
+	@Test void process_minimum() {
+		List<Polygon2D_F64> polygons = randomPolygons(60);
+		OverlapConvexPolygons2D_F64 alg = createAlg();
+		alg.setPolygons(polygons);
+		alg.process(0.3);
+
+		var clipper = new ClipConvexPolygon2D_F64();
+		int expectedCount = 0;
+		for (int i = 0; i < polygons.size(); i++) {
+			for (int j = i + 1; j < polygons.size(); j++) {
+				if (bruteForceIoU(clipper, polygons.get(i), polygons.get(j)) > 0.3)
+					expectedCount++;
+			}
+		}
+		assertTrue(expectedCount > 0);
+		assertEquals(expectedCount, alg.getPairIoU().size);
+		for (int k = 0; k < alg.getPairIoU().size; k++) {
+			int i = alg.getPairs().get(k*2), j = alg.getPairs().get(k*2 + 1);
+			assertTrue(i < j);
+			double expected = bruteForceIoU(clipper, polygons.get(i), polygons.get(j));
+			assertEquals(expected, alg.getPairIoU().get(k), GrlConstants.TEST_F64);
+		}
+	}
+
+	@Test void nonMaximumSuppression() {
+		List<Polygon2D_F64> polygons = randomPolygons(80);
+		var scores = new DogArray_F64();
+		for (int i = 0; i < polygons.size(); i++) {
+			scores.add(rand.nextDouble());
+		}
+
+		OverlapConvexPolygons2D_F64 alg = createAlg();
+		alg.setPolygons(polygons);
+		var found = new DogArray_I32();
+		alg.nonMaximumSuppression(scores, 0.2, found);
+
+		// brute force greedy NMS
+		var clipper = new ClipConvexPolygon2D_F64();
+		List<Integer> expected = new ArrayList<>();
+		List<Integer> order = new ArrayList<>();
+		for (int i = 0; i < polygons.size(); i++) {
+			order.add(i);
+		}
+		order.sort(( a, b ) -> Double.compare(scores.get(b), scores.get(a)));
+		for (int i : order) {
+			boolean keep = true;
+			for (int j : expected) {
+				if (bruteForceIoU(clipper, polygons.get(i), polygons.get(j)) > 0.2) {
+					keep = false;
+					break;
+				}
+			}
+			if (keep)
+				expected.add(i);
+		}
+
+		assertTrue(expected.size() < polygons.size());
+		assertEquals(expected.size(), found.size);
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).intValue(), found.get(i));
+		}
+
+		assertThrows(IllegalArgumentException.class, () -> alg.nonMaximumSuppression(new DogArray_F64(), 0.2, found));
+	}
+
+	@Test void quadrilaterals() {
+		OverlapConvexPolygons2D_F64 alg = createAlg();
+		alg.add(new Quadrilateral_F64(0, 0, 2, 0, 2, 2, 0, 2));
+		// clockwise
+		alg.add(new Quadrilateral_F64(1, 0, 1, 2, 3, 2, 3, 0));
+		alg.add(new Quadrilateral_F64(10, 10, 11, 10, 11, 11, 10, 11));
+		assertEquals(3, alg.size());
+		assertEquals(1.0/3.0, alg.computeIoU(0, 1), GrlConstants.TEST_F64);
+
+		alg.process(0.0);
+		assertEquals(1, alg.getPairIoU().size);
+		assertEquals(1.0/3.0, alg.getPairIoU().get(0), GrlConstants.TEST_F64);
+
+		alg.reset();
+		assertEquals(0, alg.size());
+		alg.process(0.0);
+		assertEquals(0, alg.getPairIoU().size);
+	}
+
+	static double bruteForceIoU( ClipConvexPolygon2D_F64 clipper, Polygon2D_F64 a, Polygon2D_F64 b ) {
+		double intersection = clipper.area(a, b);
+		return intersection/(Math.abs(a.areaSimple()) + Math.abs(b.areaSimple()) - intersection);
+	}
+
+	/** Rotated rectangles, similar to what an object detector would produce */
+	List<Polygon2D_F64> randomPolygons( int count ) {
+		List<Polygon2D_F64> polygons = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			double cx = rand.nextDouble()*40, cy = rand.nextDouble()*40;
+			double w = 2 + rand.nextDouble()*4, h = 2 + rand.nextDouble()*4;
+			double theta = rand.nextDouble()*GrlConstants.PI;
+			double c = Math.cos(theta), s = Math.sin(theta);
+			var polygon = new Polygon2D_F64(4);
+			for (int k = 0; k < 4; k++) {
+				double x = (k == 0 || k == 3 ? -w : w)/2;
+				double y = (k < 2 ? -h : h)/2;
+				polygon.get(k).setTo(cx + c*x - s*y, cy + s*x + c*y);
+			}
+			polygons.add(polygon);
+		}
+		return polygons;
+	}
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.polygon;
+
+import georegression.metric.Intersection2D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import georegression.struct.shapes.PolygonHoles2D_F64;
+import org.ddogleg.struct.DogArray_B;
+import org.ddogleg.struct.DogArray_F64;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestPreparedPolygon2D_F64 {
+	Random rand = new Random(234);
+
+	@Test void square() {
+		var alg = new PreparedPolygon2D_F64(new Polygon2D_F64(0, 0, 2, 0, 2, 2, 0, 2));
+		assertEquals(1, alg.getSlabCount());
+		assertTrue(alg.contains(1, 1));
+		assertTrue(alg.contains(0.1, 1.9));
+		assertFalse(alg.contains(-0.1, 1));
+		assertFalse(alg.contains(2.1, 1));
+		assertFalse(alg.contains(1, -0.1));
+		assertFalse(alg.contains(1, 2.1));
+	}
+
+	/**
+	 * Polygons with less than 3 vertexes have no inside
+	 */
+	@Test void degenerate() {
+		var alg = new PreparedPolygon2D_F64(new Polygon2D_F64(0, 0, 2, 2));
+		assertFalse(alg.contains(1, 1));
+		alg.setPolygon(new Polygon2D_F64());
+		assertFalse(alg.contains(1, 1));
+	}
+
+	/**
+	 * Compare against the brute force approach on random concave polygons
+	 */
+	@Test void compareToContainsConcave() {
+		var alg = new PreparedPolygon2D_F64();
+		for (int trial = 0; trial < 50; trial++) {
+			Polygon2D_F64 polygon = randomStar(3 + rand.nextInt(100));
+			alg.setPolygon(polygon);
+
+			for (int i = 0; i < 500; i++) {
+				var p = new Point2D_F64(rand.nextGaussian()*3, rand.nextGaussian()*3);
+				assertEquals(Intersection2D_F64.containsConcave(polygon, p), alg.contains(p));
+			}
+		}
+	}
+
+	/**
+	 * Several vertexes have the same y-coordinate and there are horizontal sides
+	 */
+	@Test void horizontalSides() {
+		var polygon = new Polygon2D_F64(0, 0, 4, 0, 4, 1, 3, 1, 3, 3, 2, 3, 2, 1, 1, 1, 1, 3, 0, 3);
+		var alg = new PreparedPolygon2D_F64(polygon);
+
+		for (int i = 0; i < 1000; i++) {
+			var p = new Point2D_F64(-0.5 + rand.nextDouble()*5, -0.5 + rand.nextDouble()*4);
+			assertEquals(Intersection2D_F64.containsConcave(polygon, p), alg.contains(p));
+		}
+		assertTrue(alg.contains(0.5, 2));
+		assertFalse(alg.contains(1.5, 2));
+		assertTrue(alg.contains(2.5, 2));
+		assertFalse(alg.contains(3.5, 2));
+	}
+
+	@Test void holes() {
+		var polygon = new PolygonHoles2D_F64(
+				new Polygon2D_F64(0, 0, 10, 0, 10, 10, 0, 10),
+				new Polygon2D_F64(2, 2, 2, 4, 4, 4, 4, 2),
+				new Polygon2D_F64(6, 5, 5, 8, 8, 8));
+		var alg = new PreparedPolygon2D_F64(polygon);
+
+		for (int i = 0; i < 1000; i++) {
+			var p = new Point2D_F64(-1 + rand.nextDouble()*12, -1 + rand.nextDouble()*12);
+			assertEquals(polygon.isInside(p), alg.contains(p));
+		}
+	}
+
+	@Test void batch() {
+		Polygon2D_F64 polygon = randomStar(40);
+		var alg = new PreparedPolygon2D_F64(polygon);
+
+		var points = new DogArray_F64();
+		for (int i = 0; i < 300; i++) {
+			points.add(rand.nextGaussian()*3);
+			points.add(rand.nextGaussian()*3);
+		}
+
+		var results = new DogArray_B();
+		alg.contains(points, results);
+		assertEquals(300, results.size);
+		for (int i = 0; i < results.size; i++) {
+			assertEquals(alg.contains(points.get(i*2), points.get(i*2 + 1)), results.get(i));
+		}
+
+		// Odd number of elements isn't allowed
+		points.add(1.0);
+		assertThrows(IllegalArgumentException.class, () -> alg.contains(points, results));
+	}
+
+	/** Creates a random simple polygon by sampling points at increasing angles */
+	private Polygon2D_F64 randomStar( int N ) {
+		var polygon = new Polygon2D_F64(N);
+		for (int i = 0; i < N; i++) {
+			double theta = GrlConstants.PI2*i/N;
+			double r = 0.2 + 4*rand.nextDouble();
+			polygon.set(i, r*(double)Math.cos(theta), r*(double)Math.sin(theta));
+		}
+		return polygon;
+	}
+}
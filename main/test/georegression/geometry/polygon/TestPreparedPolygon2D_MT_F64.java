@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.polygon;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.shapes.Polygon2D_F64;
+import org.ddogleg.struct.DogArray_B;
+import org.ddogleg.struct.DogArray_F64;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+class TestPreparedPolygon2D_MT_F64 {
+	private final Random rand = new Random(234);
+
+	@Test void compareToSingleThread() {
+		var polygon = new Polygon2D_F64(50);
+		for (int i = 0; i < polygon.size(); i++) {
+			double theta = GrlConstants.PI2*i/polygon.size();
+			double r = 0.5 + rand.nextDouble();
+			polygon.set(i, r*(double)Math.cos(theta), r*(double)Math.sin(theta));
+		}
+
+		var points = new DogArray_F64();
+		for (int i = 0; i < 2000; i++) {
+			points.add(rand.nextGaussian());
+			points.add(rand.nextGaussian());
+		}
+
+		var single = new DogArray_B();
+		var multi = new DogArray_B();
+
+		new PreparedPolygon2D_F64(polygon).contains(points, single);
+
+		var alg = new PreparedPolygon2D_MT_F64(polygon);
+		alg.minimumPointsConcurrent = 0; // make sure it runs it with the threaded code
+		alg.contains(points, multi);
+
+		assertEquals(single.size, multi.size);
+		for (int i = 0; i < single.size; i++) {
+			assertEquals(single.get(i), multi.get(i));
+		}
+	}
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.polygon;
+
+import georegression.metric.Intersection2D_F64;
+import georegression.metric.Intersection2D_I32;
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.point.Point2D_I32;
+import georegression.struct.shapes.Polygon2D_F64;
+import georegression.struct.shapes.Polygon2D_I32;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestRasterizePolygon2D_F64 {
+	Random rand = new Random(234);
+
+	int width = 40, height = 35;
+
+	/**
+	 * Every pixel should be the same as checking each one with containsConcave
+	 */
+	@Test void spans_compareToContains() {
+		var alg = new RasterizePolygon2D_F64();
+		var pt = new Point2D_F64();
+		for (int trial = 0; trial < 50; trial++) {
+			// some of the polygons will go outside the image
+			Polygon2D_F64 polygon = randomPolygon(5 + trial%20, trial%2 == 0 ? 15 : 25);
+			boolean[] mask = rasterize(alg, polygon);
+			for (int y = 0; y < height; y++) {
+				for (int x = 0; x < width; x++) {
+					pt.setTo(x, y);
+					assertEquals(Intersection2D_F64.containsConcave(polygon, pt), mask[y*width + x]);
+				}
+			}
+		}
+	}
+
+	@Test void spans_I32() {
+		var alg = new RasterizePolygon2D_F64();
+		var pt = new Point2D_I32();
+		for (int trial = 0; trial < 20; trial++) {
+			Polygon2D_F64 original = randomPolygon(5 + trial, 20);
+			var polygon = new Polygon2D_I32(original.size());
+			for (int i = 0; i < original.size(); i++) {
+				polygon.get(i).setTo((int)original.get(i).x, (int)original.get(i).y);
+			}
+
+			var mask = new boolean[width*height];
+			alg.process(polygon, width, height, ( y, x0, x1 ) -> {
+				for (int x = x0; x < x1; x++) {
+					mask[y*width + x] = true;
+				}
+			});
+			for (int y = 0; y < height; y++) {
+				for (int x = 0; x < width; x++) {
+					pt.setTo(x, y);
+					assertEquals(Intersection2D_I32.containsConcave(polygon, pt), mask[y*width + x]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Spans should be inside the image, in order, and not overlap
+	 */
+	@Test void spans_ordered() {
+		var alg = new RasterizePolygon2D_F64();
+		Polygon2D_F64 polygon = randomPolygon(30, 30);
+		int[] previous = {-1, -1};
+		alg.process(polygon, width, height, ( y, x0, x1 ) -> {
+			assertTrue(y >= 0 && y < height);
+			assertTrue(x0 >= 0 && x0 < x1 && x1 <= width);
+			assertTrue(y > previous[0] || (y == previous[0] && x0 >= previous[1]));
+			previous[0] = y;
+			previous[1] = x1;
+		});
+	}
+
+	/**
+	 * Compare the coverage against super sampling each pixel
+	 */
+	@Test void coverage_compareToSuperSampling() {
+		var alg = new RasterizePolygon2D_F64();
+		for (int trial = 0; trial < 10; trial++) {
+			Polygon2D_F64 polygon = randomStar(12, trial%2 == 0 ? 10 : 25);
+			double[] found = coverage(alg, polygon);
+
+			int samples = 16;
+			var pt = new Point2D_F64();
+			for (int y = 0; y < height; y++) {
+				for (int x = 0; x < width; x++) {
+					int inside = 0;
+					for (int i = 0; i < samples; i++) {
+						for (int j = 0; j < samples; j++) {
+							pt.setTo(x - 0.5 + (j + 0.5)/samples, y - 0.5 + (i + 0.5)/samples);
+							if (Intersection2D_F64.containsConcave(polygon, pt))
+								inside++;
+						}
+					}
+					assertEquals(inside/(double)(samples*samples), found[y*width + x], 0.07);
+				}
+			}
+		}
+	}
+
+	/**
+	 * If the polygon is inside the image then the total coverage should be its area
+	 */
+	@Test void coverage_area() {
+		var alg = new RasterizePolygon2D_F64();
+		for (int trial = 0; trial < 20; trial++) {
+			Polygon2D_F64 polygon = randomStar(5 + trial, 12);
+			// make sure it's counter clockwise so that the area is positive
+			if (!polygon.isCCW())
+				polygon.flip();
+			double[] found = coverage(alg, polygon);
+			double sum = 0;
+			for (double v : found) {
+				assertTrue(v >= 0.0 && v <= 1.0);
+				sum += v;
+			}
+			assertEquals(polygon.areaSimple(), sum, GrlConstants.TEST_F64);
+		}
+	}
+
+	/**
+	 * Rectangle which is aligned to pixels. Pixels are fully covered, half covered along the sides, and a quarter
+	 * at the corners.
+	 */
+	@Test void coverage_rectangle() {
+		var alg = new RasterizePolygon2D_F64();
+		var polygon = new Polygon2D_F64(2, 3, 8, 3, 8, 7, 2, 7);
+		double[] found = coverage(alg, polygon);
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				double fx = x < 2 || x > 8 ? 0.0 : (x == 2 || x == 8 ? 0.5 : 1.0);
+				double fy = y < 3 || y > 7 ? 0.0 : (y == 3 || y == 7 ? 0.5 : 1.0);
+				assertEquals(fx*fy, found[y*width + x], 1.0e-12);
+			}
+		}
+	}
+
+	/**
+	 * A rectangle which extends outside the image
+	 */
+	@Test void coverage_clipped() {
+		var alg = new RasterizePolygon2D_F64();
+		var polygon = new Polygon2D_F64(-10.2, -5, width + 5, -5, width + 5, 4.25, -10.2, 4.25);
+		double[] found = coverage(alg, polygon);
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				double expected = y < 4 ? 1.0 : (y == 4 ? 0.75 : 0.0);
+				assertEquals(expected, found[y*width + x], 1.0e-12);
+			}
+		}
+
+		// completely outside
+		polygon = new Polygon2D_F64(-10, 2, -5, 2, -5, 8);
+		found = coverage(alg, polygon);
+		for (double v : found) {
+			assertEquals(0.0, v);
+		}
+	}
+
+	@Test void degenerate() {
+		var alg = new RasterizePolygon2D_F64();
+		RasterizePolygon2D_F64.SpanConsumer spans = ( y, x0, x1 ) -> fail("No spans expected");
+		alg.process(new Polygon2D_F64(), width, height, spans);
+		alg.process(new Polygon2D_F64(1, 1, 5, 5), width, height, spans);
+		// zero area
+		alg.process(new Polygon2D_F64(1, 1, 5, 5, 10, 10), width, height, spans);
+		alg.processCoverage(new Polygon2D_F64(1, 1, 5, 1, 10, 1), width, height,
+				( y, x0, x1, coverage ) -> fail("No coverage expected"));
+	}
+
+	boolean[] rasterize( RasterizePolygon2D_F64 alg, Polygon2D_F64 polygon ) {
+		var mask = new boolean[width*height];
+		alg.process(polygon, width, height, ( y, x0, x1 ) -> {
+			for (int x = x0; x < x1; x++) {
+				assertFalse(mask[y*width + x]);
+				mask[y*width + x] = true;
+			}
+		});
+		return mask;
+	}
+
+	double[] coverage( RasterizePolygon2D_F64 alg, Polygon2D_F64 polygon ) {
+		var found = new double[width*height];
+		alg.processCoverage(polygon, width, height, ( y, x0, x1, coverage ) -> {
+			for (int x = x0; x < x1; x++) {
+				found[y*width + x] = coverage[x];
+			}
+		});
+		return found;
+	}
+
+	/** Random polygon which is probably self intersecting */
+	Polygon2D_F64 randomPolygon( int count, double radius ) {
+		var polygon = new Polygon2D_F64(count);
+		for (int i = 0; i < count; i++) {
+			polygon.get(i).setTo(width/2.0 + rand.nextGaussian()*radius, height/2.0 + rand.nextGaussian()*radius);
+		}
+		// Make sure rows and columns that exactly touch a vertex are tested
+		polygon.get(0).setTo(Math.round(polygon.get(0).x), Math.round(polygon.get(0).y));
+		polygon.get(1).y = polygon.get(0).y;
+		return polygon;
+	}
+
+	/** Random star shaped polygon, which is always simple */
+	Polygon2D_F64 randomStar( int count, double radius ) {
+		var polygon = new Polygon2D_F64(count);
+		for (int i = 0; i < count; i++) {
+			double theta = GrlConstants.PI2*i/count;
+			double r = radius*(0.3 + 0.7*rand.nextDouble());
+			polygon.get(i).setTo(width/2.0 + r*(double)Math.cos(theta), height/2.0 + r*(double)Math.sin(theta));
+		}
+		return polygon;
+	}
+}
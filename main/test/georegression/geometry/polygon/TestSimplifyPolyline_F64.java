@@ -0,0 +1,310 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.polygon;
+
+import georegression.geometry.UtilPolygons2D_F64;
+import georegression.metric.Distance2D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.line.LineSegment2D_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import georegression.struct.shapes.Polygon2D_I32;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_I32;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSimplifyPolyline_F64 {
+	Random rand = new Random(234);
+
+	/**
+	 * A square with many vertexes along its sides should be reduced to its corners
+	 */
+	@Test void square() {
+		var input = new Polygon2D_F64();
+		for (int side = 0; side < 4; side++) {
+			for (int i = 0; i < 25; i++) {
+				double t = i/25.0;
+				switch (side) {
+					case 0: input.vertexes.grow().setTo(t*10, 0); break;
+					case 1: input.vertexes.grow().setTo(10, t*10); break;
+					case 2: input.vertexes.grow().setTo(10 - t*10, 10); break;
+					default: input.vertexes.grow().setTo(0, 10 - t*10); break;
+				}
+				input.vertexes.getTail().x += rand.nextGaussian()*0.01;
+				input.vertexes.getTail().y += rand.nextGaussian()*0.01;
+			}
+		}
+
+		for (SimplifyPolyline_F64.Method method : SimplifyPolyline_F64.Method.values()) {
+			var alg = new SimplifyPolyline_F64();
+			alg.method = method;
+			alg.tolerance = 0.2;
+			var found = new Polygon2D_F64();
+			alg.process(input, found);
+			assertEquals(4, found.size());
+			assertEquals(0, alg.getSelected().get(0));
+			assertEquals(25, alg.getSelected().get(1));
+			assertEquals(50, alg.getSelected().get(2));
+			assertEquals(75, alg.getSelected().get(3));
+		}
+	}
+
+	/**
+	 * Every removed vertex must be within tolerance of the output and it should match a recursive implementation
+	 */
+	@Test void douglasPeucker_compareToRecursive() {
+		var alg = new SimplifyPolyline_F64();
+		alg.tolerance = 0.8;
+		for (int trial = 0; trial < 20; trial++) {
+			List<Point2D_F64> input = randomWalk(200);
+			alg.process(input, false);
+			DogArray_I32 selected = alg.getSelected();
+
+			var expected = new DogArray_I32();
+			expected.add(0);
+			recursiveDP(input, 0, input.size() - 1, alg.tolerance, expected);
+			expected.add(input.size() - 1);
+			expected.sort();
+
+			assertEquals(expected.size, selected.size);
+			for (int i = 0; i < expected.size; i++) {
+				assertEquals(expected.get(i), selected.get(i));
+			}
+			checkWithinTolerance(input, selected, false, alg.tolerance);
+		}
+	}
+
+	@Test void douglasPeucker_closed() {
+		var alg = new SimplifyPolyline_F64();
+		alg.tolerance = 0.5;
+		for (int trial = 0; trial < 20; trial++) {
+			Polygon2D_F64 input = randomStar(150);
+			var found = new Polygon2D_F64();
+			alg.process(input, found);
+			assertTrue(found.size() >= 3);
+			assertTrue(found.size() < input.size());
+			checkWithinTolerance(input.vertexes.toList(), alg.getSelected(), true, alg.tolerance);
+		}
+
+		// Even with a huge tolerance a polygon should have 3 vertexes
+		alg.tolerance = 1000;
+		var found = new Polygon2D_F64();
+		alg.process(randomStar(50), found);
+		assertEquals(3, found.size());
+	}
+
+	/**
+	 * Compare to a brute force implementation which searches every vertex for the smallest area
+	 */
+	@Test void visvalingam_compareToBruteForce() {
+		var alg = new SimplifyPolyline_F64();
+		alg.method = SimplifyPolyline_F64.Method.VISVALINGAM;
+		alg.tolerance = 0.5;
+		for (int trial = 0; trial < 20; trial++) {
+			boolean closed = trial%2 == 0;
+			List<Point2D_F64> input = closed ? randomStar(100).vertexes.toList() : randomWalk(100);
+			alg.process(input, closed);
+
+			DogArray_I32 expected = bruteForceVisvalingam(input, closed, alg.tolerance);
+			assertEquals(expected.size, alg.getSelected().size);
+			for (int i = 0; i < expected.size; i++) {
+				assertEquals(expected.get(i), alg.getSelected().get(i));
+			}
+			if (!closed) {
+				assertEquals(0, alg.getSelected().get(0));
+				assertEquals(input.size() - 1, alg.getSelected().getTail(0));
+			}
+		}
+	}
+
+	/**
+	 * A notch in the polygon reaches into a shallow dent. Removing the dent will cause the sides to cross unless
+	 * topology is preserved.
+	 */
+	@Test void preserveTopology() {
+		var input = new Polygon2D_F64(0, 0, 3, 0, 3, -0.3, 7, -0.3, 7, 0, 10, 0, 10, 10, 5.5, 10, 5, -0.1, 4.5, 10, 0, 10);
+		assertFalse(UtilPolygons2D_F64.isSelfIntersecting(input, GrlConstants.TEST_F64));
+
+		for (SimplifyPolyline_F64.Method method : SimplifyPolyline_F64.Method.values()) {
+			var alg = new SimplifyPolyline_F64();
+			alg.method = method;
+			alg.tolerance = method == SimplifyPolyline_F64.Method.DOUGLAS_PEUCKER ? 0.4 : 2.0;
+
+			var found = new Polygon2D_F64();
+			alg.process(input, found);
+			assertTrue(found.size() < input.size());
+			assertTrue(UtilPolygons2D_F64.isSelfIntersecting(found, GrlConstants.TEST_F64));
+
+			alg.preserveTopology = true;
+			alg.process(input, found);
+			assertTrue(found.size() < input.size());
+			assertFalse(UtilPolygons2D_F64.isSelfIntersecting(found, GrlConstants.TEST_F64));
+
+			// Random shapes should never intersect
+			alg.tolerance *= 5;
+			for (int trial = 0; trial < 20; trial++) {
+				Polygon2D_F64 star = randomStar(80);
+				alg.process(star, found);
+				assertFalse(UtilPolygons2D_F64.isSelfIntersecting(found, GrlConstants.TEST_F64));
+			}
+		}
+	}
+
+	@Test void polygon_I32() {
+		var input = new Polygon2D_I32(0, 0, 5, 0, 10, 0, 10, 5, 10, 10, 0, 10);
+		var alg = new SimplifyPolyline_F64();
+		alg.tolerance = 0.1;
+		// in place
+		alg.process(input, input);
+		assertEquals(4, input.size());
+		assertEquals(10, input.get(1).x);
+		assertEquals(0, input.get(1).y);
+		assertEquals(10, input.get(2).x);
+		assertEquals(10, input.get(2).y);
+	}
+
+	@Test void fewVertexes() {
+		var alg = new SimplifyPolyline_F64();
+		alg.tolerance = 100;
+		var output = new DogArray<>(Point2D_F64::new);
+		List<Point2D_F64> input = new ArrayList<>();
+		for (int count = 0; count < 3; count++) {
+			alg.process(input, false, output);
+			assertEquals(count, output.size);
+			input.add(new Point2D_F64(count, 1));
+		}
+		alg.process(input, true, output);
+		assertEquals(3, output.size);
+		input.add(new Point2D_F64(4, 2));
+		alg.process(input, false, output);
+		assertEquals(2, output.size);
+	}
+
+	List<Point2D_F64> randomWalk( int count ) {
+		List<Point2D_F64> points = new ArrayList<>();
+		double x = 0, y = 0;
+		for (int i = 0; i < count; i++) {
+			x += 1.0 + rand.nextGaussian()*0.2;
+			y += rand.nextGaussian();
+			points.add(new Point2D_F64(x, y));
+		}
+		return points;
+	}
+
+	/** Random star shaped polygon, which is always simple */
+	Polygon2D_F64 randomStar( int count ) {
+		var polygon = new Polygon2D_F64(count);
+		for (int i = 0; i < count; i++) {
+			double theta = GrlConstants.PI2*i/count;
+			double r = 2.0 + 8.0*rand.nextDouble();
+			polygon.get(i).setTo(r*(double)Math.cos(theta), r*(double)Math.sin(theta));
+		}
+		return polygon;
+	}
+
+	static void checkWithinTolerance( List<Point2D_F64> input, DogArray_I32 selected, boolean closed, double tol ) {
+		int numSides = closed ? selected.size : selected.size - 1;
+		var segment = new LineSegment2D_F64();
+		for (int i = 0; i < numSides; i++) {
+			int start = selected.get(i);
+			int end = i + 1 < selected.size ? selected.get(i + 1) : selected.get(0) + input.size();
+			segment.setTo(input.get(start), input.get(end%input.size()));
+			for (int j = start + 1; j < end; j++) {
+				assertTrue(Distance2D_F64.distance(segment, input.get(j%input.size())) <= tol);
+			}
+		}
+	}
+
+	static void recursiveDP( List<Point2D_F64> points, int start, int end, double tol, DogArray_I32 selected ) {
+		var segment = new LineSegment2D_F64(points.get(start), points.get(end));
+		int best = -1;
+		double bestDistance = -1;
+		for (int i = start + 1; i < end; i++) {
+			double d = Distance2D_F64.distance(segment, points.get(i));
+			if (d > bestDistance) {
+				bestDistance = d;
+				best = i;
+			}
+		}
+		if (best < 0 || bestDistance <= tol)
+			return;
+		selected.add(best);
+		recursiveDP(points, start, best, tol, selected);
+		recursiveDP(points, best, end, tol, selected);
+	}
+
+	static DogArray_I32 bruteForceVisvalingam( List<Point2D_F64> points, boolean closed, double tol ) {
+		int N = points.size();
+		var remaining = new DogArray_I32();
+		for (int i = 0; i < N; i++) {
+			remaining.add(i);
+		}
+		// effective area of each remaining vertex. NaN means it needs to be computed
+		double[] effective = new double[N];
+		Arrays.fill(effective, Double.NaN);
+
+		while (remaining.size > (closed ? 3 : 2)) {
+			int M = remaining.size;
+			int bestIdx = -1;
+			double bestArea = Double.MAX_VALUE;
+			for (int i = closed ? 0 : 1; i < (closed ? M : M - 1); i++) {
+				int v = remaining.get(i);
+				if (Double.isNaN(effective[v])) {
+					Point2D_F64 a = points.get(remaining.get((i + M - 1)%M));
+					Point2D_F64 b = points.get(v);
+					Point2D_F64 c = points.get(remaining.get((i + 1)%M));
+					effective[v] = Math.abs((b.x - a.x)*(c.y - a.y) - (b.y - a.y)*(c.x - a.x))/2.0;
+				}
+				if (effective[v] < bestArea) {
+					bestArea = effective[v];
+					bestIdx = i;
+				}
+			}
+			if (bestArea >= tol)
+				break;
+			int prev = remaining.get((bestIdx + M - 1)%M);
+			int next = remaining.get((bestIdx + 1)%M);
+			remaining.remove(bestIdx);
+			// neighbors can't have an area smaller than the removed vertex
+			for (int v : new int[]{prev, next}) {
+				int i = remaining.indexOf(v);
+				int m = remaining.size;
+				if (!closed && (i == 0 || i == m - 1))
+					continue;
+				Point2D_F64 a = points.get(remaining.get((i + m - 1)%m));
+				Point2D_F64 b = points.get(v);
+				Point2D_F64 c = points.get(remaining.get((i + 1)%m));
+				double area = Math.abs((b.x - a.x)*(c.y - a.y) - (b.y - a.y)*(c.x - a.x))/2.0;
+				effective[v] = Math.max(area, bestArea);
+			}
+		}
+		remaining.sort();
+		return remaining;
+	}
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.polygon;
+
+import georegression.metric.Area2D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import georegression.struct.shapes.PolygonHoles2D_F64;
+import org.ddogleg.struct.DogArray;
+import org.ejml.UtilEjml;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestTriangulateMonotone_F64 {
+	Random rand = new Random(234);
+
+	DogArray<ThreeIndexes> found = new DogArray<>(ThreeIndexes::new);
+
+	@Test void lessThanThree() {
+		var original = new Polygon2D_F64(new double[][]{{2, 0}, {2, 2}});
+		var alg = new TriangulateMonotone_F64();
+
+		found.grow(); // make it not empty to see if it was cleared
+		alg.process(original, found);
+		assertEquals(0, found.size);
+	}
+
+	@Test void triangle() {
+		var original = new Polygon2D_F64(new double[][]{{2, 0}, {2, 2}, {1, 5}});
+		var alg = new TriangulateMonotone_F64();
+		alg.process(original, found);
+		assertEquals(1, found.size);
+		checkTriangulation(original, found);
+	}
+
+	@Test void simpleShapes() {
+		var alg = new TriangulateMonotone_F64();
+		List<Polygon2D_F64> polygons = new ArrayList<>();
+		polygons.add(new Polygon2D_F64(new double[][]{{0, 0}, {2, 0}, {2, 1}, {0, 1}}));
+		polygons.add(new Polygon2D_F64(new double[][]{{0, 0}, {2, 0}, {0.5, 0.5}, {0, 2}}));
+		polygons.add(new Polygon2D_F64(new double[][]{{0, 0}, {0, 2}, {1, 1}, {2, 2}, {2, 0}}));
+		// Several vertexes along the same horizontal and vertical lines
+		polygons.add(new Polygon2D_F64(0, 0, 1, 0, 2, 0, 2, 1, 2, 2, 1, 2, 1, 1, 0, 1));
+		polygons.add(new Polygon2D_F64(0, 0, 3, 0, 3, 1, 2, 1, 2, 2, 1, 2, 1, 1, 0, 1));
+
+		for (Polygon2D_F64 p : polygons) {
+			alg.process(p, found);
+			checkTriangulation(p, found);
+			// CW polygons should produce CW triangles
+			p.flip();
+			alg.process(p, found);
+			checkTriangulation(p, found);
+		}
+	}
+
+	/**
+	 * Polygon with lots of split and merge vertexes
+	 */
+	@Test void comb() {
+		var polygon = new Polygon2D_F64();
+		int teeth = 20;
+		for (int i = 0; i < teeth; i++) {
+			polygon.vertexes.grow().setTo(i*2, 0);
+			polygon.vertexes.grow().setTo(i*2 + 1, -5);
+		}
+		polygon.vertexes.grow().setTo(teeth*2, 0);
+		for (int i = teeth; i >= 0; i--) {
+			polygon.vertexes.grow().setTo(i*2, 3);
+			if (i > 0)
+				polygon.vertexes.grow().setTo(i*2 - 1, 8);
+		}
+
+		var alg = new TriangulateMonotone_F64();
+		alg.process(polygon, found);
+		checkTriangulation(polygon, found);
+	}
+
+	@Test void randomPolygons() {
+		var alg = new TriangulateMonotone_F64();
+		for (int trial = 0; trial < 200; trial++) {
+			Polygon2D_F64 polygon = randomStar(3 + rand.nextInt(200));
+			if (rand.nextBoolean())
+				polygon.flip();
+			alg.process(polygon, found);
+			checkTriangulation(polygon, found);
+		}
+	}
+
+	@Test void holes() {
+		var polygon = new PolygonHoles2D_F64(
+				new Polygon2D_F64(0, 0, 10, 0, 10, 10, 0, 10),
+				new Polygon2D_F64(2, 2, 4, 2, 4, 4, 2, 4),
+				new Polygon2D_F64(6, 6, 6, 8, 8, 8, 8, 6),
+				// this hole has vertexes at the same y-coordinate as vertexes in the other holes
+				new Polygon2D_F64(5, 0.5, 5.8, 2, 5, 6, 4.5, 4));
+
+		var alg = new TriangulateMonotone_F64();
+		alg.process(polygon, found);
+		checkTriangulation(polygon, found);
+
+		// random holes inside a large square
+		for (int trial = 0; trial < 50; trial++) {
+			polygon.outer.setTo(new Polygon2D_F64(-20, -20, 20, -20, 20, 20, -20, 20));
+			polygon.holes.reset();
+			for (int i = 0; i < 4; i++) {
+				Polygon2D_F64 hole = randomStar(3 + rand.nextInt(20));
+				for (int j = 0; j < hole.size(); j++) {
+					hole.get(j).x += -15 + i*10;
+				}
+				if (rand.nextBoolean())
+					hole.flip();
+				polygon.holes.grow().setTo(hole);
+			}
+			alg.process(polygon, found);
+			checkTriangulation(polygon, found);
+		}
+	}
+
+	/**
+	 * Should produce the same number of triangles and the same area as ear clipping
+	 */
+	@Test void compareToEars() {
+		var alg = new TriangulateMonotone_F64();
+		var ears = new TriangulateSimpleRemoveEars_F64();
+		// star polygons are always CCW and the vertex vote used to guess the order can get them wrong
+		ears.knownOrder = true;
+		var expected = new DogArray<>(ThreeIndexes::new);
+		for (int trial = 0; trial < 20; trial++) {
+			Polygon2D_F64 polygon = randomStar(3 + rand.nextInt(40));
+			alg.process(polygon, found);
+			ears.process(polygon, expected);
+			assertEquals(expected.size, found.size);
+			assertEquals(totalArea(polygon.vertexes.toList(), expected), totalArea(polygon.vertexes.toList(), found), UtilEjml.TEST_F64);
+		}
+	}
+
+	/**
+	 * Weakly simple polygon which touches itself at a repeated vertex. The sweep line can't partition it
+	 */
+	@Test void degenerate_repeatedVertex() {
+		var polygon = new Polygon2D_F64(5, 1, 5, 4, 5, 1, 7, 2);
+		var alg = new TriangulateMonotone_F64();
+		assertFalse(alg.process(polygon, found));
+		assertEquals(0, found.size);
+
+		// it should still work after a failure
+		Polygon2D_F64 star = randomStar(20);
+		assertTrue(alg.process(star, found));
+		checkTriangulation(star, found);
+	}
+
+	/**
+	 * Call it multiple times and make sure the results are the same
+	 */
+	@Test void multipleCalls() {
+		Polygon2D_F64 a = randomStar(30);
+		Polygon2D_F64 b = randomStar(50);
+		var alg = new TriangulateMonotone_F64();
+		alg.process(a, found);
+		int expected = found.size;
+		alg.process(b, found);
+		checkTriangulation(b, found);
+		alg.process(a, found);
+		assertEquals(expected, found.size);
+		checkTriangulation(a, found);
+	}
+
+	private void checkTriangulation( Polygon2D_F64 polygon, DogArray<ThreeIndexes> triangles ) {
+		checkTriangulation(new PolygonHoles2D_F64(polygon), triangles);
+	}
+
+	/**
+	 * Checks the number of triangles, their orientation, and that they cover the polygon without overlapping
+	 */
+	private void checkTriangulation( PolygonHoles2D_F64 polygon, DogArray<ThreeIndexes> triangles ) {
+		List<Point2D_F64> points = new ArrayList<>(polygon.outer.vertexes.toList());
+		for (int i = 0; i < polygon.holes.size; i++) {
+			points.addAll(polygon.holes.get(i).vertexes.toList());
+		}
+
+		assertEquals(points.size() + 2*polygon.holes.size - 2, triangles.size);
+
+		boolean ccw = Area2D_F64.polygonSimpleSigned(polygon.outer) > 0;
+		for (int i = 0; i < triangles.size; i++) {
+			ThreeIndexes t = triangles.get(i);
+			Point2D_F64 a = points.get(t.idx0), b = points.get(t.idx1), c = points.get(t.idx2);
+			double area = ((b.x - a.x)*(c.y - a.y) - (b.y - a.y)*(c.x - a.x))/2.0;
+			assertTrue(ccw ? area >= 0 : area <= 0);
+			// the center of each triangle should be inside the polygon
+			var center = new Point2D_F64((a.x + b.x + c.x)/3, (a.y + b.y + c.y)/3);
+			if (Math.abs(area) > UtilEjml.TEST_F64)
+				assertTrue(polygon.isInside(center));
+		}
+
+		// If the triangles are inside and don't overlap then the area will be the same
+		assertEquals(polygon.area(), totalArea(points, triangles), UtilEjml.TEST_F64*polygon.area());
+	}
+
+	private static double totalArea( List<Point2D_F64> points, DogArray<ThreeIndexes> triangles ) {
+		double total = 0;
+		for (int i = 0; i < triangles.size; i++) {
+			ThreeIndexes t = triangles.get(i);
+			total += Area2D_F64.triangle(points.get(t.idx0), points.get(t.idx1), points.get(t.idx2));
+		}
+		return total;
+	}
+
+	/** Creates a random simple polygon by sampling points at increasing angles */
+	private Polygon2D_F64 randomStar( int N ) {
+		var polygon = new Polygon2D_F64(N);
+		for (int i = 0; i < N; i++) {
+			double theta = GrlConstants.PI2*i/N;
+			double r = 0.2 + 4*rand.nextDouble();
+			polygon.set(i, r*(double)Math.cos(theta), r*(double)Math.sin(theta));
+		}
+		return polygon;
+	}
+}
@@ -107,4 +107,14 @@ public class TestArea2D_F64 {
 		q.flip();
 		assertEquals(area_q_full - area_inside, Area2D_F64.polygonSimple(q), GrlConstants.TEST_F64);
 	}
+
+	@Test void polygonSimpleSigned() {
+		Polygon2D_F64 q = new Polygon2D_F64(0,3, 5,5, 3,3, 5,0);
+		double expected = Area2D_F64.polygonSimple(q);
+
+		// this polygon is CW
+		assertEquals(-expected, Area2D_F64.polygonSimpleSigned(q), GrlConstants.TEST_F64);
+		q.flip();
+		assertEquals(expected, Area2D_F64.polygonSimpleSigned(q), GrlConstants.TEST_F64);
+	}
 }
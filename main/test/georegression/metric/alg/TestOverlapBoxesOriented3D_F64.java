@@ -0,0 +1,272 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.metric.alg;
+
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.geometry.polygon.ClipPolygons2D_F64;
+import georegression.metric.Distance3D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.shapes.Box3D_F64;
+import georegression.struct.shapes.BoxOriented3D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import georegression.struct.shapes.PolygonHoles2D_F64;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_F64;
+import org.ddogleg.struct.DogArray_I32;
+import org.ejml.data.DMatrixRMaj;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestOverlapBoxesOriented3D_F64 {
+	Random rand = new Random(234);
+
+	ClipPolygons2D_F64 general = new ClipPolygons2D_F64();
+	DogArray<PolygonHoles2D_F64> clipped = new DogArray<>(PolygonHoles2D_F64::new);
+
+	OverlapBoxesOriented3D_F64 createAlg() {
+		return new OverlapBoxesOriented3D_F64();
+	}
+
+	/**
+	 * If the boxes are axis aligned it should be the same as the IoU for {@link Box3D_F64}
+	 */
+	@Test void axisAligned() {
+		OverlapBoxesOriented3D_F64 alg = createAlg();
+		for (int trial = 0; trial < 50; trial++) {
+			Box3D_F64 a = randomBox3D();
+			Box3D_F64 b = randomBox3D();
+			alg.reset();
+			Point3D_F64 ca = a.center(null);
+			Point3D_F64 cb = b.center(null);
+			alg.add(ca.x, ca.y, ca.z, a.getLengthX(), a.getLengthY(), a.getLengthZ(), 0.0);
+			// rotating by 180 degrees should produce the same box
+			alg.add(cb.x, cb.y, cb.z, b.getLengthX(), b.getLengthY(), b.getLengthZ(), GrlConstants.PI);
+			assertEquals(Distance3D_F64.scoreIoU(a, b), alg.computeIoU(0, 1), GrlConstants.TEST_F64);
+		}
+	}
+
+	/**
+	 * Compare the matrix against computing the IoU for every pair using general polygon clipping
+	 */
+	@Test void computeMatrix() {
+		List<BoxOriented3D_F64> boxes = randomBoxes(60);
+		OverlapBoxesOriented3D_F64 alg = createAlg();
+		alg.setBoxes(boxes);
+
+		var found = new DMatrixRMaj(1, 1);
+		alg.computeMatrix(found);
+		assertEquals(boxes.size(), found.numRows);
+
+		int totalOverlap = 0;
+		for (int i = 0; i < boxes.size(); i++) {
+			assertEquals(1.0, found.get(i, i));
+			for (int j = i + 1; j < boxes.size(); j++) {
+				double expected = bruteForceIoU(boxes.get(i), boxes.get(j));
+				assertEquals(expected, found.get(i, j), GrlConstants.TEST_F64);
+				assertEquals(expected, found.get(j, i), GrlConstants.TEST_F64);
+				if (expected > 0)
+					totalOverlap++;
+			}
+		}
+		// sanity check the test
+		assertTrue(totalOverlap > 10);
+		assertTrue(totalOverlap < boxes.size()*(boxes.size() - 1)/4);
+	}
+
+	/**
+	 * Only pairs above the minimum should be returned
+	 */
+	@Test void process_minimum() {
+		List<BoxOriented3D_F64> boxes = randomBoxes(60);
+		OverlapBoxesOriented3D_F64 alg = createAlg();
+		alg.setBoxes(boxes);
+		alg.process(0.2);
+
+		int expectedCount = 0;
+		for (int i = 0; i < boxes.size(); i++) {
+			for (int j = i + 1; j < boxes.size(); j++) {
+				if (bruteForceIoU(boxes.get(i), boxes.get(j)) > 0.2)
+					expectedCount++;
+			}
+		}
+		assertTrue(expectedCount > 0);
+		assertEquals(expectedCount, alg.getPairIoU().size);
+		for (int k = 0; k < alg.getPairIoU().size; k++) {
+			int i = alg.getPairs().get(k*2), j = alg.getPairs().get(k*2 + 1);
+			assertTrue(i < j);
+			assertEquals(bruteForceIoU(boxes.get(i), boxes.get(j)), alg.getPairIoU().get(k), GrlConstants.TEST_F64);
+		}
+	}
+
+	@Test void nonMaximumSuppression() {
+		List<BoxOriented3D_F64> boxes = randomBoxes(80);
+		var scores = new DogArray_F64();
+		for (int i = 0; i < boxes.size(); i++) {
+			scores.add(rand.nextDouble());
+		}
+
+		OverlapBoxesOriented3D_F64 alg = createAlg();
+		alg.setBoxes(boxes);
+		var found = new DogArray_I32();
+		alg.nonMaximumSuppression(scores, 0.1, found);
+
+		// brute force greedy NMS
+		List<Integer> expected = new ArrayList<>();
+		List<Integer> order = new ArrayList<>();
+		for (int i = 0; i < boxes.size(); i++) {
+			order.add(i);
+		}
+		order.sort(( a, b ) -> Double.compare(scores.get(b), scores.get(a)));
+		for (int i : order) {
+			boolean keep = true;
+			for (int j : expected) {
+				if (bruteForceIoU(boxes.get(i), boxes.get(j)) > 0.1) {
+					keep = false;
+					break;
+				}
+			}
+			if (keep)
+				expected.add(i);
+		}
+
+		assertTrue(expected.size() < boxes.size());
+		assertEquals(expected.size(), found.size);
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).intValue(), found.get(i));
+		}
+
+		assertThrows(IllegalArgumentException.class, () -> alg.nonMaximumSuppression(new DogArray_F64(), 0.2, found));
+	}
+
+	/**
+	 * Packed boxes should produce the same results as adding them one at a time
+	 */
+	@Test void setBoxes_packed() {
+		List<BoxOriented3D_F64> boxes = randomBoxes(30);
+		var packed = new double[7*boxes.size()];
+		for (int i = 0; i < boxes.size(); i++) {
+			BoxOriented3D_F64 b = boxes.get(i);
+			packed[i*7] = b.pose.T.x;
+			packed[i*7 + 1] = b.pose.T.y;
+			packed[i*7 + 2] = b.pose.T.z;
+			packed[i*7 + 3] = b.lengthX;
+			packed[i*7 + 4] = b.lengthY;
+			packed[i*7 + 5] = b.lengthZ;
+			packed[i*7 + 6] = Math.atan2(b.pose.R.get(1, 0), b.pose.R.get(0, 0));
+		}
+
+		OverlapBoxesOriented3D_F64 expected = createAlg();
+		OverlapBoxesOriented3D_F64 found = createAlg();
+		expected.setBoxes(boxes);
+		found.setBoxes(packed, boxes.size());
+		assertEquals(boxes.size(), found.size());
+		var matrixExpected = new DMatrixRMaj(1, 1);
+		var matrixFound = new DMatrixRMaj(1, 1);
+		expected.computeMatrix(matrixExpected);
+		found.computeMatrix(matrixFound);
+		for (int i = 0; i < matrixExpected.data.length; i++) {
+			assertEquals(matrixExpected.data[i], matrixFound.data[i], GrlConstants.TEST_F64);
+		}
+
+		assertThrows(IllegalArgumentException.class, () -> found.setBoxes(packed, boxes.size() + 1));
+	}
+
+	/**
+	 * Boxes which are rotated around another axis are not supported
+	 */
+	@Test void add_notYaw() {
+		var box = new BoxOriented3D_F64(new Se3_F64(), 1, 2, 3);
+		ConvertRotation3D_F64.rotX(0.1, box.pose.R);
+		OverlapBoxesOriented3D_F64 alg = createAlg();
+		assertThrows(IllegalArgumentException.class, () -> alg.add(box));
+
+		// Flipping the box upside down is fine
+		ConvertRotation3D_F64.rotX(GrlConstants.PI, box.pose.R);
+		alg.add(box);
+		alg.add(new BoxOriented3D_F64(new Se3_F64(), 1, 2, 3));
+		assertEquals(1.0, alg.computeIoU(0, 1), GrlConstants.TEST_F64);
+	}
+
+	@Test void scoreIoU_Distance3D() {
+		List<BoxOriented3D_F64> boxes = randomBoxes(20);
+		OverlapBoxesOriented3D_F64 alg = createAlg();
+		for (int i = 1; i < boxes.size(); i++) {
+			double expected = bruteForceIoU(boxes.get(i - 1), boxes.get(i));
+			assertEquals(expected, Distance3D_F64.scoreIoU(boxes.get(i - 1), boxes.get(i), null),
+					GrlConstants.TEST_F64);
+			// the same instance is reused and must be reset internally
+			assertEquals(expected, Distance3D_F64.scoreIoU(boxes.get(i - 1), boxes.get(i), alg), GrlConstants.TEST_F64);
+		}
+	}
+
+	double bruteForceIoU( BoxOriented3D_F64 a, BoxOriented3D_F64 b ) {
+		double overlapZ = Math.min(a.pose.T.z + a.lengthZ/2, b.pose.T.z + b.lengthZ/2) -
+				Math.max(a.pose.T.z - a.lengthZ/2, b.pose.T.z - b.lengthZ/2);
+		if (overlapZ <= 0)
+			return 0.0;
+
+		general.process(ClipPolygons2D_F64.Operation.INTERSECTION, footprint(a), footprint(b), clipped);
+		double area = 0.0;
+		for (int i = 0; i < clipped.size; i++) {
+			area += clipped.get(i).area();
+		}
+		double intersection = area*overlapZ;
+		return intersection/(a.volume() + b.volume() - intersection);
+	}
+
+	static Polygon2D_F64 footprint( BoxOriented3D_F64 box ) {
+		var polygon = new Polygon2D_F64(4);
+		var corner = new Point3D_F64();
+		int[] order = {0, 1, 3, 2};
+		for (int i = 0; i < 4; i++) {
+			box.getCorner(order[i], corner);
+			polygon.get(i).setTo(corner.x, corner.y);
+		}
+		return polygon;
+	}
+
+	Box3D_F64 randomBox3D() {
+		double x = rand.nextDouble()*4, y = rand.nextDouble()*4, z = rand.nextDouble()*4;
+		return new Box3D_F64(x, y, z, x + 0.5 + rand.nextDouble()*3, y + 0.5 + rand.nextDouble()*3,
+				z + 0.5 + rand.nextDouble()*3);
+	}
+
+	/** Boxes rotated around the z-axis, similar to what an object detector would produce */
+	List<BoxOriented3D_F64> randomBoxes( int count ) {
+		List<BoxOriented3D_F64> boxes = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			var box = new BoxOriented3D_F64(new Se3_F64(),
+					2 + rand.nextDouble()*4, 2 + rand.nextDouble()*4, 1 + rand.nextDouble()*2);
+			box.pose.T.setTo(rand.nextDouble()*30, rand.nextDouble()*30, rand.nextDouble()*3);
+			ConvertRotation3D_F64.rotZ(rand.nextDouble()*GrlConstants.PI2, box.pose.R);
+			boxes.add(box);
+		}
+		return boxes;
+	}
+}
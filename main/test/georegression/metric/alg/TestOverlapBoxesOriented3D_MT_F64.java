@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.metric.alg;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestOverlapBoxesOriented3D_MT_F64 extends TestOverlapBoxesOriented3D_F64 {
+	@Override
+	OverlapBoxesOriented3D_F64 createAlg() {
+		var alg = new OverlapBoxesOriented3D_MT_F64();
+		// make sure the concurrent code is used
+		alg.minimumCandidatesConcurrent = 0;
+		return alg;
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.metric.alg;
+
+import org.ddogleg.struct.DogArray_I32;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestOverlapSweepNms_F64 {
+	Random rand = new Random(234);
+
+	/**
+	 * Compare against brute force for axis aligned boxes. Since the shapes fill their bounding box the
+	 * upper bound on the IoU is the exact IoU.
+	 */
+	@Test void findCandidates() {
+		var alg = new OverlapSweepNms_F64();
+		var found = new DogArray_I32();
+
+		for (int dimension = 1; dimension <= 3; dimension++) {
+			for (double minimumIoU : new double[]{0.0, 0.2}) {
+				int N = 80;
+				double[] bounds = new double[N*2*dimension];
+				double[] sizes = new double[N];
+				for (int i = 0; i < N; i++) {
+					sizes[i] = 1.0;
+					for (int d = 0; d < dimension; d++) {
+						double lower = rand.nextGaussian()*3.0;
+						double length = 0.5 + Math.abs(rand.nextGaussian());
+						bounds[i*2*dimension + d] = lower;
+						bounds[i*2*dimension + dimension + d] = lower + length;
+						sizes[i] *= length;
+					}
+				}
+
+				alg.findCandidates(bounds, sizes, N, dimension, minimumIoU, found);
+
+				Set<Integer> foundPairs = new HashSet<>();
+				for (int k = 0; k < found.size; k += 2) {
+					int i = found.get(k), j = found.get(k + 1);
+					assertTrue(i < j);
+					assertTrue(foundPairs.add(i*N + j));
+				}
+
+				int expected = 0;
+				for (int i = 0; i < N; i++) {
+					for (int j = i + 1; j < N; j++) {
+						int idxI = i*2*dimension, idxJ = j*2*dimension;
+						double intersection = 1.0;
+						for (int d = 0; d < dimension; d++) {
+							double overlap = Math.min(bounds[idxI + dimension + d], bounds[idxJ + dimension + d]) -
+									Math.max(bounds[idxI + d], bounds[idxJ + d]);
+							intersection *= Math.max(0.0, overlap);
+						}
+						double iou = intersection/(sizes[i] + sizes[j] - intersection);
+						if (intersection > 0.0 && iou > minimumIoU) {
+							expected++;
+							assertTrue(foundPairs.contains(i*N + j));
+						}
+					}
+				}
+				assertEquals(expected, foundPairs.size());
+			}
+		}
+	}
+
+	@Test void nonMaximumSuppression() {
+		var alg = new OverlapSweepNms_F64();
+		var selected = new DogArray_I32();
+
+		// 0-1 and 1-2 overlap. 3 is isolated
+		var pairs = DogArray_I32.array(0, 1, 1, 2);
+		double[] scores = new double[]{0.5, 0.9, 0.1, 0.2};
+		alg.nonMaximumSuppression(pairs, scores, 4, selected);
+		assertArrayEquals(new int[]{1, 3}, selected.toArray());
+
+		// 1 is now suppressed by 0, which lets 2 be selected
+		scores = new double[]{0.95, 0.9, 0.3, 0.2};
+		alg.nonMaximumSuppression(pairs, scores, 4, selected);
+		assertArrayEquals(new int[]{0, 2, 3}, selected.toArray());
+
+		// Nothing overlaps
+		pairs.reset();
+		alg.nonMaximumSuppression(pairs, scores, 4, selected);
+		assertArrayEquals(new int[]{0, 1, 2, 3}, selected.toArray());
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.struct.se;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.GenericInvertibleTransformTests_F64;
+import georegression.struct.InvertibleTransform;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.point.Vector3D_F64;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestSe3Fixed_F64 extends GenericInvertibleTransformTests_F64<Point3D_F64> {
+	Random rand = new Random(234234);
+
+	@Test void convert() {
+		Se3_F64 expected = createRandomSe3();
+		var fixed = new Se3Fixed_F64(expected);
+		Se3_F64 found = fixed.convertTo(null);
+		assertTrue(SpecialEuclideanOps_F64.isIdentical(expected, found, 0.0, 0.0));
+
+		// Apply it to a point and see if it's the same
+		Point3D_F64 p = createRandomPoint();
+		assertTrue(expected.transform(p, null).isIdentical(fixed.transform(p, null), GrlConstants.TEST_F64));
+		assertTrue(expected.transformReverse(p, null).isIdentical(fixed.transformReverse(p, null), GrlConstants.TEST_F64));
+		var v = new Vector3D_F64(p.x, p.y, p.z);
+		assertTrue(expected.transform(v, null).isIdentical(fixed.transform(v, null), GrlConstants.TEST_F64));
+		assertTrue(expected.transformReverse(v, null).isIdentical(fixed.transformReverse(v, null), GrlConstants.TEST_F64));
+	}
+
+	/**
+	 * Results should be identical to Se3_F64
+	 */
+	@Test void compareToSe3() {
+		Se3_F64 a = createRandomSe3();
+		Se3_F64 b = createRandomSe3();
+		var fa = new Se3Fixed_F64(a);
+		var fb = new Se3Fixed_F64(b);
+
+		double tol = GrlConstants.TEST_F64;
+		assertTrue(SpecialEuclideanOps_F64.isIdentical(a.concat(b, null), fa.concat(fb, null).convertTo(null), tol, tol));
+		assertTrue(SpecialEuclideanOps_F64.isIdentical(a.invertConcat(b, null), fa.invertConcat(fb, null).convertTo(null), tol, tol));
+		assertTrue(SpecialEuclideanOps_F64.isIdentical(a.concatInvert(b, null), fa.concatInvert(fb, null).convertTo(null), tol, tol));
+		assertTrue(SpecialEuclideanOps_F64.isIdentical(a.invert(null), fa.invert(null).convertTo(null), tol, tol));
+	}
+
+	/**
+	 * The output can be the same instance as the inputs
+	 */
+	@Test void sameInstance() {
+		var a = new Se3Fixed_F64(createRandomSe3());
+		var b = new Se3Fixed_F64(createRandomSe3());
+
+		Se3Fixed_F64 expected = a.concat(b, null);
+		Se3Fixed_F64 found = a.copy();
+		found.concat(b, found);
+		assertTrue(expected.isIdentical(found, 0.0, 0.0));
+
+		expected = a.invertConcat(b, null);
+		found = a.copy();
+		found.invertConcat(b, found);
+		assertTrue(expected.isIdentical(found, 0.0, 0.0));
+
+		expected = a.concatInvert(b, null);
+		found = b.copy();
+		a.concatInvert(found, found);
+		assertTrue(expected.isIdentical(found, 0.0, 0.0));
+
+		expected = a.invert(null);
+		found = a.copy();
+		found.invert(found);
+		assertTrue(expected.isIdentical(found, 0.0, 0.0));
+	}
+
+	private Se3_F64 createRandomSe3() {
+		return SpecialEuclideanOps_F64.eulerXyz(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(),
+				rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(), null);
+	}
+
+	@Override
+	public Point3D_F64 createRandomPoint() {
+		return new Point3D_F64(rand.nextGaussian()*3, rand.nextGaussian()*3, rand.nextGaussian()*3);
+	}
+
+	@Override
+	public InvertibleTransform createRandomTransform() {
+		return new Se3Fixed_F64(createRandomSe3());
+	}
+
+	@Override
+	public Point3D_F64 apply( InvertibleTransform se, Point3D_F64 point, @Nullable Point3D_F64 result ) {
+		return ((Se3Fixed_F64)se).transform(point, result);
+	}
+}
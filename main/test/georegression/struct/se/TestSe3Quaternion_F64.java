@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.struct.se;
+
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.geometry.GeometryMath_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.EulerType;
+import georegression.struct.GenericInvertibleTransformTests_F64;
+import georegression.struct.InvertibleTransform;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.point.Vector3D_F64;
+import georegression.transform.se.InterpolateLinearSe3_F64;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestSe3Quaternion_F64 extends GenericInvertibleTransformTests_F64<Point3D_F64> {
+	Random rand = new Random(234234);
+	double tol = GrlConstants.TEST_F64;
+	// Rotation error is computed from acos() and isn't as precise
+	double tolR = GrlConstants.TEST_F64*100;
+
+	@Test void convert() {
+		Se3_F64 expected = createRandomSe3();
+		var alg = new Se3Quaternion_F64(expected);
+		Se3_F64 found = alg.convertTo(null);
+		assertTrue(SpecialEuclideanOps_F64.isIdentical(expected, found, tol, tolR));
+
+		// Apply it to a point and see if it's the same
+		Point3D_F64 p = createRandomPoint();
+		assertTrue(expected.transform(p, null).isIdentical(alg.transform(p, null), tol));
+		assertTrue(expected.transformReverse(p, null).isIdentical(alg.transformReverse(p, null), tol));
+	}
+
+	/**
+	 * Results should be the same as Se3_F64
+	 */
+	@Test void compareToSe3() {
+		Se3_F64 a = createRandomSe3();
+		Se3_F64 b = createRandomSe3();
+		var qa = new Se3Quaternion_F64(a);
+		var qb = new Se3Quaternion_F64(b);
+
+		assertTrue(SpecialEuclideanOps_F64.isIdentical(a.concat(b, null), qa.concat(qb, null).convertTo(null), tol, tolR));
+		assertTrue(SpecialEuclideanOps_F64.isIdentical(a.invertConcat(b, null), qa.invertConcat(qb, null).convertTo(null), tol, tolR));
+		assertTrue(SpecialEuclideanOps_F64.isIdentical(a.concatInvert(b, null), qa.concatInvert(qb, null).convertTo(null), tol, tolR));
+		assertTrue(SpecialEuclideanOps_F64.isIdentical(a.invert(null), qa.invert(null).convertTo(null), tol, tolR));
+	}
+
+	/**
+	 * The output can be the same instance as the inputs
+	 */
+	@Test void sameInstance() {
+		var a = new Se3Quaternion_F64(createRandomSe3());
+		var b = new Se3Quaternion_F64(createRandomSe3());
+
+		Se3Quaternion_F64 found = a.copy();
+		found.concat(b, found);
+		checkIdentical(a.concat(b, null), found);
+		found = b.copy();
+		a.concat(found, found);
+		checkIdentical(a.concat(b, null), found);
+
+		found = a.copy();
+		found.invertConcat(b, found);
+		checkIdentical(a.invertConcat(b, null), found);
+		found = b.copy();
+		a.invertConcat(found, found);
+		checkIdentical(a.invertConcat(b, null), found);
+
+		found = a.copy();
+		found.concatInvert(b, found);
+		checkIdentical(a.concatInvert(b, null), found);
+		found = b.copy();
+		a.concatInvert(found, found);
+		checkIdentical(a.concatInvert(b, null), found);
+
+		found = a.copy();
+		found.invert(found);
+		checkIdentical(a.invert(null), found);
+	}
+
+	@Test void interpolate() {
+		var a = new Se3Quaternion_F64(createRandomSe3());
+		var b = new Se3Quaternion_F64(createRandomSe3());
+
+		checkIdentical(a, a.interpolate(b, 0.0, null));
+		checkIdentical(b, b.interpolate(b, 1.0, null));
+
+		// Compare against the matrix based implementation
+		var expected = new Se3_F64();
+		var interp = new InterpolateLinearSe3_F64();
+		interp.setTransforms(a.convertTo(null), b.convertTo(null));
+		for (int i = 1; i < 10; i++) {
+			double t = i/10.0;
+			interp.interpolate(t, expected);
+			Se3_F64 found = a.interpolate(b, t, null).convertTo(null);
+			assertTrue(SpecialEuclideanOps_F64.isIdentical(expected, found, tol, tolR));
+		}
+	}
+
+	@Test void interpolateScrew_endPoints() {
+		var a = new Se3Quaternion_F64(createRandomSe3());
+		var b = new Se3Quaternion_F64(createRandomSe3());
+
+		checkIdentical(a, a.interpolateScrew(b, 0.0, null));
+		checkIdentical(b, a.interpolateScrew(b, 1.0, null));
+
+		// pure translation
+		b.q.setTo(a.q);
+		checkIdentical(a, a.interpolateScrew(b, 0.0, null));
+		checkIdentical(b, a.interpolateScrew(b, 1.0, null));
+		Se3Quaternion_F64 found = a.interpolateScrew(b, 0.25, null);
+		assertTrue(found.q.isIdentical(a.q, tol));
+		assertEquals(0.0, found.T.distance(a.T.x*0.75 + b.T.x*0.25, a.T.y*0.75 + b.T.y*0.25, a.T.z*0.75 + b.T.z*0.25), tol);
+	}
+
+	/**
+	 * Interpolating a screw motion should move along the screw at a constant rate, no matter where the
+	 * screw axis is relative to the origin.
+	 */
+	@Test void interpolateScrew_constantPitch() {
+		Se3_F64 start = createRandomSe3();
+		var axisPoint = new Vector3D_F64(2, -1, 0.5);
+		double angle = 1.2;
+		double pitch = 0.7;
+
+		var a = new Se3Quaternion_F64(start);
+		var b = new Se3Quaternion_F64(start.concat(screw(axisPoint, angle, pitch), null));
+
+		for (int i = 0; i <= 10; i++) {
+			double t = i/10.0;
+			Se3_F64 expected = start.concat(screw(axisPoint, t*angle, t*pitch), null);
+			Se3_F64 found = a.interpolateScrew(b, t, null).convertTo(null);
+			assertTrue(SpecialEuclideanOps_F64.isIdentical(expected, found, tol, tolR));
+		}
+	}
+
+	/**
+	 * Rotation around the z-axis through the point 'c' plus a translation along the z-axis
+	 */
+	private Se3_F64 screw( Vector3D_F64 c, double angle, double translation ) {
+		var motion = new Se3_F64();
+		ConvertRotation3D_F64.eulerToMatrix(EulerType.XYZ, 0, 0, angle, motion.R);
+		// T = c - R*c + d*z
+		var rc = new Vector3D_F64();
+		GeometryMath_F64.mult(motion.R, c, rc);
+		motion.T.setTo(c.x - rc.x, c.y - rc.y, c.z - rc.z + translation);
+		return motion;
+	}
+
+	@Test void normalize() {
+		var a = new Se3Quaternion_F64(createRandomSe3());
+		a.q.w *= 1.1;
+		a.q.x *= 1.1;
+		a.normalize();
+		assertEquals(1.0, a.q.w*a.q.w + a.q.x*a.q.x + a.q.y*a.q.y + a.q.z*a.q.z, tol);
+	}
+
+	private void checkIdentical( Se3Quaternion_F64 expected, Se3Quaternion_F64 found ) {
+		assertTrue(SpecialEuclideanOps_F64.isIdentical(expected.convertTo(null), found.convertTo(null), tol, tolR));
+	}
+
+	private Se3_F64 createRandomSe3() {
+		return SpecialEuclideanOps_F64.eulerXyz(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(),
+				rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(), null);
+	}
+
+	@Override
+	public Point3D_F64 createRandomPoint() {
+		return new Point3D_F64(rand.nextGaussian()*3, rand.nextGaussian()*3, rand.nextGaussian()*3);
+	}
+
+	@Override
+	public InvertibleTransform createRandomTransform() {
+		return new Se3Quaternion_F64(createRandomSe3());
+	}
+
+	@Override
+	public Point3D_F64 apply( InvertibleTransform se, Point3D_F64 point, @Nullable Point3D_F64 result ) {
+		return ((Se3Quaternion_F64)se).transform(point, result);
+	}
+}
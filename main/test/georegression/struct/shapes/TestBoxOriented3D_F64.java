@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.struct.shapes;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.se.SpecialEuclideanOps_F64;
+import georegression.transform.se.SePointOps_F64;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestBoxOriented3D_F64 {
+	@Test void getCorner() {
+		Se3_F64 pose = SpecialEuclideanOps_F64.eulerXyz(1, -2, 0.5, 0.3, 1.2, -0.4, null);
+		var box = new BoxOriented3D_F64(pose, 2, 3, 4);
+
+		var found = new Point3D_F64();
+		var local = new Point3D_F64();
+		for (int i = 0; i < 8; i++) {
+			box.getCorner(i, found);
+			SePointOps_F64.transformReverse(pose, found, local);
+			assertEquals((i & 1) != 0 ? 1.0 : -1.0, local.x, GrlConstants.TEST_F64);
+			assertEquals((i & 2) != 0 ? 1.5 : -1.5, local.y, GrlConstants.TEST_F64);
+			assertEquals((i & 4) != 0 ? 2.0 : -2.0, local.z, GrlConstants.TEST_F64);
+		}
+	}
+
+	@Test void volume() {
+		assertEquals(24.0, new BoxOriented3D_F64(new Se3_F64(), 2, 3, 4).volume(), GrlConstants.TEST_F64);
+	}
+
+	@Test void setTo() {
+		Se3_F64 pose = SpecialEuclideanOps_F64.eulerXyz(1, -2, 0.5, 0.3, 1.2, -0.4, null);
+		var box = new BoxOriented3D_F64(pose, 2, 3, 4);
+		var copy = new BoxOriented3D_F64(box);
+		assertEquals(2.0, copy.lengthX);
+		assertEquals(3.0, copy.lengthY);
+		assertEquals(4.0, copy.lengthZ);
+		assertEquals(0.0, copy.pose.T.distance(pose.T));
+
+		// should be a copy
+		box.pose.T.x = 10;
+		assertEquals(1.0, copy.pose.T.x);
+
+		copy.zero();
+		assertEquals(0.0, copy.volume());
+		assertEquals(0.0, copy.pose.T.norm());
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.struct.shapes;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Vector3D_F64;
+import org.ddogleg.struct.DogArray_I32;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestHalfEdgeMesh3D_F64 {
+	/**
+	 * Creates an axis aligned cube with quadrilateral faces
+	 */
+	public static HalfEdgeMesh3D_F64 createCube( double length ) {
+		var mesh = new HalfEdgeMesh3D_F64();
+		for (int i = 0; i < 8; i++) {
+			mesh.vertexes.grow().setTo((i & 1)*length, ((i >> 1) & 1)*length, ((i >> 2) & 1)*length);
+		}
+		// counter-clockwise when viewed from outside
+		int[][] faces = new int[][]{{0, 2, 3, 1}, {4, 5, 7, 6}, {0, 1, 5, 4}, {2, 6, 7, 3}, {0, 4, 6, 2}, {1, 3, 7, 5}};
+		mesh.vertexEdge.resize(8);
+		for (int face = 0; face < faces.length; face++) {
+			int first = mesh.edgeVertex.size;
+			mesh.faceEdge.add(first);
+			for (int i = 0; i < 4; i++) {
+				mesh.vertexEdge.data[faces[face][i]] = mesh.edgeVertex.size;
+				mesh.edgeVertex.add(faces[face][i]);
+				mesh.edgeFace.add(face);
+				mesh.edgeNext.add(first + (i + 1)%4);
+			}
+		}
+		mesh.edgeTwin.resize(mesh.edgeVertex.size);
+		for (int a = 0; a < mesh.edgeVertex.size; a++) {
+			for (int b = 0; b < mesh.edgeVertex.size; b++) {
+				if (mesh.edgeVertex.get(a) == mesh.getEdgeHead(b) && mesh.getEdgeHead(a) == mesh.edgeVertex.get(b))
+					mesh.edgeTwin.data[a] = b;
+			}
+		}
+		return mesh;
+	}
+
+	@Test void getFaceVertexes() {
+		HalfEdgeMesh3D_F64 mesh = createCube(1.0);
+		assertEquals(6, mesh.getFaceCount());
+		assertEquals(24, mesh.getHalfEdgeCount());
+
+		var found = new DogArray_I32();
+		mesh.getFaceVertexes(1, found);
+		assertEquals(4, mesh.getFaceSize(1));
+		assertEquals(4, found.size);
+		assertEquals(4, found.get(0));
+		assertEquals(5, found.get(1));
+		assertEquals(7, found.get(2));
+		assertEquals(6, found.get(3));
+	}
+
+	@Test void computeFaceNormal() {
+		HalfEdgeMesh3D_F64 mesh = createCube(2.0);
+		var normal = new Vector3D_F64();
+
+		// bottom face points down and top face points up
+		assertEquals(4.0, mesh.computeFaceNormal(0, normal), GrlConstants.TEST_F64);
+		assertEquals(0.0, normal.distance(0, 0, -1), GrlConstants.TEST_F64);
+		assertEquals(4.0, mesh.computeFaceNormal(1, normal), GrlConstants.TEST_F64);
+		assertEquals(0.0, normal.distance(0, 0, 1), GrlConstants.TEST_F64);
+	}
+
+	@Test void computeArea_Volume() {
+		HalfEdgeMesh3D_F64 mesh = createCube(2.0);
+		assertEquals(24.0, mesh.computeArea(), GrlConstants.TEST_F64);
+		assertEquals(8.0, mesh.computeVolume(), GrlConstants.TEST_F64);
+
+		// volume doesn't depend on the location
+		for (int i = 0; i < mesh.vertexes.size; i++) {
+			mesh.vertexes.get(i).plusIP(new Vector3D_F64(10, -3, 4));
+		}
+		assertEquals(8.0, mesh.computeVolume(), GrlConstants.TEST_F64);
+	}
+
+	@Test void isConsistent() {
+		HalfEdgeMesh3D_F64 mesh = createCube(1.0);
+		assertTrue(mesh.isConsistent());
+
+		// twins don't point to each other
+		HalfEdgeMesh3D_F64 broken = new HalfEdgeMesh3D_F64().setTo(mesh);
+		int twin = broken.edgeTwin.get(0);
+		broken.edgeTwin.data[twin] = twin;
+		assertFalse(broken.isConsistent());
+
+		// edge leaves its face
+		broken = new HalfEdgeMesh3D_F64().setTo(mesh);
+		broken.edgeNext.data[0] = 5;
+		assertFalse(broken.isConsistent());
+
+		// missing a face
+		broken = new HalfEdgeMesh3D_F64().setTo(mesh);
+		broken.faceEdge.removeTail();
+		assertFalse(broken.isConsistent());
+	}
+
+	@Test void setTo() {
+		HalfEdgeMesh3D_F64 mesh = createCube(1.0);
+		var copy = new HalfEdgeMesh3D_F64().setTo(mesh);
+		assertTrue(copy.isConsistent());
+		assertEquals(mesh.getVertexCount(), copy.getVertexCount());
+		assertEquals(mesh.computeVolume(), copy.computeVolume(), GrlConstants.TEST_F64);
+
+		// it should be a deep copy
+		copy.vertexes.get(0).x = 100;
+		assertEquals(0.0, mesh.vertexes.get(0).x);
+
+		mesh.reset();
+		assertEquals(0, mesh.getVertexCount());
+		assertEquals(0, mesh.getFaceCount());
+		assertEquals(0, mesh.getHalfEdgeCount());
+	}
+}
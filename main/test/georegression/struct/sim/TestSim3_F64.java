@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.struct.sim;
+
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.EulerType;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.transform.sim.SimPointOps_F64;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSim3_F64 {
+	Random rand = new Random(234);
+	double tol = GrlConstants.TEST_F64;
+
+	public static Sim3_F64 random( Random rand ) {
+		var sim = new Sim3_F64();
+		sim.scale = Math.exp(rand.nextGaussian());
+		ConvertRotation3D_F64.eulerToMatrix(EulerType.XYZ,
+				rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(), sim.R);
+		sim.T.setTo(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian());
+		return sim;
+	}
+
+	@Test void constructor() {
+		var sim = new Sim3_F64();
+		assertEquals(1.0, sim.scale);
+		assertTrue(MatrixFeatures_DDRM.isIdentity(sim.R, 0.0));
+		assertEquals(0.0, sim.T.norm());
+
+		Sim3_F64 a = random(rand);
+		var b = new Sim3_F64(a.scale, a.R, a.T);
+		assertTrue(a.isIdentical(b, 0.0, 0.0, 0.0));
+		assertNotSame(a.R, b.R);
+		assertNotSame(a.T, b.T);
+	}
+
+	@Test void setTo_Se3() {
+		var se = new Se3_F64();
+		se.setTo(1, 2, 3, EulerType.XYZ, 0.1, 0.2, 0.3);
+		var sim = new Sim3_F64().setTo(2.5, se);
+		assertEquals(2.5, sim.scale);
+		assertTrue(MatrixFeatures_DDRM.isIdentical(se.R, sim.R, 0.0));
+		assertEquals(0.0, se.T.distance(sim.T));
+	}
+
+	@Test void concat() {
+		Sim3_F64 a = random(rand);
+		Sim3_F64 b = random(rand);
+		Sim3_F64 c = a.concat(b, null);
+
+		var p = new Point3D_F64(1, -2, 0.5);
+		Point3D_F64 expected = b.transform(a.transform(p, null), null);
+		Point3D_F64 found = c.transform(p, null);
+		assertEquals(0.0, expected.distance(found), tol);
+	}
+
+	/** The output is allowed to be one of the inputs */
+	@Test void aliasedOutput() {
+		Sim3_F64 a = random(rand);
+		Sim3_F64 b = random(rand);
+
+		Sim3_F64 expected = a.concat(b, null);
+		Sim3_F64 found = a.copy();
+		assertTrue(expected.isIdentical(found.concat(b, found), tol, tol, tol));
+		found = b.copy();
+		assertTrue(expected.isIdentical(a.concat(found, found), tol, tol, tol));
+
+		expected = a.invertConcat(b, null);
+		found = a.copy();
+		assertTrue(expected.isIdentical(found.invertConcat(b, found), tol, tol, tol));
+		found = b.copy();
+		assertTrue(expected.isIdentical(a.invertConcat(found, found), tol, tol, tol));
+
+		expected = a.concatInvert(b, null);
+		found = a.copy();
+		assertTrue(expected.isIdentical(found.concatInvert(b, found), tol, tol, tol));
+		found = b.copy();
+		assertTrue(expected.isIdentical(a.concatInvert(found, found), tol, tol, tol));
+	}
+
+	@Test void invert() {
+		Sim3_F64 a = random(rand);
+		Sim3_F64 inv = a.invert(null);
+
+		Sim3_F64 identity = a.concat(inv, null);
+		assertTrue(identity.isIdentical(new Sim3_F64(), tol, tol, tol));
+
+		// inverting in place should work too
+		Sim3_F64 copy = a.copy();
+		copy.invert(copy);
+		assertTrue(copy.isIdentical(inv, tol, tol, tol));
+	}
+
+	@Test void invertConcat() {
+		Sim3_F64 a = random(rand);
+		Sim3_F64 b = random(rand);
+
+		Sim3_F64 expected = a.invert(null).concat(b, null);
+		Sim3_F64 found = a.invertConcat(b, null);
+		assertTrue(expected.isIdentical(found, tol, tol, tol));
+	}
+
+	@Test void concatInvert() {
+		Sim3_F64 a = random(rand);
+		Sim3_F64 b = random(rand);
+
+		Sim3_F64 expected = a.concat(b.invert(null), null);
+		Sim3_F64 found = a.concatInvert(b, null);
+		assertTrue(expected.isIdentical(found, tol, tol, tol));
+	}
+
+	@Test void reset() {
+		Sim3_F64 a = random(rand);
+		a.reset();
+		assertTrue(a.isIdentical(new Sim3_F64(), 0.0, 0.0, 0.0));
+	}
+
+	@Test void transformReverse() {
+		Sim3_F64 a = random(rand);
+		var p = new Point3D_F64(1, -2, 0.5);
+		Point3D_F64 found = a.transformReverse(SimPointOps_F64.transform(a, p, null), null);
+		assertEquals(0.0, p.distance(found), tol);
+	}
+
+	@Test void isIdentical() {
+		Sim3_F64 a = random(rand);
+		Sim3_F64 b = a.copy();
+		assertTrue(a.isIdentical(b, 1.0e-6, 1.0e-6, 1.0e-6));
+		b.scale += 1.0e-5;
+		assertFalse(a.isIdentical(b, 1.0e-6, 1.0e-6, 1.0e-6));
+		b.setTo(a);
+		CommonOps_DDRM.scale(1.0001, b.R);
+		assertFalse(a.isIdentical(b, 1.0e-6, 1.0e-6, 1.0e-6));
+		b.setTo(a);
+		b.T.x += 1.0e-5;
+		assertFalse(a.isIdentical(b, 1.0e-6, 1.0e-6, 1.0e-6));
+	}
+}
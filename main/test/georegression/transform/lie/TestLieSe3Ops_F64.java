@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.transform.lie;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.se.SpecialEuclideanOps_F64;
+import georegression.transform.twist.TwistCoordinate_F64;
+import georegression.transform.twist.TwistOps_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestLieSe3Ops_F64 {
+	Random rand = new Random(234);
+	double tol = GrlConstants.TEST_F64;
+
+	// Rotation angles which are tested. Includes values at and around the switch to a Taylor series
+	double[] angles = {0.0, 1.0e-12, 1.0e-7, 1.0e-3, 1.0e-2, 0.0999, 0.1, 0.1001, 1.0, 2.5, 3.0};
+
+	@Test void exp() {
+		var found = new Se3_F64();
+		for (double angle : angles) {
+			TwistCoordinate_F64 xi = randomTwist(angle);
+			LieSe3Ops_F64.exp(xi, found);
+
+			// compare to the matrix exponential
+			DMatrixRMaj H = matrixExponential(TwistOps_F64.homogenous(xi, null));
+			assertTrue(MatrixFeatures_DDRM.isIdentical(H, TwistOps_F64.homogenous(found, null), tol), "angle = " + angle);
+
+			// compare to the existing implementation
+			if (angle == 0.0 || angle > 1.0e-3) {
+				Se3_F64 expected = TwistOps_F64.exponential(xi, 1.0, null);
+				assertTrue(SpecialEuclideanOps_F64.isIdentical(expected, found, tol, tol*100));
+			}
+		}
+	}
+
+	@Test void log() {
+		var motion = new Se3_F64();
+		var found = new TwistCoordinate_F64();
+		for (double angle : angles) {
+			TwistCoordinate_F64 xi = randomTwist(angle);
+			LieSe3Ops_F64.exp(xi, motion);
+			LieSe3Ops_F64.log(motion, found);
+			assertEquals(0.0, xi.w.distance(found.w), Math.max(10*GrlConstants.EPS, angle*GrlConstants.TEST_F64),
+					"angle = " + angle);
+			assertEquals(0.0, xi.v.distance(found.v), tol, "angle = " + angle);
+		}
+	}
+
+	@Test void adjoint() {
+		Se3_F64 T = LieSe3Ops_F64.exp(randomTwist(1.2), new Se3_F64());
+		TwistCoordinate_F64 xi = randomTwist(0.4);
+
+		// T*exp(xi)*inv(T) = exp(Ad*xi)
+		Se3_F64 expected = T.invertConcat(LieSe3Ops_F64.exp(xi, new Se3_F64()), null).concat(T, null);
+		DMatrixRMaj adj = LieSe3Ops_F64.adjoint(T, new DMatrixRMaj(6, 6));
+		var found = new Se3_F64();
+		LieSe3Ops_F64.exp(toTwist(mult(adj, toVector(xi))), found);
+		assertTrue(SpecialEuclideanOps_F64.isIdentical(expected, found, tol, tol*100));
+	}
+
+	@Test void jacobianLeft() {
+		var J = new DMatrixRMaj(6, 6);
+		for (double angle : angles) {
+			TwistCoordinate_F64 xi = randomTwist(angle);
+			LieSe3Ops_F64.jacobianLeft(xi, J);
+			assertTrue(MatrixFeatures_DDRM.isIdentical(numericalJacobian(xi, true), J, 100*GrlConstants.TEST_F64),
+					"angle = " + angle);
+		}
+	}
+
+	@Test void jacobianRight() {
+		var J = new DMatrixRMaj(6, 6);
+		for (double angle : angles) {
+			TwistCoordinate_F64 xi = randomTwist(angle);
+			LieSe3Ops_F64.jacobianRight(xi, J);
+			assertTrue(MatrixFeatures_DDRM.isIdentical(numericalJacobian(xi, false), J, 100*GrlConstants.TEST_F64),
+					"angle = " + angle);
+		}
+	}
+
+	@Test void jacobianInverses() {
+		var J = new DMatrixRMaj(6, 6);
+		var Jinv = new DMatrixRMaj(6, 6);
+		var product = new DMatrixRMaj(6, 6);
+		for (double angle : angles) {
+			TwistCoordinate_F64 xi = randomTwist(angle);
+			LieSe3Ops_F64.jacobianLeft(xi, J);
+			LieSe3Ops_F64.jacobianLeftInv(xi, Jinv);
+			CommonOps_DDRM.mult(J, Jinv, product);
+			assertTrue(MatrixFeatures_DDRM.isIdentity(product, tol), "angle = " + angle);
+
+			LieSe3Ops_F64.jacobianRight(xi, J);
+			LieSe3Ops_F64.jacobianRightInv(xi, Jinv);
+			CommonOps_DDRM.mult(J, Jinv, product);
+			assertTrue(MatrixFeatures_DDRM.isIdentity(product, tol), "angle = " + angle);
+		}
+	}
+
+	/**
+	 * Computes the Jacobian using central difference
+	 */
+	private DMatrixRMaj numericalJacobian( TwistCoordinate_F64 xi, boolean left ) {
+		double h = 100*GrlConstants.TEST_F64;
+		Se3_F64 T = LieSe3Ops_F64.exp(xi, new Se3_F64());
+		double[] x = toVector(xi);
+		var J = new DMatrixRMaj(6, 6);
+		var Ta = new Se3_F64();
+		var Tb = new Se3_F64();
+		var a = new TwistCoordinate_F64();
+		var b = new TwistCoordinate_F64();
+		for (int i = 0; i < 6; i++) {
+			double[] xa = x.clone();
+			double[] xb = x.clone();
+			xa[i] += h;
+			xb[i] -= h;
+			LieSe3Ops_F64.exp(toTwist(xa), Ta);
+			LieSe3Ops_F64.exp(toTwist(xb), Tb);
+			if (left) {
+				// Ta*inv(T)
+				LieSe3Ops_F64.log(T.invertConcat(Ta, null), a);
+				LieSe3Ops_F64.log(T.invertConcat(Tb, null), b);
+			} else {
+				// inv(T)*Ta
+				LieSe3Ops_F64.log(Ta.concatInvert(T, null), a);
+				LieSe3Ops_F64.log(Tb.concatInvert(T, null), b);
+			}
+			double[] va = toVector(a);
+			double[] vb = toVector(b);
+			for (int row = 0; row < 6; row++) {
+				J.set(row, i, (va[row] - vb[row])/(2*h));
+			}
+		}
+		return J;
+	}
+
+	/**
+	 * Computes the matrix exponential using scaling and squaring with a Taylor series
+	 */
+	public static DMatrixRMaj matrixExponential( DMatrixRMaj A ) {
+		int N = A.numRows;
+		int squarings = Integer.max(0,
+				1 + (int)Math.ceil(Math.log(CommonOps_DDRM.elementMaxAbs(A) + Double.MIN_NORMAL)/Math.log(2)));
+		DMatrixRMaj scaled = A.copy();
+		CommonOps_DDRM.scale((double)Math.pow(0.5, squarings), scaled);
+
+		DMatrixRMaj sum = CommonOps_DDRM.identity(N);
+		DMatrixRMaj term = CommonOps_DDRM.identity(N);
+		var tmp = new DMatrixRMaj(N, N);
+		for (int k = 1; k < 30; k++) {
+			CommonOps_DDRM.mult(term, scaled, tmp);
+			CommonOps_DDRM.scale(1.0/k, tmp, term);
+			CommonOps_DDRM.addEquals(sum, term);
+		}
+		for (int i = 0; i < squarings; i++) {
+			CommonOps_DDRM.mult(sum, sum, tmp);
+			sum.setTo(tmp);
+		}
+		return sum;
+	}
+
+	private static double[] mult( DMatrixRMaj A, double[] x ) {
+		var y = new double[A.numRows];
+		for (int row = 0; row < A.numRows; row++) {
+			for (int col = 0; col < A.numCols; col++) {
+				y[row] += A.get(row, col)*x[col];
+			}
+		}
+		return y;
+	}
+
+	/** Converts twist into the vector (v, w) */
+	private static double[] toVector( TwistCoordinate_F64 xi ) {
+		return new double[]{xi.v.x, xi.v.y, xi.v.z, xi.w.x, xi.w.y, xi.w.z};
+	}
+
+	private static TwistCoordinate_F64 toTwist( double[] x ) {
+		return new TwistCoordinate_F64(x[3], x[4], x[5], x[0], x[1], x[2]);
+	}
+
+	private TwistCoordinate_F64 randomTwist( double angle ) {
+		var xi = new TwistCoordinate_F64();
+		xi.w.setTo(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian());
+		xi.w.normalize();
+		xi.w.scale(angle);
+		xi.v.setTo(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian());
+		return xi;
+	}
+}
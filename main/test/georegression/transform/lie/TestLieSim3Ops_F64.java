@@ -0,0 +1,273 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.transform.lie;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Vector3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.sim.Sim3_F64;
+import georegression.transform.twist.TwistCoordinate_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestLieSim3Ops_F64 {
+	Random rand = new Random(234);
+	double tol = GrlConstants.TEST_F64;
+
+	double[] angles = {0.0, 1.0e-12, 1.0e-6, 1.0e-3, 0.1, 1.0, 3.0};
+	double[] sigmas = {0.0, 1.0e-12, 1.0e-8, 1.0e-3, 0.5, -3.0, 2.5};
+
+	@Test void exp() {
+		var R = new DMatrixRMaj(3, 3);
+		var T = new Vector3D_F64();
+		for (double angle : angles) {
+			for (double sigma : sigmas) {
+				TwistCoordinate_F64 xi = randomTwist(angle);
+				double scale = LieSim3Ops_F64.exp(xi, sigma, R, T);
+				assertEquals(Math.exp(sigma), scale, tol);
+
+				DMatrixRMaj expected = TestLieSe3Ops_F64.matrixExponential(generator(xi, sigma));
+				DMatrixRMaj found = homogenous(scale, R, T);
+				assertTrue(MatrixFeatures_DDRM.isIdentical(expected, found, tol), angle + " " + sigma);
+			}
+		}
+	}
+
+	/**
+	 * With no scale it should be the same as SE3
+	 */
+	@Test void exp_compareSe3() {
+		var R = new DMatrixRMaj(3, 3);
+		var T = new Vector3D_F64();
+		var expected = new Se3_F64();
+		for (double angle : angles) {
+			TwistCoordinate_F64 xi = randomTwist(angle);
+			LieSim3Ops_F64.exp(xi, 0.0, R, T);
+			LieSe3Ops_F64.exp(xi, expected);
+			assertTrue(MatrixFeatures_DDRM.isIdentical(expected.R, R, tol));
+			assertEquals(0.0, expected.T.distance(T), tol);
+		}
+	}
+
+	@Test void log() {
+		var R = new DMatrixRMaj(3, 3);
+		var T = new Vector3D_F64();
+		var found = new TwistCoordinate_F64();
+		for (double angle : angles) {
+			for (double sigma : sigmas) {
+				TwistCoordinate_F64 xi = randomTwist(angle);
+				double scale = LieSim3Ops_F64.exp(xi, sigma, R, T);
+				double foundSigma = LieSim3Ops_F64.log(scale, R, T, found);
+				assertEquals(sigma, foundSigma, tol);
+				assertEquals(0.0, xi.w.distance(found.w), tol, angle + " " + sigma);
+				assertEquals(0.0, xi.v.distance(found.v), tol, angle + " " + sigma);
+			}
+		}
+	}
+
+	@Test void adjoint() {
+		var R = new DMatrixRMaj(3, 3);
+		var T = new Vector3D_F64();
+		double scale = LieSim3Ops_F64.exp(randomTwist(1.2), 0.3, R, T);
+		DMatrixRMaj S = homogenous(scale, R, T);
+
+		TwistCoordinate_F64 xi = randomTwist(0.4);
+		double sigma = -0.2;
+		DMatrixRMaj expSigma = TestLieSe3Ops_F64.matrixExponential(generator(xi, sigma));
+
+		// S*exp(xi)*inv(S)
+		var tmp = new DMatrixRMaj(4, 4);
+		var expected = new DMatrixRMaj(4, 4);
+		CommonOps_DDRM.mult(S, expSigma, tmp);
+		CommonOps_DDRM.invert(S);
+		CommonOps_DDRM.mult(tmp, S, expected);
+
+		// exp(Ad*xi)
+		DMatrixRMaj adj = LieSim3Ops_F64.adjoint(scale, R, T, new DMatrixRMaj(7, 7));
+		var x = new DMatrixRMaj(new double[][]{{xi.v.x}, {xi.v.y}, {xi.v.z}, {xi.w.x}, {xi.w.y}, {xi.w.z}, {sigma}});
+		var y = new DMatrixRMaj(7, 1);
+		CommonOps_DDRM.mult(adj, x, y);
+		var xiAdj = new TwistCoordinate_F64(y.data[3], y.data[4], y.data[5], y.data[0], y.data[1], y.data[2]);
+		double foundScale = LieSim3Ops_F64.exp(xiAdj, y.data[6], R, T);
+
+		assertTrue(MatrixFeatures_DDRM.isIdentical(expected, homogenous(foundScale, R, T), tol));
+	}
+
+	@Test void sim3_overloads() {
+		var R = new DMatrixRMaj(3, 3);
+		var T = new Vector3D_F64();
+		TwistCoordinate_F64 xi = randomTwist(0.7);
+		double scale = LieSim3Ops_F64.exp(xi, 0.4, R, T);
+
+		var sim = new Sim3_F64();
+		assertSame(sim, LieSim3Ops_F64.exp(xi, 0.4, sim));
+		assertEquals(scale, sim.scale, tol);
+		assertTrue(MatrixFeatures_DDRM.isIdentical(R, sim.R, tol));
+		assertEquals(0.0, T.distance(sim.T), tol);
+
+		var found = new TwistCoordinate_F64();
+		assertEquals(0.4, LieSim3Ops_F64.log(sim, found), tol);
+		assertEquals(0.0, xi.w.distance(found.w), tol);
+		assertEquals(0.0, xi.v.distance(found.v), tol);
+
+		DMatrixRMaj expected = LieSim3Ops_F64.adjoint(scale, R, T, new DMatrixRMaj(1, 1));
+		assertTrue(MatrixFeatures_DDRM.isIdentical(expected, LieSim3Ops_F64.adjoint(sim, new DMatrixRMaj(1, 1)), 0.0));
+
+		// Sim3_F64.concat() should be the same as multiplying the homogenous matrices
+		var other = new Sim3_F64();
+		LieSim3Ops_F64.exp(randomTwist(1.5), -0.3, other);
+		Sim3_F64 c = sim.concat(other, null);
+		var H = new DMatrixRMaj(4, 4);
+		CommonOps_DDRM.mult(homogenous(other.scale, other.R, other.T), homogenous(sim.scale, sim.R, sim.T), H);
+		assertTrue(MatrixFeatures_DDRM.isIdentical(H, homogenous(c.scale, c.R, c.T), tol));
+	}
+
+	@Test void jacobianLeft() {
+		var J = new DMatrixRMaj(7, 7);
+		for (double angle : angles) {
+			for (double sigma : sigmas) {
+				TwistCoordinate_F64 xi = randomTwist(angle);
+				LieSim3Ops_F64.jacobianLeft(xi, sigma, J);
+				assertTrue(MatrixFeatures_DDRM.isIdentical(numericalJacobian(xi, sigma, true), J, 100*tol),
+						"angle = " + angle + " sigma = " + sigma);
+			}
+		}
+	}
+
+	@Test void jacobianRight() {
+		var J = new DMatrixRMaj(7, 7);
+		for (double angle : angles) {
+			for (double sigma : sigmas) {
+				TwistCoordinate_F64 xi = randomTwist(angle);
+				LieSim3Ops_F64.jacobianRight(xi, sigma, J);
+				assertTrue(MatrixFeatures_DDRM.isIdentical(numericalJacobian(xi, sigma, false), J, 100*tol),
+						"angle = " + angle + " sigma = " + sigma);
+			}
+		}
+	}
+
+	@Test void jacobianInverses() {
+		var J = new DMatrixRMaj(7, 7);
+		var Jinv = new DMatrixRMaj(7, 7);
+		var product = new DMatrixRMaj(7, 7);
+		for (double angle : angles) {
+			for (double sigma : sigmas) {
+				TwistCoordinate_F64 xi = randomTwist(angle);
+				LieSim3Ops_F64.jacobianLeft(xi, sigma, J);
+				LieSim3Ops_F64.jacobianLeftInv(xi, sigma, Jinv);
+				CommonOps_DDRM.mult(J, Jinv, product);
+				assertTrue(MatrixFeatures_DDRM.isIdentity(product, tol), "angle = " + angle + " sigma = " + sigma);
+
+				LieSim3Ops_F64.jacobianRight(xi, sigma, J);
+				LieSim3Ops_F64.jacobianRightInv(xi, sigma, Jinv);
+				CommonOps_DDRM.mult(J, Jinv, product);
+				assertTrue(MatrixFeatures_DDRM.isIdentity(product, tol), "angle = " + angle + " sigma = " + sigma);
+			}
+		}
+	}
+
+	/**
+	 * Computes the Jacobian using central difference
+	 */
+	private DMatrixRMaj numericalJacobian( TwistCoordinate_F64 xi, double sigma, boolean left ) {
+		double h = 100*GrlConstants.TEST_F64;
+		Sim3_F64 T = LieSim3Ops_F64.exp(xi, sigma, new Sim3_F64());
+		double[] x = {xi.v.x, xi.v.y, xi.v.z, xi.w.x, xi.w.y, xi.w.z, sigma};
+		var J = new DMatrixRMaj(7, 7);
+		var Ta = new Sim3_F64();
+		var Tb = new Sim3_F64();
+		var a = new TwistCoordinate_F64();
+		var b = new TwistCoordinate_F64();
+		for (int i = 0; i < 7; i++) {
+			double[] xa = x.clone();
+			double[] xb = x.clone();
+			xa[i] += h;
+			xb[i] -= h;
+			LieSim3Ops_F64.exp(new TwistCoordinate_F64(xa[3], xa[4], xa[5], xa[0], xa[1], xa[2]), xa[6], Ta);
+			LieSim3Ops_F64.exp(new TwistCoordinate_F64(xb[3], xb[4], xb[5], xb[0], xb[1], xb[2]), xb[6], Tb);
+			double sigmaA, sigmaB;
+			if (left) {
+				// Ta*inv(T)
+				sigmaA = LieSim3Ops_F64.log(T.invertConcat(Ta, null), a);
+				sigmaB = LieSim3Ops_F64.log(T.invertConcat(Tb, null), b);
+			} else {
+				// inv(T)*Ta
+				sigmaA = LieSim3Ops_F64.log(Ta.concatInvert(T, null), a);
+				sigmaB = LieSim3Ops_F64.log(Tb.concatInvert(T, null), b);
+			}
+			double[] va = {a.v.x, a.v.y, a.v.z, a.w.x, a.w.y, a.w.z, sigmaA};
+			double[] vb = {b.v.x, b.v.y, b.v.z, b.w.x, b.w.y, b.w.z, sigmaB};
+			for (int row = 0; row < 7; row++) {
+				J.set(row, i, (va[row] - vb[row])/(2*h));
+			}
+		}
+		return J;
+	}
+
+	/** 4x4 generator matrix for Sim(3) */
+	private static DMatrixRMaj generator( TwistCoordinate_F64 xi, double sigma ) {
+		var G = new DMatrixRMaj(4, 4);
+		G.set(0, 0, sigma);
+		G.set(1, 1, sigma);
+		G.set(2, 2, sigma);
+		G.set(0, 1, -xi.w.z);
+		G.set(0, 2, xi.w.y);
+		G.set(1, 0, xi.w.z);
+		G.set(1, 2, -xi.w.x);
+		G.set(2, 0, -xi.w.y);
+		G.set(2, 1, xi.w.x);
+		G.set(0, 3, xi.v.x);
+		G.set(1, 3, xi.v.y);
+		G.set(2, 3, xi.v.z);
+		return G;
+	}
+
+	/** 4x4 homogenous matrix for Sim(3) */
+	private static DMatrixRMaj homogenous( double scale, DMatrixRMaj R, Vector3D_F64 T ) {
+		var H = new DMatrixRMaj(4, 4);
+		for (int row = 0; row < 3; row++) {
+			for (int col = 0; col < 3; col++) {
+				H.set(row, col, scale*R.get(row, col));
+			}
+		}
+		H.set(0, 3, T.x);
+		H.set(1, 3, T.y);
+		H.set(2, 3, T.z);
+		H.set(3, 3, 1.0);
+		return H;
+	}
+
+	private TwistCoordinate_F64 randomTwist( double angle ) {
+		var xi = new TwistCoordinate_F64();
+		xi.w.setTo(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian());
+		xi.w.normalize();
+		xi.w.scale(angle);
+		xi.v.setTo(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian());
+		return xi;
+	}
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.transform.lie;
+
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.geometry.GeometryMath_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Vector3D_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestLieSo3Ops_F64 {
+	Random rand = new Random(234);
+	double tol = GrlConstants.TEST_F64;
+
+	// Rotation angles which are tested. Includes values at and around the switch to a Taylor series
+	double[] angles = {0.0, 1.0e-12, 1.0e-7, 1.0e-3, 0.999e-2, 1.0e-2, 1.001e-2, 0.1, 1.0, 2.5, 2.7, 3.0,
+			Math.PI - 1.0e-6};
+
+	@Test void exp() {
+		var found = new DMatrixRMaj(3, 3);
+		for (double angle : angles) {
+			Vector3D_F64 phi = randomVector(angle);
+			LieSo3Ops_F64.exp(phi, found);
+			DMatrixRMaj expected = ConvertRotation3D_F64.rodriguesToMatrix(phi.x, phi.y, phi.z, null);
+			assertTrue(MatrixFeatures_DDRM.isIdentical(expected, found, tol));
+		}
+	}
+
+	@Test void log() {
+		var R = new DMatrixRMaj(3, 3);
+		var found = new Vector3D_F64();
+		for (double angle : angles) {
+			Vector3D_F64 phi = randomVector(angle);
+			LieSo3Ops_F64.exp(phi, R);
+			LieSo3Ops_F64.log(R, found);
+			// relative precision is maintained for small angles
+			assertEquals(0.0, phi.distance(found), Math.max(10*GrlConstants.EPS, angle*GrlConstants.TEST_F64),
+					"angle = " + angle);
+		}
+
+		// exactly pi. Sign of the axis is ambiguous
+		Vector3D_F64 phi = randomVector(GrlConstants.PI);
+		LieSo3Ops_F64.exp(phi, R);
+		LieSo3Ops_F64.log(R, found);
+		assertEquals(Math.PI, found.norm(), tol);
+		assertEquals(Math.PI, Math.abs(found.dot(phi))/Math.PI, tol);
+	}
+
+	@Test void adjoint() {
+		DMatrixRMaj R = LieSo3Ops_F64.exp(randomVector(1.2), new DMatrixRMaj(3, 3));
+		Vector3D_F64 phi = randomVector(0.4);
+
+		// R*exp(phi)*R' = exp(Ad*phi)
+		DMatrixRMaj adj = LieSo3Ops_F64.adjoint(R, new DMatrixRMaj(3, 3));
+		var tmp = new DMatrixRMaj(3, 3);
+		var expected = new DMatrixRMaj(3, 3);
+		CommonOps_DDRM.mult(R, LieSo3Ops_F64.exp(phi, new DMatrixRMaj(3, 3)), tmp);
+		CommonOps_DDRM.multTransB(tmp, R, expected);
+		DMatrixRMaj found = LieSo3Ops_F64.exp(GeometryMath_F64.mult(adj, phi, new Vector3D_F64()), new DMatrixRMaj(3, 3));
+		assertTrue(MatrixFeatures_DDRM.isIdentical(expected, found, tol));
+	}
+
+	@Test void jacobianLeft() {
+		var J = new DMatrixRMaj(3, 3);
+		for (double angle : angles) {
+			Vector3D_F64 phi = randomVector(angle);
+			LieSo3Ops_F64.jacobianLeft(phi, J);
+			assertTrue(MatrixFeatures_DDRM.isIdentical(numericalJacobian(phi, true), J, 100*GrlConstants.TEST_F64),
+					"angle = " + angle);
+		}
+	}
+
+	@Test void jacobianRight() {
+		var J = new DMatrixRMaj(3, 3);
+		for (double angle : angles) {
+			Vector3D_F64 phi = randomVector(angle);
+			LieSo3Ops_F64.jacobianRight(phi, J);
+			assertTrue(MatrixFeatures_DDRM.isIdentical(numericalJacobian(phi, false), J, 100*GrlConstants.TEST_F64),
+					"angle = " + angle);
+		}
+	}
+
+	@Test void jacobianInverses() {
+		var J = new DMatrixRMaj(3, 3);
+		var Jinv = new DMatrixRMaj(3, 3);
+		var product = new DMatrixRMaj(3, 3);
+		for (double angle : angles) {
+			Vector3D_F64 phi = randomVector(angle);
+			LieSo3Ops_F64.jacobianLeft(phi, J);
+			LieSo3Ops_F64.jacobianLeftInv(phi, Jinv);
+			CommonOps_DDRM.mult(J, Jinv, product);
+			assertTrue(MatrixFeatures_DDRM.isIdentity(product, tol), "angle = " + angle);
+
+			LieSo3Ops_F64.jacobianRight(phi, J);
+			LieSo3Ops_F64.jacobianRightInv(phi, Jinv);
+			CommonOps_DDRM.mult(J, Jinv, product);
+			assertTrue(MatrixFeatures_DDRM.isIdentity(product, tol), "angle = " + angle);
+		}
+	}
+
+	/**
+	 * Computes the Jacobian using central difference
+	 */
+	private DMatrixRMaj numericalJacobian( Vector3D_F64 phi, boolean left ) {
+		double h = 100*GrlConstants.TEST_F64;
+		DMatrixRMaj R = LieSo3Ops_F64.exp(phi, new DMatrixRMaj(3, 3));
+		var J = new DMatrixRMaj(3, 3);
+		var Ra = new DMatrixRMaj(3, 3);
+		var Rb = new DMatrixRMaj(3, 3);
+		var D = new DMatrixRMaj(3, 3);
+		var a = new Vector3D_F64();
+		var b = new Vector3D_F64();
+		for (int i = 0; i < 3; i++) {
+			var delta = new Vector3D_F64();
+			delta.setIdx(i, h);
+			LieSo3Ops_F64.exp(phi.plus(delta), Ra);
+			LieSo3Ops_F64.exp(phi.plus(-1.0, delta), Rb);
+			if (left) {
+				CommonOps_DDRM.multTransB(Ra, R, D);
+				LieSo3Ops_F64.log(D, a);
+				CommonOps_DDRM.multTransB(Rb, R, D);
+				LieSo3Ops_F64.log(D, b);
+			} else {
+				CommonOps_DDRM.multTransA(R, Ra, D);
+				LieSo3Ops_F64.log(D, a);
+				CommonOps_DDRM.multTransA(R, Rb, D);
+				LieSo3Ops_F64.log(D, b);
+			}
+			for (int row = 0; row < 3; row++) {
+				J.set(row, i, (a.getIdx(row) - b.getIdx(row))/(2*h));
+			}
+		}
+		return J;
+	}
+
+	private Vector3D_F64 randomVector( double length ) {
+		var v = new Vector3D_F64(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian());
+		v.normalize();
+		v.scale(length);
+		return v;
+	}
+}
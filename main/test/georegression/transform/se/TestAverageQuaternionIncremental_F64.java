@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.transform.se;
+
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.EulerType;
+import georegression.struct.so.Quaternion_F64;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static georegression.transform.se.TestAverageQuaternion_F64.checkEquals;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestAverageQuaternionIncremental_F64 {
+	Random rand = new Random(234);
+
+	@Test void empty() {
+		var alg = new AverageQuaternionIncremental_F64();
+		assertFalse(alg.compute(new Quaternion_F64()));
+
+		// add then remove everything
+		Quaternion_F64 q = ConvertRotation3D_F64.eulerToQuaternion(EulerType.XYZ, 0.1, -0.5, 1.5, null);
+		alg.add(q);
+		alg.remove(q);
+		assertFalse(alg.compute(new Quaternion_F64()));
+	}
+
+	@Test void one() {
+		Quaternion_F64 q = ConvertRotation3D_F64.eulerToQuaternion(EulerType.XYZ, 0.1, -0.5, 1.5, null);
+		var alg = new AverageQuaternionIncremental_F64();
+		alg.add(q);
+
+		var found = new Quaternion_F64();
+		assertTrue(alg.compute(found));
+		checkEquals(q, found, GrlConstants.TEST_F64);
+		double norm = Math.sqrt(found.w*found.w + found.x*found.x + found.y*found.y + found.z*found.z);
+		assertEquals(1.0, norm, GrlConstants.TEST_F64);
+		assertTrue(found.w >= 0.0);
+	}
+
+	/**
+	 * Should produce the same results as the batch algorithm, even if the signs of the quaternions are flipped
+	 */
+	@Test void compareToBatch() {
+		var batch = new AverageQuaternion_F64();
+		var alg = new AverageQuaternionIncremental_F64();
+		var expected = new Quaternion_F64();
+		var found = new Quaternion_F64();
+
+		for (double noise : new double[]{0.0, 0.01, 0.3, 1.5}) {
+			List<Quaternion_F64> list = randomSamples(30, noise);
+			alg.reset();
+			for (Quaternion_F64 q : list) {
+				if (rand.nextBoolean())
+					alg.add(q);
+				else
+					alg.add(new Quaternion_F64(-q.w, -q.x, -q.y, -q.z));
+			}
+			assertEquals(30, alg.getCount());
+
+			assertTrue(batch.process(list, expected));
+			assertTrue(alg.compute(found));
+			checkEquals(expected, found, GrlConstants.TEST_F64);
+		}
+	}
+
+	/**
+	 * An integer weight should be the same as adding the sample multiple times
+	 */
+	@Test void weights() {
+		List<Quaternion_F64> list = randomSamples(10, 0.4);
+		var weighted = new AverageQuaternionIncremental_F64();
+		var repeated = new AverageQuaternionIncremental_F64();
+		for (int i = 0; i < list.size(); i++) {
+			weighted.add(list.get(i), i + 1);
+			for (int j = 0; j <= i; j++) {
+				repeated.add(list.get(i));
+			}
+		}
+		assertEquals(55.0, weighted.getTotalWeight(), GrlConstants.TEST_F64);
+
+		var expected = new Quaternion_F64();
+		var found = new Quaternion_F64();
+		assertTrue(repeated.compute(expected));
+		assertTrue(weighted.compute(found));
+		checkEquals(expected, found, GrlConstants.TEST_F64);
+	}
+
+	/**
+	 * Slide a window across the samples and compare against the batch solution for the window
+	 */
+	@Test void slidingWindow() {
+		int window = 8;
+		List<Quaternion_F64> list = randomSamples(50, 0.5);
+		var batch = new AverageQuaternion_F64();
+		var alg = new AverageQuaternionIncremental_F64();
+		var expected = new Quaternion_F64();
+		var found = new Quaternion_F64();
+
+		for (int i = 0; i < list.size(); i++) {
+			alg.add(list.get(i));
+			if (i < window - 1)
+				continue;
+			if (i >= window)
+				alg.remove(list.get(i - window));
+			assertEquals(window, alg.getCount());
+
+			assertTrue(batch.process(new ArrayList<>(list.subList(i - window + 1, i + 1)), expected));
+			assertTrue(alg.compute(found));
+			checkEquals(expected, found, GrlConstants.TEST_F64);
+		}
+	}
+
+	private List<Quaternion_F64> randomSamples( int N, double noise ) {
+		var list = new ArrayList<Quaternion_F64>();
+		for (int i = 0; i < N; i++) {
+			list.add(ConvertRotation3D_F64.eulerToQuaternion(EulerType.XYZ,
+					0.1 + rand.nextGaussian()*noise, -0.5 + rand.nextGaussian()*noise, 1.5 + rand.nextGaussian()*noise, null));
+		}
+		return list;
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.transform.se;
+
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.EulerType;
+import georegression.struct.point.Vector3D_F64;
+import georegression.transform.lie.LieSo3Ops_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestAverageRotationRobust_F64 {
+	Random rand = new Random(234);
+
+	DMatrixRMaj truth = ConvertRotation3D_F64.eulerToMatrix(EulerType.XYZ, 0.1, -0.5, 1.5, null);
+
+	@Test void one() {
+		for (var distance : AverageRotationRobust_F64.Distance.values()) {
+			var alg = new AverageRotationRobust_F64();
+			alg.distance = distance;
+			var list = new ArrayList<DMatrixRMaj>();
+			list.add(truth);
+
+			var found = new DMatrixRMaj(3, 3);
+			assertTrue(alg.process(list, found));
+			assertEquals(0.0, angle(truth, found), GrlConstants.TEST_F64);
+		}
+	}
+
+	@Test void noNoise() {
+		for (var distance : AverageRotationRobust_F64.Distance.values()) {
+			var alg = new AverageRotationRobust_F64();
+			alg.distance = distance;
+			List<DMatrixRMaj> list = new ArrayList<>();
+			for (int i = 0; i < 10; i++) {
+				list.add(truth.copy());
+			}
+
+			var found = new DMatrixRMaj(3, 3);
+			assertTrue(alg.process(list, found));
+			assertEquals(0.0, angle(truth, found), GrlConstants.TEST_F64);
+			assertEquals(1.0, CommonOps_DDRM.det(found), GrlConstants.TEST_F64);
+		}
+	}
+
+	/**
+	 * Samples are symmetrically distributed around the truth. Both distances should converge to the truth.
+	 */
+	@Test void symmetric() {
+		List<DMatrixRMaj> list = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			var v = new Vector3D_F64(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian());
+			v.scale(0.2);
+			list.add(perturb(v));
+			v.scale(-1);
+			list.add(perturb(v));
+		}
+
+		for (var distance : AverageRotationRobust_F64.Distance.values()) {
+			var alg = new AverageRotationRobust_F64();
+			alg.distance = distance;
+			var found = new DMatrixRMaj(3, 3);
+			assertTrue(alg.process(list, found));
+			assertEquals(0.0, angle(truth, found), 1.0e-6, distance.name());
+		}
+	}
+
+	/**
+	 * A large fraction of outliers should have much less influence on the L1 average than on the L2 average
+	 */
+	@Test void outliers() {
+		List<DMatrixRMaj> list = new ArrayList<>();
+		for (int i = 0; i < 70; i++) {
+			list.add(perturb(new Vector3D_F64(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian()).times(0.01)));
+		}
+		// outliers are all biased in the same direction
+		for (int i = 0; i < 30; i++) {
+			list.add(perturb(new Vector3D_F64(1.2 + 0.3*rand.nextGaussian(), 0.3*rand.nextGaussian(), 0.3*rand.nextGaussian())));
+		}
+
+		var l2 = new DMatrixRMaj(3, 3);
+		assertTrue(new AverageRotationMatrix_F64().process(list, l2));
+		double errorL2 = angle(truth, l2);
+
+		for (var distance : AverageRotationRobust_F64.Distance.values()) {
+			var alg = new AverageRotationRobust_F64();
+			alg.distance = distance;
+			var found = new DMatrixRMaj(3, 3);
+			assertTrue(alg.process(list, found));
+			double errorL1 = angle(truth, found);
+			assertTrue(errorL1*10 < errorL2, distance + " " + errorL1 + " " + errorL2);
+			assertTrue(errorL1 < 0.03);
+
+			// outliers should have smaller weights than inliers
+			assertTrue(alg.getWeights().get(0) > alg.getWeights().get(list.size() - 1));
+		}
+	}
+
+	private DMatrixRMaj perturb( Vector3D_F64 v ) {
+		DMatrixRMaj R = LieSo3Ops_F64.exp(v, new DMatrixRMaj(3, 3));
+		var out = new DMatrixRMaj(3, 3);
+		CommonOps_DDRM.mult(truth, R, out);
+		return out;
+	}
+
+	private static double angle( DMatrixRMaj a, DMatrixRMaj b ) {
+		var diff = new DMatrixRMaj(3, 3);
+		CommonOps_DDRM.multTransA(a, b, diff);
+		return LieSo3Ops_F64.log(diff, new Vector3D_F64()).norm();
+	}
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.transform.se;
+
+import georegression.geometry.GeometryMath_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Vector3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.se.SpecialEuclideanOps_F64;
+import georegression.transform.twist.TwistCoordinate_F64;
+import georegression.transform.twist.TwistOps_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestCubicBSplineSe3_F64 {
+	Random rand = new Random(234);
+	double tol = GrlConstants.TEST_F64;
+	double tolR = GrlConstants.TEST_F64*100;
+
+	@Test void timeRange() {
+		var alg = new CubicBSplineSe3_F64(2.0, 0.5);
+		var pose = new Se3_F64();
+		for (int i = 0; i < 3; i++) {
+			alg.add(randomPose());
+			assertFalse(alg.isInside(2.0));
+			assertFalse(alg.evaluate(2.0, pose));
+		}
+		alg.add(randomPose());
+		alg.add(randomPose());
+		assertEquals(5, alg.size());
+		assertEquals(3.0, alg.getEndTime(), tol);
+		assertFalse(alg.isInside(1.99));
+		assertTrue(alg.evaluate(2.0, pose));
+		assertTrue(alg.evaluate(3.0, pose));
+		assertFalse(alg.evaluate(3.01, pose));
+
+		alg.reset();
+		assertEquals(0, alg.size());
+		assertFalse(alg.isInside(2.0));
+	}
+
+	/**
+	 * Control points which are sampled from a constant twist should produce that same constant motion
+	 */
+	@Test void constantTwist() {
+		var xi = new TwistCoordinate_F64(0.1, -0.2, 0.3, 1.0, 0.5, -0.4);
+		double spacing = 0.2;
+		var alg = new CubicBSplineSe3_F64(1.0, spacing);
+		for (int i = 0; i < 8; i++) {
+			alg.add(TwistOps_F64.exponential(xi, i, null));
+		}
+
+		var found = new Se3_F64();
+		var vel = new TwistCoordinate_F64();
+		var acc = new TwistCoordinate_F64();
+		for (int trial = 0; trial < 20; trial++) {
+			double time = 1.0 + rand.nextDouble()*(alg.getEndTime() - 1.0);
+			assertTrue(alg.evaluate(time, found, vel, acc));
+
+			// pose in the first segment is the second control point
+			double s = (time - 1.0)/spacing + 1.0;
+			Se3_F64 expected = TwistOps_F64.exponential(xi, s, null);
+			assertTrue(SpecialEuclideanOps_F64.isIdentical(expected, found, tol, tolR));
+
+			// constant body frame angular velocity and no angular acceleration
+			assertEquals(0.0, vel.w.distance(xi.w.x/spacing, xi.w.y/spacing, xi.w.z/spacing), tol);
+			assertEquals(0.0, acc.w.norm(), tol);
+
+			// world frame linear velocity = R*v. acceleration = R*(w x v)
+			var v = new Vector3D_F64(xi.v.x/spacing, xi.v.y/spacing, xi.v.z/spacing);
+			var w = new Vector3D_F64(xi.w.x/spacing, xi.w.y/spacing, xi.w.z/spacing);
+			Vector3D_F64 expectedVel = GeometryMath_F64.mult(expected.R, v, (Vector3D_F64)null);
+			assertEquals(0.0, vel.v.distance(expectedVel), 100*GrlConstants.TEST_F64);
+			Vector3D_F64 expectedAcc = GeometryMath_F64.mult(expected.R, w.crossWith(v), (Vector3D_F64)null);
+			assertEquals(0.0, acc.v.distance(expectedAcc), 100*GrlConstants.TEST_F64);
+		}
+	}
+
+	/**
+	 * Compare analytic derivatives against numerical derivatives
+	 */
+	@Test void derivatives_numerical() {
+		CubicBSplineSe3_F64 alg = createRandom(10, 0.3);
+
+		var vel = new TwistCoordinate_F64();
+		var acc = new TwistCoordinate_F64();
+		var velA = new TwistCoordinate_F64();
+		var velB = new TwistCoordinate_F64();
+		var pose = new Se3_F64();
+		var poseA = new Se3_F64();
+		var poseB = new Se3_F64();
+		double h = 0.1*GrlConstants.TEST_SQ_F64;
+
+		for (int trial = 0; trial < 20; trial++) {
+			double time = h + rand.nextDouble()*(alg.getEndTime() - 2*h);
+			alg.evaluate(time, pose, vel, acc);
+			alg.evaluate(time - h, poseA, velA, null);
+			alg.evaluate(time + h, poseB, velB, null);
+
+			// angular velocity from R'*dR
+			var dR = new DMatrixRMaj(3, 3);
+			CommonOps_DDRM.subtract(poseB.R, poseA.R, dR);
+			CommonOps_DDRM.scale(1.0/(2*h), dR);
+			var RtdR = new DMatrixRMaj(3, 3);
+			CommonOps_DDRM.multTransA(pose.R, dR, RtdR);
+			assertEquals(RtdR.get(2, 1), vel.w.x, 0.1*GrlConstants.TEST_SQ_F64);
+			assertEquals(RtdR.get(0, 2), vel.w.y, 0.1*GrlConstants.TEST_SQ_F64);
+			assertEquals(RtdR.get(1, 0), vel.w.z, 0.1*GrlConstants.TEST_SQ_F64);
+
+			for (int i = 0; i < 3; i++) {
+				assertEquals((poseB.T.getIdx(i) - poseA.T.getIdx(i))/(2*h), vel.v.getIdx(i),
+						0.1*GrlConstants.TEST_SQ_F64);
+				assertEquals((velB.v.getIdx(i) - velA.v.getIdx(i))/(2*h), acc.v.getIdx(i), GrlConstants.TEST_SQ_F64);
+				assertEquals((velB.w.getIdx(i) - velA.w.getIdx(i))/(2*h), acc.w.getIdx(i), GrlConstants.TEST_SQ_F64);
+			}
+		}
+	}
+
+	/**
+	 * The spline should be C2 continuous across segments
+	 */
+	@Test void continuous() {
+		CubicBSplineSe3_F64 alg = createRandom(8, 0.5);
+		var poseA = new Se3_F64();
+		var poseB = new Se3_F64();
+		var velA = new TwistCoordinate_F64();
+		var velB = new TwistCoordinate_F64();
+		var accA = new TwistCoordinate_F64();
+		var accB = new TwistCoordinate_F64();
+		double eps = 1.0e-9;
+
+		for (int i = 1; i < alg.size() - 3; i++) {
+			double time = alg.getStartTime() + i*alg.getSpacing();
+			alg.evaluate(time - eps, poseA, velA, accA);
+			alg.evaluate(time + eps, poseB, velB, accB);
+			assertTrue(SpecialEuclideanOps_F64.isIdentical(poseA, poseB, 1.0e-6, 1.0e-6));
+			assertEquals(0.0, velA.w.distance(velB.w), 1.0e-6);
+			assertEquals(0.0, velA.v.distance(velB.v), 1.0e-6);
+			assertEquals(0.0, accA.w.distance(accB.w), 1.0e-6);
+			assertEquals(0.0, accA.v.distance(accB.v), 1.0e-6);
+		}
+	}
+
+	/**
+	 * The rotation should be the same as a SO(3) spline with the same control points
+	 */
+	@Test void compareToSo3() {
+		CubicBSplineSe3_F64 alg = createRandom(8, 0.5);
+		var so3 = new CubicBSplineSo3_F64(alg.getStartTime(), alg.getSpacing());
+		for (int i = 0; i < alg.size(); i++) {
+			so3.add(alg.getControl(i).R);
+		}
+
+		var pose = new Se3_F64();
+		var vel = new TwistCoordinate_F64();
+		var acc = new TwistCoordinate_F64();
+		var R = new DMatrixRMaj(3, 3);
+		var w = new Vector3D_F64();
+		var dw = new Vector3D_F64();
+		for (int trial = 0; trial < 20; trial++) {
+			double time = alg.getStartTime() + rand.nextDouble()*(alg.getEndTime() - alg.getStartTime());
+			alg.evaluate(time, pose, vel, acc);
+			so3.evaluate(time, R, w, dw);
+			for (int i = 0; i < 9; i++) {
+				assertEquals(R.data[i], pose.R.data[i], GrlConstants.TEST_F64);
+			}
+			assertEquals(0.0, vel.w.distance(w), GrlConstants.TEST_F64);
+			assertEquals(0.0, acc.w.distance(dw), GrlConstants.TEST_F64);
+		}
+	}
+
+	private CubicBSplineSe3_F64 createRandom( int count, double spacing ) {
+		var alg = new CubicBSplineSe3_F64(0.0, spacing);
+		Se3_F64 pose = randomPose();
+		for (int i = 0; i < count; i++) {
+			alg.add(pose);
+			Se3_F64 motion = SpecialEuclideanOps_F64.eulerXyz(rand.nextGaussian(), rand.nextGaussian(),
+					rand.nextGaussian(), 0.3*rand.nextGaussian(), 0.3*rand.nextGaussian(), 0.3*rand.nextGaussian(), null);
+			pose = pose.concat(motion, null);
+		}
+		return alg;
+	}
+
+	private Se3_F64 randomPose() {
+		return SpecialEuclideanOps_F64.eulerXyz(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(),
+				rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(), null);
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.transform.se;
+
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.EulerType;
+import georegression.struct.point.Vector3D_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestCubicBSplineSo3_F64 {
+	Random rand = new Random(234);
+	double tol = GrlConstants.TEST_F64;
+
+	/**
+	 * Control points which rotate at a constant rate around an axis should produce the same rotation
+	 */
+	@Test void constantRotation() {
+		var axis = new Vector3D_F64(0.2, -0.5, 1.0);
+		axis.normalize();
+		double spacing = 0.1;
+		double rate = 0.4;
+		var alg = new CubicBSplineSo3_F64(0.0, spacing);
+		for (int i = 0; i < 7; i++) {
+			alg.add(ConvertRotation3D_F64.rodriguesToMatrix(axis.x, axis.y, axis.z, i*rate, null));
+		}
+		assertFalse(alg.isInside(alg.getEndTime() + 0.001));
+
+		var R = new DMatrixRMaj(3, 3);
+		var vel = new Vector3D_F64();
+		var acc = new Vector3D_F64();
+		for (int trial = 0; trial < 20; trial++) {
+			double time = rand.nextDouble()*alg.getEndTime();
+			assertTrue(alg.evaluate(time, R, vel, acc));
+			double angle = (time/spacing + 1.0)*rate;
+			DMatrixRMaj expected = ConvertRotation3D_F64.rodriguesToMatrix(axis.x, axis.y, axis.z, angle, null);
+			assertTrue(MatrixFeatures_DDRM.isIdentical(expected, R, tol));
+			assertEquals(0.0, vel.distance(axis.x*rate/spacing, axis.y*rate/spacing, axis.z*rate/spacing), tol);
+			assertEquals(0.0, acc.norm(), tol);
+		}
+	}
+
+	/**
+	 * Compare analytic derivatives against numerical derivatives
+	 */
+	@Test void derivatives_numerical() {
+		var alg = new CubicBSplineSo3_F64(0.5, 0.25);
+		double[] euler = new double[3];
+		for (int i = 0; i < 10; i++) {
+			for (int j = 0; j < 3; j++) {
+				euler[j] += rand.nextGaussian()*0.4;
+			}
+			alg.add(ConvertRotation3D_F64.eulerToMatrix(EulerType.XYZ, euler[0], euler[1], euler[2], null));
+		}
+
+		var R = new DMatrixRMaj(3, 3);
+		var Ra = new DMatrixRMaj(3, 3);
+		var Rb = new DMatrixRMaj(3, 3);
+		var vel = new Vector3D_F64();
+		var velA = new Vector3D_F64();
+		var velB = new Vector3D_F64();
+		var acc = new Vector3D_F64();
+		var dR = new DMatrixRMaj(3, 3);
+		var RtdR = new DMatrixRMaj(3, 3);
+		double h = 0.1*GrlConstants.TEST_SQ_F64;
+
+		for (int trial = 0; trial < 20; trial++) {
+			double time = alg.getStartTime() + h + rand.nextDouble()*(alg.getEndTime() - alg.getStartTime() - 2*h);
+			alg.evaluate(time, R, vel, acc);
+			alg.evaluate(time - h, Ra, velA, null);
+			alg.evaluate(time + h, Rb, velB, null);
+
+			CommonOps_DDRM.subtract(Rb, Ra, dR);
+			CommonOps_DDRM.scale(1.0/(2*h), dR);
+			CommonOps_DDRM.multTransA(R, dR, RtdR);
+			assertEquals(RtdR.get(2, 1), vel.x, 0.1*GrlConstants.TEST_SQ_F64);
+			assertEquals(RtdR.get(0, 2), vel.y, 0.1*GrlConstants.TEST_SQ_F64);
+			assertEquals(RtdR.get(1, 0), vel.z, 0.1*GrlConstants.TEST_SQ_F64);
+
+			assertEquals((velB.x - velA.x)/(2*h), acc.x, GrlConstants.TEST_SQ_F64);
+			assertEquals((velB.y - velA.y)/(2*h), acc.y, GrlConstants.TEST_SQ_F64);
+			assertEquals((velB.z - velA.z)/(2*h), acc.z, GrlConstants.TEST_SQ_F64);
+		}
+	}
+}
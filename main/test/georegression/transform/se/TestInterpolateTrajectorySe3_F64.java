@@ -0,0 +1,247 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.transform.se;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.se.Se3Quaternion_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.se.SpecialEuclideanOps_F64;
+import georegression.transform.se.InterpolateTrajectorySe3_F64.Method;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_F64;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestInterpolateTrajectorySe3_F64 {
+	Random rand = new Random(234);
+	double tol = GrlConstants.TEST_F64;
+	// Rotation error is computed from acos() and isn't as precise
+	double tolR = GrlConstants.TEST_F64*100;
+
+	@Test void ringBuffer() {
+		var alg = new InterpolateTrajectorySe3_F64(5, Method.SLERP);
+		for (int i = 0; i < 8; i++) {
+			alg.add(i, TestInterpolateLinearSe3_F64.create(i, 0, 0, 0, 0, 0));
+		}
+		assertEquals(5, alg.getSize());
+		assertEquals(5, alg.getCapacity());
+		for (int i = 0; i < 5; i++) {
+			assertEquals(i + 3, alg.getTime(i));
+			assertEquals(i + 3, alg.getPose(i).T.x);
+		}
+		assertFalse(alg.isInside(2.9));
+		assertTrue(alg.isInside(3.0));
+		assertTrue(alg.isInside(7.0));
+
+		alg.reset();
+		assertEquals(0, alg.getSize());
+		assertFalse(alg.isInside(3.0));
+	}
+
+	@Test void add_timeMustIncrease() {
+		var alg = new InterpolateTrajectorySe3_F64(5, Method.SLERP);
+		alg.add(1.0, new Se3_F64());
+		assertThrows(IllegalArgumentException.class, () -> alg.add(1.0, new Se3_F64()));
+		assertThrows(IllegalArgumentException.class, () -> alg.add(0.5, new Se3_F64()));
+	}
+
+	@Test void outside() {
+		var alg = new InterpolateTrajectorySe3_F64(5, Method.SLERP);
+		var found = new Se3_F64();
+		assertFalse(alg.interpolate(0.0, found));
+		alg.add(1.0, randomPose());
+		assertFalse(alg.interpolate(0.0, found));
+		assertTrue(alg.interpolate(1.0, found));
+		assertTrue(SpecialEuclideanOps_F64.isIdentical(alg.getPose(0).convertTo(null), found, tol, tolR));
+		alg.add(2.0, randomPose());
+		assertFalse(alg.interpolate(2.1, found));
+
+		DogArray_F64 times = DogArray_F64.array(1.5, 2.5);
+		assertThrows(IllegalArgumentException.class, () -> alg.interpolate(times, new DogArray<>(Se3_F64::new)));
+	}
+
+	/**
+	 * SLERP should produce the same results as interpolating each segment with {@link InterpolateLinearSe3_F64}
+	 */
+	@Test void slerp_compareToLinearSe3() {
+		var alg = createTrajectory(10, Method.SLERP);
+		var linear = new InterpolateLinearSe3_F64();
+		var expected = new Se3_F64();
+		var found = new Se3_F64();
+
+		for (int i = 0; i < 200; i++) {
+			double time = rand.nextDouble()*alg.getTime(9);
+			int segment = alg.findSegment(time);
+			double t0 = alg.getTime(segment);
+			double t1 = alg.getTime(segment + 1);
+			linear.setTransforms(alg.getPose(segment).convertTo(null), alg.getPose(segment + 1).convertTo(null));
+			linear.interpolate((time - t0)/(t1 - t0), expected);
+
+			assertTrue(alg.interpolate(time, found));
+			assertTrue(SpecialEuclideanOps_F64.isIdentical(expected, found, tol, tolR));
+		}
+	}
+
+	/**
+	 * Every method should pass through the poses
+	 */
+	@Test void passThroughPoses() {
+		for (Method method : Method.values()) {
+			var alg = createTrajectory(10, method);
+			var found = new Se3_F64();
+			for (int i = 0; i < alg.getSize(); i++) {
+				assertTrue(alg.interpolate(alg.getTime(i), found));
+				assertTrue(SpecialEuclideanOps_F64.isIdentical(alg.getPose(i).convertTo(null), found, tol, tolR));
+			}
+		}
+	}
+
+	/**
+	 * Linear should be close to SLERP when the rotations are similar
+	 */
+	@Test void linear_similarToSlerp() {
+		var slerp = new InterpolateTrajectorySe3_F64(2, Method.SLERP);
+		var linear = new InterpolateTrajectorySe3_F64(2, Method.LINEAR);
+		Se3_F64 a = TestInterpolateLinearSe3_F64.create(1, 2, 3, 0.1, 0.2, 0);
+		Se3_F64 b = TestInterpolateLinearSe3_F64.create(2, 2, 1, 0.12, 0.21, 0.01);
+		slerp.add(0.0, a);
+		slerp.add(1.0, b);
+		linear.add(0.0, a);
+		linear.add(1.0, b);
+
+		var expected = new Se3_F64();
+		var found = new Se3_F64();
+		for (int i = 0; i <= 10; i++) {
+			slerp.interpolate(i/10.0, expected);
+			linear.interpolate(i/10.0, found);
+			assertTrue(SpecialEuclideanOps_F64.isIdentical(expected, found, tol, 10*tolR));
+		}
+	}
+
+	/**
+	 * Constant velocity motion should be exactly reproduced by Catmull-Rom even with non-uniform time stamps
+	 */
+	@Test void catmullRom_constantVelocity() {
+		var alg = new InterpolateTrajectorySe3_F64(20, Method.CATMULL_ROM);
+		double time = 0;
+		for (int i = 0; i < 10; i++) {
+			alg.add(time, TestInterpolateLinearSe3_F64.create(2*time, -time, 0.5*time, 0.3*time, 0, 0));
+			time += 0.5 + rand.nextDouble();
+		}
+
+		var found = new Se3_F64();
+		for (int i = 0; i < 100; i++) {
+			// avoid the first and last segment since the tangents there are not exact
+			double t = alg.getTime(1) + rand.nextDouble()*(alg.getTime(8) - alg.getTime(1));
+			alg.interpolate(t, found);
+			Se3_F64 expected = TestInterpolateLinearSe3_F64.create(2*t, -t, 0.5*t, 0.3*t, 0, 0);
+			assertTrue(SpecialEuclideanOps_F64.isIdentical(expected, found, tol, tolR));
+		}
+	}
+
+	/**
+	 * Catmull-Rom should be smooth across poses
+	 */
+	@Test void catmullRom_continuous() {
+		var alg = createTrajectory(10, Method.CATMULL_ROM);
+		var before = new Se3_F64();
+		var after = new Se3_F64();
+		double eps = 10*GrlConstants.TEST_F64;
+		for (int i = 1; i < alg.getSize() - 1; i++) {
+			double t = alg.getTime(i);
+			alg.interpolate(t - eps, before);
+			alg.interpolate(t + eps, after);
+			assertTrue(SpecialEuclideanOps_F64.isIdentical(before, after, 1000*GrlConstants.TEST_F64, 10*tolR));
+		}
+	}
+
+	/**
+	 * Sorted and unsorted queries should find the same segment
+	 */
+	@Test void findSegment() {
+		var alg = createTrajectory(20, Method.SLERP);
+		for (int i = 0; i < 500; i++) {
+			double time = rand.nextDouble()*alg.getTime(19);
+			int found = alg.findSegment(time);
+			assertTrue(alg.getTime(found) <= time);
+			assertTrue(alg.getTime(found + 1) >= time);
+			alg.selectSegment(found);
+		}
+		// the last pose is in the last segment
+		assertEquals(18, alg.findSegment(alg.getTime(19)));
+	}
+
+	@Test void bulk() {
+		for (Method method : Method.values()) {
+			var alg = createTrajectory(10, method);
+			var times = new DogArray_F64();
+			for (int i = 0; i < 100; i++) {
+				times.add(rand.nextDouble()*alg.getTime(9));
+			}
+
+			var output = new DogArray<>(Se3_F64::new);
+			alg.interpolate(times, output);
+			assertEquals(times.size, output.size);
+
+			var quaternions = new double[4*times.size];
+			var translations = new double[3*times.size];
+			alg.interpolate(times.data, 0, times.size, quaternions, translations);
+
+			var expected = new Se3Quaternion_F64();
+			for (int i = 0; i < times.size; i++) {
+				alg.interpolate(times.get(i), expected);
+				assertTrue(SpecialEuclideanOps_F64.isIdentical(expected.convertTo(null), output.get(i), tol, tolR));
+
+				assertEquals(expected.q.w, quaternions[i*4], tol);
+				assertEquals(expected.q.x, quaternions[i*4 + 1], tol);
+				assertEquals(expected.q.y, quaternions[i*4 + 2], tol);
+				assertEquals(expected.q.z, quaternions[i*4 + 3], tol);
+				assertEquals(0.0, expected.T.distance(translations[i*3], translations[i*3 + 1], translations[i*3 + 2]), tol);
+			}
+		}
+	}
+
+	/**
+	 * Trajectory with poses that change smoothly and with a random time between them
+	 */
+	private InterpolateTrajectorySe3_F64 createTrajectory( int count, Method method ) {
+		var alg = new InterpolateTrajectorySe3_F64(count, method);
+		double time = 0;
+		Se3_F64 pose = randomPose();
+		for (int i = 0; i < count; i++) {
+			alg.add(time, pose);
+			time += 0.1 + rand.nextDouble();
+			Se3_F64 motion = SpecialEuclideanOps_F64.eulerXyz(rand.nextGaussian(), rand.nextGaussian(),
+					rand.nextGaussian(), 0.3*rand.nextGaussian(), 0.3*rand.nextGaussian(), 0.3*rand.nextGaussian(), null);
+			pose = pose.concat(motion, null);
+		}
+		return alg;
+	}
+
+	private Se3_F64 randomPose() {
+		return SpecialEuclideanOps_F64.eulerXyz(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(),
+				rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(), null);
+	}
+}
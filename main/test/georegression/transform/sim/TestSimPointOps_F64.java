@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2022, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.transform.sim;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.sim.Sim3_F64;
+import georegression.struct.sim.TestSim3_F64;
+import georegression.transform.se.SePointOps_F64;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSimPointOps_F64 {
+	Random rand = new Random(234);
+	double tol = GrlConstants.TEST_F64;
+
+	/**
+	 * Compare against applying the scale then an equivalent Se3
+	 */
+	@Test void transform() {
+		Sim3_F64 sim = TestSim3_F64.random(rand);
+		var se = new Se3_F64(sim.R, sim.T);
+
+		var p = new Point3D_F64(1, -2, 0.5);
+		Point3D_F64 expected = SePointOps_F64.transform(se, p.times(sim.scale), null);
+		Point3D_F64 found = SimPointOps_F64.transform(sim, p, null);
+		assertEquals(0.0, expected.distance(found), tol);
+
+		// src and dst are the same instance
+		SimPointOps_F64.transform(sim, p, p);
+		assertEquals(0.0, expected.distance(p), tol);
+	}
+
+	@Test void transform_list() {
+		Sim3_F64 sim = TestSim3_F64.random(rand);
+		List<Point3D_F64> points = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			points.add(new Point3D_F64(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian()));
+		}
+		List<Point3D_F64> original = new ArrayList<>();
+		points.forEach(p -> original.add(p.copy()));
+
+		SimPointOps_F64.transform(sim, points);
+		for (int i = 0; i < points.size(); i++) {
+			Point3D_F64 expected = SimPointOps_F64.transform(sim, original.get(i), null);
+			assertEquals(0.0, expected.distance(points.get(i)), tol);
+		}
+
+		var array = new Point3D_F64[original.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = original.get(i).copy();
+		}
+		SimPointOps_F64.transform(sim, array, 1, 3);
+		assertEquals(0.0, array[0].distance(original.get(0)), tol);
+		assertEquals(0.0, array[4].distance(original.get(4)), tol);
+		for (int i = 1; i < 4; i++) {
+			assertEquals(0.0, array[i].distance(points.get(i)), tol);
+		}
+	}
+
+	@Test void transformReverse() {
+		Sim3_F64 sim = TestSim3_F64.random(rand);
+		var p = new Point3D_F64(1, -2, 0.5);
+		Point3D_F64 q = SimPointOps_F64.transform(sim, p, null);
+		Point3D_F64 found = SimPointOps_F64.transformReverse(sim, q, null);
+		assertEquals(0.0, p.distance(found), tol);
+
+		SimPointOps_F64.transformReverse(sim, q, q);
+		assertEquals(0.0, p.distance(q), tol);
+	}
+}